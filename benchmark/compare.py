@@ -0,0 +1,68 @@
+#!/usr/bin/env python3
+#
+# Licensed to the Apache Software Foundation (ASF) under one
+# or more contributor license agreements.  See the NOTICE file
+# distributed with this work for additional information
+# regarding copyright ownership.  The ASF licenses this file
+# to you under the Apache License, Version 2.0 (the
+# "License"); you may not use this file except in compliance
+# with the License.  You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing,
+# software distributed under the License is distributed on an
+# "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+# KIND, either express or implied.  See the License for the
+# specific language governing permissions and limitations
+# under the License.
+#
+
+# Compare two JMH result files produced with "-rf json".
+# Usage: compare.py base.json new.json
+
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = {}
+        for result in json.load(f):
+            params = ",".join(
+                "%s=%s" % (k, v) for k, v in sorted(result.get("params", {}).items())
+            )
+            metric = result["primaryMetric"]
+            results[(result["benchmark"], params)] = (
+                float(metric["score"]),
+                float(metric["scoreError"]),
+                metric["scoreUnit"],
+            )
+        return results
+
+
+def main():
+    if len(sys.argv) != 3:
+        print("Usage: %s base.json new.json" % sys.argv[0])
+        sys.exit(1)
+    base = load(sys.argv[1])
+    new = load(sys.argv[2])
+    print("%-90s %12s %12s %9s" % ("benchmark", "base", "new", "change"))
+    unit = ""
+    for key in sorted(base.keys() & new.keys()):
+        base_score, base_error, unit = base[key]
+        new_score, new_error, _ = new[key]
+        change = (new_score - base_score) / base_score * 100 if base_score else float("nan")
+        # differences within the error bounds of the two runs are noise
+        noise = abs(new_score - base_score) <= base_error + new_error
+        name = ".".join(key[0].split(".")[-2:])
+        if key[1]:
+            name += "(" + key[1] + ")"
+        print(
+            "%-90s %12.3f %12.3f %+8.1f%%%s"
+            % (name, base_score, new_score, change, " ~" if noise else "")
+        )
+    print("scores are in %s, ~ means the change is within the error bounds" % unit)
+
+if __name__ == "__main__":
+    main()
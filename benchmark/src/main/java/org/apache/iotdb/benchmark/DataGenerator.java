@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.benchmark;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.utils.BitMap;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+
+import java.util.Random;
+
+/** Generates the timestamps and values used by the benchmarks, always with a fixed seed. */
+public class DataGenerator {
+
+  public enum Disorder {
+    /** timestamps are strictly increasing */
+    ORDERED,
+    /** every point is at most 16 rows away from its sorted position */
+    LOCAL,
+    /** 4 ordered batches, each of which covers the whole time range */
+    BACKFILL,
+    /** uniformly random timestamps */
+    RANDOM
+  }
+
+  private static final TSDataType[] DATA_TYPES = {
+    TSDataType.INT64,
+    TSDataType.DOUBLE,
+    TSDataType.INT32,
+    TSDataType.FLOAT,
+    TSDataType.BOOLEAN,
+    TSDataType.TEXT
+  };
+
+  private static final int LOCAL_DISORDER_DISTANCE = 16;
+  private static final int BACKFILL_BATCH_NUM = 4;
+
+  private DataGenerator() {
+    // util class
+  }
+
+  public static long[] generateTimestamps(int size, Disorder disorder, long seed) {
+    Random random = new Random(seed);
+    long[] timestamps = new long[size];
+    int batchSize = Math.max(1, size / BACKFILL_BATCH_NUM);
+    for (int i = 0; i < size; i++) {
+      switch (disorder) {
+        case LOCAL:
+          timestamps[i] = i + (long) random.nextInt(LOCAL_DISORDER_DISTANCE);
+          break;
+        case BACKFILL:
+          timestamps[i] = (long) (i % batchSize) * BACKFILL_BATCH_NUM + i / batchSize;
+          break;
+        case RANDOM:
+          timestamps[i] = random.nextInt(size);
+          break;
+        case ORDERED:
+        default:
+          timestamps[i] = i;
+          break;
+      }
+    }
+    return timestamps;
+  }
+
+  /** The data types of the series, cycling through all common data types. */
+  public static TSDataType[] generateDataTypes(int seriesNum) {
+    TSDataType[] dataTypes = new TSDataType[seriesNum];
+    for (int i = 0; i < seriesNum; i++) {
+      dataTypes[i] = DATA_TYPES[i % DATA_TYPES.length];
+    }
+    return dataTypes;
+  }
+
+  public static Object generateColumn(TSDataType dataType, int rowNum, Random random) {
+    switch (dataType) {
+      case INT64:
+        long[] longs = new long[rowNum];
+        for (int i = 0; i < rowNum; i++) {
+          longs[i] = random.nextLong();
+        }
+        return longs;
+      case DOUBLE:
+        double[] doubles = new double[rowNum];
+        for (int i = 0; i < rowNum; i++) {
+          doubles[i] = random.nextDouble();
+        }
+        return doubles;
+      case INT32:
+        int[] ints = new int[rowNum];
+        for (int i = 0; i < rowNum; i++) {
+          ints[i] = random.nextInt();
+        }
+        return ints;
+      case FLOAT:
+        float[] floats = new float[rowNum];
+        for (int i = 0; i < rowNum; i++) {
+          floats[i] = random.nextFloat();
+        }
+        return floats;
+      case BOOLEAN:
+        boolean[] booleans = new boolean[rowNum];
+        for (int i = 0; i < rowNum; i++) {
+          booleans[i] = random.nextBoolean();
+        }
+        return booleans;
+      case TEXT:
+        Binary[] binaries = new Binary[rowNum];
+        for (int i = 0; i < rowNum; i++) {
+          binaries[i] = new Binary("value" + random.nextInt(1000), TSFileConfig.STRING_CHARSET);
+        }
+        return binaries;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type " + dataType);
+    }
+  }
+
+  public static InsertTabletNode generateInsertTabletNode(
+      String devicePath, int seriesNum, int rowNum, boolean aligned, Disorder disorder)
+      throws IllegalPathException {
+    Random random = new Random(0);
+    TSDataType[] dataTypes = generateDataTypes(seriesNum);
+    String[] measurements = new String[seriesNum];
+    MeasurementSchema[] schemas = new MeasurementSchema[seriesNum];
+    Object[] columns = new Object[seriesNum];
+    BitMap[] bitMaps = new BitMap[seriesNum];
+    for (int i = 0; i < seriesNum; i++) {
+      measurements[i] = "s" + i;
+      schemas[i] = new MeasurementSchema(measurements[i], dataTypes[i]);
+      columns[i] = generateColumn(dataTypes[i], rowNum, random);
+      bitMaps[i] = new BitMap(rowNum);
+    }
+    return new InsertTabletNode(
+        new PlanNodeId(""),
+        new PartialPath(devicePath),
+        aligned,
+        measurements,
+        dataTypes,
+        schemas,
+        generateTimestamps(rowNum, disorder, 0),
+        bitMaps,
+        columns,
+        rowNum);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.benchmark;
+
+import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.MergeReaderPriority;
+import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.PriorityMergeReader;
+
+import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.read.reader.IPointReader;
+import org.apache.tsfile.utils.TsPrimitiveType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges overlapped sequence and unsequence data by priority, which is what SeriesScanUtil does
+ * when the pages of a series overlap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PriorityMergeReaderBenchmark {
+
+  /** number of overlapped readers, e.g. a sequence page with several unsequence pages */
+  @Param({"2", "8", "32"})
+  public int readerNum;
+
+  @Param({"100000"})
+  public int pointNum;
+
+  /** each reader holds the timestamps {offset, offset + readerNum, ...}, interleaved with others */
+  private TimeValuePair[][] readerData;
+
+  @Setup
+  public void setUp() {
+    int pointNumPerReader = pointNum / readerNum;
+    readerData = new TimeValuePair[readerNum][pointNumPerReader];
+    for (int reader = 0; reader < readerNum; reader++) {
+      for (int i = 0; i < pointNumPerReader; i++) {
+        // half of the points of a reader overlap with the next reader
+        long time = (long) i * readerNum + reader - (i % 2 == 0 ? 0 : 1);
+        readerData[reader][i] = new TimeValuePair(time, new TsPrimitiveType.TsLong(time));
+      }
+    }
+  }
+
+  @Benchmark
+  public long merge() throws IOException {
+    PriorityMergeReader mergeReader = new PriorityMergeReader();
+    for (int reader = 0; reader < readerNum; reader++) {
+      TimeValuePair[] data = readerData[reader];
+      mergeReader.addReader(
+          new ArrayPointReader(data),
+          new MergeReaderPriority(reader, reader, 0, reader == 0),
+          data[data.length - 1].getTimestamp());
+    }
+    long checksum = 0;
+    while (mergeReader.hasNextTimeValuePair()) {
+      checksum += mergeReader.nextTimeValuePair().getTimestamp();
+    }
+    mergeReader.close();
+    return checksum;
+  }
+
+  private static class ArrayPointReader implements IPointReader {
+
+    private final TimeValuePair[] data;
+    private int index;
+
+    private ArrayPointReader(TimeValuePair[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public boolean hasNextTimeValuePair() {
+      return index < data.length;
+    }
+
+    @Override
+    public TimeValuePair nextTimeValuePair() {
+      return data[index++];
+    }
+
+    @Override
+    public TimeValuePair currentTimeValuePair() {
+      return data[index];
+    }
+
+    @Override
+    public long getUsedMemorySize() {
+      return 0;
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.benchmark;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.datastructure.AlignedTVList;
+import org.apache.iotdb.db.utils.datastructure.LongTVList;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.db.utils.datastructure.TVListSortAlgorithm;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/** Sorts a memtable TVList at flush or query time. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TVListSortBenchmark {
+
+  @Param({"TIM", "QUICK", "BACKWARD", "ADAPTIVE"})
+  public TVListSortAlgorithm algorithm;
+
+  @Param({"ORDERED", "LOCAL", "BACKFILL", "RANDOM"})
+  public DataGenerator.Disorder disorder;
+
+  @Param({"false", "true"})
+  public boolean aligned;
+
+  // the default avg_series_point_number_threshold
+  @Param({"100000"})
+  public int pointNum;
+
+  private long[] timestamps;
+  private TVList tvList;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    // the TVList classes read the sort algorithm once when they are loaded, which is fine as every
+    // parameter combination runs in its own fork
+    IoTDBDescriptor.getInstance().getConfig().setTvListSortAlgorithm(algorithm);
+    timestamps = DataGenerator.generateTimestamps(pointNum, disorder, 0);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    if (aligned) {
+      AlignedTVList alignedTVList =
+          AlignedTVList.newAlignedList(Arrays.asList(TSDataType.INT64, TSDataType.DOUBLE));
+      for (long time : timestamps) {
+        alignedTVList.putAlignedValue(time, new Object[] {time, (double) time});
+        // the same as AlignedWritableMemChunk does after each insertion
+        alignedTVList.updateDisorderStatistics();
+      }
+      tvList = alignedTVList;
+    } else {
+      LongTVList longTVList = LongTVList.newList();
+      for (long time : timestamps) {
+        longTVList.putLong(time, time);
+        // the same as WritableMemChunk does after each insertion
+        longTVList.updateDisorderStatistics();
+      }
+      tvList = longTVList;
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownInvocation() {
+    tvList.clear();
+  }
+
+  @Benchmark
+  public TVList sort() {
+    tvList.sort();
+    return tvList;
+  }
+}
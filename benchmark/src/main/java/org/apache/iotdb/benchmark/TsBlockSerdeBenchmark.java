@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.benchmark;
+
+import org.apache.iotdb.db.queryengine.execution.exchange.TsBlockSerdeFactory;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.apache.tsfile.utils.Binary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Serializes and deserializes the TsBlocks transferred between fragment instances. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TsBlockSerdeBenchmark {
+
+  @Param({"1", "10"})
+  public int columnNum;
+
+  @Param({"1000", "10000"})
+  public int positionCount;
+
+  private final TsBlockSerde serde = new TsBlockSerdeFactory().get();
+  private TsBlock tsBlock;
+  private ByteBuffer serialized;
+
+  @Setup
+  public void setUp() throws IOException {
+    TSDataType[] dataTypes = DataGenerator.generateDataTypes(columnNum);
+    TsBlockBuilder builder = new TsBlockBuilder(Arrays.asList(dataTypes));
+    Random random = new Random(0);
+    for (int i = 0; i < positionCount; i++) {
+      builder.getTimeColumnBuilder().writeLong(i);
+      for (int column = 0; column < columnNum; column++) {
+        ColumnBuilder columnBuilder = builder.getColumnBuilder(column);
+        // one in ten values is null
+        if (random.nextInt(10) == 0) {
+          columnBuilder.appendNull();
+          continue;
+        }
+        switch (dataTypes[column]) {
+          case INT64:
+            columnBuilder.writeLong(random.nextLong());
+            break;
+          case DOUBLE:
+            columnBuilder.writeDouble(random.nextDouble());
+            break;
+          case INT32:
+            columnBuilder.writeInt(random.nextInt());
+            break;
+          case FLOAT:
+            columnBuilder.writeFloat(random.nextFloat());
+            break;
+          case BOOLEAN:
+            columnBuilder.writeBoolean(random.nextBoolean());
+            break;
+          default:
+            columnBuilder.writeBinary(new Binary(("value" + random.nextInt(1000)).getBytes()));
+            break;
+        }
+      }
+      builder.declarePosition();
+    }
+    tsBlock = builder.build();
+    serialized = serde.serialize(tsBlock);
+  }
+
+  @Benchmark
+  public ByteBuffer serialize() throws IOException {
+    return serde.serialize(tsBlock);
+  }
+
+  @Benchmark
+  public TsBlock deserialize() {
+    serialized.rewind();
+    return serde.deserialize(serialized);
+  }
+}
@@ -514,6 +514,13 @@ public class MppCommonConfig extends MppBaseConfig implements CommonConfig {
     return this;
   }
 
+  @Override
+  public CommonConfig setEnableCostBasedJoinOptimization(boolean enableCostBasedJoinOptimization) {
+    setProperty(
+        "enable_cost_based_join_optimization", String.valueOf(enableCostBasedJoinOptimization));
+    return this;
+  }
+
   @Override
   public CommonConfig setDefaultStorageGroupLevel(int defaultStorageGroupLevel) {
     setProperty("default_storage_group_level", String.valueOf(defaultStorageGroupLevel));
@@ -527,6 +527,13 @@ public class MppSharedCommonConfig implements CommonConfig {
     return this;
   }
 
+  @Override
+  public CommonConfig setEnableCostBasedJoinOptimization(boolean enableCostBasedJoinOptimization) {
+    dnConfig.setEnableCostBasedJoinOptimization(enableCostBasedJoinOptimization);
+    cnConfig.setEnableCostBasedJoinOptimization(enableCostBasedJoinOptimization);
+    return this;
+  }
+
   @Override
   public CommonConfig setDefaultStorageGroupLevel(int defaultStorageGroupLevel) {
     dnConfig.setDefaultStorageGroupLevel(defaultStorageGroupLevel);
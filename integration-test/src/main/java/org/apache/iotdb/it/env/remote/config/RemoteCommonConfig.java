@@ -370,4 +370,9 @@ public class RemoteCommonConfig implements CommonConfig {
   public CommonConfig setQueryMemoryProportion(String queryMemoryProportion) {
     return this;
   }
+
+  @Override
+  public CommonConfig setEnableCostBasedJoinOptimization(boolean enableCostBasedJoinOptimization) {
+    return this;
+  }
 }
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.relational.it.query.recent;
+
+import org.apache.iotdb.it.env.EnvFactory;
+import org.apache.iotdb.it.framework.IoTDBTestRunner;
+import org.apache.iotdb.itbase.category.TableClusterIT;
+import org.apache.iotdb.itbase.category.TableLocalStandaloneIT;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.apache.iotdb.db.it.utils.TestUtils.prepareTableData;
+import static org.apache.iotdb.db.it.utils.TestUtils.tableResultSetEqualTest;
+
+/** The joins in this IT are reordered and their algorithms are chosen by the estimated stats. */
+@RunWith(IoTDBTestRunner.class)
+@Category({TableLocalStandaloneIT.class, TableClusterIT.class})
+public class IoTDBCostBasedJoinTableIT {
+  private static final String DATABASE_NAME = "test";
+  private static final String[] createSqls =
+      new String[] {
+        "CREATE DATABASE " + DATABASE_NAME,
+        "USE " + DATABASE_NAME,
+        "CREATE TABLE ta(tag1 STRING TAG, s1 INT32 FIELD)",
+        "CREATE TABLE tb(tag1 STRING TAG, s2 INT32 FIELD)",
+        "CREATE TABLE tc(tag1 STRING TAG, s3 INT32 FIELD)",
+        "INSERT INTO ta(time,tag1,s1) values(1, 'x', 1)",
+        "INSERT INTO ta(time,tag1,s1) values(2, 'x', 2)",
+        "INSERT INTO ta(time,tag1,s1) values(3, 'x', 3)",
+        "INSERT INTO tb(time,tag1,s2) values(1, 'x', 10)",
+        "INSERT INTO tb(time,tag1,s2) values(2, 'x', 20)",
+        "INSERT INTO tb(time,tag1,s2) values(3, 'x', 30)",
+        "INSERT INTO tc(time,tag1,s3) values(2, 'y', 200)",
+        // the stats are collected from the sealed TsFiles
+        "FLUSH",
+      };
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    EnvFactory.getEnv().getConfig().getCommonConfig().setEnableCostBasedJoinOptimization(true);
+    EnvFactory.getEnv().initClusterEnvironment();
+    prepareTableData(createSqls);
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    EnvFactory.getEnv().cleanClusterEnvironment();
+  }
+
+  @Test
+  public void threeTableJoinTest() {
+    // joining tb with tc produces 1 row, which is fewer than the 9 rows of joining ta with tb
+    String[] expectedHeader = new String[] {"a_time", "s1", "b_time", "s2", "s3"};
+    String[] retArray =
+        new String[] {
+          "1970-01-01T00:00:00.001Z,1,1970-01-01T00:00:00.002Z,20,200,",
+          "1970-01-01T00:00:00.002Z,2,1970-01-01T00:00:00.002Z,20,200,",
+          "1970-01-01T00:00:00.003Z,3,1970-01-01T00:00:00.002Z,20,200,",
+        };
+    tableResultSetEqualTest(
+        "SELECT a.time AS a_time, a.s1, b.time AS b_time, b.s2, c.s3 "
+            + "FROM ta a JOIN tb b ON a.tag1 = b.tag1 JOIN tc c ON b.time = c.time "
+            + "ORDER BY a_time",
+        expectedHeader,
+        retArray,
+        DATABASE_NAME);
+
+    tableResultSetEqualTest(
+        "SELECT a.time AS a_time, a.s1, b.time AS b_time, b.s2, c.s3 "
+            + "FROM tc c JOIN tb b ON c.time = b.time JOIN ta a ON b.tag1 = a.tag1 "
+            + "ORDER BY a_time",
+        expectedHeader,
+        retArray,
+        DATABASE_NAME);
+  }
+}
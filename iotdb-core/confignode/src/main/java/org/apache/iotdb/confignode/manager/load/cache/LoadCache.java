@@ -46,6 +46,7 @@ import org.apache.iotdb.confignode.manager.load.cache.region.RegionGroupStatisti
 import org.apache.iotdb.confignode.manager.load.cache.region.RegionHeartbeatSample;
 import org.apache.iotdb.confignode.manager.load.cache.region.RegionStatistics;
 import org.apache.iotdb.confignode.manager.partition.RegionGroupStatus;
+import org.apache.iotdb.mpp.rpc.thrift.TRegionTableStatistics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,6 +91,8 @@ public class LoadCache {
   private final Map<TConsensusGroupId, ConsensusGroupCache> consensusGroupCacheMap;
   // Map<DataNodeId, confirmedConfigNodes>
   private final Map<Integer, Set<TEndPoint>> confirmedConfigNodeMap;
+  // Map<DataRegionGroupId, TRegionTableStatistics>
+  private final Map<Integer, TRegionTableStatistics> regionTableStatisticsMap;
 
   public LoadCache() {
     this.nodeCacheMap = new ConcurrentHashMap<>();
@@ -98,6 +101,7 @@ public class LoadCache {
     this.regionSizeMap = new ConcurrentHashMap<>();
     this.consensusGroupCacheMap = new ConcurrentHashMap<>();
     this.confirmedConfigNodeMap = new ConcurrentHashMap<>();
+    this.regionTableStatisticsMap = new ConcurrentHashMap<>();
   }
 
   public void initHeartbeatCache(final IManager configManager) {
@@ -692,6 +696,9 @@ public class LoadCache {
   public void removeRegionGroupCache(TConsensusGroupId consensusGroupId) {
     regionGroupCacheMap.remove(consensusGroupId);
     consensusGroupCacheMap.remove(consensusGroupId);
+    if (TConsensusGroupType.DataRegion.equals(consensusGroupId.getType())) {
+      regionTableStatisticsMap.remove(consensusGroupId.getId());
+    }
   }
 
   /**
@@ -776,4 +783,17 @@ public class LoadCache {
   public Map<Integer, Map<Integer, Long>> getRegionSizeMap() {
     return regionSizeMap;
   }
+
+  /**
+   * Cache the table statistics reported by a DataNode. The replicas of a DataRegionGroup report
+   * the statistics of the same data, so the latest report of any replica is kept.
+   */
+  public void updateRegionTableStatistics(
+      Map<Integer, TRegionTableStatistics> regionTableStatistics) {
+    regionTableStatisticsMap.putAll(regionTableStatistics);
+  }
+
+  public Map<Integer, TRegionTableStatistics> getRegionTableStatisticsMap() {
+    return regionTableStatisticsMap;
+  }
 }
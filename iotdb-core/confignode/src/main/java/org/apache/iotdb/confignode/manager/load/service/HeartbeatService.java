@@ -47,6 +47,7 @@ import org.apache.tsfile.utils.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -144,6 +145,12 @@ public class HeartbeatService {
     heartbeatReq.setNeedJudgeLeader(true);
     // We sample DataNode's load in every 10 heartbeat loop
     heartbeatReq.setNeedSamplingLoad(heartbeatCounter.get() % 10 == 0);
+    // The table statistics are sampled along with the load, and the statistics of the whole
+    // cluster are sent back in the same loop
+    if (heartbeatReq.isNeedSamplingLoad() && !loadCache.getRegionTableStatisticsMap().isEmpty()) {
+      heartbeatReq.setRegionTableStatistics(
+          new HashMap<>(loadCache.getRegionTableStatisticsMap()));
+    }
     Pair<Long, Long> schemaQuotaRemain =
         configManager.getClusterSchemaManager().getSchemaQuotaRemain();
     heartbeatReq.setTimeSeriesQuotaRemain(schemaQuotaRemain.left);
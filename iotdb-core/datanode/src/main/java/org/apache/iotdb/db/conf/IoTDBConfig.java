@@ -222,6 +222,15 @@ public class IoTDBConfig {
   /** Buffer size of each wal node. Unit: byte */
   private int walBufferSize = 32 * 1024 * 1024;
 
+  /**
+   * Whether wal entries are serialized by the writing threads in parallel and the fsync delay
+   * adapts to the arrival rate of wal entries instead of always waiting for the configured delay
+   */
+  private boolean enableWALGroupCommit = false;
+
+  /** Whether to read wal files through memory mapping instead of copying them by file channel */
+  private boolean enableWALMmapRead = false;
+
   /** max total direct buffer off heap memory size proportion */
   private double maxDirectBufferOffHeapMemorySizeProportion = 0.8;
 
@@ -364,6 +373,18 @@ public class IoTDBConfig {
   /** How many threads can concurrently flush. When <= 0, use CPU core number. */
   private int flushThreadCount = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * Whether to sort and encode the chunk groups of a flushing memtable concurrently, one task per
+   * device, instead of with a single encoding thread per memtable.
+   */
+  private boolean enableParallelChunkGroupEncoding = false;
+
+  /**
+   * How many threads can concurrently sort and encode chunk groups of flushing memtables. When <=
+   * 0, use CPU core number.
+   */
+  private int flushEncodingThreadCount = Runtime.getRuntime().availableProcessors();
+
   /** How many threads can concurrently execute query statement. When <= 0, use CPU core number. */
   private int queryThreadCount = Runtime.getRuntime().availableProcessors();
 
@@ -433,6 +454,32 @@ public class IoTDBConfig {
   /** The sort algorithm used in TVList */
   private TVListSortAlgorithm tvListSortAlgorithm = TVListSortAlgorithm.TIM;
 
+  /**
+   * Whether to keep the value columns of fixed width non-aligned TVLists in pooled off-heap slabs
+   * instead of on-heap primitive arrays. Timestamps and aligned TVLists, which back the table model,
+   * always stay on heap.
+   */
+  private boolean enableOffHeapTVList = false;
+
+  /**
+   * Whether TVLists of TEXT, STRING and BLOB values keep one shared copy of each distinct value in
+   * a per TVList dictionary, so that repeated values only cost a reference
+   */
+  private boolean enableBinaryTVListDictionary = false;
+
+  /**
+   * The max number of distinct values in the dictionary of a binary TVList. New values exceeding it
+   * are stored as they are
+   */
+  private int binaryTVListDictionaryMaxSize = 1024;
+
+  /**
+   * Whether insertions of one data region into different devices or time partitions may run
+   * concurrently, guarded by striped (time partition, device) locks instead of the exclusive insert
+   * lock of the region
+   */
+  private boolean enableStripedInsertLock = false;
+
   /** When average series point number reaches this, flush the memtable to disk */
   private int avgSeriesPointNumberThreshold = 100000;
 
@@ -451,6 +498,48 @@ public class IoTDBConfig {
   /** The buffer for sort operation */
   private long sortBufferSize = 1024 * 1024L;
 
+  /**
+   * Whether equi-joins of the table model can be executed by hash join instead of sorting both
+   * sides and merging them.
+   */
+  private boolean enableHashJoin = false;
+
+  /**
+   * Hash join is not used when the build side is estimated to produce more rows than it. The build
+   * side whose size can't be estimated is still joined by hash join.
+   */
+  private long hashJoinMaxEstimatedBuildRowNum = 1_000_000L;
+
+  /**
+   * The memory for the build side of hash join. Both sides are partitioned and spilled to
+   * sortTmpDir once the build side exceeds it.
+   */
+  private long hashJoinBuildBufferSize = 32 * 1024 * 1024L;
+
+  /**
+   * Whether the planner reorders inner joins of the table model and chooses their join algorithm by
+   * the statistics of the tables, which are collected from the metadata of sealed TsFiles.
+   */
+  private boolean enableCostBasedJoinOptimization = false;
+
+  /**
+   * The statistics of the tables in the data regions of a DataNode are refreshed in the background
+   * at this interval, and reported to the ConfigNode by the heartbeat.
+   */
+  private long tableStatisticsRefreshIntervalInMs = 60_000L;
+
+  /**
+   * The max number of sealed TsFiles of a data region whose statistics are loaded by a refresh. The
+   * statistics of the other TsFiles are extrapolated, and loaded by the following refreshes.
+   */
+  private int tableStatisticsMaxLoadedTsFileNumPerRefresh = 16;
+
+  /**
+   * Proportion of the memory for timeIndex reserved for the cache of the table statistics of
+   * TsFiles, only takes effect when enableCostBasedJoinOptimization is true
+   */
+  private double tableStatisticsCacheProportion = 0.05;
+
   /**
    * The strategy of inner space compaction task. There are just one inner space compaction strategy
    * SIZE_TIRED_COMPACTION:
@@ -626,6 +715,83 @@ public class IoTDBConfig {
    */
   private boolean enableQueryMemoryEstimation = true;
 
+  /**
+   * Whether to select the TsFiles of a query by interval indexes over the time ranges of the files
+   * and their devices, instead of checking every TsFile of the queried time partitions
+   */
+  private boolean enableTsFileIntervalIndex = false;
+
+  /**
+   * Whether to reload the device time indexes of TsFiles whose time indexes have been degraded into
+   * a bounded cache when queries need them
+   */
+  private boolean enableDegradedTimeIndexCache = false;
+
+  /** Proportion of the memory for timeIndex reserved for the cache of degraded time indexes */
+  private double degradedTimeIndexCacheProportion = 0.2;
+
+  /**
+   * Whether to read the next chunks of sequential scans on an I/O pool before the operators consume
+   * them
+   */
+  private boolean enableChunkPrefetch = false;
+
+  /** Max number of chunks read ahead by each series scan */
+  private int chunkPrefetchWindowSize = 4;
+
+  /** Number of threads reading chunks ahead for all queries */
+  private int chunkPrefetchThreadCount =
+      Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+
+  /** Whether the chunks read ahead are also put into the chunk cache */
+  private boolean enableChunkPrefetchIntoCache = false;
+
+  /** Whether to cache the decoded pages of hot chunks besides the raw chunks */
+  private boolean enableDecodedPageCache = false;
+
+  /** Proportion of the memory for chunk cache used by the cache of decoded pages */
+  private double decodedPageCacheProportion = 0.3;
+
+  /** Whether chunks and timeseries metadata read by large scans are kept out of the caches */
+  private boolean enableLargeScanCacheBypass = false;
+
+  /**
+   * A query is regarded as a large scan if the number of its time series multiplied by the number
+   * of TsFiles it reads in a data region reaches this threshold
+   */
+  private int largeScanThreshold = 100000;
+
+  /**
+   * Whether to persist the hottest series in the timeseries metadata cache when the DataNode stops,
+   * and load their timeseries metadata and bloom filters into the caches after it restarts
+   */
+  private boolean enableCacheWarmUp = false;
+
+  /** Max number of the hottest series persisted for cache warm-up */
+  private int cacheWarmUpSeriesNum = 1000;
+
+  /**
+   * Max number of the latest sealed TsFiles in total of all data regions whose timeseries metadata
+   * of the hot series are warmed up, the latest time partitions first
+   */
+  private int cacheWarmUpTsFileNum = 100;
+
+  /**
+   * Max number of readers of sealed TsFiles which are kept open after their last query released
+   * them, so that following queries can reuse the file handles. The least recently used idle reader
+   * is closed once the number exceeds it. 0 means closing a reader as soon as it is released.
+   */
+  private int maxIdleTsFileReaderNum = 0;
+
+  /**
+   * Whether to memory-map sealed TsFiles no larger than mmapTsFileReadMaxFileSize when reading
+   * them, which saves the system calls of reading chunks on fast storage.
+   */
+  private boolean enableMmapTsFileRead = false;
+
+  /** Max size of a sealed TsFile to be memory-mapped when reading it. Unit: byte */
+  private long mmapTsFileReadMaxFileSize = 64 * 1024 * 1024L;
+
   /** Cache size of {@code checkAndGetDataTypeCache}. */
   private int mRemoteSchemaCacheSize = 100000;
 
@@ -822,6 +988,12 @@ public class IoTDBConfig {
   /** The default value of primitive array size in array pool */
   private int primitiveArraySize = 64;
 
+  /**
+   * Number of shards of the primitive array pool, each of which has its own lock. Writing threads
+   * are spread over the shards by thread id. When <= 0, use CPU core number.
+   */
+  private int primitiveArrayPoolShardNum = Runtime.getRuntime().availableProcessors();
+
   /**
    * Level of TimeIndex, which records the start time and end time of TsFileResource. Currently,
    * DEVICE_TIME_INDEX and FILE_TIME_INDEX are supported, and could not be changed after first set.
@@ -839,6 +1011,12 @@ public class IoTDBConfig {
   // if enable partial insert, one measurement failure will not impact other measurements
   private boolean enablePartialInsert = true;
 
+  /**
+   * Whether to transpose the rows of one device in an InsertRowsNode into a tablet before writing
+   * them into the memtable, so that they are written column by column with primitive arrays.
+   */
+  private boolean enableInsertRowsTransposition = false;
+
   private boolean enable13DataInsertAdapt = false;
 
   /**
@@ -975,6 +1153,21 @@ public class IoTDBConfig {
   /** Thread keep alive time in ms of mpp data exchange. */
   private int mppDataExchangeKeepAliveTimeInMs = 1000;
 
+  /** Whether to compress TsBlocks sent to downstream fragment instances on other DataNodes. */
+  private boolean enableMppDataExchangeCompression = true;
+
+  /** TsBlocks whose retained size is smaller than this are sent without compression. */
+  private long mppDataExchangeCompressionThresholdInBytes = 4096L;
+
+  /**
+   * Whether SinkChannels push TsBlocks to downstream fragment instances on other DataNodes instead
+   * of waiting for them to be pulled.
+   */
+  private boolean enableMppDataExchangePushMode = false;
+
+  /** Bytes a SourceHandle reserves for TsBlocks pushed to it by its upstream SinkChannel. */
+  private long mppDataExchangePushCreditInBytes = 1048576L;
+
   /** Thrift socket and connection timeout between data node and config node. */
   private int connectionTimeoutInMS = (int) TimeUnit.SECONDS.toMillis(60);
 
@@ -1777,6 +1970,22 @@ public class IoTDBConfig {
     this.flushThreadCount = flushThreadCount;
   }
 
+  public boolean isEnableParallelChunkGroupEncoding() {
+    return enableParallelChunkGroupEncoding;
+  }
+
+  public void setEnableParallelChunkGroupEncoding(boolean enableParallelChunkGroupEncoding) {
+    this.enableParallelChunkGroupEncoding = enableParallelChunkGroupEncoding;
+  }
+
+  public int getFlushEncodingThreadCount() {
+    return flushEncodingThreadCount;
+  }
+
+  void setFlushEncodingThreadCount(int flushEncodingThreadCount) {
+    this.flushEncodingThreadCount = flushEncodingThreadCount;
+  }
+
   public int getQueryThreadCount() {
     return queryThreadCount;
   }
@@ -1982,6 +2191,22 @@ public class IoTDBConfig {
     this.walBufferSize = walBufferSize;
   }
 
+  public boolean isEnableWALGroupCommit() {
+    return enableWALGroupCommit;
+  }
+
+  public void setEnableWALGroupCommit(boolean enableWALGroupCommit) {
+    this.enableWALGroupCommit = enableWALGroupCommit;
+  }
+
+  public boolean isEnableWALMmapRead() {
+    return enableWALMmapRead;
+  }
+
+  public void setEnableWALMmapRead(boolean enableWALMmapRead) {
+    this.enableWALMmapRead = enableWALMmapRead;
+  }
+
   public double getMaxDirectBufferOffHeapMemorySizeProportion() {
     return maxDirectBufferOffHeapMemorySizeProportion;
   }
@@ -2156,6 +2381,14 @@ public class IoTDBConfig {
     this.allocateMemoryForPipe = allocateMemoryForPipe;
   }
 
+  public boolean isEnableInsertRowsTransposition() {
+    return enableInsertRowsTransposition;
+  }
+
+  public void setEnableInsertRowsTransposition(boolean enableInsertRowsTransposition) {
+    this.enableInsertRowsTransposition = enableInsertRowsTransposition;
+  }
+
   public boolean isEnablePartialInsert() {
     return enablePartialInsert;
   }
@@ -2309,6 +2542,38 @@ public class IoTDBConfig {
     this.tvListSortAlgorithm = tvListSortAlgorithm;
   }
 
+  public boolean isEnableBinaryTVListDictionary() {
+    return enableBinaryTVListDictionary;
+  }
+
+  public void setEnableBinaryTVListDictionary(boolean enableBinaryTVListDictionary) {
+    this.enableBinaryTVListDictionary = enableBinaryTVListDictionary;
+  }
+
+  public int getBinaryTVListDictionaryMaxSize() {
+    return binaryTVListDictionaryMaxSize;
+  }
+
+  public void setBinaryTVListDictionaryMaxSize(int binaryTVListDictionaryMaxSize) {
+    this.binaryTVListDictionaryMaxSize = binaryTVListDictionaryMaxSize;
+  }
+
+  public boolean isEnableOffHeapTVList() {
+    return enableOffHeapTVList;
+  }
+
+  public void setEnableOffHeapTVList(boolean enableOffHeapTVList) {
+    this.enableOffHeapTVList = enableOffHeapTVList;
+  }
+
+  public boolean isEnableStripedInsertLock() {
+    return enableStripedInsertLock;
+  }
+
+  public void setEnableStripedInsertLock(boolean enableStripedInsertLock) {
+    this.enableStripedInsertLock = enableStripedInsertLock;
+  }
+
   public int getAvgSeriesPointNumberThreshold() {
     return avgSeriesPointNumberThreshold;
   }
@@ -2407,6 +2672,142 @@ public class IoTDBConfig {
     this.enableQueryMemoryEstimation = enableQueryMemoryEstimation;
   }
 
+  public boolean isEnableTsFileIntervalIndex() {
+    return enableTsFileIntervalIndex;
+  }
+
+  public void setEnableTsFileIntervalIndex(boolean enableTsFileIntervalIndex) {
+    this.enableTsFileIntervalIndex = enableTsFileIntervalIndex;
+  }
+
+  public boolean isEnableDegradedTimeIndexCache() {
+    return enableDegradedTimeIndexCache;
+  }
+
+  public void setEnableDegradedTimeIndexCache(boolean enableDegradedTimeIndexCache) {
+    this.enableDegradedTimeIndexCache = enableDegradedTimeIndexCache;
+  }
+
+  public double getDegradedTimeIndexCacheProportion() {
+    return degradedTimeIndexCacheProportion;
+  }
+
+  public void setDegradedTimeIndexCacheProportion(double degradedTimeIndexCacheProportion) {
+    this.degradedTimeIndexCacheProportion = degradedTimeIndexCacheProportion;
+  }
+
+  public boolean isEnableChunkPrefetch() {
+    return enableChunkPrefetch;
+  }
+
+  public void setEnableChunkPrefetch(boolean enableChunkPrefetch) {
+    this.enableChunkPrefetch = enableChunkPrefetch;
+  }
+
+  public int getChunkPrefetchWindowSize() {
+    return chunkPrefetchWindowSize;
+  }
+
+  public void setChunkPrefetchWindowSize(int chunkPrefetchWindowSize) {
+    this.chunkPrefetchWindowSize = chunkPrefetchWindowSize;
+  }
+
+  public int getChunkPrefetchThreadCount() {
+    return chunkPrefetchThreadCount;
+  }
+
+  public void setChunkPrefetchThreadCount(int chunkPrefetchThreadCount) {
+    this.chunkPrefetchThreadCount = chunkPrefetchThreadCount;
+  }
+
+  public boolean isEnableChunkPrefetchIntoCache() {
+    return enableChunkPrefetchIntoCache;
+  }
+
+  public void setEnableChunkPrefetchIntoCache(boolean enableChunkPrefetchIntoCache) {
+    this.enableChunkPrefetchIntoCache = enableChunkPrefetchIntoCache;
+  }
+
+  public boolean isEnableDecodedPageCache() {
+    return enableDecodedPageCache;
+  }
+
+  public void setEnableDecodedPageCache(boolean enableDecodedPageCache) {
+    this.enableDecodedPageCache = enableDecodedPageCache;
+  }
+
+  public double getDecodedPageCacheProportion() {
+    return decodedPageCacheProportion;
+  }
+
+  public void setDecodedPageCacheProportion(double decodedPageCacheProportion) {
+    this.decodedPageCacheProportion = decodedPageCacheProportion;
+  }
+
+  public boolean isEnableLargeScanCacheBypass() {
+    return enableLargeScanCacheBypass;
+  }
+
+  public void setEnableLargeScanCacheBypass(boolean enableLargeScanCacheBypass) {
+    this.enableLargeScanCacheBypass = enableLargeScanCacheBypass;
+  }
+
+  public int getLargeScanThreshold() {
+    return largeScanThreshold;
+  }
+
+  public void setLargeScanThreshold(int largeScanThreshold) {
+    this.largeScanThreshold = largeScanThreshold;
+  }
+
+  public boolean isEnableCacheWarmUp() {
+    return enableCacheWarmUp;
+  }
+
+  public void setEnableCacheWarmUp(boolean enableCacheWarmUp) {
+    this.enableCacheWarmUp = enableCacheWarmUp;
+  }
+
+  public int getCacheWarmUpSeriesNum() {
+    return cacheWarmUpSeriesNum;
+  }
+
+  public void setCacheWarmUpSeriesNum(int cacheWarmUpSeriesNum) {
+    this.cacheWarmUpSeriesNum = cacheWarmUpSeriesNum;
+  }
+
+  public int getCacheWarmUpTsFileNum() {
+    return cacheWarmUpTsFileNum;
+  }
+
+  public void setCacheWarmUpTsFileNum(int cacheWarmUpTsFileNum) {
+    this.cacheWarmUpTsFileNum = cacheWarmUpTsFileNum;
+  }
+
+  public int getMaxIdleTsFileReaderNum() {
+    return maxIdleTsFileReaderNum;
+  }
+
+  public void setMaxIdleTsFileReaderNum(int maxIdleTsFileReaderNum) {
+    this.maxIdleTsFileReaderNum = maxIdleTsFileReaderNum;
+  }
+
+  public boolean isEnableMmapTsFileRead() {
+    return enableMmapTsFileRead;
+  }
+
+  public void setEnableMmapTsFileRead(boolean enableMmapTsFileRead) {
+    this.enableMmapTsFileRead = enableMmapTsFileRead;
+  }
+
+  public long getMmapTsFileReadMaxFileSize() {
+    return mmapTsFileReadMaxFileSize;
+  }
+
+  public void setMmapTsFileReadMaxFileSize(long mmapTsFileReadMaxFileSize) {
+    this.mmapTsFileReadMaxFileSize = mmapTsFileReadMaxFileSize;
+  }
+
   public boolean isAutoCreateSchemaEnabled() {
     return enableAutoCreateSchema;
   }
@@ -2749,6 +3150,14 @@ public class IoTDBConfig {
     this.primitiveArraySize = primitiveArraySize;
   }
 
+  public int getPrimitiveArrayPoolShardNum() {
+    return primitiveArrayPoolShardNum;
+  }
+
+  public void setPrimitiveArrayPoolShardNum(int primitiveArrayPoolShardNum) {
+    this.primitiveArrayPoolShardNum = primitiveArrayPoolShardNum;
+  }
+
   public int getThriftMaxFrameSize() {
     return thriftMaxFrameSize;
   }
@@ -3301,6 +3710,39 @@ public class IoTDBConfig {
     this.mppDataExchangeKeepAliveTimeInMs = mppDataExchangeKeepAliveTimeInMs;
   }
 
+  public boolean isEnableMppDataExchangeCompression() {
+    return enableMppDataExchangeCompression;
+  }
+
+  public void setEnableMppDataExchangeCompression(boolean enableMppDataExchangeCompression) {
+    this.enableMppDataExchangeCompression = enableMppDataExchangeCompression;
+  }
+
+  public long getMppDataExchangeCompressionThresholdInBytes() {
+    return mppDataExchangeCompressionThresholdInBytes;
+  }
+
+  public void setMppDataExchangeCompressionThresholdInBytes(
+      long mppDataExchangeCompressionThresholdInBytes) {
+    this.mppDataExchangeCompressionThresholdInBytes = mppDataExchangeCompressionThresholdInBytes;
+  }
+
+  public boolean isEnableMppDataExchangePushMode() {
+    return enableMppDataExchangePushMode;
+  }
+
+  public void setEnableMppDataExchangePushMode(boolean enableMppDataExchangePushMode) {
+    this.enableMppDataExchangePushMode = enableMppDataExchangePushMode;
+  }
+
+  public long getMppDataExchangePushCreditInBytes() {
+    return mppDataExchangePushCreditInBytes;
+  }
+
+  public void setMppDataExchangePushCreditInBytes(long mppDataExchangePushCreditInBytes) {
+    this.mppDataExchangePushCreditInBytes = mppDataExchangePushCreditInBytes;
+  }
+
   public int getConnectionTimeoutInMS() {
     return connectionTimeoutInMS;
   }
@@ -4269,6 +4711,63 @@ public class IoTDBConfig {
     return sortBufferSize;
   }
 
+  public boolean isEnableHashJoin() {
+    return enableHashJoin;
+  }
+
+  public void setEnableHashJoin(boolean enableHashJoin) {
+    this.enableHashJoin = enableHashJoin;
+  }
+
+  public long getHashJoinMaxEstimatedBuildRowNum() {
+    return hashJoinMaxEstimatedBuildRowNum;
+  }
+
+  public void setHashJoinMaxEstimatedBuildRowNum(long hashJoinMaxEstimatedBuildRowNum) {
+    this.hashJoinMaxEstimatedBuildRowNum = hashJoinMaxEstimatedBuildRowNum;
+  }
+
+  public long getHashJoinBuildBufferSize() {
+    return hashJoinBuildBufferSize;
+  }
+
+  public void setHashJoinBuildBufferSize(long hashJoinBuildBufferSize) {
+    this.hashJoinBuildBufferSize = hashJoinBuildBufferSize;
+  }
+
+  public boolean isEnableCostBasedJoinOptimization() {
+    return enableCostBasedJoinOptimization;
+  }
+
+  public void setEnableCostBasedJoinOptimization(boolean enableCostBasedJoinOptimization) {
+    this.enableCostBasedJoinOptimization = enableCostBasedJoinOptimization;
+  }
+
+  public long getTableStatisticsRefreshIntervalInMs() {
+    return tableStatisticsRefreshIntervalInMs;
+  }
+
+  public void setTableStatisticsRefreshIntervalInMs(long tableStatisticsRefreshIntervalInMs) {
+    this.tableStatisticsRefreshIntervalInMs = tableStatisticsRefreshIntervalInMs;
+  }
+
+  public int getTableStatisticsMaxLoadedTsFileNumPerRefresh() {
+    return tableStatisticsMaxLoadedTsFileNumPerRefresh;
+  }
+
+  public void setTableStatisticsMaxLoadedTsFileNumPerRefresh(
+      int tableStatisticsMaxLoadedTsFileNumPerRefresh) {
+    this.tableStatisticsMaxLoadedTsFileNumPerRefresh = tableStatisticsMaxLoadedTsFileNumPerRefresh;
+  }
+
+  public double getTableStatisticsCacheProportion() {
+    return tableStatisticsCacheProportion;
+  }
+
+  public void setTableStatisticsCacheProportion(double tableStatisticsCacheProportion) {
+    this.tableStatisticsCacheProportion = tableStatisticsCacheProportion;
+  }
+
   public void setSortTmpDir(String sortTmpDir) {
     this.sortTmpDir = sortTmpDir;
   }
@@ -386,6 +386,29 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "tvlist_sort_algorithm", conf.getTvListSortAlgorithm().toString())));
 
+    conf.setEnableOffHeapTVList(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_off_heap_tvlist", Boolean.toString(conf.isEnableOffHeapTVList()))));
+
+    conf.setEnableBinaryTVListDictionary(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_binary_tvlist_dictionary",
+                Boolean.toString(conf.isEnableBinaryTVListDictionary()))));
+
+    conf.setBinaryTVListDictionaryMaxSize(
+        Integer.parseInt(
+            properties.getProperty(
+                "binary_tvlist_dictionary_max_size",
+                Integer.toString(conf.getBinaryTVListDictionaryMaxSize()))));
+
+    conf.setEnableStripedInsertLock(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_striped_insert_lock",
+                Boolean.toString(conf.isEnableStripedInsertLock()))));
+
     conf.setAvgSeriesPointNumberThreshold(
         Integer.parseInt(
             properties.getProperty(
@@ -521,6 +544,22 @@ public class IoTDBDescriptor {
       conf.setFlushThreadCount(Runtime.getRuntime().availableProcessors());
     }
 
+    conf.setEnableParallelChunkGroupEncoding(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_parallel_chunk_group_encoding",
+                Boolean.toString(conf.isEnableParallelChunkGroupEncoding()))));
+
+    conf.setFlushEncodingThreadCount(
+        Integer.parseInt(
+            properties.getProperty(
+                "flush_encoding_thread_count",
+                Integer.toString(conf.getFlushEncodingThreadCount()))));
+
+    if (conf.getFlushEncodingThreadCount() <= 0) {
+      conf.setFlushEncodingThreadCount(Runtime.getRuntime().availableProcessors());
+    }
+
     // start: index parameter setting
     conf.setIndexRootFolder(properties.getProperty("index_root_dir", conf.getIndexRootFolder()));
 
@@ -753,6 +792,12 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "enable_partial_insert", String.valueOf(conf.isEnablePartialInsert()))));
 
+    conf.setEnableInsertRowsTransposition(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_insert_rows_transposition",
+                String.valueOf(conf.isEnableInsertRowsTransposition()))));
+
     conf.setEnable13DataInsertAdapt(
         Boolean.parseBoolean(
             properties.getProperty(
@@ -846,6 +891,16 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "primitive_array_size", String.valueOf(conf.getPrimitiveArraySize())))));
 
+    conf.setPrimitiveArrayPoolShardNum(
+        Integer.parseInt(
+            properties.getProperty(
+                "primitive_array_pool_shard_num",
+                String.valueOf(conf.getPrimitiveArrayPoolShardNum()))));
+
+    if (conf.getPrimitiveArrayPoolShardNum() <= 0) {
+      conf.setPrimitiveArrayPoolShardNum(Runtime.getRuntime().availableProcessors());
+    }
+
     conf.setThriftMaxFrameSize(
         Integer.parseInt(
             properties.getProperty(
@@ -1091,6 +1146,59 @@ public class IoTDBDescriptor {
     // tmp filePath for sort operator
     conf.setSortTmpDir(properties.getProperty("sort_tmp_dir", conf.getSortTmpDir()));
 
+    conf.setEnableHashJoin(
+        Boolean.parseBoolean(
+            properties.getProperty("enable_hash_join", Boolean.toString(conf.isEnableHashJoin()))));
+
+    long hashJoinMaxEstimatedBuildRowNum =
+        Long.parseLong(
+            properties.getProperty(
+                "hash_join_max_estimated_build_row_num",
+                Long.toString(conf.getHashJoinMaxEstimatedBuildRowNum())));
+    if (hashJoinMaxEstimatedBuildRowNum >= 0) {
+      conf.setHashJoinMaxEstimatedBuildRowNum(hashJoinMaxEstimatedBuildRowNum);
+    }
+
+    long hashJoinBuildBufferSize =
+        Long.parseLong(
+            properties.getProperty(
+                "hash_join_build_buffer_size_in_bytes",
+                Long.toString(conf.getHashJoinBuildBufferSize())));
+    if (hashJoinBuildBufferSize > 0) {
+      conf.setHashJoinBuildBufferSize(hashJoinBuildBufferSize);
+    }
+
+    conf.setEnableCostBasedJoinOptimization(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_cost_based_join_optimization",
+                Boolean.toString(conf.isEnableCostBasedJoinOptimization()))));
+
+    long tableStatisticsRefreshIntervalInMs =
+        Long.parseLong(
+            properties.getProperty(
+                "table_statistics_refresh_interval_in_ms",
+                Long.toString(conf.getTableStatisticsRefreshIntervalInMs())));
+    if (tableStatisticsRefreshIntervalInMs > 0) {
+      conf.setTableStatisticsRefreshIntervalInMs(tableStatisticsRefreshIntervalInMs);
+    }
+
+    int tableStatisticsMaxLoadedTsFileNumPerRefresh =
+        Integer.parseInt(
+            properties.getProperty(
+                "table_statistics_max_loaded_tsfile_num_per_refresh",
+                Integer.toString(conf.getTableStatisticsMaxLoadedTsFileNumPerRefresh())));
+    if (tableStatisticsMaxLoadedTsFileNumPerRefresh >= 0) {
+      conf.setTableStatisticsMaxLoadedTsFileNumPerRefresh(
+          tableStatisticsMaxLoadedTsFileNumPerRefresh);
+    }
+
+    conf.setTableStatisticsCacheProportion(
+        Double.parseDouble(
+            properties.getProperty(
+                "table_statistics_cache_proportion",
+                Double.toString(conf.getTableStatisticsCacheProportion()))));
+
     conf.setRateLimiterType(properties.getProperty("rate_limiter_type", conf.getRateLimiterType()));
 
     conf.setDataNodeSchemaCacheEvictionPolicy(
@@ -1239,6 +1347,16 @@ public class IoTDBDescriptor {
       conf.setWalBufferSize(walBufferSize);
     }
 
+    conf.setEnableWALGroupCommit(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_wal_group_commit", Boolean.toString(conf.isEnableWALGroupCommit()))));
+
+    conf.setEnableWALMmapRead(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_wal_mmap_read", Boolean.toString(conf.isEnableWALMmapRead()))));
+
     boolean WALInsertNodeCacheShrinkClearEnabled =
         Boolean.parseBoolean(
             properties.getProperty(
@@ -2209,6 +2327,120 @@ public class IoTDBDescriptor {
                 "enable_query_memory_estimation",
                 Boolean.toString(conf.isEnableQueryMemoryEstimation()))));
 
+    conf.setEnableTsFileIntervalIndex(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_tsfile_interval_index",
+                Boolean.toString(conf.isEnableTsFileIntervalIndex()))));
+
+    conf.setEnableDegradedTimeIndexCache(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_degraded_time_index_cache",
+                Boolean.toString(conf.isEnableDegradedTimeIndexCache()))));
+
+    conf.setDegradedTimeIndexCacheProportion(
+        Double.parseDouble(
+            properties.getProperty(
+                "degraded_time_index_cache_proportion",
+                Double.toString(conf.getDegradedTimeIndexCacheProportion()))));
+
+    conf.setEnableChunkPrefetch(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_chunk_prefetch", Boolean.toString(conf.isEnableChunkPrefetch()))));
+
+    int chunkPrefetchWindowSize =
+        Integer.parseInt(
+            properties.getProperty(
+                "chunk_prefetch_window_size", Integer.toString(conf.getChunkPrefetchWindowSize())));
+    if (chunkPrefetchWindowSize > 0) {
+      conf.setChunkPrefetchWindowSize(chunkPrefetchWindowSize);
+    }
+
+    int chunkPrefetchThreadCount =
+        Integer.parseInt(
+            properties.getProperty(
+                "chunk_prefetch_thread_count",
+                Integer.toString(conf.getChunkPrefetchThreadCount())));
+    if (chunkPrefetchThreadCount > 0) {
+      conf.setChunkPrefetchThreadCount(chunkPrefetchThreadCount);
+    }
+
+    conf.setEnableChunkPrefetchIntoCache(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_chunk_prefetch_into_cache",
+                Boolean.toString(conf.isEnableChunkPrefetchIntoCache()))));
+
+    conf.setEnableDecodedPageCache(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_decoded_page_cache", Boolean.toString(conf.isEnableDecodedPageCache()))));
+
+    conf.setDecodedPageCacheProportion(
+        Double.parseDouble(
+            properties.getProperty(
+                "decoded_page_cache_proportion",
+                Double.toString(conf.getDecodedPageCacheProportion()))));
+
+    conf.setEnableLargeScanCacheBypass(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_large_scan_cache_bypass",
+                Boolean.toString(conf.isEnableLargeScanCacheBypass()))));
+
+    int largeScanThreshold =
+        Integer.parseInt(
+            properties.getProperty(
+                "large_scan_threshold", Integer.toString(conf.getLargeScanThreshold())));
+    if (largeScanThreshold > 0) {
+      conf.setLargeScanThreshold(largeScanThreshold);
+    }
+
+    conf.setEnableCacheWarmUp(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_cache_warm_up", Boolean.toString(conf.isEnableCacheWarmUp()))));
+
+    int cacheWarmUpSeriesNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "cache_warm_up_series_num", Integer.toString(conf.getCacheWarmUpSeriesNum())));
+    if (cacheWarmUpSeriesNum > 0) {
+      conf.setCacheWarmUpSeriesNum(cacheWarmUpSeriesNum);
+    }
+
+    int cacheWarmUpTsFileNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "cache_warm_up_tsfile_num", Integer.toString(conf.getCacheWarmUpTsFileNum())));
+    if (cacheWarmUpTsFileNum > 0) {
+      conf.setCacheWarmUpTsFileNum(cacheWarmUpTsFileNum);
+    }
+
+    int maxIdleTsFileReaderNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "max_idle_tsfile_reader_num", Integer.toString(conf.getMaxIdleTsFileReaderNum())));
+    if (maxIdleTsFileReaderNum >= 0) {
+      conf.setMaxIdleTsFileReaderNum(maxIdleTsFileReaderNum);
+    }
+
+    conf.setEnableMmapTsFileRead(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_mmap_tsfile_read", Boolean.toString(conf.isEnableMmapTsFileRead()))));
+
+    long mmapTsFileReadMaxFileSize =
+        Long.parseLong(
+            properties.getProperty(
+                "mmap_tsfile_read_max_file_size",
+                Long.toString(conf.getMmapTsFileReadMaxFileSize())));
+    if (mmapTsFileReadMaxFileSize > 0) {
+      conf.setMmapTsFileReadMaxFileSize(mmapTsFileReadMaxFileSize);
+    }
+
     String queryMemoryAllocateProportion =
         properties.getProperty("chunk_timeseriesmeta_free_memory_proportion");
     if (queryMemoryAllocateProportion != null) {
@@ -2715,6 +2947,26 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "mpp_data_exchange_keep_alive_time_in_ms",
                 Integer.toString(conf.getMppDataExchangeKeepAliveTimeInMs()))));
+    conf.setEnableMppDataExchangeCompression(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_mpp_data_exchange_compression",
+                Boolean.toString(conf.isEnableMppDataExchangeCompression()))));
+    conf.setMppDataExchangeCompressionThresholdInBytes(
+        Long.parseLong(
+            properties.getProperty(
+                "mpp_data_exchange_compression_threshold_in_bytes",
+                Long.toString(conf.getMppDataExchangeCompressionThresholdInBytes()))));
+    conf.setEnableMppDataExchangePushMode(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_mpp_data_exchange_push_mode",
+                Boolean.toString(conf.isEnableMppDataExchangePushMode()))));
+    conf.setMppDataExchangePushCreditInBytes(
+        Long.parseLong(
+            properties.getProperty(
+                "mpp_data_exchange_push_credit_in_bytes",
+                Long.toString(conf.getMppDataExchangePushCreditInBytes()))));
 
     conf.setPartitionCacheSize(
         Integer.parseInt(
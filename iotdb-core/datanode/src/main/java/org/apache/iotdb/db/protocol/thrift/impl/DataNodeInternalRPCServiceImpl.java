@@ -171,6 +171,7 @@ import org.apache.iotdb.db.storageengine.dataregion.compaction.settle.SettleRequ
 import org.apache.iotdb.db.storageengine.dataregion.modification.DeletionPredicate;
 import org.apache.iotdb.db.storageengine.dataregion.modification.IDPredicate;
 import org.apache.iotdb.db.storageengine.dataregion.modification.TableDeletionEntry;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.TableStatisticsManager;
 import org.apache.iotdb.db.storageengine.rescon.quotas.DataNodeSpaceQuotaManager;
 import org.apache.iotdb.db.storageengine.rescon.quotas.DataNodeThrottleQuotaManager;
 import org.apache.iotdb.db.subscription.agent.SubscriptionAgent;
@@ -1882,6 +1883,16 @@ public class DataNodeInternalRPCServiceImpl implements IDataNodeRPCService.Iface
       resp.setLoadSample(loadSample);
 
       resp.setRegionDisk(FileMetrics.getInstance().getRegionSizeMap());
+
+      // Report the table statistics refreshed in the background
+      if (IoTDBDescriptor.getInstance().getConfig().isEnableCostBasedJoinOptimization()) {
+        resp.setRegionTableStatistics(
+            TableStatisticsManager.getInstance().getLocalRegionTableStatistics());
+      }
+    }
+    if (req.isSetRegionTableStatistics()) {
+      TableStatisticsManager.getInstance()
+          .updateClusterTableStatistics(req.getRegionTableStatistics());
     }
     AuthorityChecker.getAuthorityFetcher().refreshToken();
     resp.setHeartbeatTimestamp(req.getHeartbeatTimestamp());
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.exchange;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.compress.ICompressor;
+import org.apache.tsfile.compress.IUnCompressor;
+import org.apache.tsfile.encoding.decoder.DeltaBinaryDecoder;
+import org.apache.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.block.column.TimeColumn;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.apache.tsfile.utils.PublicBAOS;
+import org.apache.tsfile.utils.ReadWriteIOUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes TsBlocks sent between DataNodes through the MPP data exchange service. It is used only
+ * when the downstream asks for it in {@code TGetDataBlockRequest} or {@code TDataBlockCreditEvent},
+ * which it does only if compression is enabled and it deserializes the TsBlocks itself.
+ *
+ * <p>A serialized TsBlock starts with one byte of {@link Encoding}. With {@link Encoding#PLAIN},
+ * the rest is in the {@link TsBlockSerde} format. With {@link Encoding#COMPRESSED}, the time column
+ * is delta encoded and the value columns are serialized by {@link TsBlockSerde} and then compressed
+ * by LZ4:
+ *
+ * <ul>
+ *   <li>positionCount (int)
+ *   <li>time column: 0 followed by the value if it is run-length encoded, otherwise 1 followed by
+ *       the size (int) and the bytes of the delta encoded times
+ *   <li>uncompressed size of the value columns (int), compressed size (int) and compressed bytes
+ * </ul>
+ *
+ * <p>TsBlocks smaller than {@code mpp_data_exchange_compression_threshold_in_bytes} or those that
+ * compression does not make smaller are sent in {@link Encoding#PLAIN}.
+ */
+public class ExchangeTsBlockSerde {
+
+  public enum Encoding {
+    PLAIN,
+    COMPRESSED
+  }
+
+  private static final byte RLE_TIME_COLUMN = 0;
+  private static final byte DELTA_TIME_COLUMN = 1;
+
+  private static final ICompressor COMPRESSOR = ICompressor.getCompressor(CompressionType.LZ4);
+  private static final IUnCompressor UNCOMPRESSOR =
+      IUnCompressor.getUnCompressor(CompressionType.LZ4);
+
+  private final TsBlockSerde serde;
+  private final boolean enableCompression;
+  private final long compressionThresholdInBytes;
+
+  public ExchangeTsBlockSerde(TsBlockSerde serde) {
+    this(
+        serde,
+        IoTDBDescriptor.getInstance().getConfig().isEnableMppDataExchangeCompression(),
+        IoTDBDescriptor.getInstance().getConfig().getMppDataExchangeCompressionThresholdInBytes());
+  }
+
+  public ExchangeTsBlockSerde(
+      TsBlockSerde serde, boolean enableCompression, long compressionThresholdInBytes) {
+    this.serde = serde;
+    this.enableCompression = enableCompression;
+    this.compressionThresholdInBytes = compressionThresholdInBytes;
+  }
+
+  public ByteBuffer serialize(TsBlock tsBlock) throws IOException {
+    if (enableCompression
+        && tsBlock.getPositionCount() > 0
+        && tsBlock.getRetainedSizeInBytes() >= compressionThresholdInBytes) {
+      ByteBuffer compressed = compress(tsBlock);
+      if (compressed != null) {
+        return compressed;
+      }
+    }
+    ByteBuffer plain = serde.serialize(tsBlock);
+    ByteBuffer result = ByteBuffer.allocate(1 + plain.remaining());
+    result.put((byte) Encoding.PLAIN.ordinal());
+    result.put(plain);
+    result.flip();
+    return result;
+  }
+
+  /** Returns null if compression does not make the TsBlock smaller. */
+  private ByteBuffer compress(TsBlock tsBlock) throws IOException {
+    long startTime = System.nanoTime();
+    int positionCount = tsBlock.getPositionCount();
+    PublicBAOS timeStream = new PublicBAOS();
+    Column timeColumn = tsBlock.getTimeColumn();
+    boolean rleTimeColumn = timeColumn instanceof RunLengthEncodedColumn;
+    if (rleTimeColumn) {
+      ReadWriteIOUtils.write(timeColumn.getLong(0), timeStream);
+    } else {
+      DeltaBinaryEncoder encoder = new DeltaBinaryEncoder.LongDeltaEncoder();
+      for (int i = 0; i < positionCount; i++) {
+        encoder.encode(timeColumn.getLong(i), timeStream);
+      }
+      encoder.flush(timeStream);
+    }
+
+    // the time column is replaced by a constant one which takes a few bytes
+    ByteBuffer values =
+        serde.serialize(
+            TsBlock.wrapBlocksWithoutCopy(
+                positionCount,
+                new RunLengthEncodedColumn(new TimeColumn(1, new long[] {0}), positionCount),
+                tsBlock.getValueColumns()));
+    int valuesSize = values.remaining();
+    byte[] compressedValues = new byte[COMPRESSOR.getMaxBytesForCompression(valuesSize)];
+    int compressedValuesSize =
+        values.hasArray()
+            ? COMPRESSOR.compress(
+                values.array(),
+                values.arrayOffset() + values.position(),
+                valuesSize,
+                compressedValues)
+            : COMPRESSOR.compress(
+                ReadWriteIOUtils.readBytes(values, valuesSize), 0, valuesSize, compressedValues);
+
+    // what TsBlockSerde would take: the values plus a time column without null indicators
+    long plainSize = 1L + valuesSize + (rleTimeColumn ? 0 : (long) Long.BYTES * positionCount);
+    int compressedSize =
+        1
+            + Integer.BYTES
+            + 1
+            + (rleTimeColumn ? 0 : Integer.BYTES)
+            + timeStream.size()
+            + 2 * Integer.BYTES
+            + compressedValuesSize;
+    if (compressedSize >= plainSize) {
+      MPPDataExchangeServiceMetrics.recordFailedCompression(System.nanoTime() - startTime);
+      return null;
+    }
+
+    PublicBAOS outputStream = new PublicBAOS(compressedSize);
+    DataOutputStream output = new DataOutputStream(outputStream);
+    output.writeByte(Encoding.COMPRESSED.ordinal());
+    output.writeInt(positionCount);
+    if (rleTimeColumn) {
+      output.writeByte(RLE_TIME_COLUMN);
+    } else {
+      output.writeByte(DELTA_TIME_COLUMN);
+      output.writeInt(timeStream.size());
+    }
+    output.write(timeStream.getBuf(), 0, timeStream.size());
+    output.writeInt(valuesSize);
+    output.writeInt(compressedValuesSize);
+    output.write(compressedValues, 0, compressedValuesSize);
+    output.flush();
+
+    MPPDataExchangeServiceMetrics.recordCompression(
+        plainSize, outputStream.size(), System.nanoTime() - startTime);
+    return ByteBuffer.wrap(outputStream.getBuf(), 0, outputStream.size());
+  }
+
+  public TsBlock deserialize(ByteBuffer byteBuffer) {
+    Encoding encoding = Encoding.values()[byteBuffer.get()];
+    switch (encoding) {
+      case PLAIN:
+        return serde.deserialize(byteBuffer);
+      case COMPRESSED:
+        return decompress(byteBuffer);
+      default:
+        throw new IllegalArgumentException("Unknown exchange encoding: " + encoding);
+    }
+  }
+
+  private TsBlock decompress(ByteBuffer byteBuffer) {
+    long startTime = System.nanoTime();
+    int positionCount = byteBuffer.getInt();
+    Column timeColumn;
+    byte timeColumnType = byteBuffer.get();
+    if (timeColumnType == RLE_TIME_COLUMN) {
+      timeColumn =
+          new RunLengthEncodedColumn(
+              new TimeColumn(1, new long[] {byteBuffer.getLong()}), positionCount);
+    } else {
+      int timeSize = byteBuffer.getInt();
+      ByteBuffer timeBuffer = byteBuffer.slice();
+      timeBuffer.limit(timeSize);
+      DeltaBinaryDecoder decoder = new DeltaBinaryDecoder.LongDeltaDecoder();
+      long[] times = new long[positionCount];
+      for (int i = 0; i < positionCount; i++) {
+        times[i] = decoder.readLong(timeBuffer);
+      }
+      timeColumn = new TimeColumn(positionCount, times);
+      byteBuffer.position(byteBuffer.position() + timeSize);
+    }
+
+    int valuesSize = byteBuffer.getInt();
+    int compressedValuesSize = byteBuffer.getInt();
+    byte[] values = new byte[valuesSize];
+    try {
+      if (byteBuffer.hasArray()) {
+        UNCOMPRESSOR.uncompress(
+            byteBuffer.array(),
+            byteBuffer.arrayOffset() + byteBuffer.position(),
+            compressedValuesSize,
+            values,
+            0);
+        byteBuffer.position(byteBuffer.position() + compressedValuesSize);
+      } else {
+        UNCOMPRESSOR.uncompress(
+            ReadWriteIOUtils.readBytes(byteBuffer, compressedValuesSize),
+            0,
+            compressedValuesSize,
+            values,
+            0);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to decompress TsBlock from data exchange", e);
+    }
+    TsBlock valueBlock = serde.deserialize(ByteBuffer.wrap(values));
+
+    MPPDataExchangeServiceMetrics.recordDecompression(System.nanoTime() - startTime);
+    return TsBlock.wrapBlocksWithoutCopy(positionCount, timeColumn, valueBlock.getValueColumns());
+  }
+}
@@ -23,6 +23,7 @@ import org.apache.iotdb.common.rpc.thrift.TEndPoint;
 import org.apache.iotdb.common.rpc.thrift.TSStatus;
 import org.apache.iotdb.commons.client.IClientManager;
 import org.apache.iotdb.commons.client.sync.SyncDataNodeMPPDataExchangeServiceClient;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.exception.exchange.GetTsBlockFromClosedOrAbortedChannelException;
 import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
 import org.apache.iotdb.db.queryengine.execution.exchange.sink.DownStreamChannelIndex;
@@ -45,11 +46,13 @@ import org.apache.iotdb.db.utils.SetThreadName;
 import org.apache.iotdb.mpp.rpc.thrift.MPPDataExchangeService;
 import org.apache.iotdb.mpp.rpc.thrift.TAcknowledgeDataBlockEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TCloseSinkChannelEvent;
+import org.apache.iotdb.mpp.rpc.thrift.TDataBlockCreditEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TEndOfDataBlockEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockRequest;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockResponse;
 import org.apache.iotdb.mpp.rpc.thrift.TNewDataBlockEvent;
+import org.apache.iotdb.mpp.rpc.thrift.TPushDataBlockEvent;
 import org.apache.iotdb.rpc.TSStatusCode;
 
 import org.apache.commons.lang3.Validate;
@@ -76,9 +79,11 @@ import static org.apache.iotdb.db.queryengine.common.DataNodeEndPoints.isSameNod
 import static org.apache.iotdb.db.queryengine.common.FragmentInstanceId.createFullId;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet.GET_DATA_BLOCK_TASK_SERVER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet.ON_ACKNOWLEDGE_DATA_BLOCK_EVENT_TASK_SERVER;
+import static org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet.PUSH_DATA_BLOCK_TASK_SERVER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet.SEND_NEW_DATA_BLOCK_EVENT_TASK_SERVER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet.GET_DATA_BLOCK_NUM_SERVER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet.ON_ACKNOWLEDGE_DATA_BLOCK_NUM_SERVER;
+import static org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet.PUSH_DATA_BLOCK_NUM_SERVER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet.SEND_NEW_DATA_BLOCK_NUM_SERVER;
 
 public class MPPDataExchangeManager implements IMPPDataExchangeManager {
@@ -116,9 +121,12 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
         }
         // index of the channel must be a SinkChannel
         SinkChannel sinkChannel = (SinkChannel) (sinkHandle.getChannel(req.getIndex()));
+        // only a SourceHandle that knows ExchangeTsBlockSerde asks for encoded TsBlocks
+        boolean encoded = req.isSetAcceptEncodedTsBlocks() && req.isAcceptEncodedTsBlocks();
         for (int i = req.getStartSequenceId(); i < req.getEndSequenceId(); i++) {
           try {
-            ByteBuffer serializedTsBlock = sinkChannel.getSerializedTsBlock(i);
+            ByteBuffer serializedTsBlock =
+                encoded ? sinkChannel.getEncodedTsBlock(i) : sinkChannel.getSerializedTsBlock(i);
             resp.addToTsBlocks(serializedTsBlock);
           } catch (GetTsBlockFromClosedOrAbortedChannelException e) {
             // Return an empty block list to indicate that getting data block failed this time.
@@ -128,6 +136,9 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
             throw new TException(e);
           }
         }
+        if (encoded) {
+          resp.setEncoded(true);
+        }
         return resp;
       } finally {
         DATA_EXCHANGE_COST_METRICS.recordDataExchangeCost(
@@ -245,6 +256,9 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
           return;
         }
 
+        if (e.isSetReturnedCreditInBytes()) {
+          sourceHandle.returnPushCredit(e.getReturnedCreditInBytes());
+        }
         sourceHandle.updatePendingDataBlockInfo(e.getStartSequenceId(), e.getBlockSizes());
       } finally {
         DATA_EXCHANGE_COST_METRICS.recordDataExchangeCost(
@@ -286,6 +300,80 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
       }
     }
 
+    @Override
+    public boolean onDataBlockCreditEvent(TDataBlockCreditEvent e) throws TException {
+      try (SetThreadName fragmentInstanceName =
+          new SetThreadName(
+              createFullId(
+                  e.sourceFragmentInstanceId.queryId,
+                  e.sourceFragmentInstanceId.fragmentId,
+                  e.sourceFragmentInstanceId.instanceId))) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug(
+              "Received {} bytes credit for ShuffleSinkHandle {}, channel index: {}.",
+              e.getCreditInBytes(),
+              e.getSourceFragmentInstanceId(),
+              e.getIndex());
+        }
+        if (!IoTDBDescriptor.getInstance().getConfig().isEnableMppDataExchangePushMode()) {
+          return false;
+        }
+        ISinkHandle sinkHandle = shuffleSinkHandles.get(e.getSourceFragmentInstanceId());
+        if (sinkHandle == null) {
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(
+                "received DataBlockCreditEvent but target FragmentInstance[{}] is not found.",
+                e.getSourceFragmentInstanceId());
+          }
+          return false;
+        }
+        // index of the channel must be a SinkChannel
+        return ((SinkChannel) (sinkHandle.getChannel(e.getIndex())))
+            .addPushCredit(
+                e.getCreditInBytes(),
+                e.isSetAcceptEncodedTsBlocks() && e.isAcceptEncodedTsBlocks());
+      }
+    }
+
+    @Override
+    public void onPushDataBlockEvent(TPushDataBlockEvent e) throws TException {
+      long startTime = System.nanoTime();
+      try (SetThreadName fragmentInstanceName =
+          new SetThreadName(createFullIdFrom(e.targetFragmentInstanceId, e.targetPlanNodeId))) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug(
+              "Pushed data blocks received, for plan node {} of {} from {}.",
+              e.getTargetPlanNodeId(),
+              e.getTargetFragmentInstanceId(),
+              e.getSourceFragmentInstanceId());
+        }
+
+        Map<String, ISourceHandle> sourceHandleMap =
+            sourceHandles.get(e.getTargetFragmentInstanceId());
+        SourceHandle sourceHandle =
+            sourceHandleMap == null
+                ? null
+                : (SourceHandle) sourceHandleMap.get(e.getTargetPlanNodeId());
+
+        if (sourceHandle == null || sourceHandle.isAborted() || sourceHandle.isFinished()) {
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(
+                "received PushDataBlockEvent but the downstream FragmentInstance[{}] is not found",
+                e.getTargetFragmentInstanceId());
+          }
+          return;
+        }
+
+        sourceHandle.receivePushedDataBlocks(
+            e.getStartSequenceId(), e.getBlockSizes(), e.getTsBlocks(), e.isEncoded());
+      } finally {
+        DATA_EXCHANGE_COST_METRICS.recordDataExchangeCost(
+            PUSH_DATA_BLOCK_TASK_SERVER, System.nanoTime() - startTime);
+        DATA_EXCHANGE_COUNT_METRICS.recordDataBlockNum(
+            PUSH_DATA_BLOCK_NUM_SERVER, e.getBlockSizes().size());
+      }
+    }
+
     @Override
     public TSStatus testConnectionEmptyRPC() throws TException {
       return new TSStatus(TSStatusCode.SUCCESS_STATUS.getStatusCode());
@@ -862,6 +950,45 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
       TEndPoint remoteEndpoint,
       TFragmentInstanceId remoteFragmentInstanceId,
       IMPPDataExchangeManagerCallback<Throwable> onFailureCallback) {
+    return createSourceHandle(
+        localFragmentInstanceId,
+        localPlanNodeId,
+        indexOfUpstreamSinkHandle,
+        remoteEndpoint,
+        remoteFragmentInstanceId,
+        onFailureCallback,
+        IoTDBDescriptor.getInstance().getConfig().isEnableMppDataExchangeCompression());
+  }
+
+  /**
+   * Create a source handle for the query result, whose TsBlocks are forwarded to the client as they
+   * are received, so they are never asked for in {@link ExchangeTsBlockSerde}.
+   */
+  public ISourceHandle createSourceHandleForQueryResult(
+      TFragmentInstanceId localFragmentInstanceId,
+      String localPlanNodeId,
+      int indexOfUpstreamSinkHandle,
+      TEndPoint remoteEndpoint,
+      TFragmentInstanceId remoteFragmentInstanceId,
+      IMPPDataExchangeManagerCallback<Throwable> onFailureCallback) {
+    return createSourceHandle(
+        localFragmentInstanceId,
+        localPlanNodeId,
+        indexOfUpstreamSinkHandle,
+        remoteEndpoint,
+        remoteFragmentInstanceId,
+        onFailureCallback,
+        false);
+  }
+
+  private ISourceHandle createSourceHandle(
+      TFragmentInstanceId localFragmentInstanceId,
+      String localPlanNodeId,
+      int indexOfUpstreamSinkHandle,
+      TEndPoint remoteEndpoint,
+      TFragmentInstanceId remoteFragmentInstanceId,
+      IMPPDataExchangeManagerCallback<Throwable> onFailureCallback,
+      boolean acceptEncodedTsBlocks) {
     Map<String, ISourceHandle> sourceHandleMap = sourceHandles.get(localFragmentInstanceId);
     if (sourceHandleMap != null && sourceHandleMap.containsKey(localPlanNodeId)) {
       throw new IllegalStateException(
@@ -891,7 +1018,8 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
             executorService,
             tsBlockSerdeFactory.get(),
             new SourceHandleListenerImpl(onFailureCallback),
-            mppDataExchangeServiceClientManager);
+            mppDataExchangeServiceClientManager,
+            acceptEncodedTsBlocks);
     sourceHandles
         .computeIfAbsent(localFragmentInstanceId, key -> new ConcurrentHashMap<>())
         .put(localPlanNodeId, sourceHandle);
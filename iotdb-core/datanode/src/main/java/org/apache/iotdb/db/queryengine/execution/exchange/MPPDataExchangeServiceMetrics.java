@@ -24,13 +24,36 @@ import org.apache.iotdb.commons.service.AbstractThriftServiceThread;
 import org.apache.iotdb.commons.service.metric.enums.Metric;
 import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Counter;
+import org.apache.iotdb.metrics.type.Timer;
 import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.metrics.utils.MetricType;
 
+import java.util.Arrays;
+
 public class MPPDataExchangeServiceMetrics implements IMetricSet {
   private AbstractThriftServiceThread thriftServiceThread;
 
+  // region exchange compression
+  // size of the compressed TsBlocks before and after compression
+  private static final String UNCOMPRESSED = "uncompressed";
+  private static final String COMPRESSED = "compressed";
+  // cpu time spent on compression and decompression, and on compression which does not make the
+  // TsBlock smaller so that it is sent uncompressed
+  private static final String COMPRESS = "compress";
+  private static final String DECOMPRESS = "decompress";
+  private static final String FAILED_COMPRESS = "failed_compress";
+
+  private static Counter uncompressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private static Counter compressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private static Timer compressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private static Timer decompressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private static Timer failedCompressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+
+  // endregion
+
   public MPPDataExchangeServiceMetrics(AbstractThriftServiceThread thriftServiceThread) {
     this.thriftServiceThread = thriftServiceThread;
   }
@@ -44,6 +67,40 @@ public class MPPDataExchangeServiceMetrics implements IMetricSet {
         AbstractThriftServiceThread::getActiveThreadCount,
         Tag.NAME.toString(),
         ThreadName.MPP_DATA_EXCHANGE_RPC_SERVICE.getName());
+    bindCompressionMetrics(metricService);
+  }
+
+  private static void bindCompressionMetrics(AbstractMetricService metricService) {
+    uncompressedSizeCounter =
+        metricService.getOrCreateCounter(
+            Metric.DATA_EXCHANGE_COMPRESSION_SIZE.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            UNCOMPRESSED);
+    compressedSizeCounter =
+        metricService.getOrCreateCounter(
+            Metric.DATA_EXCHANGE_COMPRESSION_SIZE.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            COMPRESSED);
+    compressTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_EXCHANGE_COMPRESSION_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            COMPRESS);
+    decompressTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_EXCHANGE_COMPRESSION_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            DECOMPRESS);
+    failedCompressTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_EXCHANGE_COMPRESSION_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            FAILED_COMPRESS);
   }
 
   @Override
@@ -53,5 +110,50 @@ public class MPPDataExchangeServiceMetrics implements IMetricSet {
         Metric.THRIFT_ACTIVE_THREADS.toString(),
         Tag.NAME.toString(),
         ThreadName.MPP_DATA_EXCHANGE_RPC_SERVICE.getName());
+    unbindCompressionMetrics(metricService);
+  }
+
+  private static void unbindCompressionMetrics(AbstractMetricService metricService) {
+    uncompressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    compressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    compressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    decompressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    failedCompressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    Arrays.asList(UNCOMPRESSED, COMPRESSED)
+        .forEach(
+            type ->
+                metricService.remove(
+                    MetricType.COUNTER,
+                    Metric.DATA_EXCHANGE_COMPRESSION_SIZE.toString(),
+                    Tag.TYPE.toString(),
+                    type));
+    Arrays.asList(COMPRESS, DECOMPRESS, FAILED_COMPRESS)
+        .forEach(
+            type ->
+                metricService.remove(
+                    MetricType.TIMER,
+                    Metric.DATA_EXCHANGE_COMPRESSION_COST.toString(),
+                    Tag.TYPE.toString(),
+                    type));
+  }
+
+  /**
+   * Records a TsBlock compressed for data exchange, the saved bytes are the difference between the
+   * two sizes.
+   */
+  public static void recordCompression(
+      long uncompressedSizeInBytes, long compressedSizeInBytes, long costInNanos) {
+    uncompressedSizeCounter.inc(uncompressedSizeInBytes);
+    compressedSizeCounter.inc(compressedSizeInBytes);
+    compressTimer.updateNanos(costInNanos);
+  }
+
+  /** Records a compression attempt that falls back to sending the TsBlock uncompressed. */
+  public static void recordFailedCompression(long costInNanos) {
+    failedCompressTimer.updateNanos(costInNanos);
+  }
+
+  public static void recordDecompression(long costInNanos) {
+    decompressTimer.updateNanos(costInNanos);
   }
 }
@@ -26,6 +26,7 @@ import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
 import org.apache.iotdb.db.queryengine.exception.exchange.GetTsBlockFromClosedOrAbortedChannelException;
+import org.apache.iotdb.db.queryengine.execution.exchange.ExchangeTsBlockSerde;
 import org.apache.iotdb.db.queryengine.execution.exchange.MPPDataExchangeManager.SinkListener;
 import org.apache.iotdb.db.queryengine.execution.memory.LocalMemoryManager;
 import org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet;
@@ -34,6 +35,7 @@ import org.apache.iotdb.db.utils.SetThreadName;
 import org.apache.iotdb.mpp.rpc.thrift.TEndOfDataBlockEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.mpp.rpc.thrift.TNewDataBlockEvent;
+import org.apache.iotdb.mpp.rpc.thrift.TPushDataBlockEvent;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -48,6 +50,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -58,8 +61,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static com.google.common.util.concurrent.Futures.immediateVoidFuture;
 import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
 import static org.apache.iotdb.db.queryengine.common.FragmentInstanceId.createFullId;
+import static org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet.PUSH_DATA_BLOCK_TASK_CALLER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet.SEND_NEW_DATA_BLOCK_EVENT_TASK_CALLER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet.SINK_HANDLE_SEND_TSBLOCK_REMOTE;
+import static org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet.PUSH_DATA_BLOCK_NUM_CALLER;
 import static org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet.SEND_NEW_DATA_BLOCK_NUM_CALLER;
 
 public class SinkChannel implements ISinkChannel {
@@ -80,6 +85,7 @@ public class SinkChannel implements ISinkChannel {
   private final LocalMemoryManager localMemoryManager;
   private final ExecutorService executorService;
   private final TsBlockSerde serde;
+  private final ExchangeTsBlockSerde exchangeSerde;
   private final SinkListener sinkListener;
   private final String threadName;
   private long retryIntervalInMs;
@@ -113,6 +119,18 @@ public class SinkChannel implements ISinkChannel {
 
   private boolean noMoreTsBlocks = false;
 
+  /**
+   * Bytes the downstream SourceHandle has reserved for TsBlocks pushed to it. A TsBlock is pushed
+   * only if the credit is enough, otherwise the downstream is notified to pull it.
+   */
+  private long pushCreditInBytes = 0L;
+
+  /** Set if pushing a TsBlock failed, then the rest TsBlocks are all pulled by the downstream. */
+  private boolean pushDisabled = false;
+
+  /** Whether the downstream SourceHandle asked for pushed TsBlocks in ExchangeTsBlockSerde. */
+  private volatile boolean pushEncodedTsBlocks = false;
+
   private final AtomicBoolean invokedOnFinished = new AtomicBoolean(false);
 
   /** max bytes this SinkChannel can reserve. */
@@ -154,6 +172,7 @@ public class SinkChannel implements ISinkChannel {
         Validate.notNull(localMemoryManager, "localMemoryManager can not be null.");
     this.executorService = Validate.notNull(executorService, "executorService can not be null.");
     this.serde = Validate.notNull(serde, "serde can not be null.");
+    this.exchangeSerde = new ExchangeTsBlockSerde(serde);
     this.sinkListener = Validate.notNull(sinkListener, "sinkListener can not be null.");
     this.mppDataExchangeServiceClientManager = mppDataExchangeServiceClientManager;
     this.retryIntervalInMs = DEFAULT_RETRY_INTERVAL_IN_MS;
@@ -181,8 +200,10 @@ public class SinkChannel implements ISinkChannel {
     return nonCancellationPropagating(blocked);
   }
 
-  private void submitSendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes) {
-    executorService.submit(new SendNewDataBlockEventTask(startSequenceId, blockSizes));
+  private void submitSendNewDataBlockEventTask(
+      int startSequenceId, List<Long> blockSizes, long returnedCreditInBytes) {
+    executorService.submit(
+        new SendNewDataBlockEventTask(startSequenceId, blockSizes, returnedCreditInBytes));
   }
 
   @Override
@@ -220,8 +241,17 @@ public class SinkChannel implements ISinkChannel {
       nextSequenceId += 1;
       currentTsBlockSize = retainedSizeInBytes;
 
-      // TODO: consider merge multiple NewDataBlockEvent for less network traffic.
-      submitSendNewDataBlockEventTask(startSequenceId, ImmutableList.of(retainedSizeInBytes));
+      if (!pushDisabled && pushCreditInBytes >= retainedSizeInBytes) {
+        pushCreditInBytes -= retainedSizeInBytes;
+        executorService.submit(new PushDataBlockTask(startSequenceId, retainedSizeInBytes));
+      } else {
+        // give the credit back so that the downstream can use the memory to pull TsBlocks
+        long returnedCreditInBytes = pushCreditInBytes;
+        pushCreditInBytes = 0L;
+        // TODO: consider merge multiple NewDataBlockEvent for less network traffic.
+        submitSendNewDataBlockEventTask(
+            startSequenceId, ImmutableList.of(retainedSizeInBytes), returnedCreditInBytes);
+      }
     } finally {
       DATA_EXCHANGE_COST_METRIC_SET.recordDataExchangeCost(
           SINK_HANDLE_SEND_TSBLOCK_REMOTE, System.nanoTime() - startTime);
@@ -337,6 +367,18 @@ public class SinkChannel implements ISinkChannel {
   }
 
   public synchronized ByteBuffer getSerializedTsBlock(int sequenceId) throws IOException {
+    return serde.serialize(getTsBlock(sequenceId));
+  }
+
+  /**
+   * Serialize the TsBlock by {@link ExchangeTsBlockSerde}, the compression is done outside the lock
+   * of this SinkChannel.
+   */
+  public ByteBuffer getEncodedTsBlock(int sequenceId) throws IOException {
+    return exchangeSerde.serialize(getTsBlock(sequenceId));
+  }
+
+  private synchronized TsBlock getTsBlock(int sequenceId) {
     if (aborted || closed) {
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug(
@@ -354,7 +396,7 @@ public class SinkChannel implements ISinkChannel {
           sequenceIdToTsBlock.entrySet());
       throw new IllegalStateException("The data block doesn't exist. Sequence ID: " + sequenceId);
     }
-    return serde.serialize(pair.left);
+    return pair.left;
   }
 
   public void acknowledgeTsBlock(int startSequenceId, int endSequenceId) {
@@ -399,6 +441,22 @@ public class SinkChannel implements ISinkChannel {
     }
   }
 
+  /**
+   * Called when the downstream SourceHandle reserved memory for TsBlocks pushed to it.
+   *
+   * @param acceptEncodedTsBlocks whether the downstream asks for TsBlocks in {@link
+   *     ExchangeTsBlockSerde}
+   * @return false if the credit is not accepted, then the downstream should release the memory
+   */
+  public synchronized boolean addPushCredit(long creditInBytes, boolean acceptEncodedTsBlocks) {
+    if (aborted || closed || pushDisabled) {
+      return false;
+    }
+    pushEncodedTsBlocks = acceptEncodedTsBlocks;
+    pushCreditInBytes += creditInBytes;
+    return true;
+  }
+
   @Override
   public TFragmentInstanceId getLocalFragmentInstanceId() {
     return localFragmentInstanceId;
@@ -476,8 +534,10 @@ public class SinkChannel implements ISinkChannel {
 
     private final int startSequenceId;
     private final List<Long> blockSizes;
+    private final long returnedCreditInBytes;
 
-    SendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes) {
+    SendNewDataBlockEventTask(
+        int startSequenceId, List<Long> blockSizes, long returnedCreditInBytes) {
       Validate.isTrue(
           startSequenceId >= 0,
           "Start sequence ID should be greater than or equal to zero, but was: "
@@ -485,6 +545,7 @@ public class SinkChannel implements ISinkChannel {
               + ".");
       this.startSequenceId = startSequenceId;
       this.blockSizes = Validate.notNull(blockSizes);
+      this.returnedCreditInBytes = returnedCreditInBytes;
     }
 
     @Override
@@ -506,6 +567,9 @@ public class SinkChannel implements ISinkChannel {
                 localFragmentInstanceId,
                 startSequenceId,
                 blockSizes);
+        if (returnedCreditInBytes > 0) {
+          newDataBlockEvent.setReturnedCreditInBytes(returnedCreditInBytes);
+        }
         while (attempt < MAX_ATTEMPT_TIMES) {
           attempt += 1;
           long startTime = System.nanoTime();
@@ -535,6 +599,77 @@ public class SinkChannel implements ISinkChannel {
     }
   }
 
+  /**
+   * Push a TsBlock to downstream fragment instance by a {@link
+   * org.apache.iotdb.mpp.rpc.thrift.TPushDataBlockEvent}. If it fails, push mode is disabled and
+   * the downstream is notified to pull the TsBlock.
+   */
+  class PushDataBlockTask implements Runnable {
+
+    private final int sequenceId;
+    private final long blockSize;
+
+    PushDataBlockTask(int sequenceId, long blockSize) {
+      this.sequenceId = sequenceId;
+      this.blockSize = blockSize;
+    }
+
+    @Override
+    public void run() {
+      try (SetThreadName sinkChannelName = new SetThreadName(threadName)) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug(
+              "[PushTsBlock] {} to {}.{}", sequenceId, remoteFragmentInstanceId, remotePlanNodeId);
+        }
+        boolean encoded = pushEncodedTsBlocks;
+        ByteBuffer tsBlock;
+        try {
+          tsBlock = encoded ? getEncodedTsBlock(sequenceId) : getSerializedTsBlock(sequenceId);
+        } catch (GetTsBlockFromClosedOrAbortedChannelException e) {
+          // closed by the downstream or aborted, no need to push any more
+          return;
+        } catch (IllegalStateException | IOException e) {
+          sinkListener.onFailure(SinkChannel.this, e);
+          return;
+        }
+        TPushDataBlockEvent pushDataBlockEvent =
+            new TPushDataBlockEvent(
+                remoteFragmentInstanceId,
+                remotePlanNodeId,
+                localFragmentInstanceId,
+                sequenceId,
+                Collections.singletonList(blockSize),
+                Collections.singletonList(tsBlock));
+        if (encoded) {
+          pushDataBlockEvent.setEncoded(true);
+        }
+        long startTime = System.nanoTime();
+        try (SyncDataNodeMPPDataExchangeServiceClient client =
+            mppDataExchangeServiceClientManager.borrowClient(remoteEndpoint)) {
+          client.onPushDataBlockEvent(pushDataBlockEvent);
+        } catch (Exception e) {
+          LOGGER.warn("Failed to push TsBlock {}, fall back to pull mode", sequenceId, e);
+          long returnedCreditInBytes;
+          synchronized (SinkChannel.this) {
+            pushDisabled = true;
+            returnedCreditInBytes = pushCreditInBytes;
+            pushCreditInBytes = 0L;
+          }
+          new SendNewDataBlockEventTask(
+                  sequenceId, ImmutableList.of(blockSize), returnedCreditInBytes)
+              .run();
+          return;
+        } finally {
+          DATA_EXCHANGE_COST_METRIC_SET.recordDataExchangeCost(
+              PUSH_DATA_BLOCK_TASK_CALLER, System.nanoTime() - startTime);
+          DATA_EXCHANGE_COUNT_METRIC_SET.recordDataBlockNum(PUSH_DATA_BLOCK_NUM_CALLER, 1);
+        }
+        // the downstream has received the TsBlock, no ack is needed
+        acknowledgeTsBlock(sequenceId, sequenceId + 1);
+      }
+    }
+  }
+
   /**
    * Send a {@link org.apache.iotdb.mpp.rpc.thrift.TEndOfDataBlockEvent} to downstream fragment
    * instance.
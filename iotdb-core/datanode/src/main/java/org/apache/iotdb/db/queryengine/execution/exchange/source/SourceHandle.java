@@ -25,6 +25,7 @@ import org.apache.iotdb.commons.client.sync.SyncDataNodeMPPDataExchangeServiceCl
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.execution.exchange.ExchangeTsBlockSerde;
 import org.apache.iotdb.db.queryengine.execution.exchange.MPPDataExchangeManager.SourceHandleListener;
 import org.apache.iotdb.db.queryengine.execution.memory.LocalMemoryManager;
 import org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet;
@@ -32,6 +33,7 @@ import org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet;
 import org.apache.iotdb.db.utils.SetThreadName;
 import org.apache.iotdb.mpp.rpc.thrift.TAcknowledgeDataBlockEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TCloseSinkChannelEvent;
+import org.apache.iotdb.mpp.rpc.thrift.TDataBlockCreditEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockRequest;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockResponse;
@@ -39,6 +41,7 @@ import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockResponse;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import org.apache.commons.lang3.Validate;
+import org.apache.thrift.TApplicationException;
 import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.common.block.column.TsBlockSerde;
 import org.apache.tsfile.utils.Pair;
@@ -46,11 +49,14 @@ import org.apache.tsfile.utils.RamUsageEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 
@@ -81,11 +87,21 @@ public class SourceHandle implements ISourceHandle {
   private final LocalMemoryManager localMemoryManager;
   private final ExecutorService executorService;
   private final TsBlockSerde serde;
+  private final ExchangeTsBlockSerde exchangeSerde;
   private final SourceHandleListener sourceHandleListener;
 
   private final Map<Integer, Long> sequenceIdToDataBlockSize = new HashMap<>();
   private final Map<Integer, ByteBuffer> sequenceIdToTsBlock = new HashMap<>();
 
+  /**
+   * Whether to ask the upstream for TsBlocks serialized by exchangeSerde, which only pays off if
+   * they may be compressed and this SourceHandle deserializes them itself.
+   */
+  private final boolean acceptEncodedTsBlocks;
+
+  /** Sequence IDs of the TsBlocks in sequenceIdToTsBlock serialized by exchangeSerde. */
+  private final Set<Integer> encodedSequenceIds = new HashSet<>();
+
   private final String threadName;
   private long retryIntervalInMs;
 
@@ -106,6 +122,21 @@ public class SourceHandle implements ISourceHandle {
 
   private boolean closed = false;
 
+  /** Whether to grant credit to the upstream SinkChannel so that it pushes TsBlocks. */
+  private boolean pushEnabled =
+      IoTDBDescriptor.getInstance().getConfig().isEnableMppDataExchangePushMode();
+
+  private boolean pushCreditGranted = false;
+
+  /**
+   * Bytes reserved for TsBlocks pushed by the upstream SinkChannel which have not been received,
+   * they are included in bufferRetainedSizeInBytes.
+   */
+  private long pushCreditInBytes = 0L;
+
+  private final long maxPushCreditInBytes =
+      IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePushCreditInBytes();
+
   /** max bytes this SourceHandle can reserve. */
   private long maxBytesCanReserve =
       IoTDBDescriptor.getInstance().getConfig().getMaxBytesPerFragmentInstance();
@@ -138,6 +169,39 @@ public class SourceHandle implements ISourceHandle {
       SourceHandleListener sourceHandleListener,
       IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient>
           mppDataExchangeServiceClientManager) {
+    this(
+        remoteEndpoint,
+        remoteFragmentInstanceId,
+        localFragmentInstanceId,
+        localPlanNodeId,
+        indexOfUpstreamSinkHandle,
+        localMemoryManager,
+        executorService,
+        serde,
+        sourceHandleListener,
+        mppDataExchangeServiceClientManager,
+        IoTDBDescriptor.getInstance().getConfig().isEnableMppDataExchangeCompression());
+  }
+
+  /**
+   * @param acceptEncodedTsBlocks false if the TsBlocks are only forwarded by {@link
+   *     #getSerializedTsBlock()}, e.g. to the client, so that they are not decoded and serialized
+   *     again
+   */
+  @SuppressWarnings("squid:S107")
+  public SourceHandle(
+      TEndPoint remoteEndpoint,
+      TFragmentInstanceId remoteFragmentInstanceId,
+      TFragmentInstanceId localFragmentInstanceId,
+      String localPlanNodeId,
+      int indexOfUpstreamSinkHandle,
+      LocalMemoryManager localMemoryManager,
+      ExecutorService executorService,
+      TsBlockSerde serde,
+      SourceHandleListener sourceHandleListener,
+      IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient>
+          mppDataExchangeServiceClientManager,
+      boolean acceptEncodedTsBlocks) {
     this.remoteEndpoint = Validate.notNull(remoteEndpoint, "remoteEndpoint can not be null.");
     this.remoteFragmentInstanceId =
         Validate.notNull(remoteFragmentInstanceId, "remoteFragmentInstanceId can not be null.");
@@ -151,6 +215,8 @@ public class SourceHandle implements ISourceHandle {
         Validate.notNull(localMemoryManager, "localMemoryManager can not be null.");
     this.executorService = Validate.notNull(executorService, "executorService can not be null.");
     this.serde = Validate.notNull(serde, "serde can not be null.");
+    this.exchangeSerde = new ExchangeTsBlockSerde(serde);
+    this.acceptEncodedTsBlocks = acceptEncodedTsBlocks;
     this.sourceHandleListener =
         Validate.notNull(sourceHandleListener, "sourceHandleListener can not be null.");
     this.bufferRetainedSizeInBytes = 0L;
@@ -165,11 +231,12 @@ public class SourceHandle implements ISourceHandle {
 
   @Override
   public synchronized TsBlock receive() {
-    ByteBuffer tsBlock = getSerializedTsBlock();
+    boolean encoded = encodedSequenceIds.remove(currSequenceId);
+    ByteBuffer tsBlock = pollSerializedTsBlock();
     if (tsBlock != null) {
       long startTime = System.nanoTime();
       try {
-        return serde.deserialize(tsBlock);
+        return encoded ? exchangeSerde.deserialize(tsBlock) : serde.deserialize(tsBlock);
       } finally {
         DATA_EXCHANGE_COST_METRIC_SET.recordDataExchangeCost(
             SOURCE_HANDLE_DESERIALIZE_TSBLOCK_REMOTE, System.nanoTime() - startTime);
@@ -181,6 +248,20 @@ public class SourceHandle implements ISourceHandle {
 
   @Override
   public synchronized ByteBuffer getSerializedTsBlock() {
+    boolean encoded = encodedSequenceIds.remove(currSequenceId);
+    ByteBuffer tsBlock = pollSerializedTsBlock();
+    if (tsBlock == null || !encoded) {
+      return tsBlock;
+    }
+    // callers expect the TsBlockSerde format, only if this SourceHandle is also used by receive()
+    try {
+      return serde.serialize(exchangeSerde.deserialize(tsBlock));
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to serialize TsBlock", e);
+    }
+  }
+
+  private ByteBuffer pollSerializedTsBlock() {
     long startTime = System.nanoTime();
     try (SetThreadName sourceHandleName = new SetThreadName(threadName)) {
       checkState();
@@ -207,7 +288,7 @@ public class SourceHandle implements ISourceHandle {
               localPlanNodeId,
               retainedSize);
 
-      if (sequenceIdToTsBlock.isEmpty() && !isFinished()) {
+      if (!sequenceIdToTsBlock.containsKey(currSequenceId) && !isFinished()) {
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("[WaitForMoreTsBlock]");
         }
@@ -217,6 +298,9 @@ public class SourceHandle implements ISourceHandle {
         sourceHandleListener.onFinished(this);
       }
       trySubmitGetDataBlocksTask();
+      if (pushCreditGranted) {
+        tryGrantPushCredit();
+      }
       return tsBlock;
     } finally {
       DATA_EXCHANGE_COST_METRIC_SET.recordDataExchangeCost(
@@ -232,12 +316,18 @@ public class SourceHandle implements ISourceHandle {
       return;
     }
 
+    // skip the TsBlocks pushed by the upstream, which have been received or consumed
+    nextSequenceId = Math.max(nextSequenceId, currSequenceId);
+    while (sequenceIdToTsBlock.containsKey(nextSequenceId)) {
+      nextSequenceId++;
+    }
     final int startSequenceId = nextSequenceId;
     int endSequenceId = nextSequenceId;
     long reservedBytes = 0L;
     Pair<ListenableFuture<Void>, Boolean> pair = null;
     long blockedSize = 0L;
-    while (sequenceIdToDataBlockSize.containsKey(endSequenceId)) {
+    while (sequenceIdToDataBlockSize.containsKey(endSequenceId)
+        && !sequenceIdToTsBlock.containsKey(endSequenceId)) {
       Long bytesToReserve = sequenceIdToDataBlockSize.get(endSequenceId);
       if (bytesToReserve == null) {
         throw new IllegalStateException("Data block size is null.");
@@ -329,11 +419,113 @@ public class SourceHandle implements ISourceHandle {
           dataBlockSizes);
     }
     for (int i = 0; i < dataBlockSizes.size(); i++) {
-      sequenceIdToDataBlockSize.put(i + startSequenceId, dataBlockSizes.get(i));
+      int sequenceId = i + startSequenceId;
+      if (sequenceId < currSequenceId || sequenceIdToTsBlock.containsKey(sequenceId)) {
+        // the push of the TsBlock failed at the upstream after this SourceHandle had received it,
+        // ack it so that the upstream does not wait for it to be pulled
+        executorService.submit(new SendAcknowledgeDataBlockEventTask(sequenceId, sequenceId + 1));
+      } else {
+        sequenceIdToDataBlockSize.put(sequenceId, dataBlockSizes.get(i));
+      }
     }
     if (canGetTsBlockFromRemote) {
       trySubmitGetDataBlocksTask();
     }
+    // the upstream SinkChannel must exist now, so it's time to grant it credit
+    if (!pushCreditGranted) {
+      pushCreditGranted = true;
+      tryGrantPushCredit();
+    }
+  }
+
+  /** Receive TsBlocks pushed by the upstream SinkChannel, whose memory is reserved as credit. */
+  public synchronized void receivePushedDataBlocks(
+      int startSequenceId, List<Long> dataBlockSizes, List<ByteBuffer> tsBlocks, boolean encoded) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "[ReceivePushedTsBlock] [{}, {}), each size is: {}",
+          startSequenceId,
+          startSequenceId + dataBlockSizes.size(),
+          dataBlockSizes);
+    }
+    if (aborted || closed) {
+      return;
+    }
+    for (int i = 0; i < dataBlockSizes.size(); i++) {
+      int sequenceId = i + startSequenceId;
+      if (sequenceId < currSequenceId || sequenceIdToDataBlockSize.containsKey(sequenceId)) {
+        // the push timed out at the upstream and the TsBlock has been announced for pull, the
+        // credit given back by the upstream doesn't include this TsBlock, so release it here
+        releasePushCredit(dataBlockSizes.get(i));
+        continue;
+      }
+      pushCreditInBytes -= dataBlockSizes.get(i);
+      sequenceIdToDataBlockSize.put(sequenceId, dataBlockSizes.get(i));
+      sequenceIdToTsBlock.put(sequenceId, tsBlocks.get(i));
+      if (encoded) {
+        encodedSequenceIds.add(sequenceId);
+      }
+    }
+    if (!blocked.isDone() && sequenceIdToTsBlock.containsKey(currSequenceId)) {
+      blocked.set(null);
+    }
+  }
+
+  /** The upstream SinkChannel gives back the credit it can not use. */
+  public synchronized void returnPushCredit(long creditInBytes) {
+    if (aborted || closed) {
+      return;
+    }
+    releasePushCredit(creditInBytes);
+  }
+
+  /**
+   * Reserve memory for TsBlocks pushed by the upstream SinkChannel and send it as credit. Credit is
+   * granted only if the memory can be reserved at once, otherwise TsBlocks are pulled.
+   */
+  private void tryGrantPushCredit() {
+    if (!pushEnabled || aborted || closed) {
+      return;
+    }
+    long maxCredit = Math.min(maxPushCreditInBytes, maxBytesCanReserve / 2);
+    long creditInBytes = maxCredit - pushCreditInBytes;
+    // grant credit in batches to save RPCs
+    if (creditInBytes <= 0 || creditInBytes < maxCredit / 2) {
+      return;
+    }
+    Pair<ListenableFuture<Void>, Boolean> pair =
+        localMemoryManager
+            .getQueryPool()
+            .reserve(
+                localFragmentInstanceId.getQueryId(),
+                fullFragmentInstanceId,
+                localPlanNodeId,
+                creditInBytes,
+                maxBytesCanReserve);
+    // the reservation may be completed after it's blocked, then tryCancel returns 0
+    if (!Boolean.TRUE.equals(pair.right)
+        && localMemoryManager.getQueryPool().tryCancel(pair.left) > 0) {
+      return;
+    }
+    pushCreditInBytes += creditInBytes;
+    bufferRetainedSizeInBytes += creditInBytes;
+    executorService.submit(new SendDataBlockCreditEventTask(creditInBytes));
+  }
+
+  private void releasePushCredit(long creditInBytes) {
+    long bytesToFree = Math.min(creditInBytes, pushCreditInBytes);
+    if (bytesToFree <= 0) {
+      return;
+    }
+    pushCreditInBytes -= bytesToFree;
+    bufferRetainedSizeInBytes -= bytesToFree;
+    localMemoryManager
+        .getQueryPool()
+        .free(
+            localFragmentInstanceId.getQueryId(),
+            fullFragmentInstanceId,
+            localPlanNodeId,
+            bytesToFree);
   }
 
   @Override
@@ -548,6 +740,9 @@ public class SourceHandle implements ISourceHandle {
                 startSequenceId,
                 endSequenceId,
                 indexOfUpstreamSinkHandle);
+        if (acceptEncodedTsBlocks) {
+          req.setAcceptEncodedTsBlocks(true);
+        }
         int attempt = 0;
         while (attempt < MAX_ATTEMPT_TIMES) {
           attempt += 1;
@@ -586,6 +781,10 @@ public class SourceHandle implements ISourceHandle {
               }
               for (int i = startSequenceId; i < endSequenceId; i++) {
                 sequenceIdToTsBlock.put(i, tsBlocks.get(i - startSequenceId));
+                // an upstream of an older version leaves it unset and sends plain TsBlocks
+                if (resp.isEncoded()) {
+                  encodedSequenceIds.add(i);
+                }
               }
               if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("[PutTsBlocksIntoBuffer]");
@@ -705,6 +904,61 @@ public class SourceHandle implements ISourceHandle {
     }
   }
 
+  /**
+   * Send credit to the upstream SinkChannel. If the upstream does not accept it, e.g. its DataNode
+   * does not support push mode, the credit is released and TsBlocks are pulled.
+   */
+  class SendDataBlockCreditEventTask implements Runnable {
+
+    private final long creditInBytes;
+
+    SendDataBlockCreditEventTask(long creditInBytes) {
+      this.creditInBytes = creditInBytes;
+    }
+
+    @Override
+    public void run() {
+      try (SetThreadName sourceHandleName = new SetThreadName(threadName)) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug(
+              "[SendCredit] {} bytes to [ShuffleSinkHandle: {}, index: {}].",
+              creditInBytes,
+              remoteFragmentInstanceId,
+              indexOfUpstreamSinkHandle);
+        }
+        TDataBlockCreditEvent creditEvent =
+            new TDataBlockCreditEvent(
+                remoteFragmentInstanceId, indexOfUpstreamSinkHandle, creditInBytes);
+        if (acceptEncodedTsBlocks) {
+          creditEvent.setAcceptEncodedTsBlocks(true);
+        }
+        boolean accepted;
+        try (SyncDataNodeMPPDataExchangeServiceClient client =
+            mppDataExchangeServiceClientManager.borrowClient(remoteEndpoint)) {
+          accepted = client.onDataBlockCreditEvent(creditEvent);
+        } catch (TApplicationException e) {
+          // the upstream DataNode does not know this RPC
+          accepted = false;
+        } catch (Exception e) {
+          // the upstream may have received the credit, so keep it until this SourceHandle is closed
+          LOGGER.warn("[SendCredit] failed, TsBlocks will be pulled.", e);
+          synchronized (SourceHandle.this) {
+            pushEnabled = false;
+          }
+          return;
+        }
+        if (!accepted) {
+          synchronized (SourceHandle.this) {
+            pushEnabled = false;
+            if (!aborted && !closed) {
+              releasePushCredit(creditInBytes);
+            }
+          }
+        }
+      }
+    }
+  }
+
   class SendCloseSinkChannelEventTask implements Runnable {
 
     @Override
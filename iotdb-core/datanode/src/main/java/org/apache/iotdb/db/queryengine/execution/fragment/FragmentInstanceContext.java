@@ -20,10 +20,13 @@
 package org.apache.iotdb.db.queryengine.execution.fragment;
 
 import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.commons.conf.IoTDBConstant;
 import org.apache.iotdb.commons.exception.IoTDBException;
 import org.apache.iotdb.commons.exception.IoTDBRuntimeException;
 import org.apache.iotdb.commons.path.IFullPath;
 import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.queryengine.common.DeviceContext;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
@@ -40,6 +43,7 @@ import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSource;
 import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSourceForRegionScan;
 import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSourceType;
 import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
+import org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk.ChunkPrefetcher;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.mpp.rpc.thrift.TFetchFragmentInstanceStatisticsResp;
 
@@ -64,7 +68,10 @@ import java.util.stream.Collectors;
 public class FragmentInstanceContext extends QueryContext {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FragmentInstanceContext.class);
+  private static final Logger SLOW_SQL_LOGGER =
+      LoggerFactory.getLogger(IoTDBConstant.SLOW_SQL_LOGGER_NAME);
   private static final long END_TIME_INITIAL_VALUE = -1L;
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
   private final FragmentInstanceId id;
 
   private final FragmentInstanceStateMachine stateMachine;
@@ -89,6 +96,15 @@ public class FragmentInstanceContext extends QueryContext {
   /** unClosed tsfile used in this fragment instance. */
   private Set<TsFileResource> unClosedFilePaths;
 
+  /** chunk prefetchers of the scans in this fragment instance. */
+  private final List<ChunkPrefetcher> chunkPrefetchers = new ArrayList<>();
+
+  /**
+   * Memory left for the chunks read ahead by the scans of this fragment instance. They are charged
+   * to the memory estimated for it when it is planned, instead of the free memory of all queries.
+   */
+  private final AtomicLong chunkPrefetchMemoryInBytes = new AtomicLong(0);
+
   /** check if there is tmp file to be deleted. */
   private boolean mayHaveTmpFile = false;
 
@@ -429,6 +445,43 @@ public class FragmentInstanceContext extends QueryContext {
     this.devicePathsToContext = devicePathsToContext;
   }
 
+  public synchronized void registerChunkPrefetcher(ChunkPrefetcher chunkPrefetcher) {
+    chunkPrefetchers.add(chunkPrefetcher);
+  }
+
+  /** Stop reading chunks ahead and wait for the reads in progress. */
+  public synchronized void closeChunkPrefetchers() {
+    for (ChunkPrefetcher chunkPrefetcher : chunkPrefetchers) {
+      chunkPrefetcher.close();
+    }
+    chunkPrefetchers.clear();
+  }
+
+  /** Set by the planner to the memory estimated and allocated for this fragment instance. */
+  public void setChunkPrefetchMemoryInBytes(long chunkPrefetchMemoryInBytes) {
+    this.chunkPrefetchMemoryInBytes.set(chunkPrefetchMemoryInBytes);
+  }
+
+  /** @return false if the memory left for reading chunks ahead is not enough */
+  public boolean tryReserveChunkPrefetchMemory(long size) {
+    long left;
+    do {
+      left = chunkPrefetchMemoryInBytes.get();
+      if (left < size) {
+        return false;
+      }
+    } while (!chunkPrefetchMemoryInBytes.compareAndSet(left, left - size));
+    return true;
+  }
+
+  public void releaseChunkPrefetchMemory(long size) {
+    chunkPrefetchMemoryInBytes.addAndGet(size);
+  }
+
+  public long getChunkPrefetchMemoryInBytes() {
+    return chunkPrefetchMemoryInBytes.get();
+  }
+
   public MemoryReservationManager getMemoryReservationContext() {
     return memoryReservationManager;
   }
@@ -469,6 +522,9 @@ public class FragmentInstanceContext extends QueryContext {
         unClosedFilePaths = new HashSet<>();
         addUsedFilesForQuery((QueryDataSource) sharedQueryDataSource);
         ((QueryDataSource) sharedQueryDataSource).setSingleDevice(selectedDeviceIdSet.size() == 1);
+        if (CONFIG.isEnableLargeScanCacheBypass()) {
+          setLargeScan(estimateLargeScan(pathList.size(), (QueryDataSource) sharedQueryDataSource));
+        }
       }
     } finally {
       setInitQueryDataSourceCost(System.nanoTime() - startTime);
@@ -567,6 +623,16 @@ public class FragmentInstanceContext extends QueryContext {
     }
   }
 
+  /**
+   * Estimate whether this instance scans so much data that it would evict the hot data of other
+   * queries from the caches, by the number of series multiplied by the number of TsFiles to read.
+   */
+  private static boolean estimateLargeScan(int seriesNum, QueryDataSource dataSource) {
+    long tsFileNum =
+        (long) dataSource.getSeqResources().size() + dataSource.getUnseqResources().size();
+    return seriesNum * tsFileNum >= CONFIG.getLargeScanThreshold();
+  }
+
   /** Add the unique file paths to closeddFilePathsMap and unClosedFilePathsMap. */
   private void addUsedFilesForQuery(QueryDataSource dataSource) {
 
@@ -654,6 +720,9 @@ public class FragmentInstanceContext extends QueryContext {
    * be decreased.
    */
   public synchronized void releaseResource() {
+    // stop reading chunks ahead before the file readers are released
+    closeChunkPrefetchers();
+
     // For schema related query FI, closedFilePaths and unClosedFilePaths will be null
     if (closedFilePaths != null) {
       for (TsFileResource tsFile : closedFilePaths) {
@@ -669,6 +738,8 @@ public class FragmentInstanceContext extends QueryContext {
       unClosedFilePaths = null;
     }
 
+    // schema related query FI doesn't read any data region
+    boolean readDataRegion = dataRegion != null;
     dataRegion = null;
     globalTimeFilter = null;
     sharedQueryDataSource = null;
@@ -677,6 +748,15 @@ public class FragmentInstanceContext extends QueryContext {
     long durationTime = System.currentTimeMillis() - executionStartTime.get();
     QueryRelatedResourceMetricSet.getInstance().updateFragmentInstanceTime(durationTime);
 
+    // print the I/O of slow fragment instances, to find out which reads make them slow
+    if (readDataRegion && durationTime >= CONFIG.getSlowQueryThreshold()) {
+      SLOW_SQL_LOGGER.info(
+          "Cost: {} ms, fragment instance {}, {}",
+          durationTime,
+          id,
+          getQueryStatistics().getIOSummary());
+    }
+
     SeriesScanCostMetricSet.getInstance()
         .recordBloomFilterMetrics(
             getQueryStatistics().getLoadBloomFilterFromCacheCount().get(),
@@ -69,6 +69,9 @@ public class QueryContext {
   // for tree model, it will be true
   private boolean ignoreAllNullRows = true;
 
+  // chunks and timeseries metadata read by a large scan are not put into the caches
+  private boolean largeScan = false;
+
   private final Set<TsFileID> nonExistentModFiles = new CopyOnWriteArraySet<>();
 
   public QueryContext() {}
@@ -214,4 +217,12 @@ public class QueryContext {
   public void setIgnoreAllNullRows(boolean ignoreAllNullRows) {
     this.ignoreAllNullRows = ignoreAllNullRows;
   }
+
+  public boolean isLargeScan() {
+    return largeScan;
+  }
+
+  public void setLargeScan(boolean largeScan) {
+    this.largeScan = largeScan;
+  }
 }
@@ -20,8 +20,13 @@
 package org.apache.iotdb.db.queryengine.execution.fragment;
 
 import org.apache.iotdb.mpp.rpc.thrift.TQueryStatistics;
+import org.apache.iotdb.mpp.rpc.thrift.TTsFileReadStatistics;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * Statistic to record the count and time of load timeseries metadata, construct chunk readers and
@@ -71,6 +76,8 @@ public class QueryStatistics {
   private final AtomicLong loadChunkFromCacheCount = new AtomicLong(0);
   private final AtomicLong loadChunkFromDiskCount = new AtomicLong(0);
   private final AtomicLong loadChunkActualIOSize = new AtomicLong(0);
+  // chunks which have been read ahead when the scan reaches them
+  private final AtomicLong loadChunkFromPrefetchCount = new AtomicLong(0);
 
   // statistics for count and time of page decode
   private final AtomicLong pageReadersDecodeAlignedDiskCount = new AtomicLong(0);
@@ -90,6 +97,15 @@ public class QueryStatistics {
   // statistics for count and time of page decode
   private final AtomicLong pageReaderMaxUsedMemorySize = new AtomicLong(0);
 
+  private final AtomicLong loadDecodedPageFromCacheCount = new AtomicLong(0);
+  private final AtomicLong loadDecodedPageFromChunkCount = new AtomicLong(0);
+
+  // number of the TsFiles taking the most time to read which are reported
+  private static final int SLOWEST_TS_FILE_READS_NUM = 5;
+
+  // statistics for count and time of reading each TsFile on cache misses
+  private final Map<String, TsFileReadStatistics> tsFileReadStatistics = new ConcurrentHashMap<>();
+
   public AtomicLong getLoadTimeSeriesMetadataDiskSeqCount() {
     return loadTimeSeriesMetadataDiskSeqCount;
   }
@@ -266,6 +282,10 @@ public class QueryStatistics {
     return loadChunkFromDiskCount;
   }
 
+  public AtomicLong getLoadChunkFromPrefetchCount() {
+    return loadChunkFromPrefetchCount;
+  }
+
   public AtomicLong getLoadTimeSeriesMetadataActualIOSize() {
     return loadTimeSeriesMetadataActualIOSize;
   }
@@ -278,54 +298,135 @@ public class QueryStatistics {
     return loadTimeSeriesMetadataFromDiskCount;
   }
 
-  public TQueryStatistics toThrift() {
-    return new TQueryStatistics(
-        loadTimeSeriesMetadataDiskSeqCount.get(),
-        loadTimeSeriesMetadataDiskUnSeqCount.get(),
-        loadTimeSeriesMetadataMemSeqCount.get(),
-        loadTimeSeriesMetadataMemUnSeqCount.get(),
-        loadTimeSeriesMetadataAlignedDiskSeqCount.get(),
-        loadTimeSeriesMetadataAlignedDiskUnSeqCount.get(),
-        loadTimeSeriesMetadataAlignedMemSeqCount.get(),
-        loadTimeSeriesMetadataAlignedMemUnSeqCount.get(),
-        loadTimeSeriesMetadataDiskSeqTime.get(),
-        loadTimeSeriesMetadataDiskUnSeqTime.get(),
-        loadTimeSeriesMetadataMemSeqTime.get(),
-        loadTimeSeriesMetadataMemUnSeqTime.get(),
-        loadTimeSeriesMetadataAlignedDiskSeqTime.get(),
-        loadTimeSeriesMetadataAlignedDiskUnSeqTime.get(),
-        loadTimeSeriesMetadataAlignedMemSeqTime.get(),
-        loadTimeSeriesMetadataAlignedMemUnSeqTime.get(),
-        constructNonAlignedChunkReadersDiskCount.get(),
-        constructNonAlignedChunkReadersMemCount.get(),
-        constructAlignedChunkReadersDiskCount.get(),
-        constructAlignedChunkReadersMemCount.get(),
-        constructNonAlignedChunkReadersDiskTime.get(),
-        constructNonAlignedChunkReadersMemTime.get(),
-        constructAlignedChunkReadersDiskTime.get(),
-        constructAlignedChunkReadersMemTime.get(),
-        pageReadersDecodeAlignedDiskCount.get(),
-        pageReadersDecodeAlignedDiskTime.get(),
-        pageReadersDecodeAlignedMemCount.get(),
-        pageReadersDecodeAlignedMemTime.get(),
-        pageReadersDecodeNonAlignedDiskCount.get(),
-        pageReadersDecodeNonAlignedDiskTime.get(),
-        pageReadersDecodeNonAlignedMemCount.get(),
-        pageReadersDecodeNonAlignedMemTime.get(),
-        pageReaderMaxUsedMemorySize.get(),
-        alignedTimeSeriesMetadataModificationCount.get(),
-        alignedTimeSeriesMetadataModificationTime.get(),
-        nonAlignedTimeSeriesMetadataModificationCount.get(),
-        nonAlignedTimeSeriesMetadataModificationTime.get(),
+  public AtomicLong getLoadDecodedPageFromCacheCount() {
+    return loadDecodedPageFromCacheCount;
+  }
+
+  public AtomicLong getLoadDecodedPageFromChunkCount() {
+    return loadDecodedPageFromChunkCount;
+  }
+
+  public void recordTsFileRead(String filePath, long time) {
+    TsFileReadStatistics statistics =
+        tsFileReadStatistics.computeIfAbsent(filePath, k -> new TsFileReadStatistics());
+    statistics.readCount.incrementAndGet();
+    statistics.readTime.addAndGet(time);
+  }
+
+  /** Get the TsFiles taking the most time to read, in descending order of the read time. */
+  public List<TTsFileReadStatistics> getSlowestTsFileReads() {
+    return tsFileReadStatistics.entrySet().stream()
+        .map(
+            entry ->
+                new TTsFileReadStatistics(
+                    entry.getKey(),
+                    entry.getValue().readCount.get(),
+                    entry.getValue().readTime.get()))
+        .sorted((o1, o2) -> Long.compare(o2.getReadTime(), o1.getReadTime()))
+        .limit(SLOWEST_TS_FILE_READS_NUM)
+        .collect(Collectors.toList());
+  }
+
+  /** Summary of the I/O of the query, which is printed in the slow query log. */
+  public String getIOSummary() {
+    StringBuilder slowestTsFileReads = new StringBuilder();
+    for (TTsFileReadStatistics statistics : getSlowestTsFileReads()) {
+      slowestTsFileReads.append(
+          String.format(
+              "%n  %s: %d reads, %.3f ms",
+              statistics.getFilePath(),
+              statistics.getReadCount(),
+              statistics.getReadTime() / 1_000_000.0));
+    }
+    return String.format(
+        "BloomFilter: %d from cache, %d from disk, %d bytes read; "
+            + "TimeSeriesMetadata: %d from cache, %d from disk, %d bytes read; "
+            + "Chunk: %d from cache, %d from disk, %d bytes read; "
+            + "DecodedPage: %d from cache, %d from chunk; "
+            + "PageDecode: %d pages, %.3f ms; "
+            + "slowest TsFile reads:%s",
         loadBloomFilterFromCacheCount.get(),
         loadBloomFilterFromDiskCount.get(),
         loadBloomFilterActualIOSize.get(),
-        loadBloomFilterTime.get(),
         loadTimeSeriesMetadataFromCacheCount.get(),
         loadTimeSeriesMetadataFromDiskCount.get(),
         loadTimeSeriesMetadataActualIOSize.get(),
         loadChunkFromCacheCount.get(),
         loadChunkFromDiskCount.get(),
-        loadChunkActualIOSize.get());
+        loadChunkActualIOSize.get(),
+        loadDecodedPageFromCacheCount.get(),
+        loadDecodedPageFromChunkCount.get(),
+        pageReadersDecodeAlignedDiskCount.get()
+            + pageReadersDecodeAlignedMemCount.get()
+            + pageReadersDecodeNonAlignedDiskCount.get()
+            + pageReadersDecodeNonAlignedMemCount.get(),
+        (pageReadersDecodeAlignedDiskTime.get()
+                + pageReadersDecodeAlignedMemTime.get()
+                + pageReadersDecodeNonAlignedDiskTime.get()
+                + pageReadersDecodeNonAlignedMemTime.get())
+            / 1_000_000.0,
+        slowestTsFileReads.length() == 0 ? " none" : slowestTsFileReads);
+  }
+
+  public TQueryStatistics toThrift() {
+    TQueryStatistics queryStatistics =
+        new TQueryStatistics(
+            loadTimeSeriesMetadataDiskSeqCount.get(),
+            loadTimeSeriesMetadataDiskUnSeqCount.get(),
+            loadTimeSeriesMetadataMemSeqCount.get(),
+            loadTimeSeriesMetadataMemUnSeqCount.get(),
+            loadTimeSeriesMetadataAlignedDiskSeqCount.get(),
+            loadTimeSeriesMetadataAlignedDiskUnSeqCount.get(),
+            loadTimeSeriesMetadataAlignedMemSeqCount.get(),
+            loadTimeSeriesMetadataAlignedMemUnSeqCount.get(),
+            loadTimeSeriesMetadataDiskSeqTime.get(),
+            loadTimeSeriesMetadataDiskUnSeqTime.get(),
+            loadTimeSeriesMetadataMemSeqTime.get(),
+            loadTimeSeriesMetadataMemUnSeqTime.get(),
+            loadTimeSeriesMetadataAlignedDiskSeqTime.get(),
+            loadTimeSeriesMetadataAlignedDiskUnSeqTime.get(),
+            loadTimeSeriesMetadataAlignedMemSeqTime.get(),
+            loadTimeSeriesMetadataAlignedMemUnSeqTime.get(),
+            constructNonAlignedChunkReadersDiskCount.get(),
+            constructNonAlignedChunkReadersMemCount.get(),
+            constructAlignedChunkReadersDiskCount.get(),
+            constructAlignedChunkReadersMemCount.get(),
+            constructNonAlignedChunkReadersDiskTime.get(),
+            constructNonAlignedChunkReadersMemTime.get(),
+            constructAlignedChunkReadersDiskTime.get(),
+            constructAlignedChunkReadersMemTime.get(),
+            pageReadersDecodeAlignedDiskCount.get(),
+            pageReadersDecodeAlignedDiskTime.get(),
+            pageReadersDecodeAlignedMemCount.get(),
+            pageReadersDecodeAlignedMemTime.get(),
+            pageReadersDecodeNonAlignedDiskCount.get(),
+            pageReadersDecodeNonAlignedDiskTime.get(),
+            pageReadersDecodeNonAlignedMemCount.get(),
+            pageReadersDecodeNonAlignedMemTime.get(),
+            pageReaderMaxUsedMemorySize.get(),
+            alignedTimeSeriesMetadataModificationCount.get(),
+            alignedTimeSeriesMetadataModificationTime.get(),
+            nonAlignedTimeSeriesMetadataModificationCount.get(),
+            nonAlignedTimeSeriesMetadataModificationTime.get(),
+            loadBloomFilterFromCacheCount.get(),
+            loadBloomFilterFromDiskCount.get(),
+            loadBloomFilterActualIOSize.get(),
+            loadBloomFilterTime.get(),
+            loadTimeSeriesMetadataFromCacheCount.get(),
+            loadTimeSeriesMetadataFromDiskCount.get(),
+            loadTimeSeriesMetadataActualIOSize.get(),
+            loadChunkFromCacheCount.get(),
+            loadChunkFromDiskCount.get(),
+            loadChunkActualIOSize.get());
+    queryStatistics.setLoadDecodedPageFromCacheCount(loadDecodedPageFromCacheCount.get());
+    queryStatistics.setLoadDecodedPageFromChunkCount(loadDecodedPageFromChunkCount.get());
+    queryStatistics.setSlowestTsFileReads(getSlowestTsFileReads());
+    return queryStatistics;
+  }
+
+  private static class TsFileReadStatistics {
+
+    private final AtomicLong readCount = new AtomicLong(0);
+    private final AtomicLong readTime = new AtomicLong(0);
   }
 }
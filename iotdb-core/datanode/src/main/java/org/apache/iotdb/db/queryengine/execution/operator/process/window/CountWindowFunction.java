@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+
+/** count(x) counts the non-null values of x in the frame, count(*) counts all the rows. */
+public class CountWindowFunction extends FramedWindowFunction {
+
+  // -1 for count(*)
+  private final int channel;
+
+  private long count = 0;
+
+  public CountWindowFunction(WindowNode.Frame frame, int channel) {
+    super(frame);
+    this.channel = channel;
+  }
+
+  @Override
+  protected void add(WindowPartition partition, long row) {
+    if (isCounted(partition, row)) {
+      count++;
+    }
+  }
+
+  @Override
+  protected void remove(WindowPartition partition, long row) {
+    if (isCounted(partition, row)) {
+      count--;
+    }
+  }
+
+  private boolean isCounted(WindowPartition partition, long row) {
+    return channel < 0 || !partition.getColumn(row, channel).isNull(partition.getPosition(row));
+  }
+
+  @Override
+  protected void resetState() {
+    count = 0;
+  }
+
+  @Override
+  protected void writeResult(
+      WindowPartition partition, long start, long end, ColumnBuilder builder) {
+    builder.writeLong(count);
+  }
+}
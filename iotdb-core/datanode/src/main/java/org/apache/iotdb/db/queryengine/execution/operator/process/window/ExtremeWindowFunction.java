@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+
+import java.util.Arrays;
+
+/**
+ * min and max over the frame. A monotonic deque of the non-null rows in the frame is kept, each row
+ * is more extreme than all the rows behind it, so the head is the extreme of the frame. A row
+ * entering the frame drops the less extreme rows at the tail, which can never become the extreme
+ * again, and a row leaving the frame can only be the head. Each row is added and dropped at most
+ * once, so the cost per row is amortized O(1) whatever the order of the input.
+ */
+public class ExtremeWindowFunction extends FramedWindowFunction {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int channel;
+  private final TSDataType inputType;
+  private final boolean max;
+  // rows never leave a frame starting from the partition start, so only the head is needed
+  private final boolean headOnly;
+
+  // the rows in the deque [head, tail), with the columns and positions of their values, which stay
+  // readable after the rows are evicted from the partition
+  private long[] rows = new long[INITIAL_CAPACITY];
+  private Column[] columns = new Column[INITIAL_CAPACITY];
+  private int[] positions = new int[INITIAL_CAPACITY];
+  private int head = 0;
+  private int tail = 0;
+
+  public ExtremeWindowFunction(
+      WindowNode.Frame frame, int channel, TSDataType inputType, boolean max) {
+    super(frame);
+    this.channel = channel;
+    this.inputType = inputType;
+    this.max = max;
+    this.headOnly = frame.getStartType() == FrameBound.Type.UNBOUNDED_PRECEDING;
+  }
+
+  @Override
+  protected void add(WindowPartition partition, long row) {
+    Column column = partition.getColumn(row, channel);
+    int position = partition.getPosition(row);
+    if (column.isNull(position)) {
+      return;
+    }
+    while (tail > head) {
+      int result = compare(column, position, columns[tail - 1], positions[tail - 1]);
+      if (max ? result < 0 : result > 0) {
+        break;
+      }
+      // not more extreme than the new row, which also leaves the frame later
+      columns[--tail] = null;
+    }
+    if (headOnly && tail > head) {
+      return;
+    }
+    if (tail == rows.length) {
+      grow();
+    }
+    rows[tail] = row;
+    columns[tail] = column;
+    positions[tail] = position;
+    tail++;
+  }
+
+  @Override
+  protected void remove(WindowPartition partition, long row) {
+    if (tail > head && rows[head] == row) {
+      columns[head++] = null;
+    }
+  }
+
+  private void grow() {
+    int size = tail - head;
+    if (head > 0) {
+      System.arraycopy(rows, head, rows, 0, size);
+      System.arraycopy(columns, head, columns, 0, size);
+      System.arraycopy(positions, head, positions, 0, size);
+      Arrays.fill(columns, size, tail, null);
+      head = 0;
+      tail = size;
+    }
+    if (tail == rows.length) {
+      rows = Arrays.copyOf(rows, rows.length * 2);
+      columns = Arrays.copyOf(columns, columns.length * 2);
+      positions = Arrays.copyOf(positions, positions.length * 2);
+    }
+  }
+
+  private int compare(Column left, int leftPosition, Column right, int rightPosition) {
+    switch (inputType) {
+      case INT32:
+      case DATE:
+        return Integer.compare(left.getInt(leftPosition), right.getInt(rightPosition));
+      case INT64:
+      case TIMESTAMP:
+        return Long.compare(left.getLong(leftPosition), right.getLong(rightPosition));
+      case FLOAT:
+        return Float.compare(left.getFloat(leftPosition), right.getFloat(rightPosition));
+      case DOUBLE:
+        return Double.compare(left.getDouble(leftPosition), right.getDouble(rightPosition));
+      case BOOLEAN:
+        return Boolean.compare(left.getBoolean(leftPosition), right.getBoolean(rightPosition));
+      case TEXT:
+      case STRING:
+      case BLOB:
+        return left.getBinary(leftPosition).compareTo(right.getBinary(rightPosition));
+      default:
+        throw new UnsupportedOperationException(
+            String.format("Unsupported data type in %s: %s", max ? "max" : "min", inputType));
+    }
+  }
+
+  @Override
+  protected void resetState() {
+    Arrays.fill(columns, head, tail, null);
+    head = 0;
+    tail = 0;
+  }
+
+  @Override
+  protected void writeResult(
+      WindowPartition partition, long start, long end, ColumnBuilder builder) {
+    if (tail == head) {
+      builder.appendNull();
+    } else {
+      builder.write(columns[head], positions[head]);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+
+/** first_value and last_value, they return null if the frame is empty. */
+public class FrameValueWindowFunction extends FramedWindowFunction {
+
+  private final int channel;
+  private final boolean last;
+
+  // the first or the last row of the frame, null if it has not been read yet
+  private Column valueColumn;
+  private int valuePosition;
+
+  public FrameValueWindowFunction(WindowNode.Frame frame, int channel, boolean last) {
+    super(frame);
+    this.channel = channel;
+    this.last = last;
+  }
+
+  @Override
+  protected void add(WindowPartition partition, long row) {
+    if (last || valueColumn == null) {
+      valueColumn = partition.getColumn(row, channel);
+      valuePosition = partition.getPosition(row);
+    }
+  }
+
+  @Override
+  protected void remove(WindowPartition partition, long row) {
+    if (!last) {
+      // the new first row is read in writeResult
+      valueColumn = null;
+    }
+  }
+
+  @Override
+  protected void resetState() {
+    valueColumn = null;
+  }
+
+  @Override
+  protected void writeResult(
+      WindowPartition partition, long start, long end, ColumnBuilder builder) {
+    if (end < start) {
+      builder.appendNull();
+      return;
+    }
+    if (valueColumn == null) {
+      add(partition, start);
+    }
+    if (valueColumn.isNull(valuePosition)) {
+      builder.appendNull();
+    } else {
+      builder.write(valueColumn, valuePosition);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowFrame;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+
+/**
+ * A window function computed over the frame of each row. As both bounds of a frame never move
+ * backwards, the state is maintained incrementally: rows entering the frame are added and rows
+ * leaving it are removed, instead of scanning the whole frame for every row.
+ */
+public abstract class FramedWindowFunction implements WindowFunction {
+
+  private final WindowNode.Frame frame;
+  private final boolean rowsFrame;
+
+  // rows [frameStart, frameEnd] have been added to the state, empty if frameEnd < frameStart
+  private long frameStart = 0;
+  private long frameEnd = -1;
+
+  protected FramedWindowFunction(WindowNode.Frame frame) {
+    this.frame = frame;
+    this.rowsFrame = frame.getType() == WindowFrame.Type.ROWS;
+  }
+
+  @Override
+  public long getLookahead() {
+    switch (frame.getEndType()) {
+      case UNBOUNDED_FOLLOWING:
+        return Long.MAX_VALUE;
+      case FOLLOWING:
+        return frame.getEndOffset();
+      default:
+        return 0;
+    }
+  }
+
+  @Override
+  public boolean needsPeerGroupEnd() {
+    return !rowsFrame && frame.getEndType() == FrameBound.Type.CURRENT_ROW;
+  }
+
+  @Override
+  public long getLowestNeededRow(long row) {
+    // rows are never removed from a frame starting from the partition start
+    return frame.getStartType() == FrameBound.Type.UNBOUNDED_PRECEDING
+        ? frameEnd + 1
+        : Math.min(frameStart, frameEnd + 1);
+  }
+
+  @Override
+  public void evaluate(WindowPartition partition, long row, ColumnBuilder builder) {
+    long start = getFrameStart(partition, row);
+    long end = getFrameEnd(partition, row);
+    if (end < start || start > frameEnd) {
+      // the new frame does not overlap with the previous one
+      if (frameEnd >= frameStart) {
+        resetState();
+      }
+      for (long i = start; i <= end; i++) {
+        add(partition, i);
+      }
+    } else {
+      for (long i = frameStart; i < start; i++) {
+        remove(partition, i);
+      }
+      for (long i = frameEnd + 1; i <= end; i++) {
+        add(partition, i);
+      }
+    }
+    frameStart = start;
+    frameEnd = Math.max(end, start - 1);
+    writeResult(partition, start, frameEnd, builder);
+  }
+
+  private long getFrameStart(WindowPartition partition, long row) {
+    long offset = frame.getStartOffset();
+    switch (frame.getStartType()) {
+      case UNBOUNDED_PRECEDING:
+        return 0;
+      case PRECEDING:
+        return Math.max(0, row - offset);
+      case CURRENT_ROW:
+        return rowsFrame ? row : partition.getPeerGroupStart();
+      case FOLLOWING:
+        return offset >= partition.getRowCount() - row ? partition.getRowCount() : row + offset;
+      default:
+        throw new IllegalArgumentException("Illegal window frame start: " + frame.getStartType());
+    }
+  }
+
+  private long getFrameEnd(WindowPartition partition, long row) {
+    long lastRow = partition.getRowCount() - 1;
+    long offset = frame.getEndOffset();
+    switch (frame.getEndType()) {
+      case PRECEDING:
+        return row - offset;
+      case CURRENT_ROW:
+        return rowsFrame ? row : partition.getPeerGroupEnd();
+      case FOLLOWING:
+        return offset >= lastRow - row ? lastRow : row + offset;
+      case UNBOUNDED_FOLLOWING:
+        return lastRow;
+      default:
+        throw new IllegalArgumentException("Illegal window frame end: " + frame.getEndType());
+    }
+  }
+
+  @Override
+  public void reset() {
+    frameStart = 0;
+    frameEnd = -1;
+    resetState();
+  }
+
+  /** Adds a row entering the frame. */
+  protected abstract void add(WindowPartition partition, long row);
+
+  /** Removes a row leaving the frame, rows are removed in the order they were added. */
+  protected abstract void remove(WindowPartition partition, long row);
+
+  protected abstract void resetState();
+
+  /** Writes the result for the frame [start, end], which is empty if end < start. */
+  protected abstract void writeResult(
+      WindowPartition partition, long start, long end, ColumnBuilder builder);
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+
+/** lag and lead, they return null if the row at the offset is outside the partition. */
+public class OffsetWindowFunction implements WindowFunction {
+
+  private final int channel;
+  private final long offset;
+  private final boolean lead;
+
+  public OffsetWindowFunction(int channel, long offset, boolean lead) {
+    this.channel = channel;
+    this.offset = offset;
+    this.lead = lead;
+  }
+
+  @Override
+  public long getLookahead() {
+    return lead ? offset : 0;
+  }
+
+  @Override
+  public long getLowestNeededRow(long row) {
+    return lead ? row : row - offset;
+  }
+
+  @Override
+  public void evaluate(WindowPartition partition, long row, ColumnBuilder builder) {
+    long target = lead ? row + offset : row - offset;
+    if (target < 0 || target >= partition.getRowCount()) {
+      builder.appendNull();
+      return;
+    }
+    Column column = partition.getColumn(target, channel);
+    int position = partition.getPosition(target);
+    if (column.isNull(position)) {
+      builder.appendNull();
+    } else {
+      builder.write(column, position);
+    }
+  }
+
+  @Override
+  public void reset() {
+    // no state
+  }
+}
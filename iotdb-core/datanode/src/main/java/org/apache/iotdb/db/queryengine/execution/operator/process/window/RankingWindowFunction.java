@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+
+/** row_number, rank and dense_rank. */
+public class RankingWindowFunction implements WindowFunction {
+
+  public enum Type {
+    ROW_NUMBER,
+    RANK,
+    DENSE_RANK
+  }
+
+  private final Type type;
+
+  public RankingWindowFunction(Type type) {
+    this.type = type;
+  }
+
+  @Override
+  public long getLookahead() {
+    return 0;
+  }
+
+  @Override
+  public long getLowestNeededRow(long row) {
+    return row;
+  }
+
+  @Override
+  public void evaluate(WindowPartition partition, long row, ColumnBuilder builder) {
+    switch (type) {
+      case ROW_NUMBER:
+        builder.writeLong(row + 1);
+        break;
+      case RANK:
+        builder.writeLong(partition.getPeerGroupStart() + 1);
+        break;
+      case DENSE_RANK:
+        builder.writeLong(partition.getPeerGroupCount());
+        break;
+      default:
+        throw new UnsupportedOperationException("Unknown ranking function: " + type);
+    }
+  }
+
+  @Override
+  public void reset() {
+    // no state
+  }
+}
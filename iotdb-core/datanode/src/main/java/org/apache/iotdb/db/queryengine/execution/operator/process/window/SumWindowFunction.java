@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+
+/** sum and avg over the numeric values in the frame, null if there is no non-null value. */
+public class SumWindowFunction extends FramedWindowFunction {
+
+  private final int channel;
+  private final TSDataType inputType;
+  private final boolean average;
+
+  private double sum = 0;
+  private long count = 0;
+
+  public SumWindowFunction(
+      WindowNode.Frame frame, int channel, TSDataType inputType, boolean average) {
+    super(frame);
+    this.channel = channel;
+    this.inputType = inputType;
+    this.average = average;
+  }
+
+  @Override
+  protected void add(WindowPartition partition, long row) {
+    Column column = partition.getColumn(row, channel);
+    int position = partition.getPosition(row);
+    if (!column.isNull(position)) {
+      sum += getValue(column, position);
+      count++;
+    }
+  }
+
+  @Override
+  protected void remove(WindowPartition partition, long row) {
+    Column column = partition.getColumn(row, channel);
+    int position = partition.getPosition(row);
+    if (!column.isNull(position)) {
+      sum -= getValue(column, position);
+      count--;
+    }
+  }
+
+  private double getValue(Column column, int position) {
+    switch (inputType) {
+      case INT32:
+        return column.getInt(position);
+      case INT64:
+        return column.getLong(position);
+      case FLOAT:
+        return column.getFloat(position);
+      case DOUBLE:
+        return column.getDouble(position);
+      default:
+        throw new UnsupportedOperationException(
+            String.format("Unsupported data type in %s: %s", average ? "avg" : "sum", inputType));
+    }
+  }
+
+  @Override
+  protected void resetState() {
+    sum = 0;
+    count = 0;
+  }
+
+  @Override
+  protected void writeResult(
+      WindowPartition partition, long start, long end, ColumnBuilder builder) {
+    if (count == 0) {
+      builder.appendNull();
+    } else {
+      builder.writeDouble(average ? sum / count : sum);
+    }
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.iotdb.db.queryengine.execution.MemoryEstimationHelper;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.execution.operator.process.ProcessOperator;
+import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationManager;
+import org.apache.iotdb.db.utils.datastructure.SortKey;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.common.conf.TSFileDescriptor;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.utils.RamUsageEstimator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanGraphPrinter.MAX_RESERVED_MEMORY;
+
+/**
+ * Evaluates window functions over an input sorted by the partition keys and then by the window
+ * ORDER BY keys. The output contains all the input columns followed by one column for each window
+ * function.
+ *
+ * <p>Rows are streamed: only the current partition is buffered, and a row is output as soon as all
+ * the rows its functions read are available, so partitions never have to be fully materialized
+ * unless a frame reaches the end of the partition. Buffered rows that no function reads any more
+ * are released. The input TsBlocks buffered by the partition are reserved with the memory manager of
+ * the query, so a partition which does not fit in the memory of the query fails the query.
+ */
+public class TableWindowOperator implements ProcessOperator {
+
+  private static final long INSTANCE_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(TableWindowOperator.class);
+
+  private final OperatorContext operatorContext;
+  private final Operator child;
+  private final int inputColumnCount;
+  private final WindowFunction[] windowFunctions;
+
+  // null if there is no PARTITION BY
+  private final Comparator<SortKey> partitionComparator;
+  // null if there is no ORDER BY, then all rows of a partition are peers
+  private final Comparator<SortKey> peerComparator;
+
+  private final long maxLookahead;
+  private final boolean needsPeerGroupEnd;
+
+  private final TsBlockBuilder resultBuilder;
+  private final long maxReturnSize =
+      TSFileDescriptor.getInstance().getConfig().getMaxTsBlockSizeInBytes();
+
+  private final WindowPartition partition = new WindowPartition();
+  private final MemoryReservationManager memoryReservationManager;
+  // bytes of the buffered partition which have been reserved
+  private long reservedMemory = 0;
+  private long maxReservedMemory = 0;
+  // next row of the partition to output
+  private long nextRow = 0;
+
+  // remaining part of the input TsBlock which has not been appended to the partition
+  private TsBlock inputBlock;
+  private int inputPosition;
+  private boolean noMoreInput = false;
+
+  private final SortKey lastRow = new SortKey(null, 0);
+  private final SortKey currentRow = new SortKey(null, 0);
+  private boolean hasLastRow = false;
+
+  public TableWindowOperator(
+      OperatorContext operatorContext,
+      Operator child,
+      List<TSDataType> inputDataTypes,
+      List<TSDataType> outputDataTypes,
+      WindowFunction[] windowFunctions,
+      Comparator<SortKey> partitionComparator,
+      Comparator<SortKey> peerComparator) {
+    this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+    this.child = requireNonNull(child, "child operator is null");
+    this.inputColumnCount = inputDataTypes.size();
+    this.windowFunctions = windowFunctions;
+    this.partitionComparator = partitionComparator;
+    this.peerComparator = peerComparator;
+    long lookahead = 0;
+    boolean peerGroupEnd = false;
+    for (WindowFunction function : windowFunctions) {
+      lookahead = Math.max(lookahead, function.getLookahead());
+      peerGroupEnd |= function.needsPeerGroupEnd();
+    }
+    this.maxLookahead = lookahead;
+    this.needsPeerGroupEnd = peerGroupEnd;
+    this.resultBuilder = new TsBlockBuilder(outputDataTypes);
+    this.memoryReservationManager =
+        operatorContext
+            .getDriverContext()
+            .getFragmentInstanceContext()
+            .getMemoryReservationContext();
+  }
+
+  @Override
+  public TsBlock next() throws Exception {
+    long startTime = System.nanoTime();
+    long maxRuntime = operatorContext.getMaxRunTime().roundTo(TimeUnit.NANOSECONDS);
+
+    while (System.nanoTime() - startTime < maxRuntime) {
+      outputReadyRows();
+      if (resultBuilder.isFull()) {
+        break;
+      }
+      // all the rows of a finished partition have been output here
+      if (partition.isFinished()) {
+        if (noMoreInput) {
+          break;
+        }
+        startNewPartition();
+      }
+      if (inputBlock == null) {
+        if (!child.hasNextWithTimer()) {
+          noMoreInput = true;
+          partition.finish();
+          continue;
+        }
+        TsBlock block = child.nextWithTimer();
+        if (block == null) {
+          break;
+        }
+        if (block.isEmpty()) {
+          continue;
+        }
+        inputBlock = block;
+        inputPosition = 0;
+      }
+      appendInput();
+    }
+
+    if (resultBuilder.isEmpty()) {
+      return null;
+    }
+    TsBlock result =
+        resultBuilder.build(
+            new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, resultBuilder.getPositionCount()));
+    resultBuilder.reset();
+    return result;
+  }
+
+  /** Appends rows of the input block until the end of the current partition. */
+  private void appendInput() {
+    int positionCount = inputBlock.getPositionCount();
+    // partition row index of the first position of the input block
+    long baseRow = partition.getRowCount() - inputPosition;
+    int position = inputPosition;
+    currentRow.tsBlock = inputBlock;
+    for (; position < positionCount; position++) {
+      currentRow.rowIndex = position;
+      if (!hasLastRow) {
+        partition.startPeerGroup(baseRow + position);
+        hasLastRow = true;
+      } else if (partitionComparator != null
+          && partitionComparator.compare(lastRow, currentRow) != 0) {
+        break;
+      } else if (peerComparator != null && peerComparator.compare(lastRow, currentRow) != 0) {
+        partition.startPeerGroup(baseRow + position);
+      }
+      lastRow.tsBlock = inputBlock;
+      lastRow.rowIndex = position;
+    }
+
+    partition.append(inputBlock, inputPosition, position - inputPosition);
+    updateReservedMemory();
+    if (position < positionCount) {
+      partition.finish();
+      inputPosition = position;
+    } else {
+      inputBlock = null;
+    }
+  }
+
+  private void startNewPartition() {
+    partition.reset();
+    updateReservedMemory();
+    nextRow = 0;
+    hasLastRow = false;
+    for (WindowFunction function : windowFunctions) {
+      function.reset();
+    }
+  }
+
+  private void outputReadyRows() {
+    while (nextRow < partition.getRowCount() && !resultBuilder.isFull()) {
+      partition.advanceTo(nextRow);
+      if (!isReady(nextRow)) {
+        break;
+      }
+      int position = partition.getPosition(nextRow);
+      for (int i = 0; i < inputColumnCount; i++) {
+        Column column = partition.getColumn(nextRow, i);
+        ColumnBuilder builder = resultBuilder.getColumnBuilder(i);
+        if (column.isNull(position)) {
+          builder.appendNull();
+        } else {
+          builder.write(column, position);
+        }
+      }
+      for (int i = 0; i < windowFunctions.length; i++) {
+        windowFunctions[i].evaluate(
+            partition, nextRow, resultBuilder.getColumnBuilder(inputColumnCount + i));
+      }
+      resultBuilder.declarePosition();
+      nextRow++;
+    }
+
+    long lowestNeededRow = nextRow;
+    for (WindowFunction function : windowFunctions) {
+      lowestNeededRow = Math.min(lowestNeededRow, function.getLowestNeededRow(nextRow));
+    }
+    partition.evictBefore(lowestNeededRow);
+    updateReservedMemory();
+  }
+
+  /** Reserves or releases memory so that the reserved memory equals the size of the partition. */
+  private void updateReservedMemory() {
+    long delta = partition.getRetainedSizeInBytes() - reservedMemory;
+    if (delta > 0) {
+      memoryReservationManager.reserveMemoryCumulatively(delta);
+    } else if (delta < 0) {
+      memoryReservationManager.releaseMemoryCumulatively(-delta);
+    }
+    reservedMemory += delta;
+    if (reservedMemory > maxReservedMemory) {
+      maxReservedMemory = reservedMemory;
+      operatorContext.recordSpecifiedInfo(MAX_RESERVED_MEMORY, Long.toString(maxReservedMemory));
+    }
+  }
+
+  private boolean isReady(long row) {
+    if (partition.isFinished()) {
+      return true;
+    }
+    return partition.getRowCount() - 1 - row >= maxLookahead
+        && (!needsPeerGroupEnd || partition.isPeerGroupEndKnown());
+  }
+
+  @Override
+  public boolean hasNext() throws Exception {
+    return !isFinished();
+  }
+
+  @Override
+  public boolean isFinished() throws Exception {
+    return noMoreInput && partition.isFinished() && nextRow >= partition.getRowCount();
+  }
+
+  @Override
+  public ListenableFuture<?> isBlocked() {
+    return child.isBlocked();
+  }
+
+  @Override
+  public OperatorContext getOperatorContext() {
+    return operatorContext;
+  }
+
+  @Override
+  public void close() throws Exception {
+    child.close();
+    partition.reset();
+    updateReservedMemory();
+    inputBlock = null;
+    lastRow.tsBlock = null;
+    currentRow.tsBlock = null;
+  }
+
+  @Override
+  public long calculateMaxPeekMemory() {
+    return child.calculateMaxPeekMemoryWithCounter()
+        + calculateRetainedSizeAfterCallingNext()
+        + maxReturnSize;
+  }
+
+  @Override
+  public long calculateMaxReturnSize() {
+    return maxReturnSize;
+  }
+
+  @Override
+  public long calculateRetainedSizeAfterCallingNext() {
+    // the buffered partition is reserved as it grows, so only the partition buffered so far is
+    // counted besides the input TsBlock being appended
+    return child.calculateRetainedSizeAfterCallingNext()
+        + child.calculateMaxReturnSize()
+        + partition.getRetainedSizeInBytes();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return INSTANCE_SIZE
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(child)
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(operatorContext)
+        + resultBuilder.getRetainedSizeInBytes();
+  }
+}
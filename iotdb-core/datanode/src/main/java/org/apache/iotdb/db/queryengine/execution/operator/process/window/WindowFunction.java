@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+
+/** A window function evaluated by {@link TableWindowOperator} row by row in partition order. */
+public interface WindowFunction {
+
+  /** Number of rows after the current row that must be available before it can be evaluated. */
+  long getLookahead();
+
+  /** Whether the last row of the peer group of the current row must be available. */
+  default boolean needsPeerGroupEnd() {
+    return false;
+  }
+
+  /** The smallest partition row that is still read when evaluating the given and later rows. */
+  long getLowestNeededRow(long row);
+
+  /** Evaluates the function for the given row of the partition. */
+  void evaluate(WindowPartition partition, long row, ColumnBuilder builder);
+
+  /** Called when a new partition starts. */
+  void reset();
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.read.common.block.TsBlock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rows of the partition that {@link TableWindowOperator} is currently evaluating. Rows are
+ * addressed by their index inside the partition and are kept as references to the input TsBlocks,
+ * rows that no window function needs any more are evicted from the head. It also keeps the start
+ * rows of the peer groups (rows that are equal on the window ORDER BY keys) which are still needed.
+ */
+public class WindowPartition {
+
+  private static final int COMPACT_THRESHOLD = 64;
+
+  private final List<Segment> segments = new ArrayList<>();
+  // index of the first segment that is not evicted
+  private int firstSegment = 0;
+  // segment found by the last lookup, rows are mostly accessed in sequence
+  private int lastSegment = 0;
+
+  private long rowCount = 0;
+  private boolean finished = false;
+  private long retainedSizeInBytes = 0;
+
+  // start rows of peer groups, the head is the peer group of the current row
+  private long[] peerGroupStarts = new long[16];
+  private int peerGroupHead = 0;
+  private int peerGroupTail = 0;
+  // 1-based index of the peer group of the current row
+  private long peerGroupCount = 0;
+
+  public void append(TsBlock tsBlock, int offset, int count) {
+    if (count <= 0) {
+      return;
+    }
+    segments.add(new Segment(tsBlock, offset, count, rowCount));
+    rowCount += count;
+    retainedSizeInBytes += tsBlock.getRetainedSizeInBytes();
+  }
+
+  /** Marks the row as the first row of a new peer group, rows should be marked in order. */
+  public void startPeerGroup(long row) {
+    if (peerGroupTail == peerGroupStarts.length) {
+      if (peerGroupHead > 0) {
+        System.arraycopy(
+            peerGroupStarts, peerGroupHead, peerGroupStarts, 0, peerGroupTail - peerGroupHead);
+        peerGroupTail -= peerGroupHead;
+        peerGroupHead = 0;
+      }
+      if (peerGroupTail == peerGroupStarts.length) {
+        peerGroupStarts = Arrays.copyOf(peerGroupStarts, peerGroupStarts.length * 2);
+      }
+    }
+    peerGroupStarts[peerGroupTail++] = row;
+    if (peerGroupCount == 0) {
+      peerGroupCount = 1;
+    }
+  }
+
+  /** Moves the current row forward, rows before it will not be asked for their peer group. */
+  public void advanceTo(long row) {
+    while (peerGroupTail - peerGroupHead > 1 && peerGroupStarts[peerGroupHead + 1] <= row) {
+      peerGroupHead++;
+      peerGroupCount++;
+    }
+  }
+
+  /** All the rows of this partition have been appended. */
+  public void finish() {
+    finished = true;
+  }
+
+  public boolean isFinished() {
+    return finished;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public long getPeerGroupStart() {
+    return peerGroupStarts[peerGroupHead];
+  }
+
+  /** Whether the last row of the peer group of the current row has been appended. */
+  public boolean isPeerGroupEndKnown() {
+    return finished || peerGroupTail - peerGroupHead > 1;
+  }
+
+  public long getPeerGroupEnd() {
+    return peerGroupTail - peerGroupHead > 1
+        ? peerGroupStarts[peerGroupHead + 1] - 1
+        : rowCount - 1;
+  }
+
+  public long getPeerGroupCount() {
+    return peerGroupCount;
+  }
+
+  public Column getColumn(long row, int channel) {
+    return locate(row).tsBlock.getColumn(channel);
+  }
+
+  public int getPosition(long row) {
+    Segment segment = locate(row);
+    return segment.offset + (int) (row - segment.firstRow);
+  }
+
+  /** Releases the input TsBlocks which only contain rows before the given row. */
+  public void evictBefore(long row) {
+    while (firstSegment < segments.size()) {
+      Segment segment = segments.get(firstSegment);
+      if (segment.firstRow + segment.count > row) {
+        break;
+      }
+      retainedSizeInBytes -= segment.tsBlock.getRetainedSizeInBytes();
+      segments.set(firstSegment, null);
+      firstSegment++;
+    }
+    if (firstSegment >= COMPACT_THRESHOLD && firstSegment * 2 >= segments.size()) {
+      segments.subList(0, firstSegment).clear();
+      lastSegment = Math.max(0, lastSegment - firstSegment);
+      firstSegment = 0;
+    }
+  }
+
+  public long getRetainedSizeInBytes() {
+    return retainedSizeInBytes;
+  }
+
+  public void reset() {
+    segments.clear();
+    firstSegment = 0;
+    lastSegment = 0;
+    rowCount = 0;
+    finished = false;
+    retainedSizeInBytes = 0;
+    peerGroupHead = 0;
+    peerGroupTail = 0;
+    peerGroupCount = 0;
+  }
+
+  private Segment locate(long row) {
+    if (lastSegment >= firstSegment && lastSegment < segments.size()) {
+      Segment segment = segments.get(lastSegment);
+      if (segment.contains(row)) {
+        return segment;
+      }
+    }
+    int low = firstSegment;
+    int high = segments.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      Segment segment = segments.get(mid);
+      if (row < segment.firstRow) {
+        high = mid - 1;
+      } else if (row >= segment.firstRow + segment.count) {
+        low = mid + 1;
+      } else {
+        lastSegment = mid;
+        return segment;
+      }
+    }
+    throw new IllegalStateException(
+        String.format("Row %d of the window partition has been evicted or not appended", row));
+  }
+
+  private static class Segment {
+    private final TsBlock tsBlock;
+    private final int offset;
+    private final int count;
+    // index of the first row of this segment in the partition
+    private final long firstRow;
+
+    private Segment(TsBlock tsBlock, int offset, int count, long firstRow) {
+      this.tsBlock = tsBlock;
+      this.offset = offset;
+      this.count = count;
+      this.firstRow = firstRow;
+    }
+
+    private boolean contains(long row) {
+      return row >= firstRow && row < firstRow + count;
+    }
+  }
+}
@@ -28,11 +28,13 @@ import org.apache.iotdb.db.queryengine.plan.analyze.cache.schema.DataNodeTTLCach
 import org.apache.iotdb.db.queryengine.plan.planner.plan.parameter.SeriesScanOptions;
 import org.apache.iotdb.db.queryengine.plan.statement.component.Ordering;
 import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSource;
+import org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk.ChunkPrefetcher;
 import org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk.MemAlignedPageReader;
 import org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk.MemPageReader;
 import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.DescPriorityMergeReader;
 import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.MergeReaderPriority;
 import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.PriorityMergeReader;
+import org.apache.iotdb.db.storageengine.dataregion.read.reader.common.TsBlockPointReader;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 
 import org.apache.tsfile.enums.TSDataType;
@@ -58,6 +60,7 @@ import org.apache.tsfile.write.UnSupportedDataTypeException;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -99,6 +102,8 @@ public class SeriesScanUtil implements Accountable {
   // chunk cache
   private IChunkMetadata firstChunkMetadata;
   private final PriorityQueue<IChunkMetadata> cachedChunkMetadata;
+  // reads the chunks of sequence files ahead, null if disabled
+  private final ChunkPrefetcher chunkPrefetcher;
 
   // page cache
   private VersionPageReader firstPageReader;
@@ -118,6 +123,10 @@ public class SeriesScanUtil implements Accountable {
   private static final SeriesScanCostMetricSet SERIES_SCAN_COST_METRIC_SET =
       SeriesScanCostMetricSet.getInstance();
 
+  // min number of the points in mergeReader that are taken in batch, fewer points are merged one by
+  // one to avoid too small TsBlocks
+  private static final int MIN_MERGE_BATCH_SIZE = 32;
+
   private static final long INSTANCE_SIZE =
       RamUsageEstimator.shallowSizeOfInstance(SeriesScanUtil.class)
           + RamUsageEstimator.shallowSizeOfInstance(IDeviceID.class)
@@ -161,6 +170,13 @@ public class SeriesScanUtil implements Accountable {
             orderUtils.comparingLong(
                 chunkMetadata -> orderUtils.getOrderTime(chunkMetadata.getStatistics())));
 
+    if (ChunkPrefetcher.isEnable()) {
+      this.chunkPrefetcher = new ChunkPrefetcher(context);
+      context.registerChunkPrefetcher(chunkPrefetcher);
+    } else {
+      this.chunkPrefetcher = null;
+    }
+
     // init PageReader materializer
     this.seqPageReaders = new LinkedList<>();
     this.unSeqPageReaders =
@@ -413,6 +429,30 @@ public class SeriesScanUtil implements Accountable {
     chunkMetadataList.forEach(chunkMetadata -> chunkMetadata.setSeq(timeSeriesMetadata.isSeq()));
 
     cachedChunkMetadata.addAll(chunkMetadataList);
+
+    if (chunkPrefetcher != null && timeSeriesMetadata.isSeq()) {
+      prefetchChunks(chunkMetadataList);
+    }
+  }
+
+  /** Read ahead the chunks of a sequence file which can't be skipped by their statistics. */
+  private void prefetchChunks(List<IChunkMetadata> chunkMetadataList) {
+    Filter globalTimeFilter = scanOptions.getGlobalTimeFilter();
+    Filter pushDownFilter = scanOptions.getPushDownFilter();
+    List<IChunkMetadata> chunksToRead = new ArrayList<>(chunkMetadataList.size());
+    for (IChunkMetadata chunkMetadata : chunkMetadataList) {
+      // statistics of modified chunks are not accurate, see filterFirstChunkMetadata()
+      if (chunkMetadata.isModified()
+          || !(globalTimeFilter != null && globalTimeFilter.canSkip(chunkMetadata)
+              || pushDownFilter != null && pushDownFilter.canSkip(chunkMetadata))) {
+        chunksToRead.add(chunkMetadata);
+      }
+    }
+    // chunks of a sequence file don't overlap, so they are consumed in the order of time
+    if (!orderUtils.getAscending()) {
+      Collections.reverse(chunksToRead);
+    }
+    chunkPrefetcher.prefetch(chunksToRead);
   }
 
   private boolean currentChunkOverlapped() {
@@ -777,6 +817,23 @@ public class SeriesScanUtil implements Accountable {
           long currentPageEndPointTime = mergeReader.getCurrentReadStopTime();
           while (mergeReader.hasNextTimeValuePair()) {
 
+            /*
+             * only one page is left in mergeReader, take its points which are not overlapped by
+             * any unmerged data in batch, rather than merging them point by point
+             */
+            if (mergeReader.canTakeBatch()) {
+              int batchSize = getMergeBatchSize(currentPageEndPointTime);
+              if (batchSize >= MIN_MERGE_BATCH_SIZE) {
+                if (!builder.isEmpty()) {
+                  // return the merged points before the batch first
+                  break;
+                }
+                hasCachedNextOverlappedPage = true;
+                cachedTsBlock = mergeReader.nextBatch(batchSize);
+                return true;
+              }
+            }
+
             /*
              * get current first point in mergeReader, this maybe overlapped later
              */
@@ -896,6 +953,75 @@ public class SeriesScanUtil implements Accountable {
     }
   }
 
+  /**
+   * Get the number of points of the only page left in mergeReader that can be taken in batch, which
+   * are before both the currentPageEndPointTime and the nearest data not unpacked into mergeReader
+   * yet.
+   */
+  private int getMergeBatchSize(long currentPageEndPointTime) throws IOException {
+    long nearestOrderTime = getNearestUnmergedOrderTime();
+    if (orderUtils.getAscending()) {
+      return mergeReader.getBatchSize(
+          time -> time > currentPageEndPointTime || time >= nearestOrderTime);
+    } else {
+      return mergeReader.getBatchSize(
+          time -> time < currentPageEndPointTime || time <= nearestOrderTime);
+    }
+  }
+
+  /**
+   * Get the order time of the nearest data which is not unpacked into mergeReader yet, i.e., the
+   * min start time for ascending order or the max end time for descending order.
+   */
+  private long getNearestUnmergedOrderTime() throws IOException {
+    long nearestOrderTime = orderUtils.getAscending() ? Long.MAX_VALUE : Long.MIN_VALUE;
+    if (orderUtils.hasNextSeqResource()) {
+      nearestOrderTime = getNearerOrderTime(nearestOrderTime, orderUtils.getCurSeqOrderTime());
+    }
+    if (orderUtils.hasNextUnseqResource()) {
+      nearestOrderTime = getNearerOrderTime(nearestOrderTime, orderUtils.getCurUnSeqOrderTime());
+    }
+    if (firstTimeSeriesMetadata != null) {
+      nearestOrderTime = getNearerOrderTime(nearestOrderTime, firstTimeSeriesMetadata);
+    }
+    if (!seqTimeSeriesMetadata.isEmpty()) {
+      nearestOrderTime = getNearerOrderTime(nearestOrderTime, seqTimeSeriesMetadata.get(0));
+    }
+    if (!unSeqTimeSeriesMetadata.isEmpty()) {
+      nearestOrderTime = getNearerOrderTime(nearestOrderTime, unSeqTimeSeriesMetadata.peek());
+    }
+    if (firstChunkMetadata != null) {
+      nearestOrderTime = getNearerOrderTime(nearestOrderTime, firstChunkMetadata);
+    }
+    if (!cachedChunkMetadata.isEmpty()) {
+      nearestOrderTime = getNearerOrderTime(nearestOrderTime, cachedChunkMetadata.peek());
+    }
+    if (firstPageReader != null) {
+      nearestOrderTime =
+          getNearerOrderTime(
+              nearestOrderTime, orderUtils.getOrderTime(firstPageReader.getStatistics()));
+    }
+    if (!seqPageReaders.isEmpty()) {
+      nearestOrderTime =
+          getNearerOrderTime(
+              nearestOrderTime, orderUtils.getOrderTime(seqPageReaders.get(0).getStatistics()));
+    }
+    if (!unSeqPageReaders.isEmpty()) {
+      nearestOrderTime =
+          getNearerOrderTime(
+              nearestOrderTime, orderUtils.getOrderTime(unSeqPageReaders.peek().getStatistics()));
+    }
+    return nearestOrderTime;
+  }
+
+  private long getNearerOrderTime(long orderTime, IMetadata metadata) {
+    return getNearerOrderTime(orderTime, orderUtils.getOrderTime(metadata.getStatistics()));
+  }
+
+  private long getNearerOrderTime(long left, long right) {
+    return orderUtils.getAscending() ? Math.min(left, right) : Math.max(left, right);
+  }
+
   private long updateEndPointTime(long currentPageEndPointTime, VersionPageReader pageReader) {
     if (orderUtils.getAscending()) {
       return Math.min(currentPageEndPointTime, pageReader.getStatistics().getEndTime());
@@ -1209,7 +1335,7 @@ public class SeriesScanUtil implements Accountable {
   }
 
   protected IPointReader getPointReader(TsBlock tsBlock) {
-    return tsBlock.getTsBlockSingleColumnIterator();
+    return new TsBlockPointReader(tsBlock, tsBlock.getTsBlockSingleColumnIterator());
   }
 
   protected boolean timeAllSelected(IMetadata metadata) {
@@ -1342,6 +1468,12 @@ public class SeriesScanUtil implements Accountable {
 
     boolean hasNextUnseqResource();
 
+    /** Should only be called after {@link #hasNextSeqResource()} returns true. */
+    long getCurSeqOrderTime();
+
+    /** Should only be called after {@link #hasNextUnseqResource()} returns true. */
+    long getCurUnSeqOrderTime();
+
     TsFileResource getNextSeqFileResource(boolean isDelete);
 
     TsFileResource getNextUnseqFileResource(boolean isDelete);
@@ -1446,6 +1578,16 @@ public class SeriesScanUtil implements Accountable {
       return dataSource.hasNextUnseqResource(curUnseqFileIndex, false, deviceID);
     }
 
+    @Override
+    public long getCurSeqOrderTime() {
+      return dataSource.getCurrentSeqOrderTime(curSeqFileIndex);
+    }
+
+    @Override
+    public long getCurUnSeqOrderTime() {
+      return dataSource.getCurrentUnSeqOrderTime(curUnseqFileIndex);
+    }
+
     @Override
     public TsFileResource getNextSeqFileResource(boolean isDelete) {
       TsFileResource tsFileResource = dataSource.getSeqResourceByIndex(curSeqFileIndex);
@@ -1570,6 +1712,16 @@ public class SeriesScanUtil implements Accountable {
       return dataSource.hasNextUnseqResource(curUnseqFileIndex, true, deviceID);
     }
 
+    @Override
+    public long getCurSeqOrderTime() {
+      return dataSource.getCurrentSeqOrderTime(curSeqFileIndex);
+    }
+
+    @Override
+    public long getCurUnSeqOrderTime() {
+      return dataSource.getCurrentUnSeqOrderTime(curUnseqFileIndex);
+    }
+
     @Override
     public TsFileResource getNextSeqFileResource(boolean isDelete) {
       TsFileResource tsFileResource = dataSource.getSeqResourceByIndex(curSeqFileIndex);
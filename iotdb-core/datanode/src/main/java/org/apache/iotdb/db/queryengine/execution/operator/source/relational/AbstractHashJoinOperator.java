@@ -0,0 +1,622 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.iotdb.commons.exception.IoTDBException;
+import org.apache.iotdb.db.queryengine.execution.operator.AbstractOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationManager;
+import org.apache.iotdb.db.utils.datastructure.MergeSortKey;
+import org.apache.iotdb.db.utils.datastructure.SortKey;
+import org.apache.iotdb.db.utils.sort.DiskSpiller;
+import org.apache.iotdb.db.utils.sort.SortBufferManager;
+import org.apache.iotdb.db.utils.sort.SortReader;
+import org.apache.iotdb.db.utils.sort.TableDiskSpiller;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.common.conf.TSFileDescriptor;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanGraphPrinter.MAX_RESERVED_MEMORY;
+
+/**
+ * Base of the operators joining two children by a hash table. All rows of the right child (the
+ * build side) are put into a {@link JoinHashTable} first, then each row of the left child (the
+ * probe side) looks up its matched rows in it, so neither child needs to be sorted on the join
+ * keys.
+ *
+ * <p>Once the build side exceeds the build buffer, rows of both sides are partitioned by the hash
+ * of their join keys and spilled by {@link DiskSpiller}s, then the partitions are joined one by
+ * one, each with a hash table on its build rows only. Rows with equal join keys always fall into
+ * the same partition. A partition whose build rows still exceed the build buffer is partitioned
+ * again by the next bits of the hash. Once all bits of the hash are used, the rows of a partition
+ * have the same hash and are loaded as a whole, which fails the query by the memory reservation if
+ * there is not enough memory.
+ */
+public abstract class AbstractHashJoinOperator extends AbstractOperator {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AbstractHashJoinOperator.class);
+
+  private static final int PARTITION_NUM_BITS = 4;
+  private static final int PARTITION_NUM = 1 << PARTITION_NUM_BITS;
+  // each level of partitioning uses the next PARTITION_NUM_BITS bits of the hash
+  private static final int MAX_PARTITION_LEVEL = Integer.SIZE / PARTITION_NUM_BITS - 1;
+
+  protected final Operator leftChild;
+  protected final int[] leftJoinKeyPositions;
+  protected final int[] leftOutputSymbolIdx;
+
+  protected final Operator rightChild;
+  protected final int[] rightJoinKeyPositions;
+  protected final int[] rightOutputSymbolIdx;
+
+  protected final JoinHashTable hashTable;
+  // whether any row of the build side has NULL join keys
+  protected boolean buildHasNullKey;
+
+  protected final TsBlockBuilder resultBuilder;
+
+  private final MemoryReservationManager memoryReservationManager;
+  private final long buildBufferSize;
+  private long usedMemory;
+  private long maxUsedMemory;
+
+  private boolean buildFinished;
+  private boolean probeFinished;
+  private TsBlock probeBlock;
+  private int probeIndex;
+
+  // fields below are only used after the build side is spilled
+  private final String folderPath;
+  private List<TSDataType> buildDataTypes;
+  private List<TSDataType> probeDataTypes;
+  private DiskSpiller[] buildSpillers;
+  private DiskSpiller[] probeSpillers;
+  private final List<List<SortKey>> pendingRows = new ArrayList<>(PARTITION_NUM);
+  private SortBufferManager sortBufferManager;
+  // partitions to be joined, the partitions split from a partition are pushed to the head
+  private final Deque<SpilledPartition> spilledPartitions = new ArrayDeque<>();
+  private int spilledPartitionNum;
+  private boolean spilledPartitionsJoined;
+  private List<SortReader> probeReaders;
+  private int probeReaderIndex;
+
+  protected AbstractHashJoinOperator(
+      OperatorContext operatorContext,
+      Operator leftChild,
+      int[] leftJoinKeyPositions,
+      int[] leftOutputSymbolIdx,
+      Operator rightChild,
+      int[] rightJoinKeyPositions,
+      int[] rightOutputSymbolIdx,
+      List<Type> joinKeyTypes,
+      List<TSDataType> dataTypes,
+      String folderPath,
+      long buildBufferSize) {
+    this.operatorContext = operatorContext;
+    this.leftChild = leftChild;
+    this.leftJoinKeyPositions = leftJoinKeyPositions;
+    this.leftOutputSymbolIdx = leftOutputSymbolIdx;
+    this.rightChild = rightChild;
+    this.rightJoinKeyPositions = rightJoinKeyPositions;
+    this.rightOutputSymbolIdx = rightOutputSymbolIdx;
+    this.hashTable = new JoinHashTable(rightJoinKeyPositions, joinKeyTypes);
+    this.resultBuilder = new TsBlockBuilder(dataTypes);
+    this.memoryReservationManager =
+        operatorContext
+            .getDriverContext()
+            .getFragmentInstanceContext()
+            .getMemoryReservationContext();
+    this.folderPath = folderPath;
+    this.buildBufferSize = buildBufferSize;
+  }
+
+  /** Append the join result of the given row of the probe side to resultBuilder. */
+  protected abstract void probeRow(TsBlock probeBlock, int probePosition);
+
+  /**
+   * @return true if rows of the probe side without any matched row still produce results, in which
+   *     case the probe side can't be skipped when the build side is empty
+   */
+  protected abstract boolean outputUnmatchedProbeRows();
+
+  @Override
+  public ListenableFuture<?> isBlocked() {
+    if (!buildFinished) {
+      return rightChild.isBlocked();
+    }
+    if (!probeFinished && !probeBlockNotEmpty()) {
+      return leftChild.isBlocked();
+    }
+    return NOT_BLOCKED;
+  }
+
+  @Override
+  public boolean hasNext() throws Exception {
+    return retainedTsBlock != null
+        || !buildFinished
+        || !probeFinished
+        || (isSpilled() && !spilledPartitionsJoined);
+  }
+
+  @Override
+  public boolean isFinished() throws Exception {
+    return !hasNext();
+  }
+
+  @Override
+  public TsBlock next() throws Exception {
+    if (retainedTsBlock != null) {
+      return getResultFromRetainedTsBlock();
+    }
+    long maxRuntime = operatorContext.getMaxRunTime().roundTo(TimeUnit.NANOSECONDS);
+    long start = System.nanoTime();
+
+    if (!buildFinished) {
+      if (rightChild.hasNextWithTimer()) {
+        TsBlock block = rightChild.nextWithTimer();
+        if (block != null && !block.isEmpty()) {
+          addBuildBlock(block);
+        }
+      } else {
+        finishBuild();
+      }
+      return null;
+    }
+
+    if (!probeFinished) {
+      if (!probeBlockNotEmpty()) {
+        probeBlock = null;
+        if (leftChild.hasNextWithTimer()) {
+          TsBlock block = leftChild.nextWithTimer();
+          if (block != null && !block.isEmpty()) {
+            if (isSpilled()) {
+              addSpilledProbeBlock(block);
+            } else {
+              probeBlock = block;
+              probeIndex = 0;
+            }
+          }
+        } else {
+          finishProbe();
+        }
+      }
+      while (probeBlockNotEmpty()
+          && !resultBuilder.isFull()
+          && System.nanoTime() - start < maxRuntime) {
+        probeRow(probeBlock, probeIndex++);
+      }
+    } else if (isSpilled()) {
+      joinSpilledPartitions(start, maxRuntime);
+    }
+
+    if (resultBuilder.isEmpty()) {
+      return null;
+    }
+    resultTsBlock =
+        resultBuilder.build(
+            new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, resultBuilder.getPositionCount()));
+    resultBuilder.reset();
+    return checkTsBlockSizeAndGetResult();
+  }
+
+  private boolean probeBlockNotEmpty() {
+    return probeBlock != null && probeIndex < probeBlock.getPositionCount();
+  }
+
+  private boolean isSpilled() {
+    return buildSpillers != null;
+  }
+
+  private void addBuildBlock(TsBlock block) throws IoTDBException {
+    if (isSpilled()) {
+      partitionAndSpill(block, rightJoinKeyPositions, buildSpillers, true, 0);
+      return;
+    }
+    hashTable.addBlock(block);
+    reserveMemory(block.getRetainedSizeInBytes());
+    if (usedMemory > buildBufferSize) {
+      LOGGER.debug("Build side of hash join exceeds {} bytes, spill it to disk", buildBufferSize);
+      buildDataTypes = getDataTypes(block);
+      buildSpillers = createSpillers("build", buildDataTypes);
+      for (int i = 0; i < PARTITION_NUM; i++) {
+        pendingRows.add(new ArrayList<>());
+      }
+      sortBufferManager =
+          new SortBufferManager(
+              TSFileDescriptor.getInstance().getConfig().getMaxTsBlockSizeInBytes(),
+              Math.max(
+                  buildBufferSize,
+                  3L * TSFileDescriptor.getInstance().getConfig().getMaxTsBlockSizeInBytes()));
+      // all partitions are read by one reader at a time
+      sortBufferManager.allocateOneSortBranch();
+
+      List<TsBlock> blocks = new ArrayList<>(hashTable.getBlocks());
+      hashTable.clear();
+      releaseMemory(usedMemory);
+      for (TsBlock buildBlock : blocks) {
+        partitionAndSpill(buildBlock, rightJoinKeyPositions, buildSpillers, true, 0);
+      }
+    }
+  }
+
+  private void finishBuild() throws IoTDBException {
+    buildFinished = true;
+    if (isSpilled()) {
+      spillPendingRows(buildSpillers);
+      return;
+    }
+    hashTable.build();
+    buildHasNullKey = hashTable.hasNullKey();
+    reserveMemory(hashTable.getRetainedSizeInBytes());
+    if (hashTable.isEmpty() && !outputUnmatchedProbeRows()) {
+      // no row of the probe side can be matched
+      probeFinished = true;
+    }
+  }
+
+  private void addSpilledProbeBlock(TsBlock block) throws IoTDBException {
+    if (probeSpillers == null) {
+      probeDataTypes = getDataTypes(block);
+      probeSpillers = createSpillers("probe", probeDataTypes);
+    }
+    partitionAndSpill(block, leftJoinKeyPositions, probeSpillers, false, 0);
+  }
+
+  private void finishProbe() throws IoTDBException {
+    probeFinished = true;
+    if (isSpilled()) {
+      if (probeSpillers != null) {
+        spillPendingRows(probeSpillers);
+      }
+      pushSpilledPartitions("", 0, buildSpillers, probeSpillers);
+    }
+  }
+
+  private static List<TSDataType> getDataTypes(TsBlock block) {
+    List<TSDataType> dataTypes = new ArrayList<>(block.getValueColumnCount());
+    for (int i = 0; i < block.getValueColumnCount(); i++) {
+      dataTypes.add(block.getColumn(i).getDataType());
+    }
+    return dataTypes;
+  }
+
+  private DiskSpiller[] createSpillers(String prefix, List<TSDataType> dataTypes) {
+    DiskSpiller[] spillers = new DiskSpiller[PARTITION_NUM];
+    for (int i = 0; i < PARTITION_NUM; i++) {
+      spillers[i] =
+          new TableDiskSpiller(
+              folderPath,
+              folderPath + operatorContext.getOperatorId() + "-" + prefix + "-" + i,
+              dataTypes);
+    }
+    return spillers;
+  }
+
+  /** Push the non-empty partitions to the head of the partitions to be joined, in their order. */
+  private void pushSpilledPartitions(
+      String parentName, int level, DiskSpiller[] buildSpillers, DiskSpiller[] probeSpillers) {
+    for (int i = PARTITION_NUM - 1; i >= 0; i--) {
+      DiskSpiller probeSpiller = probeSpillers == null ? null : probeSpillers[i];
+      if (buildSpillers[i].hasSpilledData()
+          || (probeSpiller != null && probeSpiller.hasSpilledData())) {
+        spilledPartitions.addFirst(
+            new SpilledPartition(parentName + i, level, buildSpillers[i], probeSpiller));
+        spilledPartitionNum++;
+      }
+    }
+    operatorContext.recordSpecifiedInfo(
+        "spilledPartitionNum", Integer.toString(spilledPartitionNum));
+  }
+
+  /**
+   * Put rows of the block into the pending rows of their partitions, and spill all pending rows
+   * once they exceed the build buffer.
+   */
+  private void partitionAndSpill(
+      TsBlock block, int[] keyPositions, DiskSpiller[] spillers, boolean isBuildSide, int level)
+      throws IoTDBException {
+    reserveMemory(block.getRetainedSizeInBytes());
+    for (int position = 0, size = block.getPositionCount(); position < size; position++) {
+      int partition;
+      if (JoinHashTable.hasNullKey(block, keyPositions, position)) {
+        if (isBuildSide) {
+          // can't match any row
+          buildHasNullKey = true;
+          continue;
+        }
+        partition = 0;
+      } else {
+        partition =
+            (hashTable.hash(block, keyPositions, position)
+                    >>> (Integer.SIZE - (level + 1) * PARTITION_NUM_BITS))
+                & (PARTITION_NUM - 1);
+      }
+      pendingRows.get(partition).add(new SortKey(block, position));
+    }
+    if (usedMemory > buildBufferSize) {
+      spillPendingRows(spillers);
+    }
+  }
+
+  private void spillPendingRows(DiskSpiller[] spillers) throws IoTDBException {
+    for (int i = 0; i < PARTITION_NUM; i++) {
+      List<SortKey> rows = pendingRows.get(i);
+      if (!rows.isEmpty()) {
+        spillers[i].spillSortedData(rows);
+        rows.clear();
+      }
+    }
+    releaseMemory(usedMemory);
+  }
+
+  private void joinSpilledPartitions(long start, long maxRuntime) throws IoTDBException {
+    while (!resultBuilder.isFull() && System.nanoTime() - start < maxRuntime) {
+      if (probeReaders == null && !loadNextPartition()) {
+        return;
+      }
+      if (probeReaderIndex >= probeReaders.size()) {
+        closeCurrentPartition();
+        continue;
+      }
+      SortReader reader = probeReaders.get(probeReaderIndex);
+      if (reader.hasNext()) {
+        MergeSortKey row = reader.next();
+        probeRow(row.tsBlock, row.rowIndex);
+      } else {
+        reader.close();
+        probeReaderIndex++;
+      }
+    }
+  }
+
+  /**
+   * Build the hash table of the next partition and open readers of its probe rows. A partition
+   * whose build rows exceed the build buffer is partitioned again instead.
+   *
+   * @return false if all partitions are joined
+   */
+  private boolean loadNextPartition() throws IoTDBException {
+    while (!spilledPartitions.isEmpty()) {
+      SpilledPartition partition = spilledPartitions.pollFirst();
+      if (!loadBuildRows(partition)) {
+        continue;
+      }
+      hashTable.build();
+      reserveMemory(hashTable.getRetainedSizeInBytes());
+
+      probeReaders =
+          partition.probeSpiller == null || (hashTable.isEmpty() && !outputUnmatchedProbeRows())
+              ? Collections.emptyList()
+              : partition.probeSpiller.getReaders(sortBufferManager);
+      probeReaderIndex = 0;
+      return true;
+    }
+    spilledPartitionsJoined = true;
+    return false;
+  }
+
+  /**
+   * Add the build rows of the partition to the hash table.
+   *
+   * @return false if the build rows exceed the build buffer, in which case the partition has been
+   *     partitioned again
+   */
+  private boolean loadBuildRows(SpilledPartition partition) throws IoTDBException {
+    List<SortReader> readers = partition.buildSpiller.getReaders(sortBufferManager);
+    for (int i = 0; i < readers.size(); i++) {
+      SortReader reader = readers.get(i);
+      // a spilled file consists of whole TsBlocks, so all rows of a TsBlock belong to the partition
+      TsBlock block = nextSpilledBlock(reader, null);
+      while (block != null) {
+        hashTable.addBlock(block);
+        reserveMemory(block.getRetainedSizeInBytes());
+        if (usedMemory > buildBufferSize && partition.level < MAX_PARTITION_LEVEL) {
+          repartition(partition, readers.subList(i, readers.size()), block);
+          return false;
+        }
+        block = nextSpilledBlock(reader, block);
+      }
+      reader.close();
+    }
+    return true;
+  }
+
+  /**
+   * Partition the rows of the partition by the next bits of their hash, the build rows are those in
+   * the hash table and those after lastBlock in the build readers.
+   */
+  private void repartition(
+      SpilledPartition partition, List<SortReader> buildReaders, TsBlock lastBlock)
+      throws IoTDBException {
+    int level = partition.level + 1;
+    LOGGER.debug(
+        "Build rows of spilled partition {} exceed {} bytes, partition them again",
+        partition.name,
+        buildBufferSize);
+    DiskSpiller[] childBuildSpillers = createSpillers("build-" + partition.name, buildDataTypes);
+    List<TsBlock> blocks = new ArrayList<>(hashTable.getBlocks());
+    hashTable.clear();
+    releaseMemory(usedMemory);
+    for (TsBlock block : blocks) {
+      partitionAndSpill(block, rightJoinKeyPositions, childBuildSpillers, true, level);
+    }
+    for (SortReader reader : buildReaders) {
+      for (TsBlock block = nextSpilledBlock(reader, lastBlock);
+          block != null;
+          block = nextSpilledBlock(reader, block)) {
+        partitionAndSpill(block, rightJoinKeyPositions, childBuildSpillers, true, level);
+      }
+      reader.close();
+      lastBlock = null;
+    }
+    spillPendingRows(childBuildSpillers);
+
+    DiskSpiller[] childProbeSpillers = null;
+    if (partition.probeSpiller != null) {
+      childProbeSpillers = createSpillers("probe-" + partition.name, probeDataTypes);
+      for (SortReader reader : partition.probeSpiller.getReaders(sortBufferManager)) {
+        for (TsBlock block = nextSpilledBlock(reader, null);
+            block != null;
+            block = nextSpilledBlock(reader, block)) {
+          partitionAndSpill(block, leftJoinKeyPositions, childProbeSpillers, false, level);
+        }
+        reader.close();
+      }
+      spillPendingRows(childProbeSpillers);
+    }
+    pushSpilledPartitions(partition.name + "-", level, childBuildSpillers, childProbeSpillers);
+  }
+
+  /**
+   * @return the first TsBlock after lastBlock read by the reader, or null if there is no more
+   */
+  private static TsBlock nextSpilledBlock(SortReader reader, TsBlock lastBlock)
+      throws IoTDBException {
+    while (reader.hasNext()) {
+      MergeSortKey row = reader.next();
+      if (row.tsBlock != lastBlock) {
+        return row.tsBlock;
+      }
+    }
+    return null;
+  }
+
+  private void closeCurrentPartition() throws IoTDBException {
+    for (int i = probeReaderIndex; i < probeReaders.size(); i++) {
+      probeReaders.get(i).close();
+    }
+    probeReaders = null;
+    hashTable.clear();
+    releaseMemory(usedMemory);
+  }
+
+  private void reserveMemory(long size) {
+    usedMemory += size;
+    memoryReservationManager.reserveMemoryCumulatively(size);
+    if (usedMemory > maxUsedMemory) {
+      maxUsedMemory = usedMemory;
+      operatorContext.recordSpecifiedInfo(MAX_RESERVED_MEMORY, Long.toString(maxUsedMemory));
+    }
+  }
+
+  private void releaseMemory(long size) {
+    usedMemory -= size;
+    memoryReservationManager.releaseMemoryCumulatively(size);
+  }
+
+  protected void appendLeftRow(TsBlock block, int position) {
+    for (int i = 0; i < leftOutputSymbolIdx.length; i++) {
+      ColumnBuilder columnBuilder = resultBuilder.getColumnBuilder(i);
+      if (block.getColumn(leftOutputSymbolIdx[i]).isNull(position)) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(block.getColumn(leftOutputSymbolIdx[i]), position);
+      }
+    }
+  }
+
+  protected void appendRightRow(TsBlock block, int position) {
+    for (int i = 0; i < rightOutputSymbolIdx.length; i++) {
+      ColumnBuilder columnBuilder = resultBuilder.getColumnBuilder(leftOutputSymbolIdx.length + i);
+      if (block.getColumn(rightOutputSymbolIdx[i]).isNull(position)) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(block.getColumn(rightOutputSymbolIdx[i]), position);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (leftChild != null) {
+      leftChild.close();
+    }
+    if (rightChild != null) {
+      rightChild.close();
+    }
+    if (probeReaders != null) {
+      closeCurrentPartition();
+    }
+    hashTable.clear();
+    for (List<SortKey> rows : pendingRows) {
+      rows.clear();
+    }
+    releaseMemory(usedMemory);
+    probeBlock = null;
+    resultTsBlock = null;
+    retainedTsBlock = null;
+  }
+
+  @Override
+  public long calculateMaxPeekMemory() {
+    return Math.max(
+        Math.max(
+            leftChild.calculateMaxPeekMemoryWithCounter(),
+            rightChild.calculateMaxPeekMemoryWithCounter()),
+        calculateRetainedSizeAfterCallingNext() + calculateMaxReturnSize());
+  }
+
+  @Override
+  public long calculateMaxReturnSize() {
+    return maxReturnSize;
+  }
+
+  @Override
+  public long calculateRetainedSizeAfterCallingNext() {
+    return leftChild.calculateMaxReturnSize()
+        + leftChild.calculateRetainedSizeAfterCallingNext()
+        + rightChild.calculateRetainedSizeAfterCallingNext()
+        + buildBufferSize;
+  }
+
+  private static class SpilledPartition {
+
+    private final String name;
+    private final int level;
+    private final DiskSpiller buildSpiller;
+    // null if the probe side has no row
+    private final DiskSpiller probeSpiller;
+
+    private SpilledPartition(
+        String name, int level, DiskSpiller buildSpiller, DiskSpiller probeSpiller) {
+      this.name = name;
+      this.level = level;
+      this.buildSpiller = buildSpiller;
+      this.probeSpiller = probeSpiller;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.iotdb.db.queryengine.execution.MemoryEstimationHelper;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.type.Type;
+import org.apache.tsfile.utils.RamUsageEstimator;
+
+import java.util.List;
+
+/**
+ * Inner or left outer equi-join by a hash table on the right child. For left outer join, rows of
+ * the left child without any matched row are output with NULL right columns.
+ */
+public class HashJoinOperator extends AbstractHashJoinOperator {
+  private static final long INSTANCE_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(HashJoinOperator.class);
+
+  private final boolean isLeftOuterJoin;
+
+  public HashJoinOperator(
+      OperatorContext operatorContext,
+      Operator leftChild,
+      int[] leftJoinKeyPositions,
+      int[] leftOutputSymbolIdx,
+      Operator rightChild,
+      int[] rightJoinKeyPositions,
+      int[] rightOutputSymbolIdx,
+      List<Type> joinKeyTypes,
+      List<TSDataType> dataTypes,
+      boolean isLeftOuterJoin,
+      String folderPath,
+      long buildBufferSize) {
+    super(
+        operatorContext,
+        leftChild,
+        leftJoinKeyPositions,
+        leftOutputSymbolIdx,
+        rightChild,
+        rightJoinKeyPositions,
+        rightOutputSymbolIdx,
+        joinKeyTypes,
+        dataTypes,
+        folderPath,
+        buildBufferSize);
+    this.isLeftOuterJoin = isLeftOuterJoin;
+  }
+
+  @Override
+  protected void probeRow(TsBlock probeBlock, int probePosition) {
+    boolean matched = false;
+    if (!JoinHashTable.hasNullKey(probeBlock, leftJoinKeyPositions, probePosition)) {
+      int hash = hashTable.hash(probeBlock, leftJoinKeyPositions, probePosition);
+      for (int row = hashTable.getFirstMatch(probeBlock, leftJoinKeyPositions, probePosition, hash);
+          row >= 0;
+          row =
+              hashTable.getNextMatch(row, probeBlock, leftJoinKeyPositions, probePosition, hash)) {
+        appendLeftRow(probeBlock, probePosition);
+        appendRightRow(hashTable.getBlock(row), hashTable.getPosition(row));
+        resultBuilder.declarePosition();
+        matched = true;
+      }
+    }
+    if (!matched && isLeftOuterJoin) {
+      appendLeftRow(probeBlock, probePosition);
+      for (int i = 0; i < rightOutputSymbolIdx.length; i++) {
+        resultBuilder.getColumnBuilder(leftOutputSymbolIdx.length + i).appendNull();
+      }
+      resultBuilder.declarePosition();
+    }
+  }
+
+  @Override
+  protected boolean outputUnmatchedProbeRows() {
+    return isLeftOuterJoin;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return INSTANCE_SIZE
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(leftChild)
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(rightChild)
+        + RamUsageEstimator.sizeOf(leftOutputSymbolIdx)
+        + RamUsageEstimator.sizeOf(rightOutputSymbolIdx)
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(operatorContext)
+        + resultBuilder.getRetainedSizeInBytes();
+  }
+}
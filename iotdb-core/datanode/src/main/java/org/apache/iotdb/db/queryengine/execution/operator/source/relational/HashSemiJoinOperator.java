@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.iotdb.db.queryengine.execution.MemoryEstimationHelper;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.type.Type;
+import org.apache.tsfile.utils.RamUsageEstimator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Semi join by a hash table on the filtering source (the right child). Each row of the source is
+ * output with whether its join key is contained by the filtering source, which is NULL if the join
+ * key is NULL or the filtering source contains NULL without the join key, the same as {@link
+ * MergeSortSemiJoinOperator}.
+ */
+public class HashSemiJoinOperator extends AbstractHashJoinOperator {
+  private static final long INSTANCE_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(HashSemiJoinOperator.class);
+
+  private final int outputColumnNum;
+
+  public HashSemiJoinOperator(
+      OperatorContext operatorContext,
+      Operator leftChild,
+      int leftJoinKeyPosition,
+      int[] leftOutputSymbolIdx,
+      Operator rightChild,
+      int rightJoinKeyPosition,
+      Type joinKeyType,
+      List<TSDataType> dataTypes,
+      String folderPath,
+      long buildBufferSize) {
+    super(
+        operatorContext,
+        leftChild,
+        new int[] {leftJoinKeyPosition},
+        leftOutputSymbolIdx,
+        rightChild,
+        new int[] {rightJoinKeyPosition},
+        new int[0],
+        Collections.singletonList(joinKeyType),
+        dataTypes,
+        folderPath,
+        buildBufferSize);
+    this.outputColumnNum = dataTypes.size();
+  }
+
+  @Override
+  protected void probeRow(TsBlock probeBlock, int probePosition) {
+    appendLeftRow(probeBlock, probePosition);
+    ColumnBuilder columnBuilder = resultBuilder.getColumnBuilder(outputColumnNum - 1);
+    if (JoinHashTable.hasNullKey(probeBlock, leftJoinKeyPositions, probePosition)) {
+      columnBuilder.appendNull();
+    } else if (hashTable.getFirstMatch(
+            probeBlock,
+            leftJoinKeyPositions,
+            probePosition,
+            hashTable.hash(probeBlock, leftJoinKeyPositions, probePosition))
+        >= 0) {
+      columnBuilder.writeBoolean(true);
+    } else if (buildHasNullKey) {
+      // this behaves like MySQL and Trino
+      columnBuilder.appendNull();
+    } else {
+      columnBuilder.writeBoolean(false);
+    }
+    resultBuilder.declarePosition();
+  }
+
+  @Override
+  protected boolean outputUnmatchedProbeRows() {
+    return true;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return INSTANCE_SIZE
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(leftChild)
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(rightChild)
+        + RamUsageEstimator.sizeOf(leftOutputSymbolIdx)
+        + MemoryEstimationHelper.getEstimatedSizeOfAccountableObject(operatorContext)
+        + resultBuilder.getRetainedSizeInBytes();
+  }
+}
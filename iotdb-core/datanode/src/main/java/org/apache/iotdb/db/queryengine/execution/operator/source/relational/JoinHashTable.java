@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.type.Type;
+import org.apache.tsfile.read.common.type.TypeEnum;
+import org.apache.tsfile.utils.RamUsageEstimator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hash table on the join keys of the rows of the build side of a hash join. Rows are chained by
+ * their bucket, and a row is addressed by the index of its TsBlock and its position in the TsBlock.
+ * Rows with NULL in any join key never match, so they are not put into the table.
+ *
+ * <p>A single INT32, INT64, DATE or TIMESTAMP join key is kept in a primitive long array, so
+ * probing it neither reads the build TsBlocks nor boxes the keys.
+ */
+class JoinHashTable {
+
+  private static final long EMPTY_ARRAY_SIZE = RamUsageEstimator.sizeOf(new int[0]);
+
+  private final int[] keyPositions;
+  private final TypeEnum[] keyTypes;
+  private final boolean isLongKey;
+
+  private final List<TsBlock> blocks = new ArrayList<>();
+  private int totalPositionCount;
+
+  // bucket -> index of the first row in the bucket + 1, 0 means an empty bucket
+  private int[] buckets;
+  private int mask;
+  // row -> index of the next row in the same bucket + 1
+  private int[] next;
+  // row -> (index of TsBlock << 32) | position
+  private long[] addresses;
+  private int[] hashes;
+  private long[] longKeys;
+  private int rowCount;
+  private boolean hasNullKey;
+
+  JoinHashTable(int[] keyPositions, List<Type> keyTypes) {
+    this.keyPositions = keyPositions;
+    this.keyTypes = new TypeEnum[keyTypes.size()];
+    for (int i = 0; i < this.keyTypes.length; i++) {
+      this.keyTypes[i] = keyTypes.get(i).getTypeEnum();
+    }
+    this.isLongKey = this.keyTypes.length == 1 && isIntegral(this.keyTypes[0]);
+  }
+
+  private static boolean isIntegral(TypeEnum type) {
+    return type == TypeEnum.INT32
+        || type == TypeEnum.INT64
+        || type == TypeEnum.DATE
+        || type == TypeEnum.TIMESTAMP;
+  }
+
+  void addBlock(TsBlock block) {
+    blocks.add(block);
+    totalPositionCount += block.getPositionCount();
+  }
+
+  /** Build the table over all added TsBlocks, no TsBlock can be added after calling it. */
+  void build() {
+    int capacity = Integer.highestOneBit(Math.max(totalPositionCount, 1)) << 1;
+    buckets = new int[capacity];
+    mask = capacity - 1;
+    next = new int[totalPositionCount];
+    addresses = new long[totalPositionCount];
+    hashes = new int[totalPositionCount];
+    longKeys = isLongKey ? new long[totalPositionCount] : null;
+
+    for (int blockIndex = 0; blockIndex < blocks.size(); blockIndex++) {
+      TsBlock block = blocks.get(blockIndex);
+      for (int position = 0, size = block.getPositionCount(); position < size; position++) {
+        if (hasNullKey(block, keyPositions, position)) {
+          hasNullKey = true;
+          continue;
+        }
+        int hash = hash(block, keyPositions, position);
+        int bucket = hash & mask;
+        addresses[rowCount] = ((long) blockIndex << 32) | position;
+        hashes[rowCount] = hash;
+        if (isLongKey) {
+          longKeys[rowCount] = getLong(block.getColumn(keyPositions[0]), position);
+        }
+        next[rowCount] = buckets[bucket];
+        buckets[bucket] = ++rowCount;
+      }
+    }
+  }
+
+  /**
+   * @return index of the first row whose join keys equal to those of the given probe row, or -1 if
+   *     there is none. The probe row must not contain NULL join keys.
+   */
+  int getFirstMatch(TsBlock probeBlock, int[] probeKeyPositions, int probePosition, int hash) {
+    return findMatch(buckets[hash & mask] - 1, probeBlock, probeKeyPositions, probePosition, hash);
+  }
+
+  /**
+   * @return index of the next row after the given row whose join keys equal to those of the given
+   *     probe row, or -1 if there is none
+   */
+  int getNextMatch(
+      int row, TsBlock probeBlock, int[] probeKeyPositions, int probePosition, int hash) {
+    return findMatch(next[row] - 1, probeBlock, probeKeyPositions, probePosition, hash);
+  }
+
+  private int findMatch(
+      int row, TsBlock probeBlock, int[] probeKeyPositions, int probePosition, int hash) {
+    if (isLongKey) {
+      long key = getLong(probeBlock.getColumn(probeKeyPositions[0]), probePosition);
+      while (row >= 0 && longKeys[row] != key) {
+        row = next[row] - 1;
+      }
+      return row;
+    }
+    while (row >= 0
+        && (hashes[row] != hash
+            || !keysEqual(
+                blocks.get((int) (addresses[row] >>> 32)),
+                (int) addresses[row],
+                probeBlock,
+                probeKeyPositions,
+                probePosition))) {
+      row = next[row] - 1;
+    }
+    return row;
+  }
+
+  TsBlock getBlock(int row) {
+    return blocks.get((int) (addresses[row] >>> 32));
+  }
+
+  int getPosition(int row) {
+    return (int) addresses[row];
+  }
+
+  boolean isEmpty() {
+    return rowCount == 0;
+  }
+
+  /** Whether any of the built rows is skipped for containing NULL join keys. */
+  boolean hasNullKey() {
+    return hasNullKey;
+  }
+
+  /** Size of the table itself, excluding the TsBlocks it refers to. */
+  long getRetainedSizeInBytes() {
+    if (buckets == null) {
+      return 0;
+    }
+    return RamUsageEstimator.sizeOf(buckets)
+        + RamUsageEstimator.sizeOf(next)
+        + RamUsageEstimator.sizeOf(addresses)
+        + RamUsageEstimator.sizeOf(hashes)
+        + (longKeys == null ? EMPTY_ARRAY_SIZE : RamUsageEstimator.sizeOf(longKeys));
+  }
+
+  List<TsBlock> getBlocks() {
+    return blocks;
+  }
+
+  void clear() {
+    blocks.clear();
+    totalPositionCount = 0;
+    buckets = null;
+    next = null;
+    addresses = null;
+    hashes = null;
+    longKeys = null;
+    rowCount = 0;
+    hasNullKey = false;
+  }
+
+  /** Hash of the join keys of the given row, which is the same for equal keys of both sides. */
+  int hash(TsBlock block, int[] positions, int position) {
+    long hash;
+    if (isLongKey) {
+      hash = getLong(block.getColumn(positions[0]), position);
+    } else {
+      hash = 0;
+      for (int i = 0; i < keyTypes.length; i++) {
+        hash = hash * 31 + hashValue(keyTypes[i], block.getColumn(positions[i]), position);
+      }
+    }
+    // fmix64 of MurmurHash3, so that both the low bits for buckets and the high bits for
+    // partitions are well distributed
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return (int) hash;
+  }
+
+  static boolean hasNullKey(TsBlock block, int[] positions, int position) {
+    for (int keyPosition : positions) {
+      if (block.getColumn(keyPosition).isNull(position)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean keysEqual(
+      TsBlock buildBlock,
+      int buildPosition,
+      TsBlock probeBlock,
+      int[] probeKeyPositions,
+      int probePosition) {
+    for (int i = 0; i < keyTypes.length; i++) {
+      if (!valueEquals(
+          keyTypes[i],
+          buildBlock.getColumn(keyPositions[i]),
+          buildPosition,
+          probeBlock.getColumn(probeKeyPositions[i]),
+          probePosition)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // only for the single integral join key
+  private long getLong(Column column, int position) {
+    return keyTypes[0] == TypeEnum.INT32 || keyTypes[0] == TypeEnum.DATE
+        ? column.getInt(position)
+        : column.getLong(position);
+  }
+
+  private static int hashValue(TypeEnum type, Column column, int position) {
+    switch (type) {
+      case INT32:
+      case DATE:
+        return Integer.hashCode(column.getInt(position));
+      case INT64:
+      case TIMESTAMP:
+        return Long.hashCode(column.getLong(position));
+      case FLOAT:
+        // +0.0 and -0.0 are equal
+        float floatValue = column.getFloat(position);
+        return floatValue == 0 ? 0 : Float.hashCode(floatValue);
+      case DOUBLE:
+        double doubleValue = column.getDouble(position);
+        return doubleValue == 0 ? 0 : Double.hashCode(doubleValue);
+      case BOOLEAN:
+        return Boolean.hashCode(column.getBoolean(position));
+      case TEXT:
+      case STRING:
+      case BLOB:
+        return Arrays.hashCode(column.getBinary(position).getValues());
+      default:
+        throw new UnsupportedOperationException("Unsupported join key type: " + type);
+    }
+  }
+
+  private static boolean valueEquals(
+      TypeEnum type, Column left, int leftPosition, Column right, int rightPosition) {
+    switch (type) {
+      case INT32:
+      case DATE:
+        return left.getInt(leftPosition) == right.getInt(rightPosition);
+      case INT64:
+      case TIMESTAMP:
+        return left.getLong(leftPosition) == right.getLong(rightPosition);
+      case FLOAT:
+        return left.getFloat(leftPosition) == right.getFloat(rightPosition);
+      case DOUBLE:
+        return left.getDouble(leftPosition) == right.getDouble(rightPosition);
+      case BOOLEAN:
+        return left.getBoolean(leftPosition) == right.getBoolean(rightPosition);
+      case TEXT:
+      case STRING:
+      case BLOB:
+        return left.getBinary(leftPosition).equals(right.getBinary(rightPosition));
+      default:
+        throw new UnsupportedOperationException("Unsupported join key type: " + type);
+    }
+  }
+}
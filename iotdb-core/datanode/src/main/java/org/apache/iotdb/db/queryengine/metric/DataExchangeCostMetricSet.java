@@ -160,6 +160,9 @@ public class DataExchangeCostMetricSet implements IMetricSet {
   private static final String GET_DATA_BLOCK_TASK = "get_data_block_task";
   public static final String GET_DATA_BLOCK_TASK_CALLER = GET_DATA_BLOCK_TASK + "_" + CALLER;
   public static final String GET_DATA_BLOCK_TASK_SERVER = GET_DATA_BLOCK_TASK + "_" + SERVER;
+  private static final String PUSH_DATA_BLOCK_TASK = "push_data_block_task";
+  public static final String PUSH_DATA_BLOCK_TASK_CALLER = PUSH_DATA_BLOCK_TASK + "_" + CALLER;
+  public static final String PUSH_DATA_BLOCK_TASK_SERVER = PUSH_DATA_BLOCK_TASK + "_" + SERVER;
 
   private Timer sendNewDataBlockEventCallerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer sendNewDataBlockEventServerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
@@ -167,6 +170,8 @@ public class DataExchangeCostMetricSet implements IMetricSet {
   private Timer onAcknowledgeDataBlockEventServerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer getDataBlockCallerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer getDataBlockServerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer pushDataBlockCallerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer pushDataBlockServerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   private void bindDataBlock(AbstractMetricService metricService) {
     sendNewDataBlockEventCallerTimer =
@@ -217,6 +222,22 @@ public class DataExchangeCostMetricSet implements IMetricSet {
             GET_DATA_BLOCK_TASK,
             Tag.TYPE.toString(),
             SERVER);
+    pushDataBlockCallerTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_EXCHANGE_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.OPERATION.toString(),
+            PUSH_DATA_BLOCK_TASK,
+            Tag.TYPE.toString(),
+            CALLER);
+    pushDataBlockServerTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_EXCHANGE_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.OPERATION.toString(),
+            PUSH_DATA_BLOCK_TASK,
+            Tag.TYPE.toString(),
+            SERVER);
   }
 
   private void unbindDataBlock(AbstractMetricService metricService) {
@@ -226,10 +247,13 @@ public class DataExchangeCostMetricSet implements IMetricSet {
     onAcknowledgeDataBlockEventServerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     getDataBlockCallerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     getDataBlockServerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    pushDataBlockCallerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    pushDataBlockServerTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     Arrays.asList(
             SEND_NEW_DATA_BLOCK_EVENT_TASK,
             ON_ACKNOWLEDGE_DATA_BLOCK_EVENT_TASK,
-            GET_DATA_BLOCK_TASK)
+            GET_DATA_BLOCK_TASK,
+            PUSH_DATA_BLOCK_TASK)
         .forEach(
             operation -> {
               Arrays.asList(CALLER, SERVER)
@@ -298,6 +322,12 @@ public class DataExchangeCostMetricSet implements IMetricSet {
       case SEND_NEW_DATA_BLOCK_EVENT_TASK_CALLER:
         sendNewDataBlockEventCallerTimer.updateNanos(costTimeInNanos);
         break;
+      case PUSH_DATA_BLOCK_TASK_SERVER:
+        pushDataBlockServerTimer.updateNanos(costTimeInNanos);
+        break;
+      case PUSH_DATA_BLOCK_TASK_CALLER:
+        pushDataBlockCallerTimer.updateNanos(costTimeInNanos);
+        break;
       default:
         break;
     }
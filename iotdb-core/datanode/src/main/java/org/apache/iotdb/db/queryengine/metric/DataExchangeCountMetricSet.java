@@ -55,6 +55,9 @@ public class DataExchangeCountMetricSet implements IMetricSet {
   private static final String GET_DATA_BLOCK_NUM = "get_data_block_num";
   public static final String GET_DATA_BLOCK_NUM_CALLER = GET_DATA_BLOCK_NUM + "_" + CALLER;
   public static final String GET_DATA_BLOCK_NUM_SERVER = GET_DATA_BLOCK_NUM + "_" + SERVER;
+  private static final String PUSH_DATA_BLOCK_NUM = "push_data_block_num";
+  public static final String PUSH_DATA_BLOCK_NUM_CALLER = PUSH_DATA_BLOCK_NUM + "_" + CALLER;
+  public static final String PUSH_DATA_BLOCK_NUM_SERVER = PUSH_DATA_BLOCK_NUM + "_" + SERVER;
 
   private static final MPPDataExchangeManager dataExchangeManager =
       MPPDataExchangeService.getInstance().getMPPDataExchangeManager();
@@ -71,6 +74,8 @@ public class DataExchangeCountMetricSet implements IMetricSet {
       DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram getDataBlockNumCallerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram getDataBlockNumServerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Histogram pushDataBlockNumCallerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Histogram pushDataBlockNumServerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
 
   @Override
   public void bindTo(AbstractMetricService metricService) {
@@ -122,6 +127,22 @@ public class DataExchangeCountMetricSet implements IMetricSet {
             GET_DATA_BLOCK_NUM,
             Tag.TYPE.toString(),
             SERVER);
+    pushDataBlockNumCallerHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.DATA_EXCHANGE_COUNT.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            PUSH_DATA_BLOCK_NUM,
+            Tag.TYPE.toString(),
+            CALLER);
+    pushDataBlockNumServerHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.DATA_EXCHANGE_COUNT.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            PUSH_DATA_BLOCK_NUM,
+            Tag.TYPE.toString(),
+            SERVER);
     metricService.createAutoGauge(
         Metric.DATA_EXCHANGE_SIZE.toString(),
         MetricLevel.IMPORTANT,
@@ -146,7 +167,13 @@ public class DataExchangeCountMetricSet implements IMetricSet {
     onAcknowledgeDataBlockNumServerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
     getDataBlockNumCallerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
     getDataBlockNumServerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
-    Arrays.asList(SEND_NEW_DATA_BLOCK_NUM, ON_ACKNOWLEDGE_DATA_BLOCK_NUM, GET_DATA_BLOCK_NUM)
+    pushDataBlockNumCallerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    pushDataBlockNumServerHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    Arrays.asList(
+            SEND_NEW_DATA_BLOCK_NUM,
+            ON_ACKNOWLEDGE_DATA_BLOCK_NUM,
+            GET_DATA_BLOCK_NUM,
+            PUSH_DATA_BLOCK_NUM)
         .forEach(
             name ->
                 Arrays.asList(CALLER, SERVER)
@@ -191,6 +218,12 @@ public class DataExchangeCountMetricSet implements IMetricSet {
       case GET_DATA_BLOCK_NUM_SERVER:
         getDataBlockNumServerHistogram.update(num);
         break;
+      case PUSH_DATA_BLOCK_NUM_CALLER:
+        pushDataBlockNumCallerHistogram.update(num);
+        break;
+      case PUSH_DATA_BLOCK_NUM_SERVER:
+        pushDataBlockNumServerHistogram.update(num);
+        break;
       default:
         break;
     }
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.metric;
+
+import org.apache.iotdb.commons.service.metric.enums.Metric;
+import org.apache.iotdb.commons.service.metric.enums.Tag;
+import org.apache.iotdb.db.storageengine.buffer.DeviceTimeIndexCache;
+import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
+import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Counter;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+import org.apache.iotdb.metrics.utils.MetricType;
+
+import java.util.Objects;
+
+public class DeviceTimeIndexCacheMetrics implements IMetricSet {
+
+  private static final String DEVICE_TIME_INDEX_CACHE_NAME = "degradedTimeIndex";
+  private static final String HIT = "hit";
+  private static final String MISS = "miss";
+
+  private final DeviceTimeIndexCache deviceTimeIndexCache;
+
+  private Counter hitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private Counter missCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+
+  public DeviceTimeIndexCacheMetrics(DeviceTimeIndexCache deviceTimeIndexCache) {
+    this.deviceTimeIndexCache = deviceTimeIndexCache;
+  }
+
+  @Override
+  public void bindTo(AbstractMetricService metricService) {
+    metricService.createAutoGauge(
+        Metric.CACHE_HIT_RATE.toString(),
+        MetricLevel.IMPORTANT,
+        deviceTimeIndexCache,
+        DeviceTimeIndexCache::getHitRate,
+        Tag.NAME.toString(),
+        DEVICE_TIME_INDEX_CACHE_NAME);
+    hitCounter =
+        metricService.getOrCreateCounter(
+            Metric.CACHE.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            DEVICE_TIME_INDEX_CACHE_NAME,
+            Tag.TYPE.toString(),
+            HIT);
+    missCounter =
+        metricService.getOrCreateCounter(
+            Metric.CACHE.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            DEVICE_TIME_INDEX_CACHE_NAME,
+            Tag.TYPE.toString(),
+            MISS);
+  }
+
+  @Override
+  public void unbindFrom(AbstractMetricService metricService) {
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.CACHE_HIT_RATE.toString(),
+        Tag.NAME.toString(),
+        DEVICE_TIME_INDEX_CACHE_NAME);
+    metricService.remove(
+        MetricType.COUNTER,
+        Metric.CACHE.toString(),
+        Tag.NAME.toString(),
+        DEVICE_TIME_INDEX_CACHE_NAME,
+        Tag.TYPE.toString(),
+        HIT);
+    metricService.remove(
+        MetricType.COUNTER,
+        Metric.CACHE.toString(),
+        Tag.NAME.toString(),
+        DEVICE_TIME_INDEX_CACHE_NAME,
+        Tag.TYPE.toString(),
+        MISS);
+    hitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    missCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  }
+
+  public void recordHit() {
+    hitCounter.inc();
+  }
+
+  public void recordMiss() {
+    missCounter.inc();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DeviceTimeIndexCacheMetrics that = (DeviceTimeIndexCacheMetrics) o;
+    return Objects.equals(deviceTimeIndexCache, that.deviceTimeIndexCache);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(deviceTimeIndexCache);
+  }
+}
@@ -25,6 +25,7 @@ import org.apache.iotdb.metrics.AbstractMetricService;
 import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
 import org.apache.iotdb.metrics.type.Histogram;
+import org.apache.iotdb.metrics.type.Timer;
 import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.metrics.utils.MetricType;
 
@@ -45,6 +46,8 @@ public class QueryResourceMetricSet implements IMetricSet {
   private Histogram unsequenceTsFileHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram flushingMemTableHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram workingMemTableHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Timer sequenceTsFileSelectionTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer unsequenceTsFileSelectionTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   public void recordQueryResourceNum(String type, int count) {
     switch (type) {
@@ -65,6 +68,20 @@ public class QueryResourceMetricSet implements IMetricSet {
     }
   }
 
+  /** Record the time spent in selecting the TsFiles of a query. Unit: ns */
+  public void recordQueryResourceSelectionCost(String type, long costTimeInNanos) {
+    switch (type) {
+      case SEQUENCE_TSFILE:
+        sequenceTsFileSelectionTimer.updateNanos(costTimeInNanos);
+        break;
+      case UNSEQUENCE_TSFILE:
+        unsequenceTsFileSelectionTimer.updateNanos(costTimeInNanos);
+        break;
+      default:
+        break;
+    }
+  }
+
   @Override
   public void bindTo(AbstractMetricService metricService) {
     sequenceTsFileHistogram =
@@ -91,6 +108,18 @@ public class QueryResourceMetricSet implements IMetricSet {
             MetricLevel.IMPORTANT,
             Tag.TYPE.toString(),
             WORKING_MEMTABLE);
+    sequenceTsFileSelectionTimer =
+        metricService.getOrCreateTimer(
+            Metric.QUERY_RESOURCE_SELECTION_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            SEQUENCE_TSFILE);
+    unsequenceTsFileSelectionTimer =
+        metricService.getOrCreateTimer(
+            Metric.QUERY_RESOURCE_SELECTION_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            UNSEQUENCE_TSFILE);
   }
 
   @Override
@@ -103,6 +132,14 @@ public class QueryResourceMetricSet implements IMetricSet {
                     Metric.QUERY_RESOURCE.toString(),
                     Tag.TYPE.toString(),
                     type));
+    Arrays.asList(SEQUENCE_TSFILE, UNSEQUENCE_TSFILE)
+        .forEach(
+            type ->
+                metricService.remove(
+                    MetricType.TIMER,
+                    Metric.QUERY_RESOURCE_SELECTION_COST.toString(),
+                    Tag.TYPE.toString(),
+                    type));
   }
 
   public static QueryResourceMetricSet getInstance() {
@@ -598,7 +598,7 @@ public class QueryExecution implements IQueryExecution {
                     stateMachine::transitionToFailed)
             : MPPDataExchangeService.getInstance()
                 .getMPPDataExchangeManager()
-                .createSourceHandle(
+                .createSourceHandleForQueryResult(
                     context.getResultNodeContext().getVirtualFragmentInstanceId().toThrift(),
                     context.getResultNodeContext().getVirtualResultNodeId().getId(),
                     0,
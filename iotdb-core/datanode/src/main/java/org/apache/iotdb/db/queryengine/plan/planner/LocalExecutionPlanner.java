@@ -104,6 +104,7 @@ public class LocalExecutionPlanner {
 
     // check whether current free memory is enough to execute current query
     long estimatedMemorySize = checkMemory(memoryEstimator, instanceContext.getStateMachine());
+    instanceContext.setChunkPrefetchMemoryInBytes(estimatedMemorySize);
 
     context.addPipelineDriverFactory(root, context.getDriverContext(), estimatedMemorySize);
 
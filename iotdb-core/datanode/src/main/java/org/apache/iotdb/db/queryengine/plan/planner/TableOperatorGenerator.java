@@ -69,6 +69,14 @@ import org.apache.iotdb.db.queryengine.execution.operator.process.gapfill.GapFil
 import org.apache.iotdb.db.queryengine.execution.operator.process.join.SimpleNestedLoopCrossJoinOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.join.merge.comparator.JoinKeyComparatorFactory;
 import org.apache.iotdb.db.queryengine.execution.operator.process.last.LastQueryUtil;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.CountWindowFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.ExtremeWindowFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.FrameValueWindowFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.OffsetWindowFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.RankingWindowFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.SumWindowFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.TableWindowOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.WindowFunction;
 import org.apache.iotdb.db.queryengine.execution.operator.schema.CountMergeOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.schema.SchemaCountOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.schema.SchemaQueryScanOperator;
@@ -80,6 +88,8 @@ import org.apache.iotdb.db.queryengine.execution.operator.source.ExchangeOperato
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractAggTableScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractTableScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.DefaultAggTableScanOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.HashJoinOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.HashSemiJoinOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.InformationSchemaTableScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.LastQueryAggTableScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.MergeSortFullOuterJoinOperator;
@@ -152,6 +162,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TopKNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TreeAlignedDeviceViewScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TreeNonAlignedDeviceViewScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ValueFillNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.TableDeviceFetchNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.TableDeviceQueryCountNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.TableDeviceQueryScanNode;
@@ -165,6 +176,7 @@ import org.apache.iotdb.db.queryengine.transformation.dag.column.ColumnTransform
 import org.apache.iotdb.db.queryengine.transformation.dag.column.leaf.LeafColumnTransformer;
 import org.apache.iotdb.db.queryengine.transformation.dag.column.unary.scalar.DateBinFunctionColumnTransformer;
 import org.apache.iotdb.db.schemaengine.schemaregion.read.resp.info.IDeviceSchemaInfo;
+import org.apache.iotdb.db.utils.constant.SqlConstant;
 import org.apache.iotdb.db.utils.datastructure.SortKey;
 
 import com.google.common.collect.ImmutableList;
@@ -923,7 +935,7 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
     }
   }
 
-  // used by fill and gapfill
+  // used by fill, gapfill and window
   private Comparator<SortKey> genFillGroupKeyComparator(
       List<Symbol> groupingKeys,
       SingleChildProcessNode node,
@@ -1351,10 +1363,99 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
         TSFileDescriptor.getInstance().getConfig().getMaxTsBlockLineNumber());
   }
 
+  @Override
+  public Operator visitWindow(WindowNode node, LocalExecutionPlanContext context) {
+    Operator child = node.getChild().accept(this, context);
+    OperatorContext operatorContext =
+        context
+            .getDriverContext()
+            .addOperatorContext(
+                context.getNextOperatorId(),
+                node.getPlanNodeId(),
+                TableWindowOperator.class.getSimpleName());
+
+    List<TSDataType> inputDataTypes =
+        getOutputColumnTypes(node.getChild(), context.getTypeProvider());
+    Map<Symbol, Integer> columnIndex =
+        makeLayoutFromOutputSymbols(node.getChild().getOutputSymbols());
+
+    WindowFunction[] windowFunctions = new WindowFunction[node.getWindowFunctions().size()];
+    int i = 0;
+    for (WindowNode.Function function : node.getWindowFunctions().values()) {
+      int channel =
+          function.getArguments().isEmpty() ? -1 : columnIndex.get(function.getArguments().get(0));
+      windowFunctions[i++] =
+          genWindowFunction(function, channel, channel < 0 ? null : inputDataTypes.get(channel));
+    }
+
+    Comparator<SortKey> partitionComparator =
+        node.getPartitionBy().isEmpty()
+            ? null
+            : genFillGroupKeyComparator(
+                node.getPartitionBy(), node, inputDataTypes, new HashSet<>());
+    Comparator<SortKey> peerComparator = null;
+    if (node.getOrderingScheme().isPresent()) {
+      OrderingScheme orderingScheme = node.getOrderingScheme().get();
+      List<Integer> sortItemIndexList = new ArrayList<>(orderingScheme.getOrderBy().size());
+      List<TSDataType> sortItemDataTypeList = new ArrayList<>(orderingScheme.getOrderBy().size());
+      for (Symbol symbol : orderingScheme.getOrderBy()) {
+        int index = columnIndex.get(symbol);
+        sortItemIndexList.add(index);
+        sortItemDataTypeList.add(inputDataTypes.get(index));
+      }
+      peerComparator =
+          getComparatorForTable(
+              orderingScheme.getOrderingList(), sortItemIndexList, sortItemDataTypeList);
+    }
+
+    return new TableWindowOperator(
+        operatorContext,
+        child,
+        inputDataTypes,
+        getOutputColumnTypes(node, context.getTypeProvider()),
+        windowFunctions,
+        partitionComparator,
+        peerComparator);
+  }
+
+  private WindowFunction genWindowFunction(
+      WindowNode.Function function, int channel, TSDataType inputType) {
+    switch (function.getName()) {
+      case "row_number":
+        return new RankingWindowFunction(RankingWindowFunction.Type.ROW_NUMBER);
+      case "rank":
+        return new RankingWindowFunction(RankingWindowFunction.Type.RANK);
+      case "dense_rank":
+        return new RankingWindowFunction(RankingWindowFunction.Type.DENSE_RANK);
+      case "lag":
+        return new OffsetWindowFunction(channel, function.getOffset(), false);
+      case "lead":
+        return new OffsetWindowFunction(channel, function.getOffset(), true);
+      case "first_value":
+        return new FrameValueWindowFunction(function.getFrame(), channel, false);
+      case "last_value":
+        return new FrameValueWindowFunction(function.getFrame(), channel, true);
+      case SqlConstant.COUNT:
+        return new CountWindowFunction(function.getFrame(), channel);
+      case SqlConstant.SUM:
+        return new SumWindowFunction(function.getFrame(), channel, inputType, false);
+      case SqlConstant.AVG:
+        return new SumWindowFunction(function.getFrame(), channel, inputType, true);
+      case SqlConstant.MIN:
+        return new ExtremeWindowFunction(function.getFrame(), channel, inputType, false);
+      case SqlConstant.MAX:
+        return new ExtremeWindowFunction(function.getFrame(), channel, inputType, true);
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported window function: " + function.getName());
+    }
+  }
+
   @Override
   public Operator visitJoin(JoinNode node, LocalExecutionPlanContext context) {
     List<TSDataType> dataTypes = getOutputColumnTypes(node, context.getTypeProvider());
 
+    boolean useHashJoin = isHashJoin(node.getDistributionType());
     Operator leftChild = node.getLeftChild().accept(this, context);
     Operator rightChild = node.getRightChild().accept(this, context);
 
@@ -1429,7 +1530,28 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
       joinKeyTypes.add(leftJoinKeyType);
     }
 
-    if (requireNonNull(node.getJoinType()) == JoinNode.JoinType.INNER) {
+    if (useHashJoin) {
+      OperatorContext operatorContext =
+          context
+              .getDriverContext()
+              .addOperatorContext(
+                  context.getNextOperatorId(),
+                  node.getPlanNodeId(),
+                  HashJoinOperator.class.getSimpleName());
+      return new HashJoinOperator(
+          operatorContext,
+          leftChild,
+          leftJoinKeyPositions,
+          leftOutputSymbolIdx,
+          rightChild,
+          rightJoinKeyPositions,
+          rightOutputSymbolIdx,
+          joinKeyTypes,
+          dataTypes,
+          node.getJoinType() == JoinNode.JoinType.LEFT,
+          getHashJoinTmpDir(operatorContext, context),
+          IoTDBDescriptor.getInstance().getConfig().getHashJoinBuildBufferSize());
+    } else if (requireNonNull(node.getJoinType()) == JoinNode.JoinType.INNER) {
       OperatorContext operatorContext =
           context
               .getDriverContext()
@@ -1471,6 +1593,23 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
     throw new IllegalStateException("Unsupported join type: " + node.getJoinType());
   }
 
+  /** The join algorithm is decided by the planner, merge sort join is used if it is empty. */
+  private static boolean isHashJoin(Optional<JoinNode.DistributionType> distributionType) {
+    return distributionType.isPresent() && distributionType.get() == JoinNode.DistributionType.HASH;
+  }
+
+  private String getHashJoinTmpDir(
+      OperatorContext operatorContext, LocalExecutionPlanContext context) {
+    context.getDriverContext().setHaveTmpFile(true);
+    context.getDriverContext().getFragmentInstanceContext().setMayHaveTmpFile(true);
+    return IoTDBDescriptor.getInstance().getConfig().getSortTmpDir()
+        + File.separator
+        + operatorContext.getDriverContext().getFragmentInstanceContext().getId().getFullId()
+        + File.separator
+        + operatorContext.getDriverContext().getPipelineId()
+        + File.separator;
+  }
+
   private BiFunction<Column, Integer, Column> buildUpdateLastRowFunction(Type joinKeyType) {
     switch (joinKeyType.getTypeEnum()) {
       case INT32:
@@ -1505,6 +1644,7 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
   public Operator visitSemiJoin(SemiJoinNode node, LocalExecutionPlanContext context) {
     List<TSDataType> dataTypes = getOutputColumnTypes(node, context.getTypeProvider());
 
+    boolean useHashJoin = isHashJoin(node.getDistributionType());
     Operator leftChild = node.getLeftChild().accept(this, context);
     Operator rightChild = node.getRightChild().accept(this, context);
 
@@ -1535,6 +1675,26 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
     checkIfJoinKeyTypeMatches(
         sourceJoinKeyType,
         context.getTypeProvider().getTableModelType(node.getFilteringSourceJoinSymbol()));
+    if (useHashJoin) {
+      OperatorContext operatorContext =
+          context
+              .getDriverContext()
+              .addOperatorContext(
+                  context.getNextOperatorId(),
+                  node.getPlanNodeId(),
+                  HashSemiJoinOperator.class.getSimpleName());
+      return new HashSemiJoinOperator(
+          operatorContext,
+          leftChild,
+          sourceJoinKeyPosition,
+          sourceOutputSymbolIdx,
+          rightChild,
+          filteringSourceJoinKeyPosition,
+          sourceJoinKeyType,
+          dataTypes,
+          getHashJoinTmpDir(operatorContext, context),
+          IoTDBDescriptor.getInstance().getConfig().getHashJoinBuildBufferSize());
+    }
     OperatorContext operatorContext =
         context
             .getDriverContext()
@@ -76,6 +76,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SemiJoinNode
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TableScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TreeDeviceViewScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ValueFillNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.tsfile.utils.Pair;
@@ -799,6 +800,20 @@ public class PlanGraphPrinter extends PlanVisitor<List<String>, PlanGraphPrinter
     return render(node, boxValue, context);
   }
 
+  @Override
+  public List<String> visitWindow(WindowNode node, GraphContext context) {
+    List<String> boxValue = new ArrayList<>();
+    boxValue.add(String.format("Window-%s", node.getPlanNodeId().getId()));
+    if (!node.getPartitionBy().isEmpty()) {
+      boxValue.add(String.format("PartitionBy: %s", node.getPartitionBy()));
+    }
+    node.getOrderingScheme()
+        .ifPresent(orderingScheme -> boxValue.add(String.format("OrderBy: %s", orderingScheme)));
+    node.getWindowFunctions()
+        .forEach((symbol, function) -> boxValue.add(String.format("%s := %s", symbol, function)));
+    return render(node, boxValue, context);
+  }
+
   @Override
   public List<String> visitPreviousFill(PreviousFillNode node, GraphContext context) {
     List<String> boxValue = new ArrayList<>();
@@ -926,6 +941,10 @@ public class PlanGraphPrinter extends PlanVisitor<List<String>, PlanGraphPrinter
     List<String> boxValue = new ArrayList<>();
     boxValue.add(String.format("Join-%s", node.getPlanNodeId().getId()));
     boxValue.add(String.format("JoinType: %s", node.getJoinType()));
+    node.getDistributionType()
+        .ifPresent(
+            distributionType ->
+                boxValue.add(String.format("DistributionType: %s", distributionType)));
     boxValue.add(String.format("JoinCriteria: %s", node.getCriteria()));
     boxValue.add(String.format("LeftOutputSymbols: %s", node.getLeftOutputSymbols()));
     boxValue.add(String.format("RightOutputSymbols: %s", node.getRightOutputSymbols()));
@@ -944,6 +963,10 @@ public class PlanGraphPrinter extends PlanVisitor<List<String>, PlanGraphPrinter
     boxValue.add(String.format("SourceJoinSymbol: %s", node.getSourceJoinSymbol()));
     boxValue.add(
         String.format("FilteringSourceJoinSymbol: %s", node.getFilteringSourceJoinSymbol()));
+    node.getDistributionType()
+        .ifPresent(
+            distributionType ->
+                boxValue.add(String.format("DistributionType: %s", distributionType)));
     return render(node, boxValue, context);
   }
 
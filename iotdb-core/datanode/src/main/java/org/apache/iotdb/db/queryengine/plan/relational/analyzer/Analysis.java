@@ -159,6 +159,8 @@ public class Analysis implements IAnalysis {
 
   private final Map<NodeRef<QuerySpecification>, List<FunctionCall>> aggregates =
       new LinkedHashMap<>();
+  private final Map<NodeRef<QuerySpecification>, List<FunctionCall>> windowFunctions =
+      new LinkedHashMap<>();
   private final Map<NodeRef<OrderBy>, List<Expression>> orderByAggregates = new LinkedHashMap<>();
   private final Map<NodeRef<QuerySpecification>, GroupingSetAnalysis> groupingSets =
       new LinkedHashMap<>();
@@ -349,6 +351,14 @@ public class Analysis implements IAnalysis {
         || (aggregates.size() == 1 && aggregates.entrySet().iterator().next().getValue().isEmpty());
   }
 
+  public void setWindowFunctions(QuerySpecification node, List<FunctionCall> functions) {
+    this.windowFunctions.put(NodeRef.of(node), ImmutableList.copyOf(functions));
+  }
+
+  public List<FunctionCall> getWindowFunctions(QuerySpecification query) {
+    return windowFunctions.getOrDefault(NodeRef.of(query), ImmutableList.of());
+  }
+
   public void setOrderByAggregates(OrderBy node, List<Expression> aggregates) {
     this.orderByAggregates.put(NodeRef.of(node), ImmutableList.copyOf(aggregates));
   }
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.queryengine.plan.relational.analyzer;
 
+import org.apache.iotdb.commons.udf.builtin.relational.TableBuiltinWindowFunction;
 import org.apache.iotdb.db.exception.sql.SemanticException;
 import org.apache.iotdb.db.queryengine.common.MPPQueryContext;
 import org.apache.iotdb.db.queryengine.common.SessionInfo;
@@ -53,6 +54,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.DoubleLiteral;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ExistsPredicate;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FieldReference;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FunctionCall;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.GenericLiteral;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Identifier;
@@ -74,12 +76,15 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.QuantifiedCompari
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Row;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SearchedCaseExpression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SimpleCaseExpression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SortItem;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.StackableAstVisitor;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.StringLiteral;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SubqueryExpression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SymbolReference;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Trim;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WhenClause;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowFrame;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowSpecification;
 import org.apache.iotdb.db.queryengine.plan.relational.type.TypeNotFoundException;
 
 import com.google.common.collect.HashMultimap;
@@ -764,6 +769,14 @@ public class ExpressionAnalyzer {
     protected Type visitFunctionCall(
         FunctionCall node, StackableAstVisitorContext<Context> context) {
       String functionName = node.getName().getSuffix();
+      if (node.getWindow().isPresent()) {
+        return analyzeWindowFunction(node, context);
+      }
+      if (TableBuiltinWindowFunction.getBuiltInWindowFunctionName()
+          .contains(functionName.toLowerCase(Locale.ENGLISH))) {
+        throw new SemanticException(
+            String.format("Window function %s requires an OVER clause", functionName));
+      }
       boolean isAggregation = metadata.isAggregationFunction(session, functionName, accessControl);
       // argument of the form `label.*` is only allowed for row pattern count function
       node.getArguments().stream()
@@ -811,6 +824,134 @@ public class ExpressionAnalyzer {
       return setExpressionType(node, type);
     }
 
+    private Type analyzeWindowFunction(
+        FunctionCall node, StackableAstVisitorContext<Context> context) {
+      String functionName = node.getName().getSuffix().toLowerCase(Locale.ENGLISH);
+      WindowSpecification window = node.getWindow().get();
+
+      if (node.isDistinct()) {
+        throw new SemanticException("DISTINCT is not supported for window functions");
+      }
+
+      for (Expression expression : window.getPartitionBy()) {
+        Type type = process(expression, context);
+        if (!type.isComparable()) {
+          throw new SemanticException(
+              String.format(
+                  "%s is not comparable, and therefore cannot be used in window function PARTITION BY",
+                  type));
+        }
+      }
+      if (window.getOrderBy().isPresent()) {
+        for (SortItem sortItem : window.getOrderBy().get().getSortItems()) {
+          Type type = process(sortItem.getSortKey(), context);
+          if (!type.isOrderable()) {
+            throw new SemanticException(
+                String.format(
+                    "%s is not orderable, and therefore cannot be used in window function ORDER BY",
+                    type));
+          }
+        }
+      }
+      window.getFrame().ifPresent(frame -> analyzeWindowFrame(frame, context));
+
+      List<Type> argumentTypes = getCallArgumentTypes(node.getArguments(), context);
+
+      Type type;
+      FunctionKind functionKind = FunctionKind.WINDOW;
+      switch (functionName) {
+        case "row_number":
+        case "rank":
+        case "dense_rank":
+          if (!argumentTypes.isEmpty()) {
+            throw new SemanticException(
+                String.format("Window function %s should not have any argument", functionName));
+          }
+          type = INT64;
+          break;
+        case "lag":
+        case "lead":
+          if (argumentTypes.isEmpty() || argumentTypes.size() > 2) {
+            throw new SemanticException(
+                String.format("Window function %s should have one or two arguments", functionName));
+          }
+          if (argumentTypes.size() == 2) {
+            checkNonNegativeOffset(node.getArguments().get(1), "Offset of " + functionName);
+          }
+          type = argumentTypes.get(0);
+          break;
+        case "first_value":
+        case "last_value":
+          if (argumentTypes.size() != 1) {
+            throw new SemanticException(
+                String.format("Window function %s should only have one argument", functionName));
+          }
+          type = argumentTypes.get(0);
+          break;
+        case "count":
+        case "sum":
+        case "avg":
+        case "min":
+        case "max":
+          // validated in the same way as the aggregation functions
+          type = metadata.getFunctionReturnType(functionName, argumentTypes);
+          functionKind = FunctionKind.AGGREGATE;
+          break;
+        default:
+          throw new SemanticException(
+              String.format("Unsupported window function: %s", functionName));
+      }
+
+      resolvedFunctions.put(
+          NodeRef.of(node),
+          new ResolvedFunction(
+              new BoundSignature(functionName, type, argumentTypes),
+              new FunctionId("noop"),
+              functionKind,
+              true,
+              FunctionNullability.getAggregationFunctionNullability(argumentTypes.size())));
+      return setExpressionType(node, type);
+    }
+
+    private void analyzeWindowFrame(
+        WindowFrame frame, StackableAstVisitorContext<Context> context) {
+      FrameBound.Type startType = frame.getStart().getType();
+      FrameBound.Type endType =
+          frame.getEnd().map(FrameBound::getType).orElse(FrameBound.Type.CURRENT_ROW);
+
+      if (startType == FrameBound.Type.UNBOUNDED_FOLLOWING) {
+        throw new SemanticException("Window frame start cannot be UNBOUNDED FOLLOWING");
+      }
+      if (endType == FrameBound.Type.UNBOUNDED_PRECEDING) {
+        throw new SemanticException("Window frame end cannot be UNBOUNDED PRECEDING");
+      }
+      if (startType.ordinal() > endType.ordinal()) {
+        throw new SemanticException(
+            String.format("Window frame starting from %s cannot end with %s", startType, endType));
+      }
+
+      for (FrameBound bound :
+          frame.getEnd().isPresent()
+              ? ImmutableList.of(frame.getStart(), frame.getEnd().get())
+              : ImmutableList.of(frame.getStart())) {
+        if (bound.getValue().isPresent()) {
+          if (frame.getType() == WindowFrame.Type.RANGE) {
+            throw new SemanticException(
+                "Window frame of type RANGE only supports UNBOUNDED and CURRENT ROW bounds");
+          }
+          process(bound.getValue().get(), context);
+          checkNonNegativeOffset(bound.getValue().get(), "Window frame offset");
+        }
+      }
+    }
+
+    private void checkNonNegativeOffset(Expression offset, String description) {
+      if (!(offset instanceof LongLiteral) || ((LongLiteral) offset).getParsedValue() < 0) {
+        throw new SemanticException(
+            String.format("%s must be a non-negative integer literal: %s", description, offset));
+      }
+    }
+
     public List<Type> getCallArgumentTypes(
         List<Expression> arguments, StackableAstVisitorContext<Context> context) {
       ImmutableList.Builder<Type> argumentTypesBuilder = ImmutableList.builder();
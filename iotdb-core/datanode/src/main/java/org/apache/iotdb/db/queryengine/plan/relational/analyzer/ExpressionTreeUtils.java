@@ -46,6 +46,10 @@ public final class ExpressionTreeUtils {
     return extractExpressions(nodes, FunctionCall.class, ExpressionTreeUtils::isAggregation);
   }
 
+  static List<FunctionCall> extractWindowFunctions(Iterable<? extends Node> nodes) {
+    return extractExpressions(nodes, FunctionCall.class, ExpressionTreeUtils::isWindowFunction);
+  }
+
   public static <T extends Expression> List<T> extractExpressions(
       Iterable<? extends Node> nodes, Class<T> clazz) {
     return extractExpressions(nodes, clazz, alwaysTrue());
@@ -66,7 +70,13 @@ public final class ExpressionTreeUtils {
   }
 
   private static boolean isAggregation(FunctionCall functionCall) {
-    return isAggregationFunction(functionCall.getName().toString());
+    // an aggregation function followed by an OVER clause is evaluated as a window function
+    return isAggregationFunction(functionCall.getName().toString())
+        && !functionCall.getWindow().isPresent();
+  }
+
+  private static boolean isWindowFunction(FunctionCall functionCall) {
+    return functionCall.getWindow().isPresent();
   }
 
   private static List<Node> linearizeNodes(Node node) {
@@ -196,6 +196,7 @@ import static org.apache.iotdb.db.queryengine.plan.relational.analyzer.Aggregati
 import static org.apache.iotdb.db.queryengine.plan.relational.analyzer.CanonicalizationAware.canonicalizationAwareKey;
 import static org.apache.iotdb.db.queryengine.plan.relational.analyzer.ExpressionTreeUtils.asQualifiedName;
 import static org.apache.iotdb.db.queryengine.plan.relational.analyzer.ExpressionTreeUtils.extractAggregateFunctions;
+import static org.apache.iotdb.db.queryengine.plan.relational.analyzer.ExpressionTreeUtils.extractWindowFunctions;
 import static org.apache.iotdb.db.queryengine.plan.relational.analyzer.Scope.BasisType.TABLE;
 import static org.apache.iotdb.db.queryengine.plan.relational.metadata.MetadataUtil.createQualifiedObjectName;
 import static org.apache.iotdb.db.queryengine.plan.relational.metadata.TableMetadataImpl.isTimestampType;
@@ -968,6 +969,8 @@ public class StatementAnalyzer {
         }
       }
 
+      analyzeWindowFunctions(node, orderByExpressions);
+
       List<Expression> sourceExpressions = new ArrayList<>();
       analysis.getSelectExpressions(node).stream()
           .map(Analysis.SelectExpression::getExpression)
@@ -2530,6 +2533,46 @@ public class StatementAnalyzer {
     //      return OptionalLong.of((long) value);
     //    }
 
+    private void analyzeWindowFunctions(
+        QuerySpecification node, List<Expression> orderByExpressions) {
+      if (!extractWindowFunctions(orderByExpressions).isEmpty()) {
+        throw new SemanticException(
+            "ORDER BY clause cannot contain window functions, refer to them by their SELECT alias instead");
+      }
+      if (node.getHaving().isPresent()
+          && !extractWindowFunctions(ImmutableList.of(node.getHaving().get())).isEmpty()) {
+        throw new SemanticException("HAVING clause cannot contain window functions");
+      }
+
+      List<FunctionCall> windowFunctions =
+          extractWindowFunctions(
+              analysis.getSelectExpressions(node).stream()
+                  .map(Analysis.SelectExpression::getExpression)
+                  .collect(toImmutableList()));
+      if (windowFunctions.isEmpty()) {
+        return;
+      }
+      if (analysis.isAggregation(node) || node.getSelect().isDistinct()) {
+        throw new SemanticException(
+            "Window functions are not supported in queries with aggregation or SELECT DISTINCT");
+      }
+      for (FunctionCall windowFunction : windowFunctions) {
+        List<Node> nestedNodes =
+            ImmutableList.<Node>builder()
+                .addAll(windowFunction.getArguments())
+                .add(windowFunction.getWindow().get())
+                .build();
+        if (!extractWindowFunctions(nestedNodes).isEmpty()
+            || !extractAggregateFunctions(nestedNodes).isEmpty()) {
+          throw new SemanticException(
+              String.format(
+                  "Cannot nest window functions or aggregations inside window function %s",
+                  windowFunction));
+        }
+      }
+      analysis.setWindowFunctions(node, windowFunctions);
+    }
+
     private void analyzeAggregations(
         QuerySpecification node,
         Scope sourceScope,
@@ -3096,12 +3139,13 @@ public class StatementAnalyzer {
 
   static void verifyNoAggregateWindowOrGroupingFunctions(Expression predicate, String clause) {
     List<FunctionCall> aggregates = extractAggregateFunctions(ImmutableList.of(predicate));
+    List<FunctionCall> windowFunctions = extractWindowFunctions(ImmutableList.of(predicate));
 
-    if (!aggregates.isEmpty()) {
+    if (!aggregates.isEmpty() || !windowFunctions.isEmpty()) {
       throw new SemanticException(
           String.format(
               "%s cannot contain aggregations, window functions or grouping operations: %s",
-              clause, aggregates));
+              clause, aggregates.isEmpty() ? windowFunctions : aggregates));
     }
   }
 }
@@ -40,11 +40,13 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.node.PreviousFill
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ProjectNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ValueFillNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Cast;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Delete;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FieldReference;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Fill;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FunctionCall;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.LongLiteral;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Node;
@@ -54,6 +56,8 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Query;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.QueryBody;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.QuerySpecification;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SortItem;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowFrame;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowSpecification;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -72,6 +76,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -94,6 +99,7 @@ import static org.apache.iotdb.db.queryengine.plan.relational.planner.ir.GapFill
 import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode.groupingSets;
 import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode.singleAggregation;
 import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode.singleGroupingSet;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode.Frame.DEFAULT_FRAME;
 
 public class QueryPlanner {
   private final Analysis analysis;
@@ -202,6 +208,7 @@ public class QueryPlanner {
             .map(Analysis.SelectExpression::getExpression)
             .collect(toImmutableList());
     builder = subqueryPlanner.handleSubqueries(builder, expressions, analysis.getSubqueries(node));
+    builder = window(builder, node);
 
     if (hasExpressionsToUnfold(selectExpressions)) {
       // pre-project the folded expressions to preserve any non-deterministic semantics of functions
@@ -804,6 +811,140 @@ public class QueryPlanner {
             queryIdAllocator.genPlanNodeId(), subPlan.getRoot(), orderingScheme, false, false));
   }
 
+  private PlanBuilder window(PlanBuilder subPlan, QuerySpecification node) {
+    List<FunctionCall> windowFunctions = analysis.getWindowFunctions(node);
+    if (windowFunctions.isEmpty()) {
+      return subPlan;
+    }
+
+    // calls sharing PARTITION BY and ORDER BY are evaluated by the same WindowNode, the frame may
+    // differ between them
+    Map<List<Object>, List<FunctionCall>> functionsBySpecification = new LinkedHashMap<>();
+    for (FunctionCall function : scopeAwareDistinct(subPlan, windowFunctions)) {
+      WindowSpecification window = function.getWindow().get();
+      functionsBySpecification
+          .computeIfAbsent(
+              Arrays.asList(window.getPartitionBy(), window.getOrderBy()), k -> new ArrayList<>())
+          .add(function);
+    }
+
+    for (List<FunctionCall> functions : functionsBySpecification.values()) {
+      subPlan = planWindow(subPlan, functions);
+    }
+    return subPlan;
+  }
+
+  private PlanBuilder planWindow(PlanBuilder subPlan, List<FunctionCall> functions) {
+    WindowSpecification window = functions.get(0).getWindow().get();
+    List<SortItem> sortItems =
+        window.getOrderBy().map(OrderBy::getSortItems).orElse(ImmutableList.of());
+
+    ImmutableList.Builder<Expression> inputBuilder = ImmutableList.builder();
+    inputBuilder.addAll(window.getPartitionBy());
+    sortItems.stream().map(SortItem::getSortKey).forEach(inputBuilder::add);
+    for (FunctionCall function : functions) {
+      inputBuilder.addAll(getWindowFunctionInputs(function));
+    }
+    subPlan = subPlan.appendProjections(inputBuilder.build(), symbolAllocator, queryContext);
+
+    List<Symbol> partitionBy = new ArrayList<>();
+    ImmutableList.Builder<Symbol> orderBySymbols = ImmutableList.builder();
+    Map<Symbol, SortOrder> orderings = new HashMap<>();
+    for (Expression expression : window.getPartitionBy()) {
+      Symbol symbol = subPlan.translate(expression);
+      if (!orderings.containsKey(symbol)) {
+        partitionBy.add(symbol);
+        orderBySymbols.add(symbol);
+        orderings.put(symbol, ASC_NULLS_LAST);
+      }
+    }
+    ImmutableList.Builder<Symbol> windowOrderBySymbols = ImmutableList.builder();
+    Map<Symbol, SortOrder> windowOrderings = new HashMap<>();
+    for (SortItem sortItem : sortItems) {
+      Symbol symbol = subPlan.translate(sortItem.getSortKey());
+      if (!orderings.containsKey(symbol)) {
+        orderBySymbols.add(symbol);
+        orderings.put(symbol, sortItemToSortOrder(sortItem));
+        windowOrderBySymbols.add(symbol);
+        windowOrderings.put(symbol, sortItemToSortOrder(sortItem));
+      }
+    }
+
+    // the WindowNode consumes one partition after another, ordered within each partition. When the
+    // keys are the tag columns followed by time, TransformSortToStreamSort and SortElimination turn
+    // this SortNode into a stream sort or remove it, as the scan already returns that order
+    if (!orderings.isEmpty()) {
+      analysis.setSortNode(true);
+      subPlan =
+          subPlan.withNewRoot(
+              new SortNode(
+                  queryIdAllocator.genPlanNodeId(),
+                  subPlan.getRoot(),
+                  new OrderingScheme(orderBySymbols.build(), orderings),
+                  false,
+                  false));
+    }
+    List<Symbol> windowOrderBy = windowOrderBySymbols.build();
+    Optional<OrderingScheme> windowOrderingScheme =
+        windowOrderBy.isEmpty()
+            ? Optional.empty()
+            : Optional.of(new OrderingScheme(windowOrderBy, windowOrderings));
+
+    Map<Symbol, WindowNode.Function> windowFunctions = new LinkedHashMap<>();
+    Map<ScopeAware<Expression>, Symbol> mappings = new LinkedHashMap<>();
+    for (FunctionCall function : functions) {
+      Symbol symbol = symbolAllocator.newSymbol(function, analysis.getType(function));
+      List<Symbol> arguments =
+          getWindowFunctionInputs(function).stream()
+              .map(subPlan::translate)
+              .collect(toImmutableList());
+      long offset =
+          function.getArguments().size() == 2
+              ? ((LongLiteral) function.getArguments().get(1)).getParsedValue()
+              : 1;
+      windowFunctions.put(
+          symbol,
+          new WindowNode.Function(
+              function.getName().getSuffix().toLowerCase(Locale.ENGLISH),
+              arguments,
+              offset,
+              function
+                  .getWindow()
+                  .get()
+                  .getFrame()
+                  .map(QueryPlanner::toFrame)
+                  .orElse(DEFAULT_FRAME)));
+      mappings.put(scopeAwareKey(function, analysis, subPlan.getScope()), symbol);
+    }
+
+    WindowNode windowNode =
+        new WindowNode(
+            queryIdAllocator.genPlanNodeId(),
+            subPlan.getRoot(),
+            partitionBy,
+            windowOrderingScheme,
+            windowFunctions);
+    return new PlanBuilder(subPlan.getTranslations().withAdditionalMappings(mappings), windowNode);
+  }
+
+  // the second argument of lag and lead is an offset literal instead of an input column
+  private static List<Expression> getWindowFunctionInputs(FunctionCall function) {
+    return function.getArguments().size() == 2
+        ? ImmutableList.of(function.getArguments().get(0))
+        : function.getArguments();
+  }
+
+  private static WindowNode.Frame toFrame(WindowFrame frame) {
+    FrameBound start = frame.getStart();
+    FrameBound end = frame.getEnd().orElse(new FrameBound(FrameBound.Type.CURRENT_ROW));
+    return new WindowNode.Frame(
+        frame.getType(),
+        start.getType(),
+        start.getValue().map(value -> ((LongLiteral) value).getParsedValue()).orElse(0L),
+        end.getType(),
+        end.getValue().map(value -> ((LongLiteral) value).getParsedValue()).orElse(0L));
+  }
+
   private PlanBuilder distinct(
       PlanBuilder subPlan, QuerySpecification node, List<Expression> expressions) {
     if (node.getSelect().isDistinct()) {
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.cost;
+
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.GroupReference;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Lookup;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Memo;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the stats of plan nodes. The stats of a group are stored in the {@link Memo}, so they are
+ * shared by the rules applied to the plan until the group or one of its descendants is replaced.
+ */
+public final class CachingStatsProvider implements StatsProvider {
+
+  private final StatsCalculator statsCalculator;
+  private final Optional<Memo> memo;
+  private final Lookup lookup;
+
+  private final Map<PlanNode, PlanNodeStatsEstimate> cache = new IdentityHashMap<>();
+
+  public CachingStatsProvider(StatsCalculator statsCalculator, Lookup lookup) {
+    this(statsCalculator, Optional.empty(), lookup);
+  }
+
+  public CachingStatsProvider(StatsCalculator statsCalculator, Optional<Memo> memo, Lookup lookup) {
+    this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
+    this.memo = requireNonNull(memo, "memo is null");
+    this.lookup = requireNonNull(lookup, "lookup is null");
+  }
+
+  @Override
+  public PlanNodeStatsEstimate getStats(PlanNode node) {
+    requireNonNull(node, "node is null");
+
+    if (node instanceof GroupReference) {
+      return getGroupStats((GroupReference) node);
+    }
+
+    PlanNodeStatsEstimate stats = cache.get(node);
+    if (stats != null) {
+      return stats;
+    }
+
+    stats = statsCalculator.calculateStats(node, this, lookup);
+    verifyStats(stats);
+    cache.put(node, stats);
+    return stats;
+  }
+
+  private PlanNodeStatsEstimate getGroupStats(GroupReference groupReference) {
+    int group = groupReference.getGroupId();
+    Memo memo =
+        this.memo.orElseThrow(
+            () ->
+                new IllegalStateException(
+                    "CachingStatsProvider without memo cannot handle GroupReferences"));
+
+    Optional<PlanNodeStatsEstimate> stats = memo.getStats(group);
+    if (stats.isPresent()) {
+      return stats.get();
+    }
+
+    PlanNodeStatsEstimate groupStats =
+        statsCalculator.calculateStats(memo.getNode(group), this, lookup);
+    verifyStats(groupStats);
+    memo.storeStats(group, groupStats);
+    return groupStats;
+  }
+
+  private static void verifyStats(PlanNodeStatsEstimate stats) {
+    checkState(stats != null, "StatsCalculator returned null");
+  }
+}
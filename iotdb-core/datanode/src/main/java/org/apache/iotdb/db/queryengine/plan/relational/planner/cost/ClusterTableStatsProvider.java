@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.cost;
+
+import org.apache.iotdb.db.queryengine.plan.relational.metadata.QualifiedObjectName;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.TableStatistics;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.TableStatisticsManager;
+
+import java.util.Optional;
+
+/**
+ * Provides the statistics of a table merged from all the data regions of its database in the
+ * cluster. The statistics are collected in the background and cached by {@link
+ * TableStatisticsManager}, so they may lag behind the latest writes, but no TsFile is read while
+ * planning.
+ */
+public class ClusterTableStatsProvider implements TableStatsProvider {
+
+  private static final ClusterTableStatsProvider INSTANCE = new ClusterTableStatsProvider();
+
+  public static ClusterTableStatsProvider getInstance() {
+    return INSTANCE;
+  }
+
+  private ClusterTableStatsProvider() {}
+
+  @Override
+  public Optional<TableStatistics> getTableStatistics(QualifiedObjectName table) {
+    return TableStatisticsManager.getInstance()
+        .getTableStatistics(table.getDatabaseName(), table.getObjectName());
+  }
+}
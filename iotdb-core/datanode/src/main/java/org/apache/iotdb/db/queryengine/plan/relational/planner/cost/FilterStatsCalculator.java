@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.cost;
+
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.BetweenPredicate;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.BooleanLiteral;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ComparisonExpression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.InListExpression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.InPredicate;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.IsNotNullPredicate;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.IsNullPredicate;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Literal;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.LogicalExpression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.NotExpression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SymbolReference;
+
+import java.util.OptionalDouble;
+
+import static java.lang.Double.isNaN;
+import static org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ComparisonExpression.Operator.GREATER_THAN_OR_EQUAL;
+import static org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ComparisonExpression.Operator.LESS_THAN_OR_EQUAL;
+
+/**
+ * Estimates the statistics of the rows satisfying a predicate. Conjuncts are assumed to be
+ * independent, values of a symbol are assumed to be uniformly distributed in its range, and
+ * predicates that can't be estimated keep {@link #UNKNOWN_FILTER_COEFFICIENT} of the rows.
+ */
+public final class FilterStatsCalculator {
+
+  public static final double UNKNOWN_FILTER_COEFFICIENT = 0.9;
+
+  private FilterStatsCalculator() {}
+
+  public static PlanNodeStatsEstimate filterStats(
+      PlanNodeStatsEstimate input, Expression predicate) {
+    if (input.isOutputRowCountUnknown()) {
+      return input;
+    }
+    PlanNodeStatsEstimate result = estimate(input, predicate);
+    return result.withOutputRowCount(result.getOutputRowCount());
+  }
+
+  private static PlanNodeStatsEstimate estimate(PlanNodeStatsEstimate input, Expression predicate) {
+    if (predicate instanceof BooleanLiteral) {
+      return ((BooleanLiteral) predicate).getValue() ? input : input.withOutputRowCount(0);
+    }
+    if (predicate instanceof LogicalExpression) {
+      return estimateLogical(input, (LogicalExpression) predicate);
+    }
+    if (predicate instanceof NotExpression) {
+      PlanNodeStatsEstimate negated = estimate(input, ((NotExpression) predicate).getValue());
+      return input.withOutputRowCount(
+          Math.max(0, input.getOutputRowCount() - negated.getOutputRowCount()));
+    }
+    if (predicate instanceof ComparisonExpression) {
+      return estimateComparison(input, (ComparisonExpression) predicate);
+    }
+    if (predicate instanceof BetweenPredicate) {
+      BetweenPredicate between = (BetweenPredicate) predicate;
+      PlanNodeStatsEstimate result =
+          estimate(
+              input,
+              new ComparisonExpression(
+                  GREATER_THAN_OR_EQUAL, between.getValue(), between.getMin()));
+      return estimate(
+          result,
+          new ComparisonExpression(LESS_THAN_OR_EQUAL, between.getValue(), between.getMax()));
+    }
+    if (predicate instanceof InPredicate) {
+      return estimateIn(input, (InPredicate) predicate);
+    }
+    if (predicate instanceof IsNullPredicate
+        && ((IsNullPredicate) predicate).getValue() instanceof SymbolReference) {
+      Symbol symbol = Symbol.from(((IsNullPredicate) predicate).getValue());
+      SymbolStatsEstimate stats = input.getSymbolStatistics(symbol);
+      if (isNaN(stats.getNullsFraction())) {
+        return unknownFilter(input);
+      }
+      return input
+          .withOutputRowCount(input.getOutputRowCount() * stats.getNullsFraction())
+          .withSymbolStatistics(symbol, new SymbolStatsEstimate(Double.NaN, Double.NaN, 1, 0));
+    }
+    if (predicate instanceof IsNotNullPredicate
+        && ((IsNotNullPredicate) predicate).getValue() instanceof SymbolReference) {
+      Symbol symbol = Symbol.from(((IsNotNullPredicate) predicate).getValue());
+      SymbolStatsEstimate stats = input.getSymbolStatistics(symbol);
+      return input
+          .withOutputRowCount(input.getOutputRowCount() * stats.getValuesFraction())
+          .withSymbolStatistics(symbol, stats.withNullsFraction(0));
+    }
+    return unknownFilter(input);
+  }
+
+  private static PlanNodeStatsEstimate estimateLogical(
+      PlanNodeStatsEstimate input, LogicalExpression predicate) {
+    if (predicate.getOperator() == LogicalExpression.Operator.AND) {
+      PlanNodeStatsEstimate result = input;
+      for (Expression term : predicate.getTerms()) {
+        result = estimate(result, term);
+      }
+      return result;
+    }
+    if (input.getOutputRowCount() == 0) {
+      return input;
+    }
+    // P(A or B) = P(A) + P(B) - P(A) * P(B)
+    double selectivity = 0;
+    for (Expression term : predicate.getTerms()) {
+      double termSelectivity =
+          estimate(input, term).getOutputRowCount() / input.getOutputRowCount();
+      selectivity = selectivity + termSelectivity - selectivity * termSelectivity;
+    }
+    return input.withOutputRowCount(input.getOutputRowCount() * selectivity);
+  }
+
+  private static PlanNodeStatsEstimate estimateComparison(
+      PlanNodeStatsEstimate input, ComparisonExpression predicate) {
+    Expression left = predicate.getLeft();
+    Expression right = predicate.getRight();
+    if (left instanceof SymbolReference && right instanceof Literal) {
+      return estimateComparisonWithLiteral(
+          input, Symbol.from(left), predicate.getOperator(), (Literal) right);
+    }
+    if (left instanceof Literal && right instanceof SymbolReference) {
+      return estimateComparisonWithLiteral(
+          input, Symbol.from(right), predicate.getOperator().flip(), (Literal) left);
+    }
+    if (left instanceof SymbolReference
+        && right instanceof SymbolReference
+        && predicate.getOperator() == ComparisonExpression.Operator.EQUAL) {
+      SymbolStatsEstimate leftStats = input.getSymbolStatistics(Symbol.from(left));
+      SymbolStatsEstimate rightStats = input.getSymbolStatistics(Symbol.from(right));
+      double distinctValuesCount =
+          Math.max(leftStats.getDistinctValuesCount(), rightStats.getDistinctValuesCount());
+      if (isNaN(distinctValuesCount)) {
+        return unknownFilter(input);
+      }
+      return input.withOutputRowCount(
+          input.getOutputRowCount()
+              * leftStats.getValuesFraction()
+              * rightStats.getValuesFraction()
+              / Math.max(distinctValuesCount, 1));
+    }
+    return unknownFilter(input);
+  }
+
+  private static PlanNodeStatsEstimate estimateComparisonWithLiteral(
+      PlanNodeStatsEstimate input,
+      Symbol symbol,
+      ComparisonExpression.Operator operator,
+      Literal literal) {
+    SymbolStatsEstimate stats = input.getSymbolStatistics(symbol);
+    double rowCount = input.getOutputRowCount();
+    double distinctValuesCount = stats.getDistinctValuesCount();
+    OptionalDouble value = toDouble(literal);
+    switch (operator) {
+      case EQUAL:
+        if (value.isPresent()
+            && stats.hasRange()
+            && (value.getAsDouble() < stats.getLowValue()
+                || value.getAsDouble() > stats.getHighValue())) {
+          return input.withOutputRowCount(0);
+        }
+        if (isNaN(distinctValuesCount)) {
+          return unknownFilter(input);
+        }
+        SymbolStatsEstimate equalStats = stats.withNullsFraction(0).withDistinctValuesCount(1);
+        if (value.isPresent()) {
+          equalStats = equalStats.withRange(value.getAsDouble(), value.getAsDouble());
+        }
+        return input
+            .withOutputRowCount(
+                rowCount * stats.getValuesFraction() / Math.max(distinctValuesCount, 1))
+            .withSymbolStatistics(symbol, equalStats);
+      case NOT_EQUAL:
+      case IS_DISTINCT_FROM:
+        if (isNaN(distinctValuesCount)) {
+          return unknownFilter(input);
+        }
+        return input.withOutputRowCount(
+            rowCount * stats.getValuesFraction() * (1 - 1 / Math.max(distinctValuesCount, 1)));
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+        if (!value.isPresent() || !stats.hasRange()) {
+          return unknownFilter(input);
+        }
+        return estimateRange(input, symbol, stats, operator, value.getAsDouble());
+      default:
+        return unknownFilter(input);
+    }
+  }
+
+  private static PlanNodeStatsEstimate estimateRange(
+      PlanNodeStatsEstimate input,
+      Symbol symbol,
+      SymbolStatsEstimate stats,
+      ComparisonExpression.Operator operator,
+      double value) {
+    boolean lessThan =
+        operator == ComparisonExpression.Operator.LESS_THAN || operator == LESS_THAN_OR_EQUAL;
+    double low = lessThan ? stats.getLowValue() : Math.max(stats.getLowValue(), value);
+    double high = lessThan ? Math.min(stats.getHighValue(), value) : stats.getHighValue();
+    if (low > high) {
+      return input.withOutputRowCount(0);
+    }
+    double rangeFraction =
+        stats.getHighValue() == stats.getLowValue()
+            ? 1
+            : (high - low) / (stats.getHighValue() - stats.getLowValue());
+    SymbolStatsEstimate rangeStats = stats.withRange(low, high).withNullsFraction(0);
+    if (!isNaN(stats.getDistinctValuesCount())) {
+      rangeStats =
+          rangeStats.withDistinctValuesCount(
+              Math.max(1, stats.getDistinctValuesCount() * rangeFraction));
+    }
+    return input
+        .withOutputRowCount(input.getOutputRowCount() * stats.getValuesFraction() * rangeFraction)
+        .withSymbolStatistics(symbol, rangeStats);
+  }
+
+  private static PlanNodeStatsEstimate estimateIn(
+      PlanNodeStatsEstimate input, InPredicate predicate) {
+    if (!(predicate.getValue() instanceof SymbolReference)
+        || !(predicate.getValueList() instanceof InListExpression)) {
+      return unknownFilter(input);
+    }
+    Symbol symbol = Symbol.from(predicate.getValue());
+    SymbolStatsEstimate stats = input.getSymbolStatistics(symbol);
+    double distinctValuesCount = stats.getDistinctValuesCount();
+    if (isNaN(distinctValuesCount)) {
+      return unknownFilter(input);
+    }
+    int valueCount = ((InListExpression) predicate.getValueList()).getValues().size();
+    double selectivity = Math.min(1, valueCount / Math.max(distinctValuesCount, 1));
+    return input
+        .withOutputRowCount(input.getOutputRowCount() * stats.getValuesFraction() * selectivity)
+        .withSymbolStatistics(
+            symbol,
+            stats
+                .withNullsFraction(0)
+                .withDistinctValuesCount(Math.min(distinctValuesCount, valueCount)));
+  }
+
+  private static PlanNodeStatsEstimate unknownFilter(PlanNodeStatsEstimate input) {
+    return input.withOutputRowCount(input.getOutputRowCount() * UNKNOWN_FILTER_COEFFICIENT);
+  }
+
+  private static OptionalDouble toDouble(Literal literal) {
+    Object value = literal.getTsValue();
+    return value instanceof Number
+        ? OptionalDouble.of(((Number) value).doubleValue())
+        : OptionalDouble.empty();
+  }
+}
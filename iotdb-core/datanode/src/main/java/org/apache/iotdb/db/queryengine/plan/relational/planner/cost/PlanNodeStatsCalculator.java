@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.cost;
+
+import org.apache.iotdb.commons.schema.table.column.TsTableColumnCategory;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanVisitor;
+import org.apache.iotdb.db.queryengine.plan.relational.metadata.ColumnSchema;
+import org.apache.iotdb.db.queryengine.plan.relational.metadata.DeviceEntry;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.GroupReference;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Lookup;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationTableScanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.CollectNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.DeviceTableScanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.EnforceSingleRowNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ExchangeNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.FilterNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.LimitNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.MergeSortNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.OffsetNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.OutputNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ProjectNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SemiJoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.StreamSortNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TopKNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SymbolReference;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.ColumnStatistics;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.TableStatistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.util.Objects.requireNonNull;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.cost.FilterStatsCalculator.UNKNOWN_FILTER_COEFFICIENT;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.cost.FilterStatsCalculator.filterStats;
+
+/**
+ * Estimates the statistics of plan nodes bottom-up.
+ *
+ * <p>The row count of a DeviceTableScanNode is the number of its devices multiplied by the average
+ * row count per device of the table in {@link TableStatsProvider}. The distinct values of TAG and
+ * ATTRIBUTE columns are counted exactly from the device entries of the scan, which are fetched from
+ * the schema regions, and the ranges of the time and FIELD columns come from the TsFile statistics.
+ */
+public class PlanNodeStatsCalculator implements StatsCalculator {
+
+  private final TableStatsProvider tableStatsProvider;
+
+  public PlanNodeStatsCalculator(TableStatsProvider tableStatsProvider) {
+    this.tableStatsProvider = requireNonNull(tableStatsProvider, "tableStatsProvider is null");
+  }
+
+  @Override
+  public PlanNodeStatsEstimate calculateStats(
+      PlanNode node, StatsProvider sourceStats, Lookup lookup) {
+    return node.accept(new Visitor(sourceStats), null);
+  }
+
+  private class Visitor extends PlanVisitor<PlanNodeStatsEstimate, Void> {
+
+    private final StatsProvider sourceStats;
+
+    private Visitor(StatsProvider sourceStats) {
+      this.sourceStats = sourceStats;
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitPlan(PlanNode node, Void context) {
+      return PlanNodeStatsEstimate.unknown();
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitGroupReference(GroupReference node, Void context) {
+      return sourceStats.getStats(node);
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitDeviceTableScan(DeviceTableScanNode node, Void context) {
+      List<DeviceEntry> deviceEntries = node.getDeviceEntries();
+      Optional<TableStatistics> tableStatistics =
+          tableStatsProvider.getTableStatistics(node.getQualifiedObjectName());
+      if (deviceEntries == null
+          || !tableStatistics.isPresent()
+          || tableStatistics.get().getDeviceCount() == 0) {
+        return PlanNodeStatsEstimate.unknown();
+      }
+      TableStatistics statistics = tableStatistics.get();
+      double rowCountPerDevice = (double) statistics.getRowCount() / statistics.getDeviceCount();
+      double rowCount = rowCountPerDevice * deviceEntries.size();
+
+      Map<Symbol, SymbolStatsEstimate> symbolStatistics = new HashMap<>();
+      for (Map.Entry<Symbol, ColumnSchema> entry : node.getAssignments().entrySet()) {
+        Symbol symbol = entry.getKey();
+        switch (entry.getValue().getColumnCategory()) {
+          case TIME:
+            if (statistics.getStartTime() <= statistics.getEndTime()) {
+              symbolStatistics.put(
+                  symbol,
+                  new SymbolStatsEstimate(
+                      statistics.getStartTime(),
+                      statistics.getEndTime(),
+                      0,
+                      Math.min(
+                          rowCountPerDevice,
+                          (double) statistics.getEndTime() - statistics.getStartTime() + 1)));
+            }
+            break;
+          case TAG:
+          case ATTRIBUTE:
+            Integer index = node.getIdAndAttributeIndexMap().get(symbol);
+            if (index != null) {
+              symbolStatistics.put(
+                  symbol,
+                  deviceColumnStats(
+                      deviceEntries,
+                      entry.getValue().getColumnCategory() == TsTableColumnCategory.TAG
+                          ? deviceEntry -> deviceEntry.getNthSegment(index + 1)
+                          : deviceEntry ->
+                              index < deviceEntry.getAttributeColumnValues().size()
+                                  ? deviceEntry.getAttributeColumnValues().get(index)
+                                  : null));
+            }
+            break;
+          case FIELD:
+            ColumnStatistics columnStatistics =
+                statistics.getColumnStatistics().get(entry.getValue().getName());
+            if (columnStatistics != null && statistics.getRowCount() > 0) {
+              symbolStatistics.put(
+                  symbol,
+                  new SymbolStatsEstimate(
+                      columnStatistics.getMinValue(),
+                      columnStatistics.getMaxValue(),
+                      Math.max(
+                          0,
+                          1
+                              - (double) columnStatistics.getNonNullCount()
+                                  / statistics.getRowCount()),
+                      NaN));
+            }
+            break;
+          default:
+            break;
+        }
+      }
+
+      PlanNodeStatsEstimate estimate = new PlanNodeStatsEstimate(rowCount, symbolStatistics);
+      if (node.getTimePredicate().isPresent()) {
+        estimate = filterStats(estimate, node.getTimePredicate().get());
+      }
+      if (node.getPushDownPredicate() != null) {
+        estimate = filterStats(estimate, node.getPushDownPredicate());
+      }
+      if (node.getPushDownLimit() > 0) {
+        double limit =
+            node.isPushLimitToEachDevice()
+                ? (double) node.getPushDownLimit() * deviceEntries.size()
+                : node.getPushDownLimit();
+        estimate = estimate.withOutputRowCount(Math.min(estimate.getOutputRowCount(), limit));
+      }
+      return estimate;
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitAggregationTableScan(
+        AggregationTableScanNode node, Void context) {
+      return PlanNodeStatsEstimate.unknown();
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitFilter(FilterNode node, Void context) {
+      return filterStats(sourceStats.getStats(node.getChild()), node.getPredicate());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitProject(ProjectNode node, Void context) {
+      PlanNodeStatsEstimate source = sourceStats.getStats(node.getChild());
+      Map<Symbol, SymbolStatsEstimate> symbolStatistics = new HashMap<>();
+      for (Map.Entry<Symbol, Expression> assignment : node.getAssignments().getMap().entrySet()) {
+        if (assignment.getValue() instanceof SymbolReference) {
+          symbolStatistics.put(
+              assignment.getKey(), source.getSymbolStatistics(Symbol.from(assignment.getValue())));
+        }
+      }
+      return new PlanNodeStatsEstimate(source.getOutputRowCount(), symbolStatistics);
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitOutput(OutputNode node, Void context) {
+      return sourceStats.getStats(node.getChild());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitSort(SortNode node, Void context) {
+      return sourceStats.getStats(node.getChild());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitStreamSort(StreamSortNode node, Void context) {
+      return sourceStats.getStats(node.getChild());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitTableExchange(ExchangeNode node, Void context) {
+      return sourceStats.getStats(node.getChild());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitWindow(WindowNode node, Void context) {
+      return sourceStats.getStats(node.getChild());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitSemiJoin(SemiJoinNode node, Void context) {
+      return sourceStats.getStats(node.getSource());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitEnforceSingleRow(EnforceSingleRowNode node, Void context) {
+      return sourceStats.getStats(node.getChild()).withOutputRowCount(1);
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitLimit(LimitNode node, Void context) {
+      return limit(sourceStats.getStats(node.getChild()), node.getCount());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitTopK(TopKNode node, Void context) {
+      return limit(union(node.getChildren()), node.getCount());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitOffset(OffsetNode node, Void context) {
+      PlanNodeStatsEstimate source = sourceStats.getStats(node.getChild());
+      return source.withOutputRowCount(Math.max(0, source.getOutputRowCount() - node.getCount()));
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitMergeSort(MergeSortNode node, Void context) {
+      return union(node.getChildren());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitCollect(CollectNode node, Void context) {
+      return union(node.getChildren());
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitAggregation(AggregationNode node, Void context) {
+      PlanNodeStatsEstimate source = sourceStats.getStats(node.getChild());
+      if (node.getGroupingKeys().isEmpty()) {
+        return new PlanNodeStatsEstimate(1, new HashMap<>());
+      }
+      double rowCount = 1;
+      Map<Symbol, SymbolStatsEstimate> symbolStatistics = new HashMap<>();
+      for (Symbol groupingKey : node.getGroupingKeys()) {
+        SymbolStatsEstimate keyStatistics = source.getSymbolStatistics(groupingKey);
+        double distinctValuesCount = keyStatistics.getDistinctValuesCount();
+        if (keyStatistics.getNullsFraction() > 0) {
+          // null is a group as well
+          distinctValuesCount += 1;
+        }
+        rowCount *= distinctValuesCount;
+        symbolStatistics.put(groupingKey, keyStatistics);
+      }
+      if (isNaN(rowCount)) {
+        return PlanNodeStatsEstimate.unknown();
+      }
+      rowCount = Math.min(rowCount, source.getOutputRowCount());
+      return new PlanNodeStatsEstimate(rowCount, symbolStatistics).withOutputRowCount(rowCount);
+    }
+
+    @Override
+    public PlanNodeStatsEstimate visitJoin(JoinNode node, Void context) {
+      PlanNodeStatsEstimate left = sourceStats.getStats(node.getLeftChild());
+      PlanNodeStatsEstimate right = sourceStats.getStats(node.getRightChild());
+      if (left.isOutputRowCountUnknown() || right.isOutputRowCountUnknown()) {
+        return PlanNodeStatsEstimate.unknown();
+      }
+      double leftRowCount = left.getOutputRowCount();
+      double rightRowCount = right.getOutputRowCount();
+
+      Map<Symbol, SymbolStatsEstimate> symbolStatistics = new HashMap<>();
+      node.getLeftOutputSymbols()
+          .forEach(symbol -> symbolStatistics.put(symbol, left.getSymbolStatistics(symbol)));
+      node.getRightOutputSymbols()
+          .forEach(symbol -> symbolStatistics.put(symbol, right.getSymbolStatistics(symbol)));
+
+      // the most selective clause is applied fully, and the others are damped because the join
+      // keys are usually correlated, e.g. a device is joined on both its tags and time
+      List<Double> selectivities = new ArrayList<>();
+      for (JoinNode.EquiJoinClause clause : node.getCriteria()) {
+        SymbolStatsEstimate leftKey = left.getSymbolStatistics(clause.getLeft());
+        SymbolStatsEstimate rightKey = right.getSymbolStatistics(clause.getRight());
+        double distinctValuesCount =
+            maxKnown(leftKey.getDistinctValuesCount(), rightKey.getDistinctValuesCount());
+        if (isNaN(distinctValuesCount)) {
+          // assume the key of the larger side is unique, as in a join on a foreign key
+          distinctValuesCount = Math.max(leftRowCount, rightRowCount);
+        }
+        selectivities.add(
+            leftKey.getValuesFraction()
+                * rightKey.getValuesFraction()
+                / Math.max(distinctValuesCount, 1));
+        double joinedDistinctValuesCount =
+            minKnown(leftKey.getDistinctValuesCount(), rightKey.getDistinctValuesCount());
+        if (symbolStatistics.containsKey(clause.getLeft())) {
+          symbolStatistics.put(
+              clause.getLeft(),
+              leftKey.withNullsFraction(0).withDistinctValuesCount(joinedDistinctValuesCount));
+        }
+        if (symbolStatistics.containsKey(clause.getRight())) {
+          symbolStatistics.put(
+              clause.getRight(),
+              rightKey.withNullsFraction(0).withDistinctValuesCount(joinedDistinctValuesCount));
+        }
+      }
+      selectivities.sort(Double::compare);
+      double innerJoinRowCount = leftRowCount * rightRowCount;
+      for (int i = 0; i < selectivities.size(); i++) {
+        innerJoinRowCount *= i == 0 ? selectivities.get(i) : Math.sqrt(selectivities.get(i));
+      }
+      if (node.getFilter().isPresent()) {
+        innerJoinRowCount *= UNKNOWN_FILTER_COEFFICIENT;
+      }
+
+      double rowCount;
+      switch (node.getJoinType()) {
+        case LEFT:
+          rowCount = Math.max(innerJoinRowCount, leftRowCount);
+          break;
+        case RIGHT:
+          rowCount = Math.max(innerJoinRowCount, rightRowCount);
+          break;
+        case FULL:
+          rowCount = Math.max(innerJoinRowCount, Math.max(leftRowCount, rightRowCount));
+          break;
+        case INNER:
+        default:
+          rowCount = innerJoinRowCount;
+          break;
+      }
+      return new PlanNodeStatsEstimate(rowCount, symbolStatistics).withOutputRowCount(rowCount);
+    }
+
+    private PlanNodeStatsEstimate limit(PlanNodeStatsEstimate source, long count) {
+      if (source.getOutputRowCount() <= count) {
+        return source;
+      }
+      // a limit bounds the row count even if the row count of its source is unknown
+      return source.withOutputRowCount(count);
+    }
+
+    private PlanNodeStatsEstimate union(List<PlanNode> children) {
+      if (children.size() == 1) {
+        return sourceStats.getStats(children.get(0));
+      }
+      double rowCount = 0;
+      for (PlanNode child : children) {
+        rowCount += sourceStats.getStats(child).getOutputRowCount();
+      }
+      return isNaN(rowCount)
+          ? PlanNodeStatsEstimate.unknown()
+          : new PlanNodeStatsEstimate(rowCount, new HashMap<>());
+    }
+  }
+
+  private static SymbolStatsEstimate deviceColumnStats(
+      List<DeviceEntry> deviceEntries, Function<DeviceEntry, Object> valueExtractor) {
+    if (deviceEntries.isEmpty()) {
+      return new SymbolStatsEstimate(NaN, NaN, 0, 0);
+    }
+    Set<Object> distinctValues = new HashSet<>();
+    int nullCount = 0;
+    for (DeviceEntry deviceEntry : deviceEntries) {
+      Object value = valueExtractor.apply(deviceEntry);
+      if (value == null) {
+        nullCount++;
+      } else {
+        distinctValues.add(value);
+      }
+    }
+    return new SymbolStatsEstimate(
+        NaN, NaN, (double) nullCount / deviceEntries.size(), distinctValues.size());
+  }
+
+  private static double maxKnown(double left, double right) {
+    return isNaN(left) ? right : isNaN(right) ? left : Math.max(left, right);
+  }
+
+  private static double minKnown(double left, double right) {
+    return isNaN(left) ? right : isNaN(right) ? left : Math.min(left, right);
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.cost;
+
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+
+/** Estimated statistics of the output of a plan node. The row count is NaN if it is unknown. */
+public class PlanNodeStatsEstimate {
+
+  private static final PlanNodeStatsEstimate UNKNOWN =
+      new PlanNodeStatsEstimate(NaN, ImmutableMap.of());
+
+  private final double outputRowCount;
+  private final Map<Symbol, SymbolStatsEstimate> symbolStatistics;
+
+  public PlanNodeStatsEstimate(
+      double outputRowCount, Map<Symbol, SymbolStatsEstimate> symbolStatistics) {
+    checkArgument(
+        isNaN(outputRowCount) || outputRowCount >= 0,
+        "outputRowCount cannot be negative: %s",
+        outputRowCount);
+    this.outputRowCount = outputRowCount;
+    this.symbolStatistics = ImmutableMap.copyOf(symbolStatistics);
+  }
+
+  public static PlanNodeStatsEstimate unknown() {
+    return UNKNOWN;
+  }
+
+  public boolean isOutputRowCountUnknown() {
+    return isNaN(outputRowCount);
+  }
+
+  public double getOutputRowCount() {
+    return outputRowCount;
+  }
+
+  public Map<Symbol, SymbolStatsEstimate> getSymbolStatistics() {
+    return symbolStatistics;
+  }
+
+  public SymbolStatsEstimate getSymbolStatistics(Symbol symbol) {
+    return symbolStatistics.getOrDefault(symbol, SymbolStatsEstimate.unknown());
+  }
+
+  /**
+   * Returns the estimate with the given row count, in which the statistics of each symbol are
+   * adjusted by the given function.
+   */
+  public PlanNodeStatsEstimate withOutputRowCount(
+      double outputRowCount, Function<SymbolStatsEstimate, SymbolStatsEstimate> adjustment) {
+    Map<Symbol, SymbolStatsEstimate> adjustedSymbolStatistics = new HashMap<>();
+    symbolStatistics.forEach(
+        (symbol, statistics) -> adjustedSymbolStatistics.put(symbol, adjustment.apply(statistics)));
+    return new PlanNodeStatsEstimate(outputRowCount, adjustedSymbolStatistics);
+  }
+
+  /**
+   * Returns the estimate with the given row count, in which a symbol can't have more distinct
+   * values than rows.
+   */
+  public PlanNodeStatsEstimate withOutputRowCount(double outputRowCount) {
+    return withOutputRowCount(
+        outputRowCount, statistics -> statistics.capDistinctValuesCount(outputRowCount));
+  }
+
+  public PlanNodeStatsEstimate withSymbolStatistics(
+      Symbol symbol, SymbolStatsEstimate symbolStatsEstimate) {
+    Map<Symbol, SymbolStatsEstimate> newSymbolStatistics = new HashMap<>(symbolStatistics);
+    newSymbolStatistics.put(symbol, symbolStatsEstimate);
+    return new PlanNodeStatsEstimate(outputRowCount, newSymbolStatistics);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PlanNodeStatsEstimate that = (PlanNodeStatsEstimate) o;
+    return Double.compare(outputRowCount, that.outputRowCount) == 0
+        && symbolStatistics.equals(that.symbolStatistics);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(outputRowCount, symbolStatistics);
+  }
+
+  @Override
+  public String toString() {
+    return "PlanNodeStatsEstimate{"
+        + "outputRowCount="
+        + outputRowCount
+        + ", symbolStatistics="
+        + symbolStatistics
+        + '}';
+  }
+}
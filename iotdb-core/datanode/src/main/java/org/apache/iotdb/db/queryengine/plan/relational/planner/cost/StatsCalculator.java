@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.cost;
+
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Lookup;
+
+public interface StatsCalculator {
+  /**
+   * Calculate stats for the {@code node}.
+   *
+   * @param node The node to compute stats for.
+   * @param sourceStats The stats provider for any child nodes' stats, if needed to compute stats
+   *     for the {@code node}
+   * @param lookup Lookup to be used when resolving source nodes, allowing stats calculation to work
+   *     within {@link
+   *     org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.IterativeOptimizer}
+   */
+  PlanNodeStatsEstimate calculateStats(PlanNode node, StatsProvider sourceStats, Lookup lookup);
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.cost;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+
+/**
+ * Estimated statistics of the values of a symbol. Each estimate is NaN if it is unknown, and the
+ * low and high values are only known for numeric and time symbols.
+ */
+public class SymbolStatsEstimate {
+
+  private static final SymbolStatsEstimate UNKNOWN = new SymbolStatsEstimate(NaN, NaN, NaN, NaN);
+
+  private final double lowValue;
+  private final double highValue;
+  private final double nullsFraction;
+  private final double distinctValuesCount;
+
+  public SymbolStatsEstimate(
+      double lowValue, double highValue, double nullsFraction, double distinctValuesCount) {
+    checkArgument(
+        isNaN(lowValue) || isNaN(highValue) || lowValue <= highValue,
+        "lowValue must be less than or equal to highValue: %s > %s",
+        lowValue,
+        highValue);
+    checkArgument(
+        isNaN(nullsFraction) || (nullsFraction >= 0 && nullsFraction <= 1),
+        "nullsFraction should be within [0, 1]: %s",
+        nullsFraction);
+    checkArgument(
+        isNaN(distinctValuesCount) || distinctValuesCount >= 0,
+        "distinctValuesCount should be non-negative: %s",
+        distinctValuesCount);
+    this.lowValue = lowValue;
+    this.highValue = highValue;
+    this.nullsFraction = nullsFraction;
+    this.distinctValuesCount = distinctValuesCount;
+  }
+
+  public static SymbolStatsEstimate unknown() {
+    return UNKNOWN;
+  }
+
+  public boolean isUnknown() {
+    return this.equals(UNKNOWN);
+  }
+
+  public double getLowValue() {
+    return lowValue;
+  }
+
+  public double getHighValue() {
+    return highValue;
+  }
+
+  public boolean hasRange() {
+    return !isNaN(lowValue) && !isNaN(highValue);
+  }
+
+  public double getNullsFraction() {
+    return nullsFraction;
+  }
+
+  /** Returns the fraction of non-null values, which is 1 if the nulls fraction is unknown. */
+  public double getValuesFraction() {
+    return isNaN(nullsFraction) ? 1 : 1 - nullsFraction;
+  }
+
+  public double getDistinctValuesCount() {
+    return distinctValuesCount;
+  }
+
+  public SymbolStatsEstimate withRange(double lowValue, double highValue) {
+    return new SymbolStatsEstimate(lowValue, highValue, nullsFraction, distinctValuesCount);
+  }
+
+  public SymbolStatsEstimate withNullsFraction(double nullsFraction) {
+    return new SymbolStatsEstimate(lowValue, highValue, nullsFraction, distinctValuesCount);
+  }
+
+  public SymbolStatsEstimate withDistinctValuesCount(double distinctValuesCount) {
+    return new SymbolStatsEstimate(lowValue, highValue, nullsFraction, distinctValuesCount);
+  }
+
+  /**
+   * Returns the estimate of the symbol in an output of the given row count, in which the symbol
+   * can't have more distinct values than rows.
+   */
+  public SymbolStatsEstimate capDistinctValuesCount(double outputRowCount) {
+    if (isNaN(outputRowCount) || isNaN(distinctValuesCount)) {
+      return this;
+    }
+    return withDistinctValuesCount(Math.min(distinctValuesCount, outputRowCount));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SymbolStatsEstimate that = (SymbolStatsEstimate) o;
+    return Double.compare(lowValue, that.lowValue) == 0
+        && Double.compare(highValue, that.highValue) == 0
+        && Double.compare(nullsFraction, that.nullsFraction) == 0
+        && Double.compare(distinctValuesCount, that.distinctValuesCount) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(lowValue, highValue, nullsFraction, distinctValuesCount);
+  }
+
+  @Override
+  public String toString() {
+    return "SymbolStatsEstimate{"
+        + "range=["
+        + lowValue
+        + "-"
+        + highValue
+        + "], nulls="
+        + nullsFraction
+        + ", ndv="
+        + distinctValuesCount
+        + '}';
+  }
+}
@@ -65,6 +65,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TreeAlignedD
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TreeDeviceViewScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TreeNonAlignedDeviceViewScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ValueFillNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.AbstractTableDeviceQueryNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.TableDeviceFetchNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.TableDeviceQueryCountNode;
@@ -210,6 +211,20 @@ public class TableDistributedPlanGenerator
     return Collections.singletonList(node);
   }
 
+  @Override
+  public List<PlanNode> visitWindow(WindowNode node, PlanContext context) {
+    context.clearExpectedOrderingScheme();
+    List<PlanNode> childrenNodes = node.getChild().accept(this, context);
+    OrderingScheme childOrdering = nodeOrderingMap.get(childrenNodes.get(0).getPlanNodeId());
+    if (childOrdering != null) {
+      nodeOrderingMap.put(node.getPlanNodeId(), childOrdering);
+    }
+
+    // a window function needs all rows of one partition, so the child is always merged
+    node.setChild(mergeChildrenViaCollectOrMergeSort(childOrdering, childrenNodes));
+    return Collections.singletonList(node);
+  }
+
   @Override
   public List<PlanNode> visitLimit(LimitNode node, PlanContext context) {
     List<PlanNode> childrenNodes = node.getChild().accept(this, context);
@@ -443,8 +458,9 @@ public class TableDistributedPlanGenerator
 
     List<PlanNode> leftChildrenNodes = node.getLeftChild().accept(this, context);
     List<PlanNode> rightChildrenNodes = node.getRightChild().accept(this, context);
-    if (!node.isCrossJoin()) {
-      // child of JoinNode(excluding CrossJoin) must be SortNode, so after rewritten, the child must
+    boolean isHashJoin = isHashJoin(node.getDistributionType());
+    if (!node.isCrossJoin() && !isHashJoin) {
+      // child of merge sort JoinNode must be SortNode, so after rewritten, the child must
       // be MergeSortNode or
       // SortNode
       checkArgument(
@@ -453,14 +469,10 @@ public class TableDistributedPlanGenerator
           rightChildrenNodes.size() == 1,
           "The size of right children node of JoinNode should be 1");
     }
-    // For CrossJoinNode, we need to merge children nodes(It's safe for other JoinNodes here since
-    // the size of their children is always 1.)
-    node.setLeftChild(
-        mergeChildrenViaCollectOrMergeSort(
-            nodeOrderingMap.get(node.getLeftChild().getPlanNodeId()), leftChildrenNodes));
-    node.setRightChild(
-        mergeChildrenViaCollectOrMergeSort(
-            nodeOrderingMap.get(node.getRightChild().getPlanNodeId()), rightChildrenNodes));
+    // For CrossJoinNode and hash JoinNode, we need to merge children nodes(It's safe for merge sort
+    // JoinNodes here since the size of their children is always 1.)
+    node.setLeftChild(mergeJoinChildren(node.getLeftChild(), leftChildrenNodes, isHashJoin));
+    node.setRightChild(mergeJoinChildren(node.getRightChild(), rightChildrenNodes, isHashJoin));
     return Collections.singletonList(node);
   }
 
@@ -468,17 +480,31 @@ public class TableDistributedPlanGenerator
   public List<PlanNode> visitSemiJoin(SemiJoinNode node, PlanContext context) {
     List<PlanNode> leftChildrenNodes = node.getLeftChild().accept(this, context);
     List<PlanNode> rightChildrenNodes = node.getRightChild().accept(this, context);
-    checkArgument(
-        leftChildrenNodes.size() == 1,
-        "The size of left children node of SemiJoinNode should be 1");
-    checkArgument(
-        rightChildrenNodes.size() == 1,
-        "The size of right children node of SemiJoinNode should be 1");
-    node.setLeftChild(leftChildrenNodes.get(0));
-    node.setRightChild(rightChildrenNodes.get(0));
+    boolean isHashJoin = isHashJoin(node.getDistributionType());
+    if (!isHashJoin) {
+      checkArgument(
+          leftChildrenNodes.size() == 1,
+          "The size of left children node of SemiJoinNode should be 1");
+      checkArgument(
+          rightChildrenNodes.size() == 1,
+          "The size of right children node of SemiJoinNode should be 1");
+    }
+    node.setLeftChild(mergeJoinChildren(node.getLeftChild(), leftChildrenNodes, isHashJoin));
+    node.setRightChild(mergeJoinChildren(node.getRightChild(), rightChildrenNodes, isHashJoin));
     return Collections.singletonList(node);
   }
 
+  private static boolean isHashJoin(Optional<JoinNode.DistributionType> distributionType) {
+    return distributionType.isPresent() && distributionType.get() == JoinNode.DistributionType.HASH;
+  }
+
+  /** Hash join doesn't need ordered children, so the children are merged by CollectNode. */
+  private PlanNode mergeJoinChildren(
+      PlanNode originalChild, List<PlanNode> childrenNodes, boolean isHashJoin) {
+    return mergeChildrenViaCollectOrMergeSort(
+        isHashJoin ? null : nodeOrderingMap.get(originalChild.getPlanNodeId()), childrenNodes);
+  }
+
   public List<PlanNode> visitDeviceTableScan(
       final DeviceTableScanNode node, final PlanContext context) {
     final Map<TRegionReplicaSet, DeviceTableScanNode> tableScanNodeMap = new HashMap<>();
@@ -42,6 +42,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.StreamSortNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TableScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TopKNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.AbstractTableDeviceQueryNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.TableDeviceQueryCountNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.schema.TableDeviceQueryScanNode;
@@ -221,6 +222,15 @@ public class TableModelTypeProviderExtractor {
       return null;
     }
 
+    @Override
+    public Void visitWindow(WindowNode node, Void context) {
+      node.getChild().accept(this, context);
+      node.getWindowFunctions()
+          .keySet()
+          .forEach(k -> beTypeProvider.putTableModelType(k, feTypeProvider.getTableModelType(k)));
+      return null;
+    }
+
     @Override
     public Void visitLimit(LimitNode node, Void context) {
       node.getChild().accept(this, context);
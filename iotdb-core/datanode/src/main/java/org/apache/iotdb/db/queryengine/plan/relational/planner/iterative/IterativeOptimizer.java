@@ -28,6 +28,10 @@ import org.apache.iotdb.db.queryengine.plan.relational.execution.querystats.Plan
 import org.apache.iotdb.db.queryengine.plan.relational.execution.querystats.QueryPlanOptimizerStatistics;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.PlannerContext;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.SymbolAllocator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.CachingStatsProvider;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsCalculator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.StatsCalculator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.StatsProvider;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.optimizations.AdaptivePlanOptimizer;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.optimizations.PlanOptimizer;
 import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Capture;
@@ -44,6 +48,7 @@ import org.slf4j.LoggerFactory;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -68,20 +73,38 @@ public class IterativeOptimizer implements AdaptivePlanOptimizer {
   private final RuleIndex ruleIndex;
   private final Predicate<Session> useLegacyRules;
   private final PlannerContext plannerContext;
+  private final StatsCalculator statsCalculator;
 
   public IterativeOptimizer(
       PlannerContext plannerContext, RuleStatsRecorder stats, Set<Rule<?>> rules) {
-    this(plannerContext, stats, session -> false, ImmutableList.of(), rules);
+    // rules of this optimizer don't rely on statistics, so table statistics are not collected
+    this(
+        plannerContext,
+        stats,
+        new PlanNodeStatsCalculator(table -> Optional.empty()),
+        session -> false,
+        ImmutableList.of(),
+        rules);
   }
 
   public IterativeOptimizer(
       PlannerContext plannerContext,
       RuleStatsRecorder stats,
+      StatsCalculator statsCalculator,
+      Set<Rule<?>> rules) {
+    this(plannerContext, stats, statsCalculator, session -> false, ImmutableList.of(), rules);
+  }
+
+  public IterativeOptimizer(
+      PlannerContext plannerContext,
+      RuleStatsRecorder stats,
+      StatsCalculator statsCalculator,
       Predicate<Session> useLegacyRules,
       List<PlanOptimizer> legacyRules,
       Set<Rule<?>> newRules) {
     this.plannerContext = requireNonNull(plannerContext, "plannerContext is null");
     this.stats = requireNonNull(stats, "stats is null");
+    this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
     this.useLegacyRules = requireNonNull(useLegacyRules, "useLegacyRules is null");
     this.rules = requireNonNull(newRules, "rules is null");
     this.legacyRules = ImmutableList.copyOf(legacyRules);
@@ -242,10 +265,8 @@ public class IterativeOptimizer implements AdaptivePlanOptimizer {
   }
 
   private Rule.Context ruleContext(Context context) {
-    // StatsProvider statsProvider = new CachingStatsProvider(statsCalculator,
-    // Optional.of(context.memo), context.lookup, context.session,
-    // context.symbolAllocator.getTypes(), context.tableStatsProvider,
-    // context.runtimeStatsProvider);
+    StatsProvider statsProvider =
+        new CachingStatsProvider(statsCalculator, Optional.of(context.memo), context.lookup);
     // CostProvider costProvider = new CachingCostProvider(costCalculator, statsProvider,
     // Optional.of(context.memo), context.session, context.symbolAllocator.getTypes());
 
@@ -270,13 +291,12 @@ public class IterativeOptimizer implements AdaptivePlanOptimizer {
         return context.sessionInfo;
       }
 
-      /*@Override
-      public StatsProvider getStatsProvider()
-      {
-          return statsProvider;
+      @Override
+      public StatsProvider getStatsProvider() {
+        return statsProvider;
       }
 
-      @Override
+      /*@Override
       public CostProvider getCostProvider()
       {
           return costProvider;
@@ -21,13 +21,17 @@ package org.apache.iotdb.db.queryengine.plan.relational.planner.iterative;
 
 import org.apache.iotdb.db.queryengine.common.QueryId;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsEstimate;
 
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 
+import javax.annotation.Nullable;
+
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -134,6 +138,7 @@ public class Memo {
   }
 
   private void evictStatisticsAndCost(Group group) {
+    group.stats = null;
     for (int parentGroup : group.incomingReferences.elementSet()) {
       if (parentGroup != ROOT_GROUP_REF) {
         evictStatisticsAndCost(getGroup(parentGroup));
@@ -207,6 +212,18 @@ public class Memo {
     return nextGroupId++;
   }
 
+  public Optional<PlanNodeStatsEstimate> getStats(int group) {
+    return Optional.ofNullable(getGroup(group).stats);
+  }
+
+  public void storeStats(int groupId, PlanNodeStatsEstimate stats) {
+    Group group = getGroup(groupId);
+    if (group.stats != null) {
+      evictStatisticsAndCost(group); // stats of the parent groups are derived from it
+    }
+    group.stats = requireNonNull(stats, "stats is null");
+  }
+
   public int getGroupCount() {
     return groups.size();
   }
@@ -219,10 +236,10 @@ public class Memo {
     private PlanNode membership;
     private final Multiset<Integer> incomingReferences = HashMultiset.create();
 
-    /*@Nullable
-    private PlanNodeStatsEstimate stats;
-    @Nullable
-    private PlanCostEstimate cost;*/
+    @Nullable private PlanNodeStatsEstimate stats;
+
+    // @Nullable
+    // private PlanCostEstimate cost;
 
     private Group(PlanNode member) {
       this.membership = requireNonNull(member, "member is null");
@@ -24,6 +24,7 @@ import org.apache.iotdb.db.queryengine.common.SessionInfo;
 import org.apache.iotdb.db.queryengine.execution.warnings.WarningCollector;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.SymbolAllocator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.StatsProvider;
 import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Captures;
 import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Pattern;
 
@@ -50,7 +51,7 @@ public interface Rule<T> {
 
     SessionInfo getSessionInfo();
 
-    // StatsProvider getStatsProvider();
+    StatsProvider getStatsProvider();
 
     // CostProvider getCostProvider();
 
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsEstimate;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Lookup;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Rule;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.EnforceSingleRowNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.FilterNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.LimitNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.OffsetNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ProjectNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TopKNode;
+import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Captures;
+import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Pattern;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.Patterns.join;
+
+/**
+ * Chooses the algorithm of an equi-join before the distributed plan is generated. With the cost
+ * based optimization, the smaller child of an inner join is moved to the right, which is the build
+ * side of hash join. Hash join is chosen if it is enabled and the build side is estimated to fit
+ * the configured limit, otherwise merge sort join is chosen. A build side whose size can't be
+ * estimated is still joined by hash join, because hash join spills it to disk if it turns out to be
+ * large.
+ *
+ * <p>The children of a join are sorted on the join keys when the join is planned. These sorts are
+ * removed from a HASH join, so neither the distributed plan nor EXPLAIN contains them.
+ */
+public class DetermineJoinDistributionType implements Rule<JoinNode> {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  private static final Pattern<JoinNode> PATTERN =
+      join().matching(node -> !node.getDistributionType().isPresent() && !node.isCrossJoin());
+
+  @Override
+  public Pattern<JoinNode> getPattern() {
+    return PATTERN;
+  }
+
+  @Override
+  public Result apply(JoinNode node, Captures captures, Context context) {
+    if (!CONFIG.isEnableHashJoin()
+        || node.getCriteria().isEmpty()
+        || node.getJoinType() != JoinNode.JoinType.INNER
+            && node.getJoinType() != JoinNode.JoinType.LEFT) {
+      return Result.ofPlanNode(node.withDistributionType(JoinNode.DistributionType.MERGE_SORT));
+    }
+
+    JoinNode join = node;
+    PlanNodeStatsEstimate rightStats = PlanNodeStatsEstimate.unknown();
+    if (CONFIG.isEnableCostBasedJoinOptimization()) {
+      PlanNodeStatsEstimate leftStats = context.getStatsProvider().getStats(node.getLeftChild());
+      rightStats = context.getStatsProvider().getStats(node.getRightChild());
+      if (node.getJoinType() == JoinNode.JoinType.INNER
+          && !leftStats.isOutputRowCountUnknown()
+          && !rightStats.isOutputRowCountUnknown()
+          && leftStats.getOutputRowCount() < rightStats.getOutputRowCount()) {
+        join = node.flipChildren();
+        rightStats = leftStats;
+      }
+    }
+
+    if (!fitsHashJoinBuildSide(rightStats, join.getRightChild(), context.getLookup())) {
+      return Result.ofPlanNode(join.withDistributionType(JoinNode.DistributionType.MERGE_SORT));
+    }
+    List<Symbol> leftKeys =
+        join.getCriteria().stream()
+            .map(JoinNode.EquiJoinClause::getLeft)
+            .collect(toImmutableList());
+    List<Symbol> rightKeys =
+        join.getCriteria().stream()
+            .map(JoinNode.EquiJoinClause::getRight)
+            .collect(toImmutableList());
+    JoinNode hashJoin =
+        (JoinNode)
+            join.replaceChildren(
+                ImmutableList.of(
+                    removeJoinKeySort(join.getLeftChild(), leftKeys, context.getLookup()),
+                    removeJoinKeySort(join.getRightChild(), rightKeys, context.getLookup())));
+    return Result.ofPlanNode(hashJoin.withDistributionType(JoinNode.DistributionType.HASH));
+  }
+
+  static boolean fitsHashJoinBuildSide(
+      PlanNodeStatsEstimate buildSideStats, PlanNode buildSide, Lookup lookup) {
+    if (!buildSideStats.isOutputRowCountUnknown()) {
+      return buildSideStats.getOutputRowCount() <= CONFIG.getHashJoinMaxEstimatedBuildRowNum();
+    }
+    long maxRowNum = estimateMaxRowNum(buildSide, lookup);
+    return maxRowNum < 0 || maxRowNum <= CONFIG.getHashJoinMaxEstimatedBuildRowNum();
+  }
+
+  /**
+   * @return the upper bound of the rows produced by the node, or -1 if it is unknown
+   */
+  private static long estimateMaxRowNum(PlanNode node, Lookup lookup) {
+    node = lookup.resolve(node);
+    if (node instanceof EnforceSingleRowNode
+        || node instanceof AggregationNode
+            && ((AggregationNode) node).hasSingleGlobalAggregation()) {
+      return 1;
+    }
+    if (node instanceof LimitNode || node instanceof TopKNode) {
+      long count =
+          node instanceof LimitNode ? ((LimitNode) node).getCount() : ((TopKNode) node).getCount();
+      if (node.getChildren().size() != 1) {
+        return count;
+      }
+      long childRowNum = estimateMaxRowNum(node.getChildren().get(0), lookup);
+      return childRowNum < 0 ? count : Math.min(count, childRowNum);
+    }
+    if (node instanceof ProjectNode
+        || node instanceof FilterNode
+        || node instanceof OffsetNode
+        || node instanceof SortNode) {
+      return estimateMaxRowNum(node.getChildren().get(0), lookup);
+    }
+    return -1;
+  }
+
+  /** The sort on the join keys is only needed by merge sort join. */
+  static PlanNode removeJoinKeySort(PlanNode child, List<Symbol> joinKeys, Lookup lookup) {
+    PlanNode resolved = lookup.resolve(child);
+    if (resolved instanceof SortNode
+        && ((SortNode) resolved).getOrderingScheme().getOrderBy().equals(joinKeys)) {
+      return ((SortNode) resolved).getChild();
+    }
+    return child;
+  }
+}
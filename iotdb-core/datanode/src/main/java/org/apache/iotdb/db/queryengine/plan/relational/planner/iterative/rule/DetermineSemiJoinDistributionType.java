@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsEstimate;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Rule;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SemiJoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Captures;
+import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Pattern;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.DetermineJoinDistributionType.fitsHashJoinBuildSide;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.DetermineJoinDistributionType.removeJoinKeySort;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.Patterns.semiJoin;
+
+/**
+ * Chooses the algorithm of a semi join the same way as {@link DetermineJoinDistributionType}. The
+ * filtering source is the build side of hash semi join.
+ */
+public class DetermineSemiJoinDistributionType implements Rule<SemiJoinNode> {
+
+  private static final Pattern<SemiJoinNode> PATTERN =
+      semiJoin().matching(node -> !node.getDistributionType().isPresent());
+
+  @Override
+  public Pattern<SemiJoinNode> getPattern() {
+    return PATTERN;
+  }
+
+  @Override
+  public Result apply(SemiJoinNode node, Captures captures, Context context) {
+    if (!IoTDBDescriptor.getInstance().getConfig().isEnableHashJoin()) {
+      return Result.ofPlanNode(node.withDistributionType(JoinNode.DistributionType.MERGE_SORT));
+    }
+    PlanNodeStatsEstimate filteringSourceStats =
+        IoTDBDescriptor.getInstance().getConfig().isEnableCostBasedJoinOptimization()
+            ? context.getStatsProvider().getStats(node.getFilteringSource())
+            : PlanNodeStatsEstimate.unknown();
+    if (!fitsHashJoinBuildSide(
+        filteringSourceStats, node.getFilteringSource(), context.getLookup())) {
+      return Result.ofPlanNode(node.withDistributionType(JoinNode.DistributionType.MERGE_SORT));
+    }
+    SemiJoinNode hashSemiJoin =
+        (SemiJoinNode)
+            node.replaceChildren(
+                ImmutableList.of(
+                    removeJoinKeySort(
+                        node.getSource(),
+                        ImmutableList.of(node.getSourceJoinSymbol()),
+                        context.getLookup()),
+                    removeJoinKeySort(
+                        node.getFilteringSource(),
+                        ImmutableList.of(node.getFilteringSourceJoinSymbol()),
+                        context.getLookup())));
+    return Result.ofPlanNode(hashSemiJoin.withDistributionType(JoinNode.DistributionType.HASH));
+  }
+}
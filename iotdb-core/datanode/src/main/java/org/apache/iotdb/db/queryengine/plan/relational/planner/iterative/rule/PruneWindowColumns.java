@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule;
+
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.Util.restrictChildOutputs;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.Patterns.window;
+
+public class PruneWindowColumns extends ProjectOffPushDownRule<WindowNode> {
+
+  public PruneWindowColumns() {
+    super(window());
+  }
+
+  @Override
+  protected Optional<PlanNode> pushDownProjectOff(
+      Context context, WindowNode windowNode, Set<Symbol> referencedOutputs) {
+    Map<Symbol, WindowNode.Function> referencedFunctions =
+        Maps.filterKeys(windowNode.getWindowFunctions(), referencedOutputs::contains);
+
+    if (referencedFunctions.isEmpty()) {
+      return Optional.of(windowNode.getChild());
+    }
+
+    ImmutableSet.Builder<Symbol> referencedInputs = ImmutableSet.builder();
+    windowNode.getChild().getOutputSymbols().stream()
+        .filter(referencedOutputs::contains)
+        .forEach(referencedInputs::add);
+    referencedInputs.addAll(windowNode.getPartitionBy());
+    windowNode
+        .getOrderingScheme()
+        .ifPresent(orderingScheme -> referencedInputs.addAll(orderingScheme.getOrderBy()));
+    referencedFunctions
+        .values()
+        .forEach(function -> referencedInputs.addAll(function.getArguments()));
+
+    PlanNode prunedWindowNode = windowNode;
+    if (referencedFunctions.size() < windowNode.getWindowFunctions().size()) {
+      prunedWindowNode =
+          new WindowNode(
+              windowNode.getPlanNodeId(),
+              windowNode.getChild(),
+              windowNode.getPartitionBy(),
+              windowNode.getOrderingScheme(),
+              referencedFunctions);
+    }
+
+    Optional<PlanNode> result =
+        restrictChildOutputs(context.getIdAllocator(), prunedWindowNode, referencedInputs.build());
+    if (result.isPresent() || prunedWindowNode == windowNode) {
+      return result;
+    }
+    return Optional.of(prunedWindowNode);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.common.SessionInfo;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsEstimate;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Lookup;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Rule;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
+import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Captures;
+import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Pattern;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.Patterns.join;
+
+/**
+ * Reorders two nested inner merge joins by the estimated size of their intermediate result.
+ *
+ * <p>Transforms:
+ *
+ * <pre>
+ * - Join (B.y = C.y)
+ *     - Sort (B.y)
+ *         - Join (A.x = B.x)
+ *             - Sort (A.x)
+ *                 A
+ *             - Sort (B.x)
+ *                 B
+ *     - Sort (C.y)
+ *         C
+ * </pre>
+ *
+ * into:
+ *
+ * <pre>
+ * - Join (A.x = B.x)
+ *     - Sort (A.x)
+ *         A
+ *     - Sort (B.x)
+ *         - Join (B.y = C.y)
+ *             - Sort (B.y)
+ *                 B
+ *             - Sort (C.y)
+ *                 C
+ * </pre>
+ *
+ * if joining B with C is estimated to produce fewer rows than joining A with B. The outer join
+ * criteria must only refer to the symbols of B.
+ */
+public class ReorderInnerJoins implements Rule<JoinNode> {
+
+  private static final Pattern<JoinNode> PATTERN =
+      join().matching(ReorderInnerJoins::isReorderable);
+
+  @Override
+  public Pattern<JoinNode> getPattern() {
+    return PATTERN;
+  }
+
+  @Override
+  public boolean isEnabled(SessionInfo sessionInfo) {
+    return IoTDBDescriptor.getInstance().getConfig().isEnableCostBasedJoinOptimization();
+  }
+
+  @Override
+  public Result apply(JoinNode node, Captures captures, Context context) {
+    Lookup lookup = context.getLookup();
+    PlanNode outerLeft = lookup.resolve(node.getLeftChild());
+    if (!(outerLeft instanceof SortNode)) {
+      return Result.empty();
+    }
+    SortNode outerLeftSort = (SortNode) outerLeft;
+    PlanNode innerJoinNode = lookup.resolve(outerLeftSort.getChild());
+    if (!(innerJoinNode instanceof JoinNode) || !isReorderable((JoinNode) innerJoinNode)) {
+      return Result.empty();
+    }
+    JoinNode innerJoin = (JoinNode) innerJoinNode;
+    PlanNode innerRight = lookup.resolve(innerJoin.getRightChild());
+    if (!(innerRight instanceof SortNode)) {
+      return Result.empty();
+    }
+    SortNode innerRightSort = (SortNode) innerRight;
+    PlanNode b = innerRightSort.getChild();
+
+    // the outer join must only be keyed by the symbols of B
+    Set<Symbol> bSymbols = new HashSet<>(b.getOutputSymbols());
+    if (!node.getCriteria().stream().allMatch(clause -> bSymbols.contains(clause.getLeft()))
+        || !bSymbols.containsAll(outerLeftSort.getOrderingScheme().getOrderBy())) {
+      return Result.empty();
+    }
+
+    Set<Symbol> outerLeftOutputs = new HashSet<>(node.getLeftOutputSymbols());
+    Set<Symbol> requiredBSymbols = new HashSet<>(outerLeftOutputs);
+    innerJoin.getCriteria().forEach(clause -> requiredBSymbols.add(clause.getRight()));
+    List<Symbol> newInnerLeftOutputs =
+        b.getOutputSymbols().stream().filter(requiredBSymbols::contains).collect(toImmutableList());
+    JoinNode newInnerJoin =
+        new JoinNode(
+            context.getIdAllocator().genPlanNodeId(),
+            JoinNode.JoinType.INNER,
+            new SortNode(
+                context.getIdAllocator().genPlanNodeId(),
+                b,
+                outerLeftSort.getOrderingScheme(),
+                outerLeftSort.isPartial(),
+                outerLeftSort.isOrderByAllIdsAndTime()),
+            node.getRightChild(),
+            node.getCriteria(),
+            newInnerLeftOutputs,
+            node.getRightOutputSymbols(),
+            Optional.empty(),
+            node.isSpillable());
+
+    PlanNodeStatsEstimate oldInnerStats = context.getStatsProvider().getStats(innerJoin);
+    PlanNodeStatsEstimate newInnerStats = context.getStatsProvider().getStats(newInnerJoin);
+    if (oldInnerStats.isOutputRowCountUnknown()
+        || newInnerStats.isOutputRowCountUnknown()
+        || newInnerStats.getOutputRowCount() >= oldInnerStats.getOutputRowCount()) {
+      return Result.empty();
+    }
+
+    Set<Symbol> aSymbols = new HashSet<>(innerJoin.getLeftOutputSymbols());
+    List<Symbol> newOuterLeftOutputs =
+        node.getLeftOutputSymbols().stream().filter(aSymbols::contains).collect(toImmutableList());
+    List<Symbol> newOuterRightOutputs =
+        ImmutableList.<Symbol>builder()
+            .addAll(
+                node.getLeftOutputSymbols().stream()
+                    .filter(bSymbols::contains)
+                    .collect(toImmutableList()))
+            .addAll(node.getRightOutputSymbols())
+            .build();
+    return Result.ofPlanNode(
+        new JoinNode(
+            node.getPlanNodeId(),
+            JoinNode.JoinType.INNER,
+            innerJoin.getLeftChild(),
+            new SortNode(
+                context.getIdAllocator().genPlanNodeId(),
+                newInnerJoin,
+                innerRightSort.getOrderingScheme(),
+                innerRightSort.isPartial(),
+                innerRightSort.isOrderByAllIdsAndTime()),
+            innerJoin.getCriteria(),
+            newOuterLeftOutputs,
+            newOuterRightOutputs,
+            Optional.empty(),
+            innerJoin.isSpillable()));
+  }
+
+  private static boolean isReorderable(JoinNode node) {
+    return node.getJoinType() == JoinNode.JoinType.INNER
+        && !node.getCriteria().isEmpty()
+        && !node.getFilter().isPresent()
+        && !node.getDistributionType().isPresent();
+  }
+}
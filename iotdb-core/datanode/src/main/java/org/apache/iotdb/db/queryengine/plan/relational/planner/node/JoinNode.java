@@ -43,6 +43,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode.JoinType.INNER;
@@ -56,11 +57,12 @@ public class JoinNode extends TwoChildProcessNode {
   // some filter like 'a.xx_column < b.yy_column'
   private final Optional<Expression> filter;
   private final Optional<Boolean> spillable;
+  // decided by DetermineJoinDistributionType, merge sort join is used if it is empty
+  private final Optional<DistributionType> distributionType;
 
   // private final boolean maySkipOutputDuplicates;
   // private final Optional<Symbol> leftHashSymbol;
   // private final Optional<Symbol> rightHashSymbol;
-  // private final Optional<DistributionType> distributionType;
   // private final Map<DynamicFilterId, Symbol> dynamicFilters;
 
   public JoinNode(
@@ -73,6 +75,30 @@ public class JoinNode extends TwoChildProcessNode {
       List<Symbol> rightOutputSymbols,
       Optional<Expression> filter,
       Optional<Boolean> spillable) {
+    this(
+        id,
+        joinType,
+        leftChild,
+        rightChild,
+        criteria,
+        leftOutputSymbols,
+        rightOutputSymbols,
+        filter,
+        spillable,
+        Optional.empty());
+  }
+
+  public JoinNode(
+      PlanNodeId id,
+      JoinType joinType,
+      PlanNode leftChild,
+      PlanNode rightChild,
+      List<EquiJoinClause> criteria,
+      List<Symbol> leftOutputSymbols,
+      List<Symbol> rightOutputSymbols,
+      Optional<Expression> filter,
+      Optional<Boolean> spillable,
+      Optional<DistributionType> distributionType) {
     super(id);
     requireNonNull(joinType, "type is null");
     requireNonNull(leftChild, "left is null");
@@ -91,6 +117,7 @@ public class JoinNode extends TwoChildProcessNode {
     // requireNonNull(leftHashSymbol, "leftHashSymbol is null");
     // requireNonNull(rightHashSymbol, "rightHashSymbol is null");
     requireNonNull(spillable, "spillable is null");
+    requireNonNull(distributionType, "distributionType is null");
 
     this.joinType = joinType;
     this.leftChild = leftChild;
@@ -100,6 +127,7 @@ public class JoinNode extends TwoChildProcessNode {
     this.rightOutputSymbols = ImmutableList.copyOf(rightOutputSymbols);
     this.filter = filter;
     this.spillable = spillable;
+    this.distributionType = distributionType;
     // this.maySkipOutputDuplicates = maySkipOutputDuplicates;
     // this.leftHashSymbol = leftHashSymbol;
     // this.rightHashSymbol = rightHashSymbol;
@@ -136,7 +164,8 @@ public class JoinNode extends TwoChildProcessNode {
       JoinType joinType,
       List<EquiJoinClause> criteria,
       List<Symbol> leftOutputSymbols,
-      List<Symbol> rightOutputSymbols) {
+      List<Symbol> rightOutputSymbols,
+      Optional<DistributionType> distributionType) {
     super(id);
     requireNonNull(joinType, "type is null");
     requireNonNull(criteria, "criteria is null");
@@ -145,6 +174,7 @@ public class JoinNode extends TwoChildProcessNode {
     this.rightOutputSymbols = rightOutputSymbols;
     this.filter = Optional.empty();
     this.spillable = Optional.empty();
+    this.distributionType = distributionType;
 
     this.joinType = joinType;
     this.criteria = criteria;
@@ -167,7 +197,8 @@ public class JoinNode extends TwoChildProcessNode {
         leftOutputSymbols,
         rightOutputSymbols,
         filter,
-        spillable);
+        spillable,
+        distributionType);
   }
 
   @Override
@@ -190,7 +221,8 @@ public class JoinNode extends TwoChildProcessNode {
             leftOutputSymbols,
             rightOutputSymbols,
             filter,
-            spillable);
+            spillable,
+            distributionType);
     joinNode.setLeftChild(null);
     joinNode.setRightChild(null);
     return joinNode;
@@ -221,6 +253,11 @@ public class JoinNode extends TwoChildProcessNode {
     for (Symbol rightOutputSymbol : rightOutputSymbols) {
       Symbol.serialize(rightOutputSymbol, byteBuffer);
     }
+
+    ReadWriteIOUtils.write(distributionType.isPresent(), byteBuffer);
+    if (distributionType.isPresent()) {
+      ReadWriteIOUtils.write((byte) distributionType.get().ordinal(), byteBuffer);
+    }
   }
 
   @Override
@@ -243,6 +280,11 @@ public class JoinNode extends TwoChildProcessNode {
     for (Symbol rightOutputSymbol : rightOutputSymbols) {
       Symbol.serialize(rightOutputSymbol, stream);
     }
+
+    ReadWriteIOUtils.write(distributionType.isPresent(), stream);
+    if (distributionType.isPresent()) {
+      ReadWriteIOUtils.write((byte) distributionType.get().ordinal(), stream);
+    }
   }
 
   public static JoinNode deserialize(ByteBuffer byteBuffer) {
@@ -266,8 +308,20 @@ public class JoinNode extends TwoChildProcessNode {
       rightOutputSymbols.add(Symbol.deserialize(byteBuffer));
     }
 
+    Optional<DistributionType> distributionType = Optional.empty();
+    if (ReadWriteIOUtils.readBool(byteBuffer)) {
+      distributionType =
+          Optional.of(DistributionType.values()[ReadWriteIOUtils.readByte(byteBuffer)]);
+    }
+
     PlanNodeId planNodeId = PlanNodeId.deserialize(byteBuffer);
-    return new JoinNode(planNodeId, joinType, criteria, leftOutputSymbols, rightOutputSymbols);
+    return new JoinNode(
+        planNodeId,
+        joinType,
+        criteria,
+        leftOutputSymbols,
+        rightOutputSymbols,
+        distributionType);
   }
 
   public JoinType getJoinType() {
@@ -294,6 +348,61 @@ public class JoinNode extends TwoChildProcessNode {
     return spillable;
   }
 
+  public Optional<DistributionType> getDistributionType() {
+    return distributionType;
+  }
+
+  /**
+   * Returns the join whose children are swapped. The order of output symbols is changed as well, so
+   * the parent should refer to the output symbols by name.
+   */
+  public JoinNode flipChildren() {
+    return new JoinNode(
+        getPlanNodeId(),
+        flipType(joinType),
+        rightChild,
+        leftChild,
+        flipJoinCriteria(criteria),
+        rightOutputSymbols,
+        leftOutputSymbols,
+        filter,
+        spillable,
+        distributionType);
+  }
+
+  public JoinNode withDistributionType(DistributionType distributionType) {
+    return new JoinNode(
+        getPlanNodeId(),
+        joinType,
+        leftChild,
+        rightChild,
+        criteria,
+        leftOutputSymbols,
+        rightOutputSymbols,
+        filter,
+        spillable,
+        Optional.of(distributionType));
+  }
+
+  private static JoinType flipType(JoinType type) {
+    switch (type) {
+      case INNER:
+        return INNER;
+      case FULL:
+        return JoinType.FULL;
+      case LEFT:
+        return JoinType.RIGHT;
+      case RIGHT:
+        return JoinType.LEFT;
+      default:
+        throw new IllegalStateException("No inverse defined for join type: " + type);
+    }
+  }
+
+  private static List<EquiJoinClause> flipJoinCriteria(List<EquiJoinClause> joinCriteria) {
+    return joinCriteria.stream().map(EquiJoinClause::flip).collect(toImmutableList());
+  }
+
   public boolean isCrossJoin() {
     return criteria.isEmpty() && !filter.isPresent() && joinType == INNER;
   }
@@ -355,6 +464,16 @@ public class JoinNode extends TwoChildProcessNode {
     }
   }
 
+  /**
+   * How the join is executed. The right child is the build side of a HASH join, which is buffered
+   * in memory and spilled if it is too large. Both children of a MERGE_SORT join are sorted on the
+   * join keys.
+   */
+  public enum DistributionType {
+    HASH,
+    MERGE_SORT
+  }
+
   public enum JoinType {
     INNER("InnerJoin"),
     LEFT("LeftJoin"),
@@ -151,6 +151,10 @@ public final class Patterns {
     return typeOf(GapFillNode.class);
   }
 
+  public static Pattern<WindowNode> window() {
+    return typeOf(WindowNode.class);
+  }
+
   public static Pattern<FillNode> fill() {
     return typeOf(FillNode.class);
   }
@@ -203,11 +207,6 @@ public final class Patterns {
       return typeOf(UnnestNode.class);
   }
 
-  public static Pattern<WindowNode> window()
-  {
-      return typeOf(WindowNode.class);
-  }
-
   public static Pattern<PatternRecognitionNode> patternRecognition()
   {
       return typeOf(PatternRecognitionNode.class);
@@ -27,12 +27,14 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.process.TwoChildPr
 import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
 
 import com.google.common.collect.ImmutableList;
+import org.apache.tsfile.utils.ReadWriteIOUtils;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
@@ -41,6 +43,8 @@ public class SemiJoinNode extends TwoChildProcessNode {
   private final Symbol sourceJoinSymbol;
   private final Symbol filteringSourceJoinSymbol;
   private final Symbol semiJoinOutput;
+  // decided by DetermineSemiJoinDistributionType, merge sort join is used if it is empty
+  private final Optional<JoinNode.DistributionType> distributionType;
 
   public SemiJoinNode(
       PlanNodeId id,
@@ -49,11 +53,30 @@ public class SemiJoinNode extends TwoChildProcessNode {
       Symbol sourceJoinSymbol,
       Symbol filteringSourceJoinSymbol,
       Symbol semiJoinOutput) {
+    this(
+        id,
+        source,
+        filteringSource,
+        sourceJoinSymbol,
+        filteringSourceJoinSymbol,
+        semiJoinOutput,
+        Optional.empty());
+  }
+
+  public SemiJoinNode(
+      PlanNodeId id,
+      PlanNode source,
+      PlanNode filteringSource,
+      Symbol sourceJoinSymbol,
+      Symbol filteringSourceJoinSymbol,
+      Symbol semiJoinOutput,
+      Optional<JoinNode.DistributionType> distributionType) {
     super(id, source, filteringSource);
     this.sourceJoinSymbol = requireNonNull(sourceJoinSymbol, "sourceJoinSymbol is null");
     this.filteringSourceJoinSymbol =
         requireNonNull(filteringSourceJoinSymbol, "filteringSourceJoinSymbol is null");
     this.semiJoinOutput = requireNonNull(semiJoinOutput, "semiJoinOutput is null");
+    this.distributionType = requireNonNull(distributionType, "distributionType is null");
 
     if (source != null) {
       checkArgument(
@@ -88,6 +111,21 @@ public class SemiJoinNode extends TwoChildProcessNode {
     return semiJoinOutput;
   }
 
+  public Optional<JoinNode.DistributionType> getDistributionType() {
+    return distributionType;
+  }
+
+  public SemiJoinNode withDistributionType(JoinNode.DistributionType distributionType) {
+    return new SemiJoinNode(
+        getPlanNodeId(),
+        leftChild,
+        rightChild,
+        sourceJoinSymbol,
+        filteringSourceJoinSymbol,
+        semiJoinOutput,
+        Optional.of(distributionType));
+  }
+
   @Override
   public List<Symbol> getOutputSymbols() {
     return ImmutableList.<Symbol>builder()
@@ -110,14 +148,21 @@ public class SemiJoinNode extends TwoChildProcessNode {
         newChildren.get(1),
         sourceJoinSymbol,
         filteringSourceJoinSymbol,
-        semiJoinOutput);
+        semiJoinOutput,
+        distributionType);
   }
 
   @Override
   public PlanNode clone() {
     // clone without children
     return new SemiJoinNode(
-        getPlanNodeId(), null, null, sourceJoinSymbol, filteringSourceJoinSymbol, semiJoinOutput);
+        getPlanNodeId(),
+        null,
+        null,
+        sourceJoinSymbol,
+        filteringSourceJoinSymbol,
+        semiJoinOutput,
+        distributionType);
   }
 
   @Override
@@ -143,13 +188,18 @@ public class SemiJoinNode extends TwoChildProcessNode {
 
     return Objects.equals(this.sourceJoinSymbol, other.sourceJoinSymbol)
         && Objects.equals(this.filteringSourceJoinSymbol, other.filteringSourceJoinSymbol)
-        && Objects.equals(this.semiJoinOutput, other.semiJoinOutput);
+        && Objects.equals(this.semiJoinOutput, other.semiJoinOutput)
+        && Objects.equals(this.distributionType, other.distributionType);
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(
-        super.hashCode(), sourceJoinSymbol, filteringSourceJoinSymbol, semiJoinOutput);
+        super.hashCode(),
+        sourceJoinSymbol,
+        filteringSourceJoinSymbol,
+        semiJoinOutput,
+        distributionType);
   }
 
   @Override
@@ -159,6 +209,10 @@ public class SemiJoinNode extends TwoChildProcessNode {
     Symbol.serialize(sourceJoinSymbol, byteBuffer);
     Symbol.serialize(filteringSourceJoinSymbol, byteBuffer);
     Symbol.serialize(semiJoinOutput, byteBuffer);
+    ReadWriteIOUtils.write(distributionType.isPresent(), byteBuffer);
+    if (distributionType.isPresent()) {
+      ReadWriteIOUtils.write((byte) distributionType.get().ordinal(), byteBuffer);
+    }
   }
 
   @Override
@@ -168,14 +222,29 @@ public class SemiJoinNode extends TwoChildProcessNode {
     Symbol.serialize(sourceJoinSymbol, stream);
     Symbol.serialize(filteringSourceJoinSymbol, stream);
     Symbol.serialize(semiJoinOutput, stream);
+    ReadWriteIOUtils.write(distributionType.isPresent(), stream);
+    if (distributionType.isPresent()) {
+      ReadWriteIOUtils.write((byte) distributionType.get().ordinal(), stream);
+    }
   }
 
   public static SemiJoinNode deserialize(ByteBuffer byteBuffer) {
     Symbol sourceJoinSymbol = Symbol.deserialize(byteBuffer);
     Symbol filteringSourceJoinSymbol = Symbol.deserialize(byteBuffer);
     Symbol semiJoinOutput = Symbol.deserialize(byteBuffer);
+    Optional<JoinNode.DistributionType> distributionType = Optional.empty();
+    if (ReadWriteIOUtils.readBool(byteBuffer)) {
+      distributionType =
+          Optional.of(JoinNode.DistributionType.values()[ReadWriteIOUtils.readByte(byteBuffer)]);
+    }
     PlanNodeId planNodeId = PlanNodeId.deserialize(byteBuffer);
     return new SemiJoinNode(
-        planNodeId, null, null, sourceJoinSymbol, filteringSourceJoinSymbol, semiJoinOutput);
+        planNodeId,
+        null,
+        null,
+        sourceJoinSymbol,
+        filteringSourceJoinSymbol,
+        semiJoinOutput,
+        distributionType);
   }
 }
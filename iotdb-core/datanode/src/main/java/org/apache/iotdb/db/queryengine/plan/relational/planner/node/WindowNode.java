@@ -0,0 +1,404 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner.node;
+
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeType;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanVisitor;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.process.SingleChildProcessNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.OrderingScheme;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowFrame;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import org.apache.tsfile.utils.ReadWriteIOUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates window functions over the rows of its child. The child must be ordered by the partition
+ * keys followed by the ordering scheme, so that every partition arrives as one contiguous run of
+ * rows.
+ */
+public class WindowNode extends SingleChildProcessNode {
+
+  private final List<Symbol> partitionBy;
+  private final Optional<OrderingScheme> orderingScheme;
+  private final Map<Symbol, Function> windowFunctions;
+
+  public WindowNode(
+      PlanNodeId id,
+      PlanNode child,
+      List<Symbol> partitionBy,
+      Optional<OrderingScheme> orderingScheme,
+      Map<Symbol, Function> windowFunctions) {
+    super(id, child);
+    this.partitionBy = ImmutableList.copyOf(requireNonNull(partitionBy, "partitionBy is null"));
+    this.orderingScheme = requireNonNull(orderingScheme, "orderingScheme is null");
+    // keep the order of output symbols stable
+    this.windowFunctions =
+        new LinkedHashMap<>(requireNonNull(windowFunctions, "windowFunctions is null"));
+  }
+
+  public List<Symbol> getPartitionBy() {
+    return partitionBy;
+  }
+
+  public Optional<OrderingScheme> getOrderingScheme() {
+    return orderingScheme;
+  }
+
+  public Map<Symbol, Function> getWindowFunctions() {
+    return windowFunctions;
+  }
+
+  @Override
+  public <R, C> R accept(PlanVisitor<R, C> visitor, C context) {
+    return visitor.visitWindow(this, context);
+  }
+
+  @Override
+  public List<String> getOutputColumnNames() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public List<Symbol> getOutputSymbols() {
+    return ImmutableList.<Symbol>builder()
+        .addAll(child.getOutputSymbols())
+        .addAll(windowFunctions.keySet())
+        .build();
+  }
+
+  @Override
+  public PlanNode clone() {
+    return new WindowNode(id, null, partitionBy, orderingScheme, windowFunctions);
+  }
+
+  @Override
+  public PlanNode replaceChildren(List<PlanNode> newChildren) {
+    return new WindowNode(
+        id, Iterables.getOnlyElement(newChildren), partitionBy, orderingScheme, windowFunctions);
+  }
+
+  @Override
+  protected void serializeAttributes(ByteBuffer byteBuffer) {
+    PlanNodeType.TABLE_WINDOW_NODE.serialize(byteBuffer);
+    ReadWriteIOUtils.write(partitionBy.size(), byteBuffer);
+    for (Symbol symbol : partitionBy) {
+      Symbol.serialize(symbol, byteBuffer);
+    }
+    ReadWriteIOUtils.write(orderingScheme.isPresent(), byteBuffer);
+    if (orderingScheme.isPresent()) {
+      orderingScheme.get().serialize(byteBuffer);
+    }
+    ReadWriteIOUtils.write(windowFunctions.size(), byteBuffer);
+    for (Map.Entry<Symbol, Function> entry : windowFunctions.entrySet()) {
+      Symbol.serialize(entry.getKey(), byteBuffer);
+      entry.getValue().serialize(byteBuffer);
+    }
+  }
+
+  @Override
+  protected void serializeAttributes(DataOutputStream stream) throws IOException {
+    PlanNodeType.TABLE_WINDOW_NODE.serialize(stream);
+    ReadWriteIOUtils.write(partitionBy.size(), stream);
+    for (Symbol symbol : partitionBy) {
+      Symbol.serialize(symbol, stream);
+    }
+    ReadWriteIOUtils.write(orderingScheme.isPresent(), stream);
+    if (orderingScheme.isPresent()) {
+      orderingScheme.get().serialize(stream);
+    }
+    ReadWriteIOUtils.write(windowFunctions.size(), stream);
+    for (Map.Entry<Symbol, Function> entry : windowFunctions.entrySet()) {
+      Symbol.serialize(entry.getKey(), stream);
+      entry.getValue().serialize(stream);
+    }
+  }
+
+  public static WindowNode deserialize(ByteBuffer byteBuffer) {
+    int size = ReadWriteIOUtils.readInt(byteBuffer);
+    List<Symbol> partitionBy = new ArrayList<>(size);
+    while (size-- > 0) {
+      partitionBy.add(Symbol.deserialize(byteBuffer));
+    }
+    Optional<OrderingScheme> orderingScheme = Optional.empty();
+    if (ReadWriteIOUtils.readBool(byteBuffer)) {
+      orderingScheme = Optional.of(OrderingScheme.deserialize(byteBuffer));
+    }
+    size = ReadWriteIOUtils.readInt(byteBuffer);
+    Map<Symbol, Function> windowFunctions = new LinkedHashMap<>(size);
+    while (size-- > 0) {
+      Symbol symbol = Symbol.deserialize(byteBuffer);
+      windowFunctions.put(symbol, Function.deserialize(byteBuffer));
+    }
+    PlanNodeId planNodeId = PlanNodeId.deserialize(byteBuffer);
+    return new WindowNode(planNodeId, null, partitionBy, orderingScheme, windowFunctions);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    WindowNode that = (WindowNode) o;
+    return Objects.equals(partitionBy, that.partitionBy)
+        && Objects.equals(orderingScheme, that.orderingScheme)
+        && Objects.equals(windowFunctions, that.windowFunctions);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), partitionBy, orderingScheme, windowFunctions);
+  }
+
+  @Override
+  public String toString() {
+    return "WindowNode-" + this.getPlanNodeId();
+  }
+
+  /** One window function call, e.g. {@code lag(s1, 2)} or {@code avg(s1)} with its frame. */
+  public static class Function {
+    private final String name;
+    private final List<Symbol> arguments;
+    // offset of lag and lead, ignored by the other functions
+    private final long offset;
+    private final Frame frame;
+
+    public Function(String name, List<Symbol> arguments, long offset, Frame frame) {
+      this.name = requireNonNull(name, "name is null");
+      this.arguments = ImmutableList.copyOf(requireNonNull(arguments, "arguments is null"));
+      this.offset = offset;
+      this.frame = requireNonNull(frame, "frame is null");
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public List<Symbol> getArguments() {
+      return arguments;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public Frame getFrame() {
+      return frame;
+    }
+
+    public Function withArguments(List<Symbol> newArguments) {
+      return new Function(name, newArguments, offset, frame);
+    }
+
+    private void serialize(ByteBuffer byteBuffer) {
+      ReadWriteIOUtils.write(name, byteBuffer);
+      ReadWriteIOUtils.write(arguments.size(), byteBuffer);
+      for (Symbol symbol : arguments) {
+        Symbol.serialize(symbol, byteBuffer);
+      }
+      ReadWriteIOUtils.write(offset, byteBuffer);
+      frame.serialize(byteBuffer);
+    }
+
+    private void serialize(DataOutputStream stream) throws IOException {
+      ReadWriteIOUtils.write(name, stream);
+      ReadWriteIOUtils.write(arguments.size(), stream);
+      for (Symbol symbol : arguments) {
+        Symbol.serialize(symbol, stream);
+      }
+      ReadWriteIOUtils.write(offset, stream);
+      frame.serialize(stream);
+    }
+
+    private static Function deserialize(ByteBuffer byteBuffer) {
+      String name = ReadWriteIOUtils.readString(byteBuffer);
+      int size = ReadWriteIOUtils.readInt(byteBuffer);
+      List<Symbol> arguments = new ArrayList<>(size);
+      while (size-- > 0) {
+        arguments.add(Symbol.deserialize(byteBuffer));
+      }
+      long offset = ReadWriteIOUtils.readLong(byteBuffer);
+      return new Function(name, arguments, offset, Frame.deserialize(byteBuffer));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Function that = (Function) o;
+      return offset == that.offset
+          && Objects.equals(name, that.name)
+          && Objects.equals(arguments, that.arguments)
+          && Objects.equals(frame, that.frame);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, arguments, offset, frame);
+    }
+
+    @Override
+    public String toString() {
+      return name + arguments + " " + frame;
+    }
+  }
+
+  /** Frame of a window function, offsets are only meaningful for PRECEDING and FOLLOWING. */
+  public static class Frame {
+    public static final Frame DEFAULT_FRAME =
+        new Frame(
+            WindowFrame.Type.RANGE,
+            FrameBound.Type.UNBOUNDED_PRECEDING,
+            0,
+            FrameBound.Type.CURRENT_ROW,
+            0);
+
+    private final WindowFrame.Type type;
+    private final FrameBound.Type startType;
+    private final long startOffset;
+    private final FrameBound.Type endType;
+    private final long endOffset;
+
+    public Frame(
+        WindowFrame.Type type,
+        FrameBound.Type startType,
+        long startOffset,
+        FrameBound.Type endType,
+        long endOffset) {
+      this.type = requireNonNull(type, "type is null");
+      this.startType = requireNonNull(startType, "startType is null");
+      this.startOffset = startOffset;
+      this.endType = requireNonNull(endType, "endType is null");
+      this.endOffset = endOffset;
+    }
+
+    public WindowFrame.Type getType() {
+      return type;
+    }
+
+    public FrameBound.Type getStartType() {
+      return startType;
+    }
+
+    public long getStartOffset() {
+      return startOffset;
+    }
+
+    public FrameBound.Type getEndType() {
+      return endType;
+    }
+
+    public long getEndOffset() {
+      return endOffset;
+    }
+
+    private void serialize(ByteBuffer byteBuffer) {
+      ReadWriteIOUtils.write(type.ordinal(), byteBuffer);
+      ReadWriteIOUtils.write(startType.ordinal(), byteBuffer);
+      ReadWriteIOUtils.write(startOffset, byteBuffer);
+      ReadWriteIOUtils.write(endType.ordinal(), byteBuffer);
+      ReadWriteIOUtils.write(endOffset, byteBuffer);
+    }
+
+    private void serialize(DataOutputStream stream) throws IOException {
+      ReadWriteIOUtils.write(type.ordinal(), stream);
+      ReadWriteIOUtils.write(startType.ordinal(), stream);
+      ReadWriteIOUtils.write(startOffset, stream);
+      ReadWriteIOUtils.write(endType.ordinal(), stream);
+      ReadWriteIOUtils.write(endOffset, stream);
+    }
+
+    private static Frame deserialize(ByteBuffer byteBuffer) {
+      WindowFrame.Type type = WindowFrame.Type.values()[ReadWriteIOUtils.readInt(byteBuffer)];
+      FrameBound.Type startType = FrameBound.Type.values()[ReadWriteIOUtils.readInt(byteBuffer)];
+      long startOffset = ReadWriteIOUtils.readLong(byteBuffer);
+      FrameBound.Type endType = FrameBound.Type.values()[ReadWriteIOUtils.readInt(byteBuffer)];
+      long endOffset = ReadWriteIOUtils.readLong(byteBuffer);
+      return new Frame(type, startType, startOffset, endType, endOffset);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Frame that = (Frame) o;
+      return startOffset == that.startOffset
+          && endOffset == that.endOffset
+          && type == that.type
+          && startType == that.startType
+          && endType == that.endType;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, startType, startOffset, endType, endOffset);
+    }
+
+    @Override
+    public String toString() {
+      return type
+          + " "
+          + formatBound(startType, startOffset)
+          + " "
+          + formatBound(endType, endOffset);
+    }
+
+    private static String formatBound(FrameBound.Type boundType, long offset) {
+      switch (boundType) {
+        case PRECEDING:
+          return offset + " PRECEDING";
+        case FOLLOWING:
+          return offset + " FOLLOWING";
+        default:
+          return boundType.toString();
+      }
+    }
+  }
+}
@@ -21,10 +21,16 @@ package org.apache.iotdb.db.queryengine.plan.relational.planner.optimizations;
 import org.apache.iotdb.db.queryengine.plan.relational.metadata.Metadata;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.IrTypeAnalyzer;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.PlannerContext;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.ClusterTableStatsProvider;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsCalculator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.StatsCalculator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.TableStatsProvider;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.IterativeOptimizer;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Rule;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.RuleStatsRecorder;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.CanonicalizeExpressions;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.DetermineJoinDistributionType;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.DetermineSemiJoinDistributionType;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.InlineProjections;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.MergeFilters;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.MergeLimitOverProjectWithSort;
@@ -51,6 +57,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.Pr
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.PruneSortColumns;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.PruneTableScanColumns;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.PruneTopKColumns;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.PruneWindowColumns;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.PushLimitThroughOffset;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.PushLimitThroughProject;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.RemoveDuplicateConditions;
@@ -58,6 +65,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.Re
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.RemoveRedundantIdentityProjections;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.RemoveTrivialFilters;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.RemoveUnreferencedScalarSubqueries;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.ReorderInnerJoins;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.SimplifyExpressions;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.TransformUncorrelatedInPredicateSubqueryToSemiJoin;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.TransformUncorrelatedSubqueryToJoin;
@@ -73,9 +81,15 @@ public class LogicalOptimizeFactory {
   private final List<PlanOptimizer> planOptimizers;
 
   public LogicalOptimizeFactory(PlannerContext plannerContext) {
+    this(plannerContext, ClusterTableStatsProvider.getInstance());
+  }
+
+  public LogicalOptimizeFactory(
+      PlannerContext plannerContext, TableStatsProvider tableStatsProvider) {
     IrTypeAnalyzer typeAnalyzer = new IrTypeAnalyzer(plannerContext);
     Metadata metadata = plannerContext.getMetadata();
     RuleStatsRecorder ruleStats = new RuleStatsRecorder();
+    StatsCalculator statsCalculator = new PlanNodeStatsCalculator(tableStatsProvider);
 
     Set<Rule<?>> columnPruningRules =
         ImmutableSet.of(
@@ -99,6 +113,7 @@ public class LogicalOptimizeFactory {
             new PruneSortColumns(),
             new PruneTableScanColumns(plannerContext.getMetadata()),
             new PruneTopKColumns(),
+            new PruneWindowColumns(),
             new PruneJoinColumns(),
             new PruneJoinChildrenColumns());
     IterativeOptimizer columnPruningOptimizer =
@@ -230,6 +245,17 @@ public class LogicalOptimizeFactory {
         inlineProjectionLimitFiltersOptimizer,
         new IterativeOptimizer(plannerContext, ruleStats, limitPushdownRules),
         new PushLimitOffsetIntoTableScan(),
+        // join order is decided before the join algorithm, both are based on the estimated stats.
+        // The join algorithm must be decided before the distributed plan is generated, because the
+        // sorts for merge sort join are removed from hash joins.
+        new IterativeOptimizer(
+            plannerContext, ruleStats, statsCalculator, ImmutableSet.of(new ReorderInnerJoins())),
+        new IterativeOptimizer(
+            plannerContext,
+            ruleStats,
+            statsCalculator,
+            ImmutableSet.of(
+                new DetermineJoinDistributionType(), new DetermineSemiJoinDistributionType())),
         new TransformAggregationToStreamable(),
         new PushAggregationIntoTableScan(),
         new TransformSortToStreamSort(),
@@ -39,6 +39,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ProjectNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.StreamSortNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TopKNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
 
 import java.util.HashSet;
@@ -130,6 +131,12 @@ public class PushLimitOffsetIntoTableScan implements PlanOptimizer {
       return node;
     }
 
+    @Override
+    public PlanNode visitWindow(WindowNode node, Context context) {
+      context.enablePushDown = false;
+      return node;
+    }
+
     @Override
     public PlanNode visitLinearFill(LinearFillNode node, Context context) {
       context.enablePushDown = false;
@@ -50,6 +50,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TopKNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.TreeDeviceViewScanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.ValueFillNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.NullLiteral;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SymbolReference;
@@ -62,6 +63,7 @@ import com.google.common.collect.Sets;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -274,6 +276,33 @@ public class UnaliasSymbolReferences implements PlanOptimizer {
           mapping);
     }
 
+    @Override
+    public PlanAndMappings visitWindow(WindowNode node, UnaliasContext context) {
+      PlanAndMappings rewrittenSource = node.getChild().accept(this, context);
+      Map<Symbol, Symbol> mapping = new HashMap<>(rewrittenSource.getMappings());
+      SymbolMapper mapper = symbolMapper(mapping);
+
+      Map<Symbol, WindowNode.Function> newFunctions = new LinkedHashMap<>();
+      node.getWindowFunctions()
+          .forEach(
+              (symbol, function) ->
+                  newFunctions.put(
+                      mapper.map(symbol),
+                      function.withArguments(
+                          function.getArguments().stream()
+                              .map(mapper::map)
+                              .collect(Collectors.toList()))));
+
+      return new PlanAndMappings(
+          new WindowNode(
+              node.getPlanNodeId(),
+              rewrittenSource.getRoot(),
+              mapper.mapAndDistinct(node.getPartitionBy()),
+              node.getOrderingScheme().map(mapper::map),
+              newFunctions),
+          mapping);
+    }
+
     @Override
     public PlanAndMappings visitPreviousFill(PreviousFillNode node, UnaliasContext context) {
       PlanAndMappings rewrittenSource = node.getChild().accept(this, context);
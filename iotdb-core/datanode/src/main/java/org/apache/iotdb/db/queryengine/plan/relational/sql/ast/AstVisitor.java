@@ -269,6 +269,18 @@ public abstract class AstVisitor<R, C> {
     return visitNode(node, context);
   }
 
+  protected R visitWindowSpecification(WindowSpecification node, C context) {
+    return visitNode(node, context);
+  }
+
+  protected R visitWindowFrame(WindowFrame node, C context) {
+    return visitNode(node, context);
+  }
+
+  protected R visitFrameBound(FrameBound node, C context) {
+    return visitNode(node, context);
+  }
+
   protected R visitTable(Table node, C context) {
     return visitQueryBody(node, context);
   }
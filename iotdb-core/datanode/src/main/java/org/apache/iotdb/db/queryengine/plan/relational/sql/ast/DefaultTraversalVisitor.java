@@ -196,6 +196,34 @@ public abstract class DefaultTraversalVisitor<C> extends AstVisitor<Void, C> {
       process(argument, context);
     }
 
+    node.getWindow().ifPresent(window -> process(window, context));
+
+    return null;
+  }
+
+  @Override
+  protected Void visitWindowSpecification(WindowSpecification node, C context) {
+    for (Expression expression : node.getPartitionBy()) {
+      process(expression, context);
+    }
+    node.getOrderBy().ifPresent(orderBy -> process(orderBy, context));
+    node.getFrame().ifPresent(frame -> process(frame, context));
+
+    return null;
+  }
+
+  @Override
+  protected Void visitWindowFrame(WindowFrame node, C context) {
+    process(node.getStart(), context);
+    node.getEnd().ifPresent(end -> process(end, context));
+
+    return null;
+  }
+
+  @Override
+  protected Void visitFrameBound(FrameBound node, C context) {
+    node.getValue().ifPresent(value -> process(value, context));
+
     return null;
   }
 
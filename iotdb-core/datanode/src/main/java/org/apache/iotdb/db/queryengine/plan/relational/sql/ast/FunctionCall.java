@@ -28,6 +28,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -35,12 +36,15 @@ public class FunctionCall extends Expression {
   private final QualifiedName name;
   private final boolean distinct;
   private final List<Expression> arguments;
+  // present only for window functions, i.e. the call is followed by an OVER clause
+  private final Optional<WindowSpecification> window;
 
   public FunctionCall(QualifiedName name, List<Expression> arguments) {
     super(null);
     this.name = requireNonNull(name, "name is null");
     this.distinct = false;
     this.arguments = requireNonNull(arguments, "arguments is null");
+    this.window = Optional.empty();
   }
 
   public FunctionCall(QualifiedName name, boolean distinct, List<Expression> arguments) {
@@ -48,6 +52,7 @@ public class FunctionCall extends Expression {
     this.name = requireNonNull(name, "name is null");
     this.distinct = distinct;
     this.arguments = requireNonNull(arguments, "arguments is null");
+    this.window = Optional.empty();
   }
 
   public FunctionCall(NodeLocation location, QualifiedName name, List<Expression> arguments) {
@@ -56,10 +61,20 @@ public class FunctionCall extends Expression {
 
   public FunctionCall(
       NodeLocation location, QualifiedName name, boolean distinct, List<Expression> arguments) {
+    this(location, name, distinct, arguments, Optional.empty());
+  }
+
+  public FunctionCall(
+      NodeLocation location,
+      QualifiedName name,
+      boolean distinct,
+      List<Expression> arguments,
+      Optional<WindowSpecification> window) {
     super(requireNonNull(location, "location is null"));
     this.name = requireNonNull(name, "name is null");
     this.distinct = distinct;
     this.arguments = requireNonNull(arguments, "arguments is null");
+    this.window = requireNonNull(window, "window is null");
   }
 
   public QualifiedName getName() {
@@ -74,6 +89,10 @@ public class FunctionCall extends Expression {
     return arguments;
   }
 
+  public Optional<WindowSpecification> getWindow() {
+    return window;
+  }
+
   @Override
   public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
     return visitor.visitFunctionCall(this, context);
@@ -83,6 +102,7 @@ public class FunctionCall extends Expression {
   public List<Node> getChildren() {
     ImmutableList.Builder<Node> nodes = ImmutableList.builder();
     nodes.addAll(arguments);
+    window.ifPresent(nodes::add);
     return nodes.build();
   }
 
@@ -97,12 +117,13 @@ public class FunctionCall extends Expression {
     FunctionCall o = (FunctionCall) obj;
     return Objects.equals(name, o.name)
         && Objects.equals(distinct, o.distinct)
-        && Objects.equals(arguments, o.arguments);
+        && Objects.equals(arguments, o.arguments)
+        && Objects.equals(window, o.window);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(name, distinct, arguments);
+    return Objects.hash(name, distinct, arguments, window);
   }
 
   @Override
@@ -113,7 +134,9 @@ public class FunctionCall extends Expression {
 
     FunctionCall otherFunction = (FunctionCall) other;
 
-    return name.equals(otherFunction.name) && distinct == otherFunction.distinct;
+    return name.equals(otherFunction.name)
+        && distinct == otherFunction.distinct
+        && window.isPresent() == otherFunction.window.isPresent();
   }
 
   // =============== serialize =================
@@ -122,6 +145,8 @@ public class FunctionCall extends Expression {
     return TableExpressionType.FUNCTION_CALL;
   }
 
+  // window functions are always planned into a WindowNode and replaced by its output symbol, so the
+  // OVER clause never needs to be serialized
   @Override
   public void serialize(DataOutputStream stream) throws IOException {
     this.name.serialize(stream);
@@ -141,5 +166,6 @@ public class FunctionCall extends Expression {
     while (size-- > 0) {
       arguments.add(Expression.deserialize(byteBuffer));
     }
+    this.window = Optional.empty();
   }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.sql.ast;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/** The {@code OVER (PARTITION BY ... ORDER BY ... frame)} clause of a window function. */
+public class WindowSpecification extends Node {
+
+  private final List<Expression> partitionBy;
+  private final Optional<OrderBy> orderBy;
+  private final Optional<WindowFrame> frame;
+
+  public WindowSpecification(
+      List<Expression> partitionBy, Optional<OrderBy> orderBy, Optional<WindowFrame> frame) {
+    super(null);
+    this.partitionBy = ImmutableList.copyOf(requireNonNull(partitionBy, "partitionBy is null"));
+    this.orderBy = requireNonNull(orderBy, "orderBy is null");
+    this.frame = requireNonNull(frame, "frame is null");
+  }
+
+  public WindowSpecification(
+      NodeLocation location,
+      List<Expression> partitionBy,
+      Optional<OrderBy> orderBy,
+      Optional<WindowFrame> frame) {
+    super(requireNonNull(location, "location is null"));
+    this.partitionBy = ImmutableList.copyOf(requireNonNull(partitionBy, "partitionBy is null"));
+    this.orderBy = requireNonNull(orderBy, "orderBy is null");
+    this.frame = requireNonNull(frame, "frame is null");
+  }
+
+  public List<Expression> getPartitionBy() {
+    return partitionBy;
+  }
+
+  public Optional<OrderBy> getOrderBy() {
+    return orderBy;
+  }
+
+  public Optional<WindowFrame> getFrame() {
+    return frame;
+  }
+
+  @Override
+  public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+    return visitor.visitWindowSpecification(this, context);
+  }
+
+  @Override
+  public List<Node> getChildren() {
+    ImmutableList.Builder<Node> nodes = ImmutableList.builder();
+    nodes.addAll(partitionBy);
+    orderBy.ifPresent(nodes::add);
+    frame.ifPresent(nodes::add);
+    return nodes.build();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if ((obj == null) || (getClass() != obj.getClass())) {
+      return false;
+    }
+    WindowSpecification o = (WindowSpecification) obj;
+    return Objects.equals(partitionBy, o.partitionBy)
+        && Objects.equals(orderBy, o.orderBy)
+        && Objects.equals(frame, o.frame);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(partitionBy, orderBy, frame);
+  }
+
+  @Override
+  public String toString() {
+    return toStringHelper(this)
+        .add("partitionBy", partitionBy)
+        .add("orderBy", orderBy)
+        .add("frame", frame)
+        .toString();
+  }
+
+  @Override
+  public boolean shallowEquals(Node other) {
+    if (!sameClass(this, other)) {
+      return false;
+    }
+    // the children are compared one by one, so the shape of the clause is compared here
+    WindowSpecification o = (WindowSpecification) other;
+    return partitionBy.size() == o.partitionBy.size()
+        && orderBy.isPresent() == o.orderBy.isPresent()
+        && frame.isPresent() == o.frame.isPresent();
+  }
+}
@@ -83,6 +83,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ExplainAnalyze;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Fill;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Flush;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FunctionCall;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.GenericDataType;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.GroupBy;
@@ -174,6 +175,8 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.UpdateAssignment;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Use;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Values;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WhenClause;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowFrame;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowSpecification;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.With;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WithQuery;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.util.AstUtil;
@@ -2133,12 +2136,15 @@ public class AstBuilder extends RelationalSqlBaseVisitor<Node> {
 
     boolean distinct = isDistinct(ctx.setQuantifier());
 
+    Optional<WindowSpecification> window = visitIfPresent(ctx.over(), WindowSpecification.class);
+
     if (name.toString().equalsIgnoreCase("if")) {
       check(
           ctx.expression().size() == 2 || ctx.expression().size() == 3,
           "Invalid number of arguments for 'if' function",
           ctx);
       check(!distinct, "DISTINCT not valid for 'if' function", ctx);
+      check(!window.isPresent(), "OVER clause not valid for 'if' function", ctx);
 
       Expression elseExpression = null;
       if (ctx.expression().size() == 3) {
@@ -2155,6 +2161,7 @@ public class AstBuilder extends RelationalSqlBaseVisitor<Node> {
     if (name.toString().equalsIgnoreCase("nullif")) {
       check(ctx.expression().size() == 2, "Invalid number of arguments for 'nullif' function", ctx);
       check(!distinct, "DISTINCT not valid for 'nullif' function", ctx);
+      check(!window.isPresent(), "OVER clause not valid for 'nullif' function", ctx);
 
       return new NullIfExpression(
           getLocation(ctx),
@@ -2168,6 +2175,7 @@ public class AstBuilder extends RelationalSqlBaseVisitor<Node> {
           "The 'coalesce' function must have at least two arguments",
           ctx);
       check(!distinct, "DISTINCT not valid for 'coalesce' function", ctx);
+      check(!window.isPresent(), "OVER clause not valid for 'coalesce' function", ctx);
 
       return new CoalesceExpression(getLocation(ctx), visit(ctx.expression(), Expression.class));
     }
@@ -2213,7 +2221,62 @@ public class AstBuilder extends RelationalSqlBaseVisitor<Node> {
       }
     }
 
-    return new FunctionCall(getLocation(ctx), name, distinct, arguments);
+    return new FunctionCall(getLocation(ctx), name, distinct, arguments, window);
+  }
+
+  @Override
+  public Node visitOver(RelationalSqlParser.OverContext ctx) {
+    return visit(ctx.windowSpecification());
+  }
+
+  @Override
+  public Node visitWindowSpecification(RelationalSqlParser.WindowSpecificationContext ctx) {
+    Optional<OrderBy> orderBy = Optional.empty();
+    if (ctx.ORDER() != null) {
+      orderBy =
+          Optional.of(new OrderBy(getLocation(ctx.ORDER()), visit(ctx.sortItem(), SortItem.class)));
+    }
+
+    return new WindowSpecification(
+        getLocation(ctx),
+        visit(ctx.partition, Expression.class),
+        orderBy,
+        visitIfPresent(ctx.windowFrame(), WindowFrame.class));
+  }
+
+  @Override
+  public Node visitWindowFrame(RelationalSqlParser.WindowFrameContext ctx) {
+    return new WindowFrame(
+        getLocation(ctx),
+        ctx.frameType.getType() == RelationalSqlLexer.RANGE
+            ? WindowFrame.Type.RANGE
+            : WindowFrame.Type.ROWS,
+        (FrameBound) visit(ctx.start),
+        visitIfPresent(ctx.end, FrameBound.class));
+  }
+
+  @Override
+  public Node visitUnboundedFrame(RelationalSqlParser.UnboundedFrameContext ctx) {
+    return new FrameBound(
+        getLocation(ctx),
+        ctx.boundType.getType() == RelationalSqlLexer.PRECEDING
+            ? FrameBound.Type.UNBOUNDED_PRECEDING
+            : FrameBound.Type.UNBOUNDED_FOLLOWING);
+  }
+
+  @Override
+  public Node visitCurrentRowBound(RelationalSqlParser.CurrentRowBoundContext ctx) {
+    return new FrameBound(getLocation(ctx), FrameBound.Type.CURRENT_ROW);
+  }
+
+  @Override
+  public Node visitBoundedFrame(RelationalSqlParser.BoundedFrameContext ctx) {
+    return new FrameBound(
+        getLocation(ctx),
+        ctx.boundType.getType() == RelationalSqlLexer.PRECEDING
+            ? FrameBound.Type.PRECEDING
+            : FrameBound.Type.FOLLOWING,
+        (Expression) visit(ctx.expression()));
   }
 
   @Override
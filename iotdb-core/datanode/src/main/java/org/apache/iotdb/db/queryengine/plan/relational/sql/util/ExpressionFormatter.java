@@ -39,6 +39,7 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.DoubleLiteral;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ExistsPredicate;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FieldReference;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FunctionCall;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.GenericDataType;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.GenericLiteral;
@@ -74,12 +75,14 @@ import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SymbolReference;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Trim;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.TypeParameter;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WhenClause;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowSpecification;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -311,9 +314,55 @@ public final class ExpressionFormatter {
 
       builder.append(')');
 
+      node.getWindow()
+          .ifPresent(window -> builder.append(" OVER (").append(formatWindow(window)).append(')'));
+
       return builder.toString();
     }
 
+    private String formatWindow(WindowSpecification window) {
+      List<String> parts = new ArrayList<>();
+
+      if (!window.getPartitionBy().isEmpty()) {
+        parts.add("PARTITION BY " + joinExpressions(window.getPartitionBy()));
+      }
+      window.getOrderBy().ifPresent(orderBy -> parts.add(formatOrderBy(orderBy)));
+      window
+          .getFrame()
+          .ifPresent(
+              frame -> {
+                String start = formatFrameBound(frame.getStart());
+                parts.add(
+                    frame.getEnd().isPresent()
+                        ? frame.getType()
+                            + " BETWEEN "
+                            + start
+                            + " AND "
+                            + formatFrameBound(frame.getEnd().get())
+                        : frame.getType() + " " + start);
+              });
+
+      return String.join(" ", parts);
+    }
+
+    private String formatFrameBound(FrameBound frameBound) {
+      switch (frameBound.getType()) {
+        case UNBOUNDED_PRECEDING:
+          return "UNBOUNDED PRECEDING";
+        case PRECEDING:
+          return process(frameBound.getValue().get(), null) + " PRECEDING";
+        case CURRENT_ROW:
+          return "CURRENT ROW";
+        case FOLLOWING:
+          return process(frameBound.getValue().get(), null) + " FOLLOWING";
+        case UNBOUNDED_FOLLOWING:
+          return "UNBOUNDED FOLLOWING";
+        default:
+          throw new IllegalArgumentException(
+              "Unsupported frame bound type: " + frameBound.getType());
+      }
+    }
+
     @Override
     protected String visitLogicalExpression(LogicalExpression node, Void context) {
       return "("
@@ -26,6 +26,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
 import org.apache.iotdb.mpp.rpc.thrift.TFetchFragmentInstanceStatisticsResp;
 import org.apache.iotdb.mpp.rpc.thrift.TOperatorStatistics;
 import org.apache.iotdb.mpp.rpc.thrift.TQueryStatistics;
+import org.apache.iotdb.mpp.rpc.thrift.TTsFileReadStatistics;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -420,6 +421,32 @@ public class FragmentInstanceStatisticsDrawer {
         2,
         "pageReaderMaxUsedMemorySize",
         queryStatistics.pageReaderMaxUsedMemorySize);
+
+    addLineWithValueCheck(
+        singleFragmentInstanceArea,
+        2,
+        "loadDecodedPageFromCacheCount",
+        queryStatistics.loadDecodedPageFromCacheCount);
+    addLineWithValueCheck(
+        singleFragmentInstanceArea,
+        2,
+        "loadDecodedPageFromChunkCount",
+        queryStatistics.loadDecodedPageFromChunkCount);
+
+    if (queryStatistics.isSetSlowestTsFileReads()
+        && !queryStatistics.getSlowestTsFileReads().isEmpty()) {
+      addLine(singleFragmentInstanceArea, 2, "slowestTsFileReads:");
+      for (TTsFileReadStatistics tsFileReadStatistics : queryStatistics.getSlowestTsFileReads()) {
+        addLine(
+            singleFragmentInstanceArea,
+            3,
+            String.format(
+                "%s: %d reads, %.3f ms",
+                tsFileReadStatistics.getFilePath(),
+                tsFileReadStatistics.getReadCount(),
+                tsFileReadStatistics.getReadTime() * NS_TO_MS_FACTOR));
+      }
+    }
   }
 
   private void addLine(List<StatisticLine> resultForSingleInstance, int level, String value) {
@@ -33,6 +33,7 @@ import org.apache.iotdb.db.protocol.client.ConfigNodeClient;
 import org.apache.iotdb.db.protocol.client.ConfigNodeClientManager;
 import org.apache.iotdb.db.protocol.client.ConfigNodeInfo;
 import org.apache.iotdb.db.storageengine.StorageEngine;
+import org.apache.iotdb.db.storageengine.buffer.CacheWarmer;
 import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
 import org.apache.iotdb.db.storageengine.rescon.disk.DirectoryChecker;
 import org.apache.iotdb.db.utils.MemUtils;
@@ -89,6 +90,11 @@ public class DataNodeShutdownHook extends Thread {
       triggerSnapshotForAllDataRegion();
     }
 
+    // Persist the hottest series to warm up caches after restart
+    if (IoTDBDescriptor.getInstance().getConfig().isEnableCacheWarmUp()) {
+      CacheWarmer.getInstance().saveHotSeries();
+    }
+
     // Set and report shutdown to cluster ConfigNode-leader
     if (!reportShutdownToConfigNodeLeader()) {
       logger.warn(
@@ -28,6 +28,7 @@ import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
 import org.apache.iotdb.db.storageengine.dataregion.flush.FlushManager;
 import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
 import org.apache.iotdb.db.storageengine.dataregion.wal.checkpoint.CheckpointType;
+import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.SystemInfo;
 import org.apache.iotdb.metrics.AbstractMetricService;
 import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
@@ -183,11 +184,15 @@ public class WritingMetrics implements IMetricSet {
   public static final String READ_WAL_BUFFER_COST_NS = "read_wal_buffer_cost";
   public static final String WRITE_WAL_BUFFER_COST_NS = "write_wal_buffer_cost";
   public static final String ENTRIES_COUNT = "entries_count";
+  public static final String GROUP_COMMIT_BATCH_SIZE = "group_commit_batch_size";
+  public static final String COMMIT_LATENCY_NS = "commit_latency";
   public static final String WAL_QUEUE_CURRENT_MEM_COST = "wal_queue_current_mem_cost";
   public static final String WAL_QUEUE_MAX_MEM_COST = "wal_queue_max_mem_cost";
 
   private Histogram usedRatioHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram entriesCountHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Histogram groupCommitBatchSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Histogram commitLatencyHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram serializedWALBufferSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram wroteWALBufferSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
   private Histogram walCompressCostHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
@@ -214,6 +219,18 @@ public class WritingMetrics implements IMetricSet {
             MetricLevel.IMPORTANT,
             Tag.NAME.toString(),
             ENTRIES_COUNT);
+    groupCommitBatchSizeHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.WAL_BUFFER.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            GROUP_COMMIT_BATCH_SIZE);
+    commitLatencyHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.WAL_BUFFER.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            COMMIT_LATENCY_NS);
 
     serializedWALBufferSizeHistogram =
         metricService.getOrCreateHistogram(
@@ -278,9 +295,13 @@ public class WritingMetrics implements IMetricSet {
         MetricType.AUTO_GAUGE, Metric.WAL_NODE_NUM.toString(), Tag.NAME.toString(), WAL_NODES_NUM);
     usedRatioHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
     entriesCountHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    groupCommitBatchSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    commitLatencyHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
     Arrays.asList(
             USED_RATIO,
             ENTRIES_COUNT,
+            GROUP_COMMIT_BATCH_SIZE,
+            COMMIT_LATENCY_NS,
             SERIALIZED_WAL_BUFFER_SIZE_BYTE,
             WROTE_WAL_BUFFER_SIZE_BYTE,
             WAL_COMPRESS_COST_NS,
@@ -415,6 +436,56 @@ public class WritingMetrics implements IMetricSet {
 
   // endregion
 
+  // region primitive array pool metrics
+  public static final String ALLOCATE_FROM_POOL = "allocate_from_pool";
+  public static final String ALLOCATE_FROM_JVM = "allocate_from_jvm";
+  public static final String POOL_CONTENTION = "contention";
+  public static final String POOLED_ARRAY_NUM = "pooled_array_num";
+
+  private void bindPrimitiveArrayPoolMetrics(AbstractMetricService metricService) {
+    metricService.createAutoGauge(
+        Metric.PRIMITIVE_ARRAY_POOL.toString(),
+        MetricLevel.IMPORTANT,
+        this,
+        o -> PrimitiveArrayManager.getPoolHitCount(),
+        Tag.NAME.toString(),
+        ALLOCATE_FROM_POOL);
+    metricService.createAutoGauge(
+        Metric.PRIMITIVE_ARRAY_POOL.toString(),
+        MetricLevel.IMPORTANT,
+        this,
+        o -> PrimitiveArrayManager.getPoolMissCount(),
+        Tag.NAME.toString(),
+        ALLOCATE_FROM_JVM);
+    metricService.createAutoGauge(
+        Metric.PRIMITIVE_ARRAY_POOL.toString(),
+        MetricLevel.IMPORTANT,
+        this,
+        o -> PrimitiveArrayManager.getPoolContentionCount(),
+        Tag.NAME.toString(),
+        POOL_CONTENTION);
+    metricService.createAutoGauge(
+        Metric.PRIMITIVE_ARRAY_POOL.toString(),
+        MetricLevel.IMPORTANT,
+        this,
+        o -> PrimitiveArrayManager.getPooledArrayNum(),
+        Tag.NAME.toString(),
+        POOLED_ARRAY_NUM);
+  }
+
+  private void unbindPrimitiveArrayPoolMetrics(AbstractMetricService metricService) {
+    Arrays.asList(ALLOCATE_FROM_POOL, ALLOCATE_FROM_JVM, POOL_CONTENTION, POOLED_ARRAY_NUM)
+        .forEach(
+            name ->
+                metricService.remove(
+                    MetricType.AUTO_GAUGE,
+                    Metric.PRIMITIVE_ARRAY_POOL.toString(),
+                    Tag.NAME.toString(),
+                    name));
+  }
+
+  // endregion
+
   // region manage metrics
   public static final String MEM_TABLE_SIZE = "mem_table_size";
   public static final String POINTS_NUM = "total_points_num";
@@ -929,6 +1000,14 @@ public class WritingMetrics implements IMetricSet {
     }
   }
 
+  public void recordWALGroupCommitBatchSize(int entriesCount) {
+    groupCommitBatchSizeHistogram.update(entriesCount);
+  }
+
+  public void recordWALCommitLatency(long latencyInNanos) {
+    commitLatencyHistogram.update(latencyInNanos);
+  }
+
   public void recordWALBufferUsedRatio(double usedRatio) {
     usedRatioHistogram.update((long) (usedRatio * 100));
   }
@@ -996,6 +1075,7 @@ public class WritingMetrics implements IMetricSet {
     bindFlushSubTaskMetrics(metricService);
     bindWALMetrics(metricService);
     bindWALCostMetrics(metricService);
+    bindPrimitiveArrayPoolMetrics(metricService);
     bindDataRegionMetrics();
   }
 
@@ -1005,6 +1085,7 @@ public class WritingMetrics implements IMetricSet {
     unbindFlushSubTaskMetrics(metricService);
     unbindWALMetrics(metricService);
     unbindWALCostMetrics(metricService);
+    unbindPrimitiveArrayPoolMetrics(metricService);
     unbindDataRegionMetrics();
   }
 
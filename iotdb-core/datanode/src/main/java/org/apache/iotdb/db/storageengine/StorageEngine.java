@@ -58,6 +58,7 @@ import org.apache.iotdb.db.queryengine.plan.scheduler.load.LoadTsFileScheduler;
 import org.apache.iotdb.db.service.metrics.FileMetrics;
 import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.storageengine.buffer.BloomFilterCache;
+import org.apache.iotdb.db.storageengine.buffer.CacheWarmer;
 import org.apache.iotdb.db.storageengine.buffer.ChunkCache;
 import org.apache.iotdb.db.storageengine.buffer.TimeSeriesMetadataCache;
 import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
@@ -68,6 +69,7 @@ import org.apache.iotdb.db.storageengine.dataregion.flush.CloseFileListener;
 import org.apache.iotdb.db.storageengine.dataregion.flush.FlushListener;
 import org.apache.iotdb.db.storageengine.dataregion.flush.TsFileFlushPolicy;
 import org.apache.iotdb.db.storageengine.dataregion.flush.TsFileFlushPolicy.DirectFlushPolicy;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.TableStatisticsManager;
 import org.apache.iotdb.db.storageengine.dataregion.wal.WALManager;
 import org.apache.iotdb.db.storageengine.dataregion.wal.exception.WALException;
 import org.apache.iotdb.db.storageengine.dataregion.wal.recover.WALRecoverManager;
@@ -139,6 +141,7 @@ public class StorageEngine implements IService {
 
   private ScheduledExecutorService seqMemtableTimedFlushCheckThread;
   private ScheduledExecutorService unseqMemtableTimedFlushCheckThread;
+  private ScheduledExecutorService tableStatisticsRefreshThread;
 
   private final TsFileFlushPolicy fileFlushPolicy = new DirectFlushPolicy();
 
@@ -216,6 +219,9 @@ public class StorageEngine implements IService {
               LOGGER.info(
                   "Storage Engine recover cost: {}s.",
                   (System.currentTimeMillis() - startRecoverTime) / 1000);
+              if (CONFIG.isEnableCacheWarmUp()) {
+                CacheWarmer.getInstance().warmUp(getAllDataRegions());
+              }
             },
             ThreadName.STORAGE_ENGINE_RECOVER_TRIGGER.getName());
     recoverEndTrigger.start();
@@ -335,6 +341,19 @@ public class StorageEngine implements IService {
           TimeUnit.MILLISECONDS);
       LOGGER.info("start unsequence memtable timed flush check thread successfully.");
     }
+    // refresh the table statistics used by the cost based join optimization
+    if (CONFIG.isEnableCostBasedJoinOptimization()) {
+      tableStatisticsRefreshThread =
+          IoTDBThreadPoolFactory.newSingleThreadScheduledExecutor(
+              ThreadName.TABLE_STATISTICS_REFRESH.getName());
+      ScheduledExecutorUtil.safelyScheduleAtFixedRate(
+          tableStatisticsRefreshThread,
+          TableStatisticsManager.getInstance()::refreshLocalTableStatistics,
+          CONFIG.getTableStatisticsRefreshIntervalInMs(),
+          CONFIG.getTableStatisticsRefreshIntervalInMs(),
+          TimeUnit.MILLISECONDS);
+      LOGGER.info("start table statistics refresh thread successfully.");
+    }
   }
 
   private void timedFlushSeqMemTable() {
@@ -400,6 +419,7 @@ public class StorageEngine implements IService {
         seqMemtableTimedFlushCheckThread, ThreadName.TIMED_FLUSH_SEQ_MEMTABLE);
     ThreadUtils.stopThreadPool(
         unseqMemtableTimedFlushCheckThread, ThreadName.TIMED_FLUSH_UNSEQ_MEMTABLE);
+    ThreadUtils.stopThreadPool(tableStatisticsRefreshThread, ThreadName.TABLE_STATISTICS_REFRESH);
     if (cachedThreadPool != null) {
       cachedThreadPool.shutdownNow();
     }
@@ -420,6 +440,7 @@ public class StorageEngine implements IService {
     }
     shutdownTimedService(seqMemtableTimedFlushCheckThread, "SeqMemtableTimedFlushCheckThread");
     shutdownTimedService(unseqMemtableTimedFlushCheckThread, "UnseqMemtableTimedFlushCheckThread");
+    shutdownTimedService(tableStatisticsRefreshThread, "TableStatisticsRefreshThread");
     cachedThreadPool.shutdownNow();
     dataRegionMap.clear();
   }
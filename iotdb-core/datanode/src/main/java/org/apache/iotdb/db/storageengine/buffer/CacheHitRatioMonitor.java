@@ -62,6 +62,16 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return ChunkCache.getInstance().calculateChunkHitRatio();
   }
 
+  @Override
+  public double getChunkHitRatioOfNormalQuery() {
+    return ChunkCache.getInstance().calculateChunkHitRatio(false);
+  }
+
+  @Override
+  public double getChunkHitRatioOfLargeScan() {
+    return ChunkCache.getInstance().calculateChunkHitRatio(true);
+  }
+
   @Override
   public long getChunkEvictionCount() {
     return ChunkCache.getInstance().getEvictionCount();
@@ -83,11 +93,41 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return 0;
   }
 
+  @Override
+  public double getDecodedPageHitRatio() {
+    return DecodedPageCache.getInstance().calculateDecodedPageHitRatio();
+  }
+
+  @Override
+  public long getDecodedPageCacheEvictionCount() {
+    return DecodedPageCache.getInstance().getEvictionCount();
+  }
+
+  @Override
+  public long getDecodedPageCacheMaxMemory() {
+    return DecodedPageCache.getInstance().getMaxMemory();
+  }
+
+  @Override
+  public double getDecodedPageCacheAverageLoadPenalty() {
+    return DecodedPageCache.getInstance().getAverageLoadPenalty();
+  }
+
   @Override
   public double getTimeSeriesMetadataHitRatio() {
     return TimeSeriesMetadataCache.getInstance().calculateTimeSeriesMetadataHitRatio();
   }
 
+  @Override
+  public double getTimeSeriesMetadataHitRatioOfNormalQuery() {
+    return TimeSeriesMetadataCache.getInstance().calculateTimeSeriesMetadataHitRatio(false);
+  }
+
+  @Override
+  public double getTimeSeriesMetadataHitRatioOfLargeScan() {
+    return TimeSeriesMetadataCache.getInstance().calculateTimeSeriesMetadataHitRatio(true);
+  }
+
   @Override
   public long getTimeSeriesMetadataCacheEvictionCount() {
     return TimeSeriesMetadataCache.getInstance().getEvictionCount();
@@ -23,6 +23,10 @@ public interface CacheHitRatioMonitorMXBean {
 
   double getChunkHitRatio();
 
+  double getChunkHitRatioOfNormalQuery();
+
+  double getChunkHitRatioOfLargeScan();
+
   long getChunkEvictionCount();
 
   long getChunkCacheMaxMemory();
@@ -31,8 +35,20 @@ public interface CacheHitRatioMonitorMXBean {
 
   long getChunkCacheAverageSize();
 
+  double getDecodedPageHitRatio();
+
+  long getDecodedPageCacheEvictionCount();
+
+  long getDecodedPageCacheMaxMemory();
+
+  double getDecodedPageCacheAverageLoadPenalty();
+
   double getTimeSeriesMetadataHitRatio();
 
+  double getTimeSeriesMetadataHitRatioOfNormalQuery();
+
+  double getTimeSeriesMetadataHitRatioOfLargeScan();
+
   long getTimeSeriesMetadataCacheEvictionCount();
 
   long getTimeSeriesMetadataCacheMaxMemory();
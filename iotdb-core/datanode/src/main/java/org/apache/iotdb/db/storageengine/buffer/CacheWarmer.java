@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.commons.file.SystemFileFactory;
+import org.apache.iotdb.commons.utils.FileUtils;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
+import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.utils.FilePathUtils;
+import org.apache.tsfile.utils.Pair;
+import org.apache.tsfile.utils.ReadWriteIOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Warms up {@link TimeSeriesMetadataCache} and {@link BloomFilterCache} after restarts. The hottest
+ * series in the timeseries metadata cache are persisted when the DataNode stops. After the storage
+ * engine is recovered, the bloom filters of all sealed TsFiles are loaded, so that queries can skip
+ * the TsFiles without their series without any read, and the timeseries metadata of the hot series
+ * in the latest sealed TsFiles of all data regions are loaded as well. Both stop once the cache
+ * starts to evict, so that the files loaded later don't evict the hotter ones loaded earlier.
+ */
+public class CacheWarmer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheWarmer.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  static final String CACHE_WARM_UP_DIR = "cache_warm_up";
+  static final String HOT_SERIES_FILE_NAME = "hot_series";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final File hotSeriesFile;
+
+  private CacheWarmer() {
+    hotSeriesFile =
+        SystemFileFactory.INSTANCE.getFile(
+            FilePathUtils.regularizePath(CONFIG.getSystemDir()) + CACHE_WARM_UP_DIR,
+            HOT_SERIES_FILE_NAME);
+  }
+
+  public static CacheWarmer getInstance() {
+    return CacheWarmerHolder.INSTANCE;
+  }
+
+  /** Persist the hottest series in the timeseries metadata cache, called before the node stops. */
+  public void saveHotSeries() {
+    Map<IDeviceID, Set<String>> hotSeries =
+        TimeSeriesMetadataCache.getInstance().getHottestSeries(CONFIG.getCacheWarmUpSeriesNum());
+    File tempFile = new File(hotSeriesFile.getPath() + TEMP_SUFFIX);
+    try {
+      if (!hotSeriesFile.getParentFile().exists()
+          && !hotSeriesFile.getParentFile().mkdirs()
+          && !hotSeriesFile.getParentFile().exists()) {
+        throw new IOException("Failed to create dir " + hotSeriesFile.getParent());
+      }
+      try (OutputStream outputStream =
+          new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()))) {
+        serialize(hotSeries, outputStream);
+      }
+      Files.move(tempFile.toPath(), hotSeriesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      LOGGER.info("Saved {} devices of hot series for cache warm-up", hotSeries.size());
+    } catch (IOException e) {
+      LOGGER.warn("Failed to save hot series for cache warm-up", e);
+      FileUtils.deleteFileIfExist(tempFile);
+    }
+  }
+
+  /**
+   * Load the bloom filters of the sealed TsFiles of the given data regions, and the timeseries
+   * metadata of the persisted hot series in the latest cache_warm_up_tsfile_num sealed TsFiles of
+   * all the data regions into the caches, called after the storage engine is recovered.
+   */
+  public void warmUp(List<DataRegion> dataRegions) {
+    long startTime = System.currentTimeMillis();
+    // the bloom filters are still loaded without the hot series, e.g. after the first start
+    Map<IDeviceID, Set<String>> hotSeries = loadHotSeries();
+
+    QueryContext context = new QueryContext();
+    // stop loading bloom filters or timeseries metadata once they start to evict each other
+    long bloomFilterEvictionCount = BloomFilterCache.getInstance().getEvictionCount();
+    long metadataEvictionCount = TimeSeriesMetadataCache.getInstance().getEvictionCount();
+    // the budget of TsFiles whose timeseries metadata are loaded is shared by all data regions
+    int metadataWarmUpBudget = hotSeries.isEmpty() ? 0 : CONFIG.getCacheWarmUpTsFileNum();
+    int warmedUpTsFileNum = 0;
+    for (Pair<TsFileManager, Long> partition : getTimePartitionsFromLatest(dataRegions)) {
+      for (boolean sequence : new boolean[] {true, false}) {
+        List<TsFileResource> tsFileList =
+            partition.left.getTsFileListSnapshot(partition.right, sequence);
+        for (int i = tsFileList.size() - 1; i >= 0; i--) {
+          TsFileResource resource = tsFileList.get(i);
+          if (!resource.isClosed()) {
+            continue;
+          }
+          boolean warmUpBloomFilter =
+              BloomFilterCache.getInstance().getEvictionCount() == bloomFilterEvictionCount;
+          boolean warmUpMetadata =
+              metadataWarmUpBudget > 0
+                  && TimeSeriesMetadataCache.getInstance().getEvictionCount()
+                      == metadataEvictionCount;
+          if ((warmUpBloomFilter || warmUpMetadata)
+              && warmUp(resource, hotSeries, warmUpBloomFilter, warmUpMetadata, context)) {
+            warmedUpTsFileNum++;
+            if (warmUpMetadata) {
+              metadataWarmUpBudget--;
+            }
+          }
+        }
+      }
+    }
+    LOGGER.info(
+        "Warmed up caches for {} devices of hot series in {} TsFiles, cost: {}ms",
+        hotSeries.size(),
+        warmedUpTsFileNum,
+        System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * @return the time partitions of all data regions, the latest first, whose files are more likely
+   *     to be queried
+   */
+  private static List<Pair<TsFileManager, Long>> getTimePartitionsFromLatest(
+      List<DataRegion> dataRegions) {
+    List<Pair<TsFileManager, Long>> timePartitions = new ArrayList<>();
+    for (DataRegion dataRegion : dataRegions) {
+      if (dataRegion == null) {
+        continue;
+      }
+      TsFileManager tsFileManager = dataRegion.getTsFileManager();
+      for (long timePartition : tsFileManager.getTimePartitions()) {
+        timePartitions.add(new Pair<>(tsFileManager, timePartition));
+      }
+    }
+    timePartitions.sort(
+        Comparator.comparing((Pair<TsFileManager, Long> partition) -> partition.right).reversed());
+    return timePartitions;
+  }
+
+  /**
+   * @return the persisted hot series, or an empty map if they were not saved or can't be read
+   */
+  private Map<IDeviceID, Set<String>> loadHotSeries() {
+    if (!hotSeriesFile.exists()) {
+      return Collections.emptyMap();
+    }
+    try (InputStream inputStream =
+        new BufferedInputStream(Files.newInputStream(hotSeriesFile.toPath()))) {
+      return deserialize(inputStream);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to load hot series for cache warm-up", e);
+      return Collections.emptyMap();
+    }
+  }
+
+  /**
+   * Load the bloom filter of the TsFile and the timeseries metadata of the hot series in it.
+   *
+   * @return false if the TsFile has been deleted or failed to be read
+   */
+  private boolean warmUp(
+      TsFileResource resource,
+      Map<IDeviceID, Set<String>> hotSeries,
+      boolean warmUpBloomFilter,
+      boolean warmUpMetadata,
+      QueryContext context) {
+    // hold a reference of the file reader like queries do, so compaction can't delete the TsFile
+    // while it is read
+    FileReaderManager.getInstance().increaseFileReaderReference(resource, true);
+    try {
+      if (resource.isDeleted()) {
+        return false;
+      }
+      if (warmUpBloomFilter) {
+        BloomFilterCache.getInstance()
+            .get(
+                new BloomFilterCache.BloomFilterCacheKey(
+                    resource.getTsFilePath(), resource.getTsFileID()),
+                false,
+                context.getQueryStatistics().getLoadBloomFilterActualIOSize()::addAndGet,
+                context.getQueryStatistics().getLoadBloomFilterFromCacheCount()::addAndGet,
+                context.getQueryStatistics().getLoadBloomFilterFromDiskCount()::addAndGet);
+      }
+      if (!warmUpMetadata) {
+        return true;
+      }
+      for (Map.Entry<IDeviceID, Set<String>> entry : hotSeries.entrySet()) {
+        IDeviceID device = entry.getKey();
+        if (resource.definitelyNotContains(device)) {
+          continue;
+        }
+        for (String measurement : entry.getValue()) {
+          // the first lookup of a device loads the metadata of all its hot series in one read
+          TimeSeriesMetadataCache.getInstance()
+              .get(
+                  resource.getTsFilePath(),
+                  new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(
+                      resource.getTsFileID(), device, measurement),
+                  entry.getValue(),
+                  true,
+                  false,
+                  context);
+        }
+      }
+      return true;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Failed to warm up caches for {}", resource.getTsFilePath(), e);
+      return false;
+    } finally {
+      FileReaderManager.getInstance().decreaseFileReaderReference(resource, true);
+    }
+  }
+
+  static void serialize(Map<IDeviceID, Set<String>> hotSeries, OutputStream outputStream)
+      throws IOException {
+    ReadWriteIOUtils.write(hotSeries.size(), outputStream);
+    for (Map.Entry<IDeviceID, Set<String>> entry : hotSeries.entrySet()) {
+      entry.getKey().serialize(outputStream);
+      ReadWriteIOUtils.write(entry.getValue().size(), outputStream);
+      for (String measurement : entry.getValue()) {
+        ReadWriteIOUtils.write(measurement, outputStream);
+      }
+    }
+  }
+
+  static Map<IDeviceID, Set<String>> deserialize(InputStream inputStream) throws IOException {
+    int deviceNum = ReadWriteIOUtils.readInt(inputStream);
+    Map<IDeviceID, Set<String>> hotSeries = new LinkedHashMap<>();
+    for (int i = 0; i < deviceNum; i++) {
+      IDeviceID device = IDeviceID.Deserializer.DEFAULT_DESERIALIZER.deserializeFrom(inputStream);
+      int measurementNum = ReadWriteIOUtils.readInt(inputStream);
+      Set<String> measurements = new LinkedHashSet<>();
+      for (int j = 0; j < measurementNum; j++) {
+        measurements.add(ReadWriteIOUtils.readString(inputStream));
+      }
+      hotSeries.put(device, measurements);
+    }
+    return hotSeries;
+  }
+
+  @TestOnly
+  File getHotSeriesFile() {
+    return hotSeriesFile;
+  }
+
+  private static class CacheWarmerHolder {
+
+    private static final CacheWarmer INSTANCE = new CacheWarmer();
+
+    private CacheWarmerHolder() {}
+  }
+}
@@ -60,8 +60,9 @@ public class ChunkCache {
   private static final Logger LOGGER = LoggerFactory.getLogger(ChunkCache.class);
   private static final Logger DEBUG_LOGGER = LoggerFactory.getLogger("QUERY_DEBUG");
   private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  // the decoded page cache takes its memory from the chunk cache
   private static final long MEMORY_THRESHOLD_IN_CHUNK_CACHE =
-      CONFIG.getAllocateMemoryForChunkCache();
+      CONFIG.getAllocateMemoryForChunkCache() - DecodedPageCache.getMemoryThreshold();
   private static final boolean CACHE_ENABLE = CONFIG.isMetaDataCacheEnable();
 
   private static final SeriesScanCostMetricSet SERIES_SCAN_COST_METRIC_SET =
@@ -70,6 +71,8 @@ public class ChunkCache {
   // to save memory footprint, we don't save measurementId in ChunkHeader of Chunk
   private final Cache<ChunkCacheKey, Chunk> lruCache;
 
+  private final QueryTypeCacheStats queryTypeCacheStats = new QueryTypeCacheStats();
+
   private ChunkCache() {
     if (CACHE_ENABLE) {
       LOGGER.info("ChunkCache size = {}", MEMORY_THRESHOLD_IN_CHUNK_CACHE);
@@ -106,6 +109,8 @@ public class ChunkCache {
         timeRangeList,
         chunkStatistic,
         false,
+        true,
+        emptyConsumer,
         emptyConsumer,
         emptyConsumer,
         emptyConsumer);
@@ -117,20 +122,47 @@ public class ChunkCache {
       Statistics chunkStatistic,
       QueryContext queryContext)
       throws IOException {
+    return get(chunkCacheKey, timeRangeList, chunkStatistic, queryContext, true);
+  }
+
+  /**
+   * @param putIntoCache whether to put the chunk into the cache if it is read from disk, chunks
+   *     read ahead by large scans may not be put into the cache to avoid evicting others
+   */
+  public Chunk get(
+      ChunkCacheKey chunkCacheKey,
+      List<TimeRange> timeRangeList,
+      Statistics chunkStatistic,
+      QueryContext queryContext,
+      boolean putIntoCache)
+      throws IOException {
     LongConsumer ioSizeRecorder =
         queryContext.getQueryStatistics().getLoadChunkActualIOSize()::addAndGet;
+    boolean largeScan = queryContext.isLargeScan();
     LongConsumer cacheHitAdder =
-        queryContext.getQueryStatistics().getLoadChunkFromCacheCount()::addAndGet;
+        count -> {
+          queryContext.getQueryStatistics().getLoadChunkFromCacheCount().addAndGet(count);
+          queryTypeCacheStats.record(largeScan, true);
+        };
     LongConsumer cacheMissAdder =
-        queryContext.getQueryStatistics().getLoadChunkFromDiskCount()::addAndGet;
+        count -> {
+          queryContext.getQueryStatistics().getLoadChunkFromDiskCount().addAndGet(count);
+          queryTypeCacheStats.record(largeScan, false);
+        };
+    LongConsumer fileReadTimeRecorder =
+        time ->
+            queryContext.getQueryStatistics().recordTsFileRead(chunkCacheKey.getFilePath(), time);
     return get(
         chunkCacheKey,
         timeRangeList,
         chunkStatistic,
         queryContext.isDebug(),
+        // chunks read by large scans are not put into the cache to avoid evicting the hot ones
+        putIntoCache && !largeScan,
         ioSizeRecorder,
         cacheHitAdder,
-        cacheMissAdder);
+        cacheMissAdder,
+        fileReadTimeRecorder);
   }
 
   private Chunk get(
@@ -138,9 +170,11 @@ public class ChunkCache {
       List<TimeRange> timeRangeList,
       Statistics chunkStatistic,
       boolean debug,
+      boolean putIntoCache,
       LongConsumer ioSizeRecorder,
       LongConsumer cacheHitAdder,
-      LongConsumer cacheMissAdder)
+      LongConsumer cacheMissAdder,
+      LongConsumer fileReadTimeRecorder)
       throws IOException {
     long startTime = System.nanoTime();
     ChunkLoader chunkLoader = new ChunkLoader(ioSizeRecorder);
@@ -150,7 +184,15 @@ public class ChunkCache {
         return constructChunk(chunk, timeRangeList, chunkStatistic);
       }
 
-      Chunk chunk = lruCache.get(chunkCacheKey, chunkLoader);
+      Chunk chunk;
+      if (putIntoCache) {
+        chunk = lruCache.get(chunkCacheKey, chunkLoader);
+      } else {
+        chunk = lruCache.getIfPresent(chunkCacheKey);
+        if (chunk == null) {
+          chunk = chunkLoader.apply(chunkCacheKey);
+        }
+      }
 
       if (debug) {
         DEBUG_LOGGER.info("get chunk from cache whose key is: {}", chunkCacheKey);
@@ -161,9 +203,10 @@ public class ChunkCache {
       throw e.getCause();
     } finally {
       if (chunkLoader.isCacheMiss()) {
+        long time = System.nanoTime() - startTime;
         cacheMissAdder.accept(1);
-        SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
-            READ_CHUNK_FILE, System.nanoTime() - startTime);
+        fileReadTimeRecorder.accept(time);
+        SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(READ_CHUNK_FILE, time);
       } else {
         cacheHitAdder.accept(1);
         SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
@@ -186,6 +229,11 @@ public class ChunkCache {
     return lruCache.stats().hitRate();
   }
 
+  /** Hit ratio of large scans if largeScan is true, or else that of the other queries. */
+  public double calculateChunkHitRatio(boolean largeScan) {
+    return queryTypeCacheStats.getHitRatio(largeScan);
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
@@ -202,6 +250,7 @@ public class ChunkCache {
   public void clear() {
     lruCache.invalidateAll();
     lruCache.cleanUp();
+    queryTypeCacheStats.clear();
   }
 
   @TestOnly
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.commons.exception.IoTDBIORuntimeException;
+import org.apache.iotdb.commons.service.metric.MetricService;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.metric.DecodedPageCacheMetrics;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.utils.RamUsageEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * This class caches the decoded pages of chunks, i.e., TsBlocks holding all points of a page
+ * without any filter or deletion applied. It is the second level of {@link ChunkCache}, which only
+ * caches the compressed chunks, so that queries repeatedly reading the same hot pages don't
+ * decompress and decode them again. The caching strategy is LRU.
+ */
+@SuppressWarnings("squid:S6548")
+public class DecodedPageCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DecodedPageCache.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  private static final boolean CACHE_ENABLE =
+      CONFIG.isMetaDataCacheEnable() && CONFIG.isEnableDecodedPageCache();
+  private static final long MEMORY_THRESHOLD_IN_DECODED_PAGE_CACHE =
+      CACHE_ENABLE
+          ? (long)
+              (CONFIG.getAllocateMemoryForChunkCache() * CONFIG.getDecodedPageCacheProportion())
+          : 0;
+
+  private final Cache<DecodedPageCacheKey, TsBlock> lruCache;
+
+  private DecodedPageCache() {
+    if (CACHE_ENABLE) {
+      LOGGER.info("DecodedPageCache size = {}", MEMORY_THRESHOLD_IN_DECODED_PAGE_CACHE);
+    }
+    lruCache =
+        Caffeine.newBuilder()
+            .maximumWeight(MEMORY_THRESHOLD_IN_DECODED_PAGE_CACHE)
+            .weigher(
+                (Weigher<DecodedPageCacheKey, TsBlock>)
+                    (key, tsBlock) ->
+                        (int)
+                            (DecodedPageCacheKey.INSTANCE_SIZE + tsBlock.getRetainedSizeInBytes()))
+            .recordStats()
+            .build();
+
+    // add metrics
+    MetricService.getInstance().addMetricSet(new DecodedPageCacheMetrics(this));
+  }
+
+  public static DecodedPageCache getInstance() {
+    return DecodedPageCacheHolder.INSTANCE;
+  }
+
+  public static boolean isCacheEnable() {
+    return CACHE_ENABLE;
+  }
+
+  /** Memory used by this cache, which is taken from the memory for chunk cache. */
+  public static long getMemoryThreshold() {
+    return MEMORY_THRESHOLD_IN_DECODED_PAGE_CACHE;
+  }
+
+  /**
+   * Get the decoded page of the given key, which is decoded by the given loader if it is not
+   * cached. The returned TsBlock is shared and must not be modified.
+   */
+  public TsBlock get(
+      DecodedPageCacheKey key,
+      PageDecoder pageDecoder,
+      LongConsumer cacheHitAdder,
+      LongConsumer cacheMissAdder)
+      throws IOException {
+    boolean[] cacheMiss = new boolean[1];
+    try {
+      return lruCache.get(
+          key,
+          k -> {
+            cacheMiss[0] = true;
+            try {
+              return pageDecoder.decode();
+            } catch (IOException e) {
+              throw new IoTDBIORuntimeException(e);
+            }
+          });
+    } catch (IoTDBIORuntimeException e) {
+      throw e.getCause();
+    } finally {
+      if (cacheMiss[0]) {
+        cacheMissAdder.accept(1);
+      } else {
+        cacheHitAdder.accept(1);
+      }
+    }
+  }
+
+  public double getHitRate() {
+    return lruCache.stats().hitRate() * 100;
+  }
+
+  public double calculateDecodedPageHitRatio() {
+    return lruCache.stats().hitRate();
+  }
+
+  public long getEvictionCount() {
+    return lruCache.stats().evictionCount();
+  }
+
+  public long getMaxMemory() {
+    return MEMORY_THRESHOLD_IN_DECODED_PAGE_CACHE;
+  }
+
+  public double getAverageLoadPenalty() {
+    return lruCache.stats().averageLoadPenalty();
+  }
+
+  /** clear LRUCache. */
+  public void clear() {
+    lruCache.invalidateAll();
+    lruCache.cleanUp();
+  }
+
+  @TestOnly
+  public long size() {
+    return lruCache.estimatedSize();
+  }
+
+  @FunctionalInterface
+  public interface PageDecoder {
+
+    TsBlock decode() throws IOException;
+  }
+
+  /**
+   * Pages in a chunk are sorted by time and don't overlap, so a page is identified by its chunk and
+   * its start time.
+   */
+  public static class DecodedPageCacheKey {
+
+    private static final long INSTANCE_SIZE =
+        RamUsageEstimator.shallowSizeOfInstance(DecodedPageCacheKey.class);
+
+    private final TsFileID tsFileID;
+    private final long offsetOfChunkHeader;
+    private final long pageStartTime;
+
+    public DecodedPageCacheKey(TsFileID tsFileID, long offsetOfChunkHeader, long pageStartTime) {
+      this.tsFileID = tsFileID;
+      this.offsetOfChunkHeader = offsetOfChunkHeader;
+      this.pageStartTime = pageStartTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      DecodedPageCacheKey that = (DecodedPageCacheKey) o;
+      return offsetOfChunkHeader == that.offsetOfChunkHeader
+          && pageStartTime == that.pageStartTime
+          && Objects.equals(tsFileID, that.tsFileID);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tsFileID, offsetOfChunkHeader, pageStartTime);
+    }
+  }
+
+  /** singleton pattern. */
+  private static class DecodedPageCacheHolder {
+
+    private static final DecodedPageCache INSTANCE = new DecodedPageCache();
+  }
+}
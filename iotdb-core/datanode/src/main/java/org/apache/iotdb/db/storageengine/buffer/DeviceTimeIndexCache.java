@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.commons.service.metric.MetricService;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.metric.DeviceTimeIndexCacheMetrics;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ArrayDeviceTimeIndex;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.apache.tsfile.utils.RamUsageEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * This class caches the device time indexes of sealed TsFiles whose time indexes have been degraded
+ * to {@code FileTimeIndex} by {@code TsFileResourceManager}. The device time indexes are reloaded
+ * from the .resource files on demand, so that queries can still prune degraded files by device, and
+ * evicted again once the cache is full, which makes the degradation reversible for hot files. The
+ * caching strategy is the W-TinyLFU of Caffeine, which takes both recency and frequency into
+ * account.
+ *
+ * <p>The .resource files are read by a background thread, because queries look up this cache while
+ * holding the read lock of the data region. A query missing the cache prunes the file by its file
+ * time index, and the following queries use the reloaded device time index.
+ */
+public class DeviceTimeIndexCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeviceTimeIndexCache.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  private static final boolean CACHE_ENABLE = CONFIG.isEnableDegradedTimeIndexCache();
+  private static final long MEMORY_THRESHOLD_IN_DEVICE_TIME_INDEX_CACHE =
+      CACHE_ENABLE
+          ? (long)
+              (CONFIG.getAllocateMemoryForTimeIndex()
+                  * CONFIG.getDegradedTimeIndexCacheProportion())
+          : 0;
+
+  private static final long KEY_SIZE = RamUsageEstimator.shallowSizeOfInstance(TsFileID.class);
+
+  private final Cache<TsFileID, ArrayDeviceTimeIndex> lruCache;
+
+  private final ExecutorService loader;
+
+  /** TsFiles whose device time indexes are being reloaded, to avoid loading one file repeatedly. */
+  private final Set<TsFileID> loadingTsFiles = ConcurrentHashMap.newKeySet();
+
+  private final DeviceTimeIndexCacheMetrics metrics;
+
+  private DeviceTimeIndexCache() {
+    if (CACHE_ENABLE) {
+      LOGGER.info("DeviceTimeIndexCache size = {}", MEMORY_THRESHOLD_IN_DEVICE_TIME_INDEX_CACHE);
+    }
+    lruCache =
+        Caffeine.newBuilder()
+            .maximumWeight(MEMORY_THRESHOLD_IN_DEVICE_TIME_INDEX_CACHE)
+            .weigher(
+                (Weigher<TsFileID, ArrayDeviceTimeIndex>)
+                    (key, timeIndex) ->
+                        (int)
+                            Math.min(KEY_SIZE + timeIndex.calculateRamSize(), Integer.MAX_VALUE))
+            .recordStats()
+            .build();
+    loader =
+        IoTDBThreadPoolFactory.newSingleThreadExecutor(
+            ThreadName.DEVICE_TIME_INDEX_CACHE_LOADER.getName());
+
+    // add metrics
+    metrics = new DeviceTimeIndexCacheMetrics(this);
+    MetricService.getInstance().addMetricSet(metrics);
+  }
+
+  public static DeviceTimeIndexCache getInstance() {
+    return DeviceTimeIndexCacheHolder.INSTANCE;
+  }
+
+  public static boolean isCacheEnable() {
+    return CACHE_ENABLE;
+  }
+
+  /** Memory reserved for this cache, which is taken from the memory for timeIndex. */
+  public static long getMemoryThreshold() {
+    return MEMORY_THRESHOLD_IN_DEVICE_TIME_INDEX_CACHE;
+  }
+
+  public double getHitRate() {
+    return lruCache.stats().hitRate() * 100;
+  }
+
+  /**
+   * Get the cached device time index of the given sealed TsFile. If it is not cached, it is read
+   * from the .resource file in the background, and this method doesn't wait for it.
+   *
+   * @return null if the device time index is not cached, in which case the caller should fall back
+   *     to the time index held by the TsFileResource
+   */
+  public ArrayDeviceTimeIndex get(TsFileResource tsFileResource) {
+    TsFileID tsFileID = tsFileResource.getTsFileID();
+    ArrayDeviceTimeIndex timeIndex = lruCache.getIfPresent(tsFileID);
+    if (timeIndex != null) {
+      metrics.recordHit();
+      return timeIndex;
+    }
+    metrics.recordMiss();
+    loadAsync(tsFileResource);
+    return null;
+  }
+
+  private void loadAsync(TsFileResource tsFileResource) {
+    TsFileID tsFileID = tsFileResource.getTsFileID();
+    if (!loadingTsFiles.add(tsFileID)) {
+      return;
+    }
+    try {
+      loader.submit(
+          () -> {
+            try {
+              ArrayDeviceTimeIndex timeIndex = load(tsFileResource);
+              // don't cache the files removed meanwhile, which will never be invalidated again
+              if (timeIndex != null && !tsFileResource.isDeleted()) {
+                lruCache.put(tsFileID, timeIndex);
+              }
+            } finally {
+              loadingTsFiles.remove(tsFileID);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      loadingTsFiles.remove(tsFileID);
+      LOGGER.debug("Failed to submit the reloading of device time index of {}", tsFileResource, e);
+    }
+  }
+
+  private ArrayDeviceTimeIndex load(TsFileResource tsFileResource) {
+    if (tsFileResource.isDeleted()) {
+      return null;
+    }
+    try {
+      return tsFileResource.buildDeviceTimeIndex();
+    } catch (IOException e) {
+      // the file may have been removed by compaction concurrently, don't cache anything then
+      LOGGER.debug("Failed to reload device time index of {}", tsFileResource, e);
+      return null;
+    }
+  }
+
+  /** Remove the cached device time index when the TsFile is removed. */
+  public void invalidate(TsFileResource tsFileResource) {
+    lruCache.invalidate(tsFileResource.getTsFileID());
+  }
+
+  @TestOnly
+  public void clear() {
+    lruCache.invalidateAll();
+    lruCache.cleanUp();
+  }
+
+  @TestOnly
+  public long size() {
+    return lruCache.estimatedSize();
+  }
+
+  @TestOnly
+  public boolean isLoading() {
+    return !loadingTsFiles.isEmpty();
+  }
+
+  /** singleton pattern. */
+  private static class DeviceTimeIndexCacheHolder {
+
+    private static final DeviceTimeIndexCache INSTANCE = new DeviceTimeIndexCache();
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hits and misses of a cache counted separately for large scans and the other queries, so that the
+ * hit ratio of the hot working set is not hidden by the misses of large scans.
+ */
+public class QueryTypeCacheStats {
+
+  private final LongAdder normalQueryHitCount = new LongAdder();
+  private final LongAdder normalQueryMissCount = new LongAdder();
+  private final LongAdder largeScanHitCount = new LongAdder();
+  private final LongAdder largeScanMissCount = new LongAdder();
+
+  public void record(boolean largeScan, boolean hit) {
+    if (largeScan) {
+      (hit ? largeScanHitCount : largeScanMissCount).increment();
+    } else {
+      (hit ? normalQueryHitCount : normalQueryMissCount).increment();
+    }
+  }
+
+  /** Same as Caffeine, the hit ratio is 1.0 if there is no request. */
+  public double getHitRatio(boolean largeScan) {
+    long hitCount = largeScan ? largeScanHitCount.sum() : normalQueryHitCount.sum();
+    long missCount = largeScan ? largeScanMissCount.sum() : normalQueryMissCount.sum();
+    long requestCount = hitCount + missCount;
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  public void clear() {
+    normalQueryHitCount.reset();
+    normalQueryMissCount.reset();
+    largeScanHitCount.reset();
+    largeScanMissCount.reset();
+  }
+}
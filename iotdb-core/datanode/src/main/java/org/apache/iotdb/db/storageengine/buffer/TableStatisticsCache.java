@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.TableStatistics;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.apache.tsfile.utils.RamUsageEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * This class caches the table statistics of sealed TsFiles, which are collected from their
+ * TimeseriesMetadata for the cost based optimizer of the planner. Its memory is taken from the
+ * memory for timeIndex, and the statistics of the files evicted from it are loaded again by the
+ * following refreshes or extrapolated, see {@code DataRegionTableStatistics}.
+ */
+public class TableStatisticsCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TableStatisticsCache.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  private static final boolean CACHE_ENABLE = CONFIG.isEnableCostBasedJoinOptimization();
+  private static final long MEMORY_THRESHOLD_IN_TABLE_STATISTICS_CACHE =
+      CACHE_ENABLE
+          ? (long)
+              (CONFIG.getAllocateMemoryForTimeIndex() * CONFIG.getTableStatisticsCacheProportion())
+          : 0;
+
+  private static final long KEY_SIZE = RamUsageEstimator.shallowSizeOfInstance(TsFileID.class);
+
+  private final Cache<TsFileID, Map<String, TableStatistics>> lruCache;
+
+  private TableStatisticsCache() {
+    this(MEMORY_THRESHOLD_IN_TABLE_STATISTICS_CACHE);
+    if (CACHE_ENABLE) {
+      LOGGER.info("TableStatisticsCache size = {}", MEMORY_THRESHOLD_IN_TABLE_STATISTICS_CACHE);
+    }
+  }
+
+  @TestOnly
+  public TableStatisticsCache(long memoryThreshold) {
+    lruCache =
+        Caffeine.newBuilder()
+            .maximumWeight(memoryThreshold)
+            .weigher(
+                (Weigher<TsFileID, Map<String, TableStatistics>>)
+                    (key, statistics) ->
+                        (int) Math.min(KEY_SIZE + ramBytesUsed(statistics), Integer.MAX_VALUE))
+            .build();
+  }
+
+  public static TableStatisticsCache getInstance() {
+    return TableStatisticsCacheHolder.INSTANCE;
+  }
+
+  public static boolean isCacheEnable() {
+    return CACHE_ENABLE;
+  }
+
+  /** Memory reserved for this cache, which is taken from the memory for timeIndex. */
+  public static long getMemoryThreshold() {
+    return MEMORY_THRESHOLD_IN_TABLE_STATISTICS_CACHE;
+  }
+
+  private static long ramBytesUsed(Map<String, TableStatistics> statistics) {
+    long size = RamUsageEstimator.shallowSizeOf(statistics);
+    for (Map.Entry<String, TableStatistics> entry : statistics.entrySet()) {
+      size +=
+          RamUsageEstimator.HASHTABLE_RAM_BYTES_PER_ENTRY
+              + RamUsageEstimator.sizeOf(entry.getKey())
+              + entry.getValue().ramBytesUsed();
+    }
+    return size;
+  }
+
+  /**
+   * @return the statistics of each table in the TsFile, or null if they are not cached
+   */
+  public Map<String, TableStatistics> get(TsFileResource tsFileResource) {
+    return lruCache.getIfPresent(tsFileResource.getTsFileID());
+  }
+
+  public void put(TsFileResource tsFileResource, Map<String, TableStatistics> statistics) {
+    lruCache.put(tsFileResource.getTsFileID(), statistics);
+  }
+
+  /** Remove the cached statistics when the TsFile is removed. */
+  public void invalidate(TsFileResource tsFileResource) {
+    lruCache.invalidate(tsFileResource.getTsFileID());
+  }
+
+  @TestOnly
+  public void clear() {
+    lruCache.invalidateAll();
+    lruCache.cleanUp();
+  }
+
+  @TestOnly
+  public long size() {
+    lruCache.cleanUp();
+    return lruCache.estimatedSize();
+  }
+
+  /** singleton pattern. */
+  private static class TableStatisticsCacheHolder {
+
+    private static final TableStatisticsCache INSTANCE = new TableStatisticsCache();
+  }
+}
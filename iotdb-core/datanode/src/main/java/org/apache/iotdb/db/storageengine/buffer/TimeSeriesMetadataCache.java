@@ -45,6 +45,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -78,6 +80,8 @@ public class TimeSeriesMetadataCache {
 
   private final AtomicLong entryAverageSize = new AtomicLong(0);
 
+  private final QueryTypeCacheStats queryTypeCacheStats = new QueryTypeCacheStats();
+
   private final Map<String, WeakReference<String>> devices =
       Collections.synchronizedMap(new WeakHashMap<>());
   private static final String SEPARATOR = "$";
@@ -195,12 +199,13 @@ public class TimeSeriesMetadataCache {
                     allSensors,
                     ignoreNotExists,
                     timeSeriesMetadataIoSizeRecorder);
-            // put TimeSeriesMetadata of all sensors used in this read into cache
+            // put TimeSeriesMetadata of all sensors used in this read into cache, unless it is
+            // read by a large scan which would evict the hot ones
             for (TimeseriesMetadata metadata : timeSeriesMetadataList) {
               TimeSeriesMetadataCacheKey k =
                   new TimeSeriesMetadataCacheKey(
                       key.tsFileID, key.device, metadata.getMeasurementId());
-              if (metadata.getStatistics().getCount() != 0) {
+              if (metadata.getStatistics().getCount() != 0 && !queryContext.isLargeScan()) {
                 lruCache.put(k, metadata);
               }
               if (metadata.getMeasurementId().equals(key.measurement)) {
@@ -228,6 +233,7 @@ public class TimeSeriesMetadataCache {
       }
     } finally {
       queryContext.getQueryStatistics().getLoadBloomFilterTime().getAndAdd(loadBloomFilterTime);
+      queryTypeCacheStats.record(queryContext.isLargeScan(), cacheHit);
       if (cacheHit) {
         queryContext
             .getQueryStatistics()
@@ -237,13 +243,14 @@ public class TimeSeriesMetadataCache {
         SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
             READ_TIMESERIES_METADATA_CACHE, System.nanoTime() - startTime);
       } else {
+        long time = System.nanoTime() - startTime;
         queryContext
             .getQueryStatistics()
             .getLoadTimeSeriesMetadataFromDiskCount()
             .incrementAndGet();
+        queryContext.getQueryStatistics().recordTsFileRead(filePath, time);
         // in metric panel, loading BloomFilter time is included in loading TimeSeriesMetadata
-        SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
-            READ_TIMESERIES_METADATA_FILE, System.nanoTime() - startTime);
+        SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(READ_TIMESERIES_METADATA_FILE, time);
       }
     }
   }
@@ -252,6 +259,11 @@ public class TimeSeriesMetadataCache {
     return lruCache.stats().hitRate();
   }
 
+  /** Hit ratio of large scans if largeScan is true, or else that of the other queries. */
+  public double calculateTimeSeriesMetadataHitRatio(boolean largeScan) {
+    return queryTypeCacheStats.getHitRatio(largeScan);
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
@@ -276,12 +288,41 @@ public class TimeSeriesMetadataCache {
   public void clear() {
     lruCache.invalidateAll();
     lruCache.cleanUp();
+    queryTypeCacheStats.clear();
   }
 
   public void remove(TimeSeriesMetadataCacheKey key) {
     lruCache.invalidate(key);
   }
 
+  /**
+   * Get at most seriesNum hottest series in this cache grouped by device, the hotter devices come
+   * first. Each series is looked up in about as many TsFiles as those warmed up at startup, so the
+   * hottest keys are scanned accordingly.
+   */
+  public Map<IDeviceID, Set<String>> getHottestSeries(int seriesNum) {
+    Map<IDeviceID, Set<String>> hottestSeries = new LinkedHashMap<>();
+    long keyNum = (long) seriesNum * config.getCacheWarmUpTsFileNum();
+    Map<TimeSeriesMetadataCacheKey, TimeseriesMetadata> hottestKeys =
+        lruCache
+            .policy()
+            .eviction()
+            .map(eviction -> eviction.hottest((int) Math.min(keyNum, Integer.MAX_VALUE)))
+            .orElse(Collections.emptyMap());
+    int num = 0;
+    for (TimeSeriesMetadataCacheKey key : hottestKeys.keySet()) {
+      if (num >= seriesNum) {
+        break;
+      }
+      if (hottestSeries
+          .computeIfAbsent(key.device, k -> new LinkedHashSet<>())
+          .add(key.measurement)) {
+        num++;
+      }
+    }
+    return hottestSeries;
+  }
+
   @TestOnly
   public boolean isEmpty() {
     return lruCache.asMap().isEmpty();
@@ -78,6 +78,7 @@ import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.storageengine.StorageEngine;
 import org.apache.iotdb.db.storageengine.buffer.BloomFilterCache;
 import org.apache.iotdb.db.storageengine.buffer.ChunkCache;
+import org.apache.iotdb.db.storageengine.buffer.TableStatisticsCache;
 import org.apache.iotdb.db.storageengine.buffer.TimeSeriesMetadataCache;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.constant.CompactionTaskType;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.execute.recover.CompactionRecoverManager;
@@ -105,6 +106,7 @@ import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSourceForRegio
 import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
 import org.apache.iotdb.db.storageengine.dataregion.read.filescan.IFileScanHandle;
 import org.apache.iotdb.db.storageengine.dataregion.read.filescan.impl.ClosedFileScanHandleImpl;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.DataRegionTableStatistics;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileManager;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
@@ -173,6 +175,7 @@ import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -248,10 +251,12 @@ public class DataRegion implements IDataRegionForQuery {
   private final ReadWriteLock closeQueryLock = new ReentrantReadWriteLock();
 
   /** time partition id in the database -> {@link TsFileProcessor} for this time partition. */
-  private final TreeMap<Long, TsFileProcessor> workSequenceTsFileProcessors = new TreeMap<>();
+  private final ConcurrentSkipListMap<Long, TsFileProcessor> workSequenceTsFileProcessors =
+      new ConcurrentSkipListMap<>();
 
   /** time partition id in the database -> {@link TsFileProcessor} for this time partition. */
-  private final TreeMap<Long, TsFileProcessor> workUnsequenceTsFileProcessors = new TreeMap<>();
+  private final ConcurrentSkipListMap<Long, TsFileProcessor> workUnsequenceTsFileProcessors =
+      new ConcurrentSkipListMap<>();
 
   /** sequence {@link TsFileProcessor}s which are closing. */
   private final Set<TsFileProcessor> closingSequenceTsFileProcessor = ConcurrentHashMap.newKeySet();
@@ -272,6 +277,9 @@ public class DataRegion implements IDataRegionForQuery {
   /** manage seqFileList and unSeqFileList. */
   private final TsFileManager tsFileManager;
 
+  /** statistics of the tables in sealed TsFiles, used by the planner for cost estimation. */
+  private final DataRegionTableStatistics tableStatistics;
+
   /** manage tsFileResource degrade. */
   private final TsFileResourceManager tsFileResourceManager = TsFileResourceManager.getInstance();
 
@@ -311,6 +319,28 @@ public class DataRegion implements IDataRegionForQuery {
    */
   private String insertWriteLockHolder = "";
 
+  /**
+   * Striped locks of (time partition, device) pairs, which let insertions into different devices
+   * run concurrently while holding the read lock of insertLock. Null if disabled, then insertions
+   * hold the write lock of insertLock.
+   *
+   * <p>What still serializes when enabled: the memtable writes and memory accounting of one
+   * TsFileProcessor (see {@link TsFileProcessor#insert}), the creation of TsFileProcessors, and
+   * flush, deletion, load and region removal, which take the write lock of insertLock. Queries only
+   * hold the read lock of insertLock and wait for the memtable writes of the TsFileProcessors they
+   * read, so they may see the devices of an insertion partially written.
+   */
+  private final StripedInsertLock stripedInsertLock =
+      config.isEnableStripedInsertLock()
+          ? new StripedInsertLock(4 * Runtime.getRuntime().availableProcessors())
+          : null;
+
+  /**
+   * TsFileProcessors which should be flushed after insertions holding stripedInsertLock, as a
+   * memtable can only be switched while holding the write lock of insertLock.
+   */
+  private final Set<TsFileProcessor> tsFileProcessorsToFlush = ConcurrentHashMap.newKeySet();
+
   private volatile long directBufferMemoryCost = 0;
 
   private final AtomicBoolean isCompactionSelecting = new AtomicBoolean(false);
@@ -342,6 +372,8 @@ public class DataRegion implements IDataRegionForQuery {
 
     dataRegionSysDir = SystemFileFactory.INSTANCE.getFile(systemDir, dataRegionId);
     this.tsFileManager = new TsFileManager(databaseName, dataRegionId, dataRegionSysDir.getPath());
+    this.tableStatistics =
+        new DataRegionTableStatistics(tsFileManager, TableStatisticsCache.getInstance());
     if (dataRegionSysDir.mkdirs()) {
       logger.info(
           "Database system Directory {} doesn't exist, create it", dataRegionSysDir.getPath());
@@ -396,7 +428,9 @@ public class DataRegion implements IDataRegionForQuery {
     this.databaseName = databaseName;
     this.dataRegionId = id;
     this.tsFileManager = new TsFileManager(databaseName, id, "");
-    this.partitionMaxFileVersions = new HashMap<>();
+    this.tableStatistics =
+        new DataRegionTableStatistics(tsFileManager, TableStatisticsCache.getInstance());
+    this.partitionMaxFileVersions = new ConcurrentHashMap<>();
     partitionMaxFileVersions.put(0L, 0L);
     upgradeModFileThreadPool = null;
     this.metrics = new DataRegionMetrics(this);
@@ -1035,9 +1069,7 @@ public class DataRegion implements IDataRegionForQuery {
           insertRowNode.getTime(), (CommonDateTimeUtils.currentTime() - ttl));
     }
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("InsertRow");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes = insertLock("InsertRow", insertRowNode);
     try {
       if (deleted) {
         return;
@@ -1056,19 +1088,19 @@ public class DataRegion implements IDataRegionForQuery {
           insertToTsFileProcessor(insertRowNode, isSequence, timePartitionId);
 
       // check memtable size and may asyncTryToFlush the work memtable
-      if (tsFileProcessor != null && tsFileProcessor.shouldFlush()) {
-        fileFlushPolicy.apply(this, tsFileProcessor, tsFileProcessor.isSequence());
+      if (tsFileProcessor != null) {
+        flushIfNeededAfterInsert(tsFileProcessor);
       }
       if (CommonDescriptor.getInstance().getConfig().isLastCacheEnable()
           && (!insertRowNode.isGeneratedByRemoteConsensusLeader())) {
         // disable updating last cache on follower
-        startTime = System.nanoTime();
+        long startTime = System.nanoTime();
         tryToUpdateInsertRowLastCache(insertRowNode);
         PERFORMANCE_OVERVIEW_METRICS.recordScheduleUpdateLastCacheCost(
             System.nanoTime() - startTime);
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes);
     }
   }
 
@@ -1197,9 +1229,7 @@ public class DataRegion implements IDataRegionForQuery {
   public void insertTablet(InsertTabletNode insertTabletNode)
       throws BatchProcessException, WriteProcessException {
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("insertTablet");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes = insertLock("insertTablet", insertTabletNode);
     try {
       if (deleted) {
         logger.info(
@@ -1221,7 +1251,7 @@ public class DataRegion implements IDataRegionForQuery {
         throw new BatchProcessException(results);
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes);
     }
   }
 
@@ -1325,9 +1355,7 @@ public class DataRegion implements IDataRegionForQuery {
     }
 
     // check memtable size and may async try to flush the work memtable
-    if (tsFileProcessor.shouldFlush()) {
-      fileFlushPolicy.apply(this, tsFileProcessor, sequence);
-    }
+    flushIfNeededAfterInsert(tsFileProcessor);
     return true;
   }
 
@@ -1427,9 +1455,7 @@ public class DataRegion implements IDataRegionForQuery {
       // register TableSchema (and maybe more) for table insertion
       registerToTsFile(subInsertRowsNode, tsFileProcessor);
       // check memtable size and may asyncTryToFlush the work memtable
-      if (entry.getKey().shouldFlush()) {
-        fileFlushPolicy.apply(this, tsFileProcessor, tsFileProcessor.isSequence());
-      }
+      flushIfNeededAfterInsert(tsFileProcessor);
     }
     return executedInsertRowNodeList;
   }
@@ -1545,22 +1571,30 @@ public class DataRegion implements IDataRegionForQuery {
    * @param sequence whether is sequence or not
    */
   private TsFileProcessor getOrCreateTsFileProcessorIntern(
-      long timeRangeId, TreeMap<Long, TsFileProcessor> tsFileProcessorTreeMap, boolean sequence)
+      long timeRangeId,
+      ConcurrentSkipListMap<Long, TsFileProcessor> tsFileProcessorTreeMap,
+      boolean sequence)
       throws IOException, DiskSpaceInsufficientException {
 
     TsFileProcessor res = tsFileProcessorTreeMap.get(timeRangeId);
     if (null == res) {
-      // build new processor, memory control module will control the number of memtables
-      TimePartitionManager.getInstance()
-          .updateAfterOpeningTsFileProcessor(
-              new DataRegionId(Integer.parseInt(dataRegionId)), timeRangeId);
-      res = newTsFileProcessor(sequence, timeRangeId);
-      if (workSequenceTsFileProcessors.get(timeRangeId) == null
-          && workUnsequenceTsFileProcessors.get(timeRangeId) == null) {
-        WritingMetrics.getInstance().recordActiveTimePartitionCount(1);
+      // insertions of different devices holding the striped insert lock may get here at once
+      synchronized (tsFileProcessorTreeMap) {
+        res = tsFileProcessorTreeMap.get(timeRangeId);
+        if (null == res) {
+          // build new processor, memory control module will control the number of memtables
+          TimePartitionManager.getInstance()
+              .updateAfterOpeningTsFileProcessor(
+                  new DataRegionId(Integer.parseInt(dataRegionId)), timeRangeId);
+          res = newTsFileProcessor(sequence, timeRangeId);
+          if (workSequenceTsFileProcessors.get(timeRangeId) == null
+              && workUnsequenceTsFileProcessors.get(timeRangeId) == null) {
+            WritingMetrics.getInstance().recordActiveTimePartitionCount(1);
+          }
+          tsFileManager.add(res.getTsFileResource(), sequence);
+          tsFileProcessorTreeMap.put(timeRangeId, res);
+        }
       }
-      tsFileProcessorTreeMap.put(timeRangeId, res);
-      tsFileManager.add(res.getTsFileResource(), sequence);
     }
 
     return res;
@@ -1951,22 +1985,24 @@ public class DataRegion implements IDataRegionForQuery {
       List<Long> timePartitions)
       throws QueryProcessException {
     try {
+      // only the selection of the TsFiles is timed, not the memtable queries of unsealed files
+      long startTime = System.nanoTime();
+      List<TsFileResource> seqTsFiles =
+          getTsFileListForQuery(true, timePartitions, globalTimeFilter, singleDeviceId);
+      QUERY_RESOURCE_METRIC_SET.recordQueryResourceSelectionCost(
+          SEQUENCE_TSFILE, System.nanoTime() - startTime);
       List<TsFileResource> seqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(true, timePartitions, globalTimeFilter),
-              pathList,
-              singleDeviceId,
-              context,
-              globalTimeFilter,
-              true);
+              seqTsFiles, pathList, singleDeviceId, context, globalTimeFilter, true);
+
+      startTime = System.nanoTime();
+      List<TsFileResource> unseqTsFiles =
+          getTsFileListForQuery(false, timePartitions, globalTimeFilter, singleDeviceId);
+      QUERY_RESOURCE_METRIC_SET.recordQueryResourceSelectionCost(
+          UNSEQUENCE_TSFILE, System.nanoTime() - startTime);
       List<TsFileResource> unseqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(false, timePartitions, globalTimeFilter),
-              pathList,
-              singleDeviceId,
-              context,
-              globalTimeFilter,
-              false);
+              unseqTsFiles, pathList, singleDeviceId, context, globalTimeFilter, false);
 
       QUERY_RESOURCE_METRIC_SET.recordQueryResourceNum(SEQUENCE_TSFILE, seqResources.size());
       QUERY_RESOURCE_METRIC_SET.recordQueryResourceNum(UNSEQUENCE_TSFILE, unseqResources.size());
@@ -2129,6 +2165,118 @@ public class DataRegion implements IDataRegionForQuery {
     insertLock.writeLock().unlock();
   }
 
+  /**
+   * Lock the data region for an insertion. If the striped insert lock is enabled, only the (time
+   * partition, device) pairs written by the insertion are locked exclusively, otherwise the whole
+   * data region is locked.
+   *
+   * @return the locked stripes of the striped insert lock, which should be passed to {@link
+   *     #insertUnlock(int[])}, or null if the write lock of the insert lock is held
+   */
+  private int[] insertLock(String holder, InsertNode insertNode) {
+    long startTime = System.nanoTime();
+    int[] lockedStripes = null;
+    if (stripedInsertLock == null) {
+      writeLock(holder);
+    } else {
+      boolean[] selectedStripes = getInsertStripes(insertNode);
+      insertLock.readLock().lock();
+      lockedStripes = stripedInsertLock.lock(selectedStripes);
+    }
+    long costTime = System.nanoTime() - startTime;
+    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(costTime);
+    if (metrics != null) {
+      metrics.recordInsertLockWaitTime(costTime);
+    }
+    return lockedStripes;
+  }
+
+  private void insertUnlock(int[] lockedStripes) {
+    if (lockedStripes == null) {
+      writeUnlock();
+      return;
+    }
+    stripedInsertLock.unlock(lockedStripes);
+    insertLock.readLock().unlock();
+    // flush the memtables which became full during insertions, this takes the write lock
+    Iterator<TsFileProcessor> iterator = tsFileProcessorsToFlush.iterator();
+    while (iterator.hasNext()) {
+      TsFileProcessor tsFileProcessor = iterator.next();
+      iterator.remove();
+      submitAFlushTaskWhenShouldFlush(tsFileProcessor);
+    }
+  }
+
+  /** check the memtable size after an insertion and may async try to flush the work memtable */
+  private void flushIfNeededAfterInsert(TsFileProcessor tsFileProcessor) {
+    if (!tsFileProcessor.shouldFlush()) {
+      return;
+    }
+    if (stripedInsertLock == null) {
+      fileFlushPolicy.apply(this, tsFileProcessor, tsFileProcessor.isSequence());
+    } else {
+      // other insertions may be writing the memtable, flush it after releasing the insert lock
+      tsFileProcessorsToFlush.add(tsFileProcessor);
+    }
+  }
+
+  /** get the stripes of the (time partition, device) pairs written by the insertion */
+  private boolean[] getInsertStripes(InsertNode insertNode) {
+    boolean[] selectedStripes = new boolean[stripedInsertLock.getStripeNum()];
+    if (insertNode instanceof InsertRowNode) {
+      selectInsertStripes(selectedStripes, (InsertRowNode) insertNode);
+    } else if (insertNode instanceof InsertTabletNode) {
+      selectInsertStripes(selectedStripes, (InsertTabletNode) insertNode);
+    } else if (insertNode instanceof InsertMultiTabletsNode) {
+      for (InsertTabletNode insertTabletNode :
+          ((InsertMultiTabletsNode) insertNode).getInsertTabletNodeList()) {
+        selectInsertStripes(selectedStripes, insertTabletNode);
+      }
+    } else {
+      List<InsertRowNode> insertRowNodeList =
+          insertNode instanceof InsertRowsNode
+              ? ((InsertRowsNode) insertNode).getInsertRowNodeList()
+              : ((InsertRowsOfOneDeviceNode) insertNode).getInsertRowNodeList();
+      for (InsertRowNode insertRowNode : insertRowNodeList) {
+        selectInsertStripes(selectedStripes, insertRowNode);
+      }
+    }
+    return selectedStripes;
+  }
+
+  private void selectInsertStripes(boolean[] selectedStripes, InsertRowNode insertRowNode) {
+    long timePartitionId = TimePartitionUtils.getTimePartitionId(insertRowNode.getTime());
+    selectedStripes[stripedInsertLock.getStripe(timePartitionId, insertRowNode.getDeviceID())] =
+        true;
+  }
+
+  private void selectInsertStripes(boolean[] selectedStripes, InsertTabletNode insertTabletNode) {
+    long[] times = insertTabletNode.getTimes();
+    int start = 0;
+    for (Pair<IDeviceID, Integer> deviceEndOffsetPair :
+        insertTabletNode.splitByDevice(0, insertTabletNode.getRowCount())) {
+      IDeviceID deviceId = deviceEndOffsetPair.getLeft();
+      int end = deviceEndOffsetPair.getRight();
+      long lastTimePartitionId = Long.MIN_VALUE;
+      for (int i = start; i < end; i++) {
+        long timePartitionId = TimePartitionUtils.getTimePartitionId(times[i]);
+        if (i == start || timePartitionId != lastTimePartitionId) {
+          selectedStripes[stripedInsertLock.getStripe(timePartitionId, deviceId)] = true;
+          lastTimePartitionId = timePartitionId;
+        }
+      }
+      start = end;
+    }
+  }
+
+  private List<TsFileResource> getTsFileListForQuery(
+      boolean sequence, List<Long> timePartitions, Filter globalTimeFilter, IDeviceID deviceId) {
+    return config.isEnableTsFileIntervalIndex()
+        ? tsFileManager.getTsFileListByIntervalIndex(
+            sequence, timePartitions, globalTimeFilter, deviceId)
+        : tsFileManager.getTsFileList(sequence, timePartitions, globalTimeFilter);
+  }
+
   /**
    * @param tsFileResources includes sealed and unsealed tsfile resources
    * @return fill unsealed tsfile resources with memory data and ChunkMetadataList of data in disk
@@ -3186,7 +3334,7 @@ public class DataRegion implements IDataRegionForQuery {
    * @return all working sequence tsfile processors
    */
   public Collection<TsFileProcessor> getWorkSequenceTsFileProcessors() {
-    return workSequenceTsFileProcessors.values();
+    return new ArrayList<>(workSequenceTsFileProcessors.values());
   }
 
   public boolean removeTsFile(File fileToBeRemoved) {
@@ -3272,7 +3420,7 @@ public class DataRegion implements IDataRegionForQuery {
    * @return all working unsequence tsfile processors
    */
   public Collection<TsFileProcessor> getWorkUnsequenceTsFileProcessors() {
-    return workUnsequenceTsFileProcessors.values();
+    return new ArrayList<>(workUnsequenceTsFileProcessors.values());
   }
 
   public List<TsFileResource> getSequenceFileList() {
@@ -3324,9 +3472,7 @@ public class DataRegion implements IDataRegionForQuery {
   public void insert(InsertRowsOfOneDeviceNode insertRowsOfOneDeviceNode)
       throws WriteProcessException, BatchProcessException {
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("InsertRowsOfOneDevice");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes = insertLock("InsertRowsOfOneDevice", insertRowsOfOneDeviceNode);
     try {
       if (deleted) {
         return;
@@ -3416,22 +3562,20 @@ public class DataRegion implements IDataRegionForQuery {
         executedInsertRowNodeList.addAll(subInsertRowsNode.getInsertRowNodeList());
 
         // check memtable size and may asyncTryToFlush the work memtable
-        if (tsFileProcessor.shouldFlush()) {
-          fileFlushPolicy.apply(this, tsFileProcessor, tsFileProcessor.isSequence());
-        }
+        flushIfNeededAfterInsert(tsFileProcessor);
       }
 
       updateTsFileProcessorMetric(insertRowsOfOneDeviceNode, infoForMetrics);
       if (CommonDescriptor.getInstance().getConfig().isLastCacheEnable()
           && !insertRowsOfOneDeviceNode.isGeneratedByRemoteConsensusLeader()) {
         // disable updating last cache on follower
-        startTime = System.nanoTime();
+        long startTime = System.nanoTime();
         tryToUpdateInsertRowsLastCache(executedInsertRowNodeList);
         PERFORMANCE_OVERVIEW_METRICS.recordScheduleUpdateLastCacheCost(
             System.nanoTime() - startTime);
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes);
     }
     if (!insertRowsOfOneDeviceNode.getResults().isEmpty()) {
       throw new BatchProcessException("Partial failed inserting rows of one device");
@@ -3441,9 +3585,7 @@ public class DataRegion implements IDataRegionForQuery {
   public void insert(InsertRowsNode insertRowsNode)
       throws BatchProcessException, WriteProcessRejectException {
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("InsertRows");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes = insertLock("InsertRows", insertRowsNode);
     try {
       if (deleted) {
         return;
@@ -3501,7 +3643,7 @@ public class DataRegion implements IDataRegionForQuery {
       if (CommonDescriptor.getInstance().getConfig().isLastCacheEnable()
           && !insertRowsNode.isGeneratedByRemoteConsensusLeader()) {
         // disable updating last cache on follower
-        startTime = System.nanoTime();
+        long startTime = System.nanoTime();
         tryToUpdateInsertRowsLastCache(executedInsertRowNodeList);
         PERFORMANCE_OVERVIEW_METRICS.recordScheduleUpdateLastCacheCost(
             System.nanoTime() - startTime);
@@ -3511,7 +3653,7 @@ public class DataRegion implements IDataRegionForQuery {
         throw new BatchProcessException("Partial failed inserting rows");
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes);
     }
   }
 
@@ -3524,9 +3666,7 @@ public class DataRegion implements IDataRegionForQuery {
       throws BatchProcessException, WriteProcessRejectException {
 
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("insertTablets");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes = insertLock("insertTablets", insertMultiTabletsNode);
     try {
       if (deleted) {
         logger.info(
@@ -3571,7 +3711,7 @@ public class DataRegion implements IDataRegionForQuery {
       updateTsFileProcessorMetric(insertMultiTabletsNode, infoForMetrics);
 
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes);
     }
 
     if (!insertMultiTabletsNode.getResults().isEmpty()) {
@@ -3841,6 +3981,10 @@ public class DataRegion implements IDataRegionForQuery {
     return tsFileManager;
   }
 
+  public DataRegionTableStatistics getTableStatistics() {
+    return tableStatistics;
+  }
+
   private long getTTL(InsertNode insertNode) {
     if (insertNode.getTableName() == null) {
       return DataNodeTTLCache.getInstance().getTTLForTree(insertNode.getTargetPath().getNodes());
@@ -22,19 +22,31 @@ package org.apache.iotdb.db.storageengine.dataregion;
 import org.apache.iotdb.commons.service.metric.enums.Metric;
 import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Timer;
 import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.metrics.utils.MetricType;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 public class DataRegionMetrics implements IMetricSet {
   private final DataRegion dataRegion;
   private final String databaseName;
+  private final String dataRegionId;
+
+  private Timer insertLockWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   public DataRegionMetrics(DataRegion dataRegion) {
     this.dataRegion = dataRegion;
     this.databaseName = dataRegion.getDatabaseName();
+    this.dataRegionId = dataRegion.getDataRegionId();
+  }
+
+  /** record how long an insertion waited for the insert lock of this region */
+  public void recordInsertLockWaitTime(long costInNs) {
+    insertLockWaitTimer.update(costInNs, TimeUnit.NANOSECONDS);
   }
 
   @Override
@@ -46,6 +58,12 @@ public class DataRegionMetrics implements IMetricSet {
         DataRegion::getMemCost,
         Tag.NAME.toString(),
         "database_" + databaseName);
+    insertLockWaitTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_REGION_INSERT_LOCK_WAIT.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.REGION.toString(),
+            dataRegionId);
   }
 
   @Override
@@ -55,6 +73,12 @@ public class DataRegionMetrics implements IMetricSet {
         Metric.MEM.toString(),
         Tag.NAME.toString(),
         "database_" + databaseName);
+    insertLockWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    metricService.remove(
+        MetricType.TIMER,
+        Metric.DATA_REGION_INSERT_LOCK_WAIT.toString(),
+        Tag.REGION.toString(),
+        dataRegionId);
   }
 
   @Override
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks over the (time partition, device) pairs of a {@link DataRegion}. Each pair is
+ * mapped to one stripe, so insertions into different devices, or into different time partitions of
+ * one device, only contend when their pairs collide on a stripe. The writes of one device into one
+ * time partition are always serialized, which keeps the order of its points in the memtable and in
+ * the WAL the same.
+ *
+ * <p>A stripe only orders the insertions of its pairs. The memtable shared by the devices of a time
+ * partition is guarded by the TsFileProcessor itself.
+ *
+ * <p>Stripes are always locked in ascending order, which keeps several writers free of deadlocks.
+ */
+public class StripedInsertLock {
+
+  private final ReentrantLock[] stripes;
+
+  public StripedInsertLock(int stripeNum) {
+    stripes = new ReentrantLock[Math.max(1, stripeNum)];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  public int getStripe(long timePartitionId, IDeviceID deviceId) {
+    return Math.floorMod(31 * Long.hashCode(timePartitionId) + deviceId.hashCode(), stripes.length);
+  }
+
+  /**
+   * Acquire the locks of the selected stripes.
+   *
+   * @param selectedStripes whether each stripe should be locked, indexed by {@link
+   *     #getStripe(long, IDeviceID)}
+   * @return the locked stripes in ascending order, which should be passed to {@link #unlock(int[])}
+   */
+  public int[] lock(boolean[] selectedStripes) {
+    int selectedNum = 0;
+    for (boolean selected : selectedStripes) {
+      if (selected) {
+        selectedNum++;
+      }
+    }
+    int[] lockedStripes = new int[selectedNum];
+    int index = 0;
+    for (int stripe = 0; stripe < stripes.length && index < selectedNum; stripe++) {
+      if (selectedStripes[stripe]) {
+        stripes[stripe].lock();
+        lockedStripes[index++] = stripe;
+      }
+    }
+    return lockedStripes;
+  }
+
+  public void unlock(int[] lockedStripes) {
+    for (int i = lockedStripes.length - 1; i >= 0; i--) {
+      stripes[lockedStripes[i]].unlock();
+    }
+  }
+
+  public int getStripeNum() {
+    return stripes.length;
+  }
+}
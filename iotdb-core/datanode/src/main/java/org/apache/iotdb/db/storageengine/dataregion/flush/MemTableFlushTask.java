@@ -26,6 +26,7 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
+import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushEncodingTaskPoolManager;
 import org.apache.iotdb.db.storageengine.dataregion.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.IWritableMemChunk;
@@ -48,17 +49,25 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
  * flush task to flush one memtable using a pipeline model to flush, which is sort memtable ->
  * encoding -> write to disk (io task)
+ *
+ * <p>When parallel chunk group encoding is enabled, the sort and encoding stages of each device are
+ * executed as one task in {@link FlushEncodingTaskPoolManager}, and the io task writes the encoded
+ * chunk groups into the file in device order.
  */
 public class MemTableFlushTask {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final FlushSubTaskPoolManager SUB_TASK_POOL_MANAGER =
       FlushSubTaskPoolManager.getInstance();
+  private static final FlushEncodingTaskPoolManager ENCODING_TASK_POOL_MANAGER =
+      FlushEncodingTaskPoolManager.getInstance();
+  private static final long WAIT_IO_TASK_INTERVAL_IN_MS = 100L;
   private static final WritingMetrics WRITING_METRICS = WritingMetrics.getInstance();
   private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
   /* storage group name -> last time */
@@ -73,6 +82,15 @@ public class MemTableFlushTask {
           ? new LinkedBlockingQueue<>(config.getIoTaskQueueSizeForFlushing())
           : new LinkedBlockingQueue<>();
 
+  private final boolean enableParallelEncoding = config.isEnableParallelChunkGroupEncoding();
+
+  /**
+   * Limits the chunk groups that are being encoded or waiting for the io task in parallel encoding
+   * mode, one being encoded and one waiting for each encoding thread, so that the temporary memory
+   * of encoded chunks stays bounded when io is slower than encoding.
+   */
+  private final Semaphore encodingPermits = new Semaphore(config.getFlushEncodingThreadCount() * 2);
+
   private String storageGroup;
   private String dataRegionId;
 
@@ -80,6 +98,10 @@ public class MemTableFlushTask {
 
   private volatile long memSerializeTime = 0L;
   private volatile long ioTime = 0L;
+  // only used in parallel encoding mode, accumulated by the io task
+  private volatile long chunkGroupSortTime = 0L;
+  // only used in parallel encoding mode, the failure of an encoding task met by the io task
+  private volatile Throwable encodingFailure;
 
   /**
    * @param memTable the memTable to flush
@@ -95,7 +117,8 @@ public class MemTableFlushTask {
     this.writer = writer;
     this.storageGroup = storageGroup;
     this.dataRegionId = dataRegionId;
-    this.encodingTaskFuture = SUB_TASK_POOL_MANAGER.submit(encodingTask);
+    this.encodingTaskFuture =
+        enableParallelEncoding ? null : SUB_TASK_POOL_MANAGER.submit(encodingTask);
     this.ioTaskFuture = SUB_TASK_POOL_MANAGER.submit(ioTask);
     LOGGER.debug(
         "flush task of database {} memtable is created, flushing to file {}.",
@@ -117,24 +140,98 @@ public class MemTableFlushTask {
         memTable.getTotalPointsNum(),
         avgSeriesPointsNum);
 
-    long estimatedTemporaryMemSize = 0L;
-    if (SystemInfo.getInstance().isEncodingFasterThanIo()) {
-      estimatedTemporaryMemSize =
-          memTable.getSeriesNumber() == 0
-              ? 0
-              : memTable.memSize()
-                  / memTable.getSeriesNumber()
-                  * config.getIoTaskQueueSizeForFlushing();
+    // for map do not use get(key) to iterate
+    Map<IDeviceID, IWritableMemChunkGroup> memTableMap = memTable.getMemTableMap();
+    long estimatedTemporaryMemSize = estimateTemporaryMemSize(memTableMap.size());
+    if (estimatedTemporaryMemSize != 0) {
       SystemInfo.getInstance().applyTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
     }
     long start = System.currentTimeMillis();
-    long sortTime = 0;
 
-    // for map do not use get(key) to iterate
-    Map<IDeviceID, IWritableMemChunkGroup> memTableMap = memTable.getMemTableMap();
     List<IDeviceID> deviceIDList = new ArrayList<>(memTableMap.keySet());
     // sort the IDeviceID in lexicographical order
     Collections.sort(deviceIDList);
+    if (enableParallelEncoding) {
+      encodeChunkGroupsInParallel(memTableMap, deviceIDList);
+    } else {
+      encodeChunkGroupsInPipeline(memTableMap, deviceIDList);
+    }
+
+    ioTaskFuture.get();
+    if (encodingFailure != null) {
+      throw new ExecutionException(encodingFailure);
+    }
+
+    if (enableParallelEncoding) {
+      LOGGER.debug(
+          "Database {} memtable flushing into file {}: data sort time cost {} ms, encoding time cost {} ms.",
+          storageGroup,
+          writer.getFile().getName(),
+          chunkGroupSortTime,
+          memSerializeTime);
+      WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_SORT, chunkGroupSortTime);
+      WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_ENCODING, memSerializeTime);
+    }
+
+    try {
+      long writePlanIndicesStartTime = System.currentTimeMillis();
+      writer.writePlanIndices();
+      WRITING_METRICS.recordFlushCost(
+          WritingMetrics.WRITE_PLAN_INDICES,
+          System.currentTimeMillis() - writePlanIndicesStartTime);
+    } catch (IOException e) {
+      throw new ExecutionException(e);
+    }
+
+    if (estimatedTemporaryMemSize != 0) {
+      SystemInfo.getInstance().releaseTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
+    }
+    // the encoding time is summed over the encoding threads in parallel encoding mode, while the
+    // io time elapses in the single io task
+    long elapsedEncodingTime =
+        enableParallelEncoding
+            ? memSerializeTime / config.getFlushEncodingThreadCount()
+            : memSerializeTime;
+    SystemInfo.getInstance().setEncodingFasterThanIo(ioTime >= elapsedEncodingTime);
+
+    MetricService.getInstance()
+        .timer(
+            System.currentTimeMillis() - start,
+            TimeUnit.MILLISECONDS,
+            Metric.COST_TASK.toString(),
+            MetricLevel.CORE,
+            Tag.NAME.toString(),
+            "flush");
+  }
+
+  /**
+   * Estimate the memory of the encoded chunks waiting to be written. In pipeline mode, each item of
+   * the io task queue is one encoded series, which is bounded only if encoding is faster than io.
+   * In parallel encoding mode, each item is a whole encoded chunk group, and the items in flight
+   * are always bounded by the encoding permits.
+   */
+  private long estimateTemporaryMemSize(int deviceNum) {
+    if (enableParallelEncoding) {
+      return deviceNum == 0
+          ? 0
+          : memTable.memSize()
+              / deviceNum
+              * Math.min(deviceNum, config.getFlushEncodingThreadCount() * 2L);
+    }
+    if (SystemInfo.getInstance().isEncodingFasterThanIo()) {
+      return memTable.getSeriesNumber() == 0
+          ? 0
+          : memTable.memSize()
+              / memTable.getSeriesNumber()
+              * config.getIoTaskQueueSizeForFlushing();
+    }
+    return 0;
+  }
+
+  private void encodeChunkGroupsInPipeline(
+      Map<IDeviceID, IWritableMemChunkGroup> memTableMap, List<IDeviceID> deviceIDList)
+      throws ExecutionException, InterruptedException {
+    long sortTime = 0;
     for (IDeviceID deviceID : deviceIDList) {
       final Map<String, IWritableMemChunk> value = memTableMap.get(deviceID).getMemChunkMap();
       // skip the empty device/chunk group
@@ -179,32 +276,136 @@ public class MemTableFlushTask {
       }
       throw e;
     }
+  }
 
-    ioTaskFuture.get();
-
+  /**
+   * Submit one sort and encoding task per device to {@link FlushEncodingTaskPoolManager}. The
+   * futures are handed to the io task in device order, so the chunk groups are still written into
+   * the file in the same order as in the pipeline mode.
+   */
+  private void encodeChunkGroupsInParallel(
+      Map<IDeviceID, IWritableMemChunkGroup> memTableMap, List<IDeviceID> deviceIDList)
+      throws ExecutionException, InterruptedException {
     try {
-      long writePlanIndicesStartTime = System.currentTimeMillis();
-      writer.writePlanIndices();
-      WRITING_METRICS.recordFlushCost(
-          WritingMetrics.WRITE_PLAN_INDICES,
-          System.currentTimeMillis() - writePlanIndicesStartTime);
-    } catch (IOException e) {
-      throw new ExecutionException(e);
+      for (IDeviceID deviceID : deviceIDList) {
+        IWritableMemChunkGroup memChunkGroup = memTableMap.get(deviceID);
+        // skip the empty device/chunk group
+        if (memChunkGroup.count() == 0 || memChunkGroup.getMemChunkMap().isEmpty()) {
+          continue;
+        }
+        acquireEncodingPermit();
+        putIoTask(
+            ENCODING_TASK_POOL_MANAGER.submit(() -> encodeChunkGroup(deviceID, memChunkGroup)));
+      }
+      putIoTask(new TaskEnd());
+    } catch (InterruptedException | ExecutionException e) {
+      ioTaskFuture.cancel(true);
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      throw e;
     }
 
-    if (estimatedTemporaryMemSize != 0) {
-      SystemInfo.getInstance().releaseTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
+    DataRegion.getNonSystemDatabaseName(storageGroup)
+        .ifPresent(
+            databaseName ->
+                recordFlushPointsMetricInternal(
+                    memTable.getTotalPointsNum(), databaseName, dataRegionId));
+  }
+
+  private EncodedChunkGroup encodeChunkGroup(
+      IDeviceID deviceID, IWritableMemChunkGroup memChunkGroup) {
+    Map<String, IWritableMemChunk> memChunkMap = memChunkGroup.getMemChunkMap();
+    List<String> seriesInOrder = new ArrayList<>(memChunkMap.keySet());
+    Collections.sort(seriesInOrder);
+    EncodedChunkGroup encodedChunkGroup = new EncodedChunkGroup(deviceID, seriesInOrder.size());
+    for (String seriesId : seriesInOrder) {
+      IWritableMemChunk series = memChunkMap.get(seriesId);
+      if (series.count() == 0) {
+        continue;
+      }
+      long startTime = System.currentTimeMillis();
+      series.sortTvListForFlush();
+      long sortedTime = System.currentTimeMillis();
+      WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.SORT_TASK, sortedTime - startTime);
+      encodedChunkGroup.sortTime += sortedTime - startTime;
+
+      IChunkWriter seriesWriter = series.createIChunkWriter();
+      series.encode(seriesWriter);
+      seriesWriter.sealCurrentPage();
+      seriesWriter.clearPageWriter();
+      encodedChunkGroup.chunkWriters.add(seriesWriter);
+      long encodingTime = System.currentTimeMillis() - sortedTime;
+      WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.ENCODING_TASK, encodingTime);
+      encodedChunkGroup.encodingTime += encodingTime;
     }
-    SystemInfo.getInstance().setEncodingFasterThanIo(ioTime >= memSerializeTime);
+    return encodedChunkGroup;
+  }
 
-    MetricService.getInstance()
-        .timer(
-            System.currentTimeMillis() - start,
-            TimeUnit.MILLISECONDS,
-            Metric.COST_TASK.toString(),
-            MetricLevel.CORE,
-            Tag.NAME.toString(),
-            "flush");
+  private void acquireEncodingPermit() throws ExecutionException, InterruptedException {
+    while (!encodingPermits.tryAcquire(WAIT_IO_TASK_INTERVAL_IN_MS, TimeUnit.MILLISECONDS)) {
+      checkIoTaskAlive();
+    }
+  }
+
+  private void putIoTask(Object task) throws ExecutionException, InterruptedException {
+    while (!ioTaskQueue.offer(task, WAIT_IO_TASK_INTERVAL_IN_MS, TimeUnit.MILLISECONDS)) {
+      checkIoTaskAlive();
+    }
+  }
+
+  /** The io task only stops before receiving TaskEnd when it fails, so do not wait for it. */
+  private void checkIoTaskAlive() throws ExecutionException, InterruptedException {
+    if (ioTaskFuture.isDone()) {
+      ioTaskFuture.get();
+      if (encodingFailure != null) {
+        throw new ExecutionException(encodingFailure);
+      }
+      throw new ExecutionException(
+          new IOException(
+              String.format(
+                  "io task of flushing memtable into file %s stopped unexpectedly",
+                  writer.getFile().getName())));
+    }
+  }
+
+  /**
+   * Wait for a chunk group encoded in parallel encoding mode. If the encoding fails or the io task
+   * is interrupted, the failure is recorded to be thrown by {@link #syncFlushMemTable()}, so that
+   * the memtable is not released with chunk groups missing from the file.
+   *
+   * @return null if the encoding fails or the io task is interrupted
+   */
+  private EncodedChunkGroup waitForEncodedChunkGroup(Future<?> encodingFuture) {
+    try {
+      EncodedChunkGroup encodedChunkGroup = (EncodedChunkGroup) encodingFuture.get();
+      chunkGroupSortTime += encodedChunkGroup.sortTime;
+      memSerializeTime += encodedChunkGroup.encodingTime;
+      return encodedChunkGroup;
+    } catch (InterruptedException e) {
+      LOGGER.error("Wait for encoded chunk group Interrupted");
+      encodingFailure = e;
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      LOGGER.error(
+          "Database {} memtable {}, encoding task meets error.", storageGroup, memTable, e);
+      encodingFailure = e.getCause() != null ? e.getCause() : e;
+      return null;
+    } finally {
+      encodingPermits.release();
+    }
+  }
+
+  /** Cancel the encoding tasks that the io task will not wait for after a failure. */
+  private void cancelPendingEncodingTasks() {
+    Object task;
+    while ((task = ioTaskQueue.poll()) != null) {
+      if (task instanceof Future) {
+        ((Future<?>) task).cancel(true);
+        encodingPermits.release();
+      }
+    }
   }
 
   /** encoding task (second task of pipeline) */
@@ -324,6 +525,13 @@ public class MemTableFlushTask {
             Thread.currentThread().interrupt();
             break;
           }
+          if (ioMessage instanceof Future) {
+            ioMessage = waitForEncodedChunkGroup((Future<?>) ioMessage);
+            if (ioMessage == null) {
+              cancelPendingEncodingTasks();
+              return;
+            }
+          }
           long starTime = System.currentTimeMillis();
           try {
             if (ioMessage instanceof StartFlushGroupIOTask) {
@@ -334,6 +542,15 @@ public class MemTableFlushTask {
               this.writer.setMinPlanIndex(memTable.getMinPlanIndex());
               this.writer.setMaxPlanIndex(memTable.getMaxPlanIndex());
               this.writer.endChunkGroup();
+            } else if (ioMessage instanceof EncodedChunkGroup) {
+              EncodedChunkGroup encodedChunkGroup = (EncodedChunkGroup) ioMessage;
+              this.writer.startChunkGroup(encodedChunkGroup.deviceId);
+              for (IChunkWriter chunkWriter : encodedChunkGroup.chunkWriters) {
+                chunkWriter.writeToFileWriter(this.writer);
+              }
+              this.writer.setMinPlanIndex(memTable.getMinPlanIndex());
+              this.writer.setMaxPlanIndex(memTable.getMaxPlanIndex());
+              this.writer.endChunkGroup();
             } else {
               ((IChunkWriter) ioMessage).writeToFileWriter(this.writer);
             }
@@ -373,4 +590,18 @@ public class MemTableFlushTask {
       this.deviceId = deviceId;
     }
   }
+
+  /** All encoded chunks of one device, produced by a task of parallel encoding mode. */
+  static class EncodedChunkGroup {
+
+    private final IDeviceID deviceId;
+    private final List<IChunkWriter> chunkWriters;
+    private long sortTime = 0L;
+    private long encodingTime = 0L;
+
+    EncodedChunkGroup(IDeviceID deviceId, int seriesNum) {
+      this.deviceId = deviceId;
+      this.chunkWriters = new ArrayList<>(seriesNum);
+    }
+  }
 }
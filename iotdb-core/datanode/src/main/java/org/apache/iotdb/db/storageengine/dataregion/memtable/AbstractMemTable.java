@@ -107,6 +107,9 @@ public abstract class AbstractMemTable implements IMemTable {
    */
   private long tvListRamCost = 0;
 
+  /** Memory saved by the binary dictionaries of the TVLists since it was last taken. */
+  private long dictionarySavedMemSize = 0;
+
   private int seriesNumber = 0;
 
   private long totalPointsNum = 0;
@@ -268,6 +271,69 @@ public abstract class AbstractMemTable implements IMemTable {
     return pointsInserted;
   }
 
+  @Override
+  public int insertRowsAsTablets(List<InsertRowNode> insertRowNodes) {
+    int pointsInserted = 0;
+    for (List<InsertRowNode> rowsOfDevice :
+        InsertRowsToTabletConverter.groupByDevice(insertRowNodes)) {
+      InsertTabletNode insertTabletNode =
+          rowsOfDevice.size() > 1 ? InsertRowsToTabletConverter.convert(rowsOfDevice) : null;
+      if (insertTabletNode == null) {
+        for (InsertRowNode insertRowNode : rowsOfDevice) {
+          pointsInserted +=
+              insertRowNode.isAligned() ? insertAlignedRow(insertRowNode) : insert(insertRowNode);
+        }
+        continue;
+      }
+      if (insertTabletNode.getMeasurements().length == 0) {
+        continue;
+      }
+
+      int rowCount = insertTabletNode.getRowCount();
+      if (insertTabletNode.isAligned()) {
+        writeAlignedTablet(insertTabletNode, 0, rowCount, null);
+      } else {
+        writeTabletNode(insertTabletNode, 0, rowCount);
+      }
+      for (InsertRowNode insertRowNode : rowsOfDevice) {
+        pointsInserted += countRowSizeAndPoints(insertRowNode);
+      }
+    }
+    return pointsInserted;
+  }
+
+  /**
+   * Add the memory size and the number of points of a row which has been written, in the same way
+   * as {@link #insert(InsertRowNode)} and {@link #insertAlignedRow(InsertRowNode)}.
+   *
+   * @return the number of points of the row
+   */
+  private int countRowSizeAndPoints(InsertRowNode insertRowNode) {
+    String[] measurements = insertRowNode.getMeasurements();
+    Object[] values = insertRowNode.getValues();
+    List<TSDataType> dataTypes = new ArrayList<>();
+    int nullPointsNumber = 0;
+    for (int i = 0; i < measurements.length; i++) {
+      if (values[i] == null) {
+        nullPointsNumber++;
+      } else if (measurements[i] != null) {
+        dataTypes.add(insertRowNode.getMeasurementSchemas()[i].getType());
+      }
+    }
+    int pointsInserted;
+    if (insertRowNode.isAligned()) {
+      memSize += MemUtils.getAlignedRowRecordSize(dataTypes, values, null);
+      pointsInserted =
+          insertRowNode.getMeasurementColumnCnt() - insertRowNode.getFailedMeasurementNumber();
+    } else {
+      memSize += MemUtils.getRowRecordSize(dataTypes, values);
+      pointsInserted =
+          measurements.length - insertRowNode.getFailedMeasurementNumber() - nullPointsNumber;
+    }
+    totalPointsNum += pointsInserted;
+    return pointsInserted;
+  }
+
   @Override
   public int insertTablet(InsertTabletNode insertTabletNode, int start, int end)
       throws WriteProcessException {
@@ -303,6 +369,13 @@ public abstract class AbstractMemTable implements IMemTable {
     }
   }
 
+  @Override
+  public long takeDictionarySavedMemSize() {
+    long savedMemSize = dictionarySavedMemSize;
+    dictionarySavedMemSize = 0;
+    return savedMemSize;
+  }
+
   @Override
   public void write(
       IDeviceID deviceId,
@@ -314,6 +387,7 @@ public abstract class AbstractMemTable implements IMemTable {
     if (memChunkGroup.writeWithFlushCheck(insertTime, objectValue, schemaList)) {
       reachChunkSizeOrPointNumThreshold = true;
     }
+    dictionarySavedMemSize += memChunkGroup.takeDictionarySavedMemSize(schemaList);
   }
 
   @Override
@@ -327,6 +401,7 @@ public abstract class AbstractMemTable implements IMemTable {
     if (memChunkGroup.writeWithFlushCheck(insertTime, objectValue, schemaList)) {
       reachChunkSizeOrPointNumThreshold = true;
     }
+    dictionarySavedMemSize += memChunkGroup.takeDictionarySavedMemSize(schemaList);
   }
 
   public void writeTabletNode(InsertTabletNode insertTabletNode, int start, int end) {
@@ -350,6 +425,7 @@ public abstract class AbstractMemTable implements IMemTable {
         null)) {
       reachChunkSizeOrPointNumThreshold = true;
     }
+    dictionarySavedMemSize += memChunkGroup.takeDictionarySavedMemSize(schemaList);
   }
 
   public void writeAlignedTablet(
@@ -386,6 +462,7 @@ public abstract class AbstractMemTable implements IMemTable {
           results)) {
         reachChunkSizeOrPointNumThreshold = true;
       }
+      dictionarySavedMemSize += memChunkGroup.takeDictionarySavedMemSize(schemaList);
       splitStart = splitEnd;
     }
   }
@@ -123,6 +123,7 @@ public class AlignedWritableMemChunk implements IWritableMemChunk {
   @Override
   public boolean putAlignedValueWithFlushCheck(long t, Object[] v) {
     list.putAlignedValue(t, v);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
@@ -162,6 +163,7 @@ public class AlignedWritableMemChunk implements IWritableMemChunk {
   public boolean putAlignedValuesWithFlushCheck(
       long[] t, Object[] v, BitMap[] bitMaps, int start, int end, TSStatus[] results) {
     list.putAlignedValues(t, v, bitMaps, start, end, results);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
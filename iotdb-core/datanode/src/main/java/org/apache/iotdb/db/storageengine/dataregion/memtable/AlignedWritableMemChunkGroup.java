@@ -142,6 +142,12 @@ public class AlignedWritableMemChunkGroup implements IWritableMemChunkGroup {
     return memChunk.getMaxTime();
   }
 
+  @Override
+  public long takeDictionarySavedMemSize(List<IMeasurementSchema> schemaList) {
+    // all binary columns of the aligned TVList share one dictionary
+    return memChunk.getTVList().takeDictionarySavedMemSize();
+  }
+
   public AlignedWritableMemChunk getAlignedMemChunk() {
     return memChunk;
   }
@@ -98,6 +98,16 @@ public interface IMemTable extends WALEntryValue {
 
   int insertAlignedRow(InsertRowNode insertRowNode);
 
+  /**
+   * insert rows into this memtable. The rows of each device are transposed into a tablet and
+   * written column by column if possible, otherwise they are inserted one by one. The memory size
+   * and the number of points are counted the same as inserting the rows one by one.
+   *
+   * @param insertRowNodes rows of any devices
+   * @return the number of inserted points
+   */
+  int insertRowsAsTablets(List<InsertRowNode> insertRowNodes);
+
   /**
    * insert tablet into this memtable. The rows to be inserted are in the range [start, end). Null
    * value in each column values will be replaced by the subsequent non-null value, e.g., {1, null,
@@ -113,6 +123,12 @@ public interface IMemTable extends WALEntryValue {
   int insertAlignedTablet(InsertTabletNode insertTabletNode, int start, int end, TSStatus[] results)
       throws WriteProcessException;
 
+  /**
+   * Take the memory saved by the binary dictionaries of the TVLists written since the last call,
+   * which is negative if the new dictionary entries take more than the values found in them.
+   */
+  long takeDictionarySavedMemSize();
+
   ReadOnlyMemChunk query(
       QueryContext context,
       IFullPath fullPath,
@@ -60,4 +60,10 @@ public interface IWritableMemChunkGroup extends WALEntryValue {
   long getCurrentTVListSize(String measurement);
 
   long getMaxTime();
+
+  /**
+   * @param schemaList the schemas of the measurements just written
+   * @return the memory saved by the binary dictionaries of the written TVLists since the last take
+   */
+  long takeDictionarySavedMemSize(List<IMeasurementSchema> schemaList);
 }
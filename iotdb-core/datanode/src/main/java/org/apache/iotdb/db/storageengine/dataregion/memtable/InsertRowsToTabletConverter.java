@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.memtable;
+
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.utils.BitMap;
+import org.apache.tsfile.write.UnSupportedDataTypeException;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transposes rows of one device into a tablet, so that they can be written into the memtable column
+ * by column with primitive arrays, just like an {@link InsertTabletNode}, instead of row by row
+ * with boxed values.
+ *
+ * <p>The tablet holds the union of the measurements of the rows. A value is marked as null in the
+ * bitmap of its column if the row does not contain the measurement, the measurement failed or the
+ * value is null, which are all skipped by the row path as well.
+ */
+public class InsertRowsToTabletConverter {
+
+  private InsertRowsToTabletConverter() {
+    // util class
+  }
+
+  /** Group the rows by device, keeping the order of the rows of each device. */
+  public static Collection<List<InsertRowNode>> groupByDevice(List<InsertRowNode> insertRowNodes) {
+    Map<IDeviceID, List<InsertRowNode>> rowsOfDevices = new LinkedHashMap<>();
+    for (InsertRowNode insertRowNode : insertRowNodes) {
+      rowsOfDevices
+          .computeIfAbsent(insertRowNode.getDeviceID(), k -> new ArrayList<>())
+          .add(insertRowNode);
+    }
+    return rowsOfDevices.values();
+  }
+
+  /**
+   * @param insertRowNodes rows of one device
+   * @return the transposed tablet, or null if the rows can not be transposed, e.g., rows of the
+   *     table model, rows mixing alignment or measurements with conflicting data types
+   */
+  public static InsertTabletNode convert(List<InsertRowNode> insertRowNodes) {
+    InsertRowNode firstRow = insertRowNodes.get(0);
+    int rowCount = insertRowNodes.size();
+
+    // measurement -> column index in the tablet
+    Map<String, Integer> columnIndexes = new HashMap<>();
+    List<MeasurementSchema> schemas = new ArrayList<>();
+    for (InsertRowNode insertRowNode : insertRowNodes) {
+      if (insertRowNode.isAligned() != firstRow.isAligned()
+          || insertRowNode.getColumnCategories() != null
+          || insertRowNode.getMeasurementSchemas() == null) {
+        return null;
+      }
+      String[] measurements = insertRowNode.getMeasurements();
+      for (int i = 0; i < measurements.length; i++) {
+        if (measurements[i] == null || insertRowNode.getValues()[i] == null) {
+          continue;
+        }
+        MeasurementSchema schema = insertRowNode.getMeasurementSchemas()[i];
+        Integer columnIndex = columnIndexes.putIfAbsent(measurements[i], schemas.size());
+        if (columnIndex == null) {
+          schemas.add(schema);
+        } else if (schemas.get(columnIndex).getType() != schema.getType()) {
+          return null;
+        }
+      }
+    }
+
+    int columnCount = schemas.size();
+    String[] measurements = new String[columnCount];
+    TSDataType[] dataTypes = new TSDataType[columnCount];
+    Object[] columns = new Object[columnCount];
+    BitMap[] bitMaps = new BitMap[columnCount];
+    // the number of non-null values of each column
+    int[] valueCounts = new int[columnCount];
+    for (int column = 0; column < columnCount; column++) {
+      measurements[column] = schemas.get(column).getMeasurementName();
+      dataTypes[column] = schemas.get(column).getType();
+      columns[column] = createColumn(dataTypes[column], rowCount);
+      bitMaps[column] = new BitMap(rowCount);
+      bitMaps[column].markAll();
+    }
+
+    long[] times = new long[rowCount];
+    for (int row = 0; row < rowCount; row++) {
+      InsertRowNode insertRowNode = insertRowNodes.get(row);
+      times[row] = insertRowNode.getTime();
+      String[] rowMeasurements = insertRowNode.getMeasurements();
+      Object[] values = insertRowNode.getValues();
+      for (int i = 0; i < rowMeasurements.length; i++) {
+        if (rowMeasurements[i] == null || values[i] == null) {
+          continue;
+        }
+        int column = columnIndexes.get(rowMeasurements[i]);
+        setValue(columns[column], dataTypes[column], row, values[i]);
+        bitMaps[column].unmark(row);
+        valueCounts[column]++;
+      }
+    }
+    for (int column = 0; column < columnCount; column++) {
+      // columns without null values take the faster path without bitmap
+      if (valueCounts[column] == rowCount) {
+        bitMaps[column] = null;
+      }
+    }
+
+    InsertTabletNode insertTabletNode =
+        new InsertTabletNode(
+            firstRow.getPlanNodeId(),
+            firstRow.getTargetPath(),
+            firstRow.isAligned(),
+            measurements,
+            dataTypes,
+            schemas.toArray(new MeasurementSchema[0]),
+            times,
+            bitMaps,
+            columns,
+            rowCount);
+    insertTabletNode.setDeviceID(firstRow.getDeviceID());
+    return insertTabletNode;
+  }
+
+  private static Object createColumn(TSDataType dataType, int rowCount) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new boolean[rowCount];
+      case INT32:
+      case DATE:
+        return new int[rowCount];
+      case INT64:
+      case TIMESTAMP:
+        return new long[rowCount];
+      case FLOAT:
+        return new float[rowCount];
+      case DOUBLE:
+        return new double[rowCount];
+      case TEXT:
+      case BLOB:
+      case STRING:
+        return new Binary[rowCount];
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
+    }
+  }
+
+  private static void setValue(Object column, TSDataType dataType, int row, Object value) {
+    switch (dataType) {
+      case BOOLEAN:
+        ((boolean[]) column)[row] = (boolean) value;
+        break;
+      case INT32:
+      case DATE:
+        ((int[]) column)[row] = (int) value;
+        break;
+      case INT64:
+      case TIMESTAMP:
+        ((long[]) column)[row] = (long) value;
+        break;
+      case FLOAT:
+        ((float[]) column)[row] = (float) value;
+        break;
+      case DOUBLE:
+        ((double[]) column)[row] = (double) value;
+        break;
+      case TEXT:
+      case BLOB:
+      case STRING:
+        ((Binary[]) column)[row] = (Binary) value;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
+    }
+  }
+}
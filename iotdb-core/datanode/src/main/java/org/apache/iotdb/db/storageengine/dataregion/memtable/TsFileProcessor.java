@@ -75,6 +75,7 @@ import org.apache.iotdb.db.storageengine.rescon.memory.SystemInfo;
 import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.utils.ModificationUtils;
 import org.apache.iotdb.db.utils.datastructure.AlignedTVList;
+import org.apache.iotdb.db.utils.datastructure.BinaryDictionary;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.rpc.TSStatusCode;
@@ -106,6 +107,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 
@@ -156,6 +158,17 @@ public class TsFileProcessor {
   /** A lock to mutual exclude read and read */
   private final ReadWriteLock flushQueryLock = new ReentrantReadWriteLock();
 
+  /**
+   * Whether insertions of different devices may run on this processor concurrently, which is the
+   * case with the striped insert lock of {@link DataRegion}. They then check and account the memory
+   * of the work memtable under memTableInsertLock, write the WAL without holding it, and write the
+   * memtable while also holding the write lock of flushQueryLock, so queries of this processor
+   * never see a memtable being modified.
+   */
+  private final boolean concurrentInsert = config.isEnableStripedInsertLock();
+
+  private final ReentrantLock memTableInsertLock = new ReentrantLock();
+
   /**
    * It is set by the StorageGroupProcessor and checked by flush threads. (If shouldClose == true
    * and its flushingMemTables are all flushed, then the flush thread will close this file.)
@@ -252,7 +265,17 @@ public class TsFileProcessor {
   private void ensureMemTable(long[] infoForMetrics) {
     if (workMemTable == null) {
       long startTime = System.nanoTime();
-      createNewWorkingMemTable();
+      if (concurrentInsert) {
+        // queries of this processor may be reading the work memtable
+        flushQueryLock.writeLock().lock();
+        try {
+          createNewWorkingMemTable();
+        } finally {
+          flushQueryLock.writeLock().unlock();
+        }
+      } else {
+        createNewWorkingMemTable();
+      }
       // recordCreateMemtableBlockCost
       infoForMetrics[0] += System.nanoTime() - startTime;
       WritingMetrics.getInstance()
@@ -260,6 +283,32 @@ public class TsFileProcessor {
     }
   }
 
+  private void lockMemTableForInsert() {
+    if (concurrentInsert) {
+      memTableInsertLock.lock();
+    }
+  }
+
+  private void unlockMemTableForInsert() {
+    if (concurrentInsert) {
+      memTableInsertLock.unlock();
+    }
+  }
+
+  private void lockMemTableForWrite() {
+    if (concurrentInsert) {
+      memTableInsertLock.lock();
+      flushQueryLock.writeLock().lock();
+    }
+  }
+
+  private void unlockMemTableForWrite() {
+    if (concurrentInsert) {
+      flushQueryLock.writeLock().unlock();
+      memTableInsertLock.unlock();
+    }
+  }
+
   /**
    * Insert data in an InsertRowNode into the workingMemtable.
    *
@@ -268,26 +317,31 @@ public class TsFileProcessor {
   public void insert(InsertRowNode insertRowNode, long[] infoForMetrics)
       throws WriteProcessException {
 
-    ensureMemTable(infoForMetrics);
     long[] memIncrements;
+    lockMemTableForInsert();
+    try {
+      ensureMemTable(infoForMetrics);
 
-    long memControlStartTime = System.nanoTime();
-    if (insertRowNode.isAligned()) {
-      memIncrements =
-          checkAlignedMemCostAndAddToTspInfoForRow(
-              insertRowNode.getDeviceID(),
-              insertRowNode.getMeasurements(),
-              insertRowNode.getDataTypes(),
-              insertRowNode.getValues(),
-              insertRowNode.getColumnCategories());
-    } else {
-      memIncrements =
-          checkMemCostAndAddToTspInfoForRow(
-              insertRowNode.getDeviceID(), insertRowNode.getMeasurements(),
-              insertRowNode.getDataTypes(), insertRowNode.getValues());
+      long memControlStartTime = System.nanoTime();
+      if (insertRowNode.isAligned()) {
+        memIncrements =
+            checkAlignedMemCostAndAddToTspInfoForRow(
+                insertRowNode.getDeviceID(),
+                insertRowNode.getMeasurements(),
+                insertRowNode.getDataTypes(),
+                insertRowNode.getValues(),
+                insertRowNode.getColumnCategories());
+      } else {
+        memIncrements =
+            checkMemCostAndAddToTspInfoForRow(
+                insertRowNode.getDeviceID(), insertRowNode.getMeasurements(),
+                insertRowNode.getDataTypes(), insertRowNode.getValues());
+      }
+      // recordScheduleMemoryBlockCost
+      infoForMetrics[1] += System.nanoTime() - memControlStartTime;
+    } finally {
+      unlockMemTableForInsert();
     }
-    // recordScheduleMemoryBlockCost
-    infoForMetrics[1] += System.nanoTime() - memControlStartTime;
 
     long startTime = System.nanoTime();
     WALFlushListener walFlushListener;
@@ -311,34 +365,40 @@ public class TsFileProcessor {
 
     startTime = System.nanoTime();
 
-    PipeDataNodeAgent.runtime().assignSimpleProgressIndexIfNeeded(insertRowNode);
-    if (!insertRowNode.isGeneratedByPipe()) {
-      workMemTable.markAsNotGeneratedByPipe();
-    }
-    PipeInsertionDataNodeListener.getInstance()
-        .listenToInsertNode(
-            dataRegionInfo.getDataRegion().getDataRegionId(),
-            dataRegionInfo.getDataRegion().getDatabaseName(),
-            walFlushListener.getWalEntryHandler(),
-            insertRowNode,
-            tsFileResource);
-
     int pointInserted;
-    if (insertRowNode.isAligned()) {
-      pointInserted = workMemTable.insertAlignedRow(insertRowNode);
-    } else {
-      pointInserted = workMemTable.insert(insertRowNode);
-    }
+    lockMemTableForWrite();
+    try {
+      PipeDataNodeAgent.runtime().assignSimpleProgressIndexIfNeeded(insertRowNode);
+      if (!insertRowNode.isGeneratedByPipe()) {
+        workMemTable.markAsNotGeneratedByPipe();
+      }
+      PipeInsertionDataNodeListener.getInstance()
+          .listenToInsertNode(
+              dataRegionInfo.getDataRegion().getDataRegionId(),
+              dataRegionInfo.getDataRegion().getDatabaseName(),
+              walFlushListener.getWalEntryHandler(),
+              insertRowNode,
+              tsFileResource);
 
-    // Update start time of this memtable
-    tsFileResource.updateStartTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
-    // For sequence tsfile, we update the endTime only when the file is prepared to be closed.
-    // For unsequence tsfile, we have to update the endTime for each insertion.
-    if (!sequence) {
-      tsFileResource.updateEndTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
-    }
+      if (insertRowNode.isAligned()) {
+        pointInserted = workMemTable.insertAlignedRow(insertRowNode);
+      } else {
+        pointInserted = workMemTable.insert(insertRowNode);
+      }
+
+      // Update start time of this memtable
+      tsFileResource.updateStartTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
+      // For sequence tsfile, we update the endTime only when the file is prepared to be closed.
+      // For unsequence tsfile, we have to update the endTime for each insertion.
+      if (!sequence) {
+        tsFileResource.updateEndTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
+      }
 
-    tsFileResource.updateProgressIndex(insertRowNode.getProgressIndex());
+      tsFileResource.updateProgressIndex(insertRowNode.getProgressIndex());
+    } finally {
+      settleTextDataSavedByDictionary();
+      unlockMemTableForWrite();
+    }
     // RecordScheduleMemTableCost
     infoForMetrics[3] += System.nanoTime() - startTime;
     // update memtable point inserted count
@@ -348,37 +408,41 @@ public class TsFileProcessor {
   public void insertRows(InsertRowsNode insertRowsNode, long[] infoForMetrics)
       throws WriteProcessException {
 
-    ensureMemTable(infoForMetrics);
-
     long[] memIncrements;
-
-    long memControlStartTime = System.nanoTime();
-    if (insertRowsNode.isMixingAlignment()) {
-      List<InsertRowNode> alignedList = new ArrayList<>();
-      List<InsertRowNode> nonAlignedList = new ArrayList<>();
-      for (InsertRowNode insertRowNode : insertRowsNode.getInsertRowNodeList()) {
-        if (insertRowNode.isAligned()) {
-          alignedList.add(insertRowNode);
-        } else {
-          nonAlignedList.add(insertRowNode);
+    lockMemTableForInsert();
+    try {
+      ensureMemTable(infoForMetrics);
+
+      long memControlStartTime = System.nanoTime();
+      if (insertRowsNode.isMixingAlignment()) {
+        List<InsertRowNode> alignedList = new ArrayList<>();
+        List<InsertRowNode> nonAlignedList = new ArrayList<>();
+        for (InsertRowNode insertRowNode : insertRowsNode.getInsertRowNodeList()) {
+          if (insertRowNode.isAligned()) {
+            alignedList.add(insertRowNode);
+          } else {
+            nonAlignedList.add(insertRowNode);
+          }
+        }
+        long[] alignedMemIncrements = checkAlignedMemCostAndAddToTspInfoForRows(alignedList);
+        long[] nonAlignedMemIncrements = checkMemCostAndAddToTspInfoForRows(nonAlignedList);
+        memIncrements = new long[3];
+        for (int i = 0; i < 3; i++) {
+          memIncrements[i] = alignedMemIncrements[i] + nonAlignedMemIncrements[i];
         }
-      }
-      long[] alignedMemIncrements = checkAlignedMemCostAndAddToTspInfoForRows(alignedList);
-      long[] nonAlignedMemIncrements = checkMemCostAndAddToTspInfoForRows(nonAlignedList);
-      memIncrements = new long[3];
-      for (int i = 0; i < 3; i++) {
-        memIncrements[i] = alignedMemIncrements[i] + nonAlignedMemIncrements[i];
-      }
-    } else {
-      if (insertRowsNode.isAligned()) {
-        memIncrements =
-            checkAlignedMemCostAndAddToTspInfoForRows(insertRowsNode.getInsertRowNodeList());
       } else {
-        memIncrements = checkMemCostAndAddToTspInfoForRows(insertRowsNode.getInsertRowNodeList());
+        if (insertRowsNode.isAligned()) {
+          memIncrements =
+              checkAlignedMemCostAndAddToTspInfoForRows(insertRowsNode.getInsertRowNodeList());
+        } else {
+          memIncrements = checkMemCostAndAddToTspInfoForRows(insertRowsNode.getInsertRowNodeList());
+        }
       }
+      // recordScheduleMemoryBlockCost
+      infoForMetrics[1] += System.nanoTime() - memControlStartTime;
+    } finally {
+      unlockMemTableForInsert();
     }
-    // recordScheduleMemoryBlockCost
-    infoForMetrics[1] += System.nanoTime() - memControlStartTime;
 
     long startTime = System.nanoTime();
     WALFlushListener walFlushListener;
@@ -402,35 +466,47 @@ public class TsFileProcessor {
 
     startTime = System.nanoTime();
 
-    PipeDataNodeAgent.runtime().assignSimpleProgressIndexIfNeeded(insertRowsNode);
-    if (!insertRowsNode.isGeneratedByPipe()) {
-      workMemTable.markAsNotGeneratedByPipe();
-    }
-    PipeInsertionDataNodeListener.getInstance()
-        .listenToInsertNode(
-            dataRegionInfo.getDataRegion().getDataRegionId(),
-            dataRegionInfo.getDataRegion().getDatabaseName(),
-            walFlushListener.getWalEntryHandler(),
-            insertRowsNode,
-            tsFileResource);
-
     int pointInserted = 0;
-    for (InsertRowNode insertRowNode : insertRowsNode.getInsertRowNodeList()) {
-      if (insertRowNode.isAligned()) {
-        pointInserted += workMemTable.insertAlignedRow(insertRowNode);
+    lockMemTableForWrite();
+    try {
+      PipeDataNodeAgent.runtime().assignSimpleProgressIndexIfNeeded(insertRowsNode);
+      if (!insertRowsNode.isGeneratedByPipe()) {
+        workMemTable.markAsNotGeneratedByPipe();
+      }
+      PipeInsertionDataNodeListener.getInstance()
+          .listenToInsertNode(
+              dataRegionInfo.getDataRegion().getDataRegionId(),
+              dataRegionInfo.getDataRegion().getDatabaseName(),
+              walFlushListener.getWalEntryHandler(),
+              insertRowsNode,
+              tsFileResource);
+
+      if (config.isEnableInsertRowsTransposition()) {
+        pointInserted = workMemTable.insertRowsAsTablets(insertRowsNode.getInsertRowNodeList());
       } else {
-        pointInserted += workMemTable.insert(insertRowNode);
+        for (InsertRowNode insertRowNode : insertRowsNode.getInsertRowNodeList()) {
+          if (insertRowNode.isAligned()) {
+            pointInserted += workMemTable.insertAlignedRow(insertRowNode);
+          } else {
+            pointInserted += workMemTable.insert(insertRowNode);
+          }
+        }
       }
-      // update start time of this memtable
-      tsFileResource.updateStartTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
-      // for sequence tsfile, we update the endTime only when the file is prepared to be closed.
-      // for unsequence tsfile, we have to update the endTime for each insertion.
-      if (!sequence) {
-        tsFileResource.updateEndTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
+      for (InsertRowNode insertRowNode : insertRowsNode.getInsertRowNodeList()) {
+        // update start time of this memtable
+        tsFileResource.updateStartTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
+        // for sequence tsfile, we update the endTime only when the file is prepared to be closed.
+        // for unsequence tsfile, we have to update the endTime for each insertion.
+        if (!sequence) {
+          tsFileResource.updateEndTime(insertRowNode.getDeviceID(), insertRowNode.getTime());
+        }
       }
-    }
 
-    tsFileResource.updateProgressIndex(insertRowsNode.getProgressIndex());
+      tsFileResource.updateProgressIndex(insertRowsNode.getProgressIndex());
+    } finally {
+      settleTextDataSavedByDictionary();
+      unlockMemTableForWrite();
+    }
     // recordScheduleMemTableCost
     infoForMetrics[3] += System.nanoTime() - startTime;
     // update memtable point inserted count
@@ -540,10 +616,16 @@ public class TsFileProcessor {
       long[] infoForMetrics)
       throws WriteProcessException {
 
-    ensureMemTable(infoForMetrics);
+    long[] memIncrements;
+    lockMemTableForInsert();
+    try {
+      ensureMemTable(infoForMetrics);
 
-    long[] memIncrements =
-        scheduleMemoryBlock(insertTabletNode, rangeList, results, noFailure, infoForMetrics);
+      memIncrements =
+          scheduleMemoryBlock(insertTabletNode, rangeList, results, noFailure, infoForMetrics);
+    } finally {
+      unlockMemTableForInsert();
+    }
 
     long startTime = System.nanoTime();
     WALFlushListener walFlushListener;
@@ -569,64 +651,70 @@ public class TsFileProcessor {
 
     startTime = System.nanoTime();
 
-    PipeDataNodeAgent.runtime().assignSimpleProgressIndexIfNeeded(insertTabletNode);
-    if (!insertTabletNode.isGeneratedByPipe()) {
-      workMemTable.markAsNotGeneratedByPipe();
-    }
-    PipeInsertionDataNodeListener.getInstance()
-        .listenToInsertNode(
-            dataRegionInfo.getDataRegion().getDataRegionId(),
-            dataRegionInfo.getDataRegion().getDatabaseName(),
-            walFlushListener.getWalEntryHandler(),
-            insertTabletNode,
-            tsFileResource);
-
     int pointInserted = 0;
-    for (int[] rangePair : rangeList) {
-      int start = rangePair[0];
-      int end = rangePair[1];
-      try {
-        if (insertTabletNode.isAligned()) {
-          pointInserted +=
-              workMemTable.insertAlignedTablet(
-                  insertTabletNode, start, end, noFailure ? null : results);
-        } else {
-          pointInserted += workMemTable.insertTablet(insertTabletNode, start, end);
+    lockMemTableForWrite();
+    try {
+      PipeDataNodeAgent.runtime().assignSimpleProgressIndexIfNeeded(insertTabletNode);
+      if (!insertTabletNode.isGeneratedByPipe()) {
+        workMemTable.markAsNotGeneratedByPipe();
+      }
+      PipeInsertionDataNodeListener.getInstance()
+          .listenToInsertNode(
+              dataRegionInfo.getDataRegion().getDataRegionId(),
+              dataRegionInfo.getDataRegion().getDatabaseName(),
+              walFlushListener.getWalEntryHandler(),
+              insertTabletNode,
+              tsFileResource);
+
+      for (int[] rangePair : rangeList) {
+        int start = rangePair[0];
+        int end = rangePair[1];
+        try {
+          if (insertTabletNode.isAligned()) {
+            pointInserted +=
+                workMemTable.insertAlignedTablet(
+                    insertTabletNode, start, end, noFailure ? null : results);
+          } else {
+            pointInserted += workMemTable.insertTablet(insertTabletNode, start, end);
+          }
+        } catch (WriteProcessException e) {
+          for (int i = start; i < end; i++) {
+            results[i] = RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR, e.getMessage());
+          }
+          throw new WriteProcessException(e);
         }
-      } catch (WriteProcessException e) {
         for (int i = start; i < end; i++) {
-          results[i] = RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR, e.getMessage());
+          results[i] = RpcUtils.SUCCESS_STATUS;
         }
-        throw new WriteProcessException(e);
-      }
-      for (int i = start; i < end; i++) {
-        results[i] = RpcUtils.SUCCESS_STATUS;
-      }
 
-      final List<Pair<IDeviceID, Integer>> deviceEndOffsetPairs =
-          insertTabletNode.splitByDevice(start, end);
-      tsFileResource.updateStartTime(
-          deviceEndOffsetPairs.get(0).left, insertTabletNode.getTimes()[start]);
-      if (!sequence) {
-        // For sequence tsfile, we update the endTime only when the file is prepared to be closed.
-        // For unsequence tsfile, we have to update the endTime for each insertion.
-        tsFileResource.updateEndTime(
-            deviceEndOffsetPairs.get(0).left,
-            insertTabletNode.getTimes()[deviceEndOffsetPairs.get(0).right - 1]);
-      }
-      for (int i = 1; i < deviceEndOffsetPairs.size(); i++) {
-        // the end offset of i - 1 is the start offset of i
+        final List<Pair<IDeviceID, Integer>> deviceEndOffsetPairs =
+            insertTabletNode.splitByDevice(start, end);
         tsFileResource.updateStartTime(
-            deviceEndOffsetPairs.get(i).left,
-            insertTabletNode.getTimes()[deviceEndOffsetPairs.get(i - 1).right]);
+            deviceEndOffsetPairs.get(0).left, insertTabletNode.getTimes()[start]);
         if (!sequence) {
+          // For sequence tsfile, we update the endTime only when the file is prepared to be closed.
+          // For unsequence tsfile, we have to update the endTime for each insertion.
           tsFileResource.updateEndTime(
+              deviceEndOffsetPairs.get(0).left,
+              insertTabletNode.getTimes()[deviceEndOffsetPairs.get(0).right - 1]);
+        }
+        for (int i = 1; i < deviceEndOffsetPairs.size(); i++) {
+          // the end offset of i - 1 is the start offset of i
+          tsFileResource.updateStartTime(
               deviceEndOffsetPairs.get(i).left,
-              insertTabletNode.getTimes()[deviceEndOffsetPairs.get(i).right - 1]);
+              insertTabletNode.getTimes()[deviceEndOffsetPairs.get(i - 1).right]);
+          if (!sequence) {
+            tsFileResource.updateEndTime(
+                deviceEndOffsetPairs.get(i).left,
+                insertTabletNode.getTimes()[deviceEndOffsetPairs.get(i).right - 1]);
+          }
         }
       }
+      tsFileResource.updateProgressIndex(insertTabletNode.getProgressIndex());
+    } finally {
+      settleTextDataSavedByDictionary();
+      unlockMemTableForWrite();
     }
-    tsFileResource.updateProgressIndex(insertTabletNode.getProgressIndex());
 
     // recordScheduleMemTableCost
     infoForMetrics[3] += System.nanoTime() - startTime;
@@ -1132,17 +1220,58 @@ public class TsFileProcessor {
     workMemTable.addTextDataSize(textDataIncrement);
   }
 
+  /**
+   * The text data size of every binary value has been charged before writing it into the memtable.
+   * Settle the difference between the size of the values which were found in the dictionaries of
+   * the TVLists and the size of the new dictionary entries, also when the write fails halfway.
+   * Called before the memtable is unlocked after writing.
+   */
+  private void settleTextDataSavedByDictionary() {
+    if (!BinaryDictionary.ENABLE_BINARY_TVLIST_DICTIONARY) {
+      return;
+    }
+    long savedMemSize = workMemTable.takeDictionarySavedMemSize();
+    if (savedMemSize > 0) {
+      dataRegionInfo.releaseStorageGroupMemCost(savedMemSize);
+      SystemInfo.getInstance().resetStorageGroupStatus(dataRegionInfo);
+      workMemTable.releaseTVListRamCost(savedMemSize);
+      workMemTable.releaseTextDataSize(savedMemSize);
+    } else if (savedMemSize < 0) {
+      long memIncrement = -savedMemSize;
+      dataRegionInfo.addStorageGroupMemCost(memIncrement);
+      workMemTable.addTVListRamCost(memIncrement);
+      workMemTable.addTextDataSize(memIncrement);
+      if (dataRegionInfo.needToReportToSystem()) {
+        try {
+          SystemInfo.getInstance().reportStorageGroupStatus(dataRegionInfo, this);
+        } catch (WriteProcessRejectException e) {
+          // the values have been written, the following writes are rejected until memory is freed
+          logger.warn(
+              "{}: {} exceeds the reject threshold by the dictionary entries: {}",
+              dataRegionName,
+              tsFileResource.getTsFile().getName(),
+              e.getMessage());
+        }
+      }
+    }
+  }
+
   private void rollbackMemoryInfo(long[] memIncrements) {
     long memTableIncrement = memIncrements[0];
     long textDataIncrement = memIncrements[1];
     long chunkMetadataIncrement = memIncrements[2];
 
     memTableIncrement += textDataIncrement;
-    dataRegionInfo.releaseStorageGroupMemCost(memTableIncrement);
-    tsFileProcessorInfo.releaseTSPMemCost(chunkMetadataIncrement);
-    SystemInfo.getInstance().resetStorageGroupStatus(dataRegionInfo);
-    workMemTable.releaseTVListRamCost(memTableIncrement);
-    workMemTable.releaseTextDataSize(textDataIncrement);
+    lockMemTableForInsert();
+    try {
+      dataRegionInfo.releaseStorageGroupMemCost(memTableIncrement);
+      tsFileProcessorInfo.releaseTSPMemCost(chunkMetadataIncrement);
+      SystemInfo.getInstance().resetStorageGroupStatus(dataRegionInfo);
+      workMemTable.releaseTVListRamCost(memTableIncrement);
+      workMemTable.releaseTextDataSize(textDataIncrement);
+    } finally {
+      unlockMemTableForInsert();
+    }
   }
 
   /**
@@ -2284,7 +2413,12 @@ public class TsFileProcessor {
 
   public void registerToTsFile(
       String tableName, Function<String, TableSchema> tableSchemaFunction) {
-    getWriter().getSchema().getTableSchemaMap().computeIfAbsent(tableName, tableSchemaFunction);
+    lockMemTableForInsert();
+    try {
+      getWriter().getSchema().getTableSchemaMap().computeIfAbsent(tableName, tableSchemaFunction);
+    } finally {
+      unlockMemTableForInsert();
+    }
   }
 
   public ReadWriteLock getFlushQueryLock() {
@@ -133,36 +133,42 @@ public class WritableMemChunk implements IWritableMemChunk {
   @Override
   public boolean putLongWithFlushCheck(long t, long v) {
     list.putLong(t, v);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putIntWithFlushCheck(long t, int v) {
     list.putInt(t, v);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putFloatWithFlushCheck(long t, float v) {
     list.putFloat(t, v);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putDoubleWithFlushCheck(long t, double v) {
     list.putDouble(t, v);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putBinaryWithFlushCheck(long t, Binary v) {
     list.putBinary(t, v);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putBooleanWithFlushCheck(long t, boolean v) {
     list.putBoolean(t, v);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
@@ -174,24 +180,28 @@ public class WritableMemChunk implements IWritableMemChunk {
   @Override
   public boolean putLongsWithFlushCheck(long[] t, long[] v, BitMap bitMap, int start, int end) {
     list.putLongs(t, v, bitMap, start, end);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putIntsWithFlushCheck(long[] t, int[] v, BitMap bitMap, int start, int end) {
     list.putInts(t, v, bitMap, start, end);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putFloatsWithFlushCheck(long[] t, float[] v, BitMap bitMap, int start, int end) {
     list.putFloats(t, v, bitMap, start, end);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
   @Override
   public boolean putDoublesWithFlushCheck(long[] t, double[] v, BitMap bitMap, int start, int end) {
     list.putDoubles(t, v, bitMap, start, end);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
@@ -199,6 +209,7 @@ public class WritableMemChunk implements IWritableMemChunk {
   public boolean putBinariesWithFlushCheck(
       long[] t, Binary[] v, BitMap bitMap, int start, int end) {
     list.putBinaries(t, v, bitMap, start, end);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
@@ -206,6 +217,7 @@ public class WritableMemChunk implements IWritableMemChunk {
   public boolean putBooleansWithFlushCheck(
       long[] t, boolean[] v, BitMap bitMap, int start, int end) {
     list.putBooleans(t, v, bitMap, start, end);
+    list.updateDisorderStatistics();
     return list.reachChunkSizeOrPointNumThreshold();
   }
 
@@ -168,6 +168,21 @@ public class WritableMemChunkGroup implements IWritableMemChunkGroup {
     return maxTime;
   }
 
+  @Override
+  public long takeDictionarySavedMemSize(List<IMeasurementSchema> schemaList) {
+    long savedMemSize = 0;
+    for (IMeasurementSchema schema : schemaList) {
+      if (schema == null || !schema.getType().isBinary()) {
+        continue;
+      }
+      IWritableMemChunk memChunk = memChunkMap.get(schema.getMeasurementName());
+      if (memChunk != null) {
+        savedMemSize += memChunk.getTVList().takeDictionarySavedMemSize();
+      }
+    }
+    return savedMemSize;
+  }
+
   @Override
   public int serializedSize() {
     int size = 0;
@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.storageengine.dataregion.read.control;
 
 import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 
 import org.apache.tsfile.read.TsFileSequenceReader;
@@ -29,6 +30,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -77,11 +79,20 @@ public class FileReaderManager {
    */
   private Map<String, AtomicInteger> unclosedReferenceMap;
 
+  /**
+   * the readers in closedFileReaderMap which are no longer referenced by any query, ordered from
+   * the least recently released one to the most recently released one. They are kept open for the
+   * following queries and closed in LRU order when there are more than max_idle_tsfile_reader_num
+   * of them.
+   */
+  private LinkedHashMap<String, TsFileSequenceReader> idleClosedFileReaderMap;
+
   private FileReaderManager() {
     closedFileReaderMap = new ConcurrentHashMap<>();
     unclosedFileReaderMap = new ConcurrentHashMap<>();
     closedReferenceMap = new ConcurrentHashMap<>();
     unclosedReferenceMap = new ConcurrentHashMap<>();
+    idleClosedFileReaderMap = new LinkedHashMap<>();
   }
 
   public static FileReaderManager getInstance() {
@@ -89,6 +100,7 @@ public class FileReaderManager {
   }
 
   public synchronized void closeFileAndRemoveReader(String filePath) throws IOException {
+    idleClosedFileReaderMap.remove(filePath);
     closedReferenceMap.remove(filePath);
     TsFileSequenceReader reader = closedFileReaderMap.remove(filePath);
     if (reader != null) {
@@ -134,6 +146,10 @@ public class FileReaderManager {
 
     Map<String, TsFileSequenceReader> readerMap =
         !isClosed ? unclosedFileReaderMap : closedFileReaderMap;
+    if (isClosed) {
+      // the reader may be used without holding a reference, so it must not be closed as an idle one
+      idleClosedFileReaderMap.remove(filePath);
+    }
     if (!readerMap.containsKey(filePath)) {
       int currentOpenedReaderCount = readerMap.size();
       if (currentOpenedReaderCount >= MAX_CACHED_FILE_SIZE
@@ -146,8 +162,12 @@ public class FileReaderManager {
       if (!isClosed) {
         tsFileReader = new UnClosedTsFileReader(filePath, ioSizeRecorder);
       } else {
-        // already do the version check in TsFileSequenceReader's constructor
-        tsFileReader = new TsFileSequenceReader(filePath, ioSizeRecorder);
+        // already do the version check in TsFileSequenceReader's constructor, the reader of a
+        // sealed file is shared by all queries, so its reads are positional
+        tsFileReader =
+            MappedTsFileSequenceReader.shouldMap(filePath)
+                ? new MappedTsFileSequenceReader(filePath, ioSizeRecorder)
+                : new PositionalTsFileSequenceReader(filePath, ioSizeRecorder);
       }
       readerMap.put(filePath, tsFileReader);
       return tsFileReader;
@@ -171,6 +191,7 @@ public class FileReaderManager {
         closedReferenceMap
             .computeIfAbsent(tsFile.getTsFilePath(), k -> new AtomicInteger())
             .getAndIncrement();
+        idleClosedFileReaderMap.remove(tsFile.getTsFilePath());
       }
     }
   }
@@ -204,21 +225,57 @@ public class FileReaderManager {
       }
 
       TsFileSequenceReader reader = readerMap.get(tsFilePath);
-      if (reader != null) {
-        try {
-          reader.close();
-        } catch (IOException e) {
-          logger.error("Can not close TsFileSequenceReader {} !", reader.getFileName(), e);
+      refMap.remove(tsFilePath);
+      int maxIdleReaderNum = IoTDBDescriptor.getInstance().getConfig().getMaxIdleTsFileReaderNum();
+      if (isClosed && reader != null && maxIdleReaderNum > 0) {
+        // keep the file handle for the following queries
+        idleClosedFileReaderMap.put(tsFilePath, reader);
+        Iterator<Map.Entry<String, TsFileSequenceReader>> iterator =
+            idleClosedFileReaderMap.entrySet().iterator();
+        while (idleClosedFileReaderMap.size() > maxIdleReaderNum) {
+          Map.Entry<String, TsFileSequenceReader> eldest = iterator.next();
+          iterator.remove();
+          closeReader(eldest.getValue());
+          readerMap.remove(eldest.getKey());
+          if (resourceLogger.isDebugEnabled()) {
+            resourceLogger.debug(
+                "{} TsFileReader is closed because of too many idle readers.", eldest.getKey());
+          }
         }
+        return;
+      }
+
+      if (reader != null) {
+        closeReader(reader);
       }
       readerMap.remove(tsFilePath);
-      refMap.remove(tsFilePath);
       if (resourceLogger.isDebugEnabled()) {
         resourceLogger.debug("{} TsFileReader is closed because of no reference.", tsFilePath);
       }
     }
   }
 
+  private void closeReader(TsFileSequenceReader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      logger.error("Can not close TsFileSequenceReader {} !", reader.getFileName(), e);
+    }
+  }
+
+  /**
+   * Close the reader of the sealed file if it is not referenced by any query, which is called when
+   * the file is removed so that its disk space will not be held by an idle file handle.
+   */
+  public synchronized void closeIdleReader(String filePath) {
+    if (idleClosedFileReaderMap.remove(filePath) != null) {
+      TsFileSequenceReader reader = closedFileReaderMap.remove(filePath);
+      if (reader != null) {
+        closeReader(reader);
+      }
+    }
+  }
+
   /**
    * Only for <code>EnvironmentUtils.cleanEnv</code> method. To make sure that unit tests and
    * integration tests will not conflict with each other.
@@ -226,6 +283,7 @@ public class FileReaderManager {
    * @throws IOException if failed to close file handlers, IOException will be thrown
    */
   public synchronized void closeAndRemoveAllOpenedReaders() throws IOException {
+    idleClosedFileReaderMap.clear();
     Iterator<Map.Entry<String, TsFileSequenceReader>> iterator =
         closedFileReaderMap.entrySet().iterator();
     while (iterator.hasNext()) {
@@ -265,6 +323,11 @@ public class FileReaderManager {
     return unclosedFileReaderMap;
   }
 
+  @TestOnly
+  public synchronized int getIdleClosedFileReaderNum() {
+    return idleClosedFileReaderMap.size();
+  }
+
   private static class FileReaderManagerHelper {
 
     private static final FileReaderManager INSTANCE = new FileReaderManager();
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.control;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.MmapUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Reader of a small sealed TsFile which is memory-mapped as a whole, so that reading chunks, pages
+ * and metadata is a copy from the page cache without any system call.
+ *
+ * <p>The mapped region is unmapped when the reader is closed, which only happens when no query
+ * references the file, e.g., after the file is compacted or deleted. The copied buffers never refer
+ * to the mapped region, so the caches holding them are not affected. Reads racing with the close
+ * fall back to the file channel, which reports the closed reader as before.
+ */
+class MappedTsFileSequenceReader extends PositionalTsFileSequenceReader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MappedTsFileSequenceReader.class);
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  private final ReadWriteLock mappedBufferLock = new ReentrantReadWriteLock();
+
+  private MappedByteBuffer mappedBuffer;
+
+  MappedTsFileSequenceReader(String file, LongConsumer ioSizeRecorder) throws IOException {
+    super(file, ioSizeRecorder);
+    try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+      mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException | UnsupportedOperationException e) {
+      LOGGER.warn("Failed to map TsFile {}, read it through the file channel instead.", file, e);
+    }
+  }
+
+  /** Whether the sealed file should be read by a {@link MappedTsFileSequenceReader}. */
+  static boolean shouldMap(String file) {
+    if (!CONFIG.isEnableMmapTsFileRead()) {
+      return false;
+    }
+    long fileSize = new File(file).length();
+    return fileSize > 0
+        && fileSize <= Math.min(CONFIG.getMmapTsFileReadMaxFileSize(), Integer.MAX_VALUE);
+  }
+
+  @Override
+  protected ByteBuffer readData(long position, int totalSize, LongConsumer ioSizeRecorder)
+      throws IOException {
+    if (position >= 0) {
+      mappedBufferLock.readLock().lock();
+      try {
+        if (mappedBuffer != null && position + totalSize <= mappedBuffer.capacity()) {
+          if (ioSizeRecorder != null) {
+            ioSizeRecorder.accept(totalSize);
+          }
+          ByteBuffer source = mappedBuffer.duplicate();
+          source.position((int) position);
+          source.limit((int) position + totalSize);
+          ByteBuffer buffer = ByteBuffer.allocate(totalSize);
+          buffer.put(source);
+          buffer.flip();
+          return buffer;
+        }
+      } finally {
+        mappedBufferLock.readLock().unlock();
+      }
+    }
+    return super.readData(position, totalSize, ioSizeRecorder);
+  }
+
+  @Override
+  public void close() throws IOException {
+    mappedBufferLock.writeLock().lock();
+    try {
+      MmapUtil.clean(mappedBuffer);
+      mappedBuffer = null;
+    } finally {
+      mappedBufferLock.writeLock().unlock();
+    }
+    super.close();
+  }
+
+  boolean isMapped() {
+    mappedBufferLock.readLock().lock();
+    try {
+      return mappedBuffer != null;
+    } finally {
+      mappedBufferLock.readLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.control;
+
+import org.apache.tsfile.read.reader.TsFileInput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link TsFileInput} which serves all reads with positional reads of the underlying input, so
+ * that many threads can share the reader of one file without contending on the position of the file
+ * channel. Each thread has its own position, which is only used by the sequential reads issued
+ * right after {@link #position(long)}, e.g., when deserializing TimeseriesMetadata.
+ */
+class PositionalTsFileInput implements TsFileInput {
+
+  private final TsFileInput input;
+
+  private final ThreadLocal<long[]> threadPosition = ThreadLocal.withInitial(() -> new long[1]);
+
+  PositionalTsFileInput(TsFileInput input) {
+    this.input = input;
+  }
+
+  @Override
+  public long size() throws IOException {
+    return input.size();
+  }
+
+  @Override
+  public long position() {
+    return threadPosition.get()[0];
+  }
+
+  @Override
+  public TsFileInput position(long newPosition) {
+    threadPosition.get()[0] = newPosition;
+    return this;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    long[] position = threadPosition.get();
+    int readSize = input.read(dst, position[0]);
+    if (readSize > 0) {
+      position[0] += readSize;
+    }
+    return readSize;
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    return input.read(dst, position);
+  }
+
+  @Override
+  public InputStream wrapAsInputStream() {
+    return new InputStream() {
+      @Override
+      public int read() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        return PositionalTsFileInput.this.read(buffer) <= 0 ? -1 : buffer.get(0) & 0xFF;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+          return 0;
+        }
+        int readSize = PositionalTsFileInput.this.read(ByteBuffer.wrap(b, off, len));
+        return readSize <= 0 ? -1 : readSize;
+      }
+    };
+  }
+
+  @Override
+  public String readVarIntString(long offset) throws IOException {
+    return input.readVarIntString(offset);
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+
+  @Override
+  public String getFilePath() {
+    return input.getFilePath();
+  }
+}
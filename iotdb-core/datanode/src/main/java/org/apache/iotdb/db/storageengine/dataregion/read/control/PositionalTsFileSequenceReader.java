@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.control;
+
+import org.apache.tsfile.read.TsFileSequenceReader;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+/**
+ * Reader of a sealed TsFile whose reads are all positional, see {@link PositionalTsFileInput}.
+ * Since a sealed file never changes, one such reader is shared by all queries reading the file.
+ */
+class PositionalTsFileSequenceReader extends TsFileSequenceReader {
+
+  PositionalTsFileSequenceReader(String file, LongConsumer ioSizeRecorder) throws IOException {
+    super(file, ioSizeRecorder);
+    tsFileInput = new PositionalTsFileInput(tsFileInput);
+  }
+}
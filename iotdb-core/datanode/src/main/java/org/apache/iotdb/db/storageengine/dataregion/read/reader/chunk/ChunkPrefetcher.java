@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryStatistics;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.IChunkMetadata;
+import org.apache.tsfile.read.common.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the chunks of one series scan ahead of its consumption on a shared I/O pool, so that long
+ * scans on cold data are not stalled by each disk read.
+ *
+ * <p>The scan appends the chunks of sequence files which it can't skip by their statistics, in the
+ * order it will consume them, by {@link #prefetch(List)}, and at most {@code
+ * chunk_prefetch_window_size} of them are read ahead. When the scan consumes a chunk by {@link
+ * #take(IChunkMetadata)}, the chunks before it which have been skipped by the scan are dropped, and
+ * the window moves forward.
+ *
+ * <p>The memory of a chunk is reserved before it is read, by an estimation from its statistics
+ * which is corrected once it is read. It is charged to the memory estimated for the fragment
+ * instance when it is planned, which the prefetchers of all its scans share, so reading ahead never
+ * takes memory from other queries. Chunks are not read ahead if there is not enough memory. The
+ * reservation is released when the chunk is handed over to the scan or dropped.
+ */
+public class ChunkPrefetcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChunkPrefetcher.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  // estimated size of a value of the binary types, as their statistics don't tell it
+  private static final long ESTIMATED_BINARY_VALUE_SIZE = 32;
+
+  private final FragmentInstanceContext context;
+  private final QueryStatistics queryStatistics;
+  private final int windowSize;
+  private final boolean putIntoCache;
+
+  // chunks to be read ahead, in the order of consumption
+  private final Deque<ChunkMetadata> pendingChunks = new ArrayDeque<>();
+  // chunks being read or have been read ahead, in the order of consumption
+  private final Deque<PrefetchedChunk> prefetchedChunks = new ArrayDeque<>();
+  // chunks dropped while being read, which are waited for on close
+  private final List<PrefetchedChunk> droppedChunks = new ArrayList<>();
+
+  private volatile boolean closed = false;
+
+  public ChunkPrefetcher(FragmentInstanceContext context) {
+    this.context = context;
+    this.queryStatistics = context.getQueryStatistics();
+    this.windowSize = CONFIG.getChunkPrefetchWindowSize();
+    this.putIntoCache = CONFIG.isEnableChunkPrefetchIntoCache();
+  }
+
+  public static boolean isEnable() {
+    return CONFIG.isEnableChunkPrefetch();
+  }
+
+  /**
+   * Append chunks to be read ahead in the order of consumption. Only the chunks read by {@link
+   * DiskChunkLoader} are read ahead, others are ignored.
+   */
+  public synchronized void prefetch(List<IChunkMetadata> chunkMetadataList) {
+    if (closed) {
+      return;
+    }
+    for (IChunkMetadata chunkMetadata : chunkMetadataList) {
+      if (chunkMetadata instanceof ChunkMetadata
+          && chunkMetadata.getChunkLoader() instanceof DiskChunkLoader) {
+        ((DiskChunkLoader) chunkMetadata.getChunkLoader()).setChunkPrefetcher(this);
+        pendingChunks.add((ChunkMetadata) chunkMetadata);
+      }
+    }
+    fillWindow();
+  }
+
+  /**
+   * Take the chunk read ahead for the given chunk metadata, which must have been passed to {@link
+   * #prefetch(List)}.
+   *
+   * @return null if the chunk is not read ahead, in which case the caller should read it by itself
+   */
+  public Chunk take(IChunkMetadata chunkMetadata) {
+    PrefetchedChunk target;
+    synchronized (this) {
+      target = pollUntil(chunkMetadata);
+      fillWindow();
+    }
+    // wait outside the lock, the chunks after the target are being read in the meantime
+    Chunk chunk = target == null ? null : target.get();
+    if (chunk != null) {
+      queryStatistics.getLoadChunkFromPrefetchCount().incrementAndGet();
+    }
+    return chunk;
+  }
+
+  private PrefetchedChunk pollUntil(IChunkMetadata chunkMetadata) {
+    PrefetchedChunk target = null;
+    for (PrefetchedChunk prefetchedChunk : prefetchedChunks) {
+      if (prefetchedChunk.chunkMetadata == chunkMetadata) {
+        target = prefetchedChunk;
+        break;
+      }
+    }
+    if (target != null) {
+      // the chunks before the target have been skipped by the scan
+      while (prefetchedChunks.peekFirst() != target) {
+        drop(prefetchedChunks.pollFirst());
+      }
+      return prefetchedChunks.pollFirst();
+    }
+    // the target is still pending, so the whole window has been skipped
+    while (!prefetchedChunks.isEmpty()) {
+      drop(prefetchedChunks.pollFirst());
+    }
+    while (!pendingChunks.isEmpty() && pendingChunks.pollFirst() != chunkMetadata) {
+      // skip the pending chunks before the target
+    }
+    return null;
+  }
+
+  private void drop(PrefetchedChunk prefetchedChunk) {
+    if (!prefetchedChunk.discard()) {
+      droppedChunks.removeIf(droppedChunk -> droppedChunk.future.isDone());
+      droppedChunks.add(prefetchedChunk);
+    }
+  }
+
+  private void fillWindow() {
+    while (prefetchedChunks.size() < windowSize && !pendingChunks.isEmpty()) {
+      ChunkMetadata chunkMetadata = pendingChunks.peekFirst();
+      long estimatedSize = estimateRetainedSize(chunkMetadata);
+      if (!context.tryReserveChunkPrefetchMemory(estimatedSize)) {
+        // try again when the scan takes the next chunk
+        return;
+      }
+      pendingChunks.pollFirst();
+      PrefetchedChunk prefetchedChunk = new PrefetchedChunk(chunkMetadata, estimatedSize);
+      prefetchedChunks.addLast(prefetchedChunk);
+      ChunkPrefetchPoolHolder.POOL.execute(prefetchedChunk::read);
+    }
+  }
+
+  private static long estimateRetainedSize(ChunkMetadata chunkMetadata) {
+    TSDataType dataType = chunkMetadata.getDataType();
+    long valueSize = dataType.isBinary() ? ESTIMATED_BINARY_VALUE_SIZE : dataType.getDataTypeSize();
+    return chunkMetadata.getStatistics().getCount() * (Long.BYTES + valueSize);
+  }
+
+  /**
+   * Stop reading ahead and discard all chunks read ahead but not consumed. The reads in progress
+   * are waited for, as the file readers of the query are released after this.
+   */
+  public void close() {
+    List<PrefetchedChunk> readingChunks = new ArrayList<>();
+    synchronized (this) {
+      closed = true;
+      pendingChunks.clear();
+      while (!prefetchedChunks.isEmpty()) {
+        PrefetchedChunk prefetchedChunk = prefetchedChunks.pollFirst();
+        if (!prefetchedChunk.discard()) {
+          readingChunks.add(prefetchedChunk);
+        }
+      }
+      readingChunks.addAll(droppedChunks);
+      droppedChunks.clear();
+    }
+    for (PrefetchedChunk readingChunk : readingChunks) {
+      readingChunk.future.join();
+    }
+  }
+
+  private void releaseMemory(long size) {
+    if (size > 0) {
+      context.releaseChunkPrefetchMemory(size);
+    }
+  }
+
+  private class PrefetchedChunk {
+
+    private static final int NEW = 0;
+    private static final int READING = 1;
+    private static final int READ = 2;
+    private static final int DISCARDED = 3;
+
+    private final ChunkMetadata chunkMetadata;
+    // completed after the memory of a discarded chunk is released
+    private final CompletableFuture<Chunk> future = new CompletableFuture<>();
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    // written by the reading thread before the state becomes READ
+    private long reservedSize;
+
+    private PrefetchedChunk(ChunkMetadata chunkMetadata, long reservedSize) {
+      this.chunkMetadata = chunkMetadata;
+      this.reservedSize = reservedSize;
+    }
+
+    private void read() {
+      if (!state.compareAndSet(NEW, READING)) {
+        return;
+      }
+      Chunk chunk = null;
+      try {
+        if (!closed) {
+          chunk = readAndReserve();
+        }
+      } catch (Exception e) {
+        // the scan will read the chunk again by itself
+        LOGGER.debug("Failed to read chunk ahead at {}", chunkMetadata.getOffsetOfChunkHeader(), e);
+      } finally {
+        if (chunk == null || !state.compareAndSet(READING, READ)) {
+          chunk = null;
+          releaseMemory(reservedSize);
+        }
+        future.complete(chunk);
+      }
+    }
+
+    private Chunk readAndReserve() throws Exception {
+      Chunk chunk =
+          ((DiskChunkLoader) chunkMetadata.getChunkLoader()).readChunk(chunkMetadata, putIntoCache);
+      long retainedSize = chunk.getRetainedSizeInBytes();
+      if (retainedSize > reservedSize) {
+        if (!context.tryReserveChunkPrefetchMemory(retainedSize - reservedSize)) {
+          return null;
+        }
+      } else {
+        releaseMemory(reservedSize - retainedSize);
+      }
+      reservedSize = retainedSize;
+      return chunk;
+    }
+
+    /** Wait for the chunk, whose memory is handed over to the scan. */
+    private Chunk get() {
+      Chunk chunk = future.join();
+      if (chunk != null) {
+        releaseMemory(reservedSize);
+      }
+      return chunk;
+    }
+
+    /**
+     * Discard the chunk, whose memory is released once it is read.
+     *
+     * @return false if the chunk is being read, whose future should be waited for to make sure the
+     *     read is finished and the memory is released
+     */
+    private boolean discard() {
+      if (cancel()) {
+        return true;
+      }
+      if (state.compareAndSet(READING, DISCARDED)) {
+        return false;
+      }
+      // the chunk has been read
+      future.join();
+      if (state.compareAndSet(READ, DISCARDED)) {
+        releaseMemory(reservedSize);
+      }
+      return true;
+    }
+
+    /** Cancel the read if it has not been started. */
+    private boolean cancel() {
+      if (state.compareAndSet(NEW, DISCARDED)) {
+        releaseMemory(reservedSize);
+        future.complete(null);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static class ChunkPrefetchPoolHolder {
+
+    private static final ExecutorService POOL =
+        IoTDBThreadPoolFactory.newFixedThreadPool(
+            CONFIG.getChunkPrefetchThreadCount(), ThreadName.CHUNK_PREFETCH.getName());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk;
+
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
+import org.apache.iotdb.db.storageengine.buffer.DecodedPageCache;
+import org.apache.iotdb.db.storageengine.buffer.DecodedPageCache.DecodedPageCacheKey;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.Chunk;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.reader.IPageReader;
+import org.apache.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.tsfile.read.reader.page.PageReader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Chunk reader of a non-aligned chunk on disk whose pages are read through {@link
+ * DecodedPageCache}. A page missing in the cache is decoded from the raw chunk data without any
+ * filter or deletion, so that the cached page can be shared by all queries.
+ */
+public class DecodedPageChunkReader extends ChunkReader {
+
+  // the chunk without deletions, whose data is not consumed by this reader
+  private final Chunk rawChunk;
+
+  // decodes all pages of the raw chunk, which is built once a page of this chunk misses the cache
+  private List<IPageReader> rawPageReaders;
+
+  public DecodedPageChunkReader(
+      Chunk chunk,
+      Filter globalTimeFilter,
+      TsFileID tsFileID,
+      long offsetOfChunkHeader,
+      QueryContext context) {
+    this(
+        chunk,
+        new Chunk(
+            chunk.getHeader(),
+            chunk.getData().duplicate(),
+            null,
+            chunk.getChunkStatistic(),
+            chunk.getEncryptParam()),
+        globalTimeFilter,
+        tsFileID,
+        offsetOfChunkHeader,
+        context);
+  }
+
+  private DecodedPageChunkReader(
+      Chunk chunk,
+      Chunk rawChunk,
+      Filter globalTimeFilter,
+      TsFileID tsFileID,
+      long offsetOfChunkHeader,
+      QueryContext context) {
+    super(chunk, globalTimeFilter);
+    this.rawChunk = rawChunk;
+    TSDataType dataType = chunk.getHeader().getDataType();
+    for (int i = 0; i < pageReaderList.size(); i++) {
+      PageReader pageReader = (PageReader) pageReaderList.get(i);
+      long pageStartTime = pageReader.getStatistics().getStartTime();
+      pageReaderList.set(
+          i,
+          new DecodedPageReader(
+              pageReader,
+              dataType,
+              globalTimeFilter,
+              new DecodedPageCacheKey(tsFileID, offsetOfChunkHeader, pageStartTime),
+              () -> decodePage(pageStartTime),
+              context));
+    }
+  }
+
+  private TsBlock decodePage(long pageStartTime) throws IOException {
+    if (rawPageReaders == null) {
+      rawPageReaders = new ChunkReader(rawChunk).loadPageReaderList();
+    }
+    for (IPageReader rawPageReader : rawPageReaders) {
+      if (rawPageReader.getStatistics().getStartTime() == pageStartTime) {
+        return rawPageReader.getAllSatisfiedData();
+      }
+    }
+    throw new IOException(
+        String.format("Page starting at %d is not found in chunk", pageStartTime));
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk;
+
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
+import org.apache.iotdb.db.storageengine.buffer.DecodedPageCache;
+import org.apache.iotdb.db.storageengine.buffer.DecodedPageCache.DecodedPageCacheKey;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.statistics.Statistics;
+import org.apache.tsfile.read.common.BatchData;
+import org.apache.tsfile.read.common.TimeRange;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.filter.factory.FilterFactory;
+import org.apache.tsfile.read.reader.IPageReader;
+import org.apache.tsfile.read.reader.page.PageReader;
+import org.apache.tsfile.read.reader.series.PaginationController;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.apache.tsfile.read.reader.series.PaginationController.UNLIMITED_PAGINATION_CONTROLLER;
+
+/**
+ * Page reader of a non-aligned page on disk whose decoded points are shared through {@link
+ * DecodedPageCache}. The cached TsBlock holds all points of the page, so deletions, filters and
+ * limit/offset of the query are applied while copying the satisfied points out of it.
+ */
+public class DecodedPageReader implements IPageReader {
+
+  private final PageReader pageReader;
+  private final TSDataType dataType;
+  private final DecodedPageCacheKey cacheKey;
+  private final DecodedPageCache.PageDecoder pageDecoder;
+  private final QueryContext context;
+
+  private Filter recordFilter;
+
+  private PaginationController paginationController = UNLIMITED_PAGINATION_CONTROLLER;
+
+  DecodedPageReader(
+      PageReader pageReader,
+      TSDataType dataType,
+      Filter recordFilter,
+      DecodedPageCacheKey cacheKey,
+      DecodedPageCache.PageDecoder pageDecoder,
+      QueryContext context) {
+    this.pageReader = pageReader;
+    this.dataType = dataType;
+    this.recordFilter = recordFilter;
+    this.cacheKey = cacheKey;
+    this.pageDecoder = pageDecoder;
+    this.context = context;
+  }
+
+  @Override
+  public BatchData getAllSatisfiedPageData(boolean ascending) throws IOException {
+    return pageReader.getAllSatisfiedPageData(ascending);
+  }
+
+  @Override
+  public TsBlock getAllSatisfiedData() throws IOException {
+    TsBlock decodedPage =
+        DecodedPageCache.getInstance()
+            .get(
+                cacheKey,
+                pageDecoder,
+                context.getQueryStatistics().getLoadDecodedPageFromCacheCount()::addAndGet,
+                context.getQueryStatistics().getLoadDecodedPageFromChunkCount()::addAndGet);
+    TsBlockBuilder builder = new TsBlockBuilder(Collections.singletonList(dataType));
+
+    boolean[] satisfyInfo = buildSatisfyInfoArray(decodedPage);
+    List<TimeRange> deleteIntervalList = pageReader.getDeleteIntervalList();
+    int deleteCursor = 0;
+
+    Column valueColumn = decodedPage.getColumn(0);
+    ColumnBuilder valueBuilder = builder.getColumnBuilder(0);
+    for (int row = 0, positionCount = decodedPage.getPositionCount(); row < positionCount; row++) {
+      long time = decodedPage.getTimeByIndex(row);
+      if (deleteIntervalList != null) {
+        while (deleteCursor < deleteIntervalList.size()
+            && deleteIntervalList.get(deleteCursor).getMax() < time) {
+          deleteCursor++;
+        }
+        if (deleteCursor < deleteIntervalList.size()
+            && deleteIntervalList.get(deleteCursor).contains(time)) {
+          continue;
+        }
+      }
+      if (!satisfyInfo[row]) {
+        continue;
+      }
+      if (paginationController.hasCurOffset()) {
+        paginationController.consumeOffset();
+        continue;
+      }
+      if (!paginationController.hasCurLimit()) {
+        break;
+      }
+      builder.getTimeColumnBuilder().writeLong(time);
+      if (valueColumn.isNull(row)) {
+        valueBuilder.appendNull();
+      } else {
+        valueBuilder.write(valueColumn, row);
+      }
+      builder.declarePosition();
+      paginationController.consumeLimit();
+    }
+    return builder.build();
+  }
+
+  private boolean[] buildSatisfyInfoArray(TsBlock decodedPage) {
+    boolean[] satisfyInfo = new boolean[decodedPage.getPositionCount()];
+    if (recordFilter == null || recordFilter.allSatisfy(this)) {
+      Arrays.fill(satisfyInfo, true);
+      return satisfyInfo;
+    }
+    return recordFilter.satisfyTsBlock(decodedPage);
+  }
+
+  @Override
+  public Statistics<? extends Serializable> getStatistics() {
+    return pageReader.getStatistics();
+  }
+
+  @Override
+  public Statistics<? extends Serializable> getTimeStatistics() {
+    return pageReader.getTimeStatistics();
+  }
+
+  @Override
+  public Optional<Statistics<? extends Serializable>> getMeasurementStatistics(
+      int measurementIndex) {
+    return pageReader.getMeasurementStatistics(measurementIndex);
+  }
+
+  @Override
+  public boolean hasNullValue(int measurementIndex) {
+    return pageReader.hasNullValue(measurementIndex);
+  }
+
+  @Override
+  public void addRecordFilter(Filter filter) {
+    this.recordFilter = FilterFactory.and(recordFilter, filter);
+    pageReader.addRecordFilter(filter);
+  }
+
+  @Override
+  public boolean isModified() {
+    return pageReader.isModified();
+  }
+
+  @Override
+  public void initTsBlockBuilder(List<TSDataType> dataTypes) {
+    pageReader.initTsBlockBuilder(dataTypes);
+  }
+
+  @Override
+  public void setLimitOffset(PaginationController paginationController) {
+    this.paginationController = paginationController;
+    pageReader.setLimitOffset(paginationController);
+  }
+}
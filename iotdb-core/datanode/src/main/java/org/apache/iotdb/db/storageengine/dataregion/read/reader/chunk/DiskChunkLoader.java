@@ -22,6 +22,7 @@ package org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk;
 import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
 import org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet;
 import org.apache.iotdb.db.storageengine.buffer.ChunkCache;
+import org.apache.iotdb.db.storageengine.buffer.DecodedPageCache;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 
@@ -44,6 +45,9 @@ public class DiskChunkLoader implements IChunkLoader {
 
   private final TsFileResource resource;
 
+  // set if the chunk of this loader is read ahead
+  private ChunkPrefetcher chunkPrefetcher;
+
   public DiskChunkLoader(QueryContext context, TsFileResource resource) {
     this.context = context;
     this.resource = resource;
@@ -51,6 +55,12 @@ public class DiskChunkLoader implements IChunkLoader {
 
   @Override
   public Chunk loadChunk(ChunkMetadata chunkMetaData) throws IOException {
+    Chunk chunk = chunkPrefetcher == null ? null : chunkPrefetcher.take(chunkMetaData);
+    return chunk != null ? chunk : readChunk(chunkMetaData, true);
+  }
+
+  /** Read the chunk through the {@link ChunkCache}, used by {@link ChunkPrefetcher} as well. */
+  Chunk readChunk(IChunkMetadata chunkMetaData, boolean putIntoCache) throws IOException {
     return ChunkCache.getInstance()
         .get(
             new ChunkCache.ChunkCacheKey(
@@ -60,7 +70,12 @@ public class DiskChunkLoader implements IChunkLoader {
                 resource.isClosed()),
             chunkMetaData.getDeleteIntervalList(),
             chunkMetaData.getStatistics(),
-            context);
+            context,
+            putIntoCache);
+  }
+
+  void setChunkPrefetcher(ChunkPrefetcher chunkPrefetcher) {
+    this.chunkPrefetcher = chunkPrefetcher;
   }
 
   @Override
@@ -73,20 +88,21 @@ public class DiskChunkLoader implements IChunkLoader {
       throws IOException {
     long t1 = System.nanoTime();
     try {
-      Chunk chunk =
-          ChunkCache.getInstance()
-              .get(
-                  new ChunkCache.ChunkCacheKey(
-                      resource.getTsFilePath(),
-                      resource.getTsFileID(),
-                      chunkMetaData.getOffsetOfChunkHeader(),
-                      resource.isClosed()),
-                  chunkMetaData.getDeleteIntervalList(),
-                  chunkMetaData.getStatistics(),
-                  context);
+      Chunk chunk = chunkPrefetcher == null ? null : chunkPrefetcher.take(chunkMetaData);
+      if (chunk == null) {
+        chunk = readChunk(chunkMetaData, true);
+      }
 
       long t2 = System.nanoTime();
-      IChunkReader chunkReader = new ChunkReader(chunk, globalTimeFilter);
+      IChunkReader chunkReader =
+          DecodedPageCache.isCacheEnable()
+              ? new DecodedPageChunkReader(
+                  chunk,
+                  globalTimeFilter,
+                  resource.getTsFileID(),
+                  chunkMetaData.getOffsetOfChunkHeader(),
+                  context)
+              : new ChunkReader(chunk, globalTimeFilter);
       SeriesScanCostMetricSet.getInstance()
           .recordSeriesScanCost(INIT_CHUNK_READER_NONALIGNED_DISK, System.nanoTime() - t2);
 
@@ -21,11 +21,14 @@ package org.apache.iotdb.db.storageengine.dataregion.read.reader.common;
 
 import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationManager;
 
+import org.apache.tsfile.block.column.Column;
 import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.reader.IPointReader;
 
 import java.io.IOException;
 import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
 
 /** This class implements {@link IPointReader} for data sources with different priorities. */
 @SuppressWarnings("ConstantConditions") // heap is ensured by hasNext non-empty
@@ -41,6 +44,10 @@ public class PriorityMergeReader implements IPointReader {
 
   protected MemoryReservationManager memoryReservationManager;
 
+  // the last next pair of the top which is filled by the pairs sharing its timestamp, so it may be
+  // different from the row it's read from
+  private TimeValuePair lastFilledPair;
+
   public PriorityMergeReader() {
     heap =
         new PriorityQueue<>(
@@ -113,6 +120,65 @@ public class PriorityMergeReader implements IPointReader {
     return heap.peek().getTimeValuePair();
   }
 
+  /**
+   * Whether the points can be taken in batch by {@link #nextBatch(int)}, which requires that only
+   * one reader is left and it is backed by a TsBlock, so that its points are not overlapped.
+   */
+  public boolean canTakeBatch() {
+    if (heap.size() != 1) {
+      return false;
+    }
+    Element top = heap.peek();
+    return top.getReader() instanceof TsBlockPointReader
+        && top.getTimeValuePair() != lastFilledPair;
+  }
+
+  /**
+   * Get the number of points from the current one that can be taken in batch, which ends at the
+   * first point whose time satisfies isEnd. Should only be called if {@link #canTakeBatch()}.
+   */
+  public int getBatchSize(LongPredicate isEnd) {
+    TsBlockPointReader reader = (TsBlockPointReader) heap.peek().getReader();
+    // the current point of the element has been read from the reader
+    int currentRow = reader.getRowIndex() - 1;
+    return reader.searchEndRow(currentRow, isEnd) - currentRow;
+  }
+
+  /**
+   * Take the given number of points from the current one in batch, which is got by {@link
+   * #getBatchSize(LongPredicate)}.
+   *
+   * @return a TsBlock holding the copy of these points
+   */
+  public TsBlock nextBatch(int batchSize) throws IOException {
+    Element top = heap.peek();
+    TsBlockPointReader reader = (TsBlockPointReader) top.getReader();
+    int currentRow = reader.getRowIndex() - 1;
+    TsBlock tsBlock = reader.getTsBlock();
+    // copy the points rather than taking a region of the TsBlock, because some consumers, e.g., the
+    // compaction writers, access the underlying arrays of the columns without the offset
+    Column[] valueColumns = new Column[tsBlock.getValueColumnCount()];
+    for (int i = 0; i < valueColumns.length; i++) {
+      valueColumns[i] = tsBlock.getColumn(i).getRegionCopy(currentRow, batchSize);
+    }
+    TsBlock batch =
+        new TsBlock(
+            batchSize, tsBlock.getTimeColumn().getRegionCopy(currentRow, batchSize), valueColumns);
+    reader.skip(batchSize - 1);
+    if (top.hasNext()) {
+      // the only element is still the top after its time changes
+      top.next();
+    } else {
+      heap.poll();
+      long size = reader.getUsedMemorySize();
+      usedMemorySize -= size;
+      if (memoryReservationManager != null) {
+        memoryReservationManager.releaseMemoryCumulatively(size);
+      }
+    }
+    return batch;
+  }
+
   /**
    * remove all the TimeValuePair that shares the same timestamp if it's an aligned path we may need
    * to use those records that share the same timestamp to fill the null sub sensor value in current
@@ -140,6 +206,7 @@ public class PriorityMergeReader implements IPointReader {
       if (e.currTime() == topNextTime) {
         // if the next value of the peek will be overwritten by the next of the top, skip it
         fillNullValue(topNext, e.getTimeValuePair());
+        lastFilledPair = topNext;
         if (e.hasNext()) {
           e.next();
           heap.add(e);
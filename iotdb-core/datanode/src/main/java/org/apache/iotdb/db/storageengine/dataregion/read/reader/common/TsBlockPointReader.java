@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.reader.common;
+
+import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.read.common.IBatchDataIterator;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.reader.IPointReader;
+
+import java.io.IOException;
+import java.util.function.LongPredicate;
+
+/**
+ * Point reader over the rows of a TsBlock, which exposes the TsBlock as well so that {@link
+ * PriorityMergeReader} can take the rows not overlapped by other readers in batch.
+ */
+public class TsBlockPointReader implements IPointReader {
+
+  private final TsBlock tsBlock;
+  // row iterator of the TsBlock, which is used to build the TimeValuePair of each row
+  private final IPointReader rowIterator;
+  // index of the next row to read
+  private int rowIndex = 0;
+
+  public TsBlockPointReader(TsBlock tsBlock, IPointReader rowIterator) {
+    this.tsBlock = tsBlock;
+    this.rowIterator = rowIterator;
+  }
+
+  @Override
+  public boolean hasNextTimeValuePair() {
+    return rowIndex < tsBlock.getPositionCount();
+  }
+
+  @Override
+  public TimeValuePair nextTimeValuePair() throws IOException {
+    rowIndex++;
+    return rowIterator.nextTimeValuePair();
+  }
+
+  @Override
+  public TimeValuePair currentTimeValuePair() throws IOException {
+    return rowIterator.currentTimeValuePair();
+  }
+
+  TsBlock getTsBlock() {
+    return tsBlock;
+  }
+
+  int getRowIndex() {
+    return rowIndex;
+  }
+
+  /** Skip the given number of rows without building their TimeValuePairs. */
+  void skip(int rowNum) {
+    IBatchDataIterator iterator = (IBatchDataIterator) rowIterator;
+    for (int i = 0; i < rowNum; i++) {
+      iterator.next();
+    }
+    rowIndex += rowNum;
+  }
+
+  /**
+   * Search the first row from the given row whose time reaches the end, the rows are ordered by
+   * time so that isEnd turns true only once. It gallops from the given row first, which is fast
+   * when the end is near.
+   *
+   * @return the index of the found row, or the row count if no row reaches the end
+   */
+  int searchEndRow(int fromRow, LongPredicate isEnd) {
+    int rowCount = tsBlock.getPositionCount();
+    int low = fromRow;
+    int high = fromRow;
+    int step = 1;
+    while (high < rowCount && !isEnd.test(tsBlock.getTimeByIndex(high))) {
+      low = high + 1;
+      high += step;
+      step <<= 1;
+    }
+    high = Math.min(high, rowCount);
+    // the end row is in [low, high]
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (isEnd.test(tsBlock.getTimeByIndex(mid))) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public long getUsedMemorySize() {
+    return rowIterator.getUsedMemorySize();
+  }
+
+  @Override
+  public void close() throws IOException {
+    rowIterator.close();
+  }
+}
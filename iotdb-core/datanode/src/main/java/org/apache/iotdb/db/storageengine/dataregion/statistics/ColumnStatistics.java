@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.statistics;
+
+import org.apache.tsfile.utils.RamUsageEstimator;
+
+import java.util.Objects;
+
+/**
+ * Statistics of a field column of a table, collected from the TimeseriesMetadata of the column. The
+ * min and max values are NaN if the column is not numeric.
+ */
+public class ColumnStatistics {
+
+  static final long INSTANCE_SIZE = RamUsageEstimator.shallowSizeOfInstance(ColumnStatistics.class);
+
+  private final long nonNullCount;
+  private final double minValue;
+  private final double maxValue;
+
+  public ColumnStatistics(long nonNullCount, double minValue, double maxValue) {
+    this.nonNullCount = nonNullCount;
+    this.minValue = minValue;
+    this.maxValue = maxValue;
+  }
+
+  public long getNonNullCount() {
+    return nonNullCount;
+  }
+
+  public double getMinValue() {
+    return minValue;
+  }
+
+  public double getMaxValue() {
+    return maxValue;
+  }
+
+  public ColumnStatistics merge(ColumnStatistics other) {
+    return new ColumnStatistics(
+        nonNullCount + other.nonNullCount,
+        mergeMin(minValue, other.minValue),
+        mergeMax(maxValue, other.maxValue));
+  }
+
+  // NaN is contagious, a column whose min or max is unknown in any file has no known bound
+  private static double mergeMin(double left, double right) {
+    return Double.isNaN(left) || Double.isNaN(right) ? Double.NaN : Math.min(left, right);
+  }
+
+  private static double mergeMax(double left, double right) {
+    return Double.isNaN(left) || Double.isNaN(right) ? Double.NaN : Math.max(left, right);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ColumnStatistics that = (ColumnStatistics) o;
+    return nonNullCount == that.nonNullCount
+        && Double.compare(minValue, that.minValue) == 0
+        && Double.compare(maxValue, that.maxValue) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(nonNullCount, minValue, maxValue);
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnStatistics{"
+        + "nonNullCount="
+        + nonNullCount
+        + ", minValue="
+        + minValue
+        + ", maxValue="
+        + maxValue
+        + '}';
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.statistics;
+
+import org.apache.iotdb.db.storageengine.buffer.TableStatisticsCache;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.file.metadata.TimeseriesMetadata;
+import org.apache.tsfile.file.metadata.statistics.Statistics;
+import org.apache.tsfile.read.TsFileDeviceIterator;
+import org.apache.tsfile.read.TsFileSequenceReader;
+import org.apache.tsfile.utils.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of the tables of a data region, used by the planner for cost estimation.
+ *
+ * <p>The statistics of a sealed TsFile are collected from its TimeseriesMetadata, without reading
+ * any chunk, and kept in the memory bounded {@link TableStatisticsCache} until the TsFile is removed
+ * from the region or evicted. So the statistics are refreshed incrementally: each refresh only loads
+ * the TsFiles whose statistics are not cached, at most {@code maxTsFileNumToLoad} of them, and
+ * extrapolates the statistics of the TsFiles which are not loaded yet. Data in unsealed TsFiles is
+ * not counted.
+ */
+public class DataRegionTableStatistics {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DataRegionTableStatistics.class);
+
+  private final TsFileManager tsFileManager;
+
+  private final TableStatisticsCache cache;
+
+  public DataRegionTableStatistics(TsFileManager tsFileManager, TableStatisticsCache cache) {
+    this.tsFileManager = tsFileManager;
+    this.cache = cache;
+  }
+
+  /**
+   * Called by the background refresh of {@link TableStatisticsManager}, never by a query, because
+   * loading the statistics of a TsFile reads its metadata from disk.
+   *
+   * @return the statistics of each table in the loaded TsFiles
+   */
+  public Map<String, TableStatistics> getAllTableStatistics(int maxTsFileNumToLoad) {
+    List<TsFileResource> sealedTsFiles = new ArrayList<>();
+    for (TsFileResource resource : tsFileManager.getTsFileList(true)) {
+      if (resource.isClosed() && !resource.isDeleted()) {
+        sealedTsFiles.add(resource);
+      }
+    }
+    for (TsFileResource resource : tsFileManager.getTsFileList(false)) {
+      if (resource.isClosed() && !resource.isDeleted()) {
+        sealedTsFiles.add(resource);
+      }
+    }
+
+    Map<String, TableStatistics> result = new HashMap<>();
+    int loadedTsFileNum = 0;
+    int tsFileNumToLoad = maxTsFileNumToLoad;
+    for (TsFileResource resource : sealedTsFiles) {
+      Map<String, TableStatistics> statistics = cache.get(resource);
+      if (statistics == null) {
+        if (tsFileNumToLoad <= 0) {
+          continue;
+        }
+        tsFileNumToLoad--;
+        statistics = load(resource);
+        if (statistics == null) {
+          continue;
+        }
+        cache.put(resource, statistics);
+      }
+      loadedTsFileNum++;
+      statistics.forEach(
+          (table, tableStatistics) ->
+              result.merge(table, tableStatistics, (merged, other) -> merged.merge(other, false)));
+    }
+    if (loadedTsFileNum < sealedTsFiles.size() && loadedTsFileNum > 0) {
+      double factor = (double) sealedTsFiles.size() / loadedTsFileNum;
+      result.replaceAll((table, tableStatistics) -> tableStatistics.scale(factor));
+    }
+    return result;
+  }
+
+  /**
+   * Walk the metadata index of the TsFile one device at a time, so only the TimeseriesMetadata of
+   * one device is held in memory. The reader is shared with queries through the {@link
+   * FileReaderManager}, and the reference held meanwhile keeps the TsFile from being removed.
+   *
+   * @return the statistics of each table in the TsFile, or null if the TsFile can't be read, e.g.
+   *     it has been removed by compaction after being listed
+   */
+  private static Map<String, TableStatistics> load(TsFileResource resource) {
+    Map<String, TableStatisticsCollector> collectors = new HashMap<>();
+    FileReaderManager.getInstance().increaseFileReaderReference(resource, true);
+    try {
+      if (resource.isDeleted()) {
+        return null;
+      }
+      TsFileSequenceReader reader =
+          FileReaderManager.getInstance().get(resource.getTsFilePath(), true);
+      TsFileDeviceIterator deviceIterator = reader.getAllDevicesIteratorWithIsAligned();
+      List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
+      while (deviceIterator.hasNext()) {
+        Pair<IDeviceID, Boolean> deviceIsAlignedPair = deviceIterator.next();
+        timeseriesMetadataList.clear();
+        reader.getDeviceTimeseriesMetadata(
+            timeseriesMetadataList,
+            deviceIterator.getFirstMeasurementNodeOfCurrentDevice(),
+            Collections.emptySet(),
+            false);
+        collectors
+            .computeIfAbsent(
+                deviceIsAlignedPair.getLeft().getTableName(), k -> new TableStatisticsCollector())
+            .collectDevice(timeseriesMetadataList);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Failed to load table statistics of {}", resource.getTsFilePath(), e);
+      return null;
+    } finally {
+      FileReaderManager.getInstance().decreaseFileReaderReference(resource, true);
+    }
+    Map<String, TableStatistics> statistics = new HashMap<>();
+    collectors.forEach((table, collector) -> statistics.put(table, collector.build()));
+    return statistics;
+  }
+
+  private static class TableStatisticsCollector {
+
+    private long rowCount = 0;
+    private long deviceCount = 0;
+    private long startTime = Long.MAX_VALUE;
+    private long endTime = Long.MIN_VALUE;
+    private final Map<String, ColumnStatistics> columnStatistics = new HashMap<>();
+
+    private void collectDevice(List<TimeseriesMetadata> timeseriesMetadataList) {
+      long deviceRowCount = 0;
+      for (TimeseriesMetadata timeseriesMetadata : timeseriesMetadataList) {
+        Statistics<? extends Serializable> statistics = timeseriesMetadata.getStatistics();
+        startTime = Math.min(startTime, statistics.getStartTime());
+        endTime = Math.max(endTime, statistics.getEndTime());
+        if (timeseriesMetadata.getMeasurementId().isEmpty()) {
+          // the time column of an aligned device, whose count is the number of rows
+          deviceRowCount = statistics.getCount();
+          continue;
+        }
+        deviceRowCount = Math.max(deviceRowCount, statistics.getCount());
+        TSDataType dataType = timeseriesMetadata.getTsDataType();
+        boolean hasNumericBound = dataType.isNumeric() || dataType == TSDataType.TIMESTAMP;
+        columnStatistics.merge(
+            timeseriesMetadata.getMeasurementId(),
+            new ColumnStatistics(
+                statistics.getCount(),
+                hasNumericBound ? toDouble(statistics.getMinValue()) : Double.NaN,
+                hasNumericBound ? toDouble(statistics.getMaxValue()) : Double.NaN),
+            ColumnStatistics::merge);
+      }
+      rowCount += deviceRowCount;
+      deviceCount++;
+    }
+
+    private static double toDouble(Object value) {
+      return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    private TableStatistics build() {
+      return new TableStatistics(rowCount, deviceCount, startTime, endTime, columnStatistics);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.statistics;
+
+import org.apache.iotdb.mpp.rpc.thrift.TColumnStatistics;
+import org.apache.iotdb.mpp.rpc.thrift.TTableStatistics;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.tsfile.utils.RamUsageEstimator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Statistics of the data of a table, either in one TsFile or merged over the TsFiles of a data
+ * region.
+ *
+ * <p>The row count of a TsFile is the number of timestamps of its devices. Rows that are updated by
+ * unsequence files or deleted by mods are still counted, so the row count is an upper bound that is
+ * good enough for cost estimation.
+ */
+public class TableStatistics {
+
+  private static final long INSTANCE_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(TableStatistics.class);
+
+  private final long rowCount;
+  private final long deviceCount;
+  private final long startTime;
+  private final long endTime;
+  private final Map<String, ColumnStatistics> columnStatistics;
+
+  public TableStatistics(
+      long rowCount,
+      long deviceCount,
+      long startTime,
+      long endTime,
+      Map<String, ColumnStatistics> columnStatistics) {
+    this.rowCount = rowCount;
+    this.deviceCount = deviceCount;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.columnStatistics = ImmutableMap.copyOf(columnStatistics);
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public long getDeviceCount() {
+    return deviceCount;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getEndTime() {
+    return endTime;
+  }
+
+  /** Returns statistics of field columns, keyed by column name. */
+  public Map<String, ColumnStatistics> getColumnStatistics() {
+    return columnStatistics;
+  }
+
+  public long ramBytesUsed() {
+    long size = INSTANCE_SIZE + RamUsageEstimator.shallowSizeOf(columnStatistics);
+    for (String column : columnStatistics.keySet()) {
+      size +=
+          RamUsageEstimator.HASHTABLE_RAM_BYTES_PER_ENTRY
+              + RamUsageEstimator.sizeOf(column)
+              + ColumnStatistics.INSTANCE_SIZE;
+    }
+    return size;
+  }
+
+  /**
+   * @param disjointDevices whether the devices of the two statistics are disjoint, e.g. they are
+   *     collected from different data regions. Otherwise, the device count of the merged statistics
+   *     is the larger one, as a device usually appears in most TsFiles of a data region.
+   */
+  public TableStatistics merge(TableStatistics other, boolean disjointDevices) {
+    Map<String, ColumnStatistics> mergedColumnStatistics = new HashMap<>(columnStatistics);
+    other.columnStatistics.forEach(
+        (column, statistics) ->
+            mergedColumnStatistics.merge(column, statistics, ColumnStatistics::merge));
+    return new TableStatistics(
+        rowCount + other.rowCount,
+        disjointDevices
+            ? deviceCount + other.deviceCount
+            : Math.max(deviceCount, other.deviceCount),
+        Math.min(startTime, other.startTime),
+        Math.max(endTime, other.endTime),
+        mergedColumnStatistics);
+  }
+
+  /** Returns statistics whose row and non-null counts are multiplied by the given factor. */
+  public TableStatistics scale(double factor) {
+    Map<String, ColumnStatistics> scaledColumnStatistics = new HashMap<>();
+    columnStatistics.forEach(
+        (column, statistics) ->
+            scaledColumnStatistics.put(
+                column,
+                new ColumnStatistics(
+                    (long) (statistics.getNonNullCount() * factor),
+                    statistics.getMinValue(),
+                    statistics.getMaxValue())));
+    return new TableStatistics(
+        (long) (rowCount * factor), deviceCount, startTime, endTime, scaledColumnStatistics);
+  }
+
+  /** Convert to the form reported to the ConfigNode by the heartbeat. */
+  public TTableStatistics toThrift() {
+    Map<String, TColumnStatistics> thriftColumnStatistics = new HashMap<>();
+    columnStatistics.forEach(
+        (column, statistics) ->
+            thriftColumnStatistics.put(
+                column,
+                new TColumnStatistics(
+                    statistics.getNonNullCount(),
+                    statistics.getMinValue(),
+                    statistics.getMaxValue())));
+    return new TTableStatistics(rowCount, deviceCount, startTime, endTime, thriftColumnStatistics);
+  }
+
+  public static TableStatistics fromThrift(TTableStatistics statistics) {
+    Map<String, ColumnStatistics> columnStatistics = new HashMap<>();
+    statistics
+        .getColumnStatistics()
+        .forEach(
+            (column, thriftStatistics) ->
+                columnStatistics.put(
+                    column,
+                    new ColumnStatistics(
+                        thriftStatistics.getNonNullCount(),
+                        thriftStatistics.getMinValue(),
+                        thriftStatistics.getMaxValue())));
+    return new TableStatistics(
+        statistics.getRowCount(),
+        statistics.getDeviceCount(),
+        statistics.getStartTime(),
+        statistics.getEndTime(),
+        columnStatistics);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TableStatistics that = (TableStatistics) o;
+    return rowCount == that.rowCount
+        && deviceCount == that.deviceCount
+        && startTime == that.startTime
+        && endTime == that.endTime
+        && columnStatistics.equals(that.columnStatistics);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rowCount, deviceCount, startTime, endTime, columnStatistics);
+  }
+
+  @Override
+  public String toString() {
+    return "TableStatistics{"
+        + "rowCount="
+        + rowCount
+        + ", deviceCount="
+        + deviceCount
+        + ", startTime="
+        + startTime
+        + ", endTime="
+        + endTime
+        + ", columnStatistics="
+        + columnStatistics
+        + '}';
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.statistics;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.StorageEngine;
+import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
+import org.apache.iotdb.mpp.rpc.thrift.TRegionTableStatistics;
+import org.apache.iotdb.mpp.rpc.thrift.TTableStatistics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the table statistics used by the planner, so that planning never reads any TsFile.
+ *
+ * <p>The statistics of the data regions on this DataNode are refreshed in the background by {@link
+ * #refreshLocalTableStatistics}, and reported to the ConfigNode by the heartbeat. The ConfigNode
+ * sends the statistics of all the data regions in the cluster back to every DataNode by the
+ * heartbeat, which are merged by database and table here. Until the statistics of the cluster
+ * arrive, e.g. right after the DataNode starts, the statistics of the local data regions are used.
+ */
+public class TableStatisticsManager {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TableStatisticsManager.class);
+
+  // Map<DataRegionId, statistics of the data region>, refreshed in the background
+  private final Map<Integer, RegionTableStatistics> localRegionTableStatistics =
+      new ConcurrentHashMap<>();
+
+  // Map<database, Map<table, statistics>> of the cluster, replaced by every heartbeat
+  private volatile Map<String, Map<String, TableStatistics>> clusterTableStatistics = null;
+
+  private TableStatisticsManager() {}
+
+  /** Load the statistics of the TsFiles which are not cached yet, called by a timed service. */
+  public void refreshLocalTableStatistics() {
+    int maxTsFileNumToLoad =
+        IoTDBDescriptor.getInstance().getConfig().getTableStatisticsMaxLoadedTsFileNumPerRefresh();
+    Set<Integer> dataRegionIds = new HashSet<>();
+    for (DataRegion dataRegion : StorageEngine.getInstance().getAllDataRegions()) {
+      int dataRegionId = Integer.parseInt(dataRegion.getDataRegionId());
+      dataRegionIds.add(dataRegionId);
+      try {
+        localRegionTableStatistics.put(
+            dataRegionId,
+            new RegionTableStatistics(
+                dataRegion.getDatabaseName(),
+                dataRegion.getTableStatistics().getAllTableStatistics(maxTsFileNumToLoad)));
+      } catch (RuntimeException e) {
+        LOGGER.warn("Failed to refresh the table statistics of data region {}", dataRegionId, e);
+      }
+    }
+    // the data regions removed from this DataNode
+    localRegionTableStatistics.keySet().retainAll(dataRegionIds);
+  }
+
+  /** The statistics of the local data regions reported to the ConfigNode by the heartbeat. */
+  public Map<Integer, TRegionTableStatistics> getLocalRegionTableStatistics() {
+    Map<Integer, TRegionTableStatistics> result = new HashMap<>();
+    localRegionTableStatistics.forEach(
+        (dataRegionId, statistics) -> result.put(dataRegionId, statistics.toThrift()));
+    return result;
+  }
+
+  /** Replace the statistics of the cluster by those sent by the ConfigNode. */
+  public void updateClusterTableStatistics(
+      Map<Integer, TRegionTableStatistics> regionTableStatistics) {
+    Map<String, Map<String, TableStatistics>> statistics = new HashMap<>();
+    regionTableStatistics
+        .values()
+        .forEach(region -> mergeRegion(statistics, RegionTableStatistics.fromThrift(region)));
+    clusterTableStatistics = statistics;
+  }
+
+  /**
+   * @return the statistics of the table merged from the data regions of the cluster, or empty if
+   *     none of them contains the table
+   */
+  public Optional<TableStatistics> getTableStatistics(String database, String table) {
+    Map<String, Map<String, TableStatistics>> statistics = clusterTableStatistics;
+    if (statistics == null) {
+      statistics = new HashMap<>();
+      for (RegionTableStatistics region : localRegionTableStatistics.values()) {
+        mergeRegion(statistics, region);
+      }
+    }
+    return Optional.ofNullable(
+        statistics.getOrDefault(database, Collections.emptyMap()).get(table));
+  }
+
+  private static void mergeRegion(
+      Map<String, Map<String, TableStatistics>> statistics, RegionTableStatistics region) {
+    Map<String, TableStatistics> databaseStatistics =
+        statistics.computeIfAbsent(region.database, k -> new HashMap<>());
+    // the devices of different data regions are counted as different ones
+    region.tableStatistics.forEach(
+        (table, tableStatistics) ->
+            databaseStatistics.merge(
+                table, tableStatistics, (merged, other) -> merged.merge(other, true)));
+  }
+
+  private static class RegionTableStatistics {
+
+    private final String database;
+    private final Map<String, TableStatistics> tableStatistics;
+
+    private RegionTableStatistics(String database, Map<String, TableStatistics> tableStatistics) {
+      this.database = database;
+      this.tableStatistics = tableStatistics;
+    }
+
+    private TRegionTableStatistics toThrift() {
+      Map<String, TTableStatistics> thriftTableStatistics = new HashMap<>();
+      tableStatistics.forEach(
+          (table, statistics) -> thriftTableStatistics.put(table, statistics.toThrift()));
+      return new TRegionTableStatistics(database, thriftTableStatistics);
+    }
+
+    private static RegionTableStatistics fromThrift(TRegionTableStatistics statistics) {
+      Map<String, TableStatistics> tableStatistics = new HashMap<>();
+      statistics
+          .getTableStatistics()
+          .forEach(
+              (table, thriftStatistics) ->
+                  tableStatistics.put(table, TableStatistics.fromThrift(thriftStatistics)));
+      return new RegionTableStatistics(statistics.getDatabase(), tableStatistics);
+    }
+  }
+
+  public static TableStatisticsManager getInstance() {
+    return TableStatisticsManagerHolder.INSTANCE;
+  }
+
+  private static class TableStatisticsManagerHolder {
+
+    private static final TableStatisticsManager INSTANCE = new TableStatisticsManager();
+
+    private TableStatisticsManagerHolder() {}
+  }
+}
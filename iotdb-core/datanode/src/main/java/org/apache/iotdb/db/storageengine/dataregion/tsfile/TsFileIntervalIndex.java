@@ -0,0 +1,452 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.tsfile;
+
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ITimeIndex;
+import org.apache.iotdb.db.storageengine.rescon.memory.TsFileResourceManager;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.utils.RamUsageEstimator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Interval index over the TsFileResources of one {@link TsFileResourceList}, i.e., of one time
+ * partition and one of sequence and unsequence files. It keeps an interval tree of the time ranges
+ * of each device, and one of the time ranges of the files, so that the files overlapping a time
+ * range are found in O(log n + k) instead of checking every file.
+ *
+ * <p>The list reports every insertion and removal to the index, which updates it incrementally.
+ * The trees are static: files sealed or inserted since they were built are kept in a pending list
+ * which is checked one by one, and removed files are marked as removed in the trees. The trees are
+ * rebuilt once these changes exceed a quarter of the files in the trees, so the rebuild costs
+ * O(log n) per change amortized. Unsealed files are returned by every selection until they are
+ * sealed, as are sealed files whose devices are not in memory (e.g., whose time index has been
+ * degraded) for the device trees. The selected files are a superset of the satisfied files and must
+ * still be checked by {@link TsFileResource#isSatisfied}.
+ *
+ * <p>The memory of the device trees is reserved from the time index budget of {@link
+ * TsFileResourceManager}. The devices of a file are not indexed if there is no room for them.
+ */
+public class TsFileIntervalIndex {
+
+  // the gap between the order keys of adjacent files when they are numbered
+  private static final long ORDER_KEY_GAP = 1L << 16;
+  // the trees are rebuilt once the changes since they were built exceed this
+  private static final int MIN_CHANGE_NUM_TO_REBUILD = 16;
+
+  // start time, end time and max end time of an interval and the reference to its entry
+  private static final long DEVICE_INTERVAL_MEM_SIZE =
+      3L * Long.BYTES + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+  // the arrays of the interval tree of a device and its entry in the map
+  private static final long DEVICE_TREE_MEM_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(IntervalTree.class)
+          + 4L * RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+          + RamUsageEstimator.HASHTABLE_RAM_BYTES_PER_ENTRY;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<TsFileResource, Entry> entries = new IdentityHashMap<>();
+  private final List<Entry> unsealedEntries = new ArrayList<>();
+  // sealed entries which are not in the trees yet
+  private final List<Entry> pendingEntries = new ArrayList<>();
+
+  private IntervalTree fileTree = IntervalTree.EMPTY;
+  private Map<IDeviceID, IntervalTree> deviceTrees = Collections.emptyMap();
+  // entries in the file tree whose devices are not in the device trees
+  private Entry[] unknownDeviceEntries = new Entry[0];
+  private int builtEntryNum = 0;
+  private int removedBuiltEntryNum = 0;
+
+  // memory of the device trees reserved from TsFileResourceManager
+  private long reservedMemCost = 0;
+
+  public TsFileIntervalIndex(List<TsFileResource> resources) {
+    lock.writeLock().lock();
+    try {
+      long orderKey = 0;
+      for (TsFileResource resource : resources) {
+        addEntry(resource, orderKey);
+        orderKey += ORDER_KEY_GAP;
+      }
+      rebuild();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Called after the resource is linked into the list. */
+  void onInserted(TsFileResource resource) {
+    lock.writeLock().lock();
+    try {
+      if (entries.containsKey(resource)) {
+        return;
+      }
+      addEntry(resource, getOrderKeyOfInserted(resource));
+      rebuildIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Called after the resource is unlinked from the list. */
+  void onRemoved(TsFileResource resource) {
+    lock.writeLock().lock();
+    try {
+      Entry entry = entries.remove(resource);
+      if (entry == null) {
+        return;
+      }
+      entry.removed = true;
+      if (!unsealedEntries.remove(entry) && !pendingEntries.remove(entry)) {
+        removedBuiltEntryNum++;
+      }
+      rebuildIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Release the memory of the index, which must not be used any more. */
+  void close() {
+    lock.writeLock().lock();
+    try {
+      entries.clear();
+      unsealedEntries.clear();
+      pendingEntries.clear();
+      fileTree = IntervalTree.EMPTY;
+      deviceTrees = Collections.emptyMap();
+      unknownDeviceEntries = new Entry[0];
+      builtEntryNum = 0;
+      removedBuiltEntryNum = 0;
+      releaseMemCost();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void addEntry(TsFileResource resource, long orderKey) {
+    Entry entry = new Entry(resource, orderKey, !resource.isClosed());
+    entries.put(resource, entry);
+    (entry.unsealed ? unsealedEntries : pendingEntries).add(entry);
+  }
+
+  private long getOrderKeyOfInserted(TsFileResource resource) {
+    Entry prev = resource.prev == null ? null : entries.get(resource.prev);
+    Entry next = resource.next == null ? null : entries.get(resource.next);
+    if (prev == null && next == null) {
+      return 0;
+    } else if (next == null) {
+      return prev.orderKey + ORDER_KEY_GAP;
+    } else if (prev == null) {
+      return next.orderKey - ORDER_KEY_GAP;
+    } else if (next.orderKey - prev.orderKey > 1) {
+      return prev.orderKey + (next.orderKey - prev.orderKey) / 2;
+    }
+    // no gap left between the neighbours, number the whole list again
+    TsFileResource current = resource;
+    while (current.prev != null) {
+      current = current.prev;
+    }
+    long orderKey = 0;
+    long orderKeyOfInserted = 0;
+    for (; current != null; current = current.next) {
+      if (current == resource) {
+        orderKeyOfInserted = orderKey;
+      } else {
+        entries.get(current).orderKey = orderKey;
+      }
+      orderKey += ORDER_KEY_GAP;
+    }
+    return orderKeyOfInserted;
+  }
+
+  /**
+   * Select the resources that may contain data of the device in [startTime, endTime].
+   *
+   * @param deviceId null for any device
+   * @return the selected resources in the order of the list
+   */
+  public List<TsFileResource> select(IDeviceID deviceId, long startTime, long endTime) {
+    moveSealedEntriesIfNeeded();
+    lock.readLock().lock();
+    try {
+      List<Entry> selected = new ArrayList<>();
+      if (deviceId == null) {
+        fileTree.collect(startTime, endTime, selected);
+      } else {
+        IntervalTree deviceTree = deviceTrees.get(deviceId);
+        if (deviceTree != null) {
+          deviceTree.collect(startTime, endTime, selected);
+        }
+        Collections.addAll(selected, unknownDeviceEntries);
+      }
+      for (Entry entry : pendingEntries) {
+        if (entry.mayOverlap(deviceId, startTime, endTime)) {
+          selected.add(entry);
+        }
+      }
+      selected.addAll(unsealedEntries);
+      selected.sort(Comparator.comparingLong(entry -> entry.orderKey));
+      List<TsFileResource> selectedResources = new ArrayList<>(selected.size());
+      for (Entry entry : selected) {
+        if (!entry.removed) {
+          selectedResources.add(entry.resource);
+        }
+      }
+      return selectedResources;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Sealing a TsFile does not modify the list, so the index checks whether any resource that is
+   * indexed as unsealed has been sealed, after which its time index is final.
+   */
+  private void moveSealedEntriesIfNeeded() {
+    lock.readLock().lock();
+    try {
+      if (!hasSealedUnsealedEntry()) {
+        return;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    lock.writeLock().lock();
+    try {
+      for (int i = unsealedEntries.size() - 1; i >= 0; i--) {
+        Entry entry = unsealedEntries.get(i);
+        if (entry.resource.isClosed()) {
+          unsealedEntries.remove(i);
+          entry.unsealed = false;
+          pendingEntries.add(entry);
+        }
+      }
+      rebuildIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean hasSealedUnsealedEntry() {
+    for (Entry entry : unsealedEntries) {
+      if (entry.resource.isClosed()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void rebuildIfNeeded() {
+    if (pendingEntries.size() + removedBuiltEntryNum
+        > Math.max(MIN_CHANGE_NUM_TO_REBUILD, builtEntryNum / 4)) {
+      rebuild();
+    }
+  }
+
+  private void rebuild() {
+    releaseMemCost();
+    IntervalTree.Builder fileTreeBuilder = new IntervalTree.Builder();
+    Map<IDeviceID, IntervalTree.Builder> deviceTreeBuilders = new HashMap<>();
+    List<Entry> unknownDevices = new ArrayList<>();
+    int entryNum = 0;
+    for (Entry entry : entries.values()) {
+      if (entry.unsealed) {
+        continue;
+      }
+      entryNum++;
+      TsFileResource resource = entry.resource;
+      fileTreeBuilder.add(resource.getFileStartTime(), resource.getFileEndTime(), entry);
+      if (resource.getTimeIndexType() != ITimeIndex.ARRAY_DEVICE_TIME_INDEX_TYPE
+          || !reserveDeviceMemCost(resource.getDevices(), deviceTreeBuilders)) {
+        unknownDevices.add(entry);
+        continue;
+      }
+      for (IDeviceID device : resource.getDevices()) {
+        deviceTreeBuilders
+            .computeIfAbsent(device, d -> new IntervalTree.Builder())
+            .add(resource.getStartTime(device), resource.getEndTime(device), entry);
+      }
+    }
+    Map<IDeviceID, IntervalTree> newDeviceTrees = new HashMap<>(deviceTreeBuilders.size());
+    deviceTreeBuilders.forEach((device, builder) -> newDeviceTrees.put(device, builder.build()));
+    fileTree = fileTreeBuilder.build();
+    deviceTrees = newDeviceTrees;
+    unknownDeviceEntries = unknownDevices.toArray(new Entry[0]);
+    builtEntryNum = entryNum;
+    removedBuiltEntryNum = 0;
+    pendingEntries.clear();
+  }
+
+  private boolean reserveDeviceMemCost(
+      Set<IDeviceID> devices, Map<IDeviceID, IntervalTree.Builder> deviceTreeBuilders) {
+    long memCost = devices.size() * DEVICE_INTERVAL_MEM_SIZE;
+    for (IDeviceID device : devices) {
+      if (!deviceTreeBuilders.containsKey(device)) {
+        memCost += DEVICE_TREE_MEM_SIZE;
+      }
+    }
+    if (!TsFileResourceManager.getInstance().tryReserveIntervalIndexMemCost(memCost)) {
+      return false;
+    }
+    reservedMemCost += memCost;
+    return true;
+  }
+
+  private void releaseMemCost() {
+    if (reservedMemCost > 0) {
+      TsFileResourceManager.getInstance().releaseIntervalIndexMemCost(reservedMemCost);
+      reservedMemCost = 0;
+    }
+  }
+
+  private static class Entry {
+
+    private final TsFileResource resource;
+    // the entries are in the order of the list when sorted by it
+    private long orderKey;
+    private boolean unsealed;
+    private boolean removed = false;
+
+    private Entry(TsFileResource resource, long orderKey, boolean unsealed) {
+      this.resource = resource;
+      this.orderKey = orderKey;
+      this.unsealed = unsealed;
+    }
+
+    private boolean mayOverlap(IDeviceID deviceId, long startTime, long endTime) {
+      if (deviceId == null
+          || resource.getTimeIndexType() != ITimeIndex.ARRAY_DEVICE_TIME_INDEX_TYPE) {
+        return resource.getFileStartTime() <= endTime && resource.getFileEndTime() >= startTime;
+      }
+      return !resource.definitelyNotContains(deviceId)
+          && resource.getStartTime(deviceId) <= endTime
+          && resource.getEndTime(deviceId) >= startTime;
+    }
+  }
+
+  /**
+   * A static interval tree stored in arrays: the intervals are sorted by start time, and the
+   * implicit binary search tree over the sorted arrays records the max end time of each subtree.
+   */
+  static class IntervalTree {
+
+    private static final IntervalTree EMPTY =
+        new IntervalTree(new long[0], new long[0], new Entry[0]);
+
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final Entry[] entries;
+    private final long[] maxEndTimes;
+
+    private IntervalTree(long[] startTimes, long[] endTimes, Entry[] entries) {
+      this.startTimes = startTimes;
+      this.endTimes = endTimes;
+      this.entries = entries;
+      this.maxEndTimes = new long[startTimes.length];
+      buildMaxEndTimes(0, startTimes.length);
+    }
+
+    private long buildMaxEndTimes(int low, int high) {
+      if (low >= high) {
+        return Long.MIN_VALUE;
+      }
+      int mid = (low + high) >>> 1;
+      maxEndTimes[mid] =
+          Math.max(
+              endTimes[mid], Math.max(buildMaxEndTimes(low, mid), buildMaxEndTimes(mid + 1, high)));
+      return maxEndTimes[mid];
+    }
+
+    /** Collect the entries of the intervals overlapping [startTime, endTime]. */
+    private void collect(long startTime, long endTime, List<Entry> result) {
+      collect(0, startTimes.length, startTime, endTime, result);
+    }
+
+    private void collect(int low, int high, long startTime, long endTime, List<Entry> result) {
+      if (low >= high) {
+        return;
+      }
+      int mid = (low + high) >>> 1;
+      if (maxEndTimes[mid] < startTime) {
+        // no interval in this subtree ends after startTime
+        return;
+      }
+      collect(low, mid, startTime, endTime, result);
+      if (startTimes[mid] > endTime) {
+        // mid and the right subtree start after endTime
+        return;
+      }
+      if (endTimes[mid] >= startTime) {
+        result.add(entries[mid]);
+      }
+      collect(mid + 1, high, startTime, endTime, result);
+    }
+
+    private static class Builder {
+
+      private long[] startTimes = new long[4];
+      private long[] endTimes = new long[4];
+      private Entry[] entries = new Entry[4];
+      private int size = 0;
+
+      private void add(long startTime, long endTime, Entry entry) {
+        if (size == startTimes.length) {
+          startTimes = Arrays.copyOf(startTimes, size * 2);
+          endTimes = Arrays.copyOf(endTimes, size * 2);
+          entries = Arrays.copyOf(entries, size * 2);
+        }
+        startTimes[size] = startTime;
+        endTimes[size] = endTime;
+        entries[size] = entry;
+        size++;
+      }
+
+      private IntervalTree build() {
+        int[] order =
+            IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.comparingLong(i -> startTimes[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        long[] sortedStartTimes = new long[size];
+        long[] sortedEndTimes = new long[size];
+        Entry[] sortedEntries = new Entry[size];
+        for (int i = 0; i < size; i++) {
+          sortedStartTimes[i] = startTimes[order[i]];
+          sortedEndTimes[i] = endTimes[order[i]];
+          sortedEntries[i] = entries[order[i]];
+        }
+        return new IntervalTree(sortedStartTimes, sortedEndTimes, sortedEntries);
+      }
+    }
+  }
+}
@@ -25,6 +25,8 @@ import org.apache.iotdb.db.storageengine.dataregion.modification.PartitionLevelM
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndexCacheRecorder;
 import org.apache.iotdb.db.storageengine.rescon.memory.TsFileResourceManager;
 
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.common.TimeRange;
 import org.apache.tsfile.read.filter.basic.Filter;
 
 import java.io.IOException;
@@ -98,6 +100,52 @@ public class TsFileManager {
     }
   }
 
+  /**
+   * Get the TsFiles which may contain data of the device in the time range of the filter, selected
+   * by the interval indexes of the time partitions. The selected TsFiles still need to be checked
+   * by {@link TsFileResource#isSatisfied}.
+   *
+   * @param sequence {@code true} for sequence, {@code false} for unsequence
+   * @param timePartitions {@code null} for all time partitions, empty for zero time partitions
+   * @param deviceId {@code null} for any device
+   */
+  public List<TsFileResource> getTsFileListByIntervalIndex(
+      boolean sequence, List<Long> timePartitions, Filter timeFilter, IDeviceID deviceId) {
+    long startTime = Long.MIN_VALUE;
+    long endTime = Long.MAX_VALUE;
+    if (timeFilter != null) {
+      List<TimeRange> timeRanges = timeFilter.getTimeRanges();
+      if (!timeRanges.isEmpty()) {
+        startTime = timeRanges.get(0).getMin();
+        endTime = timeRanges.get(timeRanges.size() - 1).getMax();
+      }
+    }
+    readLock();
+    try {
+      List<TsFileResource> selectedResources = new ArrayList<>();
+      Map<Long, TsFileResourceList> chosenMap = sequence ? sequenceFiles : unsequenceFiles;
+      if (timePartitions == null) {
+        for (Map.Entry<Long, TsFileResourceList> entry : chosenMap.entrySet()) {
+          if (TimePartitionUtils.satisfyTimePartition(timeFilter, entry.getKey())) {
+            selectedResources.addAll(
+                entry.getValue().getIntervalIndex().select(deviceId, startTime, endTime));
+          }
+        }
+      } else {
+        for (Long timePartitionId : timePartitions) {
+          TsFileResourceList tsFileResources = chosenMap.get(timePartitionId);
+          if (tsFileResources != null) {
+            selectedResources.addAll(
+                tsFileResources.getIntervalIndex().select(deviceId, startTime, endTime));
+          }
+        }
+      }
+      return selectedResources;
+    } finally {
+      readUnlock();
+    }
+  }
+
   public List<TsFileResource> getTsFileListSnapshot(long timePartition, boolean sequence) {
     readLock();
     try {
@@ -315,6 +363,9 @@ public class TsFileManager {
   public void clear() {
     writeLock("clear");
     try {
+      // release the memory reserved by the interval indexes of the lists
+      sequenceFiles.values().forEach(TsFileResourceList::clear);
+      unsequenceFiles.values().forEach(TsFileResourceList::clear);
       sequenceFiles.clear();
       unsequenceFiles.clear();
     } finally {
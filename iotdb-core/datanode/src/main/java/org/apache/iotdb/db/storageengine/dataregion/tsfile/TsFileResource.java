@@ -32,6 +32,7 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.load.PartitionViolationException;
 import org.apache.iotdb.db.pipe.extractor.dataregion.realtime.assigner.PipeTimePartitionProgressIndexKeeper;
 import org.apache.iotdb.db.schemaengine.schemaregion.utils.ResourceByPathUtils;
+import org.apache.iotdb.db.storageengine.buffer.DeviceTimeIndexCache;
 import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.selector.utils.InsertionCompactionCandidateStatus;
 import org.apache.iotdb.db.storageengine.dataregion.memtable.ReadOnlyMemChunk;
@@ -43,6 +44,7 @@ import org.apache.iotdb.db.storageengine.dataregion.modification.TreeDeletionEnt
 import org.apache.iotdb.db.storageengine.dataregion.modification.v1.Deletion;
 import org.apache.iotdb.db.storageengine.dataregion.modification.v1.Modification;
 import org.apache.iotdb.db.storageengine.dataregion.modification.v1.ModificationFileV1;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ArrayDeviceTimeIndex;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndex;
@@ -785,6 +787,7 @@ public class TsFileResource implements PersistentResource {
    */
   public boolean remove() {
     forceMarkDeleted();
+    FileReaderManager.getInstance().closeIdleReader(getTsFilePath());
     try {
       fsFactory.deleteIfExists(file);
       fsFactory.deleteIfExists(
@@ -946,7 +949,11 @@ public class TsFileResource implements PersistentResource {
    * @return true if the device is contained in the TsFile
    */
   public boolean isSatisfied(IDeviceID deviceId, Filter timeFilter, boolean isSeq, boolean debug) {
-    if (deviceId != null && definitelyNotContains(deviceId)) {
+    ArrayDeviceTimeIndex degradedTimeIndex = getDegradedDeviceTimeIndex(deviceId);
+    if (deviceId != null
+        && (degradedTimeIndex != null
+            ? degradedTimeIndex.definitelyNotContains(deviceId)
+            : definitelyNotContains(deviceId))) {
       if (debug) {
         DEBUG_LOGGER.info(
             "Path: {} file {} is not satisfied because of no device!", deviceId, file);
@@ -954,8 +961,15 @@ public class TsFileResource implements PersistentResource {
       return false;
     }
 
-    long startTime = getStartTime(deviceId);
-    long endTime = isClosed() || !isSeq ? getEndTime(deviceId) : Long.MAX_VALUE;
+    long startTime;
+    long endTime;
+    if (degradedTimeIndex != null) {
+      startTime = degradedTimeIndex.getStartTime(deviceId);
+      endTime = degradedTimeIndex.getEndTime(deviceId);
+    } else {
+      startTime = getStartTime(deviceId);
+      endTime = isClosed() || !isSeq ? getEndTime(deviceId) : Long.MAX_VALUE;
+    }
     if (startTime > endTime) {
       // startTime > endTime indicates that there is something wrong with this TsFile. Return false
       // directly, or it may lead to infinite loop in GroupByMonthFilter#getTimePointPosition.
@@ -980,6 +994,25 @@ public class TsFileResource implements PersistentResource {
     return true;
   }
 
+  /**
+   * Get the device time index of this sealed file from the {@link DeviceTimeIndexCache} if its time
+   * index has been degraded to {@link FileTimeIndex}, so that it can still be pruned by device. This
+   * is called under the read lock of the data region, so a cache miss doesn't read the .resource
+   * file here, but loads it in the background for the following queries.
+   *
+   * @return null if the time index of this file is not degraded, the cache is disabled, or the
+   *     device time index is not cached yet
+   */
+  private ArrayDeviceTimeIndex getDegradedDeviceTimeIndex(IDeviceID deviceId) {
+    if (deviceId == null
+        || !DeviceTimeIndexCache.isCacheEnable()
+        || !isClosed()
+        || getTimeIndexType() != ITimeIndex.FILE_TIME_INDEX_TYPE) {
+      return null;
+    }
+    return DeviceTimeIndexCache.getInstance().get(this);
+  }
+
   /**
    * @return whether the given time falls in ttl
    */
@@ -40,6 +40,9 @@ public class TsFileResourceList implements List<TsFileResource> {
   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   private int count = 0;
 
+  // created by the first query using it, and then updated by every modification
+  private volatile TsFileIntervalIndex intervalIndex;
+
   /**
    * Insert a new node before an existing node
    *
@@ -59,6 +62,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.prev = newNode;
     count++;
+    onInserted(newNode);
   }
 
   /**
@@ -77,6 +81,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.next = newNode;
     count++;
+    onInserted(newNode);
   }
 
   @Override
@@ -126,6 +131,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      onInserted(newNode);
     } else {
       insertAfter(tail, newNode);
     }
@@ -147,6 +153,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      onInserted(newNode);
     } else {
       TsFileNameGenerator.TsFileName newTsFileName =
           TsFileNameGenerator.getTsFileName(newNode.getTsFile().getName());
@@ -221,6 +228,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     tsFileResource.prev = null;
     tsFileResource.next = null;
     count--;
+    onRemoved(tsFileResource);
     return true;
   }
 
@@ -246,6 +254,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     header = null;
     tail = null;
     count = 0;
+    closeIntervalIndex();
   }
 
   @Override
@@ -353,6 +362,48 @@ public class TsFileResourceList implements List<TsFileResource> {
     throw new NotImplementedException();
   }
 
+  private void onInserted(TsFileResource resource) {
+    TsFileIntervalIndex index = intervalIndex;
+    if (index != null) {
+      index.onInserted(resource);
+    }
+  }
+
+  private void onRemoved(TsFileResource resource) {
+    TsFileIntervalIndex index = intervalIndex;
+    if (index != null) {
+      index.onRemoved(resource);
+    }
+  }
+
+  private synchronized void closeIntervalIndex() {
+    TsFileIntervalIndex index = intervalIndex;
+    if (index != null) {
+      intervalIndex = null;
+      // release the memory it reserved and the removed resources it refers to
+      index.close();
+    }
+  }
+
+  /**
+   * Get the interval index of the resources in this list, which is created when it is first used
+   * and then kept up to date by every modification of the list. The caller should hold the read
+   * lock of the TsFileManager, and the modifications are made under its write lock.
+   */
+  public TsFileIntervalIndex getIntervalIndex() {
+    TsFileIntervalIndex index = intervalIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = intervalIndex;
+        if (index == null) {
+          index = new TsFileIntervalIndex(getArrayList());
+          intervalIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+
   public List<TsFileResource> getArrayList() {
     List<TsFileResource> list = new ArrayList<>();
     TsFileResource current = header;
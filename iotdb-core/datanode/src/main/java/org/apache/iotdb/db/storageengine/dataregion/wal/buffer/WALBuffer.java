@@ -121,6 +121,15 @@ public class WALBuffer extends AbstractWALBuffer {
   // manage wal files which have MemTableIds
   private final Map<Long, Set<Long>> memTableIdsOfWal = new ConcurrentHashMap<>();
 
+  // whether WALEntries are serialized by writers and the fsync delay is adaptive
+  private final boolean enableGroupCommit = config.isEnableWALGroupCommit();
+
+  // smoothed interval between the submissions of two WALEntries in group commit mode, negative
+  // before any interval is observed, only accessed by serializeThread
+  private long avgSubmitIntervalInNs = -1;
+  // submission time of the last WALEntry taken by serializeThread
+  private long lastSubmitTimeInNs = 0;
+
   public WALBuffer(String identifier, String logDirectory) throws IOException {
     this(identifier, logDirectory, new CheckpointManager(identifier, logDirectory), 0, 0L);
   }
@@ -202,6 +211,10 @@ public class WALBuffer extends AbstractWALBuffer {
       walEntry.getWalFlushListener().fail(new WALNodeClosedException(identifier));
       return;
     }
+    walEntry.getWalFlushListener().setSubmitTimeInNs(System.nanoTime());
+    if (enableGroupCommit) {
+      serializeInAdvance(walEntry);
+    }
     // just add this WALEntry to queue
     try {
       walEntries.put(walEntry);
@@ -211,6 +224,101 @@ public class WALBuffer extends AbstractWALBuffer {
     }
   }
 
+  /**
+   * Serialize WALEntry in the writing thread, so that writers serialize their WALEntries in
+   * parallel and serializeThread only needs to copy the bytes into workingBuffer.
+   */
+  private void serializeInAdvance(WALEntry walEntry) {
+    if (walEntry.isSignal()
+        || walEntry.getType() == WALEntryType.MEMORY_TABLE_CHECKPOINT
+        || walEntry.getType() == WALEntryType.MEMORY_TABLE_SNAPSHOT) {
+      return;
+    }
+    int estimatedSize = walEntry.serializedSize();
+    // huge WALEntries are still serialized into workingBuffer directly to limit memory usage
+    if (estimatedSize > ONE_THIRD_WAL_BUFFER_SIZE) {
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(estimatedSize);
+    try {
+      walEntry.serialize(new HeapByteBufferView(buffer));
+    } catch (Exception e) {
+      // leave it to serializeThread, which reports the failure to the listener
+      return;
+    }
+    buffer.flip();
+    walEntry.setSerializedBuffer(buffer);
+  }
+
+  /** This view serializes a WALEntry into a heap buffer which is large enough. */
+  private static class HeapByteBufferView extends IWALByteBufferView {
+    private final ByteBuffer buffer;
+
+    private HeapByteBufferView(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+      buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+      buffer.put(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      buffer.put(b, off, len);
+    }
+
+    @Override
+    public void put(byte b) {
+      buffer.put(b);
+    }
+
+    @Override
+    public void put(byte[] src) {
+      buffer.put(src);
+    }
+
+    @Override
+    public void putChar(char value) {
+      buffer.putChar(value);
+    }
+
+    @Override
+    public void putShort(short value) {
+      buffer.putShort(value);
+    }
+
+    @Override
+    public void putInt(int value) {
+      buffer.putInt(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+      buffer.putLong(value);
+    }
+
+    @Override
+    public void putFloat(float value) {
+      buffer.putFloat(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+      buffer.putDouble(value);
+    }
+
+    @Override
+    public int position() {
+      return buffer.position();
+    }
+  }
+
   // region Task of serializeThread
   /** This info class traverses some extra info from serializeThread to syncBufferThread. */
   private static class SerializeInfo {
@@ -260,12 +368,17 @@ public class WALBuffer extends AbstractWALBuffer {
         WALEntry walEntry = null;
         try {
           // for better fsync performance, wait a while to enlarge write batch
-          if (config.getWalMode().equals(WALMode.ASYNC)) {
+          long fsyncDelayInMs =
+              config.getWalMode().equals(WALMode.ASYNC)
+                  ? config.getWalAsyncModeFsyncDelayInMs()
+                  : config.getWalSyncModeFsyncDelayInMs();
+          if (enableGroupCommit) {
             walEntry =
-                walEntries.poll(config.getWalAsyncModeFsyncDelayInMs(), TimeUnit.MILLISECONDS);
+                walEntries.poll(
+                    getAdaptiveFsyncDelayInNs(TimeUnit.MILLISECONDS.toNanos(fsyncDelayInMs)),
+                    TimeUnit.NANOSECONDS);
           } else {
-            walEntry =
-                walEntries.poll(config.getWalSyncModeFsyncDelayInMs(), TimeUnit.MILLISECONDS);
+            walEntry = walEntries.poll(fsyncDelayInMs, TimeUnit.MILLISECONDS);
           }
         } catch (InterruptedException e) {
           logger.warn(
@@ -297,6 +410,9 @@ public class WALBuffer extends AbstractWALBuffer {
      *     should be ended.
      */
     private boolean handleWALEntry(WALEntry walEntry) {
+      if (enableGroupCommit) {
+        updateSubmitInterval(walEntry.getWalFlushListener().getSubmitTimeInNs());
+      }
       if (walEntry.isSignal()) {
         return handleSignalEntry((WALSignalEntry) walEntry);
       }
@@ -315,7 +431,14 @@ public class WALBuffer extends AbstractWALBuffer {
       int startPosition = byteBufferView.position();
       int size;
       try {
-        walEntry.serialize(byteBufferView);
+        ByteBuffer serializedBuffer = walEntry.getSerializedBuffer();
+        if (serializedBuffer != null) {
+          byteBufferView.write(
+              serializedBuffer.array(), serializedBuffer.arrayOffset(), serializedBuffer.limit());
+          walEntry.setSerializedBuffer(null);
+        } else {
+          walEntry.serialize(byteBufferView);
+        }
         size = byteBufferView.position() - startPosition;
       } catch (Exception e) {
         logger.error(
@@ -379,6 +502,32 @@ public class WALBuffer extends AbstractWALBuffer {
           return false;
       }
     }
+
+    private void updateSubmitInterval(long submitTimeInNs) {
+      if (submitTimeInNs <= 0) {
+        return;
+      }
+      if (lastSubmitTimeInNs > 0) {
+        long interval = Math.max(0, submitTimeInNs - lastSubmitTimeInNs);
+        // exponentially weighted moving average, the weight of the new interval is 1/8
+        avgSubmitIntervalInNs =
+            avgSubmitIntervalInNs < 0
+                ? interval
+                : avgSubmitIntervalInNs + ((interval - avgSubmitIntervalInNs) >> 3);
+      }
+      lastSubmitTimeInNs = submitTimeInNs;
+    }
+
+    /**
+     * Wait for the next WALEntry only when it's likely to arrive before the max delay, otherwise
+     * waiting just adds latency to the WALEntries of this batch.
+     */
+    private long getAdaptiveFsyncDelayInNs(long maxDelayInNs) {
+      if (avgSubmitIntervalInNs < 0 || avgSubmitIntervalInNs > maxDelayInNs) {
+        return 0;
+      }
+      return Math.min(maxDelayInNs, avgSubmitIntervalInNs << 1);
+    }
   }
 
   /**
@@ -398,6 +547,24 @@ public class WALBuffer extends AbstractWALBuffer {
       put(b);
     }
 
+    @Override
+    public void write(byte[] b, int off, int len) {
+      int offset = off;
+      int leftLength = len;
+      while (true) {
+        int leftCapacity = workingBuffer.remaining();
+        if (leftCapacity >= leftLength) {
+          workingBuffer.put(b, offset, leftLength);
+          break;
+        } else {
+          workingBuffer.put(b, offset, leftCapacity);
+          offset += leftCapacity;
+          leftLength -= leftCapacity;
+          rollBuffer();
+        }
+      }
+    }
+
     private void ensureEnoughSpace(int bytesNum) {
       if (workingBuffer.remaining() < bytesNum) {
         rollBuffer();
@@ -605,8 +772,13 @@ public class WALBuffer extends AbstractWALBuffer {
       // notify all waiting listeners
       if (forceSuccess) {
         long position = lastFsyncPosition;
+        long fsyncTime = System.nanoTime();
+        WRITING_METRICS.recordWALGroupCommitBatchSize(info.fsyncListeners.size());
         for (WALFlushListener fsyncListener : info.fsyncListeners) {
           fsyncListener.succeed();
+          if (fsyncListener.getSubmitTimeInNs() > 0) {
+            WRITING_METRICS.recordWALCommitLatency(fsyncTime - fsyncListener.getSubmitTimeInNs());
+          }
           if (fsyncListener.getWalEntryHandler() != null) {
             fsyncListener.getWalEntryHandler().setEntryPosition(walFileVersionId, position);
             position += fsyncListener.getWalEntryHandler().getSize();
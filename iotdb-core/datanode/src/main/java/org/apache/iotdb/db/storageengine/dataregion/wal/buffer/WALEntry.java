@@ -57,6 +57,8 @@ public abstract class WALEntry implements SerializedSize {
   // listen whether this WALEntry has been written to the filesystem
   // null iff this WALEntry is deserialized from .wal file
   protected final WALFlushListener walFlushListener;
+  // bytes of this WALEntry serialized by the writing thread in advance, null if not serialized yet
+  private ByteBuffer serializedBuffer;
 
   protected WALEntry(long memTableId, WALEntryValue value, boolean wait) {
     this.memTableId = memTableId;
@@ -195,6 +197,22 @@ public abstract class WALEntry implements SerializedSize {
     return walFlushListener;
   }
 
+  ByteBuffer getSerializedBuffer() {
+    return serializedBuffer;
+  }
+
+  void setSerializedBuffer(ByteBuffer serializedBuffer) {
+    this.serializedBuffer = serializedBuffer;
+  }
+
+  /**
+   * @return bytes held by the buffer serialized in advance, 0 if this WALEntry is not serialized in
+   *     advance
+   */
+  public long getSerializedBufferSize() {
+    return serializedBuffer == null ? 0 : serializedBuffer.capacity();
+  }
+
   public abstract boolean isSignal();
 
   public abstract long getMemorySize();
@@ -24,10 +24,12 @@ import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALEntryPosition;
 
 import java.io.Closeable;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.util.Set;
 
 /**
  * This reader returns {@link WALEntry} as {@link ByteBuffer}, the usage of WALByteBufReader is like
@@ -37,6 +39,8 @@ public class WALByteBufReader implements Closeable {
   private WALMetaData metaData;
   private DataInputStream logStream;
   private Iterator<Integer> sizeIterator;
+  // wal entry type 1 byte, memTable id 8 bytes, see WALInfoEntry#serialize
+  private final ByteBuffer entryHeaderBuffer = ByteBuffer.allocate(Byte.BYTES + Long.BYTES);
 
   public WALByteBufReader(File logFile) throws IOException {
     WALInputStream walInputStream = new WALInputStream(logFile);
@@ -85,6 +89,38 @@ public class WALByteBufReader implements Closeable {
     return buffer;
   }
 
+  /**
+   * Like {@link #next()}, but WALEntries not belonging to the given memTables are skipped without
+   * being copied out of the wal file.
+   *
+   * @return null if next WALEntry is skipped
+   * @throws IOException when failing to read from channel.
+   */
+  public ByteBuffer nextOfMemTables(Set<Long> memTableIds) throws IOException {
+    int size = sizeIterator.next();
+    int headerSize = entryHeaderBuffer.capacity();
+    if (size < headerSize) {
+      logStream.skipBytes(size);
+      return null;
+    }
+    logStream.readFully(entryHeaderBuffer.array(), 0, headerSize);
+    if (!memTableIds.contains(entryHeaderBuffer.getLong(Byte.BYTES))) {
+      long toBeSkipped = (long) size - headerSize;
+      while (toBeSkipped > 0) {
+        long skipped = logStream.skip(toBeSkipped);
+        if (skipped <= 0) {
+          throw new EOFException("Reach the end offset of wal file");
+        }
+        toBeSkipped -= skipped;
+      }
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    System.arraycopy(entryHeaderBuffer.array(), 0, buffer.array(), 0, headerSize);
+    logStream.readFully(buffer.array(), headerSize, size - headerSize);
+    return buffer;
+  }
+
   public WALMetaData getMetaData() {
     return metaData;
   }
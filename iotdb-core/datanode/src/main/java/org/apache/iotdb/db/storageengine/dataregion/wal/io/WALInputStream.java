@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.storageengine.dataregion.wal.io;
 
 import org.apache.iotdb.commons.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.utils.MmapUtil;
 
@@ -32,6 +33,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
@@ -49,6 +51,15 @@ public class WALInputStream extends InputStream implements AutoCloseable {
   private ByteBuffer dataBuffer = null;
   private ByteBuffer compressedBuffer = null;
   private final long fileSize;
+
+  /*
+   The whole wal file mapped into memory, null if the file is read by the channel. Uncompressed
+   segments are read from this mapping without copying, and compressed segments are decompressed
+   from it into the reusable dataBuffer directly.
+  */
+  private MappedByteBuffer mappedFile = null;
+  // true if dataBuffer is a slice of mappedFile, which must not be cleaned
+  private boolean dataBufferMapped = false;
   File logFile;
   /*
    The WAL file consist of following parts:
@@ -61,12 +72,19 @@ public class WALInputStream extends InputStream implements AutoCloseable {
   WALFileVersion version;
 
   public WALInputStream(File logFile) throws IOException {
+    this(logFile, IoTDBDescriptor.getInstance().getConfig().isEnableWALMmapRead());
+  }
+
+  public WALInputStream(File logFile, boolean useMmap) throws IOException {
     channel = FileChannel.open(logFile.toPath());
     this.logFile = logFile;
     try {
       fileSize = channel.size();
       analyzeFileVersion();
       getEndOffset();
+      if (useMmap && version == WALFileVersion.V2 && fileSize <= Integer.MAX_VALUE) {
+        mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+      }
     } catch (Exception e) {
       channel.close();
       throw e;
@@ -167,12 +185,60 @@ public class WALInputStream extends InputStream implements AutoCloseable {
     return len;
   }
 
+  /**
+   * Skip bytes of the uncompressed wal data. Segments fully covered by the skipped range are jumped
+   * over by their headers without being read or decompressed.
+   */
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+    while (skipped < n) {
+      if (Objects.isNull(dataBuffer) || dataBuffer.position() >= dataBuffer.limit()) {
+        if (channel.position() >= endOffset) {
+          break;
+        }
+        long skippedSegmentSize = skipNextSegmentIfCovered(n - skipped);
+        if (skippedSegmentSize > 0) {
+          skipped += skippedSegmentSize;
+          continue;
+        }
+        loadNextSegment();
+      }
+      int bytesSkipped = (int) Math.min(dataBuffer.remaining(), n - skipped);
+      dataBuffer.position(dataBuffer.position() + bytesSkipped);
+      skipped += bytesSkipped;
+    }
+    return skipped;
+  }
+
+  /**
+   * @return the uncompressed size of next segment if it is skipped, or 0 if it is not fully covered
+   *     by the bytes to be skipped
+   */
+  private long skipNextSegmentIfCovered(long bytesToSkip) throws IOException {
+    if (version != WALFileVersion.V2) {
+      return 0;
+    }
+    long originPosition = channel.position();
+    SegmentInfo segmentInfo = getNextSegmentInfo();
+    if (segmentInfo.uncompressedSize > 0 && segmentInfo.uncompressedSize <= bytesToSkip) {
+      channel.position(channel.position() + segmentInfo.dataInDiskSize);
+      return segmentInfo.uncompressedSize;
+    }
+    channel.position(originPosition);
+    return 0;
+  }
+
   @Override
   public void close() throws IOException {
     channel.close();
-    MmapUtil.clean(dataBuffer);
+    if (!dataBufferMapped) {
+      MmapUtil.clean(dataBuffer);
+    }
     MmapUtil.clean(compressedBuffer);
+    MmapUtil.clean(mappedFile);
     dataBuffer = null;
+    mappedFile = null;
   }
 
   @Override
@@ -217,6 +283,14 @@ public class WALInputStream extends InputStream implements AutoCloseable {
 
   private void loadNextSegmentV2() throws IOException {
     SegmentInfo segmentInfo = getNextSegmentInfo();
+    if (mappedFile != null) {
+      loadNextSegmentFromMappedFile(segmentInfo);
+      return;
+    }
+    if (dataBufferMapped) {
+      dataBuffer = null;
+      dataBufferMapped = false;
+    }
     if (segmentInfo.compressionType != CompressionType.UNCOMPRESSED) {
       // A compressed segment
       if (Objects.isNull(dataBuffer)
@@ -261,6 +335,42 @@ public class WALInputStream extends InputStream implements AutoCloseable {
     dataBuffer.flip();
   }
 
+  private void loadNextSegmentFromMappedFile(SegmentInfo segmentInfo) throws IOException {
+    long startPosition = channel.position();
+    if (startPosition + segmentInfo.dataInDiskSize > mappedFile.limit()) {
+      throw new IOException("Unexpected end of file");
+    }
+    ByteBuffer segment = mappedFile.duplicate();
+    segment.position((int) startPosition);
+    segment.limit((int) startPosition + segmentInfo.dataInDiskSize);
+    segment = segment.slice();
+    channel.position(startPosition + segmentInfo.dataInDiskSize);
+
+    if (segmentInfo.compressionType == CompressionType.UNCOMPRESSED) {
+      // read the mapped segment directly
+      if (!dataBufferMapped) {
+        MmapUtil.clean(dataBuffer);
+      }
+      dataBuffer = segment;
+      dataBufferMapped = true;
+      return;
+    }
+    if (dataBufferMapped
+        || Objects.isNull(dataBuffer)
+        || dataBuffer.capacity() < segmentInfo.uncompressedSize
+        || dataBuffer.capacity() > segmentInfo.uncompressedSize * 2) {
+      if (!dataBufferMapped) {
+        MmapUtil.clean(dataBuffer);
+      }
+      dataBuffer = ByteBuffer.allocateDirect(segmentInfo.uncompressedSize);
+      dataBufferMapped = false;
+    }
+    dataBuffer.clear();
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(segmentInfo.compressionType);
+    uncompressWALBuffer(segment, dataBuffer, unCompressor);
+    dataBuffer.flip();
+  }
+
   private void tryLoadSegment() throws IOException {
     long originPosition = channel.position();
     try {
@@ -298,6 +408,10 @@ public class WALInputStream extends InputStream implements AutoCloseable {
         }
       } while (posRemain >= 0);
 
+      if (dataBufferMapped) {
+        dataBuffer = null;
+        dataBufferMapped = false;
+      }
       if (segmentInfo.compressionType != CompressionType.UNCOMPRESSED) {
         compressedBuffer = ByteBuffer.allocateDirect(segmentInfo.dataInDiskSize);
         readWALBufferFromChannel(compressedBuffer);
@@ -315,6 +429,7 @@ public class WALInputStream extends InputStream implements AutoCloseable {
       dataBuffer.position((int) posRemain);
     } else {
       dataBuffer = null;
+      dataBufferMapped = false;
       channel.position(pos);
     }
   }
@@ -346,6 +461,9 @@ public class WALInputStream extends InputStream implements AutoCloseable {
   }
 
   private SegmentInfo getNextSegmentInfo() throws IOException {
+    if (mappedFile != null) {
+      return getNextSegmentInfoFromMappedFile();
+    }
     segmentHeaderWithoutCompressedSizeBuffer.clear();
     channel.read(segmentHeaderWithoutCompressedSizeBuffer);
     segmentHeaderWithoutCompressedSizeBuffer.flip();
@@ -364,6 +482,26 @@ public class WALInputStream extends InputStream implements AutoCloseable {
     return info;
   }
 
+  private SegmentInfo getNextSegmentInfoFromMappedFile() throws IOException {
+    int position = (int) channel.position();
+    if (position + Byte.BYTES + Integer.BYTES > mappedFile.limit()) {
+      throw new IOException("Unexpected end of file");
+    }
+    SegmentInfo info = new SegmentInfo();
+    info.compressionType = CompressionType.deserialize(mappedFile.get(position));
+    info.dataInDiskSize = mappedFile.getInt(position + Byte.BYTES);
+    if (info.compressionType != CompressionType.UNCOMPRESSED) {
+      if (position + info.headerSize() > mappedFile.limit()) {
+        throw new IOException("Unexpected end of file");
+      }
+      info.uncompressedSize = mappedFile.getInt(position + Byte.BYTES + Integer.BYTES);
+    } else {
+      info.uncompressedSize = info.dataInDiskSize;
+    }
+    channel.position(position + (long) info.headerSize());
+    return info;
+  }
+
   private int readWALBufferFromChannel(ByteBuffer buffer) throws IOException {
     long startTime = System.nanoTime();
     int size = channel.read(buffer);
@@ -266,14 +266,11 @@ public class WALNodeRecoverTask implements Runnable {
           continue;
         }
         while (reader.hasNext()) {
-          ByteBuffer buffer = reader.next();
-          // see WALInfoEntry#serialize, entry type
-          buffer.position(Byte.BYTES);
-          long memTableId = buffer.getLong();
-          if (!memTableId2Info.containsKey(memTableId)) {
+          // entries of other memTables are skipped without being copied
+          ByteBuffer buffer = reader.nextOfMemTables(memTableId2Info.keySet());
+          if (buffer == null) {
             continue;
           }
-          buffer.clear();
           WALEntry walEntry =
               WALEntry.deserialize(new DataInputStream(new ByteArrayInputStream(buffer.array())));
           UnsealedTsFileRecoverPerformer recoverPerformer =
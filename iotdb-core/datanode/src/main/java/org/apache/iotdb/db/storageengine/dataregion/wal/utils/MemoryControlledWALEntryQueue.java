@@ -76,6 +76,8 @@ public class MemoryControlledWALEntryQueue {
   }
 
   private long getElementSize(WALEntry walEntry) {
-    return walEntry.getMemorySize();
+    // the buffer serialized in advance is only released after the WALEntry leaves the queue, so
+    // the size stays the same between put and poll
+    return walEntry.getMemorySize() + walEntry.getSerializedBufferSize();
   }
 }
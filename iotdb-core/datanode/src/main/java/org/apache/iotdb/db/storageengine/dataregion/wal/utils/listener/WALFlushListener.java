@@ -26,6 +26,8 @@ import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALEntryHandler;
 public class WALFlushListener extends AbstractResultListener {
   // handler for pipeline, only exists when value is InsertNode
   private final WALEntryHandler walEntryHandler;
+  // time when the wal entry is submitted to the wal buffer, used to measure the commit latency
+  private long submitTimeInNs = 0;
 
   public WALFlushListener(boolean wait, WALEntryValue value) {
     super(wait);
@@ -35,4 +37,12 @@ public class WALFlushListener extends AbstractResultListener {
   public WALEntryHandler getWalEntryHandler() {
     return walEntryHandler;
   }
+
+  public long getSubmitTimeInNs() {
+    return submitTimeInNs;
+  }
+
+  public void setSubmitTimeInNs(long submitTimeInNs) {
+    this.submitTimeInNs = submitTimeInNs;
+  }
 }
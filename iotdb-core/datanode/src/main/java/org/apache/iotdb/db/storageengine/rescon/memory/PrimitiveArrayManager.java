@@ -22,14 +22,18 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.utils.datastructure.TVListSortAlgorithm;
 
+import io.netty.util.internal.PlatformDependent;
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.utils.Binary;
 import org.apache.tsfile.write.UnSupportedDataTypeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayDeque;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 /** Manage all primitive data lists in memory, including get and release operations. */
@@ -43,6 +47,10 @@ public class PrimitiveArrayManager {
 
   public static final TVListSortAlgorithm TVLIST_SORT_ALGORITHM = CONFIG.getTvListSortAlgorithm();
 
+  public static final boolean ENABLE_OFF_HEAP_TVLIST = CONFIG.isEnableOffHeapTVList();
+
+  private static final int POOL_SHARD_NUM = CONFIG.getPrimitiveArrayPoolShardNum();
+
   /**
    * The actual used memory will be 50% larger than the statistic, so we need to limit the size of
    * POOLED_ARRAYS_MEMORY_THRESHOLD, make it smaller than its actual allowed value.
@@ -55,10 +63,41 @@ public class PrimitiveArrayManager {
           * CONFIG.getBufferedArraysMemoryProportion()
           / AMPLIFICATION_FACTOR;
 
-  /** TSDataType#serialize() -> ArrayDeque<Array>, VECTOR and UNKNOWN are ignored */
-  private static final ArrayDeque[] POOLED_ARRAYS = new ArrayDeque[TSDataType.values().length];
+  /**
+   * Share of POOLED_ARRAYS_MEMORY_THRESHOLD given to the off-heap slabs if off-heap TVLists are
+   * enabled. The heap arrays and the slabs are pooled within separate budgets, so that enabling
+   * off-heap TVLists doesn't enlarge the total pooled memory.
+   */
+  private static final double OFF_HEAP_POOLED_MEMORY_PROPORTION = ENABLE_OFF_HEAP_TVLIST ? 0.5 : 0;
+
+  /** threshold total size of heap arrays for all data types */
+  private static final double POOLED_HEAP_ARRAYS_MEMORY_THRESHOLD =
+      POOLED_ARRAYS_MEMORY_THRESHOLD * (1 - OFF_HEAP_POOLED_MEMORY_PROPORTION);
+
+  /** max number of pooled off-heap slabs of each element width */
+  private static final int OFF_HEAP_SLAB_LIMIT =
+      (int)
+          (POOLED_ARRAYS_MEMORY_THRESHOLD
+              * OFF_HEAP_POOLED_MEMORY_PROPORTION
+              / ARRAY_SIZE
+              / (Integer.BYTES + Long.BYTES));
+
+  /** TSDataType#serialize() -> ShardedArrayPool<Array>, VECTOR and UNKNOWN are ignored */
+  private static final ShardedArrayPool[] POOLED_ARRAYS =
+      new ShardedArrayPool[TSDataType.values().length];
+
+  /**
+   * element width in bytes (4 or 8) -> ShardedArrayPool<ByteBuffer> of direct slabs. Slabs are
+   * untyped, so INT32, DATE and FLOAT share one pool while INT64, TIMESTAMP and DOUBLE share the
+   * other.
+   */
+  @SuppressWarnings("unchecked")
+  private static final ShardedArrayPool<ByteBuffer>[] POOLED_SLABS =
+      new ShardedArrayPool[Long.BYTES + 1];
 
-  /** TSDataType#serialize() -> max size of ArrayDeque<Array>, VECTOR and UNKNOWN are ignored */
+  /**
+   * TSDataType#serialize() -> max size of ShardedArrayPool<Array>, VECTOR and UNKNOWN are ignored
+   */
   private static final int[] LIMITS = new int[TSDataType.values().length];
 
   /** LIMITS should be updated if (TOTAL_ALLOCATION_REQUEST_COUNT.get() > limitUpdateThreshold) */
@@ -81,7 +120,10 @@ public class PrimitiveArrayManager {
   }
 
   private static void init() {
-    LOGGER.info("BufferedArraySizeThreshold is {}", POOLED_ARRAYS_MEMORY_THRESHOLD);
+    LOGGER.info(
+        "BufferedArraySizeThreshold is {}, of which {} for heap arrays",
+        POOLED_ARRAYS_MEMORY_THRESHOLD,
+        POOLED_HEAP_ARRAYS_MEMORY_THRESHOLD);
 
     // POOLED_ARRAYS_MEMORY_THRESHOLD = ∑(datatype[i].getDataTypeSize() * ARRAY_SIZE * LIMITS[i])
     // we init all LIMITS[i] with the same value, so we have
@@ -95,16 +137,19 @@ public class PrimitiveArrayManager {
       totalDataTypeSize += dataType.getDataTypeSize();
     }
     @SuppressWarnings("squid:S3518") // totalDataTypeSize can not be zero
-    double limit = POOLED_ARRAYS_MEMORY_THRESHOLD / ARRAY_SIZE / totalDataTypeSize;
+    double limit = POOLED_HEAP_ARRAYS_MEMORY_THRESHOLD / ARRAY_SIZE / totalDataTypeSize;
     Arrays.fill(LIMITS, (int) limit);
 
     // limitUpdateThreshold = ∑(LIMITS[i])
     limitUpdateThreshold = (long) ((TSDataType.values().length - 2) * limit);
 
     for (int i = 0; i < POOLED_ARRAYS.length; ++i) {
-      POOLED_ARRAYS[i] = new ArrayDeque<>((int) limit);
+      POOLED_ARRAYS[i] = new ShardedArrayPool<>(POOL_SHARD_NUM);
     }
 
+    POOLED_SLABS[Integer.BYTES] = new ShardedArrayPool<>(POOL_SHARD_NUM);
+    POOLED_SLABS[Long.BYTES] = new ShardedArrayPool<>(POOL_SHARD_NUM);
+
     for (AtomicLong allocationRequestCount : ALLOCATION_REQUEST_COUNTS) {
       allocationRequestCount.set(0);
     }
@@ -139,10 +184,7 @@ public class PrimitiveArrayManager {
     ALLOCATION_REQUEST_COUNTS[order].incrementAndGet();
     TOTAL_ALLOCATION_REQUEST_COUNT.incrementAndGet();
 
-    Object array;
-    synchronized (POOLED_ARRAYS[order]) {
-      array = POOLED_ARRAYS[order].poll();
-    }
+    Object array = POOLED_ARRAYS[order].poll();
     if (array == null) {
       array = createPrimitiveArray(dataType);
     }
@@ -175,7 +217,7 @@ public class PrimitiveArrayManager {
       weightedSumOfRatios += dataType.getDataTypeSize() * ratios[dataType.serialize()];
     }
     @SuppressWarnings("squid:S3518") // weightedSumOfRatios can not be zero
-    double limitBase = POOLED_ARRAYS_MEMORY_THRESHOLD / ARRAY_SIZE / weightedSumOfRatios;
+    double limitBase = POOLED_HEAP_ARRAYS_MEMORY_THRESHOLD / ARRAY_SIZE / weightedSumOfRatios;
 
     // LIMITS[i] = limitBase * ratios[i]
     for (int i = 0; i < LIMITS.length; ++i) {
@@ -268,11 +310,56 @@ public class PrimitiveArrayManager {
       throw new UnSupportedDataTypeException(array.getClass().toString());
     }
 
-    synchronized (POOLED_ARRAYS[order]) {
-      ArrayDeque<Object> arrays = POOLED_ARRAYS[order];
-      if (arrays.size() < LIMITS[order]) {
-        arrays.add(array);
-      }
+    POOLED_ARRAYS[order].offer(array, LIMITS[order]);
+  }
+
+  /**
+   * Get or allocate an off-heap slab which can hold {@link #ARRAY_SIZE} values of the given fixed
+   * width data type. The slabs are pooled within their own budget, so they are not counted by the
+   * adaptive limits of the heap arrays.
+   *
+   * @return a direct ByteBuffer in native byte order
+   */
+  public static ByteBuffer allocateOffHeap(TSDataType dataType) {
+    int width = getOffHeapElementWidth(dataType);
+    ByteBuffer slab = POOLED_SLABS[width].poll();
+    if (slab == null) {
+      slab = ByteBuffer.allocateDirect(ARRAY_SIZE * width).order(ByteOrder.nativeOrder());
+    }
+    return slab;
+  }
+
+  /**
+   * This method is called when bringing back an off-heap slab. A slab exceeding the pool limit is
+   * freed immediately if no query holds its TVList, otherwise it is reclaimed by the cleaner of the
+   * buffer once unreachable.
+   *
+   * @param slab off-heap slab to be released
+   * @param unreferenced true if no query holds the TVList owning the slab
+   */
+  public static void releaseOffHeap(ByteBuffer slab, boolean unreferenced) {
+    int width = slab.capacity() / ARRAY_SIZE;
+    if (!POOLED_SLABS[width].offer(slab, OFF_HEAP_SLAB_LIMIT) && unreferenced) {
+      PlatformDependent.freeDirectBuffer(slab);
+    }
+  }
+
+  /**
+   * @return the width in bytes of one element of the given data type in an off-heap slab
+   * @throws UnSupportedDataTypeException if the data type can not be stored off-heap
+   */
+  public static int getOffHeapElementWidth(TSDataType dataType) {
+    switch (dataType) {
+      case INT32:
+      case DATE:
+      case FLOAT:
+        return Integer.BYTES;
+      case INT64:
+      case TIMESTAMP:
+      case DOUBLE:
+        return Long.BYTES;
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
     }
   }
 
@@ -280,6 +367,60 @@ public class PrimitiveArrayManager {
     init();
   }
 
+  /**
+   * @return how many allocations got an array or slab from the pool
+   */
+  public static long getPoolHitCount() {
+    long hitCount = 0;
+    for (ShardedArrayPool<?> pool : getPools()) {
+      hitCount += pool.getHitCount();
+    }
+    return hitCount;
+  }
+
+  /**
+   * @return how many allocations had to create a new array or slab
+   */
+  public static long getPoolMissCount() {
+    long missCount = 0;
+    for (ShardedArrayPool<?> pool : getPools()) {
+      missCount += pool.getMissCount();
+    }
+    return missCount;
+  }
+
+  /**
+   * @return how many times a thread had to wait for the lock of a pool shard
+   */
+  public static long getPoolContentionCount() {
+    long contentionCount = 0;
+    for (ShardedArrayPool<?> pool : getPools()) {
+      contentionCount += pool.getContentionCount();
+    }
+    return contentionCount;
+  }
+
+  /**
+   * @return number of arrays and slabs held by the pool
+   */
+  public static long getPooledArrayNum() {
+    long pooledArrayNum = 0;
+    for (ShardedArrayPool<?> pool : getPools()) {
+      pooledArrayNum += pool.size();
+    }
+    return pooledArrayNum;
+  }
+
+  private static List<ShardedArrayPool<?>> getPools() {
+    List<ShardedArrayPool<?>> pools = new ArrayList<>(POOLED_ARRAYS.length + 2);
+    for (ShardedArrayPool<?> pool : POOLED_ARRAYS) {
+      pools.add(pool);
+    }
+    pools.add(POOLED_SLABS[Integer.BYTES]);
+    pools.add(POOLED_SLABS[Long.BYTES]);
+    return pools;
+  }
+
   /**
    * Get primitive data lists according to data type and size, only for TVList's sorting
    *
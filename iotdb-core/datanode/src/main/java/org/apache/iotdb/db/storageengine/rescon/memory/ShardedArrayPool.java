@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.rescon.memory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A pool of arrays split into shards, each of which is guarded by its own lock. A thread always
+ * starts from the shard picked by its thread id, so concurrent writing threads rarely compete for
+ * the same lock. Only when its own shard is empty (or full) does it try the other shards, skipping
+ * those locked by others. That matters because arrays are mostly allocated by writing threads but
+ * released by flushing threads.
+ *
+ * <p>The limit passed to {@link #offer(Object, int)} bounds the total number of pooled arrays, it
+ * is split evenly over the shards.
+ */
+public class ShardedArrayPool<T> {
+
+  private final Shard<T>[] shards;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder contentionCount = new LongAdder();
+
+  @SuppressWarnings("unchecked")
+  public ShardedArrayPool(int shardNum) {
+    shards = new Shard[Math.max(1, shardNum)];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard<>(contentionCount);
+    }
+  }
+
+  private int getHomeShard() {
+    return (int) (Thread.currentThread().getId() % shards.length);
+  }
+
+  /**
+   * @return a pooled array, or null if there is none
+   */
+  public T poll() {
+    int home = getHomeShard();
+    T array = shards[home].poll(true);
+    for (int i = 1; array == null && i < shards.length; i++) {
+      array = shards[(home + i) % shards.length].poll(false);
+    }
+    if (array == null) {
+      missCount.increment();
+    } else {
+      hitCount.increment();
+    }
+    return array;
+  }
+
+  /**
+   * @param limit max number of arrays in the whole pool
+   * @return whether the array is pooled
+   */
+  public boolean offer(T array, int limit) {
+    int home = getHomeShard();
+    if (shards[home].offer(array, getShardLimit(home, limit), true)) {
+      return true;
+    }
+    for (int i = 1; i < shards.length; i++) {
+      int shard = (home + i) % shards.length;
+      if (shards[shard].offer(array, getShardLimit(shard, limit), false)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int getShardLimit(int shard, int limit) {
+    return limit / shards.length + (shard < limit % shards.length ? 1 : 0);
+  }
+
+  /**
+   * @return the number of pooled arrays, which may be stale when the pool is modified
+   */
+  public int size() {
+    int size = 0;
+    for (Shard<T> shard : shards) {
+      size += shard.size;
+    }
+    return size;
+  }
+
+  public int getShardNum() {
+    return shards.length;
+  }
+
+  /**
+   * @return how many polls got a pooled array
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * @return how many polls found the pool empty
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * @return how many times a thread had to wait for the lock of its own shard
+   */
+  public long getContentionCount() {
+    return contentionCount.sum();
+  }
+
+  private static class Shard<T> {
+
+    private final ArrayDeque<T> arrays = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder contentionCount;
+    // read without the lock to skip empty or full shards quickly
+    private volatile int size;
+
+    private Shard(LongAdder contentionCount) {
+      this.contentionCount = contentionCount;
+    }
+
+    private boolean lock(boolean wait) {
+      if (lock.tryLock()) {
+        return true;
+      }
+      if (!wait) {
+        return false;
+      }
+      contentionCount.increment();
+      lock.lock();
+      return true;
+    }
+
+    private T poll(boolean wait) {
+      if (size == 0 || !lock(wait)) {
+        return null;
+      }
+      try {
+        T array = arrays.poll();
+        size = arrays.size();
+        return array;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean offer(T array, int limit, boolean wait) {
+      if (size >= limit || !lock(wait)) {
+        return false;
+      }
+      try {
+        if (arrays.size() >= limit) {
+          return false;
+        }
+        arrays.add(array);
+        size = arrays.size();
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -22,6 +22,8 @@ package org.apache.iotdb.db.storageengine.rescon.memory;
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.buffer.DeviceTimeIndexCache;
+import org.apache.iotdb.db.storageengine.buffer.TableStatisticsCache;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.TimeIndexLevel;
 
@@ -35,8 +37,14 @@ public class TsFileResourceManager {
 
   private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
 
-  /** threshold total memory for all TimeIndex */
-  private long timeIndexMemoryThreshold = CONFIG.getAllocateMemoryForTimeIndex();
+  /**
+   * threshold total memory for all TimeIndex, the memory reserved for reloading degraded TimeIndex
+   * and for table statistics is excluded
+   */
+  private long timeIndexMemoryThreshold =
+      CONFIG.getAllocateMemoryForTimeIndex()
+          - DeviceTimeIndexCache.getMemoryThreshold()
+          - TableStatisticsCache.getMemoryThreshold();
 
   /** store the sealed TsFileResource, sorted by priority of TimeIndex */
   private final TreeSet<TsFileResource> sealedTsFileResources =
@@ -45,6 +53,9 @@ public class TsFileResourceManager {
   /** total used memory for TimeIndex */
   private long totalTimeIndexMemCost;
 
+  /** memory of the device interval trees of TsFileIntervalIndex, counted in the same threshold */
+  private long intervalIndexMemCost;
+
   // degraded time index number
   private long degradedTimeIndexNum = 0;
 
@@ -81,6 +92,12 @@ public class TsFileResourceManager {
         totalTimeIndexMemCost -= tsFileResource.calculateRamSize();
       }
     }
+    if (DeviceTimeIndexCache.isCacheEnable()) {
+      DeviceTimeIndexCache.getInstance().invalidate(tsFileResource);
+    }
+    if (TableStatisticsCache.isCacheEnable()) {
+      TableStatisticsCache.getInstance().invalidate(tsFileResource);
+    }
   }
 
   public void forceDegradeTsFileResource(TsFileResource resource) {
@@ -110,7 +127,7 @@ public class TsFileResourceManager {
    * threshold.
    */
   private void chooseTsFileResourceToDegrade() {
-    while (totalTimeIndexMemCost > timeIndexMemoryThreshold) {
+    while (totalTimeIndexMemCost + intervalIndexMemCost > timeIndexMemoryThreshold) {
       TsFileResource tsFileResource = sealedTsFileResources.pollFirst();
       if (tsFileResource == null
           || TimeIndexLevel.valueOf(tsFileResource.getTimeIndexType())
@@ -128,6 +145,29 @@ public class TsFileResourceManager {
     }
   }
 
+  /**
+   * Reserve memory for the device interval trees of a TsFileIntervalIndex. Unlike TimeIndex, no
+   * TimeIndex is degraded to make room for it, the index just leaves the devices out instead.
+   *
+   * @return whether the memory is reserved
+   */
+  public synchronized boolean tryReserveIntervalIndexMemCost(long memCost) {
+    if (totalTimeIndexMemCost + intervalIndexMemCost + memCost > timeIndexMemoryThreshold) {
+      return false;
+    }
+    intervalIndexMemCost += memCost;
+    return true;
+  }
+
+  public synchronized void releaseIntervalIndexMemCost(long memCost) {
+    // the cost may have been reset by clear()
+    intervalIndexMemCost = Math.max(0, intervalIndexMemCost - memCost);
+  }
+
+  public long getIntervalIndexMemCost() {
+    return intervalIndexMemCost;
+  }
+
   public long getDegradedTimeIndexNum() {
     return degradedTimeIndexNum;
   }
@@ -144,6 +184,7 @@ public class TsFileResourceManager {
   public synchronized void clear() {
     this.sealedTsFileResources.clear();
     this.totalTimeIndexMemCost = 0;
+    this.intervalIndexMemCost = 0;
     this.degradedTimeIndexNum = 0;
   }
 
@@ -97,6 +97,19 @@ public class MemUtils {
     return memSize;
   }
 
+  /**
+   * Function for obtaining the size of one entry in the dictionary of a binary TVList, i.e., a
+   * HashMap node referring to the shared value and its slot in the table. The value itself is
+   * counted by {@link #getBinarySize(Binary)}.
+   */
+  public static long getBinaryDictionaryEntrySize() {
+    return RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+                + Integer.BYTES
+                + 3L * RamUsageEstimator.NUM_BYTES_OBJECT_REF)
+        + 2L * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+  }
+
   public static long getBinarySize(Binary value) {
     return RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + RamUsageEstimator.sizeOf(value.getValues());
   }
@@ -88,12 +88,17 @@ public abstract class AlignedTVList extends TVList {
 
   protected int timeDeletedCnt = 0;
 
+  // shared copies of the distinct values of all binary columns, null if
+  // enable_binary_tvlist_dictionary is not set
+  protected BinaryDictionary dictionary;
+
   AlignedTVList(List<TSDataType> types) {
     super();
     indices = new ArrayList<>(types.size());
     dataTypes = types;
     memoryBinaryChunkSize = new long[dataTypes.size()];
     reachMaxChunkSizeFlag = false;
+    dictionary = BinaryDictionary.newDictionary();
 
     values = new ArrayList<>(types.size());
     for (int i = 0; i < types.size(); i++) {
@@ -153,6 +158,8 @@ public abstract class AlignedTVList extends TVList {
     AlignedTVList cloneList = AlignedTVList.newAlignedList(dataTypes);
     cloneAs(cloneList);
     cloneList.timeDeletedCnt = this.timeDeletedCnt;
+    // only the cloned list is written afterwards, so the dictionary can be shared
+    cloneList.dictionary = dictionary;
     System.arraycopy(
         memoryBinaryChunkSize, 0, cloneList.memoryBinaryChunkSize, 0, dataTypes.size());
     for (int[] indicesArray : indices) {
@@ -203,7 +210,11 @@ public abstract class AlignedTVList extends TVList {
         case BLOB:
         case STRING:
           ((Binary[]) columnValues.get(arrayIndex))[elementIndex] =
-              columnValue != null ? (Binary) columnValue : Binary.EMPTY_VALUE;
+              columnValue == null
+                  ? Binary.EMPTY_VALUE
+                  : dictionary != null
+                      ? dictionary.intern((Binary) columnValue)
+                      : (Binary) columnValue;
           memoryBinaryChunkSize[i] +=
               columnValue != null
                   ? getBinarySize((Binary) columnValue)
@@ -814,6 +825,8 @@ public abstract class AlignedTVList extends TVList {
                     && results[idx + i] != null
                     && results[idx + i].code != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
               markNullValue(j, arrayIdx, elementIdx + i);
+            } else if (dictionary != null && dataTypes.get(j).isBinary()) {
+              internValue(j, arrayIdx, elementIdx + i);
             }
           }
           rowCount++;
@@ -833,6 +846,8 @@ public abstract class AlignedTVList extends TVList {
                     && results[idx + i] != null
                     && results[idx + i].code != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
               markNullValue(j, arrayIdx, elementIdx + i);
+            } else if (dictionary != null && dataTypes.get(j).isBinary()) {
+              internValue(j, arrayIdx, elementIdx + i);
             }
           }
           rowCount++;
@@ -843,6 +858,17 @@ public abstract class AlignedTVList extends TVList {
     }
   }
 
+  @Override
+  public long takeDictionarySavedMemSize() {
+    return dictionary != null ? dictionary.takeSavedMemSize() : 0;
+  }
+
+  /** Replace a copied binary value by its shared copy in the dictionary. */
+  private void internValue(int columnIndex, int arrayIndex, int elementIndex) {
+    Binary[] columnValues = (Binary[]) values.get(columnIndex).get(arrayIndex);
+    columnValues[elementIndex] = dictionary.intern(columnValues[elementIndex]);
+  }
+
   private void arrayCopy(Object[] value, int idx, int arrayIndex, int elementIndex, int remaining) {
     for (int i = 0; i < values.size(); i++) {
       if (value[i] == null) {
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.MemUtils;
+
+import org.apache.tsfile.utils.Binary;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary of the distinct binary values of one TVList. Values put into the TVList are replaced
+ * by the shared copy in the dictionary, so a repeated value only costs the reference in the value
+ * array instead of a Binary object and its bytes per point.
+ *
+ * <p>The text data size of every value is charged by the TsFileProcessor before it is written. The
+ * difference made by the dictionary, i.e., the sizes of repeated values minus the cost of new
+ * dictionary entries, is recorded here and taken by the memtable after the write with {@link
+ * #takeSavedMemSize()}, which returns it to the TsFileProcessor. A dictionary is only written under
+ * the insert lock of its device, so the recorded size belongs to the current write.
+ */
+public class BinaryDictionary {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  public static final boolean ENABLE_BINARY_TVLIST_DICTIONARY =
+      CONFIG.isEnableBinaryTVListDictionary();
+
+  private static final long ENTRY_MEM_SIZE = MemUtils.getBinaryDictionaryEntrySize();
+
+  private final int maxSize;
+  private final Map<Binary, Binary> values = new HashMap<>();
+
+  // memory saved by the dictionary since the last take, negative if the new entries cost more
+  private long savedMemSize;
+
+  public BinaryDictionary() {
+    this(CONFIG.getBinaryTVListDictionaryMaxSize());
+  }
+
+  public BinaryDictionary(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /** Create a dictionary if binary TVList dictionaries are enabled, otherwise return null. */
+  public static BinaryDictionary newDictionary() {
+    return ENABLE_BINARY_TVLIST_DICTIONARY ? new BinaryDictionary() : null;
+  }
+
+  /**
+   * @return the shared copy of the value, or the value itself if it is new and the dictionary is
+   *     full
+   */
+  public Binary intern(Binary value) {
+    if (value == null) {
+      return null;
+    }
+    Binary shared = values.get(value);
+    if (shared != null) {
+      savedMemSize += MemUtils.getBinarySize(value);
+      return shared;
+    }
+    if (values.size() < maxSize) {
+      values.put(value, value);
+      savedMemSize -= ENTRY_MEM_SIZE;
+    }
+    return value;
+  }
+
+  public int size() {
+    return values.size();
+  }
+
+  /**
+   * @return the memory saved since the last take, which is negative if the new dictionary entries
+   *     cost more than the repeated values saved
+   */
+  public long takeSavedMemSize() {
+    long saved = savedMemSize;
+    savedMemSize = 0;
+    return saved;
+  }
+}
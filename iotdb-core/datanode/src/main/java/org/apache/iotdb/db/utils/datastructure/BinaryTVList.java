@@ -50,10 +50,14 @@ public abstract class BinaryTVList extends TVList {
   // record total memory size of binary tvlist
   long memoryBinaryChunkSize;
 
+  // shared copies of the distinct values, null if enable_binary_tvlist_dictionary is not set
+  protected BinaryDictionary dictionary;
+
   BinaryTVList() {
     super();
     values = new ArrayList<>();
     memoryBinaryChunkSize = 0;
+    dictionary = BinaryDictionary.newDictionary();
   }
 
   public static BinaryTVList newList() {
@@ -72,12 +76,19 @@ public abstract class BinaryTVList extends TVList {
     TimBinaryTVList cloneList = new TimBinaryTVList();
     cloneAs(cloneList);
     cloneList.memoryBinaryChunkSize = memoryBinaryChunkSize;
+    // only the cloned list is written afterwards, so the dictionary can be shared
+    cloneList.dictionary = dictionary;
     for (Binary[] valueArray : values) {
       cloneList.values.add(cloneValue(valueArray));
     }
     return cloneList;
   }
 
+  @Override
+  public long takeDictionarySavedMemSize() {
+    return dictionary != null ? dictionary.takeSavedMemSize() : 0;
+  }
+
   private Binary[] cloneValue(Binary[] array) {
     Binary[] cloneArray = new Binary[array.length];
     System.arraycopy(array, 0, cloneArray, 0, array.length);
@@ -91,7 +102,7 @@ public abstract class BinaryTVList extends TVList {
     int elementIndex = rowCount % ARRAY_SIZE;
     maxTime = Math.max(maxTime, timestamp);
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
-    values.get(arrayIndex)[elementIndex] = value;
+    values.get(arrayIndex)[elementIndex] = dictionary != null ? dictionary.intern(value) : value;
     rowCount++;
     if (sorted && rowCount > 1 && timestamp < getTime(rowCount - 2)) {
       sorted = false;
@@ -241,7 +252,7 @@ public abstract class BinaryTVList extends TVList {
         // the remaining inputs can fit the last array, copy all remaining inputs into last array
         System.arraycopy(
             time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, inputRemaining);
-        System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, inputRemaining);
+        copyValues(value, idx, values.get(arrayIdx), elementIdx, inputRemaining);
         rowCount += inputRemaining;
         break;
       } else {
@@ -249,7 +260,7 @@ public abstract class BinaryTVList extends TVList {
         // one and enter the next loop
         System.arraycopy(
             time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, internalRemaining);
-        System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, internalRemaining);
+        copyValues(value, idx, values.get(arrayIdx), elementIdx, internalRemaining);
         idx += internalRemaining;
         rowCount += internalRemaining;
         checkExpansion();
@@ -257,6 +268,16 @@ public abstract class BinaryTVList extends TVList {
     }
   }
 
+  private void copyValues(Binary[] src, int srcPos, Binary[] dest, int destPos, int length) {
+    if (dictionary == null) {
+      System.arraycopy(src, srcPos, dest, destPos, length);
+      return;
+    }
+    for (int i = 0; i < length; i++) {
+      dest[destPos + i] = dictionary.intern(src[srcPos + i]);
+    }
+  }
+
   // move null values to the end of time array and value array, then return number of null values
   int dropNullValThenUpdateMaxTimeAndSorted(
       long[] time, Binary[] values, BitMap bitMap, int start, int end, int tIdxOffset) {
@@ -37,6 +37,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ENABLE_OFF_HEAP_TVLIST;
 import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.TVLIST_SORT_ALGORITHM;
 import static org.apache.iotdb.db.utils.ModificationUtils.isPointDeleted;
 
@@ -51,6 +52,9 @@ public abstract class DoubleTVList extends TVList {
   }
 
   public static DoubleTVList newList() {
+    if (ENABLE_OFF_HEAP_TVLIST) {
+      return new OffHeapDoubleTVList();
+    }
     switch (TVLIST_SORT_ALGORITHM) {
       case QUICK:
         return new QuickDoubleTVList();
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
+
+import org.apache.tsfile.enums.TSDataType;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+
+/**
+ * Value column of a TVList whose fixed width elements are stored in off-heap slabs handed out by
+ * {@link PrimitiveArrayManager#allocateOffHeap(TSDataType)}. Slab i holds the values of rows [i *
+ * ARRAY_SIZE, (i + 1) * ARRAY_SIZE), which mirrors the layout of the on-heap value arrays.
+ *
+ * <p>The off-heap TVLists extend the tim sorted TVList of their own data type, so the logic they
+ * share is kept here instead of in a common super class.
+ */
+class OffHeapColumn {
+
+  private final TSDataType dataType;
+  // log2 of the element width, used to turn an element index into a byte offset
+  private final int shift;
+  private final List<ByteBuffer> slabs;
+
+  OffHeapColumn(TSDataType dataType) {
+    this.dataType = dataType;
+    this.shift = PrimitiveArrayManager.getOffHeapElementWidth(dataType) == Long.BYTES ? 3 : 2;
+    this.slabs = new ArrayList<>();
+  }
+
+  void expand() {
+    slabs.add(PrimitiveArrayManager.allocateOffHeap(dataType));
+  }
+
+  /**
+   * @param unreferenced true if no query holds the TVList, so that a slab which doesn't fit the
+   *     pool can be freed immediately
+   */
+  void releaseLast(boolean unreferenced) {
+    PrimitiveArrayManager.releaseOffHeap(slabs.remove(slabs.size() - 1), unreferenced);
+  }
+
+  void clear(boolean unreferenced) {
+    for (ByteBuffer slab : slabs) {
+      PrimitiveArrayManager.releaseOffHeap(slab, unreferenced);
+    }
+    slabs.clear();
+  }
+
+  /** Copy all slabs of this column into the (empty) target column. */
+  void cloneTo(OffHeapColumn target) {
+    for (ByteBuffer slab : slabs) {
+      ByteBuffer cloned = PrimitiveArrayManager.allocateOffHeap(dataType);
+      ByteBuffer source = slab.duplicate();
+      source.clear();
+      cloned.clear();
+      cloned.put(source);
+      cloned.clear();
+      target.slabs.add(cloned);
+    }
+  }
+
+  private ByteBuffer slab(int index) {
+    return slabs.get(index / ARRAY_SIZE);
+  }
+
+  private int offset(int index) {
+    return (index % ARRAY_SIZE) << shift;
+  }
+
+  long getLong(int index) {
+    return slab(index).getLong(offset(index));
+  }
+
+  void setLong(int index, long value) {
+    slab(index).putLong(offset(index), value);
+  }
+
+  int getInt(int index) {
+    return slab(index).getInt(offset(index));
+  }
+
+  void setInt(int index, int value) {
+    slab(index).putInt(offset(index), value);
+  }
+
+  float getFloat(int index) {
+    return slab(index).getFloat(offset(index));
+  }
+
+  void setFloat(int index, float value) {
+    slab(index).putFloat(offset(index), value);
+  }
+
+  double getDouble(int index) {
+    return slab(index).getDouble(offset(index));
+  }
+
+  void setDouble(int index, double value) {
+    slab(index).putDouble(offset(index), value);
+  }
+
+  /**
+   * Append the rows [start, end) of a bulk insertion to the given TVList. The timestamps are copied
+   * to the on-heap time arrays of the list, and the values are copied to this column.
+   *
+   * @param values an int[], long[], float[] or double[] matching the data type of this column
+   * @param timeIdxOffset the index in {@code values} of the first element of {@code time}
+   */
+  void putAll(TVList list, long[] time, Object values, int timeIdxOffset, int start, int end) {
+    int idx = start;
+    while (idx < end) {
+      int inputRemaining = end - idx;
+      int arrayIdx = list.rowCount / ARRAY_SIZE;
+      int elementIdx = list.rowCount % ARRAY_SIZE;
+      int internalRemaining = ARRAY_SIZE - elementIdx;
+      int copied = Math.min(inputRemaining, internalRemaining);
+      System.arraycopy(
+          time, idx - timeIdxOffset, list.timestamps.get(arrayIdx), elementIdx, copied);
+      putValues(list.rowCount, values, idx, copied);
+      idx += copied;
+      list.rowCount += copied;
+      if (copied == internalRemaining && idx < end) {
+        // the last array is filled, create a new one and enter the next loop
+        list.checkExpansion();
+      }
+    }
+  }
+
+  private void putValues(int index, Object src, int srcPos, int length) {
+    switch (dataType) {
+      case INT32:
+      case DATE:
+        putInts(index, (int[]) src, srcPos, length);
+        break;
+      case INT64:
+      case TIMESTAMP:
+        putLongs(index, (long[]) src, srcPos, length);
+        break;
+      case FLOAT:
+        putFloats(index, (float[]) src, srcPos, length);
+        break;
+      case DOUBLE:
+        putDoubles(index, (double[]) src, srcPos, length);
+        break;
+      default:
+        throw new UnsupportedOperationException(dataType + " is not stored off heap");
+    }
+  }
+
+  /**
+   * Bulk copy values into the slab containing row {@code index}. The caller guarantees that [index,
+   * index + length) does not cross a slab boundary.
+   */
+  private void putLongs(int index, long[] src, int srcPos, int length) {
+    LongBuffer view = slab(index).asLongBuffer();
+    view.position(index % ARRAY_SIZE);
+    view.put(src, srcPos, length);
+  }
+
+  private void putInts(int index, int[] src, int srcPos, int length) {
+    IntBuffer view = slab(index).asIntBuffer();
+    view.position(index % ARRAY_SIZE);
+    view.put(src, srcPos, length);
+  }
+
+  private void putFloats(int index, float[] src, int srcPos, int length) {
+    FloatBuffer view = slab(index).asFloatBuffer();
+    view.position(index % ARRAY_SIZE);
+    view.put(src, srcPos, length);
+  }
+
+  private void putDoubles(int index, double[] src, int srcPos, int length) {
+    DoubleBuffer view = slab(index).asDoubleBuffer();
+    view.position(index % ARRAY_SIZE);
+    view.put(src, srcPos, length);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.utils.BitMap;
+
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+
+/**
+ * A tim sorted {@link FloatTVList} whose values live in off-heap slabs, while the timestamps are
+ * kept in on-heap arrays. Used when enable_off_heap_tvlist is set.
+ */
+public class OffHeapFloatTVList extends TimFloatTVList {
+
+  private final OffHeapColumn offHeapValues = new OffHeapColumn(TSDataType.FLOAT);
+
+  @Override
+  public OffHeapFloatTVList clone() {
+    OffHeapFloatTVList cloneList = new OffHeapFloatTVList();
+    cloneAs(cloneList);
+    offHeapValues.cloneTo(cloneList.offHeapValues);
+    return cloneList;
+  }
+
+  @Override
+  public void putFloat(long timestamp, float value) {
+    checkExpansion();
+    int arrayIndex = rowCount / ARRAY_SIZE;
+    int elementIndex = rowCount % ARRAY_SIZE;
+    maxTime = Math.max(maxTime, timestamp);
+    timestamps.get(arrayIndex)[elementIndex] = timestamp;
+    offHeapValues.setFloat(rowCount, value);
+    rowCount++;
+    if (sorted && rowCount > 1 && timestamp < getTime(rowCount - 2)) {
+      sorted = false;
+    }
+  }
+
+  @Override
+  public float getFloat(int index) {
+    if (index >= rowCount) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return offHeapValues.getFloat(index);
+  }
+
+  @Override
+  protected void set(int index, long timestamp, float value) {
+    if (index >= rowCount) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    timestamps.get(index / ARRAY_SIZE)[index % ARRAY_SIZE] = timestamp;
+    offHeapValues.setFloat(index, value);
+  }
+
+  @Override
+  void clearValue() {
+    offHeapValues.clear(referenceCount.get() == 0);
+  }
+
+  @Override
+  protected void expandValues() {
+    offHeapValues.expand();
+  }
+
+  @Override
+  protected void releaseLastValueArray() {
+    offHeapValues.releaseLast(referenceCount.get() == 0);
+  }
+
+  @Override
+  public void putFloats(long[] time, float[] value, BitMap bitMap, int start, int end) {
+    checkExpansion();
+
+    // constraint: time.length + timeIdxOffset == value.length
+    int timeIdxOffset = 0;
+    if (bitMap != null && !bitMap.isAllUnmarked()) {
+      // time array is a reference, should clone necessary time array
+      long[] clonedTime = new long[end - start];
+      System.arraycopy(time, start, clonedTime, 0, end - start);
+      time = clonedTime;
+      timeIdxOffset = start;
+      // value array is a reference, should clone necessary value array
+      float[] clonedValue = new float[value.length];
+      System.arraycopy(value, 0, clonedValue, 0, value.length);
+      value = clonedValue;
+      // drop null at the end of value array
+      int nullCnt =
+          dropNullValThenUpdateMaxTimeAndSorted(time, value, bitMap, start, end, timeIdxOffset);
+      end -= nullCnt;
+    } else {
+      updateMaxTimeAndSorted(time, start, end);
+    }
+
+    offHeapValues.putAll(this, time, value, timeIdxOffset, start, end);
+  }
+}
@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.TVLIST_SORT_ALGORITHM;
 import static org.apache.tsfile.utils.RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
 import static org.apache.tsfile.utils.RamUsageEstimator.NUM_BYTES_OBJECT_REF;
 
@@ -53,6 +54,8 @@ public abstract class TVList implements WALEntryValue {
       IoTDBDescriptor.getInstance().getConfig().getTargetChunkSize();
   protected static final long MAX_SERIES_POINT_NUMBER =
       IoTDBDescriptor.getInstance().getConfig().getAvgSeriesPointNumberThreshold();
+  private static final boolean ENABLE_ADAPTIVE_SORT =
+      TVLIST_SORT_ALGORITHM == TVListSortAlgorithm.ADAPTIVE;
   // list of timestamp array, add 1 when expanded -> data point timestamp array
   // index relation: arrayIndex -> elementIndex
   protected List<long[]> timestamps;
@@ -65,6 +68,12 @@ public abstract class TVList implements WALEntryValue {
   protected AtomicInteger referenceCount;
   private long version;
 
+  // disorder statistics of the rows in [0, disorderCheckedRowCount), only tracked in ADAPTIVE mode
+  private boolean adaptiveSort = ENABLE_ADAPTIVE_SORT;
+  private int disorderCheckedRowCount;
+  private int inversionNum;
+  private int maxBackwardDistance;
+
   protected TVList() {
     timestamps = new ArrayList<>();
     rowCount = 0;
@@ -115,6 +124,91 @@ public abstract class TVList implements WALEntryValue {
 
   public abstract void sort();
 
+  /**
+   * Sort the rows of a tim sorted list. In ADAPTIVE mode the sort strategy is chosen by the
+   * disorder statistics of the rows.
+   */
+  protected void timSort(TimSort timSort) {
+    if (adaptiveSort) {
+      updateDisorderStatistics();
+      timSort.adaptiveSort(0, rowCount, inversionNum, maxBackwardDistance);
+    } else {
+      timSort.sort(0, rowCount);
+    }
+    resetDisorderStatistics(rowCount);
+  }
+
+  /**
+   * Update the disorder statistics with the rows inserted since the last update. Called after each
+   * insertion in ADAPTIVE mode, when the inserted timestamps are still in the CPU cache.
+   */
+  public void updateDisorderStatistics() {
+    if (!adaptiveSort) {
+      return;
+    }
+    if (disorderCheckedRowCount > rowCount) {
+      // rows are removed by deletion, recheck all rows
+      resetDisorderStatistics(0);
+    }
+    if (disorderCheckedRowCount == rowCount) {
+      return;
+    }
+    long previousTime =
+        disorderCheckedRowCount == 0 ? Long.MIN_VALUE : getTime(disorderCheckedRowCount - 1);
+    for (int i = disorderCheckedRowCount; i < rowCount; i++) {
+      long time = getTime(i);
+      if (time < previousTime) {
+        inversionNum++;
+        if (maxBackwardDistance <= TimSort.SMALL_ARRAY_LENGTH) {
+          maxBackwardDistance = Math.max(maxBackwardDistance, getBackwardDistance(i, time));
+        }
+      }
+      previousTime = time;
+    }
+    disorderCheckedRowCount = rowCount;
+  }
+
+  /**
+   * The number of rows with larger timestamps among the {@link TimSort#SMALL_ARRAY_LENGTH} rows
+   * before index, which is how far insertion sort moves the row if it is only out of order locally.
+   * If the row right before that window is larger as well, the row may have to move further, so
+   * {@link TimSort#SMALL_ARRAY_LENGTH} + 1 is returned. This catches interleaved streams such as
+   * 100, 1, 101, 2, ..., whose rows are only one row behind a larger one but far from their sorted
+   * position.
+   */
+  private int getBackwardDistance(int index, long time) {
+    int windowStart = index - TimSort.SMALL_ARRAY_LENGTH;
+    if (windowStart > 0 && getTime(windowStart - 1) > time) {
+      return TimSort.SMALL_ARRAY_LENGTH + 1;
+    }
+    int distance = 0;
+    for (int i = Math.max(windowStart, 0); i < index; i++) {
+      if (getTime(i) > time) {
+        distance++;
+      }
+    }
+    return distance;
+  }
+
+  private void resetDisorderStatistics(int checkedRowCount) {
+    disorderCheckedRowCount = checkedRowCount;
+    inversionNum = 0;
+    maxBackwardDistance = 0;
+  }
+
+  @TestOnly
+  void setAdaptiveSort(boolean adaptiveSort) {
+    this.adaptiveSort = adaptiveSort;
+  }
+
+  public int getInversionNum() {
+    return inversionNum;
+  }
+
+  public int getMaxBackwardDistance() {
+    return maxBackwardDistance;
+  }
+
   public void increaseReferenceCount() {
     referenceCount.incrementAndGet();
   }
@@ -238,6 +332,14 @@ public abstract class TVList implements WALEntryValue {
     return maxTime;
   }
 
+  /**
+   * @return the memory saved by the binary dictionary of this list since the last take, see {@link
+   *     BinaryDictionary#takeSavedMemSize()}
+   */
+  public long takeDictionarySavedMemSize() {
+    return 0;
+  }
+
   public long getVersion() {
     return version;
   }
@@ -272,6 +374,7 @@ public abstract class TVList implements WALEntryValue {
     }
     int deletedNumber = rowCount - newSize;
     rowCount = newSize;
+    resetDisorderStatistics(0);
     // release primitive arrays that are empty
     int newArrayNum = newSize / ARRAY_SIZE;
     if (newSize % ARRAY_SIZE != 0) {
@@ -292,12 +395,17 @@ public abstract class TVList implements WALEntryValue {
     cloneList.rowCount = rowCount;
     cloneList.sorted = sorted;
     cloneList.maxTime = maxTime;
+    cloneList.disorderCheckedRowCount = disorderCheckedRowCount;
+    cloneList.inversionNum = inversionNum;
+    cloneList.maxBackwardDistance = maxBackwardDistance;
+    cloneList.adaptiveSort = adaptiveSort;
   }
 
   public void clear() {
     rowCount = 0;
     sorted = true;
     maxTime = Long.MIN_VALUE;
+    resetDisorderStatistics(0);
     clearTime();
     clearValue();
   }
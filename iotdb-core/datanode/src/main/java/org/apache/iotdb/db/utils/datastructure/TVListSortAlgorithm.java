@@ -21,5 +21,10 @@ package org.apache.iotdb.db.utils.datastructure;
 public enum TVListSortAlgorithm {
   TIM,
   QUICK,
-  BACKWARD
+  BACKWARD,
+  /**
+   * Tim sorted lists which track the disorder of the inserted points and choose between insertion
+   * sort, run merge and tim sort when sorting.
+   */
+  ADAPTIVE
 }
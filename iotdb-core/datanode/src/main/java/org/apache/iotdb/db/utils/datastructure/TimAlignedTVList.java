@@ -51,7 +51,7 @@ public class TimAlignedTVList extends AlignedTVList implements TimSort {
           (int[][]) PrimitiveArrayManager.createDataListsByType(TSDataType.INT32, rowCount);
     }
     if (!sorted) {
-      sort(0, rowCount);
+      timSort(this);
     }
     clearSortedValue();
     clearSortedTime();
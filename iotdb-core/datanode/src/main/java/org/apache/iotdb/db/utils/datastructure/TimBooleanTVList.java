@@ -44,7 +44,7 @@ public class TimBooleanTVList extends BooleanTVList implements TimSort {
           (boolean[][]) PrimitiveArrayManager.createDataListsByType(TSDataType.BOOLEAN, rowCount);
     }
     if (!sorted) {
-      sort(0, rowCount);
+      timSort(this);
     }
     clearSortedValue();
     clearSortedTime();
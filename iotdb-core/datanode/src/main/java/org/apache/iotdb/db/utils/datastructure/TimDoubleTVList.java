@@ -44,7 +44,7 @@ public class TimDoubleTVList extends DoubleTVList implements TimSort {
           (double[][]) PrimitiveArrayManager.createDataListsByType(TSDataType.DOUBLE, rowCount);
     }
     if (!sorted) {
-      sort(0, rowCount);
+      timSort(this);
     }
     clearSortedValue();
     clearSortedTime();
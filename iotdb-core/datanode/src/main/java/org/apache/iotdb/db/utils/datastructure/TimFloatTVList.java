@@ -45,7 +45,7 @@ public class TimFloatTVList extends FloatTVList implements TimSort {
           (float[][]) PrimitiveArrayManager.createDataListsByType(TSDataType.FLOAT, rowCount);
     }
     if (!sorted) {
-      sort(0, rowCount);
+      timSort(this);
     }
     clearSortedValue();
     clearSortedTime();
@@ -45,7 +45,7 @@ public class TimIntTVList extends IntTVList implements TimSort {
           (int[][]) PrimitiveArrayManager.createDataListsByType(TSDataType.INT32, rowCount);
     }
     if (!sorted) {
-      sort(0, rowCount);
+      timSort(this);
     }
     clearSortedValue();
     clearSortedTime();
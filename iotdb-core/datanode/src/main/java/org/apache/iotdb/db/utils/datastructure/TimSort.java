@@ -18,6 +18,8 @@
  */
 package org.apache.iotdb.db.utils.datastructure;
 
+import java.util.Arrays;
+
 /**
  * The interface refers to TimSort.java, and is used for sort the TVList Functions for tim_sort like
  * merge, sort, binary_sort is implemented here as default, reuse code whenever possible.
@@ -187,4 +189,121 @@ public interface TimSort {
       setFromSorted(i, i);
     }
   }
+
+  /**
+   * Sort [lo, hi) with the cheapest strategy for the disorder tracked while inserting.
+   *
+   * @param inversionNum the number of adjacent positions where the time decreases
+   * @param maxBackwardDistance the max distance an out-of-order point has to move backward, larger
+   *     distances than {@link #SMALL_ARRAY_LENGTH} are not tracked exactly
+   */
+  default void adaptiveSort(int lo, int hi, int inversionNum, int maxBackwardDistance) {
+    if (inversionNum == 0) {
+      return;
+    }
+    if (maxBackwardDistance <= SMALL_ARRAY_LENGTH) {
+      // all out-of-order points are expected close to their sorted position, the statistics only
+      // look at a window of each point, so tim sort takes over if the points move further
+      if (!insertionSort(lo, hi, (long) SMALL_ARRAY_LENGTH * (hi - lo))) {
+        sort(lo, hi);
+      }
+    } else if ((long) (inversionNum + 1) * SMALL_ARRAY_LENGTH <= hi - lo) {
+      // few but long ascending runs, e.g. a backfilled batch appended to ordered points
+      runMergeSort(lo, hi);
+    } else {
+      sort(lo, hi);
+    }
+  }
+
+  /**
+   * Stable insertion sort, which moves each out-of-order point backward to its position. It gives
+   * up once more than maxMoveNum points have been moved, leaving [lo, hi) a permutation of its
+   * input with the relative order of equal points kept.
+   *
+   * @return false if the sort gives up
+   */
+  default boolean insertionSort(int lo, int hi, long maxMoveNum) {
+    long moveNum = 0;
+    for (int i = lo + 1; i < hi; i++) {
+      if (compare(i, i - 1) >= 0) {
+        continue;
+      }
+      int pos = i - 1;
+      while (pos > lo && compare(i, pos - 1) < 0) {
+        pos--;
+      }
+      moveNum += i - pos;
+      if (moveNum > maxMoveNum) {
+        return false;
+      }
+      saveAsPivot(i);
+      for (int j = i; j > pos; j--) {
+        tim_set(j - 1, j);
+      }
+      setPivotTo(pos);
+    }
+    return true;
+  }
+
+  /** Natural merge sort, which merges the ascending runs of [lo, hi) bottom-up. */
+  default void runMergeSort(int lo, int hi) {
+    int[] runBounds = new int[SMALL_ARRAY_LENGTH];
+    int runNum = 0;
+    runBounds[0] = lo;
+    for (int runStart = lo; runStart < hi; ) {
+      runStart += countRunAndMakeAscending(runStart, hi);
+      if (runNum + 2 > runBounds.length) {
+        runBounds = Arrays.copyOf(runBounds, runBounds.length * 2);
+      }
+      runBounds[++runNum] = runStart;
+    }
+
+    // runBounds[0, runNum] are the bounds of runNum runs, halve the runs in each round
+    while (runNum > 1) {
+      int mergedRunNum = 0;
+      for (int i = 0; i + 1 < runNum; i += 2) {
+        mergeRuns(runBounds[i], runBounds[i + 1], runBounds[i + 2]);
+        runBounds[++mergedRunNum] = runBounds[i + 2];
+      }
+      if ((runNum & 1) == 1) {
+        runBounds[++mergedRunNum] = runBounds[runNum];
+      }
+      runNum = mergedRunNum;
+    }
+  }
+
+  /**
+   * Merge the ascending runs [lo, mid) and [mid, hi). Only the overlapping parts of the two runs
+   * are merged, the points before the first point of the right run and after the last point of the
+   * left run are already in place.
+   */
+  default void mergeRuns(int lo, int mid, int hi) {
+    if (compare(mid - 1, mid) <= 0) {
+      return;
+    }
+    // the first point of the left run greater than the first point of the right run
+    int left = lo;
+    int right = mid - 1;
+    while (left < right) {
+      int m = (left + right) >>> 1;
+      if (compare(m, mid) > 0) {
+        right = m;
+      } else {
+        left = m + 1;
+      }
+    }
+    int mergeLo = left;
+    // the first point of the right run not less than the last point of the left run
+    left = mid;
+    right = hi;
+    while (left < right) {
+      int m = (left + right) >>> 1;
+      if (compare(m, mid - 1) >= 0) {
+        right = m;
+      } else {
+        left = m + 1;
+      }
+    }
+    merge(mergeLo, mid, left);
+  }
 }
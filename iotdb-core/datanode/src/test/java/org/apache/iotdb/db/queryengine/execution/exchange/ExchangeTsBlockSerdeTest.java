@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.exchange;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.LongColumn;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.apache.tsfile.utils.Binary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+public class ExchangeTsBlockSerdeTest {
+
+  private static final int POSITION_COUNT = 1000;
+
+  @Test
+  public void testCompressedRoundTrip() throws IOException {
+    TsBlock tsBlock = buildTsBlock();
+    ExchangeTsBlockSerde serde = new ExchangeTsBlockSerde(new TsBlockSerde(), true, 0);
+
+    ByteBuffer buffer = serde.serialize(tsBlock);
+    Assert.assertEquals(ExchangeTsBlockSerde.Encoding.COMPRESSED.ordinal(), buffer.get(0));
+    Assert.assertTrue(buffer.remaining() < new TsBlockSerde().serialize(tsBlock).remaining());
+    assertTsBlockEquals(tsBlock, serde.deserialize(buffer));
+  }
+
+  @Test
+  public void testRunLengthEncodedTimeColumn() throws IOException {
+    TsBlock tsBlock = buildTsBlock();
+    TsBlock constantTime =
+        new TsBlock(
+            POSITION_COUNT,
+            new RunLengthEncodedColumn(
+                new LongColumn(1, Optional.empty(), new long[] {100L}), POSITION_COUNT),
+            tsBlock.getValueColumns());
+    ExchangeTsBlockSerde serde = new ExchangeTsBlockSerde(new TsBlockSerde(), true, 0);
+
+    TsBlock result = serde.deserialize(serde.serialize(constantTime));
+    assertTsBlockEquals(constantTime, result);
+  }
+
+  @Test
+  public void testPlainBelowThreshold() throws IOException {
+    TsBlock tsBlock = buildTsBlock();
+    ExchangeTsBlockSerde serde =
+        new ExchangeTsBlockSerde(new TsBlockSerde(), true, tsBlock.getRetainedSizeInBytes() + 1);
+
+    ByteBuffer buffer = serde.serialize(tsBlock);
+    Assert.assertEquals(ExchangeTsBlockSerde.Encoding.PLAIN.ordinal(), buffer.get(0));
+    assertTsBlockEquals(tsBlock, serde.deserialize(buffer));
+
+    serde = new ExchangeTsBlockSerde(new TsBlockSerde(), false, 0);
+    buffer = serde.serialize(tsBlock);
+    Assert.assertEquals(ExchangeTsBlockSerde.Encoding.PLAIN.ordinal(), buffer.get(0));
+    assertTsBlockEquals(tsBlock, serde.deserialize(buffer));
+  }
+
+  private static TsBlock buildTsBlock() {
+    TsBlockBuilder builder =
+        new TsBlockBuilder(
+            POSITION_COUNT, Arrays.asList(TSDataType.INT64, TSDataType.DOUBLE, TSDataType.TEXT));
+    ColumnBuilder timeColumnBuilder = builder.getTimeColumnBuilder();
+    for (int i = 0; i < POSITION_COUNT; i++) {
+      timeColumnBuilder.writeLong(1000L + i * 10L);
+      builder.getColumnBuilder(0).writeLong(i % 7);
+      if (i % 3 == 0) {
+        builder.getColumnBuilder(1).appendNull();
+      } else {
+        builder.getColumnBuilder(1).writeDouble(i * 0.5);
+      }
+      builder
+          .getColumnBuilder(2)
+          .writeBinary(new Binary("device_" + i % 5, StandardCharsets.UTF_8));
+      builder.declarePosition();
+    }
+    return builder.build();
+  }
+
+  private static void assertTsBlockEquals(TsBlock expected, TsBlock actual) {
+    Assert.assertEquals(expected.getPositionCount(), actual.getPositionCount());
+    Assert.assertEquals(expected.getValueColumnCount(), actual.getValueColumnCount());
+    for (int i = 0; i < expected.getPositionCount(); i++) {
+      Assert.assertEquals(expected.getTimeByIndex(i), actual.getTimeByIndex(i));
+      for (int j = 0; j < expected.getValueColumnCount(); j++) {
+        Column expectedColumn = expected.getColumn(j);
+        Column actualColumn = actual.getColumn(j);
+        Assert.assertEquals(expectedColumn.isNull(i), actualColumn.isNull(i));
+        if (!expectedColumn.isNull(i)) {
+          Assert.assertEquals(expectedColumn.getObject(i), actualColumn.getObject(i));
+        }
+      }
+    }
+  }
+}
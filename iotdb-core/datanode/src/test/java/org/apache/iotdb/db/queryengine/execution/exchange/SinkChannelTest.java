@@ -36,12 +36,15 @@ import org.apache.iotdb.mpp.rpc.thrift.TNewDataBlockEvent;
 import org.apache.thrift.TException;
 import org.apache.tsfile.common.conf.TSFileDescriptor;
 import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
@@ -594,4 +597,77 @@ public class SinkChannelTest {
     Mockito.verify(mockSinkListener, Mockito.timeout(10_0000).times(1)).onAborted(sinkChannel);
     Assert.assertEquals(0L, spyMemoryPool.getQueryMemoryReservedBytes(queryId));
   }
+
+  @Test
+  public void testPushedSend() throws Exception {
+    final String queryId = "q0";
+    final long mockTsBlockSize = 128 * 1024L;
+    final TEndPoint remoteEndpoint =
+        new TEndPoint("remote", IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePort());
+    final TFragmentInstanceId remoteFragmentInstanceId = new TFragmentInstanceId(queryId, 0, "0");
+    final String remotePlanNodeId = "exchange_0";
+    final String localPlanNodeId = "fragmentSink_0";
+    final TFragmentInstanceId localFragmentInstanceId = new TFragmentInstanceId(queryId, 1, "0");
+
+    // Construct a mock LocalMemoryManager that returns unblocked futures.
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    MemoryPool mockMemoryPool = Utils.createMockNonBlockedMemoryPool();
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(mockMemoryPool);
+    IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient> mockClientManager =
+        Mockito.mock(IClientManager.class);
+    SyncDataNodeMPPDataExchangeServiceClient mockClient =
+        Mockito.mock(SyncDataNodeMPPDataExchangeServiceClient.class);
+    Mockito.when(mockClientManager.borrowClient(remoteEndpoint)).thenReturn(mockClient);
+    SinkListener mockSinkListener = Mockito.mock(SinkListener.class);
+    List<TsBlock> mockTsBlocks = Utils.createMockTsBlocks(3, mockTsBlockSize);
+    TsBlockSerde mockTsBlockSerde = Utils.createMockTsBlockSerde(mockTsBlockSize);
+    Mockito.when(mockTsBlockSerde.serialize(Mockito.any(TsBlock.class)))
+        .thenAnswer(invocation -> ByteBuffer.allocate(0));
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    SinkChannel sinkChannel =
+        new SinkChannel(
+            remoteEndpoint,
+            remoteFragmentInstanceId,
+            remotePlanNodeId,
+            localPlanNodeId,
+            localFragmentInstanceId,
+            mockLocalMemoryManager,
+            executorService,
+            mockTsBlockSerde,
+            mockSinkListener,
+            mockClientManager);
+    sinkChannel.open();
+
+    // The credit is enough for two TsBlocks.
+    Assert.assertTrue(sinkChannel.addPushCredit(mockTsBlockSize * 5 / 2, false));
+    for (TsBlock tsBlock : mockTsBlocks) {
+      sinkChannel.send(tsBlock);
+    }
+    executorService.submit(() -> {}).get();
+
+    Mockito.verify(mockClient, Mockito.times(2))
+        .onPushDataBlockEvent(
+            Mockito.argThat(
+                e ->
+                    remoteFragmentInstanceId.equals(e.getTargetFragmentInstanceId())
+                        && remotePlanNodeId.equals(e.getTargetPlanNodeId())
+                        && localFragmentInstanceId.equals(e.getSourceFragmentInstanceId())
+                        && e.getStartSequenceId() < 2
+                        && e.getTsBlocks().size() == 1));
+    // The third TsBlock is pulled, and the rest credit is given back.
+    Mockito.verify(mockClient, Mockito.times(1))
+        .onNewDataBlockEvent(
+            Mockito.argThat(
+                e ->
+                    e.getStartSequenceId() == 2
+                        && e.getReturnedCreditInBytes() == mockTsBlockSize / 2));
+    // The pushed TsBlocks need no ack.
+    Assert.assertEquals(1, sinkChannel.getNumOfBufferedTsBlocks());
+
+    sinkChannel.acknowledgeTsBlock(2, 3);
+    sinkChannel.setNoMoreTsBlocks();
+    Mockito.verify(mockSinkListener, Mockito.timeout(10_000).times(1)).onFinish(sinkChannel);
+    executorService.shutdown();
+  }
 }
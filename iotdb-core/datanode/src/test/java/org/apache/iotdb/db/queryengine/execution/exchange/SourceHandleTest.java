@@ -25,16 +25,22 @@ import org.apache.iotdb.commons.client.exception.ClientManagerException;
 import org.apache.iotdb.commons.client.sync.SyncDataNodeMPPDataExchangeServiceClient;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.execution.exchange.MPPDataExchangeManager.SinkListener;
 import org.apache.iotdb.db.queryengine.execution.exchange.MPPDataExchangeManager.SourceHandleListener;
+import org.apache.iotdb.db.queryengine.execution.exchange.sink.SinkChannel;
 import org.apache.iotdb.db.queryengine.execution.exchange.source.SourceHandle;
 import org.apache.iotdb.db.queryengine.execution.memory.LocalMemoryManager;
 import org.apache.iotdb.db.queryengine.execution.memory.MemoryPool;
 import org.apache.iotdb.mpp.rpc.thrift.TAcknowledgeDataBlockEvent;
+import org.apache.iotdb.mpp.rpc.thrift.TDataBlockCreditEvent;
 import org.apache.iotdb.mpp.rpc.thrift.TFragmentInstanceId;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockRequest;
 import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockResponse;
+import org.apache.iotdb.mpp.rpc.thrift.TNewDataBlockEvent;
+import org.apache.iotdb.mpp.rpc.thrift.TPushDataBlockEvent;
 
 import org.apache.thrift.TException;
+import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.common.block.column.TsBlockSerde;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -44,7 +50,10 @@ import org.mockito.Mockito;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
@@ -54,16 +63,25 @@ public class SourceHandleTest {
   private static final long MOCK_TSBLOCK_SIZE = 1024L * 1024L;
 
   private static long maxBytesPerFI;
+  private static long pushCreditInBytes;
 
   @BeforeClass
   public static void beforeClass() {
     maxBytesPerFI = IoTDBDescriptor.getInstance().getConfig().getMaxBytesPerFragmentInstance();
     IoTDBDescriptor.getInstance().getConfig().setMaxBytesPerFragmentInstance(5 * MOCK_TSBLOCK_SIZE);
+    pushCreditInBytes =
+        IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePushCreditInBytes();
+    IoTDBDescriptor.getInstance()
+        .getConfig()
+        .setMppDataExchangePushCreditInBytes(2 * MOCK_TSBLOCK_SIZE);
   }
 
   @AfterClass
   public static void afterClass() {
     IoTDBDescriptor.getInstance().getConfig().setMaxBytesPerFragmentInstance(maxBytesPerFI);
+    IoTDBDescriptor.getInstance()
+        .getConfig()
+        .setMppDataExchangePushCreditInBytes(pushCreditInBytes);
   }
 
   @Test
@@ -674,4 +692,246 @@ public class SourceHandleTest {
     Mockito.verify(mockSourceHandleListener, Mockito.timeout(10_0000).times(1))
         .onAborted(sourceHandle);
   }
+
+  @Test
+  public void testPushedReceive() throws Exception {
+    final String queryId = "q0";
+    final TEndPoint remoteEndpoint =
+        new TEndPoint("remote", IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePort());
+    final TFragmentInstanceId remoteFragmentInstanceId = new TFragmentInstanceId(queryId, 1, "0");
+    final String localPlanNodeId = "exchange_0";
+    final TFragmentInstanceId localFragmentInstanceId = new TFragmentInstanceId(queryId, 0, "0");
+
+    // Construct a mock LocalMemoryManager that do not block any reservation.
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    MemoryPool mockMemoryPool = Utils.createMockNonBlockedMemoryPool();
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(mockMemoryPool);
+    IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient> mockClientManager =
+        Mockito.mock(IClientManager.class);
+    // Construct a mock client which accepts the credit.
+    SyncDataNodeMPPDataExchangeServiceClient mockClient =
+        Mockito.mock(SyncDataNodeMPPDataExchangeServiceClient.class);
+    Mockito.when(mockClientManager.borrowClient(remoteEndpoint)).thenReturn(mockClient);
+    Mockito.doAnswer(
+            invocation -> {
+              TGetDataBlockRequest req = invocation.getArgument(0);
+              List<ByteBuffer> byteBuffers =
+                  new ArrayList<>(req.getEndSequenceId() - req.getStartSequenceId());
+              for (int i = 0; i < req.getEndSequenceId() - req.getStartSequenceId(); i++) {
+                byteBuffers.add(ByteBuffer.allocate(0));
+              }
+              return new TGetDataBlockResponse(byteBuffers);
+            })
+        .when(mockClient)
+        .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+    Mockito.when(mockClient.onDataBlockCreditEvent(Mockito.any(TDataBlockCreditEvent.class)))
+        .thenReturn(true);
+    SourceHandleListener mockSourceHandleListener = Mockito.mock(SourceHandleListener.class);
+    TsBlockSerde mockTsBlockSerde = Utils.createMockTsBlockSerde(MOCK_TSBLOCK_SIZE);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    IoTDBDescriptor.getInstance().getConfig().setEnableMppDataExchangePushMode(true);
+    SourceHandle sourceHandle;
+    try {
+      sourceHandle =
+          new SourceHandle(
+              remoteEndpoint,
+              remoteFragmentInstanceId,
+              localFragmentInstanceId,
+              localPlanNodeId,
+              0,
+              mockLocalMemoryManager,
+              executorService,
+              mockTsBlockSerde,
+              mockSourceHandleListener,
+              mockClientManager);
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableMppDataExchangePushMode(false);
+    }
+    Assert.assertFalse(sourceHandle.isBlocked().isDone());
+
+    // The first TsBlock is pulled, then credit is granted to the upstream.
+    sourceHandle.updatePendingDataBlockInfo(0, Collections.singletonList(MOCK_TSBLOCK_SIZE));
+    Mockito.verify(mockClient, Mockito.timeout(10_000).times(1))
+        .onDataBlockCreditEvent(
+            Mockito.argThat(
+                e ->
+                    remoteFragmentInstanceId.equals(e.getSourceFragmentInstanceId())
+                        && 2 * MOCK_TSBLOCK_SIZE == e.getCreditInBytes()));
+
+    // The rest TsBlocks are pushed, which are serialized by ExchangeTsBlockSerde.
+    sourceHandle.receivePushedDataBlocks(
+        1,
+        Arrays.asList(MOCK_TSBLOCK_SIZE, MOCK_TSBLOCK_SIZE),
+        Arrays.asList(ByteBuffer.wrap(new byte[] {0}), ByteBuffer.wrap(new byte[] {0})),
+        true);
+    executorService.submit(() -> {}).get();
+    Assert.assertTrue(sourceHandle.isBlocked().isDone());
+    Assert.assertEquals(3 * MOCK_TSBLOCK_SIZE, sourceHandle.getBufferRetainedSizeInBytes());
+
+    for (int i = 0; i < 3; i++) {
+      Assert.assertNotNull(sourceHandle.receive());
+    }
+    sourceHandle.setNoMoreTsBlocks(2);
+    Assert.assertTrue(sourceHandle.isFinished());
+    // Only the first TsBlock is pulled.
+    Mockito.verify(mockClient, Mockito.times(1))
+        .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+
+    // Credit is granted again after the pushed TsBlocks are consumed, and the upstream may give
+    // it back.
+    executorService.submit(() -> {}).get();
+    Mockito.verify(mockClient, Mockito.times(2))
+        .onDataBlockCreditEvent(Mockito.any(TDataBlockCreditEvent.class));
+    Assert.assertEquals(2 * MOCK_TSBLOCK_SIZE, sourceHandle.getBufferRetainedSizeInBytes());
+    sourceHandle.returnPushCredit(2 * MOCK_TSBLOCK_SIZE);
+    Assert.assertEquals(0L, sourceHandle.getBufferRetainedSizeInBytes());
+    executorService.shutdown();
+  }
+
+  @Test
+  public void testPushFailedAfterReceived() throws Exception {
+    final String queryId = "q0";
+    final TEndPoint sourceEndpoint =
+        new TEndPoint("source", IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePort());
+    final TEndPoint sinkEndpoint =
+        new TEndPoint("sink", IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePort());
+    final TFragmentInstanceId sourceFragmentInstanceId = new TFragmentInstanceId(queryId, 0, "0");
+    final TFragmentInstanceId sinkFragmentInstanceId = new TFragmentInstanceId(queryId, 1, "0");
+    final String sourcePlanNodeId = "exchange_0";
+    final String sinkPlanNodeId = "fragmentSink_0";
+
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    MemoryPool mockMemoryPool = Utils.createMockNonBlockedMemoryPool();
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(mockMemoryPool);
+    TsBlockSerde mockTsBlockSerde = Utils.createMockTsBlockSerde(MOCK_TSBLOCK_SIZE);
+    Mockito.when(mockTsBlockSerde.serialize(Mockito.any(TsBlock.class)))
+        .thenAnswer(invocation -> ByteBuffer.allocate(0));
+    ExecutorService sourceExecutorService = Executors.newSingleThreadExecutor();
+    ExecutorService sinkExecutorService = Executors.newSingleThreadExecutor();
+
+    // The SourceHandle and the SinkChannel talk to each other through the mock clients.
+    IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient> sourceClientManager =
+        Mockito.mock(IClientManager.class);
+    SyncDataNodeMPPDataExchangeServiceClient sourceClient =
+        Mockito.mock(SyncDataNodeMPPDataExchangeServiceClient.class);
+    Mockito.when(sourceClientManager.borrowClient(sinkEndpoint)).thenReturn(sourceClient);
+    IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient> sinkClientManager =
+        Mockito.mock(IClientManager.class);
+    SyncDataNodeMPPDataExchangeServiceClient sinkClient =
+        Mockito.mock(SyncDataNodeMPPDataExchangeServiceClient.class);
+    Mockito.when(sinkClientManager.borrowClient(sourceEndpoint)).thenReturn(sinkClient);
+
+    IoTDBDescriptor.getInstance().getConfig().setEnableMppDataExchangePushMode(true);
+    SourceHandle sourceHandle;
+    try {
+      sourceHandle =
+          new SourceHandle(
+              sinkEndpoint,
+              sinkFragmentInstanceId,
+              sourceFragmentInstanceId,
+              sourcePlanNodeId,
+              0,
+              mockLocalMemoryManager,
+              sourceExecutorService,
+              mockTsBlockSerde,
+              Mockito.mock(SourceHandleListener.class),
+              sourceClientManager);
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableMppDataExchangePushMode(false);
+    }
+    SinkListener mockSinkListener = Mockito.mock(SinkListener.class);
+    SinkChannel sinkChannel =
+        new SinkChannel(
+            sourceEndpoint,
+            sourceFragmentInstanceId,
+            sourcePlanNodeId,
+            sinkPlanNodeId,
+            sinkFragmentInstanceId,
+            mockLocalMemoryManager,
+            sinkExecutorService,
+            mockTsBlockSerde,
+            mockSinkListener,
+            sinkClientManager);
+
+    Mockito.doAnswer(
+            invocation -> {
+              TGetDataBlockRequest req = invocation.getArgument(0);
+              List<ByteBuffer> byteBuffers = new ArrayList<>();
+              for (int i = req.getStartSequenceId(); i < req.getEndSequenceId(); i++) {
+                byteBuffers.add(sinkChannel.getSerializedTsBlock(i));
+              }
+              return new TGetDataBlockResponse(byteBuffers);
+            })
+        .when(sourceClient)
+        .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+    Mockito.doAnswer(
+            invocation -> {
+              TAcknowledgeDataBlockEvent e = invocation.getArgument(0);
+              sinkChannel.acknowledgeTsBlock(e.getStartSequenceId(), e.getEndSequenceId());
+              return null;
+            })
+        .when(sourceClient)
+        .onAcknowledgeDataBlockEvent(Mockito.any(TAcknowledgeDataBlockEvent.class));
+    Mockito.doAnswer(
+            invocation -> {
+              TDataBlockCreditEvent e = invocation.getArgument(0);
+              return sinkChannel.addPushCredit(
+                  e.getCreditInBytes(),
+                  e.isSetAcceptEncodedTsBlocks() && e.isAcceptEncodedTsBlocks());
+            })
+        .when(sourceClient)
+        .onDataBlockCreditEvent(Mockito.any(TDataBlockCreditEvent.class));
+    Mockito.doAnswer(
+            invocation -> {
+              TNewDataBlockEvent e = invocation.getArgument(0);
+              if (e.isSetReturnedCreditInBytes()) {
+                sourceHandle.returnPushCredit(e.getReturnedCreditInBytes());
+              }
+              sourceHandle.updatePendingDataBlockInfo(e.getStartSequenceId(), e.getBlockSizes());
+              return null;
+            })
+        .when(sinkClient)
+        .onNewDataBlockEvent(Mockito.any(TNewDataBlockEvent.class));
+    // The push is received by the SourceHandle, but the response is lost, e.g. by a timeout.
+    Mockito.doAnswer(
+            invocation -> {
+              TPushDataBlockEvent e = invocation.getArgument(0);
+              sourceHandle.receivePushedDataBlocks(
+                  e.getStartSequenceId(), e.getBlockSizes(), e.getTsBlocks(), e.isEncoded());
+              throw new TException("Mock exception");
+            })
+        .when(sinkClient)
+        .onPushDataBlockEvent(Mockito.any(TPushDataBlockEvent.class));
+
+    sinkChannel.open();
+    Assert.assertFalse(sourceHandle.isBlocked().isDone());
+    List<TsBlock> mockTsBlocks = Utils.createMockTsBlocks(2, MOCK_TSBLOCK_SIZE);
+    // The first TsBlock is pulled, then credit is granted to the SinkChannel.
+    sinkChannel.send(mockTsBlocks.get(0));
+    Mockito.verify(sourceClient, Mockito.timeout(10_000).times(1))
+        .onDataBlockCreditEvent(Mockito.any(TDataBlockCreditEvent.class));
+    Mockito.verify(sourceClient, Mockito.timeout(10_000).times(1))
+        .onAcknowledgeDataBlockEvent(Mockito.any(TAcknowledgeDataBlockEvent.class));
+
+    // The second TsBlock is pushed, the push fails and the TsBlock is announced again.
+    sinkChannel.send(mockTsBlocks.get(1));
+    Mockito.verify(sinkClient, Mockito.timeout(10_000).times(1))
+        .onNewDataBlockEvent(Mockito.argThat(e -> e.getStartSequenceId() == 1));
+    // The SourceHandle acks the TsBlock it has received instead of pulling it again.
+    Mockito.verify(sourceClient, Mockito.timeout(10_000).times(1))
+        .onAcknowledgeDataBlockEvent(
+            Mockito.argThat(e -> e.getStartSequenceId() == 1 && e.getEndSequenceId() == 2));
+    Mockito.verify(sourceClient, Mockito.times(1))
+        .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+
+    for (int i = 0; i < 2; i++) {
+      Assert.assertNotNull(sourceHandle.receive());
+    }
+    sinkChannel.setNoMoreTsBlocks();
+    Mockito.verify(mockSinkListener, Mockito.timeout(10_000).times(1)).onFinish(sinkChannel);
+    Assert.assertEquals(0, sinkChannel.getNumOfBufferedTsBlocks());
+    sourceExecutorService.shutdown();
+    sinkExecutorService.shutdown();
+  }
 }
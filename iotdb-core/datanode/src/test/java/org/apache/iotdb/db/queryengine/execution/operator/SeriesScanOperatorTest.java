@@ -23,6 +23,8 @@ import org.apache.iotdb.commons.exception.IllegalPathException;
 import org.apache.iotdb.commons.exception.MetadataException;
 import org.apache.iotdb.commons.path.IFullPath;
 import org.apache.iotdb.commons.path.NonAlignedFullPath;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
 import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
 import org.apache.iotdb.db.queryengine.common.QueryId;
@@ -30,6 +32,7 @@ import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceStateMachine;
 import org.apache.iotdb.db.queryengine.execution.operator.source.SeriesScanOperator;
+import org.apache.iotdb.db.queryengine.plan.planner.LocalExecutionPlanner;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.parameter.SeriesScanOptions;
 import org.apache.iotdb.db.queryengine.plan.statement.component.Ordering;
@@ -84,6 +87,39 @@ public class SeriesScanOperatorTest {
 
   @Test
   public void batchTest() throws Exception {
+    scanAndCheck(0);
+  }
+
+  @Test
+  public void batchTestWithChunkPrefetch() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean enableChunkPrefetch = config.isEnableChunkPrefetch();
+    int chunkPrefetchWindowSize = config.getChunkPrefetchWindowSize();
+    long freeMemoryForOperators = LocalExecutionPlanner.getInstance().getFreeMemoryForOperators();
+    config.setEnableChunkPrefetch(true);
+    config.setChunkPrefetchWindowSize(2);
+    try {
+      long chunkPrefetchMemoryInBytes = 1024 * 1024;
+      FragmentInstanceContext context = scanAndCheck(chunkPrefetchMemoryInBytes);
+      assertTrue(context.getQueryStatistics().getLoadChunkFromPrefetchCount().get() > 0);
+      // the memory of chunks read ahead is returned once the reads in progress are finished
+      context.closeChunkPrefetchers();
+      assertEquals(chunkPrefetchMemoryInBytes, context.getChunkPrefetchMemoryInBytes());
+      // and it is never taken from the free memory of other queries
+      assertEquals(
+          freeMemoryForOperators, LocalExecutionPlanner.getInstance().getFreeMemoryForOperators());
+
+      // no chunk is read ahead without memory estimated for the fragment instance
+      context = scanAndCheck(0);
+      assertEquals(0, context.getQueryStatistics().getLoadChunkFromPrefetchCount().get());
+      context.closeChunkPrefetchers();
+    } finally {
+      config.setEnableChunkPrefetch(enableChunkPrefetch);
+      config.setChunkPrefetchWindowSize(chunkPrefetchWindowSize);
+    }
+  }
+
+  private FragmentInstanceContext scanAndCheck(long chunkPrefetchMemoryInBytes) throws Exception {
     ExecutorService instanceNotificationExecutor =
         IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
     try {
@@ -99,6 +135,7 @@ public class SeriesScanOperatorTest {
           new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
       FragmentInstanceContext fragmentInstanceContext =
           createFragmentInstanceContext(instanceId, stateMachine);
+      fragmentInstanceContext.setChunkPrefetchMemoryInBytes(chunkPrefetchMemoryInBytes);
       DriverContext driverContext = new DriverContext(fragmentInstanceContext, 0);
       PlanNodeId planNodeId = new PlanNodeId("1");
       driverContext.addOperatorContext(1, planNodeId, SeriesScanOperator.class.getSimpleName());
@@ -136,9 +173,11 @@ public class SeriesScanOperatorTest {
         }
       }
       assertEquals(500, count);
+      return fragmentInstanceContext;
     } catch (IllegalPathException e) {
       e.printStackTrace();
       fail();
+      return null;
     } finally {
       instanceNotificationExecutor.shutdown();
     }
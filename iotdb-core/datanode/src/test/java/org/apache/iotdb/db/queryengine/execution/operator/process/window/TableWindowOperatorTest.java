@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
+import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceStateMachine;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowFrame;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.common.conf.TSFileDescriptor;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.utils.Binary;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext.createFragmentInstanceContext;
+import static org.apache.iotdb.db.queryengine.execution.operator.process.join.merge.MergeSortComparator.getComparatorForTable;
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanGraphPrinter.MAX_RESERVED_MEMORY;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.SortOrder.ASC_NULLS_LAST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TableWindowOperatorTest {
+
+  private static final ExecutorService instanceNotificationExecutor =
+      IoTDBThreadPoolFactory.newFixedThreadPool(1, "windowOperator-test-instance-notification");
+
+  // deviceId, time, s1, the input is sorted by deviceId and time
+  private static final String[] DEVICES = {"d1", "d1", "d1", "d1", "d1", "d2", "d2", "d2"};
+  private static final long[] TIMES = {1, 2, 2, 3, 4, 1, 2, 3};
+  private static final Integer[] VALUES = {1, 3, 2, null, 5, 10, 20, 30};
+  // the input is split into TsBlocks of these sizes, the third one contains two partitions
+  private static final int[] BLOCK_SIZES = {3, 1, 3, 1};
+
+  private static final List<TSDataType> INPUT_TYPES =
+      ImmutableList.of(TSDataType.TEXT, TSDataType.TIMESTAMP, TSDataType.INT32);
+
+  // row_number(), rank(), dense_rank(), lag(s1), lead(s1, 2),
+  // sum(s1) with the default frame, count(s1) ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING,
+  // max(s1) ROWS 1 PRECEDING, first_value(s1) ROWS BETWEEN 1 FOLLOWING AND UNBOUNDED FOLLOWING,
+  // last_value(s1) ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING,
+  // avg(s1) ROWS BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING
+  private static final Object[][] EXPECTED = {
+    {1L, 1L, 1L, null, 2, 1.0, 2L, 1, 3, null, 2.75},
+    {2L, 2L, 2L, 1, null, 6.0, 3L, 3, 2, 1, 2.75},
+    {3L, 2L, 2L, 3, 5, 6.0, 2L, 3, null, 3, 2.75},
+    {4L, 4L, 3L, 2, null, 6.0, 2L, 2, 5, 2, 2.75},
+    {5L, 5L, 4L, null, null, 11.0, 1L, 5, null, null, 2.75},
+    {1L, 1L, 1L, null, 30, 10.0, 2L, 10, 20, null, 20.0},
+    {2L, 2L, 2L, 10, null, 30.0, 3L, 20, 30, 10, 20.0},
+    {3L, 3L, 3L, 20, null, 60.0, 2L, 30, null, 20, 20.0}
+  };
+
+  @AfterClass
+  public static void tearDown() {
+    instanceNotificationExecutor.shutdown();
+  }
+
+  @Test
+  public void testWindowFunctions() throws Exception {
+    checkResult(genWindowOperator());
+  }
+
+  @Test
+  public void testSmallOutputTsBlock() throws Exception {
+    int maxTsBlockLineNumber = TSFileDescriptor.getInstance().getConfig().getMaxTsBlockLineNumber();
+    TSFileDescriptor.getInstance().getConfig().setMaxTsBlockLineNumber(2);
+    try {
+      checkResult(genWindowOperator());
+    } finally {
+      TSFileDescriptor.getInstance().getConfig().setMaxTsBlockLineNumber(maxTsBlockLineNumber);
+    }
+  }
+
+  @Test
+  public void testMultiBlockPartitionIsReserved() throws Exception {
+    // sum(s1) OVER (PARTITION BY deviceId) needs the whole partition before outputting any row
+    int blockNum = 4;
+    int blockSize = 3;
+    List<TsBlock> blocks = new ArrayList<>();
+    long partitionSize = 0;
+    for (int i = 0; i < blockNum; i++) {
+      String[] devices = new String[blockSize];
+      long[] times = new long[blockSize];
+      Integer[] values = new Integer[blockSize];
+      for (int j = 0; j < blockSize; j++) {
+        devices[j] = "d1";
+        times[j] = i * blockSize + j;
+        values[j] = i * blockSize + j + 1;
+      }
+      TsBlock block = buildTsBlock(devices, times, values, 0, blockSize);
+      partitionSize += block.getRetainedSizeInBytes();
+      blocks.add(block);
+    }
+    DriverContext driverContext = createDriverContext();
+    OperatorContext operatorContext = driverContext.getOperatorContexts().get(1);
+    List<TSDataType> outputTypes = new ArrayList<>(INPUT_TYPES);
+    outputTypes.add(TSDataType.DOUBLE);
+
+    try (TableWindowOperator windowOperator =
+        new TableWindowOperator(
+            operatorContext,
+            new ChildOperator(driverContext.getOperatorContexts().get(0), blocks),
+            INPUT_TYPES,
+            outputTypes,
+            new WindowFunction[] {
+              new SumWindowFunction(WindowNode.Frame.DEFAULT_FRAME, 2, TSDataType.INT32, false)
+            },
+            getComparatorForTable(
+                ImmutableList.of(ASC_NULLS_LAST),
+                ImmutableList.of(0),
+                ImmutableList.of(TSDataType.TEXT)),
+            null)) {
+      int count = 0;
+      while (!windowOperator.isFinished() && windowOperator.hasNext()) {
+        TsBlock tsBlock = windowOperator.next();
+        if (tsBlock == null || tsBlock.isEmpty()) {
+          continue;
+        }
+        for (int i = 0; i < tsBlock.getPositionCount(); i++, count++) {
+          assertEquals(78.0, tsBlock.getColumn(INPUT_TYPES.size()).getDouble(i), 0);
+        }
+      }
+      assertEquals(blockNum * blockSize, count);
+      assertEquals(
+          Long.toString(partitionSize),
+          operatorContext.getSpecifiedInfo().get(MAX_RESERVED_MEMORY));
+    }
+  }
+
+  private void checkResult(TableWindowOperator operator) throws Exception {
+    try (TableWindowOperator windowOperator = operator) {
+      int count = 0;
+      while (!windowOperator.isFinished() && windowOperator.hasNext()) {
+        windowOperator.isBlocked().get();
+        TsBlock tsBlock = windowOperator.next();
+        if (tsBlock == null || tsBlock.isEmpty()) {
+          continue;
+        }
+        assertTrue(
+            tsBlock.getPositionCount()
+                <= TSFileDescriptor.getInstance().getConfig().getMaxTsBlockLineNumber());
+        for (int i = 0; i < tsBlock.getPositionCount(); i++, count++) {
+          assertEquals(
+              DEVICES[count],
+              tsBlock.getColumn(0).getBinary(i).getStringValue(TSFileConfig.STRING_CHARSET));
+          assertEquals(TIMES[count], tsBlock.getColumn(1).getLong(i));
+          for (int j = 0; j < EXPECTED[count].length; j++) {
+            assertEquals(
+                String.format("row %d, function %d", count, j),
+                EXPECTED[count][j],
+                getValue(tsBlock.getColumn(INPUT_TYPES.size() + j), i));
+          }
+        }
+      }
+      assertEquals(DEVICES.length, count);
+    }
+  }
+
+  private static Object getValue(Column column, int position) {
+    if (column.isNull(position)) {
+      return null;
+    }
+    switch (column.getDataType()) {
+      case INT32:
+        return column.getInt(position);
+      case INT64:
+        return column.getLong(position);
+      case DOUBLE:
+        return column.getDouble(position);
+      default:
+        throw new IllegalArgumentException("Unexpected data type " + column.getDataType());
+    }
+  }
+
+  private static WindowNode.Frame rowsFrame(
+      FrameBound.Type startType, long startOffset, FrameBound.Type endType, long endOffset) {
+    return new WindowNode.Frame(WindowFrame.Type.ROWS, startType, startOffset, endType, endOffset);
+  }
+
+  private static DriverContext createDriverContext() {
+    QueryId queryId = new QueryId("stub_query");
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    DriverContext driverContext = new DriverContext(fragmentInstanceContext, 0);
+    driverContext.addOperatorContext(
+        1, new PlanNodeId("1"), TableScanOperator.class.getSimpleName());
+    driverContext.addOperatorContext(
+        2, new PlanNodeId("2"), TableWindowOperator.class.getSimpleName());
+    return driverContext;
+  }
+
+  private static TsBlock buildTsBlock(
+      String[] devices, long[] times, Integer[] values, int offset, int size) {
+    TsBlockBuilder builder = new TsBlockBuilder(size, INPUT_TYPES);
+    for (int i = offset; i < offset + size; i++) {
+      builder.getColumnBuilder(0).writeBinary(new Binary(devices[i], TSFileConfig.STRING_CHARSET));
+      builder.getColumnBuilder(1).writeLong(times[i]);
+      if (values[i] == null) {
+        builder.getColumnBuilder(2).appendNull();
+      } else {
+        builder.getColumnBuilder(2).writeInt(values[i]);
+      }
+    }
+    builder.declarePositions(size);
+    return builder.build(new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, size));
+  }
+
+  private TableWindowOperator genWindowOperator() {
+    DriverContext driverContext = createDriverContext();
+
+    WindowFunction[] windowFunctions =
+        new WindowFunction[] {
+          new RankingWindowFunction(RankingWindowFunction.Type.ROW_NUMBER),
+          new RankingWindowFunction(RankingWindowFunction.Type.RANK),
+          new RankingWindowFunction(RankingWindowFunction.Type.DENSE_RANK),
+          new OffsetWindowFunction(2, 1, false),
+          new OffsetWindowFunction(2, 2, true),
+          new SumWindowFunction(WindowNode.Frame.DEFAULT_FRAME, 2, TSDataType.INT32, false),
+          new CountWindowFunction(
+              rowsFrame(FrameBound.Type.PRECEDING, 1, FrameBound.Type.FOLLOWING, 1), 2),
+          new ExtremeWindowFunction(
+              rowsFrame(FrameBound.Type.PRECEDING, 1, FrameBound.Type.CURRENT_ROW, 0),
+              2,
+              TSDataType.INT32,
+              true),
+          new FrameValueWindowFunction(
+              rowsFrame(FrameBound.Type.FOLLOWING, 1, FrameBound.Type.UNBOUNDED_FOLLOWING, 0),
+              2,
+              false),
+          new FrameValueWindowFunction(
+              rowsFrame(FrameBound.Type.UNBOUNDED_PRECEDING, 0, FrameBound.Type.PRECEDING, 1),
+              2,
+              true),
+          new SumWindowFunction(
+              rowsFrame(
+                  FrameBound.Type.UNBOUNDED_PRECEDING, 0, FrameBound.Type.UNBOUNDED_FOLLOWING, 0),
+              2,
+              TSDataType.INT32,
+              true)
+        };
+    List<TSDataType> outputTypes = new ArrayList<>(INPUT_TYPES);
+    outputTypes.addAll(
+        Arrays.asList(
+            TSDataType.INT64,
+            TSDataType.INT64,
+            TSDataType.INT64,
+            TSDataType.INT32,
+            TSDataType.INT32,
+            TSDataType.DOUBLE,
+            TSDataType.INT64,
+            TSDataType.INT32,
+            TSDataType.INT32,
+            TSDataType.INT32,
+            TSDataType.DOUBLE));
+
+    List<TsBlock> blocks = new ArrayList<>();
+    for (int i = 0, offset = 0; i < BLOCK_SIZES.length; offset += BLOCK_SIZES[i++]) {
+      blocks.add(buildTsBlock(DEVICES, TIMES, VALUES, offset, BLOCK_SIZES[i]));
+    }
+    return new TableWindowOperator(
+        driverContext.getOperatorContexts().get(1),
+        new ChildOperator(driverContext.getOperatorContexts().get(0), blocks),
+        INPUT_TYPES,
+        outputTypes,
+        windowFunctions,
+        getComparatorForTable(
+            ImmutableList.of(ASC_NULLS_LAST),
+            ImmutableList.of(0),
+            ImmutableList.of(TSDataType.TEXT)),
+        getComparatorForTable(
+            ImmutableList.of(ASC_NULLS_LAST),
+            ImmutableList.of(1),
+            ImmutableList.of(TSDataType.TIMESTAMP)));
+  }
+
+  private static class ChildOperator implements Operator {
+
+    private final OperatorContext operatorContext;
+    private final List<TsBlock> blocks;
+    private int blockIndex = 0;
+
+    private ChildOperator(OperatorContext operatorContext, List<TsBlock> blocks) {
+      this.operatorContext = operatorContext;
+      this.blocks = blocks;
+    }
+
+    @Override
+    public OperatorContext getOperatorContext() {
+      return operatorContext;
+    }
+
+    @Override
+    public TsBlock next() {
+      return blocks.get(blockIndex++);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return blockIndex < blocks.size();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public boolean isFinished() {
+      return !hasNext();
+    }
+
+    @Override
+    public long calculateMaxPeekMemory() {
+      return 0;
+    }
+
+    @Override
+    public long calculateMaxReturnSize() {
+      return 0;
+    }
+
+    @Override
+    public long calculateRetainedSizeAfterCallingNext() {
+      return 0;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return 0;
+    }
+  }
+}
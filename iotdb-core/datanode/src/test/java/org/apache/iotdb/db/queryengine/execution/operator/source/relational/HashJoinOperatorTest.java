@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
+import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceStateMachine;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.type.LongType;
+import org.apache.tsfile.read.common.type.StringType;
+import org.apache.tsfile.read.common.type.Type;
+import org.apache.tsfile.utils.Binary;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+
+import static org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext.createFragmentInstanceContext;
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.apache.iotdb.db.utils.EnvironmentUtils.cleanDir;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashJoinOperatorTest {
+
+  private static final String TMP_DIR =
+      "target" + File.separator + "hashjoin" + File.separator + "tmp" + File.separator;
+
+  private static final ExecutorService instanceNotificationExecutor =
+      IoTDBThreadPoolFactory.newFixedThreadPool(1, "hashJoinOperator-test-instance-notification");
+
+  private static final int ROW_NUM = 300;
+
+  @After
+  public void cleanUp() throws IOException {
+    cleanDir("target" + File.separator + "hashjoin");
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    instanceNotificationExecutor.shutdown();
+  }
+
+  @Test
+  public void testInnerJoinWithLongKey() throws Exception {
+    Object[][] left = genRows(7, 11, false);
+    Object[][] right = genRows(5, 13, false);
+    for (long buildBufferSize : new long[] {Long.MAX_VALUE, 1}) {
+      assertEquals(
+          expectedJoin(left, right, false),
+          runJoin(left, right, LongType.INT64, false, buildBufferSize));
+    }
+  }
+
+  @Test
+  public void testLeftJoinWithStringKey() throws Exception {
+    Object[][] left = genRows(7, 11, true);
+    Object[][] right = genRows(5, 13, true);
+    for (long buildBufferSize : new long[] {Long.MAX_VALUE, 1}) {
+      assertEquals(
+          expectedJoin(left, right, true),
+          runJoin(left, right, StringType.STRING, true, buildBufferSize));
+    }
+  }
+
+  @Test
+  public void testInnerJoinWithSkewedBuildKeys() throws Exception {
+    // rows of a key can't be split by partitioning, so the partitions reach the max level
+    Object[][] left = genRows(7, 11, false);
+    Object[][] right = genRows(1, 13, false);
+    for (long buildBufferSize : new long[] {Long.MAX_VALUE, 1}) {
+      assertEquals(
+          expectedJoin(left, right, false),
+          runJoin(left, right, LongType.INT64, false, buildBufferSize));
+    }
+  }
+
+  @Test
+  public void testInnerJoinWithEmptyBuildSide() throws Exception {
+    assertTrue(
+        runJoin(genRows(7, 11, false), new Object[0][], LongType.INT64, false, Long.MAX_VALUE)
+            .isEmpty());
+  }
+
+  @Test
+  public void testSemiJoin() throws Exception {
+    Object[][] left = genRows(7, 11, true);
+    Object[][] right = genRows(5, 13, true);
+    Object[][] rightWithoutNull =
+        Arrays.stream(right).filter(row -> row[0] != null).toArray(Object[][]::new);
+    for (long buildBufferSize : new long[] {Long.MAX_VALUE, 1}) {
+      assertEquals(expectedSemiJoin(left, right), runSemiJoin(left, right, buildBufferSize));
+      assertEquals(
+          expectedSemiJoin(left, rightWithoutNull),
+          runSemiJoin(left, rightWithoutNull, buildBufferSize));
+    }
+  }
+
+  /**
+   * Each row is {join key, value}, join keys are in [0, 2 * keyNum) and values start from
+   * valueBase. A NULL join key is represented by null.
+   */
+  private static Object[][] genRows(int keyNum, int valueBase, boolean withNullKey) {
+    Object[][] rows = new Object[ROW_NUM][];
+    for (int i = 0; i < ROW_NUM; i++) {
+      Long key = withNullKey && i % 10 == 0 ? null : (long) ((i * 31) % (keyNum * 2));
+      rows[i] = new Object[] {key, valueBase + i};
+    }
+    return rows;
+  }
+
+  private static List<String> expectedJoin(
+      Object[][] left, Object[][] right, boolean isLeftOuterJoin) {
+    List<String> result = new ArrayList<>();
+    for (Object[] leftRow : left) {
+      boolean matched = false;
+      for (Object[] rightRow : right) {
+        if (leftRow[0] != null && Objects.equals(leftRow[0], rightRow[0])) {
+          result.add(leftRow[0] + "," + leftRow[1] + "," + rightRow[0] + "," + rightRow[1]);
+          matched = true;
+        }
+      }
+      if (!matched && isLeftOuterJoin) {
+        result.add(leftRow[0] + "," + leftRow[1] + ",null,null");
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private static List<String> expectedSemiJoin(Object[][] left, Object[][] right) {
+    boolean rightHasNull = Arrays.stream(right).anyMatch(row -> row[0] == null);
+    List<String> result = new ArrayList<>();
+    for (Object[] leftRow : left) {
+      Boolean matched;
+      if (leftRow[0] == null) {
+        matched = null;
+      } else if (Arrays.stream(right).anyMatch(row -> leftRow[0].equals(row[0]))) {
+        matched = true;
+      } else {
+        matched = rightHasNull ? null : false;
+      }
+      result.add(leftRow[0] + "," + leftRow[1] + "," + matched);
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private List<String> runJoin(
+      Object[][] left,
+      Object[][] right,
+      Type keyType,
+      boolean isLeftOuterJoin,
+      long buildBufferSize)
+      throws Exception {
+    TSDataType keyDataType = keyType == LongType.INT64 ? TSDataType.INT64 : TSDataType.STRING;
+    DriverContext driverContext = createDriverContext();
+    OperatorContext operatorContext =
+        driverContext.addOperatorContext(
+            1, new PlanNodeId("1"), HashJoinOperator.class.getSimpleName());
+    List<TSDataType> dataTypes =
+        Arrays.asList(keyDataType, TSDataType.INT32, keyDataType, TSDataType.INT32);
+    try (HashJoinOperator operator =
+        new HashJoinOperator(
+            operatorContext,
+            new BlockOperator(operatorContext, toBlocks(left, keyDataType)),
+            new int[] {0},
+            new int[] {0, 1},
+            new BlockOperator(operatorContext, toBlocks(right, keyDataType)),
+            new int[] {0},
+            new int[] {0, 1},
+            Collections.singletonList(keyType),
+            dataTypes,
+            isLeftOuterJoin,
+            TMP_DIR,
+            buildBufferSize)) {
+      return collect(operator, dataTypes.size());
+    }
+  }
+
+  private List<String> runSemiJoin(Object[][] left, Object[][] right, long buildBufferSize)
+      throws Exception {
+    DriverContext driverContext = createDriverContext();
+    OperatorContext operatorContext =
+        driverContext.addOperatorContext(
+            1, new PlanNodeId("1"), HashSemiJoinOperator.class.getSimpleName());
+    try (HashSemiJoinOperator operator =
+        new HashSemiJoinOperator(
+            operatorContext,
+            new BlockOperator(operatorContext, toBlocks(left, TSDataType.STRING)),
+            0,
+            new int[] {0, 1},
+            new BlockOperator(operatorContext, toBlocks(right, TSDataType.STRING)),
+            0,
+            StringType.STRING,
+            Arrays.asList(TSDataType.STRING, TSDataType.INT32, TSDataType.BOOLEAN),
+            TMP_DIR,
+            buildBufferSize)) {
+      return collect(operator, 3);
+    }
+  }
+
+  private static DriverContext createDriverContext() {
+    QueryId queryId = new QueryId("stub_query");
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    return new DriverContext(fragmentInstanceContext, 0);
+  }
+
+  private static List<String> collect(Operator operator, int columnNum) throws Exception {
+    List<String> result = new ArrayList<>();
+    while (!operator.isFinished() && operator.hasNext()) {
+      operator.isBlocked().get();
+      TsBlock block = operator.next();
+      if (block == null) {
+        continue;
+      }
+      for (int i = 0; i < block.getPositionCount(); i++) {
+        StringBuilder row = new StringBuilder();
+        for (int j = 0; j < columnNum; j++) {
+          if (j > 0) {
+            row.append(',');
+          }
+          if (block.getColumn(j).isNull(i)) {
+            row.append("null");
+          } else if (block.getColumn(j).getDataType() == TSDataType.STRING) {
+            row.append(block.getColumn(j).getBinary(i).getStringValue(TSFileConfig.STRING_CHARSET));
+          } else {
+            row.append(block.getColumn(j).getObject(i));
+          }
+        }
+        result.add(row.toString());
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  /** Rows are split into TsBlocks of 32 rows. */
+  private static List<TsBlock> toBlocks(Object[][] rows, TSDataType keyDataType) {
+    List<TsBlock> blocks = new ArrayList<>();
+    TsBlockBuilder builder = new TsBlockBuilder(Arrays.asList(keyDataType, TSDataType.INT32));
+    for (int i = 0; i < rows.length; i++) {
+      if (rows[i][0] == null) {
+        builder.getColumnBuilder(0).appendNull();
+      } else if (keyDataType == TSDataType.INT64) {
+        builder.getColumnBuilder(0).writeLong((Long) rows[i][0]);
+      } else {
+        builder
+            .getColumnBuilder(0)
+            .writeBinary(new Binary(rows[i][0].toString(), TSFileConfig.STRING_CHARSET));
+      }
+      builder.getColumnBuilder(1).writeInt((Integer) rows[i][1]);
+      builder.declarePosition();
+      if (builder.getPositionCount() == 32 || i == rows.length - 1) {
+        blocks.add(
+            builder.build(
+                new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, builder.getPositionCount())));
+        builder.reset();
+      }
+    }
+    return blocks;
+  }
+
+  private static class BlockOperator implements Operator {
+
+    private final OperatorContext operatorContext;
+    private final List<TsBlock> blocks;
+    private int index;
+
+    private BlockOperator(OperatorContext operatorContext, List<TsBlock> blocks) {
+      this.operatorContext = operatorContext;
+      this.blocks = blocks;
+    }
+
+    @Override
+    public OperatorContext getOperatorContext() {
+      return operatorContext;
+    }
+
+    @Override
+    public TsBlock next() {
+      return blocks.get(index++);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < blocks.size();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public boolean isFinished() {
+      return index >= blocks.size();
+    }
+
+    @Override
+    public long calculateMaxPeekMemory() {
+      return 0;
+    }
+
+    @Override
+    public long calculateMaxReturnSize() {
+      return 0;
+    }
+
+    @Override
+    public long calculateRetainedSizeAfterCallingNext() {
+      return 0;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.common.SessionInfo;
+import org.apache.iotdb.db.queryengine.execution.warnings.WarningCollector;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.FilterStatsCalculator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsCalculator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.PlanNodeStatsEstimate;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.StatsProvider;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.cost.SymbolStatsEstimate;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.GroupReference;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Lookup;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.Rule;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.iterative.rule.DetermineJoinDistributionType;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ComparisonExpression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.LongLiteral;
+import org.apache.iotdb.db.queryengine.plan.relational.utils.matching.Captures;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlanNodeStatsCalculatorTest {
+
+  private static final Symbol S1 = new Symbol("s1");
+  private static final Symbol LEFT_KEY = new Symbol("l");
+  private static final Symbol RIGHT_KEY = new Symbol("r");
+
+  @Test
+  public void filterStatsTest() {
+    PlanNodeStatsEstimate input =
+        new PlanNodeStatsEstimate(
+            1000, ImmutableMap.of(S1, new SymbolStatsEstimate(0, 100, 0, 100)));
+
+    assertEquals(
+        250,
+        filter(input, ComparisonExpression.Operator.GREATER_THAN_OR_EQUAL, 75).getOutputRowCount(),
+        0.001);
+    assertEquals(
+        10, filter(input, ComparisonExpression.Operator.EQUAL, 5).getOutputRowCount(), 0.001);
+    // the value is out of the range of the column
+    assertEquals(
+        0, filter(input, ComparisonExpression.Operator.EQUAL, 200).getOutputRowCount(), 0.001);
+    // the predicate can't be estimated without the stats of the column
+    assertEquals(
+        900,
+        FilterStatsCalculator.filterStats(
+                new PlanNodeStatsEstimate(1000, Collections.emptyMap()),
+                new ComparisonExpression(
+                    ComparisonExpression.Operator.EQUAL,
+                    S1.toSymbolReference(),
+                    new LongLiteral("5")))
+            .getOutputRowCount(),
+        0.001);
+  }
+
+  @Test
+  public void joinStatsTest() {
+    GroupReference left = new GroupReference(new PlanNodeId("1"), 1, ImmutableList.of(LEFT_KEY));
+    GroupReference right = new GroupReference(new PlanNodeId("2"), 2, ImmutableList.of(RIGHT_KEY));
+    StatsProvider sourceStats =
+        statsProvider(
+            left,
+            new PlanNodeStatsEstimate(
+                1000, ImmutableMap.of(LEFT_KEY, new SymbolStatsEstimate(0, 9, 0, 10))),
+            right,
+            new PlanNodeStatsEstimate(
+                100, ImmutableMap.of(RIGHT_KEY, new SymbolStatsEstimate(0, 99, 0, 100))));
+    PlanNodeStatsCalculator calculator = new PlanNodeStatsCalculator(table -> Optional.empty());
+
+    assertEquals(
+        1000,
+        calculator
+            .calculateStats(
+                join(JoinNode.JoinType.INNER, left, right), sourceStats, Lookup.noLookup())
+            .getOutputRowCount(),
+        0.001);
+
+    // the rows of the right side are unknown
+    assertTrue(
+        calculator
+            .calculateStats(
+                join(JoinNode.JoinType.INNER, left, right),
+                node -> node == left ? sourceStats.getStats(left) : PlanNodeStatsEstimate.unknown(),
+                Lookup.noLookup())
+            .isOutputRowCountUnknown());
+  }
+
+  @Test
+  public void determineJoinDistributionTypeTest() {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean enableHashJoin = config.isEnableHashJoin();
+    long hashJoinMaxEstimatedBuildRowNum = config.getHashJoinMaxEstimatedBuildRowNum();
+    boolean enableCostBasedJoinOptimization = config.isEnableCostBasedJoinOptimization();
+    config.setEnableHashJoin(true);
+    config.setHashJoinMaxEstimatedBuildRowNum(5000);
+    config.setEnableCostBasedJoinOptimization(true);
+    try {
+      GroupReference small = new GroupReference(new PlanNodeId("1"), 1, ImmutableList.of(LEFT_KEY));
+      GroupReference large =
+          new GroupReference(new PlanNodeId("2"), 2, ImmutableList.of(RIGHT_KEY));
+      StatsProvider statsProvider =
+          statsProvider(
+              small,
+              new PlanNodeStatsEstimate(1000, Collections.emptyMap()),
+              large,
+              new PlanNodeStatsEstimate(10000, Collections.emptyMap()));
+
+      // the smaller side is moved to the right to be the build side of hash join
+      JoinNode result =
+          determineDistributionType(join(JoinNode.JoinType.INNER, small, large), statsProvider);
+      assertEquals(JoinNode.DistributionType.HASH, result.getDistributionType().get());
+      assertEquals(small, result.getRightChild());
+      assertEquals(RIGHT_KEY, result.getCriteria().get(0).getLeft());
+
+      // the left join can't be flipped, and the build side is too large for hash join
+      result = determineDistributionType(join(JoinNode.JoinType.LEFT, small, large), statsProvider);
+      assertEquals(JoinNode.DistributionType.MERGE_SORT, result.getDistributionType().get());
+      assertEquals(large, result.getRightChild());
+
+      // the build side whose size is unknown is joined by hash join, the sorts on the join keys
+      // are removed
+      SortNode leftSort = sort(small, LEFT_KEY);
+      SortNode rightSort = sort(large, RIGHT_KEY);
+      result =
+          determineDistributionType(
+              join(JoinNode.JoinType.LEFT, leftSort, rightSort),
+              node ->
+                  node == small ? statsProvider.getStats(small) : PlanNodeStatsEstimate.unknown());
+      assertEquals(JoinNode.DistributionType.HASH, result.getDistributionType().get());
+      assertEquals(small, result.getLeftChild());
+      assertEquals(large, result.getRightChild());
+
+      // the sorts are kept for merge sort join
+      config.setEnableHashJoin(false);
+      result =
+          determineDistributionType(
+              join(JoinNode.JoinType.INNER, leftSort, rightSort), statsProvider);
+      assertEquals(JoinNode.DistributionType.MERGE_SORT, result.getDistributionType().get());
+      assertEquals(leftSort, result.getLeftChild());
+      assertEquals(rightSort, result.getRightChild());
+    } finally {
+      config.setEnableHashJoin(enableHashJoin);
+      config.setHashJoinMaxEstimatedBuildRowNum(hashJoinMaxEstimatedBuildRowNum);
+      config.setEnableCostBasedJoinOptimization(enableCostBasedJoinOptimization);
+    }
+  }
+
+  private static PlanNodeStatsEstimate filter(
+      PlanNodeStatsEstimate input, ComparisonExpression.Operator operator, long value) {
+    return FilterStatsCalculator.filterStats(
+        input,
+        new ComparisonExpression(
+            operator, S1.toSymbolReference(), new LongLiteral(String.valueOf(value))));
+  }
+
+  private static JoinNode join(JoinNode.JoinType joinType, PlanNode left, PlanNode right) {
+    return new JoinNode(
+        new PlanNodeId("join"),
+        joinType,
+        left,
+        right,
+        ImmutableList.of(new JoinNode.EquiJoinClause(LEFT_KEY, RIGHT_KEY)),
+        ImmutableList.of(LEFT_KEY),
+        ImmutableList.of(RIGHT_KEY),
+        Optional.empty(),
+        Optional.empty());
+  }
+
+  private static SortNode sort(PlanNode child, Symbol key) {
+    return new SortNode(
+        new PlanNodeId("sort_" + key.getName()),
+        child,
+        new OrderingScheme(ImmutableList.of(key), ImmutableMap.of(key, SortOrder.ASC_NULLS_LAST)),
+        false,
+        false);
+  }
+
+  private static StatsProvider statsProvider(
+      PlanNode left,
+      PlanNodeStatsEstimate leftStats,
+      PlanNode right,
+      PlanNodeStatsEstimate rightStats) {
+    return node -> {
+      if (node == left) {
+        return leftStats;
+      }
+      return node == right ? rightStats : PlanNodeStatsEstimate.unknown();
+    };
+  }
+
+  private static JoinNode determineDistributionType(JoinNode join, StatsProvider statsProvider) {
+    return (JoinNode)
+        new DetermineJoinDistributionType()
+            .apply(join, Captures.empty(), ruleContext(statsProvider))
+            .getTransformedPlan()
+            .get();
+  }
+
+  private static Rule.Context ruleContext(StatsProvider statsProvider) {
+    return new Rule.Context() {
+      @Override
+      public Lookup getLookup() {
+        // the group references are the leaves of the tested plans
+        return Lookup.from(Stream::of);
+      }
+
+      @Override
+      public QueryId getIdAllocator() {
+        return new QueryId("test_query");
+      }
+
+      @Override
+      public SymbolAllocator getSymbolAllocator() {
+        return new SymbolAllocator();
+      }
+
+      @Override
+      public SessionInfo getSessionInfo() {
+        return null;
+      }
+
+      @Override
+      public StatsProvider getStatsProvider() {
+        return statsProvider;
+      }
+
+      @Override
+      public void checkTimeoutNotExhausted() {}
+
+      @Override
+      public WarningCollector getWarningCollector() {
+        return WarningCollector.NOOP;
+      }
+    };
+  }
+}
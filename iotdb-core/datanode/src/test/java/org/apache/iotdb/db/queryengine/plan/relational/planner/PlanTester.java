@@ -102,6 +102,10 @@ public class PlanTester {
     return createPlan(sessionInfo, sql, NOOP, createPlanOptimizersStatsCollector());
   }
 
+  public LogicalQueryPlan createPlan(String sql, List<PlanOptimizer> optimizers) {
+    return createPlan(sessionInfo, sql, optimizers, NOOP, createPlanOptimizersStatsCollector());
+  }
+
   public LogicalQueryPlan createPlan(SessionInfo sessionInfo, String sql) {
     return createPlan(sessionInfo, sql, NOOP, createPlanOptimizersStatsCollector());
   }
@@ -137,12 +141,16 @@ public class PlanTester {
     MPPQueryContext context = new MPPQueryContext(sql, queryId, sessionInfo, null, null);
 
     Analysis analysis = analyze(sql, metadata);
+    this.analysis = analysis;
+    this.symbolAllocator = new SymbolAllocator();
 
     TableLogicalPlanner logicalPlanner =
         new TableLogicalPlanner(
             context, metadata, sessionInfo, symbolAllocator, WarningCollector.NOOP, optimizers);
 
-    return logicalPlanner.plan(analysis);
+    plan = logicalPlanner.plan(analysis);
+
+    return plan;
   }
 
   public static Analysis analyze(String sql, Metadata metadata) {
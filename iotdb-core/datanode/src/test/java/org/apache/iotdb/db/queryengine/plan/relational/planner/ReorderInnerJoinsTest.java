@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.LogicalQueryPlan;
+import org.apache.iotdb.db.queryengine.plan.relational.analyzer.TestMatadata;
+import org.apache.iotdb.db.queryengine.plan.relational.metadata.Metadata;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.optimizations.LogicalOptimizeFactory;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.optimizations.PlanOptimizer;
+import org.apache.iotdb.db.queryengine.plan.relational.type.InternalTypeManager;
+import org.apache.iotdb.db.storageengine.dataregion.statistics.TableStatistics;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanAssert.assertPlan;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.join;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.output;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.sort;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.tableScan;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode.JoinType.INNER;
+
+public class ReorderInnerJoinsTest {
+
+  // a, b and c are all aliases of table1, whose 6 devices have 3 distinct tag1 values. Joining on
+  // tag1 matches each row with a third of the other side, while joining on time matches each row
+  // with the 6 rows of the same time, as a device has 1000 rows spread over 1000 timestamps.
+  private static final String SQL =
+      "SELECT a.s1, c.s2 FROM table1 a JOIN table1 b ON a.tag1 = b.tag1 "
+          + "JOIN table1 c ON b.time = c.time";
+
+  private static final TableStatistics TABLE1_STATISTICS =
+      new TableStatistics(6000, 6, 0, 999, Collections.emptyMap());
+
+  private final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private boolean enableCostBasedJoinOptimization;
+  private boolean enableHashJoin;
+
+  @Before
+  public void setUp() {
+    enableCostBasedJoinOptimization = config.isEnableCostBasedJoinOptimization();
+    enableHashJoin = config.isEnableHashJoin();
+    config.setEnableCostBasedJoinOptimization(true);
+    config.setEnableHashJoin(false);
+  }
+
+  @After
+  public void tearDown() {
+    config.setEnableCostBasedJoinOptimization(enableCostBasedJoinOptimization);
+    config.setEnableHashJoin(enableHashJoin);
+  }
+
+  @Test
+  public void reorderThreeTableJoinTest() {
+    LogicalQueryPlan plan = createPlan(Optional.of(TABLE1_STATISTICS));
+
+    PlanMatchPattern tableScanA = tableScan("testdb.table1", ImmutableMap.of("A_TAG1", "tag1"));
+    PlanMatchPattern tableScanB =
+        tableScan("testdb.table1", ImmutableMap.of("B_TAG1", "tag1", "B_TIME", "time"));
+    PlanMatchPattern tableScanC = tableScan("testdb.table1", ImmutableMap.of("C_TIME", "time"));
+
+    // Verify the rewritten LogicalPlan
+    /*
+     *   └──OutputNode
+     *       └──JoinNode (b.tag1 = a.tag1)
+     *           |──SortNode
+     *           │   └──JoinNode (b.time = c.time)
+     *           │       |──SortNode
+     *           │       │   └──TableScanNode (b)
+     *           │       └──SortNode
+     *           │           └──TableScanNode (c)
+     *           └──SortNode
+     *               └──TableScanNode (a)
+     *
+     * b is joined with c first, whose result is smaller than joining a with b. The smaller side
+     * of the outer join is then moved to the right as its build side.
+     */
+    assertPlan(
+        plan,
+        output(
+            join(
+                INNER,
+                builder ->
+                    builder
+                        .equiCriteria("B_TAG1", "A_TAG1")
+                        .left(
+                            sort(
+                                join(
+                                    INNER,
+                                    innerBuilder ->
+                                        innerBuilder
+                                            .equiCriteria("B_TIME", "C_TIME")
+                                            .left(sort(tableScanB))
+                                            .right(sort(tableScanC)))))
+                        .right(sort(tableScanA)))));
+  }
+
+  @Test
+  public void keepJoinOrderWithoutStatisticsTest() {
+    LogicalQueryPlan plan = createPlan(Optional.empty());
+
+    PlanMatchPattern tableScanA = tableScan("testdb.table1", ImmutableMap.of("A_TAG1", "tag1"));
+    PlanMatchPattern tableScanB =
+        tableScan("testdb.table1", ImmutableMap.of("B_TAG1", "tag1", "B_TIME", "time"));
+    PlanMatchPattern tableScanC = tableScan("testdb.table1", ImmutableMap.of("C_TIME", "time"));
+
+    // the joins can't be estimated, so they are planned as they are written
+    assertPlan(
+        plan,
+        output(
+            join(
+                INNER,
+                builder ->
+                    builder
+                        .equiCriteria("B_TIME", "C_TIME")
+                        .left(
+                            sort(
+                                join(
+                                    INNER,
+                                    innerBuilder ->
+                                        innerBuilder
+                                            .equiCriteria("A_TAG1", "B_TAG1")
+                                            .left(sort(tableScanA))
+                                            .right(sort(tableScanB)))))
+                        .right(sort(tableScanC)))));
+  }
+
+  private static LogicalQueryPlan createPlan(Optional<TableStatistics> tableStatistics) {
+    Metadata metadata = new TestMatadata();
+    List<PlanOptimizer> optimizers =
+        new LogicalOptimizeFactory(
+                new PlannerContext(metadata, new InternalTypeManager()), table -> tableStatistics)
+            .getPlanOptimizers();
+    return new PlanTester(metadata).createPlan(SQL, optimizers);
+  }
+}
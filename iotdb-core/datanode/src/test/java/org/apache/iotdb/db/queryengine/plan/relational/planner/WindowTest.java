@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.planner;
+
+import org.apache.iotdb.db.queryengine.plan.planner.plan.LogicalQueryPlan;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanAssert.assertPlan;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.exchange;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.mergeSort;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.node;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.output;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.project;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.streamSort;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.tableScan;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WindowTest {
+
+  @Test
+  public void windowTest() {
+    PlanTester planTester = new PlanTester();
+
+    // functions with the same PARTITION BY and ORDER BY share one WindowNode
+    String sql =
+        "SELECT time, s1, row_number() OVER (PARTITION BY tag1 ORDER BY time), "
+            + "sum(s1) OVER (PARTITION BY tag1 ORDER BY time ROWS BETWEEN 1 PRECEDING AND CURRENT ROW) "
+            + "FROM table1";
+    LogicalQueryPlan logicalQueryPlan = planTester.createPlan(sql);
+
+    // Output - Project - Window - StreamSort - TableScan
+    assertPlan(
+        logicalQueryPlan,
+        output(
+            project(
+                node(
+                    WindowNode.class,
+                    streamSort(
+                        tableScan(
+                            "testdb.table1",
+                            ImmutableList.of("time", "tag1", "s1"),
+                            ImmutableSet.of("time", "tag1", "s1")))))));
+
+    // the sorted outputs of all the regions are merged before the window
+    assertPlan(
+        planTester.getFragmentPlan(0),
+        output(
+            project(
+                node(
+                    WindowNode.class,
+                    mergeSort(exchange(), streamSort(tableScan("testdb.table1")), exchange())))));
+  }
+
+  @Test
+  public void differentWindowsTest() {
+    PlanTester planTester = new PlanTester();
+
+    String sql =
+        "SELECT lag(s1) OVER (PARTITION BY tag1 ORDER BY time), "
+            + "rank() OVER (ORDER BY s2) FROM table1";
+    LogicalQueryPlan logicalQueryPlan = planTester.createPlan(sql);
+
+    assertTrue(
+        logicalQueryPlan.getRootNode().getChildren().get(0).getChildren().get(0)
+            instanceof WindowNode);
+  }
+
+  @Test
+  public void unsupportedWindowTest() {
+    assertSemanticError(
+        "SELECT s1 FROM table1 WHERE row_number() OVER (ORDER BY time) > 1", "WHERE clause");
+    assertSemanticError(
+        "SELECT count(s1), row_number() OVER (ORDER BY time) FROM table1 GROUP BY tag1",
+        "Window functions are not supported in queries with aggregation");
+    assertSemanticError("SELECT row_number() FROM table1", "requires an OVER clause");
+    assertSemanticError(
+        "SELECT sum(s1) OVER (ORDER BY time RANGE BETWEEN 1 PRECEDING AND CURRENT ROW) FROM table1",
+        "RANGE");
+    assertSemanticError(
+        "SELECT lag(s1, -1) OVER (ORDER BY time) FROM table1", "non-negative integer literal");
+  }
+
+  private void assertSemanticError(String sql, String message) {
+    // PlanTester reports the analysis failure as an AssertionError with the exception message
+    try {
+      new PlanTester().createPlan(sql);
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(message));
+      return;
+    }
+    fail("SemanticException expected: " + sql);
+  }
+}
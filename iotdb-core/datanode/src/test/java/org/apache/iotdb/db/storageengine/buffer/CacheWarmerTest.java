@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
+import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.common.Path;
+import org.apache.tsfile.write.TsFileWriter;
+import org.apache.tsfile.write.record.TSRecord;
+import org.apache.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class CacheWarmerTest {
+
+  private static final String[] DEVICES = {"root.sg.d0", "root.sg.d1"};
+  private static final String[] MEASUREMENTS = {"s0", "s1"};
+
+  private final File file = new File(TestConstant.getTestTsFilePath("root.sg", 0, 0, 1));
+  private TsFileResource resource;
+
+  @Before
+  public void setUp() throws Exception {
+    resource = createTsFile(file);
+  }
+
+  private static TsFileResource createTsFile(File file) throws Exception {
+    if (!file.getParentFile().exists()) {
+      Assert.assertTrue(file.getParentFile().mkdirs());
+    }
+    TsFileResource resource = new TsFileResource(file);
+    try (TsFileWriter writer = new TsFileWriter(file)) {
+      for (String device : DEVICES) {
+        for (String measurement : MEASUREMENTS) {
+          writer.registerTimeseries(
+              new Path(device),
+              new MeasurementSchema(
+                  measurement, TSDataType.INT64, TSEncoding.PLAIN, CompressionType.UNCOMPRESSED));
+        }
+        for (long time = 0; time < 10; time++) {
+          TSRecord record = new TSRecord(device, time);
+          for (String measurement : MEASUREMENTS) {
+            record.addTuple(new LongDataPoint(measurement, time));
+          }
+          writer.writeRecord(record);
+          resource.updateStartTime(IDeviceID.Factory.DEFAULT_FACTORY.create(device), time);
+          resource.updateEndTime(IDeviceID.Factory.DEFAULT_FACTORY.create(device), time);
+        }
+      }
+    }
+    resource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    return resource;
+  }
+
+  private static void saveHotSeries(Map<IDeviceID, Set<String>> hotSeries) throws Exception {
+    File hotSeriesFile = CacheWarmer.getInstance().getHotSeriesFile();
+    if (!hotSeriesFile.getParentFile().exists()) {
+      Assert.assertTrue(hotSeriesFile.getParentFile().mkdirs());
+    }
+    try (FileOutputStream outputStream = new FileOutputStream(hotSeriesFile)) {
+      CacheWarmer.serialize(hotSeries, outputStream);
+    }
+  }
+
+  private static long loadTimeSeriesMetadataFromCacheCount(TsFileResource resource)
+      throws Exception {
+    QueryContext context = new QueryContext();
+    TimeSeriesMetadataCache.getInstance()
+        .get(
+            resource.getTsFilePath(),
+            new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(
+                resource.getTsFileID(),
+                IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[0]),
+                MEASUREMENTS[0]),
+            Collections.singleton(MEASUREMENTS[0]),
+            false,
+            false,
+            context);
+    return context.getQueryStatistics().getLoadTimeSeriesMetadataFromCacheCount().get();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    TimeSeriesMetadataCache.getInstance().clear();
+    BloomFilterCache.getInstance().clear();
+    EnvironmentUtils.cleanAllDir();
+  }
+
+  @Test
+  public void testSerializeHotSeries() throws Exception {
+    Map<IDeviceID, Set<String>> hotSeries = new LinkedHashMap<>();
+    hotSeries.put(
+        IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[1]),
+        new LinkedHashSet<>(Arrays.asList(MEASUREMENTS)));
+    hotSeries.put(
+        IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[0]),
+        new LinkedHashSet<>(Collections.singletonList(MEASUREMENTS[1])));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    CacheWarmer.serialize(hotSeries, outputStream);
+    Assert.assertEquals(
+        hotSeries, CacheWarmer.deserialize(new ByteArrayInputStream(outputStream.toByteArray())));
+  }
+
+  @Test
+  public void testWarmUpHotSeries() throws Exception {
+    IDeviceID device = IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[0]);
+    TimeSeriesMetadataCache.getInstance()
+        .get(
+            resource.getTsFilePath(),
+            new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(
+                resource.getTsFileID(), device, MEASUREMENTS[0]),
+            new HashSet<>(Arrays.asList(MEASUREMENTS)),
+            false,
+            false,
+            new QueryContext());
+    Map<IDeviceID, Set<String>> hottestSeries =
+        TimeSeriesMetadataCache.getInstance().getHottestSeries(10);
+    Assert.assertEquals(Collections.singleton(device), hottestSeries.keySet());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(MEASUREMENTS)), hottestSeries.get(device));
+
+    CacheWarmer.getInstance().saveHotSeries();
+    Assert.assertTrue(CacheWarmer.getInstance().getHotSeriesFile().exists());
+
+    // restart
+    TimeSeriesMetadataCache.getInstance().clear();
+    BloomFilterCache.getInstance().clear();
+    TsFileManager tsFileManager = new TsFileManager("root.sg", "0", TestConstant.BASE_OUTPUT_PATH);
+    tsFileManager.add(resource, true);
+    DataRegion dataRegion = Mockito.mock(DataRegion.class);
+    Mockito.when(dataRegion.getTsFileManager()).thenReturn(tsFileManager);
+    CacheWarmer.getInstance().warmUp(Collections.singletonList(dataRegion));
+
+    QueryContext context = new QueryContext();
+    for (String measurement : MEASUREMENTS) {
+      Assert.assertNotNull(
+          TimeSeriesMetadataCache.getInstance()
+              .get(
+                  resource.getTsFilePath(),
+                  new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(
+                      resource.getTsFileID(), device, measurement),
+                  Collections.singleton(measurement),
+                  false,
+                  false,
+                  context));
+    }
+    Assert.assertEquals(
+        MEASUREMENTS.length,
+        context.getQueryStatistics().getLoadTimeSeriesMetadataFromCacheCount().get());
+  }
+
+  @Test
+  public void testWarmUpBloomFiltersBeyondLatestTsFiles() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    int cacheWarmUpTsFileNum = config.getCacheWarmUpTsFileNum();
+    config.setCacheWarmUpTsFileNum(0);
+    try {
+      Map<IDeviceID, Set<String>> hotSeries = new LinkedHashMap<>();
+      hotSeries.put(
+          IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[0]),
+          new LinkedHashSet<>(Arrays.asList(MEASUREMENTS)));
+      saveHotSeries(hotSeries);
+
+      TsFileManager tsFileManager =
+          new TsFileManager("root.sg", "0", TestConstant.BASE_OUTPUT_PATH);
+      tsFileManager.add(resource, true);
+      DataRegion dataRegion = Mockito.mock(DataRegion.class);
+      Mockito.when(dataRegion.getTsFileManager()).thenReturn(tsFileManager);
+      CacheWarmer.getInstance().warmUp(Collections.singletonList(dataRegion));
+
+      // the bloom filter is loaded even if the TsFile is not one of the latest ones
+      Assert.assertNotNull(
+          BloomFilterCache.getInstance()
+              .getIfPresent(
+                  new BloomFilterCache.BloomFilterCacheKey(
+                      resource.getTsFilePath(), resource.getTsFileID())));
+      QueryContext context = new QueryContext();
+      TimeSeriesMetadataCache.getInstance()
+          .get(
+              resource.getTsFilePath(),
+              new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(
+                  resource.getTsFileID(),
+                  IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[0]),
+                  MEASUREMENTS[0]),
+              Collections.singleton(MEASUREMENTS[0]),
+              false,
+              false,
+              context);
+      Assert.assertEquals(
+          0, context.getQueryStatistics().getLoadTimeSeriesMetadataFromCacheCount().get());
+      Assert.assertEquals(1, context.getQueryStatistics().getLoadBloomFilterFromCacheCount().get());
+    } finally {
+      config.setCacheWarmUpTsFileNum(cacheWarmUpTsFileNum);
+    }
+  }
+
+  @Test
+  public void testWarmUpMetadataOfLatestTsFilesOfAllDataRegions() throws Exception {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    int cacheWarmUpTsFileNum = config.getCacheWarmUpTsFileNum();
+    config.setCacheWarmUpTsFileNum(1);
+    try {
+      Map<IDeviceID, Set<String>> hotSeries = new LinkedHashMap<>();
+      hotSeries.put(
+          IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[0]),
+          new LinkedHashSet<>(Arrays.asList(MEASUREMENTS)));
+      saveHotSeries(hotSeries);
+
+      // the older partition is in the first data region, the latest one in the second
+      TsFileManager olderTsFileManager =
+          new TsFileManager("root.sg", "0", TestConstant.BASE_OUTPUT_PATH);
+      olderTsFileManager.add(resource, true);
+      DataRegion olderDataRegion = Mockito.mock(DataRegion.class);
+      Mockito.when(olderDataRegion.getTsFileManager()).thenReturn(olderTsFileManager);
+      TsFileResource latestResource =
+          createTsFile(new File(TestConstant.getTestTsFilePath("root.sg", 1, 1, 1)));
+      TsFileManager latestTsFileManager =
+          new TsFileManager("root.sg", "1", TestConstant.BASE_OUTPUT_PATH);
+      latestTsFileManager.add(latestResource, true);
+      DataRegion latestDataRegion = Mockito.mock(DataRegion.class);
+      Mockito.when(latestDataRegion.getTsFileManager()).thenReturn(latestTsFileManager);
+      CacheWarmer.getInstance().warmUp(Arrays.asList(olderDataRegion, latestDataRegion));
+
+      // the budget is shared by all data regions and spent on the latest partition first
+      Assert.assertEquals(1, loadTimeSeriesMetadataFromCacheCount(latestResource));
+      Assert.assertEquals(0, loadTimeSeriesMetadataFromCacheCount(resource));
+    } finally {
+      config.setCacheWarmUpTsFileNum(cacheWarmUpTsFileNum);
+    }
+  }
+
+  @Test
+  public void testWarmUpBloomFiltersWithoutHotSeries() throws Exception {
+    File hotSeriesFile = CacheWarmer.getInstance().getHotSeriesFile();
+    Assert.assertTrue(!hotSeriesFile.exists() || hotSeriesFile.delete());
+
+    TsFileManager tsFileManager = new TsFileManager("root.sg", "0", TestConstant.BASE_OUTPUT_PATH);
+    tsFileManager.add(resource, true);
+    DataRegion dataRegion = Mockito.mock(DataRegion.class);
+    Mockito.when(dataRegion.getTsFileManager()).thenReturn(tsFileManager);
+    CacheWarmer.getInstance().warmUp(Collections.singletonList(dataRegion));
+
+    // the bloom filters are loaded even if no hot series were saved, e.g. after the first start
+    Assert.assertNotNull(
+        BloomFilterCache.getInstance()
+            .getIfPresent(
+                new BloomFilterCache.BloomFilterCacheKey(
+                    resource.getTsFilePath(), resource.getTsFileID())));
+    QueryContext context = new QueryContext();
+    TimeSeriesMetadataCache.getInstance()
+        .get(
+            resource.getTsFilePath(),
+            new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(
+                resource.getTsFileID(),
+                IDeviceID.Factory.DEFAULT_FACTORY.create(DEVICES[0]),
+                MEASUREMENTS[0]),
+            Collections.singleton(MEASUREMENTS[0]),
+            false,
+            false,
+            context);
+    Assert.assertEquals(
+        0, context.getQueryStatistics().getLoadTimeSeriesMetadataFromCacheCount().get());
+  }
+}
@@ -21,11 +21,13 @@ package org.apache.iotdb.db.storageengine.buffer;
 
 import org.apache.iotdb.commons.exception.MetadataException;
 import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
 import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.utils.constant.TestConstant;
+import org.apache.iotdb.mpp.rpc.thrift.TTsFileReadStatistics;
 
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.exception.write.WriteProcessException;
@@ -133,6 +135,86 @@ public class ChunkCacheTest {
     }
   }
 
+  @Test
+  public void testLargeScanBypassesCache() throws IOException {
+    TsFileResource tsFileResource = seqResources.get(0);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      List<Path> paths = reader.getAllPaths();
+      ChunkMetadata firstChunkMetadata = reader.getChunkMetadataList(paths.get(0)).get(0);
+      ChunkCache.ChunkCacheKey key =
+          new ChunkCache.ChunkCacheKey(
+              tsFileResource.getTsFilePath(),
+              tsFileResource.getTsFileID(),
+              firstChunkMetadata.getOffsetOfChunkHeader(),
+              true);
+
+      QueryContext largeScanContext = new QueryContext();
+      largeScanContext.setLargeScan(true);
+      Chunk chunk1 =
+          chunkCache.get(
+              key,
+              firstChunkMetadata.getDeleteIntervalList(),
+              firstChunkMetadata.getStatistics(),
+              largeScanContext);
+      Assert.assertTrue(chunkCache.isEmpty());
+      Assert.assertEquals(0, chunkCache.calculateChunkHitRatio(true), 0);
+
+      // other queries put the chunk into the cache, and large scans still read it from the cache
+      chunkCache.get(
+          key,
+          firstChunkMetadata.getDeleteIntervalList(),
+          firstChunkMetadata.getStatistics(),
+          new QueryContext());
+      Assert.assertFalse(chunkCache.isEmpty());
+      Chunk chunk2 =
+          chunkCache.get(
+              key,
+              firstChunkMetadata.getDeleteIntervalList(),
+              firstChunkMetadata.getStatistics(),
+              largeScanContext);
+      Assert.assertEquals(chunk1.getData(), chunk2.getData());
+      Assert.assertEquals(0.5, chunkCache.calculateChunkHitRatio(true), 0);
+      Assert.assertEquals(0, chunkCache.calculateChunkHitRatio(false), 0);
+      Assert.assertEquals(
+          1, largeScanContext.getQueryStatistics().getLoadChunkFromCacheCount().get());
+    }
+  }
+
+  @Test
+  public void testTsFileReadStatistics() throws IOException {
+    TsFileResource tsFileResource = seqResources.get(0);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      List<Path> paths = reader.getAllPaths();
+      ChunkMetadata firstChunkMetadata = reader.getChunkMetadataList(paths.get(0)).get(0);
+      ChunkCache.ChunkCacheKey key =
+          new ChunkCache.ChunkCacheKey(
+              tsFileResource.getTsFilePath(),
+              tsFileResource.getTsFileID(),
+              firstChunkMetadata.getOffsetOfChunkHeader(),
+              true);
+
+      // only the read on cache miss is recorded
+      QueryContext context = new QueryContext();
+      for (int i = 0; i < 2; i++) {
+        chunkCache.get(
+            key,
+            firstChunkMetadata.getDeleteIntervalList(),
+            firstChunkMetadata.getStatistics(),
+            context);
+      }
+      List<TTsFileReadStatistics> slowestTsFileReads =
+          context.getQueryStatistics().getSlowestTsFileReads();
+      Assert.assertEquals(1, slowestTsFileReads.size());
+      Assert.assertEquals(tsFileResource.getTsFilePath(), slowestTsFileReads.get(0).getFilePath());
+      Assert.assertEquals(1, slowestTsFileReads.get(0).getReadCount());
+      Assert.assertTrue(slowestTsFileReads.get(0).getReadTime() > 0);
+      Assert.assertEquals(
+          slowestTsFileReads, context.getQueryStatistics().toThrift().getSlowestTsFileReads());
+      Assert.assertTrue(
+          context.getQueryStatistics().getIOSummary().contains(tsFileResource.getTsFilePath()));
+    }
+  }
+
   void prepareSeries() throws MetadataException {
     measurementSchemas = new MeasurementSchema[measurementNum];
     for (int i = 0; i < measurementNum; i++) {
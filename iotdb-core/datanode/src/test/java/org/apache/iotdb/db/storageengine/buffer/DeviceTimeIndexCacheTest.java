@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ArrayDeviceTimeIndex;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ITimeIndex;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.filter.factory.TimeFilterApi;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class DeviceTimeIndexCacheTest {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  private static final int DEVICE_NUM = 10;
+  private static boolean enableDegradedTimeIndexCache;
+
+  private final File file =
+      new File(
+          TsFileNameGenerator.generateNewTsFilePath(TestConstant.BASE_OUTPUT_PATH, 1, 1, 1, 1));
+  private TsFileResource tsFileResource;
+
+  @BeforeClass
+  public static void setUpClass() {
+    // must be set before DeviceTimeIndexCache is loaded
+    enableDegradedTimeIndexCache = CONFIG.isEnableDegradedTimeIndexCache();
+    CONFIG.setEnableDegradedTimeIndexCache(true);
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    CONFIG.setEnableDegradedTimeIndexCache(enableDegradedTimeIndexCache);
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    deleteResourceFile();
+    Map<IDeviceID, Integer> deviceToIndex = new HashMap<>();
+    for (int i = 0; i < DEVICE_NUM; i++) {
+      deviceToIndex.put(device(i), i);
+    }
+    ArrayDeviceTimeIndex deviceTimeIndex =
+        new ArrayDeviceTimeIndex(deviceToIndex, new long[DEVICE_NUM], new long[DEVICE_NUM]);
+    for (int i = 0; i < DEVICE_NUM; i++) {
+      // device i has data in [i * 10, i * 10 + 5]
+      deviceTimeIndex.updateStartTime(device(i), i * 10L);
+      deviceTimeIndex.updateEndTime(device(i), i * 10L + 5);
+    }
+    tsFileResource = new TsFileResource(file);
+    tsFileResource.setTimeIndex(deviceTimeIndex);
+    tsFileResource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    DeviceTimeIndexCache.getInstance().clear();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    DeviceTimeIndexCache.getInstance().clear();
+    deleteResourceFile();
+  }
+
+  private void deleteResourceFile() throws IOException {
+    File resourceFile = new File(file.getPath() + TsFileResource.RESOURCE_SUFFIX);
+    if (resourceFile.exists()) {
+      FileUtils.delete(resourceFile);
+    }
+  }
+
+  private static IDeviceID device(int i) {
+    return IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d" + i);
+  }
+
+  @Test
+  public void testPruneDegradedFileByDevice() throws IOException {
+    tsFileResource.serialize();
+    tsFileResource.degradeTimeIndex();
+    Assert.assertEquals(ITimeIndex.FILE_TIME_INDEX_TYPE, tsFileResource.getTimeIndexType());
+
+    // the cache misses, so the file time index [0, 95] is used while the device time index is
+    // reloaded in the background
+    Assert.assertTrue(
+        tsFileResource.isSatisfied(device(3), TimeFilterApi.between(40, 50), true, false));
+    Awaitility.await()
+        .atMost(10, TimeUnit.SECONDS)
+        .until(() -> DeviceTimeIndexCache.getInstance().size() == 1);
+
+    // only the reloaded device time index can prune these
+    Assert.assertTrue(
+        tsFileResource.isSatisfied(device(3), TimeFilterApi.between(30, 35), true, false));
+    Assert.assertFalse(
+        tsFileResource.isSatisfied(device(3), TimeFilterApi.between(40, 50), true, false));
+    Assert.assertFalse(tsFileResource.isSatisfied(device(DEVICE_NUM), null, true, false));
+    Assert.assertEquals(1, DeviceTimeIndexCache.getInstance().size());
+    Assert.assertTrue(DeviceTimeIndexCache.getInstance().getHitRate() > 0);
+
+    // the degraded time index itself is kept
+    Assert.assertEquals(ITimeIndex.FILE_TIME_INDEX_TYPE, tsFileResource.getTimeIndexType());
+
+    DeviceTimeIndexCache.getInstance().invalidate(tsFileResource);
+    Assert.assertEquals(0, DeviceTimeIndexCache.getInstance().size());
+  }
+
+  @Test
+  public void testNotDegradedFileIsNotCached() {
+    Assert.assertFalse(
+        tsFileResource.isSatisfied(device(3), TimeFilterApi.between(40, 50), true, false));
+    Assert.assertEquals(0, DeviceTimeIndexCache.getInstance().size());
+  }
+
+  @Test
+  public void testFallBackWithoutResourceFile() {
+    tsFileResource.degradeTimeIndex();
+    // the device time index can't be reloaded, so the file time index is used
+    Assert.assertTrue(
+        tsFileResource.isSatisfied(device(3), TimeFilterApi.between(40, 50), true, false));
+    Awaitility.await()
+        .atMost(10, TimeUnit.SECONDS)
+        .until(() -> !DeviceTimeIndexCache.getInstance().isLoading());
+    Assert.assertTrue(
+        tsFileResource.isSatisfied(device(3), TimeFilterApi.between(40, 50), true, false));
+    Assert.assertEquals(0, DeviceTimeIndexCache.getInstance().size());
+  }
+}
@@ -93,6 +93,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.apache.iotdb.db.queryengine.plan.statement.StatementTestUtils.genInsertRowNode;
 import static org.apache.iotdb.db.queryengine.plan.statement.StatementTestUtils.genInsertTabletNode;
@@ -1657,6 +1660,105 @@ public class DataRegionTest {
         dataRegion.getWorkSequenceTsFileProcessors().contains(tsFileResource.getProcessor()));
   }
 
+  @Test
+  public void testStripedInsertIntoDevicesOfOnePartition() throws Exception {
+    boolean enableStripedInsertLock = config.isEnableStripedInsertLock();
+    config.setEnableStripedInsertLock(true);
+    try {
+      dataRegion.syncDeleteDataFiles();
+      StorageEngine.getInstance().deleteDataRegion(new DataRegionId(0));
+      dataRegion = new DummyDataRegion(systemDir, storageGroup);
+      StorageEngine.getInstance().setDataRegion(new DataRegionId(0), dataRegion);
+
+      int deviceNum = 4;
+      int pointNum = 500;
+      AtomicReference<Throwable> error = new AtomicReference<>();
+      AtomicBoolean insertFinished = new AtomicBoolean(false);
+      CountDownLatch start = new CountDownLatch(1);
+      List<Thread> writers = new ArrayList<>();
+      for (int i = 0; i < deviceNum; i++) {
+        String deviceName = "root.vehicle.d" + i;
+        Thread writer =
+            new Thread(
+                () -> {
+                  try {
+                    start.await();
+                    // all points fall into the first time partition
+                    for (int j = 1; j <= pointNum; j++) {
+                      TSRecord record = new TSRecord(deviceName, j);
+                      record.addTuple(
+                          DataPoint.getDataPoint(
+                              TSDataType.INT32, measurementId, String.valueOf(j)));
+                      dataRegion.insert(buildInsertRowNodeByTSRecord(record));
+                    }
+                  } catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                  }
+                });
+        writer.start();
+        writers.add(writer);
+      }
+      // a query of root.vehicle.d0 racing the insertions sees a prefix of its points
+      Thread reader =
+          new Thread(
+              () -> {
+                try {
+                  int lastCount = 0;
+                  while (!insertFinished.get()) {
+                    int count = queryInsertedPoints(device);
+                    Assert.assertTrue(count >= lastCount && count <= pointNum);
+                    lastCount = count;
+                  }
+                } catch (Throwable e) {
+                  error.compareAndSet(null, e);
+                }
+              });
+      reader.start();
+      start.countDown();
+      for (Thread writer : writers) {
+        writer.join();
+      }
+      insertFinished.set(true);
+      reader.join();
+      if (error.get() != null) {
+        throw new AssertionError(error.get());
+      }
+
+      Assert.assertEquals(1, dataRegion.getWorkSequenceTsFileProcessors().size());
+      for (int i = 0; i < deviceNum; i++) {
+        Assert.assertEquals(
+            pointNum,
+            queryInsertedPoints(IDeviceID.Factory.DEFAULT_FACTORY.create("root.vehicle.d" + i)));
+      }
+    } finally {
+      config.setEnableStripedInsertLock(enableStripedInsertLock);
+    }
+  }
+
+  /** query s0 of the device from memtables, and check that the times are 1, 2, 3... */
+  private int queryInsertedPoints(IDeviceID deviceID) throws Exception {
+    NonAlignedFullPath path =
+        new NonAlignedFullPath(deviceID, new MeasurementSchema(measurementId, TSDataType.INT32));
+    QueryDataSource queryDataSource =
+        dataRegion.query(Collections.singletonList(path), deviceID, context, null, null);
+    int count = 0;
+    for (TsFileResource resource : queryDataSource.getSeqResources()) {
+      List<ReadOnlyMemChunk> memChunks = resource.getReadOnlyMemChunk(path);
+      if (memChunks == null) {
+        continue;
+      }
+      for (ReadOnlyMemChunk memChunk : memChunks) {
+        IPointReader iterator = memChunk.getPointReader();
+        while (iterator.hasNextTimeValuePair()) {
+          TimeValuePair timeValuePair = iterator.nextTimeValuePair();
+          Assert.assertEquals(++count, timeValuePair.getTimestamp());
+          Assert.assertEquals(count, timeValuePair.getValue().getInt());
+        }
+      }
+    }
+    return count;
+  }
+
   public static class DummyDataRegion extends DataRegion {
 
     public DummyDataRegion(String systemInfoDir, String storageGroupName)
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class StripedInsertLockTest {
+
+  private static final IDeviceID DEVICE = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1");
+
+  @Test
+  public void testLockedStripesAreSorted() {
+    StripedInsertLock lock = new StripedInsertLock(4);
+    int[] lockedStripes = lock.lock(new boolean[] {false, true, false, true});
+    Assert.assertArrayEquals(new int[] {1, 3}, lockedStripes);
+    lock.unlock(lockedStripes);
+
+    Assert.assertEquals(0, lock.lock(new boolean[4]).length);
+  }
+
+  @Test
+  public void testStripesOfDevices() {
+    StripedInsertLock lock = new StripedInsertLock(16);
+    int stripe = lock.getStripe(0, DEVICE);
+    Assert.assertTrue(stripe >= 0 && stripe < 16);
+    Assert.assertEquals(
+        stripe, lock.getStripe(0, IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1")));
+    Assert.assertTrue(lock.getStripe(-1, DEVICE) >= 0);
+
+    // devices of one time partition should not all fall into the same stripe
+    boolean spread = false;
+    for (int i = 2; i < 64 && !spread; i++) {
+      spread =
+          lock.getStripe(0, IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d" + i)) != stripe;
+    }
+    Assert.assertTrue(spread);
+  }
+
+  @Test
+  public void testDifferentStripesDoNotBlock() throws InterruptedException {
+    StripedInsertLock lock = new StripedInsertLock(4);
+    int[] lockedStripes = lock.lock(new boolean[] {true, false, false, false});
+
+    CountDownLatch locked = new CountDownLatch(1);
+    Thread writer =
+        new Thread(
+            () -> {
+              lock.unlock(lock.lock(new boolean[] {false, true, false, false}));
+              locked.countDown();
+            });
+    writer.start();
+    Assert.assertTrue(locked.await(10, TimeUnit.SECONDS));
+    lock.unlock(lockedStripes);
+    writer.join();
+  }
+
+  @Test
+  public void testSameStripeBlocks() throws InterruptedException {
+    StripedInsertLock lock = new StripedInsertLock(4);
+    int[] lockedStripes = lock.lock(new boolean[] {false, false, true, false});
+
+    AtomicBoolean acquired = new AtomicBoolean(false);
+    Thread writer =
+        new Thread(
+            () -> {
+              int[] stripes = lock.lock(new boolean[] {true, false, true, false});
+              acquired.set(true);
+              lock.unlock(stripes);
+            });
+    writer.start();
+    writer.join(200);
+    Assert.assertFalse(acquired.get());
+
+    lock.unlock(lockedStripes);
+    writer.join();
+    Assert.assertTrue(acquired.get());
+  }
+}
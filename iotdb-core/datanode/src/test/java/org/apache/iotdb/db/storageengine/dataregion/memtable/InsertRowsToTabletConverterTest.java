@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.memtable;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.exception.MetadataException;
+import org.apache.iotdb.commons.path.AlignedFullPath;
+import org.apache.iotdb.commons.path.IFullPath;
+import org.apache.iotdb.commons.path.NonAlignedFullPath;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.reader.IPointReader;
+import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.write.schema.IMeasurementSchema;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class InsertRowsToTabletConverterTest {
+
+  private static final String[] MEASUREMENTS = {"s0", "s1", "s2", "s3"};
+  private static final TSDataType[] DATA_TYPES = {
+    TSDataType.INT64, TSDataType.DOUBLE, TSDataType.TEXT, TSDataType.BOOLEAN
+  };
+
+  @Test
+  public void testConvert() throws IllegalPathException {
+    List<InsertRowNode> rows = new ArrayList<>();
+    rows.add(createRow("root.sg.d1", false, 3, new int[] {0, 1}));
+    rows.add(createRow("root.sg.d1", false, 1, new int[] {1, 2}));
+    rows.add(createRow("root.sg.d1", false, 2, new int[] {0, 1, 2}));
+
+    InsertTabletNode tablet = InsertRowsToTabletConverter.convert(rows);
+    Assert.assertNotNull(tablet);
+    Assert.assertEquals(3, tablet.getRowCount());
+    // the union of the measurements, ordered by their first appearance
+    Assert.assertArrayEquals(new String[] {"s0", "s1", "s2"}, tablet.getMeasurements());
+    // the rows keep their order
+    Assert.assertArrayEquals(new long[] {3, 1, 2}, tablet.getTimes());
+    Assert.assertArrayEquals(new long[] {3, 0, 2}, (long[]) tablet.getColumns()[0]);
+    Assert.assertTrue(tablet.getBitMaps()[0].isMarked(1));
+    // s1 appears in every row, so it needs no bitmap
+    Assert.assertNull(tablet.getBitMaps()[1]);
+    Assert.assertTrue(tablet.getBitMaps()[2].isMarked(0));
+    Assert.assertFalse(tablet.getBitMaps()[2].isMarked(1));
+  }
+
+  @Test
+  public void testConvertConflictingRows() throws IllegalPathException {
+    List<InsertRowNode> rows = new ArrayList<>();
+    rows.add(createRow("root.sg.d1", false, 1, new int[] {0}));
+    rows.add(createRow("root.sg.d1", true, 2, new int[] {0}));
+    Assert.assertNull(InsertRowsToTabletConverter.convert(rows));
+
+    rows.clear();
+    rows.add(createRow("root.sg.d1", false, 1, new int[] {0}));
+    InsertRowNode conflictingRow = createRow("root.sg.d1", false, 2, new int[] {0});
+    conflictingRow.getMeasurementSchemas()[0] = new MeasurementSchema("s0", TSDataType.INT32);
+    conflictingRow.getValues()[0] = 1;
+    rows.add(conflictingRow);
+    Assert.assertNull(InsertRowsToTabletConverter.convert(rows));
+  }
+
+  @Test
+  public void testInsertRowsAsTablets()
+      throws MetadataException, IOException, QueryProcessException {
+    List<InsertRowNode> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      // interleaved devices, disordered times, varying measurements and nulls
+      long time = (i * 37) % 100;
+      int[] columns = i % 3 == 0 ? new int[] {0, 1, 2, 3} : new int[] {i % 4, (i + 1) % 4};
+      rows.add(createRow("root.sg.d" + (i % 2), i % 2 == 0, time, columns));
+    }
+    // a single row of a device goes through the row path
+    rows.add(createRow("root.sg.d2", false, 5, new int[] {0, 3}));
+    // a failed measurement
+    InsertRowNode failedRow = createRow("root.sg.d0", true, 200, new int[] {0, 1});
+    failedRow.markFailedMeasurement(1);
+    failedRow.setFailedMeasurementNumber(1);
+    rows.add(failedRow);
+
+    IMemTable rowMemTable = new PrimitiveMemTable("root.sg", "1");
+    int rowPoints = 0;
+    for (InsertRowNode row : rows) {
+      rowPoints += row.isAligned() ? rowMemTable.insertAlignedRow(row) : rowMemTable.insert(row);
+    }
+    IMemTable tabletMemTable = new PrimitiveMemTable("root.sg", "1");
+    int tabletPoints = tabletMemTable.insertRowsAsTablets(rows);
+
+    Assert.assertEquals(rowPoints, tabletPoints);
+    Assert.assertEquals(rowMemTable.getTotalPointsNum(), tabletMemTable.getTotalPointsNum());
+    Assert.assertEquals(rowMemTable.memSize(), tabletMemTable.memSize());
+
+    List<IMeasurementSchema> schemas = new ArrayList<>();
+    for (int i = 0; i < MEASUREMENTS.length; i++) {
+      schemas.add(new MeasurementSchema(MEASUREMENTS[i], DATA_TYPES[i]));
+    }
+    IDeviceID alignedDevice = new PartialPath("root.sg.d0").getIDeviceID();
+    AlignedFullPath alignedPath =
+        new AlignedFullPath(alignedDevice, Arrays.asList(MEASUREMENTS), schemas);
+    Assert.assertEquals(query(rowMemTable, alignedPath), query(tabletMemTable, alignedPath));
+    for (String device : new String[] {"root.sg.d1", "root.sg.d2"}) {
+      for (IMeasurementSchema schema : schemas) {
+        NonAlignedFullPath path =
+            new NonAlignedFullPath(new PartialPath(device).getIDeviceID(), schema);
+        Assert.assertEquals(query(rowMemTable, path), query(tabletMemTable, path));
+      }
+    }
+  }
+
+  private List<String> query(IMemTable memTable, IFullPath fullPath)
+      throws IOException, QueryProcessException, MetadataException {
+    ReadOnlyMemChunk memChunk = memTable.query(new QueryContext(), fullPath, Long.MIN_VALUE, null);
+    List<String> points = new ArrayList<>();
+    if (memChunk == null) {
+      return points;
+    }
+    IPointReader reader = memChunk.getPointReader();
+    while (reader.hasNextTimeValuePair()) {
+      points.add(reader.nextTimeValuePair().toString());
+    }
+    return points;
+  }
+
+  private InsertRowNode createRow(String device, boolean aligned, long time, int[] columns)
+      throws IllegalPathException {
+    String[] measurements = new String[columns.length];
+    TSDataType[] dataTypes = new TSDataType[columns.length];
+    MeasurementSchema[] schemas = new MeasurementSchema[columns.length];
+    Object[] values = new Object[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      int column = columns[i];
+      measurements[i] = MEASUREMENTS[column];
+      dataTypes[i] = DATA_TYPES[column];
+      schemas[i] = new MeasurementSchema(MEASUREMENTS[column], DATA_TYPES[column]);
+      // every seventh value is null
+      if ((time + column) % 7 == 0) {
+        continue;
+      }
+      switch (DATA_TYPES[column]) {
+        case INT64:
+          values[i] = time;
+          break;
+        case DOUBLE:
+          values[i] = time * 0.5;
+          break;
+        case TEXT:
+          values[i] = new Binary("v" + time, TSFileConfig.STRING_CHARSET);
+          break;
+        default:
+          values[i] = time % 2 == 0;
+          break;
+      }
+    }
+    return new InsertRowNode(
+        new PlanNodeId(""),
+        new PartialPath(device),
+        aligned,
+        measurements,
+        dataTypes,
+        schemas,
+        time,
+        values,
+        false);
+  }
+}
@@ -20,23 +20,32 @@
 package org.apache.iotdb.db.storageengine.dataregion.memtable;
 
 import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.WriteProcessException;
 import org.apache.iotdb.db.storageengine.dataregion.flush.MemTableFlushTask;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.utils.constant.TestConstant;
 
 import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.IDeviceID;
 import org.apache.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.tsfile.write.chunk.IChunkWriter;
 import org.apache.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MemTableFlushTaskTest {
 
@@ -161,4 +170,89 @@ public class MemTableFlushTaskTest {
     assertEquals(TSDataType.BOOLEAN, chunkMetaData.getDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
+
+  @Test
+  public void testFlushMemTableWithParallelChunkGroupEncoding()
+      throws ExecutionException, InterruptedException, IllegalPathException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean prevEnableParallelChunkGroupEncoding = config.isEnableParallelChunkGroupEncoding();
+    config.setEnableParallelChunkGroupEncoding(true);
+    try {
+      int deviceNum = 50;
+      // write the devices in reverse order, they should be flushed in lexicographical order
+      for (int i = deviceNum - 1; i >= 0; i--) {
+        MemTableTestUtils.produceData(
+            memTable,
+            startTime + i,
+            endTime + i,
+            IDeviceID.Factory.DEFAULT_FACTORY.create(String.format("d%02d", i)),
+            MemTableTestUtils.measurementId0,
+            MemTableTestUtils.dataType0);
+      }
+      MemTableFlushTask memTableFlushTask =
+          new MemTableFlushTask(memTable, writer, storageGroup, dataRegionId);
+      memTableFlushTask.syncFlushMemTable();
+      writer.makeMetadataVisible();
+
+      List<ChunkGroupMetadata> chunkGroupMetadataList = writer.getChunkGroupMetadataList();
+      assertEquals(deviceNum, chunkGroupMetadataList.size());
+      for (int i = 0; i < deviceNum; i++) {
+        IDeviceID deviceID = IDeviceID.Factory.DEFAULT_FACTORY.create(String.format("d%02d", i));
+        assertEquals(deviceID, chunkGroupMetadataList.get(i).getDevice());
+        List<ChunkMetadata> chunkMetadataList =
+            writer.getVisibleMetadataList(
+                deviceID, MemTableTestUtils.measurementId0, MemTableTestUtils.dataType0);
+        assertEquals(1, chunkMetadataList.size());
+        assertEquals(startTime + i, chunkMetadataList.get(0).getStartTime());
+        assertEquals(endTime + i, chunkMetadataList.get(0).getEndTime());
+        assertEquals(endTime - startTime + 1, chunkMetadataList.get(0).getNumOfPoints());
+      }
+    } finally {
+      config.setEnableParallelChunkGroupEncoding(prevEnableParallelChunkGroupEncoding);
+    }
+  }
+
+  @Test
+  public void testFlushMemTableFailsIfParallelEncodingFails()
+      throws InterruptedException, IllegalPathException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean prevEnableParallelChunkGroupEncoding = config.isEnableParallelChunkGroupEncoding();
+    config.setEnableParallelChunkGroupEncoding(true);
+    try {
+      for (int i = 0; i < 10; i++) {
+        MemTableTestUtils.produceData(
+            memTable,
+            startTime,
+            endTime,
+            IDeviceID.Factory.DEFAULT_FACTORY.create(String.format("d%02d", i)),
+            MemTableTestUtils.measurementId0,
+            MemTableTestUtils.dataType0);
+      }
+      // the chunk group of d05 fails to be encoded
+      IWritableMemChunk failedChunk = Mockito.mock(IWritableMemChunk.class);
+      Mockito.when(failedChunk.count()).thenReturn(1L);
+      Mockito.when(failedChunk.createIChunkWriter()).thenReturn(Mockito.mock(IChunkWriter.class));
+      Mockito.doThrow(new IllegalStateException("encoding failure"))
+          .when(failedChunk)
+          .encode(Mockito.any());
+      IWritableMemChunkGroup failedChunkGroup = Mockito.mock(IWritableMemChunkGroup.class);
+      Mockito.when(failedChunkGroup.count()).thenReturn(1L);
+      Mockito.when(failedChunkGroup.getMemChunkMap())
+          .thenReturn(Collections.singletonMap(MemTableTestUtils.measurementId0, failedChunk));
+      memTable
+          .getMemTableMap()
+          .put(IDeviceID.Factory.DEFAULT_FACTORY.create("d05"), failedChunkGroup);
+
+      MemTableFlushTask memTableFlushTask =
+          new MemTableFlushTask(memTable, writer, storageGroup, dataRegionId);
+      try {
+        memTableFlushTask.syncFlushMemTable();
+        fail("the flush should fail if a chunk group fails to be encoded");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+    } finally {
+      config.setEnableParallelChunkGroupEncoding(prevEnableParallelChunkGroupEncoding);
+    }
+  }
 }
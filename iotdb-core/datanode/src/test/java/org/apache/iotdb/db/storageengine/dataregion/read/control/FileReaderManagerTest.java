@@ -24,6 +24,17 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.utils.constant.TestConstant;
 
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.exception.write.WriteProcessException;
+import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.file.metadata.TimeseriesMetadata;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.TsFileSequenceReader;
+import org.apache.tsfile.write.TsFileWriter;
+import org.apache.tsfile.write.record.TSRecord;
+import org.apache.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -31,6 +42,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.fail;
 
@@ -40,16 +52,191 @@ public class FileReaderManagerTest {
 
   private IoTDBConfig dbConfig = IoTDBDescriptor.getInstance().getConfig();
   private long cacheFileReaderClearPeriod;
+  private int maxIdleTsFileReaderNum;
+  private boolean enableMmapTsFileRead;
 
   @Before
   public void setUp() {
     cacheFileReaderClearPeriod = dbConfig.getCacheFileReaderClearPeriod();
+    maxIdleTsFileReaderNum = dbConfig.getMaxIdleTsFileReaderNum();
+    enableMmapTsFileRead = dbConfig.isEnableMmapTsFileRead();
     dbConfig.setCacheFileReaderClearPeriod(3000);
   }
 
   @After
-  public void tearDown() {
+  public void tearDown() throws IOException {
     dbConfig.setCacheFileReaderClearPeriod(cacheFileReaderClearPeriod);
+    dbConfig.setMaxIdleTsFileReaderNum(maxIdleTsFileReaderNum);
+    dbConfig.setEnableMmapTsFileRead(enableMmapTsFileRead);
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+  }
+
+  private TsFileResource generateSealedTsFile(String filePath, int deviceNum)
+      throws IOException, WriteProcessException {
+    File file = SystemFileFactory.INSTANCE.getFile(filePath);
+    try (TsFileWriter writer = new TsFileWriter(file)) {
+      for (int d = 0; d < deviceNum; d++) {
+        String device = "root.sg.d" + d;
+        writer.registerTimeseries(
+            device, new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.PLAIN));
+        for (long time = 0; time < 100L * (d + 1); time++) {
+          writer.writeRecord(new TSRecord(device, time).addPoint("s1", time));
+        }
+      }
+    }
+    return new TsFileResource(file);
+  }
+
+  @Test
+  public void testIdleClosedReaders() throws IOException, WriteProcessException {
+    dbConfig.setMaxIdleTsFileReaderNum(2);
+    FileReaderManager manager = FileReaderManager.getInstance();
+    String filePath = TestConstant.BASE_OUTPUT_PATH.concat("idle.tsfile");
+
+    TsFileResource[] tsFileResources = new TsFileResource[3];
+    TsFileSequenceReader[] readers = new TsFileSequenceReader[3];
+    try {
+      for (int i = 0; i < 3; i++) {
+        tsFileResources[i] = generateSealedTsFile(filePath + i, 1);
+        manager.increaseFileReaderReference(tsFileResources[i], true);
+        readers[i] = manager.get(tsFileResources[i].getTsFilePath(), true);
+        manager.decreaseFileReaderReference(tsFileResources[i], true);
+      }
+
+      // the least recently released reader is closed
+      Assert.assertEquals(2, manager.getIdleClosedFileReaderNum());
+      Assert.assertFalse(manager.contains(tsFileResources[0], true));
+      Assert.assertTrue(manager.contains(tsFileResources[1], true));
+      Assert.assertTrue(manager.contains(tsFileResources[2], true));
+
+      // an idle reader is reused by the following query and never closed while referenced
+      manager.increaseFileReaderReference(tsFileResources[1], true);
+      Assert.assertEquals(1, manager.getIdleClosedFileReaderNum());
+      Assert.assertSame(readers[1], manager.get(tsFileResources[1].getTsFilePath(), true));
+      manager.increaseFileReaderReference(tsFileResources[0], true);
+      manager.get(tsFileResources[0].getTsFilePath(), true);
+      manager.decreaseFileReaderReference(tsFileResources[0], true);
+      Assert.assertEquals(2, manager.getIdleClosedFileReaderNum());
+      Assert.assertTrue(manager.contains(tsFileResources[1], true));
+      manager.decreaseFileReaderReference(tsFileResources[1], true);
+      Assert.assertFalse(manager.contains(tsFileResources[2], true));
+
+      // removing a file closes its idle reader
+      Assert.assertTrue(tsFileResources[1].remove());
+      Assert.assertFalse(manager.contains(tsFileResources[1], true));
+      Assert.assertEquals(1, manager.getIdleClosedFileReaderNum());
+    } finally {
+      manager.closeAndRemoveAllOpenedReaders();
+      for (TsFileResource tsFileResource : tsFileResources) {
+        if (tsFileResource != null) {
+          tsFileResource.remove();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMappedRead() throws IOException, WriteProcessException {
+    dbConfig.setEnableMmapTsFileRead(true);
+    FileReaderManager manager = FileReaderManager.getInstance();
+    TsFileResource tsFileResource =
+        generateSealedTsFile(TestConstant.BASE_OUTPUT_PATH.concat("mapped.tsfile"), 2);
+    IDeviceID device = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1");
+    try (TsFileSequenceReader expectedReader =
+        new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      TsFileSequenceReader reader = manager.get(tsFileResource.getTsFilePath(), true);
+      Assert.assertTrue(reader instanceof MappedTsFileSequenceReader);
+      Assert.assertTrue(((MappedTsFileSequenceReader) reader).isMapped());
+
+      TimeseriesMetadata expectedMetadata =
+          expectedReader.readTimeseriesMetadata(device, "s1", false);
+      TimeseriesMetadata metadata = reader.readTimeseriesMetadata(device, "s1", false);
+      Assert.assertEquals(
+          expectedMetadata.getStatistics().getCount(), metadata.getStatistics().getCount());
+      ChunkMetadata chunkMetadata = (ChunkMetadata) metadata.getChunkMetadataList().get(0);
+      Assert.assertEquals(
+          expectedReader.readMemChunk(chunkMetadata).getData(),
+          reader.readMemChunk(chunkMetadata).getData());
+
+      // the mapped region is unmapped with the reader, and reading the closed reader fails
+      manager.closeAndRemoveAllOpenedReaders();
+      Assert.assertFalse(((MappedTsFileSequenceReader) reader).isMapped());
+      try {
+        reader.readMemChunk(chunkMetadata);
+        fail();
+      } catch (IOException e) {
+        // expected
+      }
+
+      // large files are not mapped
+      dbConfig.setMmapTsFileReadMaxFileSize(tsFileResource.getTsFileSize() - 1);
+      Assert.assertFalse(
+          manager.get(tsFileResource.getTsFilePath(), true) instanceof MappedTsFileSequenceReader);
+    } finally {
+      dbConfig.setMmapTsFileReadMaxFileSize(64 * 1024 * 1024L);
+      manager.closeAndRemoveAllOpenedReaders();
+      tsFileResource.remove();
+    }
+  }
+
+  @Test
+  public void testConcurrentPositionalRead()
+      throws IOException, WriteProcessException, InterruptedException {
+    FileReaderManager manager = FileReaderManager.getInstance();
+    int deviceNum = 8;
+    TsFileResource tsFileResource =
+        generateSealedTsFile(TestConstant.BASE_OUTPUT_PATH.concat("positional.tsfile"), deviceNum);
+    try {
+      TsFileSequenceReader reader = manager.get(tsFileResource.getTsFilePath(), true);
+      AtomicBoolean failed = new AtomicBoolean(false);
+      Thread[] threads = new Thread[deviceNum];
+      for (int d = 0; d < deviceNum; d++) {
+        int deviceIndex = d;
+        threads[d] =
+            new Thread(
+                () -> {
+                  IDeviceID device =
+                      IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d" + deviceIndex);
+                  try {
+                    for (int i = 0; i < 200; i++) {
+                      TimeseriesMetadata metadata =
+                          reader.readTimeseriesMetadata(device, "s1", false, null);
+                      if (metadata.getStatistics().getCount() != 100L * (deviceIndex + 1)
+                          || metadata.getChunkMetadataList().size() != 1) {
+                        failed.set(true);
+                      }
+                    }
+                  } catch (Exception e) {
+                    failed.set(true);
+                  }
+                });
+        threads[d].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      Assert.assertFalse(failed.get());
+
+      // the position of the shared reader is not disturbed by other threads
+      reader.position(TSFileConfig.MAGIC_STRING.getBytes().length);
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  reader.position(0);
+                  reader.readMarker();
+                } catch (IOException e) {
+                  failed.set(true);
+                }
+              });
+      thread.start();
+      thread.join();
+      Assert.assertFalse(failed.get());
+      Assert.assertEquals(TSFileConfig.MAGIC_STRING.getBytes().length, reader.position());
+    } finally {
+      manager.closeAndRemoveAllOpenedReaders();
+      tsFileResource.remove();
+    }
   }
 
   @Test
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.reader.chunk;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
+import org.apache.iotdb.db.storageengine.buffer.DecodedPageCache;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.common.conf.TSFileDescriptor;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.TsFileSequenceReader;
+import org.apache.tsfile.read.common.Chunk;
+import org.apache.tsfile.read.common.Path;
+import org.apache.tsfile.read.common.TimeRange;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.filter.factory.TimeFilterApi;
+import org.apache.tsfile.read.filter.factory.ValueFilterApi;
+import org.apache.tsfile.read.reader.IChunkReader;
+import org.apache.tsfile.read.reader.IPageReader;
+import org.apache.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.tsfile.read.reader.series.PaginationController;
+import org.apache.tsfile.write.TsFileWriter;
+import org.apache.tsfile.write.record.TSRecord;
+import org.apache.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.tsfile.read.filter.factory.ValueFilterApi.DEFAULT_MEASUREMENT_INDEX;
+
+public class DecodedPageChunkReaderTest {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  private static final TSFileConfig TS_FILE_CONFIG = TSFileDescriptor.getInstance().getConfig();
+  private static final String DEVICE = "root.sg.d1";
+  private static final String MEASUREMENT = "s1";
+  private static final int POINT_NUM = 100;
+  private static final int POINT_NUM_IN_PAGE = 10;
+
+  private static boolean enableDecodedPageCache;
+  private static int maxNumberOfPointsInPage;
+
+  private final File file = new File(TestConstant.BASE_OUTPUT_PATH, "1-1-0-0.tsfile");
+  private final TsFileID tsFileID = new TsFileID(1, 0, 1, 1, 0);
+
+  @BeforeClass
+  public static void setUpClass() {
+    // must be set before DecodedPageCache is loaded
+    enableDecodedPageCache = CONFIG.isEnableDecodedPageCache();
+    CONFIG.setEnableDecodedPageCache(true);
+    maxNumberOfPointsInPage = TS_FILE_CONFIG.getMaxNumberOfPointsInPage();
+    TS_FILE_CONFIG.setMaxNumberOfPointsInPage(POINT_NUM_IN_PAGE);
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    CONFIG.setEnableDecodedPageCache(enableDecodedPageCache);
+    TS_FILE_CONFIG.setMaxNumberOfPointsInPage(maxNumberOfPointsInPage);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    if (!file.getParentFile().exists()) {
+      Assert.assertTrue(file.getParentFile().mkdirs());
+    }
+    try (TsFileWriter writer = new TsFileWriter(file)) {
+      writer.registerTimeseries(
+          new Path(DEVICE),
+          new MeasurementSchema(
+              MEASUREMENT, TSDataType.INT64, TSEncoding.PLAIN, CompressionType.UNCOMPRESSED));
+      for (long time = 0; time < POINT_NUM; time++) {
+        TSRecord record = new TSRecord(DEVICE, time);
+        record.addTuple(new LongDataPoint(MEASUREMENT, time));
+        writer.writeRecord(record);
+      }
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    DecodedPageCache.getInstance().clear();
+    if (file.exists()) {
+      Assert.assertTrue(file.delete());
+    }
+  }
+
+  @Test
+  public void testReadAllPages() throws IOException {
+    checkSameAsChunkReader(null, null, PaginationController.UNLIMITED_PAGINATION_CONTROLLER);
+    Assert.assertEquals(POINT_NUM / POINT_NUM_IN_PAGE, DecodedPageCache.getInstance().size());
+  }
+
+  @Test
+  public void testReadWithFilterAndLimitOffset() throws IOException {
+    checkSameAsChunkReader(
+        TimeFilterApi.gtEq(5),
+        ValueFilterApi.lt(DEFAULT_MEASUREMENT_INDEX, 80L, TSDataType.INT64),
+        new PaginationController(30, 10));
+    // pages are cached without the filter, so a query with another filter hits the same pages
+    checkSameAsChunkReader(null, null, PaginationController.UNLIMITED_PAGINATION_CONTROLLER);
+    Assert.assertEquals(POINT_NUM / POINT_NUM_IN_PAGE, DecodedPageCache.getInstance().size());
+    Assert.assertTrue(DecodedPageCache.getInstance().calculateDecodedPageHitRatio() > 0);
+  }
+
+  private void checkSameAsChunkReader(
+      Filter globalTimeFilter, Filter valueFilter, PaginationController paginationController)
+      throws IOException {
+    List<Long> expected =
+        read(
+            new ChunkReader(readChunk(), globalTimeFilter),
+            valueFilter,
+            copy(paginationController));
+    // the second read is served by the decoded page cache
+    for (int i = 0; i < 2; i++) {
+      Chunk chunk = readChunk();
+      QueryContext context = new QueryContext();
+      List<Long> actual =
+          read(
+              new DecodedPageChunkReader(chunk, globalTimeFilter, tsFileID, 0, context),
+              valueFilter,
+              copy(paginationController));
+      Assert.assertEquals(expected, actual);
+      if (i == 1) {
+        Assert.assertTrue(
+            context.getQueryStatistics().getLoadDecodedPageFromCacheCount().get() > 0);
+        Assert.assertEquals(
+            0, context.getQueryStatistics().getLoadDecodedPageFromChunkCount().get());
+      }
+    }
+  }
+
+  private PaginationController copy(PaginationController paginationController) {
+    return paginationController == PaginationController.UNLIMITED_PAGINATION_CONTROLLER
+        ? paginationController
+        : new PaginationController(
+            paginationController.getCurLimit(), paginationController.getCurOffset());
+  }
+
+  private Chunk readChunk() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(file.getPath())) {
+      ChunkMetadata chunkMetadata =
+          reader.getChunkMetadataList(new Path(DEVICE, MEASUREMENT, true)).get(0);
+      Chunk chunk = reader.readMemChunk(chunkMetadata);
+      chunk.setDeleteIntervalList(Collections.singletonList(new TimeRange(15, 25)));
+      return chunk;
+    }
+  }
+
+  private List<Long> read(
+      IChunkReader chunkReader, Filter valueFilter, PaginationController paginationController)
+      throws IOException {
+    List<Long> values = new ArrayList<>();
+    for (IPageReader pageReader : chunkReader.loadPageReaderList()) {
+      if (!paginationController.hasCurLimit()) {
+        break;
+      }
+      if (valueFilter != null) {
+        pageReader.addRecordFilter(valueFilter);
+      }
+      pageReader.setLimitOffset(paginationController);
+      TsBlock tsBlock = pageReader.getAllSatisfiedData();
+      for (int i = 0; i < tsBlock.getPositionCount(); i++) {
+        Assert.assertEquals(tsBlock.getTimeByIndex(i), tsBlock.getColumn(0).getLong(i));
+        values.add(tsBlock.getColumn(0).getLong(i));
+      }
+    }
+    return values;
+  }
+}
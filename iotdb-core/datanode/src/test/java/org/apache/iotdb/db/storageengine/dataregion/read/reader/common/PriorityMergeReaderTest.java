@@ -19,12 +19,18 @@
 
 package org.apache.iotdb.db.storageengine.dataregion.read.reader.common;
 
+import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class PriorityMergeReaderTest {
 
@@ -166,4 +172,56 @@ public class PriorityMergeReaderTest {
     }
     assertEquals(162, cnt);
   }
+
+  @Test
+  public void testTakeBatch() throws IOException {
+    TsBlockBuilder builder = new TsBlockBuilder(Collections.singletonList(TSDataType.INT64));
+    for (long time = 2; time <= 100; time++) {
+      builder.getTimeColumnBuilder().writeLong(time);
+      builder.getColumnBuilder(0).writeLong(time * 10);
+      builder.declarePosition();
+    }
+    TsBlock tsBlock = builder.build();
+
+    PriorityMergeReader priorityMergeReader = new PriorityMergeReader();
+    priorityMergeReader.addReader(
+        new AscFakedSeriesReader(new long[] {1, 2, 3}, 1),
+        new MergeReaderPriority(Long.MAX_VALUE, 2, 0, false),
+        3);
+    priorityMergeReader.addReader(
+        new TsBlockPointReader(tsBlock, tsBlock.getTsBlockSingleColumnIterator()),
+        new MergeReaderPriority(Long.MAX_VALUE, 1, 0, false),
+        100);
+
+    // points overlapped by the other reader are merged one by one
+    for (long time = 1; time <= 3; time++) {
+      assertFalse(priorityMergeReader.canTakeBatch());
+      TimeValuePair timeValuePair = priorityMergeReader.nextTimeValuePair();
+      assertEquals(time, timeValuePair.getTimestamp());
+      assertEquals(1L, timeValuePair.getValue().getValue());
+    }
+
+    // only the TsBlock is left, take [4, 50) in batch
+    assertTrue(priorityMergeReader.canTakeBatch());
+    assertEquals(46, priorityMergeReader.getBatchSize(time -> time >= 50));
+    TsBlock batch = priorityMergeReader.nextBatch(46);
+    assertEquals(46, batch.getPositionCount());
+    for (int i = 0; i < 46; i++) {
+      assertEquals(i + 4, batch.getTimeByIndex(i));
+      assertEquals((i + 4) * 10, batch.getColumn(0).getLong(i));
+    }
+
+    // the point after the batch can still be read one by one
+    TimeValuePair timeValuePair = priorityMergeReader.nextTimeValuePair();
+    assertEquals(50, timeValuePair.getTimestamp());
+    assertEquals(500L, timeValuePair.getValue().getValue());
+
+    // no point reaches the end, take all the left points
+    assertEquals(50, priorityMergeReader.getBatchSize(time -> time > 100));
+    batch = priorityMergeReader.nextBatch(50);
+    assertEquals(51, batch.getTimeByIndex(0));
+    assertEquals(100, batch.getTimeByIndex(49));
+    assertFalse(priorityMergeReader.hasNextTimeValuePair());
+    assertEquals(0, priorityMergeReader.getUsedMemorySize());
+  }
 }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.read.reader.series;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.IFullPath;
+import org.apache.iotdb.commons.path.MeasurementPath;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.queryengine.execution.operator.source.SeriesScanUtil;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.parameter.SeriesScanOptions;
+import org.apache.iotdb.db.queryengine.plan.statement.component.Ordering;
+import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSource;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.exception.write.WriteProcessException;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.common.TimeRange;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.tsfile.write.chunk.IChunkWriter;
+import org.apache.tsfile.write.writer.TsFileIOWriter;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.iotdb.db.storageengine.dataregion.compaction.utils.TsFileGeneratorUtils.createChunkWriter;
+import static org.apache.iotdb.db.storageengine.dataregion.compaction.utils.TsFileGeneratorUtils.writeNonAlignedChunk;
+
+public class SeriesScanOverlappedMergeTest {
+
+  private static final String TEST_DATABASE = "root.sg_om";
+  private static final IDeviceID TEST_DEVICE =
+      IDeviceID.Factory.DEFAULT_FACTORY.create(TEST_DATABASE + ".d1");
+  private static final String TEST_PATH = TEST_DEVICE.toString() + ".s1";
+
+  /**
+   * The data distribution is as follows, the points of f1-c1-p1 out of [50, 59] are only overlapped
+   * by the page itself, so they are taken in batch while merging.
+   *
+   * <pre>
+   *  time    root.sg_om.d1.s1
+   *      ┌──────────┐
+   *   0  │          │
+   *      │          │──────────┐
+   *  50  │ f1-c1-p1 │ f2-c1-p1 │
+   *      │          │──────────┘
+   *  60  │          │
+   * 199  │          │
+   *      └──────────┘
+   * </pre>
+   */
+  private static final List<TsFileResource> seqResources = new ArrayList<>();
+
+  private static final List<TsFileResource> unSeqResources = new ArrayList<>();
+
+  @BeforeClass
+  public static void setUp() throws IOException, WriteProcessException, IllegalPathException {
+    seqResources.add(prepareFile(1, new TimeRange(0L, 199L), true));
+    unSeqResources.add(prepareFile(2, new TimeRange(50L, 59L), false));
+  }
+
+  private static TsFileResource prepareFile(long version, TimeRange page, boolean isSeq)
+      throws IOException, WriteProcessException, IllegalPathException {
+    List<PartialPath> writtenPaths = Collections.singletonList(new PartialPath(TEST_PATH));
+    File file = new File(TestConstant.getTestTsFilePath(TEST_DATABASE, 0, 0, version));
+    TsFileResource resource = new TsFileResource(file);
+    if (!file.getParentFile().exists()) {
+      Assert.assertTrue(file.getParentFile().mkdirs());
+    }
+    try (TsFileIOWriter tsFileIOWriter = new TsFileIOWriter(resource.getTsFile())) {
+      tsFileIOWriter.startChunkGroup(TEST_DEVICE);
+      for (IChunkWriter chunkWriter :
+          createChunkWriter(
+              writtenPaths,
+              Collections.singletonList(TSDataType.INT32),
+              Collections.singletonList(TSEncoding.PLAIN),
+              Collections.singletonList(CompressionType.UNCOMPRESSED),
+              false)) {
+        writeNonAlignedChunk(
+            (ChunkWriterImpl) chunkWriter, tsFileIOWriter, Collections.singletonList(page), isSeq);
+      }
+      tsFileIOWriter.endChunkGroup();
+
+      resource.updateStartTime(TEST_DEVICE, page.getMin());
+      resource.updateEndTime(TEST_DEVICE, page.getMax());
+      tsFileIOWriter.endFile();
+    }
+    resource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    return resource;
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException {
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+    for (TsFileResource tsFileResource : seqResources) {
+      tsFileResource.remove();
+    }
+    for (TsFileResource tsFileResource : unSeqResources) {
+      tsFileResource.remove();
+    }
+    seqResources.clear();
+    unSeqResources.clear();
+    EnvironmentUtils.cleanAllDir();
+  }
+
+  @Test
+  public void testAscMerge() throws IllegalPathException, IOException {
+    checkMergedData(Ordering.ASC);
+  }
+
+  @Test
+  public void testDescMerge() throws IllegalPathException, IOException {
+    checkMergedData(Ordering.DESC);
+  }
+
+  private void checkMergedData(Ordering scanOrder) throws IllegalPathException, IOException {
+    MeasurementPath scanPath = new MeasurementPath(TEST_PATH, TSDataType.INT32);
+    SeriesScanOptions.Builder scanOptionsBuilder = new SeriesScanOptions.Builder();
+    scanOptionsBuilder.withAllSensors(Collections.singleton(scanPath.getMeasurement()));
+    SeriesScanUtil seriesScanUtil =
+        new SeriesScanUtil(
+            IFullPath.convertToIFullPath(scanPath),
+            scanOrder,
+            scanOptionsBuilder.build(),
+            EnvironmentUtils.TEST_QUERY_FI_CONTEXT);
+    seriesScanUtil.initQueryDataSource(new QueryDataSource(seqResources, unSeqResources));
+
+    boolean ascending = scanOrder == Ordering.ASC;
+    long expectedTime = ascending ? 0 : 199;
+    while (seriesScanUtil.hasNextFile()) {
+      while (seriesScanUtil.hasNextChunk()) {
+        while (seriesScanUtil.hasNextPage()) {
+          TsBlock tsBlock = seriesScanUtil.nextPage();
+          if (tsBlock == null) {
+            continue;
+          }
+          for (int i = 0, size = tsBlock.getPositionCount(); i < size; i++) {
+            Assert.assertEquals(expectedTime, tsBlock.getTimeByIndex(i));
+            // points in [50, 59] are overwritten by the unsequence file
+            int expectedValue =
+                expectedTime >= 50 && expectedTime <= 59
+                    ? (int) (100000 + expectedTime)
+                    : (int) expectedTime;
+            Assert.assertEquals(expectedValue, tsBlock.getColumn(0).getInt(i));
+            expectedTime += ascending ? 1 : -1;
+          }
+        }
+      }
+    }
+    Assert.assertEquals(ascending ? 200 : -1, expectedTime);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.statistics;
+
+import org.apache.iotdb.commons.exception.MetadataException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.storageengine.buffer.TableStatisticsCache;
+import org.apache.iotdb.db.storageengine.dataregion.compaction.AbstractCompactionTest;
+import org.apache.iotdb.db.storageengine.dataregion.compaction.tablemodel.CompactionTableModelTestFileWriter;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+
+import org.apache.tsfile.exception.write.WriteProcessException;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.read.common.TimeRange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class DataRegionTableStatisticsTest extends AbstractCompactionTest {
+
+  private static final String TABLE_NAME = "t1";
+  private static final int TS_FILE_NUM = 3;
+  private static final int POINT_NUM_PER_TS_FILE = 10;
+
+  @Before
+  public void setUp()
+      throws IOException, WriteProcessException, MetadataException, InterruptedException {
+    super.setUp();
+    for (int i = 0; i < TS_FILE_NUM; i++) {
+      TsFileResource resource = createEmptyFileAndResource(true);
+      try (CompactionTableModelTestFileWriter writer =
+          new CompactionTableModelTestFileWriter(resource)) {
+        writer.registerTableSchema(TABLE_NAME, Collections.singletonList("id1"));
+        writer.startChunkGroup(TABLE_NAME, Collections.singletonList("d1"));
+        writer.generateSimpleNonAlignedSeriesToCurrentDevice(
+            "s1",
+            new TimeRange[] {
+              new TimeRange(
+                  (long) i * POINT_NUM_PER_TS_FILE, (i + 1L) * POINT_NUM_PER_TS_FILE - 1)
+            },
+            TSEncoding.PLAIN,
+            CompressionType.UNCOMPRESSED);
+        writer.endChunkGroup();
+        writer.endFile();
+      }
+      seqResources.add(resource);
+      tsFileManager.add(resource, true);
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException, StorageEngineException {
+    super.tearDown();
+  }
+
+  @Test
+  public void testIncrementalRefresh() {
+    TableStatisticsCache cache = new TableStatisticsCache(1024 * 1024);
+    DataRegionTableStatistics tableStatistics = new DataRegionTableStatistics(tsFileManager, cache);
+
+    // only one TsFile is loaded, and the others are extrapolated from it
+    TableStatistics statistics = tableStatistics.getAllTableStatistics(1).get(TABLE_NAME);
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(TS_FILE_NUM * POINT_NUM_PER_TS_FILE, statistics.getRowCount());
+    Assert.assertEquals(1, statistics.getDeviceCount());
+    Assert.assertEquals(0, statistics.getStartTime());
+    Assert.assertEquals(POINT_NUM_PER_TS_FILE - 1, statistics.getEndTime());
+    Assert.assertEquals(
+        TS_FILE_NUM * POINT_NUM_PER_TS_FILE,
+        statistics.getColumnStatistics().get("s1").getNonNullCount());
+
+    // the cached TsFile is not loaded again
+    statistics = tableStatistics.getAllTableStatistics(1).get(TABLE_NAME);
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(TS_FILE_NUM * POINT_NUM_PER_TS_FILE, statistics.getRowCount());
+    Assert.assertEquals(2 * POINT_NUM_PER_TS_FILE - 1, statistics.getEndTime());
+
+    statistics = tableStatistics.getAllTableStatistics(1).get(TABLE_NAME);
+    Assert.assertEquals(TS_FILE_NUM, cache.size());
+    Assert.assertEquals(TS_FILE_NUM * POINT_NUM_PER_TS_FILE, statistics.getRowCount());
+    Assert.assertEquals(0, statistics.getStartTime());
+    Assert.assertEquals(TS_FILE_NUM * POINT_NUM_PER_TS_FILE - 1, statistics.getEndTime());
+    ColumnStatistics columnStatistics = statistics.getColumnStatistics().get("s1");
+    Assert.assertEquals(0, columnStatistics.getMinValue(), 0);
+    Assert.assertEquals(TS_FILE_NUM * POINT_NUM_PER_TS_FILE - 1, columnStatistics.getMaxValue(), 0);
+
+    Assert.assertFalse(tableStatistics.getAllTableStatistics(1).containsKey("t2"));
+  }
+
+  @Test
+  public void testRemovedTsFile() {
+    TableStatisticsCache cache = new TableStatisticsCache(1024 * 1024);
+    DataRegionTableStatistics tableStatistics = new DataRegionTableStatistics(tsFileManager, cache);
+    Assert.assertEquals(
+        TS_FILE_NUM * POINT_NUM_PER_TS_FILE,
+        tableStatistics.getAllTableStatistics(TS_FILE_NUM).get(TABLE_NAME).getRowCount());
+
+    TsFileResource removedResource = seqResources.get(0);
+    tsFileManager.remove(removedResource, true);
+    cache.invalidate(removedResource);
+    Assert.assertEquals(TS_FILE_NUM - 1, cache.size());
+    TableStatistics statistics = tableStatistics.getAllTableStatistics(0).get(TABLE_NAME);
+    Assert.assertEquals((TS_FILE_NUM - 1) * POINT_NUM_PER_TS_FILE, statistics.getRowCount());
+    Assert.assertEquals(POINT_NUM_PER_TS_FILE, statistics.getStartTime());
+  }
+
+  @Test
+  public void testBoundedCache() {
+    // the statistics of a TsFile are heavier than the cache, so none of them is kept
+    TableStatisticsCache cache = new TableStatisticsCache(1);
+    DataRegionTableStatistics tableStatistics = new DataRegionTableStatistics(tsFileManager, cache);
+    for (int i = 0; i < TS_FILE_NUM; i++) {
+      Assert.assertEquals(
+          TS_FILE_NUM * POINT_NUM_PER_TS_FILE,
+          tableStatistics.getAllTableStatistics(1).get(TABLE_NAME).getRowCount());
+      Assert.assertEquals(0, cache.size());
+    }
+
+    TableStatistics statistics = tableStatistics.getAllTableStatistics(TS_FILE_NUM).get(TABLE_NAME);
+    Assert.assertEquals(TS_FILE_NUM * POINT_NUM_PER_TS_FILE, statistics.getRowCount());
+    Assert.assertEquals(TS_FILE_NUM * POINT_NUM_PER_TS_FILE - 1, statistics.getEndTime());
+  }
+}
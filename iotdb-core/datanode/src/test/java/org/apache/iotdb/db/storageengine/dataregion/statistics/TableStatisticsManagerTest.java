@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.statistics;
+
+import org.apache.iotdb.mpp.rpc.thrift.TRegionTableStatistics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TableStatisticsManagerTest {
+
+  @Test
+  public void testThriftConversion() {
+    TableStatistics statistics =
+        new TableStatistics(
+            100, 2, 0, 99, Collections.singletonMap("s1", new ColumnStatistics(90, 1.5, 7.5)));
+    Assert.assertEquals(statistics, TableStatistics.fromThrift(statistics.toThrift()));
+  }
+
+  @Test
+  public void testMergeClusterTableStatistics() {
+    TableStatistics statistics1 =
+        new TableStatistics(
+            100, 2, 0, 99, Collections.singletonMap("s1", new ColumnStatistics(90, 0, 10)));
+    TableStatistics statistics2 =
+        new TableStatistics(
+            50, 1, 100, 149, Collections.singletonMap("s1", new ColumnStatistics(50, 5, 20)));
+    Map<Integer, TRegionTableStatistics> regionTableStatistics = new HashMap<>();
+    regionTableStatistics.put(
+        1,
+        new TRegionTableStatistics("db1", Collections.singletonMap("t1", statistics1.toThrift())));
+    regionTableStatistics.put(
+        2,
+        new TRegionTableStatistics("db1", Collections.singletonMap("t1", statistics2.toThrift())));
+    regionTableStatistics.put(
+        3,
+        new TRegionTableStatistics("db2", Collections.singletonMap("t1", statistics2.toThrift())));
+
+    TableStatisticsManager manager = TableStatisticsManager.getInstance();
+    manager.updateClusterTableStatistics(regionTableStatistics);
+
+    // the data regions of a database are merged, and the devices of them are disjoint
+    TableStatistics merged = manager.getTableStatistics("db1", "t1").get();
+    Assert.assertEquals(150, merged.getRowCount());
+    Assert.assertEquals(3, merged.getDeviceCount());
+    Assert.assertEquals(0, merged.getStartTime());
+    Assert.assertEquals(149, merged.getEndTime());
+    Assert.assertEquals(140, merged.getColumnStatistics().get("s1").getNonNullCount());
+    Assert.assertEquals(20, merged.getColumnStatistics().get("s1").getMaxValue(), 0);
+    Assert.assertEquals(statistics2, manager.getTableStatistics("db2", "t1").get());
+    Assert.assertFalse(manager.getTableStatistics("db1", "t2").isPresent());
+    Assert.assertFalse(manager.getTableStatistics("db3", "t1").isPresent());
+
+    // the statistics sent by the next heartbeat replace the previous ones
+    regionTableStatistics.remove(2);
+    manager.updateClusterTableStatistics(regionTableStatistics);
+    Assert.assertEquals(statistics1, manager.getTableStatistics("db1", "t1").get());
+  }
+}
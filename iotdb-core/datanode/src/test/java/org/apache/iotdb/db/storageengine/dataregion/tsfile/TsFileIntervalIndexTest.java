@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.tsfile;
+
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
+import org.apache.iotdb.db.storageengine.rescon.memory.TsFileResourceManager;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.filter.factory.TimeFilterApi;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class TsFileIntervalIndexTest {
+
+  private static final IDeviceID[] DEVICES = {
+    IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d0"),
+    IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1"),
+    IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d2")
+  };
+
+  private TsFileResource generateTsFileResource(int id, Random random) {
+    File file =
+        new File(
+            TsFileNameGenerator.generateNewTsFilePath(
+                TestConstant.BASE_OUTPUT_PATH, id, id, id, id));
+    TsFileResource resource = new TsFileResource(file);
+    for (IDeviceID device : DEVICES) {
+      if (random.nextInt(3) == 0) {
+        continue;
+      }
+      long startTime = random.nextInt(10000);
+      resource.updateStartTime(device, startTime);
+      resource.updateEndTime(device, startTime + random.nextInt(500));
+    }
+    if (resource.getDevices().isEmpty()) {
+      resource.updateStartTime(DEVICES[0], id);
+      resource.updateEndTime(DEVICES[0], id);
+    }
+    resource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    return resource;
+  }
+
+  @Test
+  public void testSelect() {
+    Random random = new Random(7);
+    TsFileResourceList resourceList = new TsFileResourceList();
+    for (int i = 0; i < 300; i++) {
+      resourceList.add(generateTsFileResource(i, random));
+    }
+    // files with degraded time index or still being written are selected by every device query
+    resourceList.get(10).degradeTimeIndex();
+    resourceList.get(20).setStatusForTest(TsFileResourceStatus.UNCLOSED);
+
+    for (int i = 0; i < 100; i++) {
+      long startTime = random.nextInt(11000);
+      long endTime = startTime + random.nextInt(1000);
+      Filter timeFilter = TimeFilterApi.between(startTime, endTime);
+      for (IDeviceID device : new IDeviceID[] {DEVICES[0], DEVICES[1], DEVICES[2], null}) {
+        List<TsFileResource> selected =
+            resourceList.getIntervalIndex().select(device, startTime, endTime);
+        Assert.assertEquals(
+            filter(resourceList.getArrayList(), device, timeFilter),
+            filter(selected, device, timeFilter));
+        if (device != null) {
+          Assert.assertTrue(selected.contains(resourceList.get(10)));
+        }
+        Assert.assertTrue(selected.contains(resourceList.get(20)));
+        // the order of the list is kept
+        List<TsFileResource> ordered = new ArrayList<>(resourceList.getArrayList());
+        ordered.retainAll(selected);
+        Assert.assertEquals(ordered, selected);
+      }
+    }
+  }
+
+  @Test
+  public void testUpdateAfterModification() {
+    Random random = new Random(11);
+    TsFileResourceList resourceList = new TsFileResourceList();
+    TsFileResource first = generateTsFileResource(0, random);
+    resourceList.add(first);
+    TsFileIntervalIndex index = resourceList.getIntervalIndex();
+    Assert.assertEquals(1, index.select(null, Long.MIN_VALUE, Long.MAX_VALUE).size());
+
+    TsFileResource second = generateTsFileResource(1, random);
+    resourceList.add(second);
+    Assert.assertSame(index, resourceList.getIntervalIndex());
+    Assert.assertEquals(2, index.select(null, Long.MIN_VALUE, Long.MAX_VALUE).size());
+
+    resourceList.remove(first);
+    Assert.assertSame(index, resourceList.getIntervalIndex());
+    List<TsFileResource> selected = index.select(null, Long.MIN_VALUE, Long.MAX_VALUE);
+    Assert.assertEquals(1, selected.size());
+    Assert.assertSame(second, selected.get(0));
+  }
+
+  @Test
+  public void testIncrementalUpdate() {
+    Random random = new Random(13);
+    TsFileResourceList resourceList = new TsFileResourceList();
+    int id = 0;
+    for (; id < 50; id++) {
+      resourceList.add(generateTsFileResource(id, random));
+    }
+    TsFileIntervalIndex index = resourceList.getIntervalIndex();
+    for (int round = 0; round < 500; round++) {
+      int operation = random.nextInt(4);
+      if (operation == 0 && resourceList.size() > 1) {
+        resourceList.remove(resourceList.get(random.nextInt(resourceList.size())));
+      } else if (operation == 1) {
+        // keep inserting before the same file, so that the order keys have to be renumbered
+        resourceList.insertBefore(resourceList.get(1), generateTsFileResource(id++, random));
+      } else if (operation == 2) {
+        resourceList.insertAfter(
+            resourceList.get(random.nextInt(resourceList.size())),
+            generateTsFileResource(id++, random));
+      } else {
+        resourceList.add(generateTsFileResource(id++, random));
+      }
+      Assert.assertSame(index, resourceList.getIntervalIndex());
+
+      long startTime = random.nextInt(11000);
+      long endTime = startTime + random.nextInt(1000);
+      Filter timeFilter = TimeFilterApi.between(startTime, endTime);
+      for (IDeviceID device : new IDeviceID[] {DEVICES[random.nextInt(DEVICES.length)], null}) {
+        List<TsFileResource> selected = index.select(device, startTime, endTime);
+        Assert.assertEquals(
+            filter(resourceList.getArrayList(), device, timeFilter),
+            filter(selected, device, timeFilter));
+        List<TsFileResource> ordered = new ArrayList<>(resourceList.getArrayList());
+        ordered.retainAll(selected);
+        Assert.assertEquals(ordered, selected);
+      }
+    }
+  }
+
+  @Test
+  public void testMemoryLimit() {
+    TsFileResourceManager resourceManager = TsFileResourceManager.getInstance();
+    long originalThreshold = resourceManager.getTimeIndexMemoryThreshold();
+    long originalMemCost = resourceManager.getIntervalIndexMemCost();
+    Random random = new Random(17);
+    TsFileResourceList resourceList = new TsFileResourceList();
+    for (int i = 0; i < 100; i++) {
+      resourceList.add(generateTsFileResource(i, random));
+    }
+    try {
+      // no room for the device trees, so the devices of every file are unknown
+      resourceManager.setTimeIndexMemoryThreshold(0);
+      TsFileIntervalIndex index = resourceList.getIntervalIndex();
+      Assert.assertEquals(originalMemCost, resourceManager.getIntervalIndexMemCost());
+      for (int i = 0; i < 100; i++) {
+        long startTime = random.nextInt(11000);
+        long endTime = startTime + random.nextInt(1000);
+        Filter timeFilter = TimeFilterApi.between(startTime, endTime);
+        for (IDeviceID device : DEVICES) {
+          Assert.assertEquals(
+              filter(resourceList.getArrayList(), device, timeFilter),
+              filter(index.select(device, startTime, endTime), device, timeFilter));
+        }
+      }
+    } finally {
+      resourceManager.setTimeIndexMemoryThreshold(originalThreshold);
+      resourceList.clear();
+    }
+
+    resourceList = new TsFileResourceList();
+    for (int i = 0; i < 100; i++) {
+      resourceList.add(generateTsFileResource(i, random));
+    }
+    resourceList.getIntervalIndex();
+    Assert.assertTrue(resourceManager.getIntervalIndexMemCost() > originalMemCost);
+    // the memory is released with the index
+    resourceList.clear();
+    Assert.assertEquals(originalMemCost, resourceManager.getIntervalIndexMemCost());
+  }
+
+  @Test
+  public void testRebuildAfterSeal() {
+    TsFileResourceList resourceList = new TsFileResourceList();
+    TsFileResource resource =
+        new TsFileResource(
+            new File(
+                TsFileNameGenerator.generateNewTsFilePath(
+                    TestConstant.BASE_OUTPUT_PATH, 0, 0, 0, 0)));
+    resource.updateStartTime(DEVICES[0], 0);
+    resource.updateEndTime(DEVICES[0], 10);
+    resource.setStatusForTest(TsFileResourceStatus.UNCLOSED);
+    resourceList.add(resource);
+    // an unsealed resource may still receive data of any time
+    Assert.assertEquals(1, resourceList.getIntervalIndex().select(DEVICES[0], 100, 200).size());
+
+    // sealing does not modify the list, but the index must not keep the resource as unsealed
+    resource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    Assert.assertTrue(resourceList.getIntervalIndex().select(DEVICES[0], 100, 200).isEmpty());
+    Assert.assertEquals(1, resourceList.getIntervalIndex().select(DEVICES[0], 5, 200).size());
+  }
+
+  private List<TsFileResource> filter(
+      List<TsFileResource> resources, IDeviceID device, Filter timeFilter) {
+    return resources.stream()
+        .filter(resource -> resource.isSatisfied(device, timeFilter, false, false))
+        .collect(Collectors.toList());
+  }
+}
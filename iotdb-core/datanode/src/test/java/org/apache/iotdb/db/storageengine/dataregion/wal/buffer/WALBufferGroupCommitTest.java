@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.storageengine.dataregion.wal.buffer;
+
+import org.apache.iotdb.db.storageengine.dataregion.wal.utils.MemoryControlledWALEntryQueue;
+import org.apache.iotdb.db.storageengine.rescon.memory.SystemInfo;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class WALBufferGroupCommitTest extends WALBufferCommonTest {
+  private boolean enableWALGroupCommit;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.cleanDir(logDirectory);
+    enableWALGroupCommit = config.isEnableWALGroupCommit();
+    config.setEnableWALGroupCommit(true);
+    super.setUp();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    super.tearDown();
+    config.setEnableWALGroupCommit(enableWALGroupCommit);
+    EnvironmentUtils.cleanDir(logDirectory);
+  }
+
+  @Test
+  public void testSerializedBufferCountedInQueueMemory() throws Exception {
+    WALEntry walEntry = new WALInfoEntry(1, getInsertRowNode(devicePath, 1));
+    walEntry.setSerializedBuffer(ByteBuffer.allocate(walEntry.serializedSize()));
+    long expectedSize = walEntry.getMemorySize() + walEntry.serializedSize();
+
+    MemoryControlledWALEntryQueue queue = new MemoryControlledWALEntryQueue();
+    long memoryCost = SystemInfo.getInstance().getCurrentWalQueueMemoryCost();
+    queue.put(walEntry);
+    assertEquals(
+        memoryCost + expectedSize, SystemInfo.getInstance().getCurrentWalQueueMemoryCost());
+    queue.poll(1, TimeUnit.SECONDS);
+    assertEquals(memoryCost, SystemInfo.getInstance().getCurrentWalQueueMemoryCost());
+  }
+}
@@ -50,6 +50,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
@@ -57,6 +58,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class WALCompressionTest {
@@ -366,6 +368,91 @@ public class WALCompressionTest {
     }
   }
 
+  @Test
+  public void testMmapReadWithoutCompression()
+      throws QueryProcessException, IllegalPathException, IOException, InterruptedException {
+    IoTDBDescriptor.getInstance()
+        .getConfig()
+        .setWALCompressionAlgorithm(CompressionType.UNCOMPRESSED);
+    testMmapRead();
+  }
+
+  @Test
+  public void testMmapReadWithCompression()
+      throws QueryProcessException,
+          IllegalPathException,
+          IOException,
+          InterruptedException,
+          NoSuchFieldException,
+          ClassNotFoundException,
+          IllegalAccessException {
+    IoTDBDescriptor.getInstance().getConfig().setWALCompressionAlgorithm(CompressionType.LZ4);
+    WALTestUtils.setMinCompressionSize(0);
+    testMmapRead();
+  }
+
+  public void testMmapRead()
+      throws IOException, QueryProcessException, IllegalPathException, InterruptedException {
+    File dir = new File(compressionDir);
+    if (!dir.exists()) {
+      dir.mkdirs();
+    }
+    WALBuffer walBuffer = new WALBuffer("", compressionDir);
+    List<WALEntry> entryList = new ArrayList<>();
+    for (int i = 0; i < 100; ++i) {
+      InsertRowNode node = WALTestUtils.getInsertRowNode(devicePath, i);
+      WALEntry entry = new WALInfoEntry(i % 2, node);
+      walBuffer.write(entry);
+      entryList.add(entry);
+    }
+    long sleepTime = 0;
+    while (!walBuffer.isAllWALEntriesConsumed()) {
+      Thread.sleep(100);
+      sleepTime += 100;
+      if (sleepTime > 10_000) {
+        Assert.fail("It has been too long for all entries to be consumed");
+      }
+    }
+    walBuffer.close();
+
+    File[] walFiles = WALFileUtils.listAllWALFiles(new File(compressionDir));
+    Assert.assertNotNull(walFiles);
+    Assert.assertEquals(1, walFiles.length);
+    for (boolean useMmap : new boolean[] {false, true}) {
+      List<WALEntry> readWALEntryList = new ArrayList<>();
+      try (DataInputStream stream = new DataInputStream(new WALInputStream(walFiles[0], useMmap))) {
+        for (int i = 0; i < 100; ++i) {
+          readWALEntryList.add(WALEntry.deserialize(stream));
+        }
+      }
+      Assert.assertEquals(entryList, readWALEntryList);
+    }
+
+    boolean enableWALMmapRead = IoTDBDescriptor.getInstance().getConfig().isEnableWALMmapRead();
+    try {
+      for (boolean useMmap : new boolean[] {false, true}) {
+        IoTDBDescriptor.getInstance().getConfig().setEnableWALMmapRead(useMmap);
+        List<WALEntry> readWALEntryList = new ArrayList<>();
+        try (WALByteBufReader reader = new WALByteBufReader(walFiles[0])) {
+          while (reader.hasNext()) {
+            ByteBuffer buffer = reader.nextOfMemTables(Collections.singleton(1L));
+            if (buffer != null) {
+              readWALEntryList.add(
+                  WALEntry.deserialize(
+                      new DataInputStream(new ByteArrayInputStream(buffer.array()))));
+            }
+          }
+        }
+        Assert.assertEquals(50, readWALEntryList.size());
+        for (int i = 0; i < 50; ++i) {
+          Assert.assertEquals(entryList.get(2 * i + 1), readWALEntryList.get(i));
+        }
+      }
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setEnableWALMmapRead(enableWALMmapRead);
+    }
+  }
+
   @Test
   public void testHotLoad()
       throws IOException,
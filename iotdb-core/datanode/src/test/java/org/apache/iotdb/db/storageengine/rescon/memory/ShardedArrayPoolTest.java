@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.rescon.memory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ShardedArrayPoolTest {
+
+  @Test
+  public void testLimitIsSplitOverShards() {
+    ShardedArrayPool<long[]> pool = new ShardedArrayPool<>(4);
+    int pooled = 0;
+    for (int i = 0; i < 20; i++) {
+      if (pool.offer(new long[1], 10)) {
+        pooled++;
+      }
+    }
+    // the shards together never hold more than the limit, but all of it can be used
+    Assert.assertEquals(10, pooled);
+    Assert.assertEquals(10, pool.size());
+
+    for (int i = 0; i < 10; i++) {
+      Assert.assertNotNull(pool.poll());
+    }
+    Assert.assertNull(pool.poll());
+    Assert.assertEquals(10, pool.getHitCount());
+    Assert.assertEquals(1, pool.getMissCount());
+    Assert.assertEquals(0, pool.size());
+  }
+
+  @Test
+  public void testPollFromOtherThreads() throws Exception {
+    ShardedArrayPool<long[]> pool = new ShardedArrayPool<>(8);
+    long[] released = new long[1];
+    // arrays released by one thread (e.g. a flush thread) can be allocated by the others
+    Thread releaser = new Thread(() -> pool.offer(released, 100));
+    releaser.start();
+    releaser.join();
+
+    ExecutorService allocator = Executors.newSingleThreadExecutor();
+    try {
+      Assert.assertSame(released, allocator.submit(pool::poll).get());
+    } finally {
+      allocator.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testConcurrentAllocateAndRelease() throws Exception {
+    ShardedArrayPool<long[]> pool = new ShardedArrayPool<>(4);
+    int limit = 64;
+    int threadNum = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+    try {
+      List<Future<List<long[]>>> futures = new ArrayList<>();
+      for (int t = 0; t < threadNum; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  List<long[]> held = new ArrayList<>();
+                  for (int i = 0; i < 10000; i++) {
+                    long[] array = pool.poll();
+                    held.add(array == null ? new long[1] : array);
+                    if (held.size() > 16) {
+                      pool.offer(held.remove(0), limit);
+                    }
+                  }
+                  return held;
+                }));
+      }
+      Map<long[], Boolean> inUse = Collections.synchronizedMap(new IdentityHashMap<>());
+      for (Future<List<long[]>> future : futures) {
+        for (long[] array : future.get()) {
+          // an array is never handed out twice
+          Assert.assertNull(inUse.put(array, true));
+        }
+      }
+      Assert.assertTrue(pool.size() <= limit);
+      Assert.assertEquals(threadNum * 10000L, pool.getHitCount() + pool.getMissCount());
+    } finally {
+      executor.shutdownNow();
+      Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.utils.MemUtils;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.utils.BytesUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class BinaryDictionaryTest {
+
+  @Test
+  public void testIntern() {
+    BinaryDictionary dictionary = new BinaryDictionary(2);
+
+    Binary on = BytesUtils.valueOf("on");
+    Binary off = BytesUtils.valueOf("off");
+    Assert.assertSame(on, dictionary.intern(on));
+    Assert.assertSame(off, dictionary.intern(off));
+    Assert.assertSame(on, dictionary.intern(BytesUtils.valueOf("on")));
+    Assert.assertEquals(
+        MemUtils.getBinarySize(on) - 2 * MemUtils.getBinaryDictionaryEntrySize(),
+        dictionary.takeSavedMemSize());
+    Assert.assertEquals(0, dictionary.takeSavedMemSize());
+
+    // the dictionary is full, new values are kept as they are
+    Binary unknown = BytesUtils.valueOf("unknown");
+    Assert.assertSame(unknown, dictionary.intern(unknown));
+    Assert.assertNotSame(unknown, dictionary.intern(BytesUtils.valueOf("unknown")));
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals(0, dictionary.takeSavedMemSize());
+    Assert.assertNull(dictionary.intern(null));
+  }
+
+  @Test
+  public void testBinaryTVList() {
+    BinaryTVList tvList = BinaryTVList.newList();
+    tvList.dictionary = new BinaryDictionary(16);
+    Binary[] states = {
+      BytesUtils.valueOf("running"), BytesUtils.valueOf("stopped"), BytesUtils.valueOf("error")
+    };
+    for (int i = 999; i >= 500; i--) {
+      tvList.putBinary(i, BytesUtils.valueOf(states[i % 3].toString()));
+    }
+    long[] times = new long[500];
+    Binary[] values = new Binary[500];
+    for (int i = 0; i < 500; i++) {
+      times[i] = i;
+      values[i] = BytesUtils.valueOf(states[i % 3].toString());
+    }
+    tvList.putBinaries(times, values, null, 0, 500);
+    // the input column is not modified
+    Assert.assertNotSame(values[0], values[3]);
+    // all values but the 3 distinct ones are repeated
+    long repeatedSize = 0;
+    for (int i = 3; i < 1000; i++) {
+      repeatedSize += MemUtils.getBinarySize(states[i % 3]);
+    }
+    Assert.assertEquals(
+        repeatedSize - 3 * MemUtils.getBinaryDictionaryEntrySize(),
+        tvList.takeDictionarySavedMemSize());
+    Assert.assertEquals(0, tvList.takeDictionarySavedMemSize());
+
+    tvList.sort();
+    Binary[] shared = new Binary[3];
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Binary value = tvList.getBinary(i);
+      Assert.assertEquals(states[i % 3], value);
+      if (shared[i % 3] == null) {
+        shared[i % 3] = value;
+      }
+      Assert.assertSame(shared[i % 3], value);
+    }
+    Assert.assertEquals(3, tvList.dictionary.size());
+    Assert.assertSame(tvList.dictionary, tvList.clone().dictionary);
+  }
+
+  @Test
+  public void testAlignedTVList() {
+    AlignedTVList tvList =
+        AlignedTVList.newAlignedList(Arrays.asList(TSDataType.STRING, TSDataType.INT32));
+    tvList.dictionary = new BinaryDictionary(16);
+    for (int i = 0; i < 100; i++) {
+      tvList.putAlignedValue(
+          i, new Object[] {i % 10 == 0 ? null : BytesUtils.valueOf("state" + i % 2), i});
+    }
+    Object[] columns = new Object[2];
+    Binary[] column = new Binary[100];
+    for (int i = 0; i < 100; i++) {
+      column[i] = BytesUtils.valueOf("state" + i % 2);
+    }
+    columns[0] = column;
+    columns[1] = new int[100];
+    long[] times = new long[100];
+    for (int i = 0; i < 100; i++) {
+      times[i] = 100L + i;
+    }
+    tvList.putAlignedValues(times, columns, null, 0, 100, null);
+
+    Binary even = tvList.getBinaryByValueIndex(2, 0);
+    Binary odd = tvList.getBinaryByValueIndex(1, 0);
+    for (int i = 0; i < 200; i++) {
+      if (i < 100 && i % 10 == 0) {
+        Assert.assertTrue(tvList.isNullValue(i, 0));
+        continue;
+      }
+      Assert.assertSame(i % 2 == 0 ? even : odd, tvList.getBinaryByValueIndex(i, 0));
+    }
+    Assert.assertEquals(2, tvList.dictionary.size());
+    Assert.assertTrue(tvList.takeDictionarySavedMemSize() > 0);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.tsfile.read.TimeValuePair;
+import org.apache.tsfile.utils.BitMap;
+import org.apache.tsfile.utils.TsPrimitiveType.TsDouble;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+
+public class OffHeapTVListTest {
+
+  @Test
+  public void testOffHeapLongTVList() {
+    OffHeapLongTVList tvList = new OffHeapLongTVList();
+    for (long i = 3 * ARRAY_SIZE; i >= 0; i--) {
+      tvList.putLong(i, i * 2);
+    }
+    Assert.assertFalse(tvList.isSorted());
+    tvList.sort();
+    for (int i = 0; i < tvList.rowCount; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i * 2L, tvList.getLong(i));
+    }
+    tvList.clear();
+    Assert.assertEquals(0, tvList.rowCount());
+  }
+
+  @Test
+  public void testOffHeapDoubleTVListRandom() {
+    Random random = new Random();
+    OffHeapDoubleTVList tvList = new OffHeapDoubleTVList();
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      long time = random.nextInt(10000);
+      double value = random.nextDouble();
+      tvList.putDouble(time, value);
+      inputs.add(new TimeValuePair(time, new TsDouble(value)));
+    }
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.rowCount; i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getDouble(), tvList.getDouble(i), 0);
+    }
+  }
+
+  @Test
+  public void testOffHeapIntTVListPutIntsWithBitMap() {
+    OffHeapIntTVList tvList = new OffHeapIntTVList();
+    int size = 2 * ARRAY_SIZE + 7;
+    long[] times = new long[size];
+    int[] values = new int[size];
+    BitMap bitMap = new BitMap(size);
+    for (int i = 0; i < size; i++) {
+      times[i] = i;
+      values[i] = i;
+      if (i % 10 == 0) {
+        bitMap.mark(i);
+      }
+    }
+    tvList.putInts(times, values, bitMap, 0, size);
+    int nullCnt = 0;
+    for (int i = 0; i < size; i++) {
+      if (i % 10 == 0) {
+        nullCnt++;
+        continue;
+      }
+      Assert.assertEquals(i, tvList.getTime(i - nullCnt));
+      Assert.assertEquals(i, tvList.getInt(i - nullCnt));
+    }
+  }
+
+  @Test
+  public void testOffHeapLongAndDoubleTVListPutAll() {
+    OffHeapLongTVList longTvList = new OffHeapLongTVList();
+    OffHeapDoubleTVList doubleTvList = new OffHeapDoubleTVList();
+    // start in the middle of a slab, so that the bulk insertion crosses slab boundaries
+    longTvList.putLong(0, 0);
+    doubleTvList.putDouble(0, 0);
+    int size = 2 * ARRAY_SIZE + 3;
+    long[] times = new long[size];
+    long[] longValues = new long[size];
+    double[] doubleValues = new double[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = i + 1;
+      longValues[i] = i + 1;
+      doubleValues[i] = i + 1.5;
+    }
+    longTvList.putLongs(times, longValues, null, 0, size);
+    doubleTvList.putDoubles(times, doubleValues, null, 0, size);
+    Assert.assertEquals(size + 1, longTvList.rowCount());
+    Assert.assertEquals(size + 1, doubleTvList.rowCount());
+    for (int i = 1; i <= size; i++) {
+      Assert.assertEquals(i, longTvList.getTime(i));
+      Assert.assertEquals(i, longTvList.getLong(i));
+      Assert.assertEquals(i, doubleTvList.getTime(i));
+      Assert.assertEquals(i + 0.5, doubleTvList.getDouble(i), 0);
+    }
+  }
+
+  @Test
+  public void testOffHeapFloatTVListCloneAndDelete() {
+    OffHeapFloatTVList tvList = new OffHeapFloatTVList();
+    int size = 2 * ARRAY_SIZE + 1;
+    long[] times = new long[size];
+    float[] values = new float[size];
+    for (int i = 0; i < size; i++) {
+      times[i] = i;
+      values[i] = i + 0.5f;
+    }
+    tvList.putFloats(times, values, null, 0, size);
+    OffHeapFloatTVList clonedTvList = tvList.clone();
+    for (int i = 0; i < size; i++) {
+      Assert.assertEquals(tvList.getTime(i), clonedTvList.getTime(i));
+      Assert.assertEquals(tvList.getFloat(i), clonedTvList.getFloat(i), 0);
+    }
+
+    // the cloned list owns its own slabs
+    clonedTvList.putFloat(size, 1.0f);
+    Assert.assertEquals(size, tvList.rowCount());
+
+    Assert.assertEquals(ARRAY_SIZE + 1, tvList.delete(ARRAY_SIZE, size));
+    Assert.assertEquals(ARRAY_SIZE, tvList.rowCount());
+    for (int i = 0; i < ARRAY_SIZE; i++) {
+      Assert.assertEquals(i + 0.5f, tvList.getFloat(i), 0);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TimSortAdaptiveTest {
+
+  @Test
+  public void testDisorderStatistics() {
+    TimLongTVList tvList = newAdaptiveTVList();
+    for (long i = 0; i < 100; i++) {
+      tvList.putLong(i, i);
+    }
+    tvList.updateDisorderStatistics();
+    Assert.assertEquals(0, tvList.getInversionNum());
+
+    // each late point is 3 rows behind its position
+    tvList.putLong(97, 97);
+    tvList.putLong(200, 200);
+    tvList.putLong(198, 198);
+    tvList.updateDisorderStatistics();
+    Assert.assertEquals(2, tvList.getInversionNum());
+    Assert.assertEquals(2, tvList.getMaxBackwardDistance());
+
+    // a backfilled batch far behind the ordered points
+    for (long i = -100; i < 0; i++) {
+      tvList.putLong(i, i);
+    }
+    tvList.updateDisorderStatistics();
+    Assert.assertEquals(3, tvList.getInversionNum());
+    Assert.assertTrue(tvList.getMaxBackwardDistance() > TimSort.SMALL_ARRAY_LENGTH);
+
+    tvList.delete(-100, -1);
+    tvList.updateDisorderStatistics();
+    Assert.assertEquals(2, tvList.getInversionNum());
+  }
+
+  @Test
+  public void testInsertionSortForLocalDisorder() {
+    Random random = new Random(1);
+    TimLongTVList tvList = newAdaptiveTVList();
+    for (long i = 0; i < 10000; i++) {
+      // every point is at most 10 rows away from its sorted position
+      long time = i + random.nextInt(10);
+      tvList.putLong(time, time);
+    }
+    tvList.updateDisorderStatistics();
+    Assert.assertTrue(tvList.getMaxBackwardDistance() <= TimSort.SMALL_ARRAY_LENGTH);
+    sortAndCheck(tvList);
+  }
+
+  @Test
+  public void testRunMergeSortForBackfill() {
+    TimLongTVList tvList = newAdaptiveTVList();
+    // ordered points with several backfilled batches
+    for (int batch = 0; batch < 5; batch++) {
+      for (long i = 0; i < 2000; i++) {
+        long time = i * 5 + batch;
+        tvList.putLong(time, time);
+      }
+    }
+    tvList.updateDisorderStatistics();
+    Assert.assertEquals(4, tvList.getInversionNum());
+    sortAndCheck(tvList);
+  }
+
+  @Test
+  public void testRandomDisorder() {
+    Random random = new Random(2);
+    TimLongTVList tvList = newAdaptiveTVList();
+    for (long i = 0; i < 10000; i++) {
+      long time = random.nextInt(10000);
+      tvList.putLong(time, time);
+    }
+    sortAndCheck(tvList);
+  }
+
+  @Test
+  public void testStableForDuplicatedTimestamps() {
+    TimLongTVList tvList = newAdaptiveTVList();
+    for (long i = 0; i < 1000; i++) {
+      tvList.putLong(i / 4, i);
+    }
+    for (long i = 0; i < 1000; i++) {
+      tvList.putLong(i / 4, i + 1000);
+    }
+    tvList.sort();
+    for (int i = 0; i < tvList.rowCount(); i++) {
+      // the points of the same timestamp keep their insertion order
+      long time = i / 8;
+      Assert.assertEquals(time, tvList.getTime(i));
+      long expectedValue = (i % 8 < 4) ? time * 4 + i % 8 : time * 4 + i % 8 - 4 + 1000;
+      Assert.assertEquals(expectedValue, tvList.getLong(i));
+    }
+  }
+
+  @Test
+  public void testInterleavedStreams() {
+    TimLongTVList tvList = newAdaptiveTVList();
+    // two interleaved ordered streams, each point is only one row behind a larger point but far
+    // from its sorted position
+    for (long i = 0; i < 20000; i++) {
+      tvList.putLong(10000 + i, 10000 + i);
+      tvList.putLong(i, i);
+    }
+    tvList.updateDisorderStatistics();
+    Assert.assertTrue(tvList.getMaxBackwardDistance() > TimSort.SMALL_ARRAY_LENGTH);
+    sortAndCheck(tvList);
+  }
+
+  @Test
+  public void testInsertionSortGivesUp() {
+    TimLongTVList tvList = newAdaptiveTVList();
+    for (long i = 0; i < 20000; i++) {
+      tvList.putLong(10000 + i, 10000 + i);
+      tvList.putLong(i, i);
+    }
+    // insertion sort stops before moving the points quadratically
+    Assert.assertFalse(
+        tvList.insertionSort(
+            0, tvList.rowCount(), (long) TimSort.SMALL_ARRAY_LENGTH * tvList.rowCount()));
+    // no point is lost, so tim sort can take over
+    sortAndCheck(tvList);
+    Assert.assertEquals(40000, tvList.rowCount());
+  }
+
+  private TimLongTVList newAdaptiveTVList() {
+    TimLongTVList tvList = new TimLongTVList();
+    tvList.setAdaptiveSort(true);
+    return tvList;
+  }
+
+  private void sortAndCheck(TimLongTVList tvList) {
+    tvList.sort();
+    Assert.assertEquals(0, tvList.getInversionNum());
+    for (int i = 1; i < tvList.rowCount(); i++) {
+      Assert.assertTrue(tvList.getTime(i - 1) <= tvList.getTime(i));
+      Assert.assertEquals(tvList.getTime(i), tvList.getLong(i));
+    }
+  }
+}
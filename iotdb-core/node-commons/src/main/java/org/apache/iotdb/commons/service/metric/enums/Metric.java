@@ -69,6 +69,8 @@ public enum Metric {
   QUEUE("queue"),
   FLUSHING_MEM_TABLE_STATUS("flushing_mem_table_status"),
   DATA_REGION_MEM_COST("data_region_mem_cost"),
+  DATA_REGION_INSERT_LOCK_WAIT("data_region_insert_lock_wait"),
+  PRIMITIVE_ARRAY_POOL("primitive_array_pool"),
   WAL_NODE_NUM("wal_node_num"),
   WAL_NODE_INFO("wal_node_info"),
   WAL_BUFFER("wal_buffer"),
@@ -115,9 +117,12 @@ public enum Metric {
   QUERY_EXECUTION("query_execution"),
   AGGREGATION("aggregation"),
   QUERY_RESOURCE("query_resource"),
+  QUERY_RESOURCE_SELECTION_COST("query_resource_selection_cost"),
   DATA_EXCHANGE_COST("data_exchange_cost"),
   DATA_EXCHANGE_COUNT("data_exchange_count"),
   DATA_EXCHANGE_SIZE("data_exchange_size"),
+  DATA_EXCHANGE_COMPRESSION_SIZE("data_exchange_compression_size"),
+  DATA_EXCHANGE_COMPRESSION_COST("data_exchange_compression_cost"),
   DRIVER_SCHEDULER("driver_scheduler"),
   COORDINATOR("coordinator"),
   FRAGMENT_INSTANCE_MANAGER("fragment_instance_manager"),
@@ -28,6 +28,7 @@ import org.apache.iotdb.commons.udf.builtin.BuiltinScalarFunction;
 import org.apache.iotdb.commons.udf.builtin.BuiltinTimeSeriesGeneratingFunction;
 import org.apache.iotdb.commons.udf.builtin.relational.TableBuiltinAggregationFunction;
 import org.apache.iotdb.commons.udf.builtin.relational.TableBuiltinScalarFunction;
+import org.apache.iotdb.commons.udf.builtin.relational.TableBuiltinWindowFunction;
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.udf.api.UDF;
 import org.apache.iotdb.udf.api.exception.UDFException;
@@ -120,6 +121,8 @@ public class UDFManagementService {
       return TableBuiltinScalarFunction.getBuiltInScalarFunctionName()
               .contains(functionName.toLowerCase())
           || TableBuiltinAggregationFunction.getBuiltInAggregateFunctionName()
+              .contains(functionName.toLowerCase())
+          || TableBuiltinWindowFunction.getBuiltInWindowFunctionName()
               .contains(functionName.toLowerCase());
     }
   }
@@ -764,8 +764,8 @@ primaryExpression
     | dateExpression                                                                      #dateTimeExpression
     | '(' expression (',' expression)+ ')'                                                #rowConstructor
     | ROW '(' expression (',' expression)* ')'                                            #rowConstructor
-    | qualifiedName '(' (label=identifier '.')? ASTERISK ')'                              #functionCall
-    | qualifiedName '(' (setQuantifier? expression (',' expression)*)?')'                 #functionCall
+    | qualifiedName '(' (label=identifier '.')? ASTERISK ')' over?                        #functionCall
+    | qualifiedName '(' (setQuantifier? expression (',' expression)*)?')' over?           #functionCall
     | '(' query ')'                                                                       #subqueryExpression
     // This is an extension to ANSI SQL, which considers EXISTS to be a <boolean expression>
     | EXISTS '(' query ')'                                                                #exists
@@ -797,6 +797,30 @@ literalExpression
     | QUESTION_MARK                                                                       #parameter
     ;
 
+over
+    : OVER '(' windowSpecification ')'
+    ;
+
+windowSpecification
+    : (PARTITION BY partition+=expression (',' partition+=expression)*)?
+      (ORDER BY sortItem (',' sortItem)*)?
+      windowFrame?
+    ;
+
+windowFrame
+    : frameType=RANGE start=frameBound
+    | frameType=ROWS start=frameBound
+    | frameType=RANGE BETWEEN start=frameBound AND end=frameBound
+    | frameType=ROWS BETWEEN start=frameBound AND end=frameBound
+    ;
+
+frameBound
+    : UNBOUNDED boundType=PRECEDING                 #unboundedFrame
+    | UNBOUNDED boundType=FOLLOWING                 #unboundedFrame
+    | CURRENT ROW                                   #currentRowBound
+    | expression boundType=(PRECEDING | FOLLOWING)  #boundedFrame
+    ;
+
 trimsSpecification
     : LEADING
     | TRAILING
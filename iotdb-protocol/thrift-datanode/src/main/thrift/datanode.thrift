@@ -81,10 +81,14 @@ struct TGetDataBlockRequest {
   3: required i32 endSequenceId
   // Index of upstream SinkChannel
   4: required i32 index
+  // Whether the downstream asks for TsBlocks in the exchange encoding
+  5: optional bool acceptEncodedTsBlocks
 }
 
 struct TGetDataBlockResponse {
   1: required list<binary> tsBlocks
+  // Whether tsBlocks are in the exchange encoding instead of the plain TsBlockSerde format
+  2: optional bool encoded
 }
 
 struct TAcknowledgeDataBlockEvent {
@@ -107,6 +111,29 @@ struct TNewDataBlockEvent {
   3: required TFragmentInstanceId sourceFragmentInstanceId
   4: required i32 startSequenceId
   5: required list<i64> blockSizes
+  // Credit given back to the downstream SourceHandle when the TsBlocks can not be pushed
+  6: optional i64 returnedCreditInBytes
+}
+
+struct TDataBlockCreditEvent {
+  1: required TFragmentInstanceId sourceFragmentInstanceId
+  // Index of upstream SinkChannel
+  2: required i32 index
+  // Bytes reserved by the downstream SourceHandle for TsBlocks pushed to it
+  3: required i64 creditInBytes
+  // Whether the downstream asks for pushed TsBlocks in the exchange encoding
+  4: optional bool acceptEncodedTsBlocks
+}
+
+struct TPushDataBlockEvent {
+  1: required TFragmentInstanceId targetFragmentInstanceId
+  2: required string targetPlanNodeId
+  3: required TFragmentInstanceId sourceFragmentInstanceId
+  4: required i32 startSequenceId
+  5: required list<i64> blockSizes
+  6: required list<binary> tsBlocks
+  // Whether tsBlocks are in the exchange encoding instead of the plain TsBlockSerde format
+  7: optional bool encoded
 }
 
 struct TEndOfDataBlockEvent {
@@ -272,6 +299,8 @@ struct TDataNodeHeartbeatReq {
   9: optional i64 deviceQuotaRemain
   10: optional TDataNodeActivation activation
   11: optional set<common.TEndPoint> configNodeEndPoints
+  // the latest table statistics of all the DataRegions in the cluster
+  12: optional map<i32, TRegionTableStatistics> regionTableStatistics
 }
 
 struct TDataNodeActivation {
@@ -298,6 +327,27 @@ struct TDataNodeHeartbeatResp {
   14: optional list<bool> pipeCompletedList
   15: optional list<i64> pipeRemainingEventCountList
   16: optional list<double> pipeRemainingTimeList
+  // the table statistics collected from the DataRegions on the DataNode
+  17: optional map<i32, TRegionTableStatistics> regionTableStatistics
+}
+
+struct TColumnStatistics {
+  1: required i64 nonNullCount
+  2: required double minValue
+  3: required double maxValue
+}
+
+struct TTableStatistics {
+  1: required i64 rowCount
+  2: required i64 deviceCount
+  3: required i64 startTime
+  4: required i64 endTime
+  5: required map<string, TColumnStatistics> columnStatistics
+}
+
+struct TRegionTableStatistics {
+  1: required string database
+  2: required map<string, TTableStatistics> tableStatistics
 }
 
 struct TPipeHeartbeatReq {
@@ -636,6 +686,12 @@ struct TOperatorStatistics{
   9: optional i64 count
 }
 
+struct TTsFileReadStatistics {
+  1: required string filePath
+  2: required i64 readCount
+  3: required i64 readTime
+}
+
 struct TQueryStatistics {
   1: i64 loadTimeSeriesMetadataDiskSeqCount,
   2: i64 loadTimeSeriesMetadataDiskUnSeqCount,
@@ -692,6 +748,12 @@ struct TQueryStatistics {
   45: i64 loadChunkFromCacheCount
   46: i64 loadChunkFromDiskCount
   47: i64 loadChunkActualIOSize
+
+  48: optional i64 loadDecodedPageFromCacheCount
+  49: optional i64 loadDecodedPageFromChunkCount
+
+  // the TsFiles taking the most time to read on cache misses
+  50: optional list<TTsFileReadStatistics> slowestTsFileReads
 }
 
 
@@ -1182,6 +1244,11 @@ service MPPDataExchangeService {
 
   void onEndOfDataBlockEvent(TEndOfDataBlockEvent e);
 
+  /** Return false if the SinkChannel does not accept the credit */
+  bool onDataBlockCreditEvent(TDataBlockCreditEvent e);
+
+  void onPushDataBlockEvent(TPushDataBlockEvent e);
+
   /** Empty rpc, only for connection test */
   common.TSStatus testConnectionEmptyRPC()
 }
\ No newline at end of file